@@ -0,0 +1,173 @@
+package bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseConfig;
+import databasePart1.LatencyHistogram;
+import databasePart1.SchemaMigrations;
+import databasePart1.WorkloadGenerator;
+import main.ApiServer;
+import main.Json;
+
+/**
+ * ApiLoadTest drives the {@link ApiServer} with many concurrent clients and
+ * reports throughput and latency as the clients and the server see them.
+ *
+ * <p> The server runs in this process on a private in-memory database seeded
+ * by the {@link WorkloadGenerator}, so the application data is never touched. Every
+ * client is a virtual thread that loops over a mix of question list, question,
+ * message and answer requests until the run ends. </p>
+ *
+ * <p> Usage: {@code ApiLoadTest [clients] [seconds] [poolSize]} with the
+ * application classes, H2 and this source root on the classpath. The default
+ * is 1,000 clients for 20 seconds on a pool of 32 connections. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class ApiLoadTest {
+    private static final String DB_URL = "jdbc:h2:mem:apiload;DB_CLOSE_DELAY=-1";
+    private static final int USERS = 50;
+    private static final int QUESTIONS = 5_000;
+    private static final WorkloadGenerator WORKLOAD = WorkloadGenerator.forQuestions(QUESTIONS).users(USERS).prefix("loaduser");
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Optional number of clients, seconds to run and connection pool size
+     * @throws Exception if the server cannot be started or seeded
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        Properties settings = new Properties();
+        settings.setProperty(DatabaseConfig.URL, DB_URL);
+        settings.setProperty(DatabaseConfig.POOL_MAX_SIZE, String.valueOf(poolSize));
+        // With many more clients than connections, requests queue for a lease
+        settings.setProperty(DatabaseConfig.POOL_LEASE_TIMEOUT, "60000");
+        DatabaseConfig.set(DatabaseConfig.from(settings, Map.of()));
+
+        try (ApiServer server = ApiServer.start(0)) {
+            List<Integer> questionIds = seed();
+            String base = "http://localhost:" + server.getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            List<String> tokens = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                String body = Json.write(Map.of("userName", WORKLOAD.userName(i), "password", WorkloadGenerator.PASSWORD));
+                HttpResponse<String> reply = http.send(post(base + "/api/login", null, body),
+                        HttpResponse.BodyHandlers.ofString());
+                tokens.add((String) Json.parseObject(reply.body()).get("token"));
+            }
+
+            System.out.printf("Running %,d clients for %d s against a pool of %d connections%n", clients, seconds, poolSize);
+            LatencyHistogram latency = new LatencyHistogram();
+            LongAdder errors = new LongAdder();
+            long end = System.nanoTime() + seconds * 1_000_000_000L;
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    String token = tokens.get(c % tokens.size());
+                    String partner = WORKLOAD.userName((c + 1) % USERS);
+                    executor.submit(() -> {
+                        while (System.nanoTime() < end) {
+                            HttpRequest request = nextRequest(base, token, partner, questionIds);
+                            long sent = System.nanoTime();
+                            try {
+                                HttpResponse<String> reply = http.send(request, HttpResponse.BodyHandlers.ofString());
+                                if (reply.statusCode() >= 400) {
+                                    errors.increment();
+                                }
+                            } catch (Exception e) {
+                                errors.increment();
+                            }
+                            latency.record(System.nanoTime() - sent);
+                        }
+                        return null;
+                    });
+                }
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%nClient side%n");
+            System.out.printf("  requests   %,12d%n", latency.getCount());
+            System.out.printf("  errors     %,12d%n", errors.sum());
+            System.out.printf("  req/s      %,12.0f%n", latency.getCount() / elapsed);
+            System.out.printf("  p50 ms     %12.2f%n", latency.getPercentileMicros(50) / 1000.0);
+            System.out.printf("  p99 ms     %12.2f%n", latency.getPercentileMicros(99) / 1000.0);
+            System.out.printf("  max ms     %12.2f%n", latency.getMaxMicros() / 1000.0);
+            System.out.printf("%nServer side%n  %s%n", Json.write(server.getMetrics().toMap()));
+        } finally {
+            ConnectionPool.shutdown();
+        }
+    }
+
+    // Mostly reads, like the pages: 70% lists, 15% single questions, 10% inbox, 5% answers
+    private static HttpRequest nextRequest(String base, String token, String partner, List<Integer> questionIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        int questionId = questionIds.get(random.nextInt(questionIds.size()));
+        if (roll < 70) {
+            return get(base + "/api/questions?limit=20", token);
+        } else if (roll < 85) {
+            return get(base + "/api/questions/" + questionId, token);
+        } else if (roll < 95) {
+            return get(base + "/api/messages/" + partner, token);
+        }
+        return post(base + "/api/questions/" + questionId + "/answers", token,
+                Json.write(Map.of("content", "Load test answer " + random.nextInt(1_000_000))));
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri)).header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private static HttpRequest post(String uri, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static List<Integer> seed() throws SQLException {
+        SchemaMigrations.ensureCurrent();
+        long start = System.nanoTime();
+        WorkloadGenerator.Result result = WORKLOAD.generate(ConnectionPool.getInstance());
+        List<Integer> ids = new ArrayList<>(QUESTIONS);
+        try (Connection connection = ConnectionPool.getInstance().getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT questionId FROM Questions")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        System.out.printf("Seeded %s in %,d ms%n", result, (System.nanoTime() - start) / 1_000_000);
+        return ids;
+    }
+}
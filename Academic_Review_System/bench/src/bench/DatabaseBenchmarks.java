@@ -0,0 +1,280 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseConfig;
+import databasePart1.DatabaseHelper2;
+import databasePart1.DatabaseHelper3;
+import databasePart1.DatabaseHelper4;
+import databasePart1.SchemaMigrations;
+import databasePart1.WorkloadGenerator;
+import main.Answer;
+import main.Feedback;
+import main.Question;
+import main.Request;
+import main.Review;
+
+/**
+ * DatabaseBenchmarks measures the database helper calls the pages make most
+ * often, each against its own H2 database seeded at 10,000, 100,000 and
+ * 1,000,000 questions, so an optimization can be measured before and after.
+ *
+ * <p> Every trial runs in a forked JVM whose shared connection pool points at
+ * {@code <ars.bench.dir>/seed-<rows>}. The first trial for a size fills it
+ * with the default {@link WorkloadGenerator} data set for that many questions
+ * (twice as many answers, one message per question, one user per twenty
+ * questions) and records it in a {@code bench_seed} table; later runs reuse
+ * the file. Delete the directory after a schema or generator change. </p>
+ *
+ * <p> Each call picks its question, users or conversation at random from the
+ * seeded ones, so no benchmark keeps reading the same cached page.
+ * {@code addQuestion} writes under its own author, whose questions are
+ * deleted after each iteration. </p>
+ *
+ * <p> Usage: compile this source root with the JMH annotation processor, then
+ * run {@code org.openjdk.jmh.Main DatabaseBenchmarks}, optionally with
+ * {@code -p rows=10000} to pick sizes. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmarks {
+    private static final String BENCH_DIR_PROPERTY = "ars.bench.dir";
+    private static final String WRITER = "bench_writer";
+    // Conversations sampled for getConversation
+    private static final int CONVERSATION_SAMPLE = 10_000;
+
+    private static final String[] WORDS = {
+        "java", "code", "error", "class", "method", "loop", "array", "list", "test", "recursion",
+        "inheritance", "interface", "exception", "thread", "stream", "lambda", "hashmap", "generics",
+        "database", "query", "index", "junit", "javafx", "binding"
+    };
+
+    /**
+     * Number of questions in the seeded database.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private final DatabaseHelper2 databaseHelper2 = new DatabaseHelper2();
+    private final DatabaseHelper3 databaseHelper3 = new DatabaseHelper3();
+    private final DatabaseHelper4 databaseHelper4 = new DatabaseHelper4();
+    private final List<Integer> written = new ArrayList<>();
+    private WorkloadGenerator generator;
+    private int firstQuestionId;
+    private final List<String[]> conversations = new ArrayList<>();
+
+    /**
+     * The random choices of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        private final Random random = new Random(7);
+
+        int question(DatabaseBenchmarks db) {
+            return db.firstQuestionId + random.nextInt(db.rows);
+        }
+
+        String user(DatabaseBenchmarks db) {
+            return db.generator.userName(random.nextInt(db.generator.getUsers()));
+        }
+
+        String[] conversation(DatabaseBenchmarks db) {
+            return db.conversations.get(random.nextInt(db.conversations.size()));
+        }
+
+        String word() {
+            return WORDS[random.nextInt(WORDS.length)];
+        }
+    }
+
+    /**
+     * Points the shared pool at the database for this size, seeding it first if needed.
+     *
+     * @throws SQLException if the database cannot be opened or seeded
+     * @throws IOException  if a stale database cannot be deleted
+     */
+    @Setup(Level.Trial)
+    public void open() throws SQLException, IOException {
+        Path dir = Paths.get(System.getProperty(BENCH_DIR_PROPERTY,
+                Paths.get(System.getProperty("java.io.tmpdir"), "ars-bench").toString()));
+        Path base = dir.resolve("seed-" + rows).toAbsolutePath();
+        Properties settings = new Properties();
+        settings.setProperty(DatabaseConfig.URL, "jdbc:h2:" + base);
+        // Seeding holds one connection for minutes and runs many slow batches
+        settings.setProperty(DatabaseConfig.POOL_LEAK_THRESHOLD, "0");
+        settings.setProperty(DatabaseConfig.QUERY_SLOW_MILLIS, "0");
+        DatabaseConfig.set(DatabaseConfig.from(settings, Map.of()));
+        generator = WorkloadGenerator.forQuestions(rows);
+
+        if (!isSeeded(base)) {
+            ConnectionPool.shutdown();
+            deleteDatabase(dir, base);
+            SchemaMigrations.ensureCurrent();
+            long start = System.nanoTime();
+            WorkloadGenerator.Result result = generator.generate(ConnectionPool.getInstance());
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE bench_seed (seeded_rows INT)");
+                stmt.execute("INSERT INTO bench_seed VALUES (" + rows + ")");
+            }
+            System.out.printf("%nSeeded %s into %s in %,d s%n", result, base, (System.nanoTime() - start) / 1_000_000_000);
+        }
+        SchemaMigrations.ensureCurrent();
+
+        // The generated questions have consecutive IDs
+        try (Connection connection = ConnectionPool.getInstance().getConnection();
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(questionId) FROM Questions")) {
+                rs.next();
+                firstQuestionId = rs.getInt(1);
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT owner, partner FROM conversation_summary "
+                    + "ORDER BY RAND() LIMIT " + CONVERSATION_SAMPLE)) {
+                while (rs.next()) {
+                    conversations.add(new String[] {rs.getString(1), rs.getString(2)});
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the questions addQuestion wrote, so every iteration sees the seeded size.
+     *
+     * @throws SQLException if a question cannot be deleted
+     */
+    @TearDown(Level.Iteration)
+    public void removeWrittenQuestions() throws SQLException {
+        for (int questionId : written) {
+            databaseHelper2.deleteQuestion(questionId);
+        }
+        written.clear();
+    }
+
+    /**
+     * Closes the pooled connections.
+     */
+    @TearDown(Level.Trial)
+    public void close() {
+        ConnectionPool.shutdown();
+    }
+
+    @Benchmark
+    public Question addQuestion(Keys keys) throws SQLException {
+        Question question = new Question(0, keys.word() + " " + keys.word() + " " + keys.word(), WRITER, new Date(), false);
+        databaseHelper2.addQuestion(question);
+        written.add(question.getQuestionId());
+        return question;
+    }
+
+    @Benchmark
+    public List<Question> searchQuestions(Keys keys) throws SQLException {
+        return databaseHelper2.searchQuestions(keys.word());
+    }
+
+    @Benchmark
+    public List<Answer> getAnswersForQuestion(Keys keys) throws SQLException {
+        return databaseHelper2.getAnswersForQuestion(keys.question(this));
+    }
+
+    @Benchmark
+    public List<Feedback> getConversation(Keys keys) throws SQLException {
+        String[] conversation = keys.conversation(this);
+        return databaseHelper2.getConversation(conversation[0], conversation[1]);
+    }
+
+    @Benchmark
+    public List<String> getUserConversations(Keys keys) throws SQLException {
+        return databaseHelper2.getUserConversations(keys.user(this));
+    }
+
+    @Benchmark
+    public int getUnreadAnswersCount(Keys keys) throws SQLException {
+        return databaseHelper2.getUnreadAnswersCount(keys.question(this), keys.user(this));
+    }
+
+    @Benchmark
+    public List<Review> getReviewsForQuestion(Keys keys) throws SQLException {
+        return databaseHelper3.getReviewsForQuestion(keys.question(this));
+    }
+
+    @Benchmark
+    public boolean isStudentBanned(Keys keys) throws SQLException {
+        return databaseHelper3.isStudentBanned(keys.user(this));
+    }
+
+    // getRequestsByStatus is private; these are the two public calls that run it
+    @Benchmark
+    public List<Request> getAllOpenRequests() throws SQLException {
+        return databaseHelper4.getAllOpenRequests();
+    }
+
+    @Benchmark
+    public List<Request> getAllClosedRequests() throws SQLException {
+        return databaseHelper4.getAllClosedRequests();
+    }
+
+    private static boolean isSeeded(Path base) throws SQLException {
+        if (!Files.exists(Paths.get(base + ".mv.db"))) {
+            return false;
+        }
+        try (Connection connection = ConnectionPool.getInstance().getConnection();
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT seeded_rows FROM bench_seed")) {
+                return rs.next();
+            } catch (SQLException e) {
+                // An interrupted seed never created the table
+                return false;
+            }
+        }
+    }
+
+    private static void deleteDatabase(Path dir, Path base) throws IOException {
+        Files.createDirectories(dir);
+        String prefix = base.getFileName() + ".";
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.getFileName().toString().startsWith(prefix))::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package bench;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Random;
+
+import databasePart1.ConnectionPool;
+import databasePart1.SchemaMigrations;
+import databasePart1.SearchIndex;
+import main.SearchHit;
+
+/**
+ * SearchBenchmark compares the {@code LIKE '%keyword%'} question search with
+ * the {@link SearchIndex} on a generated table of questions.
+ *
+ * <p> The questions go into a private in-memory database so the benchmark never
+ * touches the application data. Each query is run a number of times against
+ * both paths after a warm-up, and the median time per query is printed. </p>
+ *
+ * <p> Usage: {@code SearchBenchmark [rows]} with the application classes, H2 and
+ * this source root on the classpath. The default is 100,000 questions. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class SearchBenchmark {
+    private static final String DB_URL = "jdbc:h2:mem:searchbench;DB_CLOSE_DELAY=-1";
+    // Same statement as DatabaseHelper2.searchQuestionsByContentOrAuthor
+    private static final String LIKE_QUERY = "SELECT questionId, content, author, timestamp, answered FROM Questions "
+            + "WHERE LOWER(content) LIKE LOWER(?) OR LOWER(author) LIKE LOWER(?)";
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final String[] COMMON_WORDS = {
+        "how", "do", "i", "the", "a", "in", "java", "code", "error", "when", "with", "my", "to", "is", "this",
+        "class", "method", "why", "does", "not", "work", "for", "loop", "array", "list", "test", "and", "of"
+    };
+    private static final String[] TOPIC_WORDS = {
+        "recursion", "inheritance", "polymorphism", "interface", "exception", "thread", "stream", "lambda",
+        "hashmap", "iterator", "generics", "constructor", "database", "query", "index", "junit", "javafx",
+        "scene", "button", "layout", "binding", "sorting", "algorithm", "complexity", "pointer", "memory"
+    };
+
+    private static final String[] QUERIES = { "java", "recursion", "stream lambda", "\"null pointer\"" };
+    private static final String[] LIKE_PATTERNS = { "java", "recursion", "stream", "null pointer" };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of questions to generate
+     * @throws SQLException if the benchmark database cannot be set up
+     */
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        ConnectionPool pool = new ConnectionPool(DB_URL, "sa", "", 1, 2, 30_000, 60_000, 0);
+        try {
+            SchemaMigrations.migrate(pool);
+            long start = System.nanoTime();
+            populate(pool, rows);
+            System.out.printf("Inserted %,d questions in %,d ms%n", rows, (System.nanoTime() - start) / 1_000_000);
+
+            SearchIndex index = new SearchIndex();
+            start = System.nanoTime();
+            index.rebuild(pool);
+            System.out.printf("Built index of %,d documents and %,d terms in %,d ms%n",
+                    index.getDocumentCount(), index.getTermCount(), (System.nanoTime() - start) / 1_000_000);
+
+            System.out.printf("%n%-18s %12s %10s %12s %10s %9s%n", "query", "LIKE ms", "LIKE hits", "index ms", "idx hits", "speedup");
+            for (int q = 0; q < QUERIES.length; q++) {
+                String pattern = LIKE_PATTERNS[q];
+                String query = QUERIES[q];
+                int[] likeHits = new int[1];
+                int[] indexHits = new int[1];
+                double likeMillis = median(() -> likeHits[0] = likeSearch(pool, pattern));
+                double indexMillis = median(() -> indexHits[0] = index.searchIds(query, SearchHit.Type.QUESTION, 0).size());
+                System.out.printf("%-18s %12.2f %10d %12.2f %10d %8.1fx%n", query, likeMillis, likeHits[0],
+                        indexMillis, indexHits[0], likeMillis / indexMillis);
+            }
+            // The dashboards usually show the first page of results only
+            double topMillis = median(() -> index.search("java", 50).size());
+            System.out.printf("%nTop 50 hits with snippets for \"java\": %.2f ms%n", topMillis);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void populate(ConnectionPool pool, int rows) throws SQLException {
+        Random random = new Random(42);
+        String sql = "INSERT INTO Questions (content, author, timestamp, answered) VALUES (?, ?, ?, ?)";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < rows; i++) {
+                pstmt.setString(1, sentence(random));
+                pstmt.setString(2, "student" + random.nextInt(2_000));
+                pstmt.setTimestamp(3, new Timestamp(System.currentTimeMillis() - random.nextInt(1_000_000_000)));
+                pstmt.setBoolean(4, random.nextBoolean());
+                pstmt.addBatch();
+                if (i % 1_000 == 999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            connection.commit();
+        }
+    }
+
+    // A question of 8 to 40 words, mostly common words with a few topic words
+    private static String sentence(Random random) {
+        int words = 8 + random.nextInt(33);
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(' ');
+            }
+            if (random.nextInt(5) == 0) {
+                text.append(TOPIC_WORDS[random.nextInt(TOPIC_WORDS.length)]);
+            } else {
+                text.append(COMMON_WORDS[random.nextInt(COMMON_WORDS.length)]);
+            }
+        }
+        if (random.nextInt(50) == 0) {
+            text.append(" null pointer");
+        }
+        return text.append('?').toString();
+    }
+
+    private static int likeSearch(ConnectionPool pool, String keyword) throws SQLException {
+        int hits = 0;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(LIKE_QUERY)) {
+            String pattern = "%" + keyword + "%";
+            pstmt.setString(1, pattern);
+            pstmt.setString(2, pattern);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rs.getString("content");
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private interface Run {
+        Object run() throws SQLException;
+    }
+
+    private static double median(Run run) throws SQLException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.run();
+        }
+        double[] millis = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            run.run();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[MEASURED_RUNS / 2];
+    }
+}
@@ -0,0 +1,116 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AsyncDatabase runs database calls off the calling thread so the JavaFX
+ * Application Thread never waits on H2.
+ *
+ * <p> Every call runs on its own virtual thread. The helpers borrow a pooled
+ * connection per call, so the number of calls touching the database at once
+ * is still bounded by the {@link ConnectionPool}; any extra calls simply wait
+ * for a connection without tying up a platform thread. </p>
+ *
+ * <p> Cancelling a returned future before its call has started skips the
+ * call. A call that is already running is not interrupted, because
+ * interrupting a thread inside H2's file I/O closes the database file; its
+ * result is discarded instead. </p>
+ *
+ * <p> A call made while a {@link UiAction} is open runs inside that action,
+ * so its statements are counted towards the click that caused them. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class AsyncDatabase {
+
+    /**
+     * A database call that produces a result.
+     *
+     * @param <T> The type of the result
+     */
+    @FunctionalInterface
+    public interface SqlCall<T> {
+        /**
+         * Performs the call.
+         *
+         * @return The result of the call
+         * @throws SQLException if a database access error occurs
+         */
+        T call() throws SQLException;
+    }
+
+    /**
+     * A database call that produces no result.
+     */
+    @FunctionalInterface
+    public interface SqlAction {
+        /**
+         * Performs the call.
+         *
+         * @throws SQLException if a database access error occurs
+         */
+        void run() throws SQLException;
+    }
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-call-", 0).factory());
+
+    private AsyncDatabase() {
+    }
+
+    /**
+     * Runs a database call on a virtual thread.
+     *
+     * @param <T>  The type of the result
+     * @param call The call to run
+     * @return A future completed with the result, or exceptionally with the
+     *         exception the call threw
+     */
+    public static <T> CompletableFuture<T> supply(SqlCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // The call counts towards the UI action that asked for it
+        EXECUTOR.execute(UiAction.propagate(() -> {
+            if (future.isDone()) {
+                return; // Cancelled before it started
+            }
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Runs a database call without a result on a virtual thread.
+     *
+     * @param action The call to run
+     * @return A future completed when the call has finished, or exceptionally
+     *         with the exception the call threw
+     */
+    public static CompletableFuture<Void> run(SqlAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the executor the calls run on, for code that schedules its own work
+     * such as JavaFX tasks and services.
+     *
+     * @return The virtual-thread executor
+     */
+    public static Executor executor() {
+        return EXECUTOR;
+    }
+}
@@ -0,0 +1,149 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.sql.DataSource;
+
+/**
+ * BanRegistry keeps the usernames of banned students in memory, so pages can
+ * check whether a student is banned without a query per check.
+ *
+ * <p> The registry is loaded from the {@code banned_students} table on first
+ * use and kept in sync by {@link DatabaseHelper3#banStudent} and
+ * {@link DatabaseHelper3#unbanStudent}, which update it once their change is
+ * committed. A ban that is rolled back never shows up here. Changes made to the
+ * table by other means, including other clients of a shared database, are
+ * picked up by {@link #reload(DataSource)}, which {@link SharedDatabaseWatcher}
+ * calls periodically while the database is shared. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class BanRegistry {
+    private static BanRegistry instance;
+
+    // Guarded by this; replaced as a whole on reload
+    private Set<String> banned = new HashSet<>();
+    private volatile boolean loaded = false;
+
+    private BanRegistry() {
+    }
+
+    /**
+     * Returns the registry shared by the whole application.
+     *
+     * @return The shared ban registry
+     */
+    public static synchronized BanRegistry getInstance() {
+        if (instance == null) {
+            instance = new BanRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the contents of the registry with the bans in the database.
+     * Bans and unbans committed while the reload runs wait for it and are
+     * applied afterwards, so none of them is lost.
+     *
+     * @param dataSource Where to read the bans from
+     * @return The students banned or unbanned since the registry was last
+     *         loaded, empty on the first load
+     * @throws SQLException if the bans cannot be read; the old contents are kept
+     */
+    public synchronized Set<String> reload(DataSource dataSource) throws SQLException {
+        Set<String> fresh = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT student_username FROM banned_students")) {
+            while (rs.next()) {
+                fresh.add(rs.getString(1));
+            }
+        }
+        Set<String> changed = new TreeSet<>();
+        if (loaded) {
+            for (String studentUsername : fresh) {
+                if (!banned.contains(studentUsername)) {
+                    changed.add(studentUsername);
+                }
+            }
+            for (String studentUsername : banned) {
+                if (!fresh.contains(studentUsername)) {
+                    changed.add(studentUsername);
+                }
+            }
+        }
+        banned = fresh;
+        loaded = true;
+        return changed;
+    }
+
+    /**
+     * Loads the registry from the shared connection pool if it has not been loaded yet.
+     *
+     * @throws SQLException if the bans cannot be read
+     */
+    public void ensureLoaded() throws SQLException {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload(ConnectionPool.getInstance());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the registry has been loaded from the database.
+     *
+     * @return true once a reload has completed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks whether a student is banned, loading the registry first if needed.
+     *
+     * @param studentUsername The username of the student
+     * @return true if the student is banned
+     * @throws SQLException if the registry has to be loaded and cannot be
+     */
+    public boolean isBanned(String studentUsername) throws SQLException {
+        ensureLoaded();
+        synchronized (this) {
+            return banned.contains(studentUsername);
+        }
+    }
+
+    /**
+     * Gets the usernames of all banned students.
+     *
+     * @return The banned usernames in alphabetical order
+     * @throws SQLException if the registry has to be loaded and cannot be
+     */
+    public Set<String> getBannedUsernames() throws SQLException {
+        ensureLoaded();
+        synchronized (this) {
+            return new TreeSet<>(banned);
+        }
+    }
+
+    // Called by DatabaseHelper3 after a ban is committed
+    synchronized void banned(String studentUsername) {
+        banned.add(studentUsername);
+    }
+
+    // Called by DatabaseHelper3 after an unban is committed
+    synchronized void unbanned(String studentUsername) {
+        banned.remove(studentUsername);
+    }
+}
@@ -0,0 +1,247 @@
+package databasePart1;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ChangeEvent is what the database helpers publish on the {@link EventBus}
+ * once a change is committed. Each kind of change is a subclass carrying the
+ * IDs and usernames a page needs to decide whether the change concerns it;
+ * the rows themselves are fetched by the delta sync of the table that shows
+ * them.
+ *
+ * <p> Subscribing to a class also delivers its subclasses, so a subscriber of
+ * {@code ChangeEvent.class} sees every change. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public abstract class ChangeEvent {
+
+    private ChangeEvent() {
+    }
+
+    /**
+     * A change to a question or to something counted in its table row.
+     */
+    public abstract static class QuestionEvent extends ChangeEvent {
+        private final int questionId;
+
+        private QuestionEvent(int questionId) {
+            this.questionId = questionId;
+        }
+
+        /**
+         * Gets the question the change concerns.
+         * @return The question ID
+         */
+        public int getQuestionId() {
+            return questionId;
+        }
+    }
+
+    /**
+     * A question was asked.
+     */
+    public static final class QuestionAdded extends QuestionEvent {
+        private final String author;
+
+        public QuestionAdded(int questionId, String author) {
+            super(questionId);
+            this.author = author;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+    }
+
+    /**
+     * A question was edited or marked answered or unanswered.
+     */
+    public static final class QuestionUpdated extends QuestionEvent {
+        public QuestionUpdated(int questionId) {
+            super(questionId);
+        }
+    }
+
+    /**
+     * A question was deleted.
+     */
+    public static final class QuestionDeleted extends QuestionEvent {
+        public QuestionDeleted(int questionId) {
+            super(questionId);
+        }
+    }
+
+    /**
+     * A change to an answer, which also changes its question's row.
+     */
+    public abstract static class AnswerEvent extends QuestionEvent {
+        private final int answerId;
+
+        private AnswerEvent(int answerId, int questionId) {
+            super(questionId);
+            this.answerId = answerId;
+        }
+
+        /**
+         * Gets the answer the change concerns.
+         * @return The answer ID
+         */
+        public int getAnswerId() {
+            return answerId;
+        }
+    }
+
+    /**
+     * An answer was posted.
+     */
+    public static final class AnswerAdded extends AnswerEvent {
+        private final String author;
+
+        public AnswerAdded(int answerId, int questionId, String author) {
+            super(answerId, questionId);
+            this.author = author;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+    }
+
+    /**
+     * An answer was edited or accepted.
+     */
+    public static final class AnswerUpdated extends AnswerEvent {
+        public AnswerUpdated(int answerId, int questionId) {
+            super(answerId, questionId);
+        }
+    }
+
+    /**
+     * An answer was deleted.
+     */
+    public static final class AnswerDeleted extends AnswerEvent {
+        public AnswerDeleted(int answerId, int questionId) {
+            super(answerId, questionId);
+        }
+    }
+
+    /**
+     * A review was posted on a question or one of its answers.
+     */
+    public static final class ReviewAdded extends QuestionEvent {
+        private final int reviewId;
+        private final Integer answerId;
+        private final String reviewer;
+
+        public ReviewAdded(int reviewId, int questionId, Integer answerId, String reviewer) {
+            super(questionId);
+            this.reviewId = reviewId;
+            this.answerId = answerId;
+            this.reviewer = reviewer;
+        }
+
+        public int getReviewId() {
+            return reviewId;
+        }
+
+        /**
+         * Gets the answer the review is about.
+         * @return The answer ID, or null for a review of the question itself
+         */
+        public Integer getAnswerId() {
+            return answerId;
+        }
+
+        public String getReviewer() {
+            return reviewer;
+        }
+    }
+
+    /**
+     * A message was sent to one user, or broadcast to several.
+     */
+    public static final class MessageSent extends ChangeEvent {
+        private final int feedbackId;
+        private final String sender;
+        private final List<String> receivers;
+
+        public MessageSent(int feedbackId, String sender, List<String> receivers) {
+            this.feedbackId = feedbackId;
+            this.sender = sender;
+            this.receivers = Collections.unmodifiableList(receivers);
+        }
+
+        public int getFeedbackId() {
+            return feedbackId;
+        }
+
+        public String getSender() {
+            return sender;
+        }
+
+        public List<String> getReceivers() {
+            return receivers;
+        }
+
+        /**
+         * Checks whether the message shows up in a user's inbox.
+         * @param userName The user
+         * @return true if the user sent or received the message
+         */
+        public boolean involves(String userName) {
+            return sender.equals(userName) || receivers.contains(userName);
+        }
+    }
+
+    /**
+     * A user read the unread messages of a conversation.
+     */
+    public static final class MessagesRead extends ChangeEvent {
+        private final String reader;
+        private final String partner;
+
+        public MessagesRead(String reader, String partner) {
+            this.reader = reader;
+            this.partner = partner;
+        }
+
+        public String getReader() {
+            return reader;
+        }
+
+        public String getPartner() {
+            return partner;
+        }
+    }
+
+    /**
+     * A student was banned or had a ban lifted.
+     */
+    public static final class UserBanned extends ChangeEvent {
+        private final String userName;
+        private final boolean banned;
+
+        public UserBanned(String userName, boolean banned) {
+            this.userName = userName;
+            this.banned = banned;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        /**
+         * Tells a ban from a lifted ban.
+         * @return true if the user is now banned, false if the ban was lifted
+         */
+        public boolean isBanned() {
+            return banned;
+        }
+    }
+}
@@ -0,0 +1,614 @@
+package databasePart1;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * ConnectionPool keeps a bounded set of open H2 connections that all of the
+ * database helpers borrow from, so a page switch no longer pays for a new
+ * physical connection.
+ *
+ * <p> Connections handed out by {@link #getConnection()} are leases: calling
+ * {@code close()} on them returns the underlying connection to the pool instead
+ * of closing it. The pool grows on demand up to its maximum size, makes callers
+ * wait up to the lease timeout when every connection is in use, closes idle
+ * connections above the minimum size, and reports leases that are held longer
+ * than the leak threshold together with the borrowing thread, and with its
+ * stack when leak tracing is on; capturing a stack on every borrow is too
+ * costly to leave on by default. Each
+ * connection keeps its own {@link StatementCache} so repeated SQL is parsed
+ * only once per connection, and every statement reports its executions to
+ * {@link QueryStats}. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class ConnectionPool implements DataSource {
+    // JDBC driver name; the URL and credentials come from DatabaseConfig
+    static final String JDBC_DRIVER = "org.h2.Driver";
+
+    // Default pool settings
+    public static final int DEFAULT_MIN_SIZE = 2;
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final long DEFAULT_LEASE_TIMEOUT_MILLIS = 5_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+    public static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 30_000;
+    private static final long MAINTENANCE_PERIOD_MILLIS = 15_000;
+
+    private static ConnectionPool instance;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long leaseTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean leakTrace;
+    private final int statementCacheSize;
+
+    // Idle connections, most recently returned first so the tail ages out
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leased = new LinkedHashSet<>();
+    private int totalConnections = 0;
+    private long leakCount = 0;
+    // Statement cache counters of connections that have since been closed
+    private long retiredCacheHits = 0;
+    private long retiredCacheMisses = 0;
+    private boolean closed = false;
+    private ScheduledExecutorService maintenance;
+
+    /**
+     * Creates a pool for the given database.
+     *
+     * @param url                 JDBC URL of the database
+     * @param user                Database user
+     * @param password            Database password
+     * @param minSize             Number of connections kept open even when idle
+     * @param maxSize             Upper bound on open connections
+     * @param leaseTimeoutMillis  How long a borrower waits for a free connection
+     * @param idleTimeoutMillis   How long a connection above minSize may sit idle before it is closed
+     * @param leakThresholdMillis How long a lease may be held before it is reported as a leak (0 disables)
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long leaseTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        this(url, user, password, minSize, maxSize, leaseTimeoutMillis, idleTimeoutMillis,
+                leakThresholdMillis, StatementCache.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a pool for the given database with an explicit statement cache size.
+     *
+     * @param url                 JDBC URL of the database
+     * @param user                Database user
+     * @param password            Database password
+     * @param minSize             Number of connections kept open even when idle
+     * @param maxSize             Upper bound on open connections
+     * @param leaseTimeoutMillis  How long a borrower waits for a free connection
+     * @param idleTimeoutMillis   How long a connection above minSize may sit idle before it is closed
+     * @param leakThresholdMillis How long a lease may be held before it is reported as a leak (0 disables)
+     * @param statementCacheSize  Prepared statements cached per connection (0 disables caching)
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long leaseTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        this(url, user, password, minSize, maxSize, leaseTimeoutMillis, idleTimeoutMillis,
+                leakThresholdMillis, false, statementCacheSize);
+    }
+
+    /**
+     * Creates a pool for the given database, optionally recording where each
+     * connection was borrowed so a leak report can show it.
+     *
+     * @param url                 JDBC URL of the database
+     * @param user                Database user
+     * @param password            Database password
+     * @param minSize             Number of connections kept open even when idle
+     * @param maxSize             Upper bound on open connections
+     * @param leaseTimeoutMillis  How long a borrower waits for a free connection
+     * @param idleTimeoutMillis   How long a connection above minSize may sit idle before it is closed
+     * @param leakThresholdMillis How long a lease may be held before it is reported as a leak (0 disables)
+     * @param leakTrace           Whether to capture the borrower's stack on every borrow
+     * @param statementCacheSize  Prepared statements cached per connection (0 disables caching)
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long leaseTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          boolean leakTrace, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.leakTrace = leakTrace;
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Returns the pool shared by the whole application, creating it with the
+     * settings of {@link DatabaseConfig#get()} on first use.
+     *
+     * @return The shared connection pool
+     */
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null || instance.isClosed()) {
+            DatabaseConfig config = DatabaseConfig.get();
+            instance = new ConnectionPool(config.getJdbcUrl(), config.getUser(), config.getPassword(),
+                    config.getMinPoolSize(), config.getMaxPoolSize(), config.getLeaseTimeoutMillis(),
+                    config.getIdleTimeoutMillis(), config.getLeakThresholdMillis(), config.isLeakTrace(),
+                    config.getStatementCacheSize());
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the shared pool with one using the given settings and the
+     * configured database and statement cache size. Any previous shared pool
+     * is shut down.
+     *
+     * @param minSize             Number of connections kept open even when idle
+     * @param maxSize             Upper bound on open connections
+     * @param leaseTimeoutMillis  How long a borrower waits for a free connection
+     * @param idleTimeoutMillis   How long an idle connection above minSize is kept
+     * @param leakThresholdMillis How long a lease may be held before it is reported
+     * @return The new shared pool
+     */
+    public static synchronized ConnectionPool configure(int minSize, int maxSize, long leaseTimeoutMillis,
+                                                        long idleTimeoutMillis, long leakThresholdMillis) {
+        if (instance != null) {
+            instance.close();
+        }
+        DatabaseConfig config = DatabaseConfig.get();
+        instance = new ConnectionPool(config.getJdbcUrl(), config.getUser(), config.getPassword(), minSize, maxSize,
+                leaseTimeoutMillis, idleTimeoutMillis, leakThresholdMillis, config.isLeakTrace(),
+                config.getStatementCacheSize());
+        return instance;
+    }
+
+    /**
+     * Shuts down the shared pool, closing all of its connections.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool. The caller must close the returned
+     * connection to give it back.
+     *
+     * @return A leased connection
+     * @throws SQLException if no connection became free within the lease timeout
+     *                      or a new connection could not be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseTimeoutMillis);
+        PooledConnection pooled = null;
+        boolean create = false;
+
+        synchronized (this) {
+            startMaintenanceIfNeeded();
+            while (pooled == null && !create) {
+                if (closed) {
+                    throw new SQLException("Connection pool has been shut down.");
+                }
+                pooled = idle.pollFirst();
+                if (pooled == null) {
+                    if (totalConnections < maxSize) {
+                        totalConnections++; // Reserve the slot before opening outside the lock
+                        create = true;
+                    } else {
+                        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if (remaining <= 0) {
+                            throw new SQLException("Timed out after " + leaseTimeoutMillis
+                                    + " ms waiting for a database connection (" + maxSize + " in use).");
+                        }
+                        try {
+                            wait(remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for a database connection.", e);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (create) {
+            try {
+                pooled = openPhysicalConnection();
+            } catch (SQLException e) {
+                synchronized (this) {
+                    totalConnections--;
+                    notifyAll();
+                }
+                throw e;
+            }
+        } else if (!pooled.isUsable()) {
+            // The idle connection went bad; drop it and try again
+            discard(pooled);
+            return getConnection();
+        }
+
+        // The thread name is cheap; the stack is only worth its cost while tracing a leak
+        String borrower = Thread.currentThread().getName();
+        Lease lease = new Lease(pooled, borrower, leakThresholdMillis > 0 && leakTrace
+                ? new Exception("Connection leased by thread " + borrower)
+                : null);
+        synchronized (this) {
+            leased.add(lease);
+        }
+        return lease.proxy;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool only hands out connections for its configured user.");
+    }
+
+    private PooledConnection openPhysicalConnection() throws SQLException {
+        try {
+            Class.forName(JDBC_DRIVER); // Load the JDBC driver
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("H2 JDBC driver not found.", e);
+        }
+        System.out.println("Connecting to database...");
+        return new PooledConnection(DriverManager.getConnection(url, user, password), statementCacheSize);
+    }
+
+    // Called by a lease when its borrower closes it
+    private void release(Lease lease) {
+        PooledConnection pooled = lease.pooled;
+        boolean reusable = pooled.reset();
+        synchronized (this) {
+            leased.remove(lease);
+            if (reusable && !closed) {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                notifyAll();
+                return;
+            }
+        }
+        discard(pooled);
+    }
+
+    private void discard(PooledConnection pooled) {
+        pooled.closePhysical();
+        synchronized (this) {
+            retiredCacheHits += pooled.statementCache.getHits();
+            retiredCacheMisses += pooled.statementCache.getMisses();
+            totalConnections--;
+            notifyAll();
+        }
+    }
+
+    private void startMaintenanceIfNeeded() {
+        if (maintenance == null) {
+            maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "connection-pool-maintenance");
+                t.setDaemon(true);
+                return t;
+            });
+            maintenance.scheduleWithFixedDelay(this::runMaintenance,
+                    MAINTENANCE_PERIOD_MILLIS, MAINTENANCE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the idle timeout while
+     * the pool is above its minimum size, and reports leases held longer than
+     * the leak threshold. Runs periodically in the background.
+     */
+    public void runMaintenance() {
+        long now = System.currentTimeMillis();
+        java.util.List<PooledConnection> evicted = new java.util.ArrayList<>();
+        java.util.List<Lease> leaks = new java.util.ArrayList<>();
+
+        synchronized (this) {
+            // Oldest idle connections sit at the tail
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections - evicted.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt >= idleTimeoutMillis) {
+                    it.remove();
+                    evicted.add(pooled);
+                }
+            }
+
+            if (leakThresholdMillis > 0) {
+                for (Lease lease : leased) {
+                    if (!lease.reported && now - lease.leasedAt >= leakThresholdMillis) {
+                        lease.reported = true;
+                        leakCount++;
+                        leaks.add(lease);
+                    }
+                }
+            }
+        }
+
+        for (PooledConnection pooled : evicted) {
+            discard(pooled);
+        }
+        for (Lease lease : leaks) {
+            if (lease.borrowStack != null) {
+                System.err.println("ConnectionPool: Possible connection leak, lease held for "
+                        + (now - lease.leasedAt) + " ms by thread " + lease.borrower + ". Borrowed at:");
+                lease.borrowStack.printStackTrace();
+            } else {
+                System.err.println("ConnectionPool: Possible connection leak, lease held for "
+                        + (now - lease.leasedAt) + " ms by thread " + lease.borrower
+                        + ". Set pool.leakTrace=true to see where it was borrowed.");
+            }
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops handing out new ones. Connections
+     * that are still leased are closed when their borrowers return them.
+     */
+    public void close() {
+        java.util.List<PooledConnection> toClose;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new java.util.ArrayList<>(idle);
+            idle.clear();
+            notifyAll();
+        }
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        for (PooledConnection pooled : toClose) {
+            discard(pooled);
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // --- Pool statistics ---
+
+    public synchronized int getActiveCount() {
+        return leased.size();
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public synchronized int getTotalCount() {
+        return totalConnections;
+    }
+
+    public synchronized long getLeakCount() {
+        return leakCount;
+    }
+
+    /**
+     * Counts prepared statements served from the per-connection caches.
+     *
+     * @return Number of prepareStatement calls that reused a cached statement
+     */
+    public synchronized long getStatementCacheHits() {
+        long hits = retiredCacheHits;
+        for (PooledConnection pooled : allConnections()) {
+            hits += pooled.statementCache.getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * Counts prepared statements that had to be parsed by the database.
+     *
+     * @return Number of prepareStatement calls that missed the cache
+     */
+    public synchronized long getStatementCacheMisses() {
+        long misses = retiredCacheMisses;
+        for (PooledConnection pooled : allConnections()) {
+            misses += pooled.statementCache.getMisses();
+        }
+        return misses;
+    }
+
+    private java.util.List<PooledConnection> allConnections() {
+        java.util.List<PooledConnection> all = new java.util.ArrayList<>(idle);
+        for (Lease lease : leased) {
+            all.add(lease.pooled);
+        }
+        return all;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    // --- DataSource boilerplate ---
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Logging goes to System.out/System.err like the rest of the helpers
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        // Borrowers are bounded by the lease timeout instead
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(leaseTimeoutMillis);
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool does not wrap " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private static class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private long lastReturnedAt = System.currentTimeMillis();
+
+        PooledConnection(Connection physical, int statementCacheSize) {
+            this.physical = physical;
+            this.statementCache = new StatementCache(physical, statementCacheSize);
+        }
+
+        boolean isUsable() {
+            try {
+                return !physical.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // Undo whatever the borrower changed so the next borrower gets a clean connection
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            statementCache.close();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * One borrow of a pooled connection. The proxy handed to the borrower routes
+     * close() back to the pool and refuses to be used afterwards.
+     */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final String borrower;
+        // Null unless leak tracing is on
+        private final Exception borrowStack;
+        private final long leasedAt = System.currentTimeMillis();
+        private final Connection proxy;
+        private boolean returned = false;
+        private boolean reported = false;
+
+        Lease(PooledConnection pooled, String borrower, Exception borrowStack) {
+            this.pooled = pooled;
+            this.borrower = borrower;
+            this.borrowStack = borrowStack;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                // Plain prepareStatement(sql) calls go through the statement cache
+                return InstrumentedStatement.wrap(
+                        pooled.statementCache.prepare((String) args[0], this.proxy), (String) args[0], this.proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                // Every statement reports its executions to QueryStats
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return InstrumentedStatement.wrap((Statement) result, sql, this.proxy);
+            }
+            return result;
+        }
+    }
+}
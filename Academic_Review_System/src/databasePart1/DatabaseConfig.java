@@ -0,0 +1,297 @@
+package databasePart1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * DatabaseConfig holds the storage settings of the application: the JDBC URL
+ * and credentials, the connection pool sizes and timeouts, the H2 MVStore
+ * cache size and lock timeout, whether to share the database with other
+ * clients through an H2 TCP server and how often a shared database is checked
+ * for other clients' changes, and the thresholds {@link QueryStats}
+ * reports slow statements and N+1 queries at.
+ *
+ * <p> Settings are read from a properties file and can be overridden by
+ * environment variables. The file is the one named by the {@code ars.config}
+ * system property or the {@code ARS_CONFIG} environment variable, otherwise
+ * {@code academic-review.properties} in the working directory if it exists.
+ * Each key has an environment variable named after it with an {@code ARS_}
+ * prefix, for example {@code pool.maxSize} is {@code ARS_POOL_MAX_SIZE}.
+ * Without a file or variables the defaults open {@code ~/FoundationDatabase}
+ * in embedded mode as before. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class DatabaseConfig {
+    /** System property naming the configuration file. */
+    public static final String CONFIG_FILE_PROPERTY = "ars.config";
+    /** Environment variable naming the configuration file. */
+    public static final String CONFIG_FILE_ENV = "ARS_CONFIG";
+    /** File read from the working directory when no other file is named. */
+    public static final String DEFAULT_CONFIG_FILE = "academic-review.properties";
+    /** Prefix of the environment variables that override settings. */
+    public static final String ENV_PREFIX = "ARS_";
+
+    // Keys of the properties file
+    public static final String URL = "db.url";
+    public static final String USER = "db.user";
+    public static final String PASSWORD = "db.password";
+    public static final String POOL_MIN_SIZE = "pool.minSize";
+    public static final String POOL_MAX_SIZE = "pool.maxSize";
+    public static final String POOL_LEASE_TIMEOUT = "pool.leaseTimeoutMillis";
+    public static final String POOL_IDLE_TIMEOUT = "pool.idleTimeoutMillis";
+    public static final String POOL_LEAK_THRESHOLD = "pool.leakThresholdMillis";
+    public static final String POOL_LEAK_TRACE = "pool.leakTrace";
+    public static final String POOL_STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
+    public static final String H2_CACHE_SIZE = "h2.cacheSizeKb";
+    public static final String H2_LOCK_TIMEOUT = "h2.lockTimeoutMillis";
+    public static final String SERVER_ENABLED = "server.enabled";
+    public static final String SERVER_PORT = "server.port";
+    public static final String SERVER_ALLOW_OTHERS = "server.allowOthers";
+    public static final String SHARED_REFRESH = "shared.refreshMillis";
+    public static final String QUERY_SLOW_MILLIS = "query.slowMillis";
+    public static final String QUERY_N_PLUS_ONE_THRESHOLD = "query.nPlusOneThreshold";
+
+    /** The embedded database the application has always used. */
+    public static final String DEFAULT_URL = "jdbc:h2:~/FoundationDatabase";
+    /** H2's standard TCP server port. */
+    public static final int DEFAULT_SERVER_PORT = 9092;
+
+    private static DatabaseConfig current;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final long leaseTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean leakTrace;
+    private final int statementCacheSize;
+    private final int cacheSizeKb;
+    private final int lockTimeoutMillis;
+    private final boolean serverEnabled;
+    private final int serverPort;
+    private final boolean serverAllowOthers;
+    private final long sharedRefreshMillis;
+    private final long slowQueryMillis;
+    private final int nPlusOneThreshold;
+
+    private DatabaseConfig(Properties settings) {
+        url = settings.getProperty(URL, DEFAULT_URL);
+        user = settings.getProperty(USER, "sa");
+        password = settings.getProperty(PASSWORD, "");
+        minPoolSize = intSetting(settings, POOL_MIN_SIZE, ConnectionPool.DEFAULT_MIN_SIZE);
+        maxPoolSize = intSetting(settings, POOL_MAX_SIZE, ConnectionPool.DEFAULT_MAX_SIZE);
+        leaseTimeoutMillis = longSetting(settings, POOL_LEASE_TIMEOUT, ConnectionPool.DEFAULT_LEASE_TIMEOUT_MILLIS);
+        idleTimeoutMillis = longSetting(settings, POOL_IDLE_TIMEOUT, ConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS);
+        leakThresholdMillis = longSetting(settings, POOL_LEAK_THRESHOLD, ConnectionPool.DEFAULT_LEAK_THRESHOLD_MILLIS);
+        leakTrace = Boolean.parseBoolean(settings.getProperty(POOL_LEAK_TRACE, "false").trim());
+        statementCacheSize = intSetting(settings, POOL_STATEMENT_CACHE_SIZE, StatementCache.DEFAULT_MAX_SIZE);
+        cacheSizeKb = intSetting(settings, H2_CACHE_SIZE, 0);
+        lockTimeoutMillis = intSetting(settings, H2_LOCK_TIMEOUT, 0);
+        serverEnabled = Boolean.parseBoolean(settings.getProperty(SERVER_ENABLED, "false").trim());
+        serverPort = intSetting(settings, SERVER_PORT, DEFAULT_SERVER_PORT);
+        serverAllowOthers = Boolean.parseBoolean(settings.getProperty(SERVER_ALLOW_OTHERS, "false").trim());
+        sharedRefreshMillis = longSetting(settings, SHARED_REFRESH, SharedDatabaseWatcher.DEFAULT_REFRESH_MILLIS);
+        slowQueryMillis = longSetting(settings, QUERY_SLOW_MILLIS, QueryStats.DEFAULT_SLOW_MILLIS);
+        nPlusOneThreshold = intSetting(settings, QUERY_N_PLUS_ONE_THRESHOLD, QueryStats.DEFAULT_N_PLUS_ONE_THRESHOLD);
+        if (minPoolSize < 0 || maxPoolSize < 1 || minPoolSize > maxPoolSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minPoolSize + ", max " + maxPoolSize);
+        }
+        if (sharedRefreshMillis < 1) {
+            throw new IllegalArgumentException("Setting " + SHARED_REFRESH + " must be positive: " + sharedRefreshMillis);
+        }
+    }
+
+    /**
+     * Gets the configuration with every setting at its default.
+     *
+     * @return The default configuration
+     */
+    public static DatabaseConfig defaults() {
+        return new DatabaseConfig(new Properties());
+    }
+
+    /**
+     * Builds a configuration from file settings and environment overrides.
+     *
+     * @param file Settings read from the properties file
+     * @param env  Environment variables; those named after a key win over the file
+     * @return The configuration
+     * @throws IllegalArgumentException if a setting is not a valid number or the pool sizes do not fit
+     */
+    public static DatabaseConfig from(Properties file, Map<String, String> env) {
+        Properties settings = new Properties();
+        settings.putAll(file);
+        for (String key : new String[] {URL, USER, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_LEASE_TIMEOUT,
+                POOL_IDLE_TIMEOUT, POOL_LEAK_THRESHOLD, POOL_LEAK_TRACE, POOL_STATEMENT_CACHE_SIZE, H2_CACHE_SIZE,
+                H2_LOCK_TIMEOUT, SERVER_ENABLED, SERVER_PORT, SERVER_ALLOW_OTHERS, SHARED_REFRESH,
+                QUERY_SLOW_MILLIS, QUERY_N_PLUS_ONE_THRESHOLD}) {
+            String value = env.get(envName(key));
+            if (value != null) {
+                settings.setProperty(key, value);
+            }
+        }
+        return new DatabaseConfig(settings);
+    }
+
+    /**
+     * Reads the configuration file, if any, and applies the environment overrides.
+     *
+     * @return The configuration
+     * @throws UncheckedIOException if a named configuration file cannot be read
+     */
+    public static DatabaseConfig load() {
+        Properties file = new Properties();
+        String named = System.getProperty(CONFIG_FILE_PROPERTY, System.getenv(CONFIG_FILE_ENV));
+        Path path = Paths.get(named != null ? named : DEFAULT_CONFIG_FILE);
+        if (named != null || Files.isRegularFile(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                file.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read configuration file " + path, e);
+            }
+        }
+        return from(file, System.getenv());
+    }
+
+    /**
+     * Gets the configuration the shared connection pool uses, loading it on first use.
+     *
+     * @return The application's configuration
+     */
+    public static synchronized DatabaseConfig get() {
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the application's configuration. The shared connection pool
+     * picks it up the next time it is created.
+     *
+     * @param config The configuration to use
+     */
+    public static synchronized void set(DatabaseConfig config) {
+        current = config;
+    }
+
+    /**
+     * Gets the environment variable that overrides a key, for example
+     * {@code ARS_POOL_MAX_SIZE} for {@code pool.maxSize}.
+     *
+     * @param key The properties file key
+     * @return The environment variable name
+     */
+    public static String envName(String key) {
+        StringBuilder name = new StringBuilder(ENV_PREFIX);
+        for (char c : key.toCharArray()) {
+            if (c == '.') {
+                name.append('_');
+            } else if (Character.isUpperCase(c)) {
+                name.append('_').append(c);
+            } else {
+                name.append(Character.toUpperCase(c));
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Gets the JDBC URL with the H2 cache size and lock timeout appended,
+     * unless the configured URL already sets them.
+     *
+     * @return The URL to open connections with
+     */
+    public String getJdbcUrl() {
+        StringBuilder jdbcUrl = new StringBuilder(url);
+        appendSetting(jdbcUrl, "CACHE_SIZE", cacheSizeKb);
+        appendSetting(jdbcUrl, "LOCK_TIMEOUT", lockTimeoutMillis);
+        return jdbcUrl.toString();
+    }
+
+    private static void appendSetting(StringBuilder jdbcUrl, String name, int value) {
+        if (value > 0 && !jdbcUrl.toString().toUpperCase(Locale.ROOT).contains(";" + name + "=")) {
+            jdbcUrl.append(';').append(name).append('=').append(value);
+        }
+    }
+
+    /**
+     * Gets the database part of the URL, without the {@code jdbc:h2:} prefix
+     * or settings, for example {@code ~/FoundationDatabase}.
+     *
+     * @return The database name or path
+     */
+    public String getDatabaseName() {
+        String name = url.startsWith("jdbc:h2:") ? url.substring("jdbc:h2:".length()) : url;
+        int settings = name.indexOf(';');
+        return settings >= 0 ? name.substring(0, settings) : name;
+    }
+
+    /**
+     * Checks whether other processes may write to the database: this one
+     * serves it over TCP, connects to it through a server, or lets H2 start
+     * one with {@code AUTO_SERVER}. What a process tracks in memory about the
+     * writes it has not committed yet then says nothing about the others'.
+     *
+     * @return true unless the database is embedded in this process only
+     */
+    public boolean isShared() {
+        String name = getDatabaseName().toLowerCase(Locale.ROOT);
+        return serverEnabled || name.startsWith("tcp:") || name.startsWith("ssl:")
+                || url.toUpperCase(Locale.ROOT).contains(";AUTO_SERVER=TRUE");
+    }
+
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+    public int getMinPoolSize() { return minPoolSize; }
+    public int getMaxPoolSize() { return maxPoolSize; }
+    public long getLeaseTimeoutMillis() { return leaseTimeoutMillis; }
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public long getLeakThresholdMillis() { return leakThresholdMillis; }
+    public boolean isLeakTrace() { return leakTrace; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public int getCacheSizeKb() { return cacheSizeKb; }
+    public int getLockTimeoutMillis() { return lockTimeoutMillis; }
+    public boolean isServerEnabled() { return serverEnabled; }
+    public int getServerPort() { return serverPort; }
+    public boolean isServerAllowOthers() { return serverAllowOthers; }
+    public long getSharedRefreshMillis() { return sharedRefreshMillis; }
+    public long getSlowQueryMillis() { return slowQueryMillis; }
+    public int getNPlusOneThreshold() { return nPlusOneThreshold; }
+
+    private static int intSetting(Properties settings, String key, int defaultValue) {
+        long value = longSetting(settings, key, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Setting " + key + " is out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long longSetting(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Setting " + key + " is not a number: " + value, e);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package databasePart1;
 import java.sql.*;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.UUID;
@@ -10,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
+import main.SessionPrincipal;
 import main.User;
 import main.Question;
 import main.Answer;
@@ -28,60 +28,27 @@ import main.Answer;
 
 public class DatabaseHelper {
 
-	// JDBC driver name and database URL 
-	static final String JDBC_DRIVER = "org.h2.Driver";   
-	static final String DB_URL = "jdbc:h2:~/FoundationDatabase";  
-
-	//  Database credentials 
-	static final String USER = "sa"; 
-	static final String PASS = ""; 
-
-	public Connection connection = null;
-	public Statement statement = null; 
-	//	PreparedStatement pstmt
-
+	// Makes sure the database schema is current; the tables themselves are
+	// created by SchemaMigrations.
 	public void connectToDatabase() throws SQLException {
-		try {
-			Class.forName(JDBC_DRIVER); // Load the JDBC driver
-			System.out.println("Connecting to database...");
-			connection = DriverManager.getConnection(DB_URL, USER, PASS);
-			statement = connection.createStatement(); 
-			// You can use this command to clear the database and restart from fresh.
-	//		 statement.execute("DROP ALL OBJECTS");  
-
-			createTables();  // Create the necessary tables if they don't exist
-		} catch (ClassNotFoundException e) {
-			System.err.println("JDBC Driver not found: " + e.getMessage());
-		}
+		SchemaMigrations.ensureCurrent();
 	}
 
-	private void createTables() throws SQLException {
-		String userTable = "CREATE TABLE IF NOT EXISTS cse360users ("
-				+ "id INT AUTO_INCREMENT PRIMARY KEY, "
-				+ "userName VARCHAR(255) UNIQUE, "
-				+ "password VARCHAR(255), "
-				+ "fullName VARCHAR(255), "
-				+ "email VARCHAR(255), "
-				+ "roles VARCHAR(255), "
-				+ "oneTimePassword VARCHAR(255))";
-		statement.execute(userTable);
-		
-		// Create the invitation codes table
-	    String invitationCodesTable = "CREATE TABLE IF NOT EXISTS InvitationCodes ("
-	            + "code VARCHAR(10) PRIMARY KEY, "
-	            + "isUsed BOOLEAN DEFAULT FALSE, "
-	            + "roles VARCHAR(255), "
-	            + "deadline TIMESTAMP)";
-	    statement.execute(invitationCodesTable);
+	// Borrows a connection from the shared pool, or joins the unit of work running
+	// on this thread; closing it gives it back.
+	private Connection getConnection() throws SQLException {
+		return UnitOfWork.connection();
 	}
 
-
 	// Check if the database is empty
 	public boolean isDatabaseEmpty() throws SQLException {
 		String query = "SELECT COUNT(*) AS count FROM cse360users";
-		ResultSet resultSet = statement.executeQuery(query);
-		if (resultSet.next()) {
-			return resultSet.getInt("count") == 0;
+		try (Connection connection = getConnection();
+		     Statement statement = connection.createStatement();
+		     ResultSet resultSet = statement.executeQuery(query)) {
+			if (resultSet.next()) {
+				return resultSet.getInt("count") == 0;
+			}
 		}
 		return true;
 	}
@@ -89,7 +56,8 @@ public class DatabaseHelper {
 	// Registers a new user in the database.
 	public void register(User user) throws SQLException {
 		String insertUser = "INSERT INTO cse360users (userName, password, fullName, email, roles) VALUES (?, ?, ?, ?, ?)";
-		try (PreparedStatement pstmt = connection.prepareStatement(insertUser)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(insertUser)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			pstmt.setString(3, user.getFullName());
@@ -102,7 +70,8 @@ public class DatabaseHelper {
 	// Validates a user's login credentials.
 	public boolean login(User user) throws SQLException {
 		String query = "SELECT fullName, email FROM cse360users WHERE userName = ? AND password = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			try (ResultSet rs = pstmt.executeQuery()) {
@@ -119,10 +88,60 @@ public class DatabaseHelper {
 		return false;
 	}
 	
+	// Everything a session needs about its user, in one row
+	private static final String PRINCIPAL_SELECT = "SELECT u.userName, u.fullName, u.email, u.roles, "
+			+ "EXISTS (SELECT 1 FROM banned_students b WHERE b.student_username = u.userName) AS banned, "
+			+ "(SELECT COUNT(*) FROM Feedback f WHERE f.receiver = u.userName AND f.isRead = FALSE) "
+			+ "+ (SELECT COUNT(*) FROM feedback_recipients r WHERE r.recipient = u.userName AND r.isRead = FALSE) AS unread "
+			+ "FROM cse360users u WHERE u.userName = ?";
+
+	/**
+	 * Checks a user's credentials and loads their session principal in the same query.
+	 *
+	 * @param userName The username
+	 * @param password The password
+	 * @return The user's principal, or null if the username or password is wrong
+	 * @throws SQLException if a database access error occurs
+	 */
+	public SessionPrincipal authenticate(String userName, String password) throws SQLException {
+		return queryPrincipal(PRINCIPAL_SELECT + " AND u.password = ?", userName, password);
+	}
+
+	/**
+	 * Loads the session principal of a user without checking a password, for
+	 * sessions whose principal was invalidated.
+	 *
+	 * @param userName The username
+	 * @return The user's principal, or null if there is no such user
+	 * @throws SQLException if a database access error occurs
+	 */
+	public SessionPrincipal loadPrincipal(String userName) throws SQLException {
+		return queryPrincipal(PRINCIPAL_SELECT, userName);
+	}
+
+	private SessionPrincipal queryPrincipal(String query, String... params) throws SQLException {
+		try (Connection connection = getConnection();
+		     PreparedStatement pstmt = connection.prepareStatement(query)) {
+			for (int i = 0; i < params.length; i++) {
+				pstmt.setString(i + 1, params[i]);
+			}
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (!rs.next()) {
+					return null;
+				}
+				String roles = rs.getString("roles");
+				return new SessionPrincipal(rs.getString("userName"), rs.getString("fullName"), rs.getString("email"),
+						roles == null || roles.isEmpty() ? new String[0] : roles.split(","),
+						rs.getBoolean("banned"), rs.getInt("unread"));
+			}
+		}
+	}
+
 	// Checks if a user already exists in the database based on their userName.
 	public boolean doesUserExist(String userName) {
 	    String query = "SELECT COUNT(*) FROM cse360users WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
@@ -140,7 +159,8 @@ public class DatabaseHelper {
 	// Retrieves the role of a user from the database using their UserName.
 	public String[] getUserRoles(String userName) {
 	    String query = "SELECT roles FROM cse360users WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -159,7 +179,8 @@ public class DatabaseHelper {
 	    String code = UUID.randomUUID().toString().substring(0, 4); // Generate a random 4-character code
 	    String query = "INSERT INTO InvitationCodes (code, roles, deadline) VALUES (?, ?, ?)";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        pstmt.setString(2, String.join(",", roles));
 	        pstmt.setTimestamp(3, deadline);
@@ -171,38 +192,27 @@ public class DatabaseHelper {
 	    return code;
 	}
 	
-	// Validates an invitation code to check if it is unused.
+	// Validates an unused, unexpired invitation code and marks it as used.
 	public boolean validateInvitationCode(String code) {
-	    String query = "SELECT * FROM InvitationCodes WHERE code = ? AND isUsed = FALSE AND deadline > CURRENT_TIMESTAMP";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    // Checks the code and marks it used in one statement, so a code can only
+	    // ever be redeemed once even when two people sign up with it at once.
+	    String query = "UPDATE InvitationCodes SET isUsed = TRUE "
+	            + "WHERE code = ? AND isUsed = FALSE AND deadline > CURRENT_TIMESTAMP";
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
-	        ResultSet rs = pstmt.executeQuery();
-	        if (rs.next()) {
-	            // Mark the code as used
-	            markInvitationCodeAsUsed(code);
-	            return true;
-	        }
+	        return pstmt.executeUpdate() > 0;
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
 	    return false;
 	}
-	
-	// Marks the invitation code as used in the database.
-	private void markInvitationCodeAsUsed(String code) {
-	    String query = "UPDATE InvitationCodes SET isUsed = TRUE WHERE code = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-	        pstmt.setString(1, code);
-	        pstmt.executeUpdate();
-	    } catch (SQLException e) {
-	        e.printStackTrace();
-	    }
-	}
 
 	// Gets available roles for an invitation code
 	public String[] getInvitationRoles(String code) {
 	    String query = "SELECT roles FROM InvitationCodes WHERE code = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -215,18 +225,9 @@ public class DatabaseHelper {
 	    return new String[0];
 	}
 
-	// Closes the database connection and statement.
+	// Connections are borrowed per call from the shared pool, so this helper
+	// holds nothing open. Kept so existing callers need no changes.
 	public void closeConnection() {
-		try{ 
-			if(statement!=null) statement.close(); 
-		} catch(SQLException se2) { 
-			se2.printStackTrace();
-		} 
-		try { 
-			if(connection!=null) connection.close(); 
-		} catch(SQLException se){ 
-			se.printStackTrace(); 
-		} 
 	}
 
 	// Add new method to get all users
@@ -234,7 +235,8 @@ public class DatabaseHelper {
 	    java.util.List<User> users = new java.util.ArrayList<>();
 	    String query = "SELECT userName, fullName, email, roles FROM cse360users";
 	    
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        ResultSet rs = pstmt.executeQuery();
 	        while (rs.next()) {
 	            String userName = rs.getString("userName");
@@ -256,34 +258,49 @@ public class DatabaseHelper {
 	 */
 	public java.util.List<User> getUsersByRole(String role) throws SQLException {
 	    java.util.List<User> users = new java.util.ArrayList<>();
-	    String query = "SELECT userName, fullName, email, roles FROM cse360users WHERE roles LIKE ?";
+	    String query = "SELECT userName, fullName, email, roles FROM cse360users WHERE "
+	            + roleCondition("", role) + " ORDER BY userName";
 	    
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-	        pstmt.setString(1, "%" + role + "%");
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        ResultSet rs = pstmt.executeQuery();
 	        while (rs.next()) {
 	            String userName = rs.getString("userName");
 	            String fullName = rs.getString("fullName");
 	            String email = rs.getString("email");
 	            String[] roles = rs.getString("roles").split(",");
-	            
-	            // Verify the user actually has this role (not just a substring match)
-	            boolean hasRole = false;
-	            for (String userRole : roles) {
-	                if (userRole.equals(role)) {
-	                    hasRole = true;
-	                    break;
-	                }
-	            }
-	            
-	            if (hasRole) {
-	                users.add(new User(userName, "", fullName, email, roles));
-	            }
+	            users.add(new User(userName, "", fullName, email, roles));
 	        }
 	    }
 	    return users;
 	}
 
+	/**
+	 * Builds a condition matching the users who have a role. For the roles in
+	 * {@link User#ALL_ROLES} the condition lists every access mask with the role's
+	 * bit set, so H2 answers it with seeks on the access_mask index instead of
+	 * scanning the users. Other role names have no bit and fall back to an exact
+	 * match on the comma-separated roles column.
+	 *
+	 * @param alias The table alias followed by a dot, or "" for an unqualified column
+	 * @param role  The role to match
+	 * @return The SQL condition
+	 */
+	static String roleCondition(String alias, String role) {
+	    int bit = User.roleBit(role);
+	    if (bit == 0) {
+	        // The added commas make the match exact
+	        return "POSITION('," + role.replace("'", "''") + ",', ',' || " + alias + "roles || ',') > 0";
+	    }
+	    StringBuilder masks = new StringBuilder();
+	    for (int mask = 1; mask < 1 << User.ALL_ROLES.length; mask++) {
+	        if ((mask & bit) != 0) {
+	            masks.append(masks.length() == 0 ? "" : ", ").append(mask);
+	        }
+	    }
+	    return alias + "access_mask IN (" + masks + ")";
+	}
+
 	public boolean deleteUser(String userName, String currentAdminUserName) throws SQLException {
 	    // Don't allow admin to delete themselves
 	    if (userName.equals(currentAdminUserName)) {
@@ -291,9 +308,11 @@ public class DatabaseHelper {
 	    }
 	    
 	    String query = "DELETE FROM cse360users WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, userName);
 	        int rowsAffected = pstmt.executeUpdate();
+	        UnitOfWork.afterCommit(() -> SessionContext.invalidate(userName));
 	        return rowsAffected > 0;
 	    }
 	}
@@ -313,8 +332,10 @@ public class DatabaseHelper {
 
 	    // Check if this would remove the last admin
 	    if (!userName.equals(currentAdminUserName)) {
-	        String query = "SELECT COUNT(*) as adminCount FROM cse360users WHERE roles LIKE '%admin%' AND userName != ?";
-	        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	        String query = "SELECT COUNT(*) as adminCount FROM cse360users WHERE "
+	                + roleCondition("", "admin") + " AND userName != ?";
+	        try (Connection connection = getConnection();
+	             PreparedStatement pstmt = connection.prepareStatement(query)) {
 	            pstmt.setString(1, userName);
 	            ResultSet rs = pstmt.executeQuery();
 	            if (rs.next()) {
@@ -335,16 +356,130 @@ public class DatabaseHelper {
 
 	    // Update the roles
 	    String updateQuery = "UPDATE cse360users SET roles = ? WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(updateQuery)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(updateQuery)) {
 	        pstmt.setString(1, String.join(",", newRoles));
 	        pstmt.setString(2, userName);
-	        return pstmt.executeUpdate() > 0;
+	        boolean updated = pstmt.executeUpdate() > 0;
+	        UnitOfWork.afterCommit(() -> SessionContext.invalidate(userName));
+	        return updated;
+	    }
+	}
+
+	/**
+	 * Gives a role to many users at once. Users who already have the role are
+	 * left as they are.
+	 *
+	 * @param userNames The users to give the role to
+	 * @param role      The role to add
+	 * @return The number of users whose roles changed
+	 * @throws SQLException if a database access error occurs; no user is changed then
+	 * @throws IllegalArgumentException if the role is not valid
+	 */
+	public int addRoleToUsers(java.util.Collection<String> userNames, String role) throws SQLException {
+	    int bit = requireRoleBit(role);
+	    String update = "UPDATE cse360users SET roles = CASE WHEN roles IS NULL OR roles = '' THEN ? "
+	            + "ELSE roles || ',' || ? END WHERE userName = ANY(?) AND BITAND(access_mask, " + bit + ") = 0";
+	    return UnitOfWork.call(() -> {
+	        try (Connection connection = getConnection();
+	             PreparedStatement pstmt = connection.prepareStatement(update)) {
+	            pstmt.setString(1, role);
+	            pstmt.setString(2, role);
+	            pstmt.setObject(3, userNames.toArray(new String[0]));
+	            int updated = pstmt.executeUpdate();
+	            UnitOfWork.afterCommit(() -> userNames.forEach(SessionContext::invalidate));
+	            return updated;
+	        }
+	    });
+	}
+
+	/**
+	 * Takes a role away from many users at once. As with
+	 * {@link #updateUserRoles(String, String[], String)}, the current admin
+	 * cannot remove their own admin role and the last admin cannot lose it; in
+	 * either case nobody is changed.
+	 *
+	 * @param userNames            The users to take the role from
+	 * @param role                 The role to remove
+	 * @param currentAdminUserName The admin making the change
+	 * @return The number of users whose roles changed
+	 * @throws SQLException if a database access error occurs; no user is changed then
+	 * @throws IllegalArgumentException if the role is not valid
+	 */
+	public int removeRoleFromUsers(java.util.Collection<String> userNames, String role,
+	                               String currentAdminUserName) throws SQLException {
+	    requireRoleBit(role);
+	    String[] names = userNames.toArray(new String[0]);
+	    // The added commas make the match exact; the trim drops the commas left at either end
+	    String update = "UPDATE cse360users SET roles = TRIM(BOTH ',' FROM "
+	            + "REPLACE(',' || roles || ',', ?, ',')) WHERE userName = ANY(?) AND "
+	            + roleCondition("", role);
+	    return UnitOfWork.call(() -> {
+	        if (role.equals("admin")) {
+	            if (userNames.contains(currentAdminUserName)) {
+	                return 0;
+	            }
+	            String remaining = "SELECT COUNT(*) FROM cse360users WHERE "
+	                    + roleCondition("", "admin") + " AND NOT (userName = ANY(?))";
+	            try (Connection connection = getConnection();
+	                 PreparedStatement pstmt = connection.prepareStatement(remaining)) {
+	                pstmt.setObject(1, names);
+	                ResultSet rs = pstmt.executeQuery();
+	                if (rs.next() && rs.getInt(1) == 0) {
+	                    return 0;
+	                }
+	            }
+	        }
+	        try (Connection connection = getConnection();
+	             PreparedStatement pstmt = connection.prepareStatement(update)) {
+	            pstmt.setString(1, "," + role + ",");
+	            pstmt.setObject(2, names);
+	            int updated = pstmt.executeUpdate();
+	            UnitOfWork.afterCommit(() -> userNames.forEach(SessionContext::invalidate));
+	            return updated;
+	        }
+	    });
+	}
+
+	/**
+	 * Counts the users with each role.
+	 *
+	 * @return The number of users per role, for every role in {@link User#ALL_ROLES}
+	 * @throws SQLException if a database access error occurs
+	 */
+	public Map<String, Integer> countUsersByRole() throws SQLException {
+	    Map<String, Integer> counts = new java.util.LinkedHashMap<>();
+	    for (String role : User.ALL_ROLES) {
+	        counts.put(role, 0);
+	    }
+	    String query = "SELECT access_mask, COUNT(*) FROM cse360users GROUP BY access_mask";
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
+	        ResultSet rs = pstmt.executeQuery();
+	        while (rs.next()) {
+	            int mask = rs.getInt(1);
+	            for (String role : User.ALL_ROLES) {
+	                if ((mask & User.roleBit(role)) != 0) {
+	                    counts.merge(role, rs.getInt(2), Integer::sum);
+	                }
+	            }
+	        }
+	    }
+	    return counts;
+	}
+
+	private static int requireRoleBit(String role) {
+	    int bit = User.roleBit(role);
+	    if (bit == 0) {
+	        throw new IllegalArgumentException("Invalid role: " + role);
 	    }
+	    return bit;
 	}
 
 	public void setOneTimePassword(String userName, String oneTimePassword) throws SQLException {
 	    String query = "UPDATE cse360users SET oneTimePassword = ? WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, oneTimePassword);
 	        pstmt.setString(2, userName);
 	        pstmt.executeUpdate();
@@ -354,7 +489,8 @@ public class DatabaseHelper {
 	// Checks if the one time password entered by the user is correct
 	public boolean validateOneTimePassword(String userName, String oneTimePassword) throws SQLException {
 	    String query = "SELECT oneTimePassword FROM cse360users WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -368,7 +504,8 @@ public class DatabaseHelper {
 	// Updates a user's password and then clears one time password
 	public void updatePasswordAndClearOneTime(String userName, String newPassword) throws SQLException {
 	    String query = "UPDATE cse360users SET password = ?, oneTimePassword = NULL WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (Connection connection = getConnection();
+	         PreparedStatement pstmt = connection.prepareStatement(query)) {
 	        pstmt.setString(1, newPassword);
 	        pstmt.setString(2, userName);
 	        pstmt.executeUpdate();
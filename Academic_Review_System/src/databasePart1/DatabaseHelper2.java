@@ -1,14 +1,24 @@
 package databasePart1;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.function.Function;
 
 import main.Question;
 import main.Answer;
+import main.ChangeSet;
 import main.Feedback;
+import main.ConversationSummary;
+import main.QuestionRow;
 import main.Review;
+import main.SearchHit;
+import main.Page;
+import main.PageCursor;
 
 /**
  * DatabaseHelper2 class provides database operations for the Question and Answer system.
@@ -18,138 +28,107 @@ import main.Review;
  * <p> Copyright: Team 60 CSE 360 </p>
  */ 
 public class DatabaseHelper2 {
-    // JDBC driver name and database URL 
-    static final String JDBC_DRIVER = "org.h2.Driver";   
-    static final String DB_URL = "jdbc:h2:~/FoundationDatabase";  
-
-    //  Database credentials 
-    static final String USER = "sa"; 
-    static final String PASS = ""; 
-
-    public Connection connection = null;
-    public Statement statement = null;
-
+    // Makes sure the database schema is current; the tables themselves are
+    // created by SchemaMigrations.
     public void connectToDatabase() throws SQLException {
-        try {
-            Class.forName(JDBC_DRIVER);
-            System.out.println("Connecting to database...");
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement = connection.createStatement();
-            createTables();
-        } catch (ClassNotFoundException e) {
-            System.err.println("JDBC Driver not found: " + e.getMessage());
-        }
-    }
-
-    private void createTables() throws SQLException {
-        // Create the questions table
-        String questionsTable = "CREATE TABLE IF NOT EXISTS Questions ("
-                + "questionId INT AUTO_INCREMENT PRIMARY KEY, "
-                + "content TEXT, "
-                + "author VARCHAR(255), "
-                + "timestamp TIMESTAMP, "
-                + "answered BOOLEAN, "
-                + "referenceQuestionId INT, "
-                + "FOREIGN KEY (referenceQuestionId) REFERENCES Questions(questionId))";
-        statement.execute(questionsTable);
-
-        // Create the answers table with referenceAnswerId column
-        String answersTable = "CREATE TABLE IF NOT EXISTS Answers ("
-                + "answerId INT AUTO_INCREMENT PRIMARY KEY, "
-                + "questionId INT, "
-                + "content TEXT, "
-                + "author VARCHAR(255), "
-                + "timestamp TIMESTAMP, "
-                + "accepted BOOLEAN DEFAULT FALSE, "
-                + "referenceAnswerId INT, "
-                + "FOREIGN KEY (questionId) REFERENCES Questions(questionId), "
-                + "FOREIGN KEY (referenceAnswerId) REFERENCES Answers(answerId))";
-        statement.execute(answersTable);
-
-        // Create the read_status table
-        String readStatusTable = "CREATE TABLE IF NOT EXISTS ReadStatus ("
-                + "answerId INT, "
-                + "userId VARCHAR(255), "
-                + "readTimestamp TIMESTAMP, "
-                + "PRIMARY KEY (answerId, userId), "
-                + "FOREIGN KEY (answerId) REFERENCES Answers(answerId))";
-        statement.execute(readStatusTable);
-
-        // Create the feedback table
-        String feedbackTable = "CREATE TABLE IF NOT EXISTS Feedback ("
-                + "feedbackId INT AUTO_INCREMENT PRIMARY KEY, "
-                + "sender VARCHAR(255), "
-                + "receiver VARCHAR(255), "
-                + "content TEXT, "
-                + "timestamp TIMESTAMP, "
-                + "questionId INT, "
-                + "answerId INT, "
-                + "reviewId INT, "
-                + "parentMessageId INT, "
-                + "isRead BOOLEAN DEFAULT FALSE)";
-        statement.execute(feedbackTable);
-
-        // Create the trusted reviewers table
-        String trustedReviewersTable = "CREATE TABLE IF NOT EXISTS TrustedReviewers ("
-                + "studentUsername VARCHAR(255), "
-                + "reviewerUsername VARCHAR(255), "
-                + "timestamp TIMESTAMP, "
-                + "weightage INT DEFAULT 1, "
-                + "PRIMARY KEY (studentUsername, reviewerUsername))";
-        statement.execute(trustedReviewersTable);
+        SchemaMigrations.ensureCurrent();
+    }
+
+    // Borrows a connection from the shared pool, or joins the unit of work running
+    // on this thread; closing it gives it back.
+    private Connection getConnection() throws SQLException {
+        return UnitOfWork.connection();
     }
 
     // Question Management Methods
     public void addQuestion(Question question) throws SQLException {
         String query = "INSERT INTO Questions (content, author, timestamp, answered, referenceQuestionId) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, question.getContent());
-            pstmt.setString(2, question.getAuthor());
-            pstmt.setTimestamp(3, new Timestamp(question.getTimestamp().getTime()));
-            pstmt.setBoolean(4, question.isAnswered());
+        // The new row's version is held back from syncs until the insert commits
+        UnitOfWork.run(() -> {
+            RowVersions.reserve();
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, question.getContent());
+                pstmt.setString(2, question.getAuthor());
+                pstmt.setTimestamp(3, new Timestamp(question.getTimestamp().getTime()));
+                pstmt.setBoolean(4, question.isAnswered());
             
-            // Handle the reference question ID (may be null)
-            if (question.getReferenceQuestionId() != null) {
-                pstmt.setInt(5, question.getReferenceQuestionId());
-            } else {
-                pstmt.setNull(5, java.sql.Types.INTEGER);
-            }
+                // Handle the reference question ID (may be null)
+                if (question.getReferenceQuestionId() != null) {
+                    pstmt.setInt(5, question.getReferenceQuestionId());
+                } else {
+                    pstmt.setNull(5, java.sql.Types.INTEGER);
+                }
             
-            pstmt.executeUpdate();
-        }
+                pstmt.executeUpdate();
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int questionId = generatedKeys.getInt(1);
+                        question.setQuestionId(questionId);
+                        String author = question.getAuthor();
+                        String content = question.getContent();
+                        UnitOfWork.afterCommit(() -> SearchIndex.getInstance().index(SearchHit.Type.QUESTION,
+                                questionId, questionId, author, content));
+                        EventBus.getInstance().publish(new ChangeEvent.QuestionAdded(questionId, question.getAuthor()));
+                    }
+                }
+            }
+        });
     }
 
     public void updateQuestion(Question question) throws SQLException {
         String query = "UPDATE Questions SET content = ?, author = ?, timestamp = ?, answered = ?, referenceQuestionId = ? WHERE questionId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, question.getContent());
-            pstmt.setString(2, question.getAuthor());
-            pstmt.setTimestamp(3, new Timestamp(question.getTimestamp().getTime()));
-            pstmt.setBoolean(4, question.isAnswered());
+        // The row's new version is held back from syncs until the update commits
+        UnitOfWork.run(() -> {
+            RowVersions.reserve();
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setString(1, question.getContent());
+                pstmt.setString(2, question.getAuthor());
+                pstmt.setTimestamp(3, new Timestamp(question.getTimestamp().getTime()));
+                pstmt.setBoolean(4, question.isAnswered());
             
-            // Handle the reference question ID (may be null)
-            if (question.getReferenceQuestionId() != null) {
-                pstmt.setInt(5, question.getReferenceQuestionId());
-            } else {
-                pstmt.setNull(5, java.sql.Types.INTEGER);
-            }
+                // Handle the reference question ID (may be null)
+                if (question.getReferenceQuestionId() != null) {
+                    pstmt.setInt(5, question.getReferenceQuestionId());
+                } else {
+                    pstmt.setNull(5, java.sql.Types.INTEGER);
+                }
             
-            pstmt.setInt(6, question.getQuestionId());
-            pstmt.executeUpdate();
-        }
+                pstmt.setInt(6, question.getQuestionId());
+                if (pstmt.executeUpdate() > 0) {
+                    int questionId = question.getQuestionId();
+                    String author = question.getAuthor();
+                    String content = question.getContent();
+                    UnitOfWork.afterCommit(() -> SearchIndex.getInstance().index(SearchHit.Type.QUESTION,
+                            questionId, questionId, author, content));
+                    EventBus.getInstance().publish(new ChangeEvent.QuestionUpdated(question.getQuestionId()));
+                }
+            }
+        });
     }
 
     public void deleteQuestion(int questionId) throws SQLException {
         String query = "DELETE FROM Questions WHERE questionId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, questionId);
-            pstmt.executeUpdate();
-        }
+        // The tombstone's version is held back from syncs until the delete commits
+        UnitOfWork.run(() -> {
+            RowVersions.reserve();
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setInt(1, questionId);
+                if (pstmt.executeUpdate() > 0) {
+                    RowVersions.recordDeletion(connection, RowVersions.QUESTIONS, questionId, null);
+                    UnitOfWork.afterCommit(() -> SearchIndex.getInstance().removeQuestion(questionId));
+                    EventBus.getInstance().publish(new ChangeEvent.QuestionDeleted(questionId));
+                }
+            }
+        });
     }
 
     public Question getQuestionById(int questionId) throws SQLException {
         String query = "SELECT * FROM Questions WHERE questionId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, questionId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -176,7 +155,8 @@ public class DatabaseHelper2 {
     public List<Question> getAllQuestions() throws SQLException {
         List<Question> questions = new ArrayList<>();
         String query = "SELECT * FROM Questions";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 Question question = new Question(
@@ -202,7 +182,8 @@ public class DatabaseHelper2 {
     public List<Question> searchQuestions(String keyword) throws SQLException {
         List<Question> questions = new ArrayList<>();
         String query = "SELECT * FROM Questions WHERE content LIKE ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, "%" + keyword + "%");
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -218,112 +199,575 @@ public class DatabaseHelper2 {
         return questions;
     }
 
+    /**
+     * Searches questions whose content or author contains the keyword, ignoring case.
+     * @param keyword The search term to look for in questions
+     * @return List of questions matching the search term
+     */
+    public List<Question> searchQuestionsByContentOrAuthor(String keyword) throws SQLException {
+        String query = "SELECT questionId, content, author, timestamp, answered FROM Questions WHERE LOWER(content) LIKE LOWER(?) OR LOWER(author) LIKE LOWER(?)";
+        List<Question> results = new ArrayList<>();
+        
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            String searchPattern = "%" + keyword + "%";
+            pstmt.setString(1, searchPattern);
+            pstmt.setString(2, searchPattern);
+            
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                results.add(new Question(
+                    rs.getInt("questionId"),
+                    rs.getString("content"),
+                    rs.getString("author"),
+                    rs.getTimestamp("timestamp"),
+                    rs.getBoolean("answered")
+                ));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Searches questions whose author contains the given username, ignoring case.
+     * @param username The username to search for
+     * @return List of questions by the specified user
+     */
+    public List<Question> searchQuestionsByUser(String username) throws SQLException {
+        String query = "SELECT questionId, content, author, timestamp, answered, referenceQuestionId FROM Questions WHERE LOWER(author) LIKE LOWER(?)";
+        List<Question> results = new ArrayList<>();
+        
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, "%" + username + "%");
+            
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                Question question = new Question(
+                    rs.getInt("questionId"),
+                    rs.getString("content"),
+                    rs.getString("author"),
+                    rs.getTimestamp("timestamp"),
+                    rs.getBoolean("answered")
+                );
+                
+                // Get the reference question ID if it exists
+                int refQuestionId = rs.getInt("referenceQuestionId");
+                if (!rs.wasNull()) {
+                    question.setReferenceQuestionId(refQuestionId);
+                }
+                
+                results.add(question);
+            }
+        }
+        return results;
+    }
+
+    // Question table rows: preview lengths and the shared SELECT behind every question list
+    private static final int QUESTION_PREVIEW_LENGTH = 200;
+    private static final int REFERENCE_PREVIEW_LENGTH = 100;
+    private static final String QUESTION_ROW_SELECT =
+            "SELECT q.questionId, q.author, q.timestamp, q.answered, q.referenceQuestionId, "
+            + "LEFT(q.content, " + QUESTION_PREVIEW_LENGTH + ") AS contentPreview, "
+            + "CHAR_LENGTH(q.content) AS contentLength, "
+            + "LEFT(r.content, " + REFERENCE_PREVIEW_LENGTH + ") AS referencePreview, "
+            + "CHAR_LENGTH(r.content) AS referenceLength, "
+            + "r.author AS referenceAuthor, "
+            + "COALESCE(ac.answerCount, 0) AS answerCount, "
+            + "COALESCE(ac.unreadCount, 0) AS unreadCount, "
+            + "COALESCE(rc.reviewCount, 0) AS reviewCount "
+            + "FROM Questions q "
+            + "LEFT JOIN Questions r ON r.questionId = q.referenceQuestionId "
+            // Answers per question and how many of them the viewer has no ReadStatus for
+            + "LEFT JOIN (SELECT a.questionId, COUNT(*) AS answerCount, "
+            + "SUM(CASE WHEN rs.answerId IS NULL THEN 1 ELSE 0 END) AS unreadCount "
+            + "FROM Answers a LEFT JOIN ReadStatus rs ON rs.answerId = a.answerId AND rs.userId = ? "
+            + "GROUP BY a.questionId) ac ON ac.questionId = q.questionId "
+            // Reviews on the question itself, as listed by getReviewsForQuestion
+            + "LEFT JOIN (SELECT question_id, COUNT(*) AS reviewCount FROM reviews "
+            + "WHERE answer_id IS NULL GROUP BY question_id) rc ON rc.question_id = q.questionId ";
+
+    // Same columns as QUESTION_ROW_SELECT, but the counts are looked up per row through the
+    // questionId indexes, so a page only pays for the rows it returns instead of grouping every answer
+    private static final String QUESTION_PAGE_SELECT =
+            "SELECT q.questionId, q.author, q.timestamp, q.answered, q.referenceQuestionId, "
+            + "LEFT(q.content, " + QUESTION_PREVIEW_LENGTH + ") AS contentPreview, "
+            + "CHAR_LENGTH(q.content) AS contentLength, "
+            + "LEFT(r.content, " + REFERENCE_PREVIEW_LENGTH + ") AS referencePreview, "
+            + "CHAR_LENGTH(r.content) AS referenceLength, "
+            + "r.author AS referenceAuthor, "
+            + "(SELECT COUNT(*) FROM Answers a WHERE a.questionId = q.questionId) AS answerCount, "
+            + "(SELECT COUNT(*) FROM Answers a WHERE a.questionId = q.questionId AND NOT EXISTS "
+            + "(SELECT 1 FROM ReadStatus rs WHERE rs.answerId = a.answerId AND rs.userId = ?)) AS unreadCount, "
+            + "(SELECT COUNT(*) FROM reviews rv WHERE rv.question_id = q.questionId "
+            + "AND rv.answer_id IS NULL) AS reviewCount "
+            + "FROM Questions q "
+            + "LEFT JOIN Questions r ON r.questionId = q.referenceQuestionId ";
+
+    // Answers with the content and author of the answer each one replies to, so answer
+    // tables can show the reference without a query per row
+    private static final String ANSWER_WITH_REFERENCE_SELECT =
+            "SELECT a.*, r.content AS referencedContent, r.author AS referencedAuthor "
+            + "FROM Answers a "
+            + "LEFT JOIN Answers r ON r.answerId = a.referenceAnswerId ";
+
+    /**
+     * Number of rows the dashboards fetch per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Gets every question as a table row, with its reference preview and answer,
+     * unread and review counts, in one query.
+     * @param viewer The user whose unread answers are counted
+     * @return Question rows ordered by question ID
+     */
+    public List<QuestionRow> getQuestionRows(String viewer) throws SQLException {
+        return queryQuestionRows(QUESTION_ROW_SELECT, viewer, "", "ORDER BY q.questionId");
+    }
+
+    /**
+     * Searches the questions with the full-text {@link SearchIndex} and gets their rows.
+     * Words in the query are all required unless separated by OR, and quoted text
+     * must appear as a phrase; the author's username counts as part of the text.
+     * @param viewer The user whose unread answers are counted
+     * @param keyword The search query
+     * @return Matching question rows, most relevant first
+     */
+    public List<QuestionRow> searchQuestionRows(String viewer, String keyword) throws SQLException {
+        SearchIndex index = SearchIndex.getInstance();
+        index.ensureBuilt();
+        List<Integer> ids = index.searchIds(keyword, SearchHit.Type.QUESTION, 0);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Questions deleted behind the index's back simply do not come back from the query
+        List<QuestionRow> rows = queryQuestionRows(QUESTION_ROW_SELECT, viewer, "WHERE q.questionId = ANY(?) ", "",
+                (Object) ids.toArray(new Integer[0]));
+        Map<Integer, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        rows.sort((a, b) -> Integer.compare(rank.get(a.getQuestionId()), rank.get(b.getQuestionId())));
+        return rows;
+    }
+
+    /**
+     * Searches questions, answers and reviews with the full-text {@link SearchIndex}.
+     * @param query The search query
+     * @param limit Maximum number of hits to return
+     * @return Hits with highlighted snippets, most relevant first
+     */
+    public List<SearchHit> searchContent(String query, int limit) throws SQLException {
+        SearchIndex index = SearchIndex.getInstance();
+        index.ensureBuilt();
+        return index.search(query, limit);
+    }
+
+    /**
+     * Gets the question rows whose author contains the given username, ignoring case.
+     * @param viewer The user whose unread answers are counted
+     * @param username The username to search for
+     * @return Matching question rows ordered by question ID
+     */
+    public List<QuestionRow> getQuestionRowsByAuthor(String viewer, String username) throws SQLException {
+        return queryQuestionRows(QUESTION_ROW_SELECT, viewer, "WHERE LOWER(q.author) LIKE LOWER(?) ", "ORDER BY q.questionId",
+                "%" + username + "%");
+    }
+
+    /**
+     * Gets the resolved or unresolved question rows.
+     * @param viewer The user whose unread answers are counted
+     * @param answered true for resolved questions, false for unresolved ones
+     * @return Matching question rows ordered by question ID
+     */
+    public List<QuestionRow> getQuestionRowsByStatus(String viewer, boolean answered) throws SQLException {
+        return queryQuestionRows(QUESTION_ROW_SELECT, viewer, "WHERE q.answered = ? ", "ORDER BY q.questionId", answered);
+    }
+
+    /**
+     * Gets one question as a table row.
+     * @param viewer The user whose unread answers are counted
+     * @param questionId The ID of the question
+     * @return The question row, or null if the question does not exist
+     */
+    public QuestionRow getQuestionRow(String viewer, int questionId) throws SQLException {
+        List<QuestionRow> rows = queryQuestionRows(QUESTION_PAGE_SELECT, viewer, "WHERE q.questionId = ? ", "", questionId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Gets one page of question rows in (timestamp, questionId) order. The page
+     * continues right after the cursor, so it stays correct while questions are
+     * added or deleted between pages.
+     * @param viewer The user whose unread answers are counted
+     * @param answered true or false to only list resolved or unresolved questions, null for all
+     * @param newestFirst true to list the newest questions first, false for the oldest first
+     * @param after The cursor of the previous page, or null for the first page
+     * @param limit Maximum number of rows in the page
+     * @return The page and the cursor of the page after it
+     */
+    public Page<QuestionRow> getQuestionRowPage(String viewer, Boolean answered, boolean newestFirst,
+                                                PageCursor after, int limit) throws SQLException {
+        checkPageLimit(limit);
+        return getQuestionRowPage(viewer, QuestionQuery.all().answered(answered).newestFirst(newestFirst).limit(limit), after);
+    }
+
+    /**
+     * Gets one page of the question rows that satisfy a query, in its order and
+     * with at most its limit of rows. All criteria go into a single statement.
+     * @param viewer The user whose unread answers are counted
+     * @param query The filters, order and page size
+     * @param after The cursor of the previous page, or null for the first page
+     * @return The page and the cursor of the page after it
+     */
+    public Page<QuestionRow> getQuestionRowPage(String viewer, QuestionQuery query, PageCursor after) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String where = query.where(params);
+        if (after != null) {
+            where += (where.isEmpty() ? "WHERE " : "AND ")
+                    + keysetCondition("q.timestamp", "q.questionId", query.isNewestFirst()) + " ";
+            addKeysetParams(params, after);
+        }
+        params.add(query.getLimit() + 1);
+        List<QuestionRow> rows = queryQuestionRows(QUESTION_PAGE_SELECT, viewer, where, query.orderBy() + " LIMIT ?",
+                params.toArray());
+        return toPage(rows, query.getLimit(), row -> new PageCursor(row.getTimestamp(), row.getQuestionId()));
+    }
+
+    /**
+     * Counts the questions, optionally only the resolved or unresolved ones.
+     * @param answered true or false to only count resolved or unresolved questions, null for all
+     * @return The number of questions
+     */
+    public int countQuestions(Boolean answered) throws SQLException {
+        return countQuestionRows(QuestionQuery.all().answered(answered));
+    }
+
+    /**
+     * Counts the questions that satisfy a query, ignoring its limit.
+     * @param query The filters
+     * @return The number of matching questions
+     */
+    public int countQuestionRows(QuestionQuery query) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM Questions q " + query.where(params);
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Gets the row version to sync from. Passing it to {@link #getQuestionRowChangesSince}
+     * or {@link #getAnswerChangesSince} later returns everything changed after this call
+     * and everything still being written during it. While a write is in progress the
+     * version stays below it, so a later sync may return rows the caller already has.
+     * @return The highest row version that no write in progress is below
+     */
+    public long getRowVersion() throws SQLException {
+        try (Connection connection = getConnection()) {
+            return RowVersions.current(connection);
+        }
+    }
+
+    /**
+     * Gets the question rows inserted or updated, and the questions deleted, since a
+     * row version. A row also counts as updated when its answer, unread or review
+     * counts changed, so the result is what a question table needs to catch up.
+     * The cost depends on the number of changes, not on the number of questions.
+     * @param viewer The user whose unread answers are counted
+     * @param version The version returned by the previous sync, or 0 for everything
+     * @return The changes and the version to sync from next time
+     */
+    public ChangeSet<QuestionRow> getQuestionRowChangesSince(String viewer, long version) throws SQLException {
+        // Read the version first: anything committed after this point is picked up by the next sync
+        long current = getRowVersion();
+        List<QuestionRow> changed = queryQuestionRows(QUESTION_PAGE_SELECT, viewer, "WHERE q.row_version > ? ",
+                "ORDER BY q.questionId", version);
+        List<Integer> deleted = getTombstones("WHERE table_name = ? AND row_version > ?", RowVersions.QUESTIONS, version);
+        return new ChangeSet<>(changed, deleted, Math.max(current, version));
+    }
+
+    /**
+     * Gets the answers to a question inserted, updated or deleted since a row version.
+     * @param questionId The ID of the question
+     * @param version The version returned by the previous sync, or 0 for everything
+     * @return The changes and the version to sync from next time
+     */
+    public ChangeSet<Answer> getAnswerChangesSince(int questionId, long version) throws SQLException {
+        long current = getRowVersion();
+        List<Answer> answers = new ArrayList<>();
+        String query = ANSWER_WITH_REFERENCE_SELECT + "WHERE a.questionId = ? AND a.row_version > ? ORDER BY a.answerId";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, questionId);
+            pstmt.setLong(2, version);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                answers.add(readAnswerWithReference(rs));
+            }
+        }
+        List<Integer> deleted = getTombstones("WHERE table_name = ? AND parent_id = ? AND row_version > ?",
+                RowVersions.ANSWERS, questionId, version);
+        return new ChangeSet<>(answers, deleted, Math.max(current, version));
+    }
+
+    private List<Integer> getTombstones(String where, Object... params) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement("SELECT row_id FROM row_tombstones " + where)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    // Rows strictly after the cursor in (timestamp, id) order, written so H2 can seek on the timestamp index
+    private static String keysetCondition(String timestampColumn, String idColumn, boolean descending) {
+        String op = descending ? "<" : ">";
+        return timestampColumn + " " + op + "= ? AND (" + timestampColumn + " " + op + " ? OR " + idColumn + " " + op + " ?)";
+    }
+
+    private static void addKeysetParams(List<Object> params, PageCursor after) {
+        Timestamp timestamp = new Timestamp(after.getTimestamp().getTime());
+        params.add(timestamp);
+        params.add(timestamp);
+        params.add(after.getId());
+    }
+
+    private static void checkPageLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1: " + limit);
+        }
+    }
+
+    // The query asks for one row more than the page holds; getting it back means there is a next page
+    private static <T> Page<T> toPage(List<T> rows, int limit, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    private List<QuestionRow> queryQuestionRows(String select, String viewer, String where, String orderBy, Object... params) throws SQLException {
+        List<QuestionRow> rows = new ArrayList<>();
+        String query = select + where + orderBy;
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, viewer);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 2, params[i]);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                rows.add(new QuestionRow(
+                    rs.getInt("questionId"),
+                    rs.getString("author"),
+                    rs.getTimestamp("timestamp"),
+                    preview(rs.getString("contentPreview"), rs.getInt("contentLength"), QUESTION_PREVIEW_LENGTH),
+                    rs.getBoolean("answered"),
+                    getIntegerOrNull(rs, "referenceQuestionId"),
+                    preview(rs.getString("referencePreview"), rs.getInt("referenceLength"), REFERENCE_PREVIEW_LENGTH),
+                    rs.getString("referenceAuthor"),
+                    rs.getInt("answerCount"),
+                    rs.getInt("unreadCount"),
+                    rs.getInt("reviewCount")
+                ));
+            }
+        }
+        return rows;
+    }
+
+    // Marks a preview that was cut off by the query
+    private static String preview(String text, int fullLength, int previewLength) {
+        if (text == null || fullLength <= previewLength) {
+            return text;
+        }
+        return text + "...";
+    }
+
     // Answer Management Methods
     public void addAnswer(Answer answer) throws SQLException {
         String query = "INSERT INTO Answers (questionId, content, author, timestamp, accepted, referenceAnswerId) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, answer.getQuestionId());
-            pstmt.setString(2, answer.getContent());
-            pstmt.setString(3, answer.getAuthor());
-            pstmt.setTimestamp(4, new Timestamp(answer.getTimestamp().getTime()));
-            pstmt.setBoolean(5, answer.isAccepted());
+        // The new row's version is held back from syncs until the insert and the touch commit
+        UnitOfWork.run(() -> {
+            RowVersions.reserve();
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, answer.getQuestionId());
+                pstmt.setString(2, answer.getContent());
+                pstmt.setString(3, answer.getAuthor());
+                pstmt.setTimestamp(4, new Timestamp(answer.getTimestamp().getTime()));
+                pstmt.setBoolean(5, answer.isAccepted());
             
-            // Handle the reference answer ID (may be null)
-            if (answer.getReferenceAnswerId() != null) {
-                pstmt.setInt(6, answer.getReferenceAnswerId());
-            } else {
-                pstmt.setNull(6, java.sql.Types.INTEGER);
-            }
+                // Handle the reference answer ID (may be null)
+                if (answer.getReferenceAnswerId() != null) {
+                    pstmt.setInt(6, answer.getReferenceAnswerId());
+                } else {
+                    pstmt.setNull(6, java.sql.Types.INTEGER);
+                }
             
-            pstmt.executeUpdate();
-        }
+                pstmt.executeUpdate();
+                int answerId = 0;
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        answerId = generatedKeys.getInt(1);
+                        int indexedId = answerId;
+                        int questionId = answer.getQuestionId();
+                        String author = answer.getAuthor();
+                        String content = answer.getContent();
+                        UnitOfWork.afterCommit(() -> SearchIndex.getInstance().index(SearchHit.Type.ANSWER,
+                                indexedId, questionId, author, content));
+                    }
+                }
+                // The question's answer and unread counts changed
+                RowVersions.touchQuestion(connection, answer.getQuestionId());
+                EventBus.getInstance().publish(new ChangeEvent.AnswerAdded(answerId, answer.getQuestionId(), answer.getAuthor()));
+            }
+        });
     }
 
     public void updateAnswer(Answer answer) throws SQLException {
         String query = "UPDATE Answers SET content = ?, author = ?, timestamp = ?, accepted = ?, referenceAnswerId = ? WHERE answerId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, answer.getContent());
-            pstmt.setString(2, answer.getAuthor());
-            pstmt.setTimestamp(3, new Timestamp(answer.getTimestamp().getTime()));
-            pstmt.setBoolean(4, answer.isAccepted());
+        // The row's new version is held back from syncs until the update commits
+        UnitOfWork.run(() -> {
+            RowVersions.reserve();
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setString(1, answer.getContent());
+                pstmt.setString(2, answer.getAuthor());
+                pstmt.setTimestamp(3, new Timestamp(answer.getTimestamp().getTime()));
+                pstmt.setBoolean(4, answer.isAccepted());
             
-            // Handle the reference answer ID (may be null)
-            if (answer.getReferenceAnswerId() != null) {
-                pstmt.setInt(5, answer.getReferenceAnswerId());
-            } else {
-                pstmt.setNull(5, java.sql.Types.INTEGER);
-            }
+                // Handle the reference answer ID (may be null)
+                if (answer.getReferenceAnswerId() != null) {
+                    pstmt.setInt(5, answer.getReferenceAnswerId());
+                } else {
+                    pstmt.setNull(5, java.sql.Types.INTEGER);
+                }
             
-            pstmt.setInt(6, answer.getAnswerId());
-            pstmt.executeUpdate();
-        }
+                pstmt.setInt(6, answer.getAnswerId());
+                if (pstmt.executeUpdate() > 0) {
+                    int answerId = answer.getAnswerId();
+                    int questionId = answer.getQuestionId();
+                    String author = answer.getAuthor();
+                    String content = answer.getContent();
+                    UnitOfWork.afterCommit(() -> SearchIndex.getInstance().index(SearchHit.Type.ANSWER,
+                            answerId, questionId, author, content));
+                    EventBus.getInstance().publish(new ChangeEvent.AnswerUpdated(answer.getAnswerId(), answer.getQuestionId()));
+                }
+            }
+        });
     }
 
     public void deleteAnswer(int answerId) throws SQLException {
-        // First delete related records from ReadStatus table
+        String findQuestion = "SELECT questionId FROM Answers WHERE answerId = ?";
         String deleteReadStatus = "DELETE FROM ReadStatus WHERE answerId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(deleteReadStatus)) {
-            pstmt.setInt(1, answerId);
-            pstmt.executeUpdate();
-        }
-
-        // Then delete the answer
         String deleteAnswer = "DELETE FROM Answers WHERE answerId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(deleteAnswer)) {
-            pstmt.setInt(1, answerId);
-            pstmt.executeUpdate();
-        }
+        String unresolveQuestion = "UPDATE Questions SET answered = FALSE WHERE questionId = ? AND answered "
+                + "AND NOT EXISTS (SELECT 1 FROM Answers WHERE questionId = ?)";
+        // The tombstone's version is held back from syncs until the delete commits
+        UnitOfWork.run(() -> {
+            RowVersions.reserve();
+            try (Connection connection = getConnection()) {
+                Integer questionId;
+                try (PreparedStatement pstmt = connection.prepareStatement(findQuestion)) {
+                    pstmt.setInt(1, answerId);
+                    ResultSet rs = pstmt.executeQuery();
+                    questionId = rs.next() ? rs.getInt(1) : null;
+                }
+
+                // First delete related records from ReadStatus table
+                try (PreparedStatement pstmt = connection.prepareStatement(deleteReadStatus)) {
+                    pstmt.setInt(1, answerId);
+                    pstmt.executeUpdate();
+                }
+
+                // Then delete the answer, leaving a tombstone for delta sync
+                try (PreparedStatement pstmt = connection.prepareStatement(deleteAnswer)) {
+                    pstmt.setInt(1, answerId);
+                    if (pstmt.executeUpdate() > 0) {
+                        RowVersions.recordDeletion(connection, RowVersions.ANSWERS, answerId, questionId);
+                        // A question whose last answer is gone is unresolved again
+                        boolean unresolved;
+                        try (PreparedStatement unresolve = connection.prepareStatement(unresolveQuestion)) {
+                            unresolve.setInt(1, questionId);
+                            unresolve.setInt(2, questionId);
+                            unresolved = unresolve.executeUpdate() > 0;
+                        }
+                        RowVersions.touchQuestion(connection, questionId);
+                        UnitOfWork.afterCommit(() -> SearchIndex.getInstance().remove(SearchHit.Type.ANSWER, answerId));
+                        EventBus.getInstance().publish(new ChangeEvent.AnswerDeleted(answerId, questionId));
+                        if (unresolved) {
+                            EventBus.getInstance().publish(new ChangeEvent.QuestionUpdated(questionId));
+                        }
+                    }
+                }
+            }
+        });
     }
 
     public Answer getAnswerById(int answerId) throws SQLException {
         String query = "SELECT * FROM Answers WHERE answerId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, answerId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                Answer answer = new Answer(
-                    rs.getInt("answerId"),
-                    rs.getInt("questionId"),
-                    rs.getString("content"),
-                    rs.getString("author"),
-                    rs.getTimestamp("timestamp")
-                );
-                answer.setAccepted(rs.getBoolean("accepted"));
-                
-                // Get the reference answer ID if it exists
-                int refAnswerId = rs.getInt("referenceAnswerId");
-                if (!rs.wasNull()) {
-                    answer.setReferenceAnswerId(refAnswerId);
-                }
-                
-                return answer;
+                return readAnswer(rs);
             }
         }
         return null;
     }
 
+    // Builds an Answer from the current row of a SELECT * FROM Answers
+    private Answer readAnswer(ResultSet rs) throws SQLException {
+        Answer answer = new Answer(
+            rs.getInt("answerId"),
+            rs.getInt("questionId"),
+            rs.getString("content"),
+            rs.getString("author"),
+            rs.getTimestamp("timestamp")
+        );
+        answer.setAccepted(rs.getBoolean("accepted"));
+
+        // Get the reference answer ID if it exists
+        int refAnswerId = rs.getInt("referenceAnswerId");
+        if (!rs.wasNull()) {
+            answer.setReferenceAnswerId(refAnswerId);
+        }
+        return answer;
+    }
+
+    // Builds an Answer, with the answer it references, from the current row of ANSWER_WITH_REFERENCE_SELECT
+    private Answer readAnswerWithReference(ResultSet rs) throws SQLException {
+        Answer answer = readAnswer(rs);
+        String referencedAuthor = rs.getString("referencedAuthor");
+        if (answer.hasReference() && referencedAuthor != null) {
+            answer.setReferencedAnswer(rs.getString("referencedContent"), referencedAuthor);
+        }
+        return answer;
+    }
+
     public List<Answer> getAllAnswers() throws SQLException {
         List<Answer> answers = new ArrayList<>();
         String query = "SELECT * FROM Answers";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                Answer answer = new Answer(
-                    rs.getInt("answerId"),
-                    rs.getInt("questionId"),
-                    rs.getString("content"),
-                    rs.getString("author"),
-                    rs.getTimestamp("timestamp")
-                );
-                answer.setAccepted(rs.getBoolean("accepted"));
-                
-                // Get the reference answer ID if it exists
-                int refAnswerId = rs.getInt("referenceAnswerId");
-                if (!rs.wasNull()) {
-                    answer.setReferenceAnswerId(refAnswerId);
-                }
-                
-                answers.add(answer);
+                answers.add(readAnswer(rs));
             }
         }
         return answers;
@@ -332,31 +776,78 @@ public class DatabaseHelper2 {
     public List<Answer> getAnswersForQuestion(int questionId) throws SQLException {
         List<Answer> answers = new ArrayList<>();
         String query = "SELECT * FROM Answers WHERE questionId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, questionId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                Answer answer = new Answer(
-                    rs.getInt("answerId"),
-                    rs.getInt("questionId"),
-                    rs.getString("content"),
-                    rs.getString("author"),
-                    rs.getTimestamp("timestamp")
-                );
-                answer.setAccepted(rs.getBoolean("accepted"));
-                
-                // Get the reference answer ID if it exists
-                int refAnswerId = rs.getInt("referenceAnswerId");
-                if (!rs.wasNull()) {
-                    answer.setReferenceAnswerId(refAnswerId);
-                }
-                
-                answers.add(answer);
+                answers.add(readAnswer(rs));
             }
         }
         return answers;
     }
 
+    public List<Answer> getAnswersByAuthor(String author) throws SQLException {
+        List<Answer> answers = new ArrayList<>();
+        String query = "SELECT * FROM Answers WHERE author = ? ORDER BY timestamp, answerId";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, author);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                answers.add(readAnswer(rs));
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Gets one page of a question's answers in (timestamp, answerId) order, oldest first.
+     * @param questionId The ID of the question
+     * @param after The cursor of the previous page, or null for the first page
+     * @param limit Maximum number of answers in the page
+     * @return The page and the cursor of the page after it
+     */
+    public Page<Answer> getAnswerPage(int questionId, PageCursor after, int limit) throws SQLException {
+        checkPageLimit(limit);
+        List<Answer> answers = new ArrayList<>();
+        String query = ANSWER_WITH_REFERENCE_SELECT + "WHERE a.questionId = ? "
+                + (after != null ? "AND " + keysetCondition("a.timestamp", "a.answerId", false) + " " : "")
+                + "ORDER BY a.timestamp, a.answerId LIMIT ?";
+        List<Object> params = new ArrayList<>();
+        params.add(questionId);
+        if (after != null) {
+            addKeysetParams(params, after);
+        }
+        params.add(limit + 1);
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                answers.add(readAnswerWithReference(rs));
+            }
+        }
+        return toPage(answers, limit, answer -> new PageCursor(answer.getTimestamp(), answer.getAnswerId()));
+    }
+
+    /**
+     * Counts the answers to a question.
+     * @param questionId The ID of the question
+     * @return The number of answers
+     */
+    public int countAnswersForQuestion(int questionId) throws SQLException {
+        String query = "SELECT COUNT(*) FROM Answers WHERE questionId = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, questionId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     public void markAnswersAsRead(int questionId, String username) throws SQLException {
         String query = "INSERT INTO ReadStatus (answerId, userId, readTimestamp) "
                 + "SELECT a.answerId, ?, CURRENT_TIMESTAMP "
@@ -364,12 +855,19 @@ public class DatabaseHelper2 {
                 + "WHERE a.questionId = ? "
                 + "AND NOT EXISTS (SELECT 1 FROM ReadStatus rs WHERE rs.answerId = a.answerId AND rs.userId = ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, username);
-            pstmt.setInt(2, questionId);
-            pstmt.setString(3, username);
-            pstmt.executeUpdate();
-        }
+        // The read receipts and the touch on the question commit together
+        UnitOfWork.run(() -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setString(1, username);
+                pstmt.setInt(2, questionId);
+                pstmt.setString(3, username);
+                if (pstmt.executeUpdate() > 0) {
+                    // The question's unread count changed
+                    RowVersions.touchQuestion(connection, questionId);
+                }
+            }
+        });
     }
 
     public int getUnreadAnswersCount(int questionId, String username) throws SQLException {
@@ -377,7 +875,8 @@ public class DatabaseHelper2 {
                 + "WHERE a.questionId = ? "
                 + "AND NOT EXISTS (SELECT 1 FROM ReadStatus rs WHERE rs.answerId = a.answerId AND rs.userId = ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, questionId);
             pstmt.setString(2, username);
             ResultSet rs = pstmt.executeQuery();
@@ -388,57 +887,264 @@ public class DatabaseHelper2 {
         return 0;
     }
 
+    /**
+     * Stores a message and updates the conversation summary of both users in
+     * the same transaction.
+     */
     public void addFeedback(Feedback feedback) throws SQLException {
+        storeFeedback(feedback);
+    }
+
+    // Does the work of addFeedback and returns the ID of the new message
+    int storeFeedback(Feedback feedback) throws SQLException {
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            int feedbackId = insertFeedback(connection, feedback, feedback.getReceiver());
+            feedback.setFeedbackId(feedbackId);
+            Timestamp sentAt = new Timestamp(feedback.getTimestamp().getTime());
+            String snippet = snippet(feedback.getContent());
+            // The sender sees the message as read, the receiver gets one more unread
+            updateConversationSummary(connection, feedback.getSender(), feedback.getReceiver(), sentAt, snippet, 0);
+            updateConversationSummary(connection, feedback.getReceiver(), feedback.getSender(), sentAt, snippet, 1);
+            connection.commit();
+            EventBus.getInstance().publish(new ChangeEvent.MessageSent(feedbackId, feedback.getSender(),
+                    List.of(feedback.getReceiver())));
+            return feedbackId;
+        }
+    }
+
+    /**
+     * Sends one message to many users. The message is stored once, without a
+     * receiver, and each recipient gets a row in feedback_recipients with their
+     * own read flag. The recipients and their conversation summaries are written
+     * in JDBC batches in the same transaction as the message. To each recipient
+     * the broadcast reads like a direct message from the sender.
+     * @param message The message; its receiver is ignored
+     * @param recipients Usernames to deliver to; duplicates and the sender are skipped
+     * @return The number of users the message was delivered to
+     */
+    public int broadcastFeedback(Feedback message, Collection<String> recipients) throws SQLException {
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            List<String> delivered = broadcast(connection, message, recipients);
+            connection.commit();
+            publishBroadcast(message, delivered);
+            return delivered.size();
+        }
+    }
+
+    /**
+     * Sends one message to every user with a role, for example an instructor's
+     * announcement to all students or a report notification to all instructors.
+     * @param message The message; its receiver is ignored
+     * @param role The role whose users receive the message
+     * @return The number of users the message was delivered to
+     */
+    public int announceToRole(Feedback message, String role) throws SQLException {
+        String query = "SELECT userName FROM cse360users WHERE "
+                + DatabaseHelper.roleCondition("", role) + " ORDER BY userName";
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            List<String> recipients = new ArrayList<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    recipients.add(rs.getString("userName"));
+                }
+            }
+            List<String> delivered = broadcast(connection, message, recipients);
+            connection.commit();
+            publishBroadcast(message, delivered);
+            return delivered.size();
+        }
+    }
+
+    // Stores the broadcast row and fans it out to the recipients on the caller's transaction;
+    // returns the users it was delivered to
+    private List<String> broadcast(Connection connection, Feedback message, Collection<String> recipients) throws SQLException {
+        Set<String> targets = new LinkedHashSet<>(recipients);
+        targets.remove(message.getSender());
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+        int feedbackId = insertFeedback(connection, message, null);
+        message.setFeedbackId(feedbackId);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO feedback_recipients (feedbackId, recipient, isRead) VALUES (?, ?, FALSE)")) {
+            for (String recipient : targets) {
+                pstmt.setInt(1, feedbackId);
+                pstmt.setString(2, recipient);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        Timestamp sentAt = new Timestamp(message.getTimestamp().getTime());
+        String snippet = snippet(message.getContent());
+        try (PreparedStatement pstmt = connection.prepareStatement(CONVERSATION_SUMMARY_MERGE)) {
+            for (String recipient : targets) {
+                addSummaryBatch(pstmt, message.getSender(), recipient, sentAt, snippet, 0);
+                addSummaryBatch(pstmt, recipient, message.getSender(), sentAt, snippet, 1);
+            }
+            pstmt.executeBatch();
+        }
+        return new ArrayList<>(targets);
+    }
+
+    private void publishBroadcast(Feedback message, List<String> delivered) {
+        if (!delivered.isEmpty()) {
+            EventBus.getInstance().publish(new ChangeEvent.MessageSent(message.getFeedbackId(), message.getSender(), delivered));
+        }
+    }
+
+    // Inserts a Feedback row and returns its generated ID; a null receiver marks a broadcast
+    private int insertFeedback(Connection connection, Feedback feedback, String receiver) throws SQLException {
         String query = "INSERT INTO Feedback (sender, receiver, content, timestamp, questionId, answerId, reviewId, parentMessageId, isRead) "
                     + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, FALSE)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, feedback.getSender());
-            pstmt.setString(2, feedback.getReceiver());
+            pstmt.setString(2, receiver);
             pstmt.setString(3, feedback.getContent());
             pstmt.setTimestamp(4, new Timestamp(feedback.getTimestamp().getTime()));
             pstmt.setInt(5, feedback.getQuestionId());
-            
+
             // Handle nullable fields
             if (feedback.getAnswerId() != null) {
                 pstmt.setInt(6, feedback.getAnswerId());
             } else {
                 pstmt.setNull(6, java.sql.Types.INTEGER);
             }
-            
+
             if (feedback.getReviewId() != null) {
                 pstmt.setInt(7, feedback.getReviewId());
             } else {
                 pstmt.setNull(7, java.sql.Types.INTEGER);
             }
-            
+
             if (feedback.getParentMessageId() != null) {
                 pstmt.setInt(8, feedback.getParentMessageId());
             } else {
                 pstmt.setNull(8, java.sql.Types.INTEGER);
             }
-            
+
+            pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                return generatedKeys.next() ? generatedKeys.getInt(1) : 0;
+            }
+        }
+    }
+
+    // Folds one new message into the owner's summary row for the partner
+    private static final String CONVERSATION_SUMMARY_MERGE = "MERGE INTO conversation_summary s "
+                + "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP), "
+                + "CAST(? AS VARCHAR(" + SchemaMigrations.CONVERSATION_SNIPPET_LENGTH + ")), CAST(? AS INT))) "
+                + "v(owner, partner, sent_at, snippet, unread) "
+                + "ON s.owner = v.owner AND s.partner = v.partner "
+                + "WHEN MATCHED THEN UPDATE SET "
+                + "unread_count = s.unread_count + v.unread, "
+                // Messages may be stored out of order; only a newer one replaces the preview
+                + "last_message_snippet = CASE WHEN v.sent_at >= s.last_message_time THEN v.snippet ELSE s.last_message_snippet END, "
+                + "last_message_time = GREATEST(s.last_message_time, v.sent_at) "
+                + "WHEN NOT MATCHED THEN INSERT (owner, partner, last_message_time, last_message_snippet, unread_count) "
+                + "VALUES (v.owner, v.partner, v.sent_at, v.snippet, v.unread)";
+
+    private void updateConversationSummary(Connection connection, String owner, String partner,
+                                           Timestamp sentAt, String snippet, int unread) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(CONVERSATION_SUMMARY_MERGE)) {
+            setSummaryParams(pstmt, owner, partner, sentAt, snippet, unread);
             pstmt.executeUpdate();
         }
     }
 
+    private static void addSummaryBatch(PreparedStatement pstmt, String owner, String partner,
+                                        Timestamp sentAt, String snippet, int unread) throws SQLException {
+        setSummaryParams(pstmt, owner, partner, sentAt, snippet, unread);
+        pstmt.addBatch();
+    }
+
+    private static void setSummaryParams(PreparedStatement pstmt, String owner, String partner,
+                                         Timestamp sentAt, String snippet, int unread) throws SQLException {
+        pstmt.setString(1, owner);
+        pstmt.setString(2, partner);
+        pstmt.setTimestamp(3, sentAt);
+        pstmt.setString(4, snippet);
+        pstmt.setInt(5, unread);
+    }
+
+    // Messages as their receivers see them: direct messages, plus one row per recipient of each
+    // broadcast carrying that recipient as receiver and their read flag. Each branch gets its own
+    // filter so H2 can use the Feedback and feedback_recipients indexes.
+    private static String messageDeliveries(String directFilter, String broadcastFilter) {
+        return "(SELECT feedbackId, sender, receiver, content, timestamp, questionId, answerId, reviewId, "
+                + "parentMessageId, isRead FROM Feedback WHERE receiver IS NOT NULL AND (" + directFilter + ") "
+                + "UNION ALL SELECT f.feedbackId, f.sender, r.recipient, f.content, f.timestamp, f.questionId, "
+                + "f.answerId, f.reviewId, f.parentMessageId, r.isRead FROM feedback_recipients r "
+                + "JOIN Feedback f ON f.feedbackId = r.feedbackId WHERE " + broadcastFilter + ")";
+    }
+
+    // Recomputes both users' summary rows for a pair from the messages that remain
+    private void rebuildConversationSummary(Connection connection, String user1, String user2) throws SQLException {
+        String deleteQuery = "DELETE FROM conversation_summary WHERE (owner = ? AND partner = ?) OR (owner = ? AND partner = ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(deleteQuery)) {
+            pstmt.setString(1, user1);
+            pstmt.setString(2, user2);
+            pstmt.setString(3, user2);
+            pstmt.setString(4, user1);
+            pstmt.executeUpdate();
+        }
+        String deliveries = messageDeliveries("(sender = ? AND receiver = ?) OR (sender = ? AND receiver = ?)",
+                "(f.sender = ? AND r.recipient = ?) OR (f.sender = ? AND r.recipient = ?)");
+        String insertQuery = "INSERT INTO conversation_summary (owner, partner, last_message_time, last_message_snippet, unread_count) "
+                    + SchemaMigrations.conversationSummarySelect(deliveries, "");
+        try (PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
+            // The deliveries appear three times, each with both branches' pair filters
+            for (int offset = 0; offset < 24; offset += 4) {
+                pstmt.setString(offset + 1, user1);
+                pstmt.setString(offset + 2, user2);
+                pstmt.setString(offset + 3, user2);
+                pstmt.setString(offset + 4, user1);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static String snippet(String content) {
+        if (content == null) {
+            return null;
+        }
+        int max = SchemaMigrations.CONVERSATION_SNIPPET_LENGTH;
+        return content.length() <= max ? content : content.substring(0, max);
+    }
+
+    private Feedback readFeedback(ResultSet rs) throws SQLException {
+        return new Feedback(
+            rs.getInt("feedbackId"),
+            rs.getString("sender"),
+            rs.getString("receiver"),
+            rs.getString("content"),
+            rs.getTimestamp("timestamp"),
+            rs.getInt("questionId"),
+            getIntegerOrNull(rs, "answerId"),
+            getIntegerOrNull(rs, "reviewId"),
+            getIntegerOrNull(rs, "parentMessageId")
+        );
+    }
+
+    /**
+     * Gets the messages a user received, including broadcasts sent to them.
+     * @param username The receiver
+     * @return The messages, newest first
+     */
     public List<Feedback> getFeedbackForUser(String username) throws SQLException {
         List<Feedback> feedbacks = new ArrayList<>();
-        String query = "SELECT * FROM Feedback WHERE receiver = ? ORDER BY timestamp DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        String query = "SELECT * FROM " + messageDeliveries("receiver = ?", "r.recipient = ?") + " m "
+                    + "ORDER BY timestamp DESC";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, username);
+            pstmt.setString(2, username);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                feedbacks.add(new Feedback(
-                    rs.getInt("feedbackId"),
-                    rs.getString("sender"),
-                    rs.getString("receiver"),
-                    rs.getString("content"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getInt("questionId"),
-                    getIntegerOrNull(rs, "answerId"),
-                    getIntegerOrNull(rs, "reviewId"),
-                    getIntegerOrNull(rs, "parentMessageId")
-                ));
+                feedbacks.add(readFeedback(rs));
             }
         }
         return feedbacks;
@@ -451,97 +1157,85 @@ public class DatabaseHelper2 {
     }
 
     /**
-     * Gets all conversations for a user (both sent and received messages)
+     * Gets the inbox of a user: one summary per conversation partner, most
+     * recent conversation first, read from conversation_summary in a single query.
+     * Broadcasts are folded into the summaries when they are sent.
      * @param username The username to get conversations for
-     * @return List of distinct users the specified user has conversed with
+     * @return Conversation summaries ordered by last message time, newest first
      */
-    public List<String> getUserConversations(String username) throws SQLException {
-        List<String> partners = new ArrayList<>();
-        
-        // Simplified query to get all unique conversation partners
-        String query = "SELECT DISTINCT CASE " +
-                       "WHEN sender = ? THEN receiver " +
-                       "ELSE sender END as partner " +
-                       "FROM Feedback " +
-                       "WHERE sender = ? OR receiver = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+    public List<ConversationSummary> getConversationSummaries(String username) throws SQLException {
+        List<ConversationSummary> summaries = new ArrayList<>();
+        // The partner's roles come along so the inbox can label instructors without a query per partner
+        String query = "SELECT cs.partner, cs.last_message_time, cs.last_message_snippet, cs.unread_count, "
+                    + "COALESCE(u.access_mask, 0) AS partner_mask "
+                    + "FROM conversation_summary cs LEFT JOIN cse360users u ON u.userName = cs.partner "
+                    + "WHERE cs.owner = ? "
+                    + "ORDER BY cs.last_message_time DESC, cs.partner";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, username);
-            pstmt.setString(2, username);
-            pstmt.setString(3, username);
-            
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                partners.add(rs.getString("partner"));
+                summaries.add(new ConversationSummary(
+                    rs.getString("partner"),
+                    rs.getTimestamp("last_message_time"),
+                    rs.getString("last_message_snippet"),
+                    rs.getInt("unread_count"),
+                    rs.getInt("partner_mask")
+                ));
             }
         }
-        
-        // Now sort the partners by most recent message (in a separate query)
-        if (!partners.isEmpty()) {
-            Map<String, Long> lastMessageTime = new HashMap<>();
-            
-            for (String partner : partners) {
-                String timeQuery = "SELECT MAX(timestamp) as latest " +
-                                   "FROM Feedback " +
-                                   "WHERE (sender = ? AND receiver = ?) OR (sender = ? AND receiver = ?)";
-                
-                try (PreparedStatement timePstmt = connection.prepareStatement(timeQuery)) {
-                    timePstmt.setString(1, username);
-                    timePstmt.setString(2, partner);
-                    timePstmt.setString(3, partner);
-                    timePstmt.setString(4, username);
-                    
-                    ResultSet timeRs = timePstmt.executeQuery();
-                    if (timeRs.next() && timeRs.getTimestamp("latest") != null) {
-                        lastMessageTime.put(partner, timeRs.getTimestamp("latest").getTime());
-                    } else {
-                        lastMessageTime.put(partner, 0L);
-                    }
-                }
-            }
-            
-            // Sort partners by most recent message time
-            partners.sort((a, b) -> Long.compare(
-                lastMessageTime.getOrDefault(b, 0L), 
-                lastMessageTime.getOrDefault(a, 0L)
-            ));
+        return summaries;
+    }
+
+    /**
+     * Gets all conversations for a user (both sent and received messages)
+     * @param username The username to get conversations for
+     * @return List of distinct users the specified user has conversed with, most recent first
+     */
+    public List<String> getUserConversations(String username) throws SQLException {
+        List<String> partners = new ArrayList<>();
+        for (ConversationSummary summary : getConversationSummaries(username)) {
+            partners.add(summary.getPartner());
         }
-        
         return partners;
     }
 
     /**
-     * Gets the conversation between two users
+     * Gets the conversation between two users, including broadcasts either of
+     * them sent to the other. Each message comes with what its question, answer
+     * and review references point at, so it can be shown without further queries.
      * @param user1 First user in conversation
      * @param user2 Second user in conversation
      * @return List of feedback messages between the two users, ordered by timestamp
      */
     public List<Feedback> getConversation(String user1, String user2) throws SQLException {
         List<Feedback> conversation = new ArrayList<>();
-        String query = "SELECT * FROM Feedback "
-                    + "WHERE (sender = ? AND receiver = ?) "
-                    + "OR (sender = ? AND receiver = ?) "
-                    + "ORDER BY timestamp ASC";
+        String query = "SELECT m.*, q.questionId AS referencedQuestionId, a.author AS referencedAnswerAuthor, "
+                    + "rv.reviewer AS referencedReviewer FROM "
+                    + messageDeliveries("(sender = ? AND receiver = ?) OR (sender = ? AND receiver = ?)",
+                            "(f.sender = ? AND r.recipient = ?) OR (f.sender = ? AND r.recipient = ?)")
+                    + " m LEFT JOIN Questions q ON q.questionId = m.questionId "
+                    + "LEFT JOIN Answers a ON a.answerId = m.answerId "
+                    + "LEFT JOIN reviews rv ON rv.review_id = m.reviewId "
+                    + "ORDER BY m.timestamp ASC";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, user1);
-            pstmt.setString(2, user2);
-            pstmt.setString(3, user2);
-            pstmt.setString(4, user1);
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            for (int offset = 0; offset < 8; offset += 4) {
+                pstmt.setString(offset + 1, user1);
+                pstmt.setString(offset + 2, user2);
+                pstmt.setString(offset + 3, user2);
+                pstmt.setString(offset + 4, user1);
+            }
             
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                conversation.add(new Feedback(
-                    rs.getInt("feedbackId"),
-                    rs.getString("sender"),
-                    rs.getString("receiver"),
-                    rs.getString("content"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getInt("questionId"),
-                    getIntegerOrNull(rs, "answerId"),
-                    getIntegerOrNull(rs, "reviewId"),
-                    getIntegerOrNull(rs, "parentMessageId")
-                ));
+                Feedback message = readFeedback(rs);
+                rs.getInt("referencedQuestionId");
+                message.setReferences(!rs.wasNull(), rs.getString("referencedAnswerAuthor"),
+                        rs.getString("referencedReviewer"));
+                conversation.add(message);
             }
         }
         
@@ -552,14 +1246,17 @@ public class DatabaseHelper2 {
     }
 
     /**
-     * Gets the number of unread messages for a user
+     * Gets the number of unread messages for a user, broadcasts included
      * @param username The username to count unread messages for
      * @return Count of unread messages
      */
     public int getUnreadMessageCount(String username) throws SQLException {
-        String query = "SELECT COUNT(*) FROM Feedback WHERE receiver = ? AND isRead = FALSE";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        String query = "SELECT (SELECT COUNT(*) FROM Feedback WHERE receiver = ? AND isRead = FALSE) "
+                    + "+ (SELECT COUNT(*) FROM feedback_recipients WHERE recipient = ? AND isRead = FALSE)";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, username);
+            pstmt.setString(2, username);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 return rs.getInt(1);
@@ -569,30 +1266,47 @@ public class DatabaseHelper2 {
     }
 
     /**
-     * Marks messages as read when user1 views messages from user2
+     * Marks messages as read when user1 views messages from user2, including
+     * user1's copies of user2's broadcasts
      */
     public void markConversationAsRead(String user1, String user2) throws SQLException {
         String query = "UPDATE Feedback SET isRead = TRUE WHERE receiver = ? AND sender = ? AND isRead = FALSE";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, user1);
-            pstmt.setString(2, user2);
-            pstmt.executeUpdate();
+        String broadcastQuery = "UPDATE feedback_recipients SET isRead = TRUE WHERE recipient = ? AND isRead = FALSE "
+                    + "AND feedbackId IN (SELECT feedbackId FROM Feedback WHERE sender = ? AND receiver IS NULL)";
+        String summaryQuery = "UPDATE conversation_summary SET unread_count = 0 WHERE owner = ? AND partner = ? AND unread_count <> 0";
+        int updated = 0;
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            for (String update : new String[] { query, broadcastQuery, summaryQuery }) {
+                try (PreparedStatement pstmt = connection.prepareStatement(update)) {
+                    pstmt.setString(1, user1);
+                    pstmt.setString(2, user2);
+                    updated += pstmt.executeUpdate();
+                }
+            }
+            connection.commit();
+        }
+        // Opening a conversation with nothing unread changes nothing, so it is not an event
+        if (updated > 0) {
+            EventBus.getInstance().publish(new ChangeEvent.MessagesRead(user1, user2));
         }
     }
 
     /**
-     * Gets the count of unread messages for each conversation
+     * Gets the count of unread messages for each conversation, broadcasts included
      * @param username The username to get unread message counts for
      * @return Map of conversation partner to unread message count
      */
     public Map<String, Integer> getUnreadMessageCountsByConversation(String username) throws SQLException {
         Map<String, Integer> unreadCounts = new HashMap<>();
-        String query = "SELECT sender, COUNT(*) as unreadCount FROM Feedback "
-                    + "WHERE receiver = ? AND isRead = FALSE "
-                    + "GROUP BY sender";
+        String query = "SELECT sender, COUNT(*) as unreadCount FROM "
+                    + messageDeliveries("receiver = ? AND isRead = FALSE", "r.recipient = ? AND r.isRead = FALSE")
+                    + " m GROUP BY sender";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, username);
+            pstmt.setString(2, username);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 unreadCounts.put(rs.getString("sender"), rs.getInt("unreadCount"));
@@ -602,95 +1316,88 @@ public class DatabaseHelper2 {
     }
 
     /**
-     * Gets messages related to a specific question
+     * Gets messages related to a specific question. A broadcast is listed once,
+     * with a null receiver.
      */
     public List<Feedback> getMessagesForQuestion(int questionId) throws SQLException {
-        List<Feedback> messages = new ArrayList<>();
-        String query = "SELECT * FROM Feedback WHERE questionId = ? ORDER BY timestamp ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, questionId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                messages.add(new Feedback(
-                    rs.getInt("feedbackId"),
-                    rs.getString("sender"),
-                    rs.getString("receiver"),
-                    rs.getString("content"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getInt("questionId"),
-                    getIntegerOrNull(rs, "answerId"),
-                    getIntegerOrNull(rs, "reviewId"),
-                    getIntegerOrNull(rs, "parentMessageId")
-                ));
-            }
-        }
-        return messages;
+        return getMessages("questionId", questionId);
     }
 
     /**
-     * Gets messages related to a specific answer
+     * Gets messages related to a specific answer. A broadcast is listed once,
+     * with a null receiver.
      */
     public List<Feedback> getMessagesForAnswer(int answerId) throws SQLException {
-        List<Feedback> messages = new ArrayList<>();
-        String query = "SELECT * FROM Feedback WHERE answerId = ? ORDER BY timestamp ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, answerId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                messages.add(new Feedback(
-                    rs.getInt("feedbackId"),
-                    rs.getString("sender"),
-                    rs.getString("receiver"),
-                    rs.getString("content"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getInt("questionId"),
-                    getIntegerOrNull(rs, "answerId"),
-                    getIntegerOrNull(rs, "reviewId"),
-                    getIntegerOrNull(rs, "parentMessageId")
-                ));
-            }
-        }
-        return messages;
+        return getMessages("answerId", answerId);
     }
 
     /**
-     * Gets messages related to a specific review
+     * Gets messages related to a specific review. A broadcast is listed once,
+     * with a null receiver.
      */
     public List<Feedback> getMessagesForReview(int reviewId) throws SQLException {
+        return getMessages("reviewId", reviewId);
+    }
+
+    private List<Feedback> getMessages(String column, int id) throws SQLException {
         List<Feedback> messages = new ArrayList<>();
-        String query = "SELECT * FROM Feedback WHERE reviewId = ? ORDER BY timestamp ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, reviewId);
+        String query = "SELECT * FROM Feedback WHERE " + column + " = ? ORDER BY timestamp ASC";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                messages.add(new Feedback(
-                    rs.getInt("feedbackId"),
-                    rs.getString("sender"),
-                    rs.getString("receiver"),
-                    rs.getString("content"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getInt("questionId"),
-                    getIntegerOrNull(rs, "answerId"),
-                    getIntegerOrNull(rs, "reviewId"),
-                    getIntegerOrNull(rs, "parentMessageId")
-                ));
+                messages.add(readFeedback(rs));
             }
         }
         return messages;
     }
 
     public void deleteFeedback(int feedbackId) throws SQLException {
+        String selectQuery = "SELECT sender, receiver FROM Feedback WHERE feedbackId = ?";
+        String recipientsQuery = "SELECT recipient FROM feedback_recipients WHERE feedbackId = ?";
         String query = "DELETE FROM Feedback WHERE feedbackId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, feedbackId);
-            pstmt.executeUpdate();
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            String sender = null;
+            List<String> receivers = new ArrayList<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(selectQuery)) {
+                pstmt.setInt(1, feedbackId);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    sender = rs.getString("sender");
+                    if (rs.getString("receiver") != null) {
+                        receivers.add(rs.getString("receiver"));
+                    }
+                }
+            }
+            if (sender != null && receivers.isEmpty()) {
+                // A broadcast: its recipient rows go with it through the cascade
+                try (PreparedStatement pstmt = connection.prepareStatement(recipientsQuery)) {
+                    pstmt.setInt(1, feedbackId);
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        receivers.add(rs.getString("recipient"));
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+                pstmt.setInt(1, feedbackId);
+                pstmt.executeUpdate();
+            }
+            for (String receiver : receivers) {
+                // The deleted message may have been the latest or an unread one
+                rebuildConversationSummary(connection, sender, receiver);
+            }
+            connection.commit();
         }
     }
 
     // Trusted Reviewers Management Methods
     public void addTrustedReviewer(String studentUsername, String reviewerUsername, int weightage) throws SQLException {
         String query = "INSERT INTO TrustedReviewers (studentUsername, reviewerUsername, timestamp, weightage) VALUES (?, ?, CURRENT_TIMESTAMP, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, studentUsername);
             pstmt.setString(2, reviewerUsername);
             pstmt.setInt(3, weightage);
@@ -705,7 +1412,8 @@ public class DatabaseHelper2 {
 
     public void updateReviewerWeightage(String studentUsername, String reviewerUsername, int weightage) throws SQLException {
         String query = "UPDATE TrustedReviewers SET weightage = ? WHERE studentUsername = ? AND reviewerUsername = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, weightage);
             pstmt.setString(2, studentUsername);
             pstmt.setString(3, reviewerUsername);
@@ -715,7 +1423,8 @@ public class DatabaseHelper2 {
 
     public int getReviewerWeightage(String studentUsername, String reviewerUsername) throws SQLException {
         String query = "SELECT weightage FROM TrustedReviewers WHERE studentUsername = ? AND reviewerUsername = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, studentUsername);
             pstmt.setString(2, reviewerUsername);
             ResultSet rs = pstmt.executeQuery();
@@ -726,9 +1435,29 @@ public class DatabaseHelper2 {
         return 0; // Return 0 if not a trusted reviewer
     }
 
+    /**
+     * Gets the weightage of every trusted reviewer of a student in one query.
+     * @param studentUsername The student whose trusted reviewers to load
+     * @return Map of reviewer username to weightage; reviewers not in the map are not trusted
+     */
+    public Map<String, Integer> getReviewerWeightages(String studentUsername) throws SQLException {
+        Map<String, Integer> weightages = new HashMap<>();
+        String query = "SELECT reviewerUsername, weightage FROM TrustedReviewers WHERE studentUsername = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, studentUsername);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                weightages.put(rs.getString("reviewerUsername"), rs.getInt("weightage"));
+            }
+        }
+        return weightages;
+    }
+
     public void removeTrustedReviewer(String studentUsername, String reviewerUsername) throws SQLException {
         String query = "DELETE FROM TrustedReviewers WHERE studentUsername = ? AND reviewerUsername = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, studentUsername);
             pstmt.setString(2, reviewerUsername);
             pstmt.executeUpdate();
@@ -738,7 +1467,8 @@ public class DatabaseHelper2 {
     public List<String> getTrustedReviewers(String studentUsername) throws SQLException {
         List<String> trustedReviewers = new ArrayList<>();
         String query = "SELECT reviewerUsername FROM TrustedReviewers WHERE studentUsername = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, studentUsername);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -750,8 +1480,10 @@ public class DatabaseHelper2 {
 
     public List<String> getAllReviewers() throws SQLException {
         List<String> reviewers = new ArrayList<>();
-        String query = "SELECT DISTINCT userName FROM cse360users WHERE roles LIKE '%reviewer%'";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        String query = "SELECT userName FROM cse360users WHERE "
+                + DatabaseHelper.roleCondition("", "reviewer") + " ORDER BY userName";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 reviewers.add(rs.getString("userName"));
@@ -762,7 +1494,8 @@ public class DatabaseHelper2 {
 
     public boolean isTrustedReviewer(String studentUsername, String reviewerUsername) throws SQLException {
         String query = "SELECT COUNT(*) FROM TrustedReviewers WHERE studentUsername = ? AND reviewerUsername = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, studentUsername);
             pstmt.setString(2, reviewerUsername);
             ResultSet rs = pstmt.executeQuery();
@@ -775,6 +1508,9 @@ public class DatabaseHelper2 {
 
     /**
      * Counts the number of system warnings a student has received
+     * by counting the warning messages in their inbox. Warnings issued through
+     * {@link ModerationService} are also counted in its ledger, where
+     * {@link ModerationService#getWarningCount(String)} reads them without a scan.
      * 
      * @param username The username of the student
      * @return The number of system warnings the student has received
@@ -782,7 +1518,8 @@ public class DatabaseHelper2 {
      */
     public int getSystemWarningCount(String username) throws SQLException {
         String sql = "SELECT COUNT(*) FROM Feedback WHERE receiver = ? AND sender = 'SYSTEM WARNING'";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -793,16 +1530,8 @@ public class DatabaseHelper2 {
         }
     }
 
+    // Connections are borrowed per call from the shared pool, so this helper
+    // holds nothing open. Kept so existing callers need no changes.
     public void closeConnection() {
-        try{ 
-            if(statement!=null) statement.close(); 
-        } catch(SQLException se2) { 
-            se2.printStackTrace();
-        } 
-        try { 
-            if(connection!=null) connection.close(); 
-        } catch(SQLException se){ 
-            se.printStackTrace(); 
-        } 
     }
 }
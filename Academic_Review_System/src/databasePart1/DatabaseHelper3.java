@@ -4,7 +4,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import main.RankedReview;
 import main.Review;
+import main.SearchHit;
+import main.StudentBanStatus;
+import main.User;
 
 /**
  * DatabaseHelper3 class provides database operations for the review system.
@@ -18,106 +22,16 @@ import main.Review;
  * @since 2025-04-01
  */
 public class DatabaseHelper3 {
-    // JDBC driver name and database URL 
-    static final String JDBC_DRIVER = "org.h2.Driver";   
-    static final String DB_URL = "jdbc:h2:~/FoundationDatabase";  
-
-    //  Database credentials 
-    static final String USER = "sa"; 
-    static final String PASS = ""; 
-
-    public Connection connection = null;
-    public Statement statement = null;
-
+    // Makes sure the database schema is current; the tables themselves are
+    // created by SchemaMigrations.
     public void connectToDatabase() throws SQLException {
-        try {
-            Class.forName(JDBC_DRIVER);
-            System.out.println("Connecting to database...");
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement = connection.createStatement();
-            createTables();
-        } catch (ClassNotFoundException e) {
-            System.err.println("JDBC Driver not found: " + e.getMessage());
-        }
+        SchemaMigrations.ensureCurrent();
     }
 
-    private void createTables() throws SQLException {
-        // Create the reviews table
-        String reviewsTable = "CREATE TABLE IF NOT EXISTS reviews ("
-                + "review_id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "reviewer VARCHAR(255), "
-                + "content TEXT, "
-                + "timestamp TIMESTAMP, "
-                + "question_id INT, "
-                + "answer_id INT, "
-                + "FOREIGN KEY (question_id) REFERENCES Questions(questionId), "
-                + "FOREIGN KEY (answer_id) REFERENCES Answers(answerId))";
-        statement.execute(reviewsTable);
-
-        // Create the reviewer_profile table
-        String reviewerProfileTable = "CREATE TABLE IF NOT EXISTS reviewer_profile ("
-                + "username VARCHAR(255) PRIMARY KEY, "
-                + "about TEXT, "
-                + "experience TEXT, "
-                + "specialties TEXT, "
-                + "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
-        statement.execute(reviewerProfileTable);
-
-        // Create the reviewer_feedback table
-        String reviewerFeedbackTable = "CREATE TABLE IF NOT EXISTS reviewer_feedback ("
-                + "feedback_id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "reviewer_username VARCHAR(255), "
-                + "student_username VARCHAR(255), "
-                + "content TEXT, "
-                + "rating INT CHECK (rating >= 1 AND rating <= 5), "
-                + "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-                + "FOREIGN KEY (reviewer_username) REFERENCES reviewer_profile(username))";
-        statement.execute(reviewerFeedbackTable);
-
-        // Create the reviewer_requests table
-        String reviewerRequestsTable = "CREATE TABLE IF NOT EXISTS reviewer_requests ("
-                + "request_id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "student_username VARCHAR(255), "
-                + "status VARCHAR(20) DEFAULT 'pending', " // pending, approved, rejected
-                + "request_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-                + "review_date TIMESTAMP, "
-                + "reviewer_username VARCHAR(255), " // instructor who reviewed
-                + "review_notes TEXT)";
-        statement.execute(reviewerRequestsTable);
-        
-        // Create the reported_content table
-        String reportedContentTable = "CREATE TABLE IF NOT EXISTS reported_content ("
-                + "report_id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "reporter_username VARCHAR(255), " // staff member who reported
-                + "content_type VARCHAR(20), " // question, answer
-                + "content_id INT, " // ID of the question or answer
-                + "reason TEXT, " // Reason for reporting
-                + "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-                + "status VARCHAR(20) DEFAULT 'pending', " // pending, reviewed, dismissed
-                + "reviewer_username VARCHAR(255), " // instructor who reviewed 
-                + "review_notes TEXT, "
-                + "review_date TIMESTAMP)";
-        statement.execute(reportedContentTable);
-        
-        // Create the banned_students table
-        String bannedStudentsTable = "CREATE TABLE IF NOT EXISTS banned_students ("
-                + "ban_id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "student_username VARCHAR(255) UNIQUE, "
-                + "banned_by VARCHAR(255), "
-                + "ban_reason TEXT, "
-                + "ban_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
-        statement.execute(bannedStudentsTable);
-
-        // Create the reviewer_scorecard table
-        String reviewerScorecardTable = "CREATE TABLE IF NOT EXISTS reviewer_scorecard ("
-                + "scorecard_id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "reviewer_username VARCHAR(255) UNIQUE, "
-                + "friendliness INT CHECK (friendliness >= 0 AND friendliness <= 5), "
-                + "accuracy INT CHECK (accuracy >= 0 AND accuracy <= 5), "
-                + "judgement INT CHECK (judgement >= 0 AND judgement <= 5), "
-                + "communication INT CHECK (communication >= 0 AND communication <= 5), "
-                + "overall_score DECIMAL(3,2) AS ((friendliness + accuracy + judgement + communication) / 4.0))";
-        statement.execute(reviewerScorecardTable);
+    // Borrows a connection from the shared pool, or joins the unit of work running
+    // on this thread; closing it gives it back.
+    private Connection getConnection() throws SQLException {
+        return UnitOfWork.connection();
     }
 
     /**
@@ -131,18 +45,34 @@ public class DatabaseHelper3 {
      */
     public void addReview(Review review) throws SQLException {
         String sql = "INSERT INTO reviews (reviewer, content, timestamp, question_id, answer_id) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, review.getReviewer());
-            pstmt.setString(2, review.getContent());
-            pstmt.setTimestamp(3, new java.sql.Timestamp(review.getTimestamp().getTime()));
-            pstmt.setInt(4, review.getQuestionId());
-            if (review.getAnswerId() != null) {
-                pstmt.setInt(5, review.getAnswerId());
-            } else {
-                pstmt.setNull(5, java.sql.Types.INTEGER);
+        // The insert and the touch on the question commit together
+        UnitOfWork.run(() -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, review.getReviewer());
+                pstmt.setString(2, review.getContent());
+                pstmt.setTimestamp(3, new java.sql.Timestamp(review.getTimestamp().getTime()));
+                pstmt.setInt(4, review.getQuestionId());
+                if (review.getAnswerId() != null) {
+                    pstmt.setInt(5, review.getAnswerId());
+                } else {
+                    pstmt.setNull(5, java.sql.Types.INTEGER);
+                }
+                pstmt.executeUpdate();
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        review.setReviewId(generatedKeys.getInt(1));
+                        indexAfterCommit(review);
+                    }
+                }
+                EventBus.getInstance().publish(new ChangeEvent.ReviewAdded(review.getReviewId(), review.getQuestionId(),
+                        review.getAnswerId(), review.getReviewer()));
+                if (review.getAnswerId() == null) {
+                    // The question's review count changed
+                    RowVersions.touchQuestion(connection, review.getQuestionId());
+                }
             }
-            pstmt.executeUpdate();
-        }
+        });
     }
 
     /**
@@ -157,7 +87,8 @@ public class DatabaseHelper3 {
     public List<Review> getReviewsForQuestion(int questionId) throws SQLException {
         List<Review> reviews = new ArrayList<>();
         String sql = "SELECT * FROM reviews WHERE question_id = ? AND answer_id IS NULL ORDER BY timestamp ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, questionId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -186,7 +117,8 @@ public class DatabaseHelper3 {
     public List<Review> getReviewsForAnswer(int answerId) throws SQLException {
         List<Review> reviews = new ArrayList<>();
         String sql = "SELECT * FROM reviews WHERE answer_id = ? ORDER BY timestamp ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, answerId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -204,6 +136,79 @@ public class DatabaseHelper3 {
         return reviews;
     }
 
+    // Review ranking for a student. The student's trust weightage (whole numbers from 1)
+    // decides the order; the reviewer's scorecard (0 to 5) is scaled below 1 so it only
+    // breaks ties between equally trusted or untrusted reviewers.
+    private static final String RANKED_REVIEW_SELECT =
+            "SELECT r.*, COALESCE(t.weightage, 0) AS trust_weight, "
+            + "COALESCE(s.overall_score, 0) AS reviewer_score, "
+            + "COALESCE(t.weightage, 0) + COALESCE(s.overall_score, 0) / 10.0 AS effective_weight "
+            + "FROM reviews r "
+            + "LEFT JOIN TrustedReviewers t ON t.reviewerUsername = r.reviewer AND t.studentUsername = ? "
+            + "LEFT JOIN reviewer_scorecard s ON s.reviewer_username = r.reviewer ";
+    private static final String RANKED_REVIEW_ORDER = "ORDER BY effective_weight DESC, r.timestamp ASC, r.review_id ASC";
+
+    /**
+     * Retrieves the reviews of a question ranked for a student.
+     * 
+     * Reviews from the student's trusted reviewers come first, ordered by the weightage
+     * the student gave them; reviewers with the same weightage are ordered by their
+     * scorecard rating and then by review date.
+     *
+     * @param questionId The ID of the question to retrieve reviews for
+     * @param studentUsername The student whose trusted reviewers are used for ranking
+     * @return The question's reviews, highest effective weight first
+     * @throws SQLException if a database access error occurs
+     */
+    public List<RankedReview> getRankedReviewsForQuestion(int questionId, String studentUsername) throws SQLException {
+        String sql = RANKED_REVIEW_SELECT + "WHERE r.question_id = ? AND r.answer_id IS NULL " + RANKED_REVIEW_ORDER;
+        return queryRankedReviews(sql, studentUsername, questionId);
+    }
+
+    /**
+     * Retrieves the reviews of an answer ranked for a student.
+     * 
+     * Uses the same ordering as {@link #getRankedReviewsForQuestion(int, String)}.
+     *
+     * @param answerId The ID of the answer to retrieve reviews for
+     * @param studentUsername The student whose trusted reviewers are used for ranking
+     * @return The answer's reviews, highest effective weight first
+     * @throws SQLException if a database access error occurs
+     */
+    public List<RankedReview> getRankedReviewsForAnswer(int answerId, String studentUsername) throws SQLException {
+        String sql = RANKED_REVIEW_SELECT + "WHERE r.answer_id = ? " + RANKED_REVIEW_ORDER;
+        return queryRankedReviews(sql, studentUsername, answerId);
+    }
+
+    private List<RankedReview> queryRankedReviews(String sql, String studentUsername, int id) throws SQLException {
+        List<RankedReview> reviews = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, studentUsername);
+            pstmt.setInt(2, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Integer answerId = rs.getInt("answer_id");
+                    if (rs.wasNull()) {
+                        answerId = null;
+                    }
+                    reviews.add(new RankedReview(
+                        rs.getInt("review_id"),
+                        rs.getString("reviewer"),
+                        rs.getString("content"),
+                        rs.getTimestamp("timestamp"),
+                        rs.getInt("question_id"),
+                        answerId,
+                        rs.getInt("trust_weight"),
+                        rs.getDouble("reviewer_score"),
+                        rs.getDouble("effective_weight")
+                    ));
+                }
+            }
+        }
+        return reviews;
+    }
+
     /**
      * Updates an existing review in the database.
      * 
@@ -214,14 +219,27 @@ public class DatabaseHelper3 {
      */
     public void updateReview(Review review) throws SQLException {
         String sql = "UPDATE reviews SET content = ?, timestamp = ? WHERE review_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, review.getContent());
             pstmt.setTimestamp(2, new java.sql.Timestamp(review.getTimestamp().getTime()));
             pstmt.setInt(3, review.getReviewId());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0) {
+                indexAfterCommit(review);
+            }
         }
     }
 
+    // Indexes the review as it is now, once the write that changed it has been committed
+    private static void indexAfterCommit(Review review) {
+        int reviewId = review.getReviewId();
+        int questionId = review.getQuestionId();
+        String reviewer = review.getReviewer();
+        String content = review.getContent();
+        UnitOfWork.afterCommit(() -> SearchIndex.getInstance().index(SearchHit.Type.REVIEW,
+                reviewId, questionId, reviewer, content));
+    }
+
     /**
      * Deletes a review from the database.
      * 
@@ -232,11 +250,29 @@ public class DatabaseHelper3 {
      * @throws SQLException if a database access error occurs
      */
     public void deleteReview(int reviewId) throws SQLException {
+        String findQuestion = "SELECT question_id FROM reviews WHERE review_id = ? AND answer_id IS NULL";
         String sql = "DELETE FROM reviews WHERE review_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, reviewId);
-            pstmt.executeUpdate();
-        }
+        // The delete and the touch on the question commit together
+        UnitOfWork.run(() -> {
+            try (Connection connection = getConnection()) {
+                Integer questionId;
+                try (PreparedStatement pstmt = connection.prepareStatement(findQuestion)) {
+                    pstmt.setInt(1, reviewId);
+                    ResultSet rs = pstmt.executeQuery();
+                    questionId = rs.next() ? rs.getInt(1) : null;
+                }
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, reviewId);
+                    if (pstmt.executeUpdate() > 0) {
+                        if (questionId != null) {
+                            // The question's review count changed
+                            RowVersions.touchQuestion(connection, questionId);
+                        }
+                        UnitOfWork.afterCommit(() -> SearchIndex.getInstance().remove(SearchHit.Type.REVIEW, reviewId));
+                    }
+                }
+            }
+        });
     }
 
     /**
@@ -251,7 +287,8 @@ public class DatabaseHelper3 {
     public Review getReviewById(int reviewId) throws SQLException {
         Review review = null;
         String sql = "SELECT * FROM reviews WHERE review_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, reviewId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -290,7 +327,8 @@ public class DatabaseHelper3 {
         }
         
         String sql = "INSERT INTO reviewer_requests (student_username) VALUES (?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, studentUsername);
             pstmt.executeUpdate();
         }
@@ -308,7 +346,9 @@ public class DatabaseHelper3 {
     public List<Map<String, Object>> getPendingReviewerRequests() throws SQLException {
         List<Map<String, Object>> requests = new ArrayList<>();
         String sql = "SELECT * FROM reviewer_requests WHERE status = 'pending' ORDER BY request_date DESC";
-        try (ResultSet rs = statement.executeQuery(sql)) {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 Map<String, Object> request = new HashMap<>();
                 request.put("requestId", rs.getInt("request_id"));
@@ -331,7 +371,8 @@ public class DatabaseHelper3 {
      */
     public void updateReviewerRequestStatus(int requestId, String status, String reviewerUsername, String notes) throws SQLException {
         String sql = "UPDATE reviewer_requests SET status = ?, review_date = CURRENT_TIMESTAMP, reviewer_username = ?, review_notes = ? WHERE request_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, status);
             pstmt.setString(2, reviewerUsername);
             pstmt.setString(3, notes);
@@ -351,7 +392,8 @@ public class DatabaseHelper3 {
      */
     public boolean hasPendingReviewerRequest(String studentUsername) throws SQLException {
         String sql = "SELECT COUNT(*) FROM reviewer_requests WHERE student_username = ? AND status = 'pending'";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, studentUsername);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -373,7 +415,8 @@ public class DatabaseHelper3 {
      */
     public Map<String, Object> getReviewerRequestStatus(String studentUsername) throws SQLException {
         String sql = "SELECT * FROM reviewer_requests WHERE student_username = ? ORDER BY request_date DESC LIMIT 1";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, studentUsername);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -404,7 +447,8 @@ public class DatabaseHelper3 {
      */
     public void reportContent(String reporterUsername, String contentType, int contentId, String reason) throws SQLException {
         String sql = "INSERT INTO reported_content (reporter_username, content_type, content_id, reason) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, reporterUsername);
             pstmt.setString(2, contentType);
             pstmt.setInt(3, contentId);
@@ -425,7 +469,9 @@ public class DatabaseHelper3 {
     public List<Map<String, Object>> getPendingReportedContent() throws SQLException {
         List<Map<String, Object>> reports = new ArrayList<>();
         String sql = "SELECT * FROM reported_content WHERE status = 'pending' ORDER BY timestamp DESC";
-        try (ResultSet rs = statement.executeQuery(sql)) {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 Map<String, Object> report = new HashMap<>();
                 report.put("reportId", rs.getInt("report_id"));
@@ -454,7 +500,8 @@ public class DatabaseHelper3 {
      */
     public void updateReportStatus(int reportId, String status, String reviewerUsername, String reviewNotes) throws SQLException {
         String sql = "UPDATE reported_content SET status = ?, reviewer_username = ?, review_notes = ?, review_date = CURRENT_TIMESTAMP WHERE report_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, status);
             pstmt.setString(2, reviewerUsername);
             pstmt.setString(3, reviewNotes);
@@ -475,7 +522,9 @@ public class DatabaseHelper3 {
     public List<Map<String, Object>> getAllReportedContent() throws SQLException {
         List<Map<String, Object>> reports = new ArrayList<>();
         String sql = "SELECT * FROM reported_content ORDER BY timestamp DESC";
-        try (ResultSet rs = statement.executeQuery(sql)) {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 Map<String, Object> report = new HashMap<>();
                 report.put("reportId", rs.getInt("report_id"));
@@ -503,32 +552,23 @@ public class DatabaseHelper3 {
      * @throws SQLException if a database access error occurs
      */
     public void banStudent(String studentUsername, String bannedBy, String reason) throws SQLException {
-        // First check if the student is already banned
-        String checkSql = "SELECT COUNT(*) FROM banned_students WHERE student_username = ?";
-        try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
-            checkStmt.setString(1, studentUsername);
-            try (ResultSet rs = checkStmt.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    // Student is already banned, update the record
-                    String updateSql = "UPDATE banned_students SET banned_by = ?, ban_reason = ?, ban_date = CURRENT_TIMESTAMP WHERE student_username = ?";
-                    try (PreparedStatement updateStmt = connection.prepareStatement(updateSql)) {
-                        updateStmt.setString(1, bannedBy);
-                        updateStmt.setString(2, reason);
-                        updateStmt.setString(3, studentUsername);
-                        updateStmt.executeUpdate();
-                    }
-                } else {
-                    // Student is not banned yet, insert a new record
-                    String insertSql = "INSERT INTO banned_students (student_username, banned_by, ban_reason) VALUES (?, ?, ?)";
-                    try (PreparedStatement insertStmt = connection.prepareStatement(insertSql)) {
-                        insertStmt.setString(1, studentUsername);
-                        insertStmt.setString(2, bannedBy);
-                        insertStmt.setString(3, reason);
-                        insertStmt.executeUpdate();
-                    }
-                }
-            }
+        // Updates the existing ban or inserts a new one in a single statement, so
+        // two staff members banning the same student at once cannot collide
+        String sql = "MERGE INTO banned_students (student_username, banned_by, ban_reason, ban_date) "
+                + "KEY (student_username) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, studentUsername);
+            pstmt.setString(2, bannedBy);
+            pstmt.setString(3, reason);
+            pstmt.executeUpdate();
         }
+        UnitOfWork.afterCommit(() -> {
+            BanRegistry.getInstance().banned(studentUsername);
+            SessionContext.invalidate(studentUsername);
+        });
+        // Published after the registry and sessions above are updated, so listeners see the new state
+        EventBus.getInstance().publish(new ChangeEvent.UserBanned(studentUsername, true));
     }
     
     /**
@@ -539,14 +579,22 @@ public class DatabaseHelper3 {
      */
     public void unbanStudent(String studentUsername) throws SQLException {
         String sql = "DELETE FROM banned_students WHERE student_username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, studentUsername);
             pstmt.executeUpdate();
         }
+        UnitOfWork.afterCommit(() -> {
+            BanRegistry.getInstance().unbanned(studentUsername);
+            SessionContext.invalidate(studentUsername);
+        });
+        EventBus.getInstance().publish(new ChangeEvent.UserBanned(studentUsername, false));
     }
     
     /**
-     * Checks if a student is banned
+     * Checks if a student is banned by asking the database. Pages that only
+     * need the answer for display should use {@link BanRegistry}, which answers
+     * from memory.
      * 
      * @param studentUsername The username of the student to check
      * @return true if the student is banned, false otherwise
@@ -554,7 +602,8 @@ public class DatabaseHelper3 {
      */
     public boolean isStudentBanned(String studentUsername) throws SQLException {
         String sql = "SELECT COUNT(*) FROM banned_students WHERE student_username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, studentUsername);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -565,6 +614,32 @@ public class DatabaseHelper3 {
         }
     }
     
+    /**
+     * Gets every student together with their ban status in one query, for the
+     * banned-students dialogs.
+     * 
+     * @return The students in username order, each with its ban details if banned
+     * @throws SQLException if a database access error occurs
+     */
+    public List<StudentBanStatus> getStudentsWithBanStatus() throws SQLException {
+        List<StudentBanStatus> students = new ArrayList<>();
+        String sql = "SELECT u.userName, u.fullName, u.email, u.roles, "
+                + "b.student_username IS NOT NULL AS banned, b.banned_by, b.ban_reason, b.ban_date "
+                + "FROM cse360users u LEFT JOIN banned_students b ON b.student_username = u.userName "
+                + "WHERE " + DatabaseHelper.roleCondition("u.", "student") + " ORDER BY u.userName";
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                User student = new User(rs.getString("userName"), "", rs.getString("fullName"),
+                        rs.getString("email"), rs.getString("roles").split(","));
+                students.add(new StudentBanStatus(student, rs.getBoolean("banned"), rs.getString("banned_by"),
+                        rs.getString("ban_reason"), rs.getTimestamp("ban_date")));
+            }
+        }
+        return students;
+    }
+    
     /**
      * Gets a list of all banned students
      * 
@@ -574,7 +649,9 @@ public class DatabaseHelper3 {
     public List<Map<String, Object>> getBannedStudents() throws SQLException {
         List<Map<String, Object>> bannedStudents = new ArrayList<>();
         String sql = "SELECT * FROM banned_students ORDER BY ban_date DESC";
-        try (ResultSet rs = statement.executeQuery(sql)) {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 Map<String, Object> student = new HashMap<>();
                 student.put("banId", rs.getInt("ban_id"));
@@ -602,7 +679,8 @@ public class DatabaseHelper3 {
                                       int judgement, int communication) throws SQLException {
         String sql = "MERGE INTO reviewer_scorecard (reviewer_username, friendliness, accuracy, judgement, communication) "
                    + "KEY (reviewer_username) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, reviewerUsername);
             pstmt.setInt(2, friendliness);
             pstmt.setInt(3, accuracy);
@@ -621,7 +699,8 @@ public class DatabaseHelper3 {
      */
     public Map<String, Object> getReviewerScorecard(String reviewerUsername) throws SQLException {
         String sql = "SELECT * FROM reviewer_scorecard WHERE reviewer_username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, reviewerUsername);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -647,7 +726,9 @@ public class DatabaseHelper3 {
     public List<Map<String, Object>> getAllReviewerScorecards() throws SQLException {
         List<Map<String, Object>> scorecards = new ArrayList<>();
         String sql = "SELECT * FROM reviewer_scorecard ORDER BY overall_score DESC";
-        try (ResultSet rs = statement.executeQuery(sql)) {
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 Map<String, Object> scorecard = new HashMap<>();
                 scorecard.put("reviewer_username", rs.getString("reviewer_username"));
@@ -674,7 +755,8 @@ public class DatabaseHelper3 {
     public void updateReviewerProfile(String username, String about, String experience, String specialties) throws SQLException {
         // Check if profile exists
         String checkSql = "SELECT COUNT(*) FROM reviewer_profile WHERE username = ?";
-        try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
             checkStmt.setString(1, username);
             try (ResultSet rs = checkStmt.executeQuery()) {
                 if (rs.next() && rs.getInt(1) > 0) {
@@ -711,7 +793,8 @@ public class DatabaseHelper3 {
      */
     public Map<String, Object> getReviewerProfile(String username) throws SQLException {
         String sql = "SELECT * FROM reviewer_profile WHERE username = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -737,7 +820,8 @@ public class DatabaseHelper3 {
      */
     public void addReviewerFeedback(String reviewerUsername, String studentUsername, String content, int rating) throws SQLException {
         String sql = "INSERT INTO reviewer_feedback (reviewer_username, student_username, content, rating) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, reviewerUsername);
             pstmt.setString(2, studentUsername);
             pstmt.setString(3, content);
@@ -756,7 +840,8 @@ public class DatabaseHelper3 {
     public List<Map<String, Object>> getReviewerFeedback(String reviewerUsername) throws SQLException {
         List<Map<String, Object>> feedbackList = new ArrayList<>();
         String sql = "SELECT * FROM reviewer_feedback WHERE reviewer_username = ? ORDER BY timestamp DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, reviewerUsername);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -783,7 +868,8 @@ public class DatabaseHelper3 {
     public List<Review> getReviewsByReviewer(String reviewerUsername) throws SQLException {
         List<Review> reviews = new ArrayList<>();
         String sql = "SELECT * FROM reviews WHERE reviewer = ? ORDER BY timestamp DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, reviewerUsername);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -806,17 +892,9 @@ public class DatabaseHelper3 {
         return reviews;
     }
 
+    // Connections are borrowed per call from the shared pool, so this helper
+    // holds nothing open. Kept so existing callers need no changes.
     public void closeConnection() {
-        try{ 
-            if(statement!=null) statement.close(); 
-        } catch(SQLException se2) { 
-            se2.printStackTrace();
-        } 
-        try { 
-            if(connection!=null) connection.close(); 
-        } catch(SQLException se){ 
-            se.printStackTrace(); 
-        } 
     }
 }
 
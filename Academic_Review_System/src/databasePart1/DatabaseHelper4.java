@@ -10,77 +10,23 @@ import main.Request;
  * Database helper class for managing Admin Requests.
  */
 public class DatabaseHelper4 {
-    public Connection connection;
-    // Use H2 database details, consistent with other helpers
-    private static final String JDBC_DRIVER = "org.h2.Driver";   
-    private static final String DB_URL = "jdbc:h2:~/FoundationDatabase";  
-    private static final String USER = "sa"; 
-    private static final String PASS = ""; 
-
     // --- Database Connection --- 
 
+    // Makes sure the database schema is current; the AdminRequests table is
+    // created by SchemaMigrations.
     public void connectToDatabase() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                // Use the correct H2 driver
-                Class.forName(JDBC_DRIVER); 
-                // Use H2 URL and credentials
-                connection = DriverManager.getConnection(DB_URL, USER, PASS); 
-                System.out.println("DatabaseHelper4: Connection to H2 database has been established.");
-                initializeDatabase(); // Ensure table exists
-            } catch (ClassNotFoundException e) {
-                // Update error message for H2
-                System.err.println("DatabaseHelper4: H2 JDBC driver not found."); 
-                throw new SQLException("H2 JDBC driver not found.", e);
-            } catch (SQLException e) {
-                System.err.println("DatabaseHelper4: Failed to connect to the H2 database.");
-                throw e;
-            }
-        }
+        SchemaMigrations.ensureCurrent();
     }
 
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("DatabaseHelper4: Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.err.println("DatabaseHelper4: Error closing database connection.");
-            e.printStackTrace();
-        }
+    // Borrows a connection from the shared pool, or joins the unit of work running
+    // on this thread; closing it gives it back.
+    private Connection getConnection() throws SQLException {
+        return UnitOfWork.connection();
     }
 
-    // --- Database Initialization --- 
-
-    private void initializeDatabase() throws SQLException {
-        String sql = """
-            CREATE TABLE IF NOT EXISTS AdminRequests (
-                request_id INTEGER PRIMARY KEY AUTO_INCREMENT,
-                requester_username TEXT NOT NULL,
-                title TEXT NOT NULL,
-                description TEXT NOT NULL,
-                status TEXT NOT NULL DEFAULT 'open', -- 'open', 'closed'
-                creation_timestamp DATETIME DEFAULT CURRENT_TIMESTAMP,
-                last_update_timestamp DATETIME DEFAULT CURRENT_TIMESTAMP,
-                closed_timestamp DATETIME NULL, 
-                closed_by_username TEXT NULL,
-                admin_notes TEXT NULL,
-                reopened_from_id INTEGER NULL, -- Link to original request if this is a reopened one
-                has_been_reopened BOOLEAN DEFAULT FALSE, -- Flag if the original request was reopened
-                FOREIGN KEY (requester_username) REFERENCES cse360users(userName),
-                FOREIGN KEY (closed_by_username) REFERENCES cse360users(userName),
-                FOREIGN KEY (reopened_from_id) REFERENCES AdminRequests(request_id)
-            );
-            """;
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("DatabaseHelper4: AdminRequests table initialized or already exists.");
-        } catch (SQLException e) {
-            System.err.println("DatabaseHelper4: Error creating/checking AdminRequests table.");
-            throw e;
-        }
+    // Connections are borrowed per call from the shared pool, so this helper
+    // holds nothing open. Kept so existing callers need no changes.
+    public void closeConnection() {
     }
 
     // --- Request CRUD Operations --- 
@@ -98,7 +44,8 @@ public class DatabaseHelper4 {
         String sql = "INSERT INTO AdminRequests (requester_username, title, description, last_update_timestamp) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
         connectToDatabase(); // Ensure connection
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, requesterUsername);
             pstmt.setString(2, title);
             pstmt.setString(3, description);
@@ -131,7 +78,8 @@ public class DatabaseHelper4 {
         String sql = "SELECT * FROM AdminRequests WHERE request_id = ?";
         connectToDatabase();
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, requestId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -192,7 +140,8 @@ public class DatabaseHelper4 {
         connectToDatabase();
         List<Request> requests = new ArrayList<>();
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, status);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -209,7 +158,8 @@ public class DatabaseHelper4 {
     private List<Request> executeRequestQuery(String sql) throws SQLException {
         connectToDatabase();
         List<Request> requests = new ArrayList<>();
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 requests.add(mapResultSetToRequest(rs));
@@ -234,7 +184,8 @@ public class DatabaseHelper4 {
         String sql = "UPDATE AdminRequests SET status = 'closed', closed_by_username = ?, admin_notes = ?, closed_timestamp = CURRENT_TIMESTAMP, last_update_timestamp = CURRENT_TIMESTAMP WHERE request_id = ? AND status = 'open'";
         connectToDatabase();
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, adminUsername);
             pstmt.setString(2, adminNotes);
             pstmt.setInt(3, requestId);
@@ -259,6 +210,11 @@ public class DatabaseHelper4 {
      */
     public Request reopenRequest(int originalRequestId, String reopeningUsername, String updatedDescription) throws SQLException {
         connectToDatabase();
+        // The checks, the new request and the mark on the original commit together
+        return UnitOfWork.call(() -> reopen(originalRequestId, reopeningUsername, updatedDescription));
+    }
+
+    private Request reopen(int originalRequestId, String reopeningUsername, String updatedDescription) throws SQLException {
         Request originalRequest = getRequestById(originalRequestId);
 
         // Validation
@@ -282,7 +238,8 @@ public class DatabaseHelper4 {
         String newTitle = "[Reopened] " + originalRequest.getTitle();
         int newRequestId = -1;
 
-        try (PreparedStatement pstmtInsert = connection.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmtInsert = connection.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
             pstmtInsert.setString(1, reopeningUsername); // Could be original or reopening user
             pstmtInsert.setString(2, newTitle);
             pstmtInsert.setString(3, updatedDescription); // Use the new description
@@ -304,18 +261,18 @@ public class DatabaseHelper4 {
         }
 
         // 2. Update the original request to mark it as reopened
-        String updateSql = "UPDATE AdminRequests SET has_been_reopened = TRUE, last_update_timestamp = CURRENT_TIMESTAMP WHERE request_id = ?";
-        try (PreparedStatement pstmtUpdate = connection.prepareStatement(updateSql)) {
+        String updateSql = "UPDATE AdminRequests SET has_been_reopened = TRUE, last_update_timestamp = CURRENT_TIMESTAMP "
+                + "WHERE request_id = ? AND has_been_reopened = FALSE";
+        try (Connection connection = getConnection();
+             PreparedStatement pstmtUpdate = connection.prepareStatement(updateSql)) {
             pstmtUpdate.setInt(1, originalRequestId);
             int updateAffectedRows = pstmtUpdate.executeUpdate();
             if (updateAffectedRows == 0) {
-                 // This is unlikely if the first part succeeded, but good to check
-                 System.err.println("DatabaseHelper4: Failed to mark original request ID " + originalRequestId + " as reopened after creating new one.");
-                 // Consider rollback logic here if atomicity is critical
+                // Someone else reopened it since the check; throwing undoes the new request too
+                throw new SQLException("Request ID " + originalRequestId + " has already been reopened.");
             }
         } catch (SQLException e) {
             System.err.println("DatabaseHelper4: Error marking original request ID " + originalRequestId + " as reopened.");
-            // Consider rollback logic here
             throw e;
         }
 
@@ -348,7 +305,8 @@ public class DatabaseHelper4 {
         // }
 
         String sql = "UPDATE AdminRequests SET description = ?, last_update_timestamp = CURRENT_TIMESTAMP WHERE request_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, newDescription);
             pstmt.setInt(2, requestId);
             int affectedRows = pstmt.executeUpdate();
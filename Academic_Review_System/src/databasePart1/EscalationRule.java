@@ -0,0 +1,107 @@
+package databasePart1;
+
+/**
+ * EscalationRule says what happens to a student once they have received a
+ * given number of warnings. The {@link ModerationService} checks its rules
+ * after every warning, in the same transaction as the warning itself.
+ *
+ * <p> A {@link Action#BAN} rule bans the student whenever their count is at
+ * or above the threshold and they are not banned already, so a student who is
+ * unbanned and warned again is banned again. A {@link Action#NOTIFY} rule
+ * sends its message once, with the warning that reaches the threshold. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class EscalationRule {
+
+    /**
+     * What a rule does when it applies.
+     */
+    public enum Action {
+        /** Sends the student a notification. */
+        NOTIFY,
+        /** Bans the student and tells them why. */
+        BAN
+    }
+
+    private final int warnings;
+    private final Action action;
+    private final String message;
+
+    private EscalationRule(int warnings, Action action, String message) {
+        if (warnings < 1) {
+            throw new IllegalArgumentException("Warning threshold must be at least 1: " + warnings);
+        }
+        this.warnings = warnings;
+        this.action = action;
+        this.message = message;
+    }
+
+    /**
+     * Creates a rule that bans a student once they have the given number of warnings.
+     *
+     * @param warnings The number of warnings that leads to a ban
+     * @return The rule
+     */
+    public static EscalationRule banAt(int warnings) {
+        return new EscalationRule(warnings, Action.BAN,
+                "Automatic ban after receiving " + warnings + " system warnings for violating community guidelines.");
+    }
+
+    /**
+     * Creates a rule that sends a student a message with the warning that brings
+     * them to the given number of warnings, for example a final notice before a ban.
+     *
+     * @param warnings The number of warnings at which the message is sent
+     * @param message  The message text
+     * @return The rule
+     */
+    public static EscalationRule notifyAt(int warnings, String message) {
+        return new EscalationRule(warnings, Action.NOTIFY, message);
+    }
+
+    /**
+     * Decides whether the rule applies after a warning.
+     *
+     * @param previous      The student's warning count before the warning
+     * @param current       The count including the warning
+     * @param alreadyBanned Whether the student is banned at the moment
+     * @return true if the rule's action should be taken
+     */
+    boolean appliesTo(int previous, int current, boolean alreadyBanned) {
+        switch (action) {
+            case BAN:
+                return current >= warnings && !alreadyBanned;
+            case NOTIFY:
+            default:
+                return previous < warnings && current >= warnings;
+        }
+    }
+
+    public int getWarnings() {
+        return warnings;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the text of the rule: the notification for a NOTIFY rule, the
+     * recorded ban reason for a BAN rule.
+     *
+     * @return The message or ban reason
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return action + " at " + warnings + " warnings";
+    }
+}
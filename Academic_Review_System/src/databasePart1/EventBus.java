@@ -0,0 +1,111 @@
+package databasePart1;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * EventBus tells the open pages what the database helpers changed, so they can
+ * patch the rows they show instead of reloading them after every write, and
+ * learn about changes made from other windows at all.
+ *
+ * <p> Helpers call {@link #publish(ChangeEvent)} after a write; the event is
+ * delivered once the write is committed, and never if it rolls back, in the
+ * same way {@link UnitOfWork#afterCommit(Runnable)} defers cache updates.
+ * Listeners run on the thread that committed, so a listener that touches the
+ * user interface hands the work to the JavaFX Application Thread itself. A
+ * listener that throws is reported and does not stop the others. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class EventBus {
+    private static EventBus instance;
+
+    // Listeners by the event class they subscribed to; delivery walks up the event's class hierarchy
+    private final Map<Class<?>, List<Consumer<? super ChangeEvent>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Stops the deliveries of one subscription.
+     */
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+        /**
+         * Unsubscribes. Closing twice does nothing.
+         */
+        @Override
+        void close();
+    }
+
+    private EventBus() {
+    }
+
+    /**
+     * Returns the bus shared by the whole application.
+     *
+     * @return The shared event bus
+     */
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes to a kind of event and its subclasses.
+     *
+     * @param <E>      The event type
+     * @param type     The event class, for example {@code ChangeEvent.AnswerAdded.class}
+     * @param listener Receives each event on the thread that committed it
+     * @return The subscription, to close when the listener is no longer needed
+     */
+    public <E extends ChangeEvent> Subscription subscribe(Class<E> type, Consumer<? super E> listener) {
+        Consumer<? super ChangeEvent> delivery = event -> listener.accept(type.cast(event));
+        List<Consumer<? super ChangeEvent>> forType = listeners.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>());
+        forType.add(delivery);
+        return () -> forType.remove(delivery);
+    }
+
+    /**
+     * Delivers an event once the work done so far is committed: at once
+     * outside a unit of work, after the outermost commit inside one.
+     *
+     * @param event The change
+     */
+    public void publish(ChangeEvent event) {
+        UnitOfWork.afterCommit(() -> deliver(event));
+    }
+
+    /**
+     * Gets the number of listeners subscribed to exactly this event class.
+     *
+     * @param type The event class
+     * @return The number of open subscriptions
+     */
+    public int getListenerCount(Class<? extends ChangeEvent> type) {
+        List<Consumer<? super ChangeEvent>> forType = listeners.get(type);
+        return forType == null ? 0 : forType.size();
+    }
+
+    private void deliver(ChangeEvent event) {
+        for (Class<?> type = event.getClass(); type != Object.class; type = type.getSuperclass()) {
+            List<Consumer<? super ChangeEvent>> forType = listeners.get(type);
+            if (forType == null) {
+                continue;
+            }
+            for (Consumer<? super ChangeEvent> listener : forType) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
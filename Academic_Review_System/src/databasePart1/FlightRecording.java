@@ -0,0 +1,243 @@
+package databasePart1;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * FlightRecording defines the Java Flight Recorder events of the application
+ * and starts a recording of them when the application is launched with
+ * {@code --record}.
+ *
+ * <p> Every {@link UiAction} produces an {@link Action} event that lasts from
+ * the click until the data it loaded is shown, and an {@link ActionScope}
+ * event on the thread that began it, which on the JavaFX Application Thread is
+ * the time the window could not respond. Every statement produces a
+ * {@link DatabaseCall} event. The events carry the action's ID and its
+ * parent's ID, so a recording shows which statements each click caused. </p>
+ *
+ * <p> The events are also recorded by a recording started any other way, for
+ * example with {@code -XX:StartFlightRecording}; without a recording they cost
+ * next to nothing. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class FlightRecording {
+    /** File written when {@code --record} names none. */
+    public static final String DEFAULT_FILE = "academic-review.jfr";
+
+    private static final String CATEGORY = "Academic Review System";
+
+    private static Recording recording;
+
+    /**
+     * One statement executed through a pooled connection. Its duration is the
+     * time the database took to execute it.
+     */
+    @Name("ars.DatabaseCall")
+    @Label("Database Call")
+    @Category({CATEGORY, "Database"})
+    @StackTrace(false)
+    public static final class DatabaseCall extends Event {
+        @Label("Statement Shape")
+        @Description("The SQL with literals replaced by ?")
+        String shape;
+
+        @Label("Rows")
+        @Description("Rows read from the result, or rows changed by an update")
+        long rows;
+
+        @Label("Failed")
+        boolean failed;
+
+        @Label("Action ID")
+        @Description("ID of the UI action the statement ran for, 0 if none")
+        int actionId;
+
+        @Label("Action")
+        String action;
+    }
+
+    /**
+     * One UI action, from the click until the calls it handed to other
+     * threads have returned.
+     */
+    @Name("ars.UiAction")
+    @Label("UI Action")
+    @Category({CATEGORY, "User Interface"})
+    @StackTrace(false)
+    public static final class Action extends Event {
+        @Label("Action ID")
+        int actionId;
+
+        @Label("Parent ID")
+        @Description("ID of the action this one was begun inside of, 0 for a top-level action")
+        int parentId;
+
+        @Label("Name")
+        String name;
+
+        @Label("Started On")
+        Thread startThread;
+
+        @Label("Thread Blocked")
+        @Description("Time the thread that began the action spent inside it")
+        @Timespan(Timespan.NANOSECONDS)
+        long blocked;
+
+        @Label("Statements")
+        int statements;
+
+        @Label("Statement Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long statementTime;
+    }
+
+    /**
+     * The part of a UI action spent on the thread that began it.
+     */
+    @Name("ars.UiActionScope")
+    @Label("UI Action Scope")
+    @Category({CATEGORY, "User Interface"})
+    @StackTrace(false)
+    public static final class ActionScope extends Event {
+        @Label("Action ID")
+        int actionId;
+
+        @Label("Parent ID")
+        int parentId;
+
+        @Label("Name")
+        String name;
+    }
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts recording the application's events, with the JDK's default
+     * settings for everything else. The recording is written to the file when
+     * it is stopped or the application exits.
+     *
+     * @param destination The file to write
+     * @throws IOException if the file cannot be written or a recording is already running
+     */
+    public static synchronized void start(Path destination) throws IOException {
+        if (recording != null) {
+            throw new IOException("A recording is already running.");
+        }
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration("default");
+        } catch (ParseException e) {
+            throw new IOException("Cannot read the default recording settings.", e);
+        }
+        Recording started = new Recording(settings);
+        started.setName(CATEGORY);
+        started.enable(DatabaseCall.class);
+        started.enable(Action.class);
+        started.enable(ActionScope.class);
+        started.setDestination(destination);
+        started.setToDisk(true);
+        started.setDumpOnExit(true);
+        started.start();
+        recording = started;
+    }
+
+    /**
+     * Stops the recording started by {@link #start(Path)} and writes its file.
+     * Does nothing if no recording is running.
+     *
+     * @return The file written, or null if nothing was recording
+     */
+    public static synchronized Path stop() {
+        if (recording == null) {
+            return null;
+        }
+        Path destination = recording.getDestination();
+        recording.stop();
+        recording.close();
+        recording = null;
+        return destination;
+    }
+
+    /**
+     * Checks whether a recording started by {@link #start(Path)} is running.
+     *
+     * @return true while recording
+     */
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    // --- Event factories for UiAction and InstrumentedStatement ---
+
+    static DatabaseCall beginDatabaseCall() {
+        DatabaseCall event = new DatabaseCall();
+        event.begin();
+        return event;
+    }
+
+    static void commitDatabaseCall(DatabaseCall event, String sql, long rows, boolean failed, UiAction action) {
+        if (event.shouldCommit()) {
+            event.shape = QueryStats.shapeOf(sql);
+            event.rows = rows;
+            event.failed = failed;
+            if (action != null) {
+                event.actionId = action.getId();
+                event.action = action.getName();
+            }
+            event.commit();
+        }
+    }
+
+    static Action beginAction() {
+        Action event = new Action();
+        event.begin();
+        return event;
+    }
+
+    static void commitAction(Action event, UiAction action, Thread startThread) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.actionId = action.getId();
+            event.parentId = action.getParent() != null ? action.getParent().getId() : 0;
+            event.name = action.getName();
+            event.startThread = startThread;
+            event.blocked = action.getScopeNanos();
+            event.statements = action.getStatementCount();
+            event.statementTime = action.getStatementNanos();
+            event.commit();
+        }
+    }
+
+    static ActionScope beginActionScope() {
+        ActionScope event = new ActionScope();
+        event.begin();
+        return event;
+    }
+
+    static void commitActionScope(ActionScope event, UiAction action) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.actionId = action.getId();
+            event.parentId = action.getParent() != null ? action.getParent().getId() : 0;
+            event.name = action.getName();
+            event.commit();
+        }
+    }
+}
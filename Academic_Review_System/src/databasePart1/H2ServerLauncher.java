@@ -0,0 +1,139 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * H2ServerLauncher shares the application's database with other desktop
+ * clients by running an H2 TCP server inside this JVM. This process keeps
+ * using its embedded connection; the other clients set {@code db.url} to the
+ * URL returned by {@link #getClientUrl(String)}, and all of them read and
+ * write the same database at the same time.
+ *
+ * <p> The server can be started with the application by setting
+ * {@code server.enabled=true}, or on its own with {@link #main(String[])} on
+ * a machine that only hosts the database. H2 is on the classpath rather than
+ * the module path, so the server is created through reflection. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class H2ServerLauncher implements AutoCloseable {
+    private static final String SERVER_CLASS = "org.h2.tools.Server";
+
+    private final Object server;
+    private final String databaseName;
+
+    private H2ServerLauncher(Object server, String databaseName) {
+        this.server = server;
+        this.databaseName = databaseName;
+    }
+
+    /**
+     * Starts a TCP server on the configured port. The database should be
+     * opened, and so created, by this process first: H2 does not let remote
+     * clients create databases.
+     *
+     * @param config The configuration naming the port and whether other hosts may connect
+     * @return The running server
+     * @throws SQLException if the server cannot be started, for example because the port is taken
+     */
+    public static H2ServerLauncher start(DatabaseConfig config) throws SQLException {
+        List<String> args = new ArrayList<>();
+        args.add("-tcpPort");
+        args.add(String.valueOf(config.getServerPort()));
+        if (config.isServerAllowOthers()) {
+            args.add("-tcpAllowOthers");
+        }
+        try {
+            Class<?> serverClass = Class.forName(SERVER_CLASS);
+            Method create = serverClass.getMethod("createTcpServer", String[].class);
+            Object server = create.invoke(null, (Object) args.toArray(new String[0]));
+            serverClass.getMethod("start").invoke(server);
+            return new H2ServerLauncher(server, config.getDatabaseName());
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Could not start the H2 TCP server: " + cause, cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("The H2 TCP server is not available: " + e, e);
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The TCP port
+     */
+    public int getPort() {
+        return (Integer) call("getPort");
+    }
+
+    /**
+     * Checks whether the server is still accepting connections.
+     *
+     * @return true until the server is stopped
+     */
+    public boolean isRunning() {
+        try {
+            return (Boolean) server.getClass().getMethod("isRunning", boolean.class).invoke(server, false);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the URL other clients use to open the shared database.
+     *
+     * @param host The name or address of this machine as the clients see it
+     * @return The JDBC URL, for example {@code jdbc:h2:tcp://host:9092/~/FoundationDatabase}
+     */
+    public String getClientUrl(String host) {
+        return "jdbc:h2:tcp://" + host + ":" + getPort() + "/" + databaseName;
+    }
+
+    /**
+     * Stops the server, disconnecting the remote clients. This process's own
+     * connections are not affected.
+     */
+    @Override
+    public void close() {
+        call("stop");
+    }
+
+    private Object call(String method) {
+        try {
+            return server.getClass().getMethod(method).invoke(server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hosts the configured database for other clients without starting the
+     * user interface. Runs until the process is stopped.
+     *
+     * @param args Unused; settings come from {@link DatabaseConfig#load()}
+     * @throws Exception if the database cannot be opened or the server cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        DatabaseConfig config = DatabaseConfig.get();
+        // Create the database and bring its schema up to date before anyone connects
+        SchemaMigrations.ensureCurrent();
+        H2ServerLauncher launcher = start(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            launcher.close();
+            ConnectionPool.shutdown();
+        }));
+        System.out.println("Sharing " + config.getDatabaseName() + " at " + launcher.getClientUrl("localhost"));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,240 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * InstrumentedStatement times the statements handed out by the pool and
+ * reports each execution to {@link QueryStats}, together with the bind values
+ * set on it and the rows read from its result.
+ *
+ * <p> A query is recorded once its result has been read to the end or closed,
+ * or when the statement is executed again or closed, whichever comes first,
+ * so the row count is what the caller actually read. Its time is the time
+ * the database took to execute it, not the time the caller spent reading.
+ * Each execution is also a {@link FlightRecording.DatabaseCall} event. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+final class InstrumentedStatement implements InvocationHandler {
+    private static final Object[] NO_BINDS = {};
+
+    private final Statement statement;
+    private final String sql;
+    private final Connection owner;
+    private Statement proxy;
+    // Copied before the next change once an execution has kept a reference to it
+    private Object[] binds = NO_BINDS;
+    private boolean bindsShared = false;
+    private Execution open;
+
+    private InstrumentedStatement(Statement statement, String sql, Connection owner) {
+        this.statement = statement;
+        this.sql = sql;
+        this.owner = owner;
+    }
+
+    /**
+     * Wraps a statement so its executions are recorded.
+     *
+     * @param statement The statement to wrap
+     * @param sql       The SQL it was prepared with, or null for a plain statement
+     * @param owner     The connection the caller sees
+     * @return A statement of the same kind that records its executions
+     */
+    static Statement wrap(Statement statement, String sql, Connection owner) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        InstrumentedStatement handler = new InstrumentedStatement(statement, sql, owner);
+        handler.proxy = (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(), new Class<?>[] { type }, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "executeQuery":
+            case "execute":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(method, args);
+            case "close":
+                finishOpen();
+                break;
+            case "clearParameters":
+                binds = NO_BINDS;
+                bindsShared = false;
+                break;
+            case "getConnection":
+                return owner;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                // setInt(1, x), setString(2, s), setNull(3, type) and the like
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                        && method.getDeclaringClass() != Statement.class) {
+                    bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                }
+                break;
+        }
+        return delegate(method, args);
+    }
+
+    private Object delegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void bind(int index, Object value) {
+        if (bindsShared || index > binds.length) {
+            binds = Arrays.copyOf(binds, Math.max(binds.length, index));
+            bindsShared = false;
+        }
+        if (index >= 1) {
+            binds[index - 1] = value;
+        }
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        finishOpen();
+        String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+        UiAction action = UiAction.current();
+        bindsShared = true;
+        FlightRecording.DatabaseCall event = FlightRecording.beginDatabaseCall();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = delegate(method, args);
+        } catch (Throwable e) {
+            event.end();
+            record(text, binds, System.nanoTime() - start, 0, true, action, event);
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        event.end();
+
+        long rows = 0;
+        if (result instanceof ResultSet) {
+            open = new Execution(text, binds, nanos, action, event);
+            return open.wrap((ResultSet) result);
+        } else if (result instanceof Number) {
+            rows = ((Number) result).longValue();
+        } else if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+        } else if (Boolean.FALSE.equals(result)) {
+            rows = Math.max(0, statement.getUpdateCount());
+        }
+        record(text, binds, nanos, rows, false, action, event);
+        return result;
+    }
+
+    private static void record(String text, Object[] executedBinds, long nanos, long rows, boolean failed,
+                               UiAction action, FlightRecording.DatabaseCall event) {
+        QueryStats.getInstance().record(text, executedBinds, nanos, rows, failed, action);
+        FlightRecording.commitDatabaseCall(event, text, rows, failed, action);
+    }
+
+    private void finishOpen() {
+        if (open != null) {
+            open.finish();
+        }
+    }
+
+    /**
+     * One executed query whose result is still being read.
+     */
+    private class Execution implements InvocationHandler {
+        private final String text;
+        private final Object[] executedBinds;
+        private final long nanos;
+        private final UiAction action;
+        private final FlightRecording.DatabaseCall event;
+        private ResultSet resultSet;
+        private long rows = 0;
+        private boolean finished = false;
+
+        Execution(String text, Object[] executedBinds, long nanos, UiAction action,
+                  FlightRecording.DatabaseCall event) {
+            this.text = text;
+            this.executedBinds = executedBinds;
+            this.nanos = nanos;
+            this.action = action;
+            this.event = event;
+        }
+
+        ResultSet wrap(ResultSet resultSet) {
+            this.resultSet = resultSet;
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean more = resultSet.next();
+                    if (more) {
+                        rows++;
+                    } else {
+                        finish();
+                    }
+                    return more;
+                case "close":
+                    finish();
+                    break;
+                case "getStatement":
+                    return InstrumentedStatement.this.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                if (open == this) {
+                    open = null;
+                }
+                record(text, executedBinds, nanos, rows, false, action, event);
+            }
+        }
+    }
+}
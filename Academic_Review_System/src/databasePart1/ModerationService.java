@@ -0,0 +1,268 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import main.Feedback;
+import main.ModerationResult;
+
+/**
+ * ModerationService issues formal warnings and bans and keeps the moderation
+ * ledger, so the instructor and staff pages share one implementation of the
+ * "enough warnings means a ban" policy.
+ *
+ * <p> Every warning and ban is recorded in the {@code moderation_ledger} table,
+ * and each student's warning count is kept in {@code moderation_counters},
+ * incremented in place with the warning. Looking up a count is a primary key
+ * read instead of counting the student's messages. </p>
+ *
+ * <p> After each warning the {@link EscalationRule}s are checked against the new
+ * count, and any ban or notice they call for is applied in the same unit of
+ * work as the warning: either the warning, its ledger entry, the counter and
+ * the ban all commit, or none of them do. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class ModerationService {
+    /** Sender name of warning messages. */
+    public static final String WARNING_SENDER = "SYSTEM WARNING";
+    /** Sender name of ban and escalation notices. */
+    public static final String NOTIFICATION_SENDER = "SYSTEM NOTIFICATION";
+
+    /** The rules used unless others are given: a ban at the fourth warning. */
+    public static final List<EscalationRule> DEFAULT_RULES = List.of(EscalationRule.banAt(4));
+
+    // Ledger actions
+    static final String WARNING = "WARNING";
+    static final String BAN = "BAN";
+    static final String NOTIFY = "NOTIFY";
+
+    private final List<EscalationRule> rules;
+    private final DatabaseHelper2 messages = new DatabaseHelper2();
+    private final DatabaseHelper3 bans = new DatabaseHelper3();
+
+    /**
+     * Creates a service with the {@link #DEFAULT_RULES}.
+     */
+    public ModerationService() {
+        this(DEFAULT_RULES);
+    }
+
+    /**
+     * Creates a service with its own escalation rules.
+     *
+     * @param rules The rules checked after every warning, in order
+     */
+    public ModerationService(List<EscalationRule> rules) {
+        this.rules = List.copyOf(rules);
+    }
+
+    // Makes sure the database schema is current; the ledger tables are created
+    // by SchemaMigrations.
+    public void connectToDatabase() throws SQLException {
+        SchemaMigrations.ensureCurrent();
+    }
+
+    /**
+     * Gets the escalation rules this service applies.
+     *
+     * @return The rules, in the order they are checked
+     */
+    public List<EscalationRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Sends a student a formal warning, records it and applies the escalation
+     * rules, all in one transaction.
+     *
+     * @param student    The student being warned
+     * @param issuedBy   The instructor or staff member issuing the warning
+     * @param message    The warning text sent to the student's inbox
+     * @param questionId The question the warning is about
+     * @param answerId   The answer the warning is about, or null
+     * @return The student's new warning count and whether they were banned
+     * @throws SQLException if a database access error occurs; nothing is recorded then
+     */
+    public ModerationResult warn(String student, String issuedBy, String message,
+                                 int questionId, Integer answerId) throws SQLException {
+        return UnitOfWork.call(() -> {
+            Feedback warning = new Feedback(0, WARNING_SENDER, student, message, new Date(),
+                    questionId, answerId, null, null);
+            int feedbackId = messages.storeFeedback(warning);
+            record(student, WARNING, issuedBy, null, questionId, answerId, feedbackId);
+            int count = incrementWarnings(student);
+
+            boolean banned = false;
+            int notifications = 0;
+            boolean alreadyBanned = bans.isStudentBanned(student);
+            for (EscalationRule rule : rules) {
+                if (!rule.appliesTo(count - 1, count, alreadyBanned || banned)) {
+                    continue;
+                }
+                if (rule.getAction() == EscalationRule.Action.BAN) {
+                    applyBan(student, issuedBy, rule.getMessage(), autoBanMessage(count));
+                    banned = true;
+                } else {
+                    int noticeId = messages.storeFeedback(notice(student, rule.getMessage()));
+                    record(student, NOTIFY, issuedBy, rule.getMessage(), null, null, noticeId);
+                    notifications++;
+                }
+            }
+            return new ModerationResult(count, banned, notifications);
+        });
+    }
+
+    /**
+     * Bans a student by hand and sends them a notice, recording the ban in the
+     * ledger. The ban and the notice commit together.
+     *
+     * @param student      The student to ban
+     * @param bannedBy     The instructor or staff member issuing the ban
+     * @param reason       The reason stored with the ban
+     * @param notification The notice sent to the student's inbox
+     * @throws SQLException if a database access error occurs; the student is not banned then
+     */
+    public void ban(String student, String bannedBy, String reason, String notification) throws SQLException {
+        UnitOfWork.run(() -> applyBan(student, bannedBy, reason, notification));
+    }
+
+    /**
+     * Gets the number of warnings a student has received.
+     *
+     * @param student The student's username
+     * @return The warning count, 0 for a student who was never warned
+     * @throws SQLException if a database access error occurs
+     */
+    public int getWarningCount(String student) throws SQLException {
+        String sql = "SELECT warnings FROM moderation_counters WHERE student = ?";
+        try (Connection connection = UnitOfWork.connection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, student);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Gets a student's moderation history, oldest first.
+     *
+     * @param student The student's username
+     * @return One map per ledger entry with the keys entryId, action, issuedBy,
+     *         reason, questionId, answerId, feedbackId and createdAt
+     * @throws SQLException if a database access error occurs
+     */
+    public List<Map<String, Object>> getLedger(String student) throws SQLException {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        String sql = "SELECT * FROM moderation_ledger WHERE student = ? ORDER BY entry_id";
+        try (Connection connection = UnitOfWork.connection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, student);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, Object> entry = new HashMap<>();
+                    entry.put("entryId", rs.getInt("entry_id"));
+                    entry.put("action", rs.getString("action"));
+                    entry.put("issuedBy", rs.getString("issued_by"));
+                    entry.put("reason", rs.getString("reason"));
+                    entry.put("questionId", (Integer) rs.getObject("question_id"));
+                    entry.put("answerId", (Integer) rs.getObject("answer_id"));
+                    entry.put("feedbackId", (Integer) rs.getObject("feedback_id"));
+                    entry.put("createdAt", rs.getTimestamp("created_at"));
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void applyBan(String student, String bannedBy, String reason, String notification) throws SQLException {
+        bans.banStudent(student, bannedBy, reason);
+        int noticeId = messages.storeFeedback(notice(student, notification));
+        record(student, BAN, bannedBy, reason, null, null, noticeId);
+    }
+
+    // Adds one to the student's counter and returns the new count. The row stays
+    // locked until the unit commits, so concurrent warnings are counted one by one.
+    private int incrementWarnings(String student) throws SQLException {
+        String update = "UPDATE moderation_counters SET warnings = warnings + 1, "
+                + "last_warning_at = CURRENT_TIMESTAMP WHERE student = ?";
+        String insert = "INSERT INTO moderation_counters (student, warnings, last_warning_at) "
+                + "VALUES (?, 1, CURRENT_TIMESTAMP)";
+        try (Connection connection = UnitOfWork.connection()) {
+            if (execute(connection, update, student) == 0) {
+                try {
+                    execute(connection, insert, student);
+                } catch (SQLException e) {
+                    if (!"23505".equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    // Another warning created the counter first
+                    execute(connection, update, student);
+                }
+            }
+        }
+        return getWarningCount(student);
+    }
+
+    private static int execute(Connection connection, String sql, String student) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, student);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private void record(String student, String action, String issuedBy, String reason,
+                        Integer questionId, Integer answerId, int feedbackId) throws SQLException {
+        String sql = "INSERT INTO moderation_ledger (student, action, issued_by, reason, question_id, answer_id, feedback_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = UnitOfWork.connection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, student);
+            pstmt.setString(2, action);
+            pstmt.setString(3, issuedBy);
+            pstmt.setString(4, reason);
+            setNullableInt(pstmt, 5, questionId);
+            setNullableInt(pstmt, 6, answerId);
+            pstmt.setInt(7, feedbackId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void setNullableInt(PreparedStatement pstmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            pstmt.setInt(index, value);
+        } else {
+            pstmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static Feedback notice(String student, String content) {
+        return new Feedback(0, NOTIFICATION_SENDER, student, content, new Date(),
+                0,     // No specific question reference
+                null, null, null);
+    }
+
+    private static String autoBanMessage(int warningCount) {
+        return String.format(
+            "ACCOUNT BANNED\n\n" +
+            "Your account has been automatically banned after receiving %d warnings for violating community guidelines.\n\n" +
+            "You can still access the system to view content and messages, but most interactive features have been disabled.\n\n" +
+            "If you believe this action was taken in error, please contact the administration.",
+            warningCount
+        );
+    }
+}
@@ -0,0 +1,429 @@
+package databasePart1;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * QueryStats records every statement the helpers run through a pooled
+ * connection: per statement shape the number of executions, failures and rows,
+ * and a latency histogram, plus a log of slow statements with their bind
+ * values.
+ *
+ * <p> The shape of a statement is its SQL with the whitespace collapsed and
+ * every literal replaced by {@code ?}, so statements built by concatenating
+ * values count together with the prepared form of the same query, and an
+ * {@code IN} list counts the same whatever its length. </p>
+ *
+ * <p> It also watches for N+1 query patterns: when one {@link UiAction} runs
+ * the same shape more often than the configured threshold, typically once per
+ * row of a table, a warning is logged together with the action's name. </p>
+ *
+ * <p> The slow statement threshold and the N+1 threshold come from
+ * {@link DatabaseConfig}; 0 switches either check off. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class QueryStats {
+    // Default thresholds
+    public static final long DEFAULT_SLOW_MILLIS = 200;
+    public static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 10;
+    /** Slow statements, N+1 warnings and finished actions kept for inspection. */
+    public static final int RECENT_LIMIT = 100;
+
+    // Shapes tracked before new ones are counted together
+    private static final int MAX_SHAPES = 1_000;
+    private static final String OTHER_SHAPE = "(other statements)";
+    // SQL texts whose shape is remembered, so repeated SQL is normalized once
+    private static final int SHAPE_MEMO_SIZE = 4_096;
+    private static final int MAX_BIND_LENGTH = 100;
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?: ?, ?\\?)+\\)");
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    private static QueryStats instance;
+
+    private final ConcurrentHashMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final Deque<NPlusOne> nPlusOneWarnings = new ArrayDeque<>();
+    private final Deque<UiAction> recentActions = new ArrayDeque<>();
+    private volatile long slowNanos;
+    private volatile int nPlusOneThreshold;
+
+    /**
+     * The counters of one statement shape.
+     */
+    public static final class ShapeStats {
+        private final String shape;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        ShapeStats(String shape) {
+            this.shape = shape;
+        }
+
+        public String getShape() { return shape; }
+        public long getExecutions() { return executions.sum(); }
+        public long getErrors() { return errors.sum(); }
+        public long getRows() { return rows.sum(); }
+        public LatencyHistogram getLatency() { return latency; }
+    }
+
+    /**
+     * One statement that took longer than the slow statement threshold.
+     */
+    public static final class SlowQuery {
+        private final String sql;
+        private final String binds;
+        private final long micros;
+        private final long rows;
+        private final String action;
+        private final long atMillis = System.currentTimeMillis();
+
+        SlowQuery(String sql, String binds, long micros, long rows, String action) {
+            this.sql = sql;
+            this.binds = binds;
+            this.micros = micros;
+            this.rows = rows;
+            this.action = action;
+        }
+
+        public String getSql() { return sql; }
+        public String getBinds() { return binds; }
+        public long getMicros() { return micros; }
+        public long getRows() { return rows; }
+        public String getAction() { return action; }
+        public long getAtMillis() { return atMillis; }
+
+        @Override
+        public String toString() {
+            return (micros / 1_000) + " ms, " + rows + " rows" + (action != null ? " in \"" + action + "\"" : "")
+                    + ": " + sql + (binds.isEmpty() ? "" : " with " + binds);
+        }
+    }
+
+    /**
+     * One statement shape that a single action ran more often than the N+1 threshold.
+     */
+    public static final class NPlusOne {
+        private final String action;
+        private final String shape;
+        private final int executions;
+        private final long atMillis = System.currentTimeMillis();
+
+        NPlusOne(String action, String shape, int executions) {
+            this.action = action;
+            this.shape = shape;
+            this.executions = executions;
+        }
+
+        public String getAction() { return action; }
+        public String getShape() { return shape; }
+        public int getExecutions() { return executions; }
+        public long getAtMillis() { return atMillis; }
+
+        @Override
+        public String toString() {
+            return "\"" + action + "\" ran " + executions + " times: " + shape;
+        }
+    }
+
+    private QueryStats(long slowMillis, int nPlusOneThreshold) {
+        setSlowQueryMillis(slowMillis);
+        setNPlusOneThreshold(nPlusOneThreshold);
+    }
+
+    /**
+     * Returns the statistics shared by the whole application, with the
+     * thresholds of {@link DatabaseConfig#get()}.
+     *
+     * @return The shared statistics
+     */
+    public static synchronized QueryStats getInstance() {
+        if (instance == null) {
+            DatabaseConfig config = DatabaseConfig.get();
+            instance = new QueryStats(config.getSlowQueryMillis(), config.getNPlusOneThreshold());
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the shape of a statement: the SQL with whitespace collapsed, string
+     * and number literals replaced by {@code ?} and {@code IN} lists shortened
+     * to {@code IN (?...)}.
+     *
+     * @param sql The SQL text
+     * @return The shape, for example {@code SELECT * FROM Questions WHERE questionId = ?}
+     */
+    public static String shapeOf(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = SHAPES.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (SHAPES.size() < SHAPE_MEMO_SIZE) {
+                SHAPES.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private static String normalize(String sql) {
+        StringBuilder shape = new StringBuilder(sql.length());
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // A string literal; '' is an escaped quote inside it
+                i++;
+                while (i < n && (sql.charAt(i) != '\'' || (i + 1 < n && sql.charAt(i + 1) == '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                i++;
+                shape.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (shape.length() > 0 && i < n) {
+                    shape.append(' ');
+                }
+            } else if (isWordChar(c)) {
+                int start = i;
+                while (i < n && (isWordChar(sql.charAt(i)) || (Character.isDigit(c) && sql.charAt(i) == '.'))) {
+                    i++;
+                }
+                // A word starting with a digit is a number; identifiers keep their digits
+                if (Character.isDigit(c)) {
+                    shape.append('?');
+                } else {
+                    shape.append(sql, start, i);
+                }
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        return IN_LIST.matcher(shape).replaceAll("IN (?...)");
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Records one executed statement.
+     *
+     * @param sql    The SQL text
+     * @param binds  The bind values by parameter index starting at 0, or an empty array
+     * @param nanos  How long the statement took to execute
+     * @param rows   Rows read from its result, or rows changed by an update
+     * @param failed Whether the statement threw
+     * @param action The action it ran for, or null
+     */
+    void record(String sql, Object[] binds, long nanos, long rows, boolean failed, UiAction action) {
+        String shape = shapeOf(sql);
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null) {
+            stats = shapes.size() < MAX_SHAPES
+                    ? shapes.computeIfAbsent(shape, ShapeStats::new)
+                    : shapes.computeIfAbsent(OTHER_SHAPE, ShapeStats::new);
+        }
+        stats.executions.increment();
+        if (failed) {
+            stats.errors.increment();
+        }
+        stats.rows.add(rows);
+        stats.latency.record(nanos);
+        if (action != null) {
+            action.countStatement(shape, nanos);
+        }
+
+        long slow = slowNanos;
+        if (slow > 0 && nanos >= slow) {
+            SlowQuery query = new SlowQuery(sql.strip(), formatBinds(binds), nanos / 1_000, rows,
+                    action != null ? action.getName() : null);
+            keep(slowQueries, query);
+            System.err.println("QueryStats: Slow statement, " + query);
+        }
+    }
+
+    // Called by an action once it and the calls it handed off have finished
+    void finished(UiAction action) {
+        keep(recentActions, action);
+        int threshold = nPlusOneThreshold;
+        // Nested actions are counted in their outermost action, which is checked once
+        if (threshold <= 0 || action.getParent() != null) {
+            return;
+        }
+        action.getStatementCounts().forEach((shape, executions) -> {
+            if (executions > threshold) {
+                NPlusOne warning = new NPlusOne(action.getName(), shape, executions);
+                keep(nPlusOneWarnings, warning);
+                System.err.println("QueryStats: Possible N+1 query, " + warning);
+            }
+        });
+    }
+
+    private static <T> void keep(Deque<T> recent, T entry) {
+        synchronized (recent) {
+            recent.addFirst(entry);
+            if (recent.size() > RECENT_LIMIT) {
+                recent.removeLast();
+            }
+        }
+    }
+
+    private static <T> List<T> copy(Deque<T> recent) {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    private static String formatBinds(Object[] binds) {
+        if (binds.length == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < binds.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            Object value = binds[i];
+            if (value == null) {
+                text.append("NULL");
+            } else if (value instanceof byte[]) {
+                text.append('<').append(((byte[]) value).length).append(" bytes>");
+            } else if (value instanceof CharSequence || value instanceof java.util.Date) {
+                String string = value.toString();
+                if (string.length() > MAX_BIND_LENGTH) {
+                    string = string.substring(0, MAX_BIND_LENGTH) + "...";
+                }
+                text.append('\'').append(string).append('\'');
+            } else {
+                text.append(value);
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    // --- Statistics ---
+
+    /**
+     * Gets the counters of every statement shape seen so far.
+     *
+     * @return The shapes, the one with the most total execution time first
+     */
+    public List<ShapeStats> getShapes() {
+        List<ShapeStats> all = new ArrayList<>(shapes.values());
+        all.sort(Comparator.comparingLong((ShapeStats stats) -> stats.getLatency().getTotalMicros()).reversed());
+        return all;
+    }
+
+    /**
+     * Gets the counters of the shape of a statement.
+     *
+     * @param sql The SQL text or its shape
+     * @return Its counters, or null if it has not run
+     */
+    public ShapeStats getShape(String sql) {
+        return shapes.get(shapeOf(sql));
+    }
+
+    /**
+     * Gets the total number of statements executed.
+     *
+     * @return The execution count over all shapes
+     */
+    public long getTotalExecutions() {
+        long total = 0;
+        for (ShapeStats stats : shapes.values()) {
+            total += stats.getExecutions();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the most recent slow statements.
+     *
+     * @return Up to {@value #RECENT_LIMIT} statements, newest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        return copy(slowQueries);
+    }
+
+    /**
+     * Gets the most recent N+1 warnings.
+     *
+     * @return Up to {@value #RECENT_LIMIT} warnings, newest first
+     */
+    public List<NPlusOne> getNPlusOneWarnings() {
+        return copy(nPlusOneWarnings);
+    }
+
+    /**
+     * Gets the most recently finished actions, nested ones included.
+     *
+     * @return Up to {@value #RECENT_LIMIT} actions, the last to finish first
+     */
+    public List<UiAction> getRecentActions() {
+        return copy(recentActions);
+    }
+
+    /**
+     * Forgets every counter, slow statement, warning and finished action.
+     */
+    public void reset() {
+        shapes.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        synchronized (nPlusOneWarnings) {
+            nPlusOneWarnings.clear();
+        }
+        synchronized (recentActions) {
+            recentActions.clear();
+        }
+    }
+
+    /**
+     * Sets how long a statement may take before it is logged as slow.
+     *
+     * @param millis The threshold in milliseconds (0 disables the log)
+     */
+    public void setSlowQueryMillis(long millis) {
+        slowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    public long getSlowQueryMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowNanos);
+    }
+
+    /**
+     * Sets how often one action may run the same statement shape before it is
+     * reported as a possible N+1 query.
+     *
+     * @param threshold The most executions allowed per action (0 disables the check)
+     */
+    public void setNPlusOneThreshold(int threshold) {
+        nPlusOneThreshold = Math.max(0, threshold);
+    }
+
+    public int getNPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+}
@@ -0,0 +1,367 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import main.QuestionRow;
+import main.SearchHit;
+
+/**
+ * QuestionQuery describes which questions a list shows and in what order:
+ * resolved or unresolved, author, search keywords, a date range, whether the
+ * question follows up on another one, and oldest or newest first. The criteria
+ * combine freely and are turned into one parameterized query, so changing a
+ * filter costs one query for one page instead of loading every question and
+ * filtering it in Java.
+ *
+ * <p> A QuestionQuery is immutable; every method that sets a criterion returns
+ * a new query, so a list can keep its current query and derive the next one
+ * from it. </p>
+ *
+ * <p> Rows are always listed in (timestamp, questionId) order, which the
+ * pagination indexes serve directly. Keywords are matched by the full-text
+ * {@link SearchIndex}, which narrows the query to the matching question IDs.
+ * A query searches the index once and keeps the IDs for its pages and for the
+ * rows a sync checks, until the index changes. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class QuestionQuery {
+    private static final QuestionQuery ALL = new QuestionQuery();
+
+    private Boolean answered;
+    private String author;
+    private String keyword;
+    private Date from;
+    private Date to;
+    private Boolean hasReference;
+    private boolean newestFirst;
+    private int limit = DatabaseHelper2.DEFAULT_PAGE_SIZE;
+    // Not copied: derived from the keyword and replaced once the index changes
+    private volatile KeywordMatches keywordMatches;
+
+    /**
+     * The question IDs a keyword matched in one generation of the index.
+     */
+    private static final class KeywordMatches {
+        final long generation;
+        final Set<Integer> ids;
+        final Integer[] array;
+
+        KeywordMatches(long generation, List<Integer> ids) {
+            this.generation = generation;
+            this.ids = new HashSet<>(ids);
+            this.array = ids.toArray(new Integer[0]);
+        }
+    }
+
+    private QuestionQuery() {
+    }
+
+    private QuestionQuery copy() {
+        QuestionQuery query = new QuestionQuery();
+        query.answered = answered;
+        query.author = author;
+        query.keyword = keyword;
+        query.from = from;
+        query.to = to;
+        query.hasReference = hasReference;
+        query.newestFirst = newestFirst;
+        query.limit = limit;
+        return query;
+    }
+
+    /**
+     * Gets the query for every question, oldest first, one default page at a time.
+     *
+     * @return The unfiltered query
+     */
+    public static QuestionQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Filters on whether the question is resolved.
+     *
+     * @param answered true for resolved questions, false for unresolved ones, null for both
+     * @return The new query
+     */
+    public QuestionQuery answered(Boolean answered) {
+        QuestionQuery query = copy();
+        query.answered = answered;
+        return query;
+    }
+
+    /**
+     * Filters on the author's username, which must contain the given text, ignoring case.
+     *
+     * @param author Part of the username, or null or blank for any author
+     * @return The new query
+     */
+    public QuestionQuery author(String author) {
+        QuestionQuery query = copy();
+        query.author = author == null || author.isBlank() ? null : author.trim();
+        return query;
+    }
+
+    /**
+     * Filters on search keywords, with the same syntax as the full-text search:
+     * words are all required unless separated by OR, quotes match a phrase.
+     *
+     * @param keyword The search query, or null or blank for no keyword filter
+     * @return The new query
+     */
+    public QuestionQuery keyword(String keyword) {
+        QuestionQuery query = copy();
+        query.keyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        return query;
+    }
+
+    /**
+     * Filters on when the question was posted.
+     *
+     * @param from Earliest timestamp, inclusive, or null for no lower bound
+     * @param to   Latest timestamp, exclusive, or null for no upper bound
+     * @return The new query
+     */
+    public QuestionQuery postedBetween(Date from, Date to) {
+        QuestionQuery query = copy();
+        query.from = from == null ? null : new Date(from.getTime());
+        query.to = to == null ? null : new Date(to.getTime());
+        return query;
+    }
+
+    /**
+     * Filters on whether the question follows up on another question.
+     *
+     * @param hasReference true for follow-ups only, false for questions without a reference, null for both
+     * @return The new query
+     */
+    public QuestionQuery hasReference(Boolean hasReference) {
+        QuestionQuery query = copy();
+        query.hasReference = hasReference;
+        return query;
+    }
+
+    /**
+     * Sets the order of the list.
+     *
+     * @param newestFirst true to list the newest questions first, false for the oldest first
+     * @return The new query
+     */
+    public QuestionQuery newestFirst(boolean newestFirst) {
+        QuestionQuery query = copy();
+        query.newestFirst = newestFirst;
+        return query;
+    }
+
+    /**
+     * Sets the maximum number of rows fetched at a time.
+     *
+     * @param limit The page size, at least 1
+     * @return The new query
+     */
+    public QuestionQuery limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1: " + limit);
+        }
+        QuestionQuery query = copy();
+        query.limit = limit;
+        return query;
+    }
+
+    /**
+     * Gets the resolved filter.
+     *
+     * @return true or false for resolved or unresolved questions only, null for both
+     */
+    public Boolean getAnswered() {
+        return answered;
+    }
+
+    /**
+     * Gets the author filter.
+     *
+     * @return The text the username must contain, or null for any author
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Gets the keyword filter.
+     *
+     * @return The search query, or null for no keyword filter
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Gets the start of the date range.
+     *
+     * @return The earliest timestamp, inclusive, or null for no lower bound
+     */
+    public Date getFrom() {
+        return from == null ? null : new Date(from.getTime());
+    }
+
+    /**
+     * Gets the end of the date range.
+     *
+     * @return The latest timestamp, exclusive, or null for no upper bound
+     */
+    public Date getTo() {
+        return to == null ? null : new Date(to.getTime());
+    }
+
+    /**
+     * Gets the follow-up filter.
+     *
+     * @return true or false for questions with or without a reference, null for both
+     */
+    public Boolean getHasReference() {
+        return hasReference;
+    }
+
+    /**
+     * Checks the order of the list.
+     *
+     * @return true if the newest questions come first
+     */
+    public boolean isNewestFirst() {
+        return newestFirst;
+    }
+
+    /**
+     * Gets the maximum number of rows fetched at a time.
+     *
+     * @return The page size
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Checks whether a row satisfies the criteria, for rows that changed after
+     * the list was loaded.
+     *
+     * @param row The question row
+     * @return true if the query would return the row
+     */
+    public boolean matches(QuestionRow row) {
+        if (answered != null && row.isAnswered() != answered) {
+            return false;
+        }
+        if (author != null && (row.getAuthor() == null
+                || !row.getAuthor().toLowerCase(Locale.ROOT).contains(author.toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        long time = row.getTimestamp() == null ? Long.MIN_VALUE : row.getTimestamp().getTime();
+        if ((from != null && time < from.getTime()) || (to != null && time >= to.getTime())) {
+            return false;
+        }
+        if (hasReference != null && (row.getReferenceQuestionId() != null) != hasReference) {
+            return false;
+        }
+        return keyword == null || keywordMatches().ids.contains(row.getQuestionId());
+    }
+
+    /**
+     * Builds the WHERE clause over {@code Questions q}, adding its parameters.
+     *
+     * @param params Receives the parameter values in order
+     * @return The WHERE clause with a trailing space, or an empty string
+     * @throws SQLException if the search index cannot be built
+     */
+    String where(List<Object> params) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        if (answered != null) {
+            conditions.add("q.answered = ?");
+            params.add(answered);
+        }
+        if (author != null) {
+            conditions.add("LOWER(q.author) LIKE ?");
+            params.add("%" + author.toLowerCase(Locale.ROOT) + "%");
+        }
+        if (from != null) {
+            conditions.add("q.timestamp >= ?");
+            params.add(new Timestamp(from.getTime()));
+        }
+        if (to != null) {
+            conditions.add("q.timestamp < ?");
+            params.add(new Timestamp(to.getTime()));
+        }
+        if (hasReference != null) {
+            conditions.add(hasReference ? "q.referenceQuestionId IS NOT NULL" : "q.referenceQuestionId IS NULL");
+        }
+        if (keyword != null) {
+            SearchIndex.getInstance().ensureBuilt();
+            Integer[] ids = keywordMatches().array;
+            if (ids.length == 0) {
+                conditions.add("1 = 0");
+            } else {
+                conditions.add("q.questionId = ANY(?)");
+                params.add(ids);
+            }
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+    }
+
+    /**
+     * Builds the ORDER BY clause, without the LIMIT.
+     *
+     * @return The ORDER BY clause
+     */
+    String orderBy() {
+        String direction = newestFirst ? " DESC" : "";
+        // Sorting on the constant answered column as well lets H2 read the status index in order
+        return "ORDER BY " + (answered != null ? "q.answered, " : "")
+                + "q.timestamp" + direction + ", q.questionId" + direction;
+    }
+
+    private KeywordMatches keywordMatches() {
+        SearchIndex index = SearchIndex.getInstance();
+        // Read before searching, so a change during the search makes the next call search again
+        long generation = index.getGeneration();
+        KeywordMatches matches = keywordMatches;
+        if (matches == null || matches.generation != generation) {
+            matches = new KeywordMatches(generation, index.searchIds(keyword, SearchHit.Type.QUESTION, 0));
+            keywordMatches = matches;
+        }
+        return matches;
+    }
+
+    @Override
+    public String toString() {
+        List<String> criteria = new ArrayList<>();
+        if (answered != null) {
+            criteria.add("answered=" + answered);
+        }
+        if (author != null) {
+            criteria.add("author~" + author);
+        }
+        if (keyword != null) {
+            criteria.add("keyword=" + keyword);
+        }
+        if (from != null || to != null) {
+            criteria.add("posted=[" + (from == null ? "" : from.getTime()) + ", " + (to == null ? "" : to.getTime()) + ")");
+        }
+        if (hasReference != null) {
+            criteria.add("hasReference=" + hasReference);
+        }
+        criteria.add(newestFirst ? "newest first" : "oldest first");
+        criteria.add("limit=" + limit);
+        return "QuestionQuery" + criteria;
+    }
+}
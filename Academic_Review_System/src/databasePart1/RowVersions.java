@@ -0,0 +1,154 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RowVersions keeps the change tracking behind delta synchronization.
+ *
+ * <p> Every insert or update of a question or answer stamps the row with the
+ * next value of the {@code row_version_seq} sequence (the columns default to
+ * it on insert and on update). A delete leaves a tombstone carrying a version
+ * of its own. A client that remembers the highest version it has seen can ask
+ * for exactly the rows changed or deleted after it. </p>
+ *
+ * <p> Versions are handed out when a row is written, not when the write
+ * commits, so a transaction can commit a version lower than one another
+ * session has already synced past. Every write that takes versions therefore
+ * runs in a {@link UnitOfWork} and calls {@link #reserve()} first, which
+ * holds {@link #current(Connection)} below any version the unit may take
+ * until it ends. A sync started meanwhile hands out an older version and the
+ * next sync returns some rows again, which is harmless because applying a
+ * change twice leaves the same result. The holds live in this process, so
+ * when other processes share the database ({@link DatabaseConfig#isShared()})
+ * the lists reload instead of syncing. </p>
+ *
+ * <p> A question row in the dashboards also shows its answer, unread and
+ * review counts, so changes to those "touch" the question: its version is
+ * bumped while its content and last_modified stay as they are. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+final class RowVersions {
+    /** Tombstone table name for deleted questions. */
+    static final String QUESTIONS = "Questions";
+    /** Tombstone table name for deleted answers. */
+    static final String ANSWERS = "Answers";
+
+    // The lowest version each unit still running after reserve() may hold back, by a key of its own
+    private static final Map<Object, Long> IN_FLIGHT = new ConcurrentHashMap<>();
+    // The highest version read from the sequence so far; versions handed out later are higher
+    private static final AtomicLong LATEST_SEEN = new AtomicLong();
+
+    private RowVersions() {
+    }
+
+    /**
+     * Gets the version a sync is complete up to: every change with a higher
+     * version, and every change still being written, is returned by a later
+     * sync. It is the highest version handed out so far unless a unit that
+     * called {@link #reserve()} is still running, in which case it stays
+     * below anything that unit may have written.
+     *
+     * @param connection The connection to read the sequence on
+     * @return The version to sync from, 0 if nothing has been versioned yet
+     * @throws SQLException if a database access error occurs
+     */
+    static long current(Connection connection) throws SQLException {
+        long latest = latest(connection);
+        // Read the sequence before the holds: a unit that reserves after this takes higher versions
+        for (long floor : IN_FLIGHT.values()) {
+            latest = Math.min(latest, floor);
+        }
+        return latest;
+    }
+
+    /**
+     * Gets the highest version handed out so far by any session, whether or
+     * not the write that took it has committed.
+     *
+     * @param connection The connection to read the sequence on
+     * @return The highest version, 0 if nothing has been versioned yet
+     * @throws SQLException if a database access error occurs
+     */
+    static long latest(Connection connection) throws SQLException {
+        String query = "SELECT BASE_VALUE - INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME = 'ROW_VERSION_SEQ'";
+        long latest;
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            ResultSet rs = pstmt.executeQuery();
+            latest = rs.next() ? Math.max(0, rs.getLong(1)) : 0;
+        }
+        LATEST_SEEN.accumulateAndGet(latest, Math::max);
+        return latest;
+    }
+
+    /**
+     * Keeps syncs from passing the versions the unit running on this thread is
+     * about to take, until it commits or rolls back. Call it before the first
+     * statement that inserts, updates or deletes a versioned row.
+     *
+     * @throws IllegalStateException if no unit of work is running, since a write
+     *         that commits on its own could not be held back until it commits
+     */
+    static void reserve() {
+        if (!UnitOfWork.isActive()) {
+            throw new IllegalStateException("Row versions must be taken inside a unit of work.");
+        }
+        Object key = new Object();
+        // Any version read so far is below the versions the unit takes from now on
+        IN_FLIGHT.put(key, LATEST_SEEN.get());
+        UnitOfWork.whenDone(() -> IN_FLIGHT.remove(key));
+    }
+
+    /**
+     * Bumps a question's version without changing its content or last_modified.
+     *
+     * @param connection The connection of the change that affects the question
+     * @param questionId The ID of the question
+     * @throws SQLException if a database access error occurs
+     */
+    static void touchQuestion(Connection connection, int questionId) throws SQLException {
+        reserve();
+        String query = "UPDATE Questions SET row_version = NEXT VALUE FOR row_version_seq, "
+                + "last_modified = last_modified WHERE questionId = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setInt(1, questionId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Records that a row was deleted.
+     *
+     * @param connection The connection of the delete, so the tombstone commits with it
+     * @param table      {@link #QUESTIONS} or {@link #ANSWERS}
+     * @param rowId      The ID of the deleted row
+     * @param parentId   The question of a deleted answer, or null
+     * @throws SQLException if a database access error occurs
+     */
+    static void recordDeletion(Connection connection, String table, int rowId, Integer parentId) throws SQLException {
+        reserve();
+        String query = "MERGE INTO row_tombstones (table_name, row_id, parent_id, row_version, deleted_at) "
+                + "KEY (table_name, row_id) VALUES (?, ?, ?, NEXT VALUE FOR row_version_seq, CURRENT_TIMESTAMP)";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, table);
+            pstmt.setInt(2, rowId);
+            if (parentId != null) {
+                pstmt.setInt(3, parentId);
+            } else {
+                pstmt.setNull(3, java.sql.Types.INTEGER);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+}
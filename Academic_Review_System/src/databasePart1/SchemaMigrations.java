@@ -0,0 +1,622 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import javax.sql.DataSource;
+
+/**
+ * SchemaMigrations owns the database schema. Every table and index is created
+ * by an ordered, numbered migration, and the {@code schema_version} table
+ * records which migrations have been applied together with a checksum of
+ * their SQL.
+ *
+ * <p> At startup {@link #ensureCurrent()} reads {@code schema_version} once; when
+ * the schema is already current no DDL runs at all. Pending migrations are
+ * applied in version order. A migration whose SQL was changed after it was
+ * applied is reported as an error instead of silently diverging. </p>
+ *
+ * <p> Several clients may open a shared database at once, so pending
+ * migrations are applied while holding a lock on a row of
+ * {@code schema_version} (version 0), and the applied versions are read again
+ * once the lock is held. Each migration runs in a transaction together with
+ * its {@code schema_version} row; H2 commits DDL as it goes, so a migration
+ * that fails after its DDL must leave the database in a state it can run
+ * again over, and backfills skip the rows they already wrote. </p>
+ *
+ * <p> To change the schema, append a new migration to {@link #MIGRATIONS};
+ * never edit one that has already shipped, except to make it safe to run
+ * again without changing what it produces, recording its earlier checksum
+ * with {@link Migration#rewrittenFrom}. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class SchemaMigrations {
+
+    /**
+     * Maximum length of the last message preview kept in conversation_summary.
+     */
+    public static final int CONVERSATION_SNIPPET_LENGTH = 100;
+
+    /**
+     * One numbered schema change.
+     */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+        private long[] previousChecksums = {};
+
+        public Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+
+        /**
+         * Accepts databases where an earlier form of this migration was
+         * applied, for SQL rewritten without changing the schema it produces.
+         *
+         * @param checksums The checksums of the earlier forms
+         * @return This migration
+         */
+        public Migration rewrittenFrom(long... checksums) {
+            this.previousChecksums = checksums.clone();
+            return this;
+        }
+
+        boolean isEarlierForm(long checksum) {
+            for (long previous : previousChecksums) {
+                if (previous == checksum) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * Checksum of the migration's SQL, used to detect edits after it was applied.
+         *
+         * @return CRC32 of all statements
+         */
+        public long getChecksum() {
+            CRC32 crc = new CRC32();
+            for (String sql : statements) {
+                crc.update(sql.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                crc.update(0);
+            }
+            return crc.getValue();
+        }
+    }
+
+    // The schema the helpers used to create on every connect, unchanged
+    private static final Migration V1_BASELINE = new Migration(1, "Baseline tables",
+        // DatabaseHelper
+        "CREATE TABLE IF NOT EXISTS cse360users ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "userName VARCHAR(255) UNIQUE, "
+                + "password VARCHAR(255), "
+                + "fullName VARCHAR(255), "
+                + "email VARCHAR(255), "
+                + "roles VARCHAR(255), "
+                + "oneTimePassword VARCHAR(255))",
+        "CREATE TABLE IF NOT EXISTS InvitationCodes ("
+                + "code VARCHAR(10) PRIMARY KEY, "
+                + "isUsed BOOLEAN DEFAULT FALSE, "
+                + "roles VARCHAR(255), "
+                + "deadline TIMESTAMP)",
+        // DatabaseHelper2
+        "CREATE TABLE IF NOT EXISTS Questions ("
+                + "questionId INT AUTO_INCREMENT PRIMARY KEY, "
+                + "content TEXT, "
+                + "author VARCHAR(255), "
+                + "timestamp TIMESTAMP, "
+                + "answered BOOLEAN, "
+                + "referenceQuestionId INT, "
+                + "FOREIGN KEY (referenceQuestionId) REFERENCES Questions(questionId))",
+        "CREATE TABLE IF NOT EXISTS Answers ("
+                + "answerId INT AUTO_INCREMENT PRIMARY KEY, "
+                + "questionId INT, "
+                + "content TEXT, "
+                + "author VARCHAR(255), "
+                + "timestamp TIMESTAMP, "
+                + "accepted BOOLEAN DEFAULT FALSE, "
+                + "referenceAnswerId INT, "
+                + "FOREIGN KEY (questionId) REFERENCES Questions(questionId), "
+                + "FOREIGN KEY (referenceAnswerId) REFERENCES Answers(answerId))",
+        "CREATE TABLE IF NOT EXISTS ReadStatus ("
+                + "answerId INT, "
+                + "userId VARCHAR(255), "
+                + "readTimestamp TIMESTAMP, "
+                + "PRIMARY KEY (answerId, userId), "
+                + "FOREIGN KEY (answerId) REFERENCES Answers(answerId))",
+        "CREATE TABLE IF NOT EXISTS Feedback ("
+                + "feedbackId INT AUTO_INCREMENT PRIMARY KEY, "
+                + "sender VARCHAR(255), "
+                + "receiver VARCHAR(255), "
+                + "content TEXT, "
+                + "timestamp TIMESTAMP, "
+                + "questionId INT, "
+                + "answerId INT, "
+                + "reviewId INT, "
+                + "parentMessageId INT, "
+                + "isRead BOOLEAN DEFAULT FALSE)",
+        "CREATE TABLE IF NOT EXISTS TrustedReviewers ("
+                + "studentUsername VARCHAR(255), "
+                + "reviewerUsername VARCHAR(255), "
+                + "timestamp TIMESTAMP, "
+                + "weightage INT DEFAULT 1, "
+                + "PRIMARY KEY (studentUsername, reviewerUsername))",
+        // DatabaseHelper3
+        "CREATE TABLE IF NOT EXISTS reviews ("
+                + "review_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "reviewer VARCHAR(255), "
+                + "content TEXT, "
+                + "timestamp TIMESTAMP, "
+                + "question_id INT, "
+                + "answer_id INT, "
+                + "FOREIGN KEY (question_id) REFERENCES Questions(questionId), "
+                + "FOREIGN KEY (answer_id) REFERENCES Answers(answerId))",
+        "CREATE TABLE IF NOT EXISTS reviewer_profile ("
+                + "username VARCHAR(255) PRIMARY KEY, "
+                + "about TEXT, "
+                + "experience TEXT, "
+                + "specialties TEXT, "
+                + "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+        "CREATE TABLE IF NOT EXISTS reviewer_feedback ("
+                + "feedback_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "reviewer_username VARCHAR(255), "
+                + "student_username VARCHAR(255), "
+                + "content TEXT, "
+                + "rating INT CHECK (rating >= 1 AND rating <= 5), "
+                + "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "FOREIGN KEY (reviewer_username) REFERENCES reviewer_profile(username))",
+        "CREATE TABLE IF NOT EXISTS reviewer_requests ("
+                + "request_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "student_username VARCHAR(255), "
+                + "status VARCHAR(20) DEFAULT 'pending', " // pending, approved, rejected
+                + "request_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "review_date TIMESTAMP, "
+                + "reviewer_username VARCHAR(255), " // instructor who reviewed
+                + "review_notes TEXT)",
+        "CREATE TABLE IF NOT EXISTS reported_content ("
+                + "report_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "reporter_username VARCHAR(255), " // staff member who reported
+                + "content_type VARCHAR(20), " // question, answer
+                + "content_id INT, " // ID of the question or answer
+                + "reason TEXT, " // Reason for reporting
+                + "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "status VARCHAR(20) DEFAULT 'pending', " // pending, reviewed, dismissed
+                + "reviewer_username VARCHAR(255), " // instructor who reviewed
+                + "review_notes TEXT, "
+                + "review_date TIMESTAMP)",
+        "CREATE TABLE IF NOT EXISTS banned_students ("
+                + "ban_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "student_username VARCHAR(255) UNIQUE, "
+                + "banned_by VARCHAR(255), "
+                + "ban_reason TEXT, "
+                + "ban_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+        "CREATE TABLE IF NOT EXISTS reviewer_scorecard ("
+                + "scorecard_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "reviewer_username VARCHAR(255) UNIQUE, "
+                + "friendliness INT CHECK (friendliness >= 0 AND friendliness <= 5), "
+                + "accuracy INT CHECK (accuracy >= 0 AND accuracy <= 5), "
+                + "judgement INT CHECK (judgement >= 0 AND judgement <= 5), "
+                + "communication INT CHECK (communication >= 0 AND communication <= 5), "
+                + "overall_score DECIMAL(3,2) AS ((friendliness + accuracy + judgement + communication) / 4.0))",
+        // DatabaseHelper4
+        """
+            CREATE TABLE IF NOT EXISTS AdminRequests (
+                request_id INTEGER PRIMARY KEY AUTO_INCREMENT,
+                requester_username TEXT NOT NULL,
+                title TEXT NOT NULL,
+                description TEXT NOT NULL,
+                status TEXT NOT NULL DEFAULT 'open', -- 'open', 'closed'
+                creation_timestamp DATETIME DEFAULT CURRENT_TIMESTAMP,
+                last_update_timestamp DATETIME DEFAULT CURRENT_TIMESTAMP,
+                closed_timestamp DATETIME NULL,
+                closed_by_username TEXT NULL,
+                admin_notes TEXT NULL,
+                reopened_from_id INTEGER NULL, -- Link to original request if this is a reopened one
+                has_been_reopened BOOLEAN DEFAULT FALSE, -- Flag if the original request was reopened
+                FOREIGN KEY (requester_username) REFERENCES cse360users(userName),
+                FOREIGN KEY (closed_by_username) REFERENCES cse360users(userName),
+                FOREIGN KEY (reopened_from_id) REFERENCES AdminRequests(request_id)
+            );
+            """
+    );
+
+    // Secondary indexes for the columns every inbox, answer and review lookup filters on
+    private static final Migration V2_LOOKUP_INDEXES = new Migration(2, "Indexes for message, answer, review and request lookups",
+        "CREATE INDEX IF NOT EXISTS idx_feedback_receiver_read ON Feedback(receiver, isRead)",
+        "CREATE INDEX IF NOT EXISTS idx_feedback_conversation ON Feedback(sender, receiver, timestamp)",
+        "CREATE INDEX IF NOT EXISTS idx_answers_question ON Answers(questionId)",
+        "CREATE INDEX IF NOT EXISTS idx_reviews_question ON reviews(question_id)",
+        "CREATE INDEX IF NOT EXISTS idx_reviews_answer ON reviews(answer_id)",
+        "CREATE INDEX IF NOT EXISTS idx_reviews_reviewer ON reviews(reviewer)",
+        "CREATE INDEX IF NOT EXISTS idx_reported_content_status ON reported_content(status)",
+        // TEXT is a CLOB in H2 and cannot be indexed; status only holds 'open' or 'closed'
+        "ALTER TABLE AdminRequests ALTER COLUMN status SET DATA TYPE VARCHAR(20)",
+        "CREATE INDEX IF NOT EXISTS idx_admin_requests_status ON AdminRequests(status)"
+    );
+
+    // One row per user and conversation partner so the inbox is a single indexed read
+    private static final Migration V3_CONVERSATION_SUMMARY = new Migration(3, "Conversation summary table",
+        "CREATE TABLE IF NOT EXISTS conversation_summary ("
+                + "owner VARCHAR(255), "
+                + "partner VARCHAR(255), "
+                + "last_message_time TIMESTAMP, "
+                + "last_message_snippet VARCHAR(" + CONVERSATION_SNIPPET_LENGTH + "), "
+                + "unread_count INT DEFAULT 0, "
+                + "PRIMARY KEY (owner, partner))",
+        "CREATE INDEX IF NOT EXISTS idx_conversation_summary_recent ON conversation_summary(owner, last_message_time)",
+        // Backfill from the messages that already exist; MERGE so a rerun rewrites the same rows
+        "MERGE INTO conversation_summary (owner, partner, last_message_time, last_message_snippet, unread_count) "
+                + "KEY (owner, partner) " + conversationSummarySelect("")
+    ).rewrittenFrom(1758002664L);
+
+    // Keyset pagination: one index per sort direction so H2 reads each page straight from an index
+    private static final Migration V4_PAGINATION_INDEXES = new Migration(4, "Indexes for paginated question and answer lists",
+        // A row without a timestamp has no place in (timestamp, id) order
+        "UPDATE Questions SET timestamp = CURRENT_TIMESTAMP WHERE timestamp IS NULL",
+        "UPDATE Answers SET timestamp = CURRENT_TIMESTAMP WHERE timestamp IS NULL",
+        "CREATE INDEX IF NOT EXISTS idx_questions_page ON Questions(timestamp, questionId)",
+        "CREATE INDEX IF NOT EXISTS idx_questions_page_desc ON Questions(timestamp DESC, questionId DESC)",
+        "CREATE INDEX IF NOT EXISTS idx_questions_status_page ON Questions(answered, timestamp, questionId)",
+        "CREATE INDEX IF NOT EXISTS idx_questions_status_page_desc ON Questions(answered, timestamp DESC, questionId DESC)",
+        "CREATE INDEX IF NOT EXISTS idx_answers_page ON Answers(questionId, timestamp, answerId)"
+    );
+
+    // Row versions and tombstones so lists can fetch only what changed since they were loaded
+    private static final Migration V5_ROW_VERSIONS = new Migration(5, "Row versions and tombstones for delta sync",
+        "CREATE SEQUENCE IF NOT EXISTS row_version_seq",
+        // Adding the columns stamps every existing row with its own version
+        "ALTER TABLE Questions ADD COLUMN IF NOT EXISTS row_version BIGINT "
+                + "DEFAULT NEXT VALUE FOR row_version_seq ON UPDATE NEXT VALUE FOR row_version_seq",
+        "ALTER TABLE Questions ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP "
+                + "DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP",
+        "ALTER TABLE Answers ADD COLUMN IF NOT EXISTS row_version BIGINT "
+                + "DEFAULT NEXT VALUE FOR row_version_seq ON UPDATE NEXT VALUE FOR row_version_seq",
+        "ALTER TABLE Answers ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP "
+                + "DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP",
+        "CREATE INDEX IF NOT EXISTS idx_questions_row_version ON Questions(row_version)",
+        "CREATE INDEX IF NOT EXISTS idx_answers_row_version ON Answers(questionId, row_version)",
+        "CREATE TABLE IF NOT EXISTS row_tombstones ("
+                + "table_name VARCHAR(32), "
+                + "row_id INT, "
+                + "parent_id INT, "
+                + "row_version BIGINT, "
+                + "deleted_at TIMESTAMP, "
+                + "PRIMARY KEY (table_name, row_id))",
+        "CREATE INDEX IF NOT EXISTS idx_row_tombstones_version ON row_tombstones(table_name, row_version)",
+        "CREATE INDEX IF NOT EXISTS idx_row_tombstones_parent ON row_tombstones(table_name, parent_id, row_version)"
+    );
+
+    // A broadcast is one Feedback row without a receiver; its recipients and their read flags fan out here
+    private static final Migration V6_BROADCAST_MESSAGES = new Migration(6, "Broadcast message recipients",
+        "CREATE TABLE IF NOT EXISTS feedback_recipients ("
+                + "feedbackId INT, "
+                + "recipient VARCHAR(255), "
+                + "isRead BOOLEAN DEFAULT FALSE, "
+                + "PRIMARY KEY (feedbackId, recipient), "
+                + "FOREIGN KEY (feedbackId) REFERENCES Feedback(feedbackId) ON DELETE CASCADE)",
+        "CREATE INDEX IF NOT EXISTS idx_feedback_recipients_inbox ON feedback_recipients(recipient, isRead)"
+    );
+
+    // Warnings and bans recorded per student, with a running warning count so the
+    // escalation rules never have to count a student's messages
+    private static final Migration V7_MODERATION_LEDGER = new Migration(7, "Moderation ledger and warning counters",
+        "CREATE TABLE IF NOT EXISTS moderation_ledger ("
+                + "entry_id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "student VARCHAR(255) NOT NULL, "
+                + "action VARCHAR(16) NOT NULL, "
+                + "issued_by VARCHAR(255), "
+                + "reason TEXT, "
+                + "question_id INT, "
+                + "answer_id INT, "
+                + "feedback_id INT, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+        "CREATE INDEX IF NOT EXISTS idx_moderation_ledger_student ON moderation_ledger(student, entry_id)",
+        "CREATE TABLE IF NOT EXISTS moderation_counters ("
+                + "student VARCHAR(255) PRIMARY KEY, "
+                + "warnings INT NOT NULL DEFAULT 0, "
+                + "last_warning_at TIMESTAMP)",
+        // Backfill from the warnings already sent as messages, skipping any a rerun already copied
+        "INSERT INTO moderation_ledger (student, action, question_id, answer_id, feedback_id, created_at) "
+                + "SELECT receiver, 'WARNING', NULLIF(questionId, 0), answerId, feedbackId, timestamp "
+                + "FROM Feedback f WHERE sender = 'SYSTEM WARNING' AND receiver IS NOT NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM moderation_ledger l WHERE l.feedback_id = f.feedbackId) "
+                + "ORDER BY feedbackId",
+        "MERGE INTO moderation_counters (student, warnings, last_warning_at) KEY (student) "
+                + "SELECT student, COUNT(*), MAX(created_at) FROM moderation_ledger "
+                + "WHERE action = 'WARNING' GROUP BY student"
+    ).rewrittenFrom(2031981784L);
+
+    // A role bitmask computed from the comma-separated roles column, so role lookups
+    // are index seeks. The bits follow User.ALL_ROLES; the added commas make each match exact.
+    // The name leaves "role" out so code that finds the roles column by name still finds roles.
+    private static final Migration V8_ACCESS_MASK = new Migration(8, "Indexed role bitmask for users",
+        "ALTER TABLE cse360users ADD COLUMN IF NOT EXISTS access_mask INT GENERATED ALWAYS AS ("
+                + "CASEWHEN(',' || roles || ',' LIKE '%,admin,%', 1, 0) + "
+                + "CASEWHEN(',' || roles || ',' LIKE '%,student,%', 2, 0) + "
+                + "CASEWHEN(',' || roles || ',' LIKE '%,instructor,%', 4, 0) + "
+                + "CASEWHEN(',' || roles || ',' LIKE '%,staff,%', 8, 0) + "
+                + "CASEWHEN(',' || roles || ',' LIKE '%,reviewer,%', 16, 0))",
+        "CREATE INDEX IF NOT EXISTS idx_cse360users_access_mask ON cse360users(access_mask, userName)"
+    );
+
+    /**
+     * All migrations in the order they are applied.
+     */
+    static final List<Migration> MIGRATIONS = List.of(
+        V1_BASELINE,
+        V2_LOOKUP_INDEXES,
+        V3_CONVERSATION_SUMMARY,
+        V4_PAGINATION_INDEXES,
+        V5_ROW_VERSIONS,
+        V6_BROADCAST_MESSAGES,
+        V7_MODERATION_LEDGER,
+        V8_ACCESS_MASK
+    );
+
+    /**
+     * Builds the query that computes conversation_summary rows from Feedback.
+     * Every message counts for both its sender and its receiver; only the
+     * receiver's copy counts towards unread.
+     *
+     * @param pairFilter Extra condition on Feedback (for example limiting it to
+     *                   one pair of users), or an empty string for all messages
+     * @return SELECT returning owner, partner, last time, snippet and unread count
+     *
+     * <p> Migration V3 backfills with this query, so any change to it alters
+     * V3's checksum; add a new migration instead. </p>
+     */
+    static String conversationSummarySelect(String pairFilter) {
+        return conversationSummarySelect("Feedback", pairFilter);
+    }
+
+    /**
+     * Builds the query that computes conversation_summary rows from a table of
+     * delivered messages, such as Feedback with each broadcast expanded to one
+     * row per recipient.
+     *
+     * @param source     Table or derived table with the sender, receiver,
+     *                   content, timestamp, feedbackId and isRead columns
+     * @param pairFilter Extra condition on the source, or an empty string for all messages
+     * @return SELECT returning owner, partner, last time, snippet and unread count
+     */
+    static String conversationSummarySelect(String source, String pairFilter) {
+        String where = pairFilter.isEmpty() ? "" : " WHERE " + pairFilter;
+        return "SELECT p.owner, p.partner, MAX(p.timestamp), "
+                + "(SELECT LEFT(f.content, " + CONVERSATION_SNIPPET_LENGTH + ") FROM " + source + " f "
+                + "WHERE (f.sender = p.owner AND f.receiver = p.partner) "
+                + "OR (f.sender = p.partner AND f.receiver = p.owner) "
+                + "ORDER BY f.timestamp DESC, f.feedbackId DESC LIMIT 1), "
+                + "SUM(p.unread) "
+                + "FROM (SELECT sender AS owner, receiver AS partner, timestamp, 0 AS unread FROM " + source + where + " "
+                + "UNION ALL SELECT receiver, sender, timestamp, CASE WHEN isRead THEN 0 ELSE 1 END FROM " + source + where + ") p "
+                + "GROUP BY p.owner, p.partner";
+    }
+
+    // The schema_version row whose lock serializes migrations across clients
+    private static final int LOCK_VERSION = 0;
+    // How long a client waits for another one's migrations before giving up
+    private static final long LOCK_WAIT_MILLIS = 10 * 60_000;
+
+    // The pool whose database has been checked in this process
+    private static DataSource verifiedSource;
+
+    /**
+     * Brings the shared database up to the latest schema. Only the first call
+     * per process touches the database; later calls return immediately.
+     *
+     * @throws SQLException if a migration fails or an applied migration was modified
+     */
+    public static synchronized void ensureCurrent() throws SQLException {
+        ConnectionPool pool = ConnectionPool.getInstance();
+        if (verifiedSource == pool) {
+            return;
+        }
+        migrate(pool);
+        verifiedSource = pool;
+    }
+
+    /**
+     * Applies every pending migration to the given database.
+     *
+     * @param dataSource The database to migrate
+     * @return The number of migrations applied (0 when the schema was already current)
+     * @throws SQLException if a migration fails or an applied migration was modified
+     */
+    public static int migrate(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            // You can use this command to clear the database and restart from fresh.
+            // connection.createStatement().execute("DROP ALL OBJECTS");
+
+            Map<Integer, Long> applied = readAppliedVersions(connection);
+            verifyChecksums(connection, applied);
+            if (isCurrent(applied)) {
+                return 0; // Schema is current, no DDL needed
+            }
+            createVersionTable(connection);
+        }
+
+        // The lock is held on a connection of its own, since the DDL of a migration commits as it goes
+        try (Connection lock = dataSource.getConnection();
+             Connection connection = dataSource.getConnection()) {
+            acquireLock(lock);
+            try {
+                // Another client may have migrated while this one waited
+                Map<Integer, Long> applied = readAppliedVersions(connection);
+                verifyChecksums(connection, applied);
+                int count = 0;
+                for (Migration migration : MIGRATIONS) {
+                    if (!applied.containsKey(migration.getVersion())) {
+                        apply(connection, migration);
+                        count++;
+                    }
+                }
+                return count;
+            } finally {
+                lock.rollback();
+                lock.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest applied migration version.
+     *
+     * @param dataSource The database to inspect
+     * @return The current schema version, or 0 for an unversioned database
+     * @throws SQLException if a database access error occurs
+     */
+    public static int getCurrentVersion(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            int version = 0;
+            for (int applied : readAppliedVersions(connection).keySet()) {
+                version = Math.max(version, applied);
+            }
+            return version;
+        }
+    }
+
+    /**
+     * Returns the version the code expects the schema to be at.
+     *
+     * @return The latest migration version
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+
+    private static boolean isCurrent(Map<Integer, Long> applied) {
+        return applied.containsKey(getLatestVersion()) && applied.size() == MIGRATIONS.size();
+    }
+
+    // Verifies what has already run before anything is changed
+    private static void verifyChecksums(Connection connection, Map<Integer, Long> applied) throws SQLException {
+        for (Migration migration : MIGRATIONS) {
+            Long checksum = applied.get(migration.getVersion());
+            if (checksum == null || checksum == migration.getChecksum()) {
+                continue;
+            }
+            if (!migration.isEarlierForm(checksum)) {
+                throw new SQLException("Schema migration V" + migration.getVersion() + " ("
+                        + migration.getDescription() + ") was modified after it was applied.");
+            }
+            String sql = "UPDATE schema_version SET checksum = ? WHERE version = ?";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setLong(1, migration.getChecksum());
+                pstmt.setInt(2, migration.getVersion());
+                pstmt.executeUpdate();
+            }
+            applied.put(migration.getVersion(), migration.getChecksum());
+        }
+    }
+
+    // Blocks until no other client is migrating the database; the caller rolls back to release it
+    private static void acquireLock(Connection lock) throws SQLException {
+        long deadline = System.currentTimeMillis() + LOCK_WAIT_MILLIS;
+        lock.setAutoCommit(false);
+        String sql = "SELECT version FROM schema_version WHERE version = " + LOCK_VERSION + " FOR UPDATE";
+        while (true) {
+            try (PreparedStatement pstmt = lock.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("The schema_version lock row is missing.");
+                }
+                return;
+            } catch (SQLException e) {
+                // H2 gives up on a lock after its lock timeout; keep waiting for a long migration
+                if (!"HYT00".equals(e.getSQLState()) || System.currentTimeMillis() > deadline) {
+                    lock.rollback();
+                    lock.setAutoCommit(true);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Reads version -> checksum without issuing DDL; empty when the table does not exist yet
+    private static Map<Integer, Long> readAppliedVersions(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        String existsSql = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'SCHEMA_VERSION'";
+        try (PreparedStatement pstmt = connection.prepareStatement(existsSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next() || rs.getInt(1) == 0) {
+                return applied;
+            }
+        }
+        String sql = "SELECT version, checksum FROM schema_version WHERE version <> " + LOCK_VERSION;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    // Creates the table and its lock row; both are safe to repeat while another client does the same
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(255), "
+                    + "checksum BIGINT, "
+                    + "applied_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            statement.execute("MERGE INTO schema_version (version, description, checksum) KEY (version) "
+                    + "VALUES (" + LOCK_VERSION + ", 'Migration lock', 0)");
+        } catch (SQLException e) {
+            // Another client inserted the lock row first
+            if (!"23505".equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        System.out.println("Applying schema migration V" + migration.getVersion() + ": " + migration.getDescription());
+        // Commits the backfills together with the version row; the DDL commits on its own
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : migration.statements) {
+                statement.execute(sql);
+            }
+            String sql = "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, migration.getVersion());
+                pstmt.setString(2, migration.getDescription());
+                pstmt.setLong(3, migration.getChecksum());
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            System.err.println("Schema migration V" + migration.getVersion() + " failed: " + e.getMessage());
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,792 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+
+import main.SearchHit;
+
+/**
+ * SearchIndex is the in-process full-text index over questions, answers and
+ * reviews. It replaces the {@code LIKE '%keyword%'} scans, which read every
+ * row of the table for every search, with postings lists that go straight to
+ * the documents containing a term.
+ *
+ * <p> Each term maps to the documents it occurs in and the positions it occurs
+ * at, so a query can ask for words anywhere in the text or for an exact
+ * phrase. Results are ranked with BM25 and come back with a snippet of the text
+ * around the matched words. The author's username is indexed with the content,
+ * so searching for a username finds that user's posts. </p>
+ *
+ * <p> Query syntax: words are required by default ({@code AND} may also be
+ * written out), {@code OR} separates alternatives and binds looser than AND, and
+ * double quotes match a phrase. {@code java "stream api" OR lambda} finds
+ * documents containing "java" and the phrase "stream api", or "lambda". </p>
+ *
+ * <p> The index is rebuilt from the database at startup and kept current by
+ * the database helpers, which call {@link #index} and {@link #remove} once a
+ * write to a question, answer or review has been committed. Changes written directly with SQL
+ * bypass the index until the next {@link #rebuild}, which is why callers look
+ * the hits up in the database rather than trusting the index alone. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class SearchIndex {
+    // BM25 parameters: term frequency saturation and document length normalization
+    public static final double K1 = 1.2;
+    public static final double B = 0.75;
+
+    public static final int SNIPPET_LENGTH = 160;
+    // How much text is kept in front of the first match in a snippet
+    private static final int SNIPPET_LEAD = 40;
+    // Positions skipped between the content and the author so a phrase never spans both
+    private static final int AUTHOR_POSITION_GAP = 2;
+
+    private static SearchIndex instance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private Segment segment = new Segment();
+    private boolean built = false;
+    // Counts the changes to the contents, so callers can tell when results they kept went stale
+    private long generation = 0;
+    // Changes made while a rebuild is reading the database; null when no rebuild is running
+    private List<Consumer<Segment>> pendingChanges;
+
+    /**
+     * Returns the index shared by the whole application.
+     *
+     * @return The shared search index
+     */
+    public static synchronized SearchIndex getInstance() {
+        if (instance == null) {
+            instance = new SearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the contents of the index with the questions, answers and reviews
+     * in the database. Searches keep using the old contents until the new ones are
+     * complete, and changes made while the rebuild runs are carried over.
+     *
+     * @param dataSource Where to read the documents from
+     * @throws SQLException if the documents cannot be read; the old contents are kept
+     */
+    public void rebuild(DataSource dataSource) throws SQLException {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Segment fresh = new Segment();
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                load(statement, "SELECT questionId, questionId, author, content FROM Questions",
+                        SearchHit.Type.QUESTION, fresh);
+                load(statement, "SELECT answerId, questionId, author, content FROM Answers",
+                        SearchHit.Type.ANSWER, fresh);
+                load(statement, "SELECT review_id, question_id, reviewer, content FROM reviews",
+                        SearchHit.Type.REVIEW, fresh);
+            } catch (SQLException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Consumer<Segment> change : pendingChanges) {
+                    change.accept(fresh);
+                }
+                pendingChanges = null;
+                segment = fresh;
+                built = true;
+                generation++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Builds the index from the shared connection pool if it has not been built yet.
+     *
+     * @throws SQLException if the documents cannot be read
+     */
+    public void ensureBuilt() throws SQLException {
+        if (isBuilt()) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            if (!isBuilt()) {
+                rebuild(ConnectionPool.getInstance());
+            }
+        }
+    }
+
+    /**
+     * Checks if the index has been built from the database.
+     *
+     * @return true once a rebuild has completed
+     */
+    public boolean isBuilt() {
+        lock.readLock().lock();
+        try {
+            return built;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void load(Statement statement, String sql, SearchHit.Type type, Segment target) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                target.put(new Document(type, rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4)));
+            }
+        }
+    }
+
+    /**
+     * Adds a document to the index, replacing any earlier version of it.
+     *
+     * @param type       The kind of content
+     * @param id         The ID of the question, answer or review
+     * @param questionId The ID of the question the content belongs to
+     * @param author     Username of the author or reviewer
+     * @param content    The text to index
+     */
+    public void index(SearchHit.Type type, int id, int questionId, String author, String content) {
+        // Tokenize before taking the lock so searches are not held up
+        Document document = new Document(type, id, questionId, author, content);
+        change(target -> target.put(document));
+    }
+
+    /**
+     * Removes a document from the index. Removing a document that is not
+     * indexed does nothing.
+     *
+     * @param type The kind of content
+     * @param id   The ID of the question, answer or review
+     */
+    public void remove(SearchHit.Type type, int id) {
+        long key = key(type, id);
+        change(target -> target.remove(key));
+    }
+
+    /**
+     * Removes a question from the index together with the answers and reviews
+     * indexed under it.
+     *
+     * @param questionId The ID of the question
+     */
+    public void removeQuestion(int questionId) {
+        change(target -> target.removeQuestion(questionId));
+    }
+
+    private void change(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(segment);
+            generation++;
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a number that changes whenever a document is added or removed or
+     * the index is rebuilt, so results kept from an earlier search can be
+     * reused while it stays the same.
+     *
+     * @return The current generation
+     */
+    public long getGeneration() {
+        lock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed documents.
+     *
+     * @return The document count
+     */
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return segment.liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of distinct terms in the index.
+     *
+     * @return The term count
+     */
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return segment.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches every kind of content.
+     *
+     * @param query The search query
+     * @param limit Maximum number of hits to return (0 or less for all of them)
+     * @return Hits ordered from most to least relevant
+     */
+    public List<SearchHit> search(String query, int limit) {
+        return search(query, EnumSet.allOf(SearchHit.Type.class), limit);
+    }
+
+    /**
+     * Searches the given kinds of content.
+     *
+     * @param query The search query
+     * @param types The kinds of content to return
+     * @param limit Maximum number of hits to return (0 or less for all of them)
+     * @return Hits ordered from most to least relevant, with highlighted snippets
+     */
+    public List<SearchHit> search(String query, Set<SearchHit.Type> types, int limit) {
+        ParsedQuery parsed = ParsedQuery.parse(query);
+        List<SearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (ScoredDocument scored : rank(parsed, types, limit)) {
+                hits.add(toHit(scored, parsed.terms));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits;
+    }
+
+    /**
+     * Searches one kind of content and returns only the IDs, which is all a
+     * caller needs when it loads the matching rows from the database anyway.
+     *
+     * @param query The search query
+     * @param type  The kind of content to return
+     * @param limit Maximum number of IDs to return (0 or less for all of them)
+     * @return IDs ordered from most to least relevant
+     */
+    public List<Integer> searchIds(String query, SearchHit.Type type, int limit) {
+        ParsedQuery parsed = ParsedQuery.parse(query);
+        List<Integer> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (ScoredDocument scored : rank(parsed, EnumSet.of(type), limit)) {
+                ids.add(scored.document.id);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    // Must be called with the read lock held
+    private List<ScoredDocument> rank(ParsedQuery query, Set<SearchHit.Type> types, int limit) {
+        Segment current = segment;
+        IntList matches = new IntList();
+        for (List<String[]> group : query.groups) {
+            matches = IntList.union(matches, current.matchAll(group));
+        }
+        if (matches.size == 0) {
+            return Collections.emptyList();
+        }
+
+        // Term at a time: walk each query term's postings alongside the sorted matches
+        double averageLength = (double) current.totalLength / current.liveDocuments;
+        double[] scores = new double[matches.size];
+        for (String term : query.terms) {
+            PostingList postings = current.postings.get(term);
+            if (postings == null) {
+                continue;
+            }
+            double df = postings.live;
+            double idf = Math.log(1 + (current.liveDocuments - df + 0.5) / (df + 0.5));
+            int j = 0;
+            for (int i = 0; i < matches.size; i++) {
+                int slot = matches.values[i];
+                while (j < postings.size && postings.slots[j] < slot) {
+                    j++;
+                }
+                if (j < postings.size && postings.slots[j] == slot) {
+                    int tf = postings.positions[j].length;
+                    double norm = K1 * (1 - B + B * current.documents.get(slot).length / averageLength);
+                    scores[i] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+        }
+
+        boolean bounded = limit > 0 && limit < matches.size;
+        // A bounded search keeps only the best hits, with the worst of them at the head
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(Collections.reverseOrder(ScoredDocument.ORDER));
+        List<ScoredDocument> ranked = new ArrayList<>();
+        for (int i = 0; i < matches.size; i++) {
+            Document document = current.documents.get(matches.values[i]);
+            if (!types.contains(document.type)) {
+                continue;
+            }
+            ScoredDocument scored = new ScoredDocument(document, scores[i]);
+            if (!bounded) {
+                ranked.add(scored);
+            } else if (best.size() < limit) {
+                best.add(scored);
+            } else if (ScoredDocument.ORDER.compare(scored, best.peek()) < 0) {
+                best.poll();
+                best.add(scored);
+            }
+        }
+        if (bounded) {
+            ranked.addAll(best);
+        }
+        ranked.sort(ScoredDocument.ORDER);
+        return ranked;
+    }
+
+    // Cuts a window of the content around the first match and records where the matches are in it
+    private static SearchHit toHit(ScoredDocument scored, Set<String> queryTerms) {
+        Document document = scored.document;
+        String content = document.content;
+        List<SearchTokenizer.Token> matched = new ArrayList<>();
+        for (SearchTokenizer.Token token : SearchTokenizer.tokenize(content)) {
+            if (queryTerms.contains(token.term)) {
+                matched.add(token);
+            }
+        }
+
+        int start = 0;
+        if (!matched.isEmpty()) {
+            start = Math.max(0, matched.get(0).start - SNIPPET_LEAD);
+            // Do not start in the middle of a word
+            while (start > 0 && start < matched.get(0).start && Character.isLetterOrDigit(content.charAt(start - 1))) {
+                start++;
+            }
+        }
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        if (end < content.length()) {
+            int wordEnd = end;
+            while (wordEnd > start && Character.isLetterOrDigit(content.charAt(wordEnd))) {
+                wordEnd--;
+            }
+            if (wordEnd > start) {
+                end = wordEnd;
+            }
+        }
+
+        String prefix = start > 0 ? "..." : "";
+        String snippet = prefix + content.substring(start, end).replace('\n', ' ').replace('\r', ' ')
+                + (end < content.length() ? "..." : "");
+        List<Integer> highlights = new ArrayList<>();
+        for (SearchTokenizer.Token token : matched) {
+            if (token.start >= start && token.end <= end) {
+                highlights.add(token.start - start + prefix.length());
+                highlights.add(token.end - start + prefix.length());
+            }
+        }
+        int[] offsets = new int[highlights.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = highlights.get(i);
+        }
+        return new SearchHit(document.type, document.id, document.questionId, document.author,
+                scored.score, snippet, offsets);
+    }
+
+    private static long key(SearchHit.Type type, int id) {
+        return ((long) type.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * One indexed question, answer or review. The positions of each term are
+     * shared with the postings lists of the segment holding the document.
+     */
+    private static final class Document {
+        final SearchHit.Type type;
+        final int id;
+        final int questionId;
+        final String author;
+        final String content;
+        final long key;
+        final int length;
+        final String[] terms;
+        final int[][] positions;
+
+        Document(SearchHit.Type type, int id, int questionId, String author, String content) {
+            this.type = type;
+            this.id = id;
+            this.questionId = questionId;
+            this.author = author;
+            this.content = content == null ? "" : content;
+            this.key = key(type, id);
+
+            List<String> contentTerms = SearchTokenizer.terms(this.content);
+            List<String> authorTerms = SearchTokenizer.terms(author);
+            Map<String, IntList> collected = new HashMap<>();
+            for (int i = 0; i < contentTerms.size(); i++) {
+                collected.computeIfAbsent(contentTerms.get(i), t -> new IntList()).add(i);
+            }
+            int authorStart = contentTerms.size() + AUTHOR_POSITION_GAP;
+            for (int i = 0; i < authorTerms.size(); i++) {
+                collected.computeIfAbsent(authorTerms.get(i), t -> new IntList()).add(authorStart + i);
+            }
+
+            this.length = contentTerms.size() + authorTerms.size();
+            this.terms = new String[collected.size()];
+            this.positions = new int[collected.size()][];
+            int t = 0;
+            for (Map.Entry<String, IntList> entry : collected.entrySet()) {
+                terms[t] = entry.getKey();
+                positions[t] = entry.getValue().toArray();
+                t++;
+            }
+        }
+    }
+
+    /**
+     * A complete set of documents and their postings lists. Rebuilds fill a new
+     * segment and swap it in once it is complete.
+     *
+     * <p> Every document gets the next free slot number, so postings lists are
+     * appended to in slot order and stay sorted, which lets AND, OR and scoring
+     * merge them instead of hashing. Removing a document only clears its slot;
+     * the postings lists skip cleared slots and are compacted once they are
+     * mostly dead. A changed document is removed and added again in a new slot. </p>
+     */
+    private static final class Segment {
+        // slot -> document, null once the document has been removed
+        final List<Document> documents = new ArrayList<>();
+        final Map<Long, Integer> slotsByKey = new HashMap<>();
+        final Map<String, PostingList> postings = new HashMap<>();
+        int liveDocuments = 0;
+        long totalLength = 0;
+
+        void put(Document document) {
+            remove(document.key);
+            int slot = documents.size();
+            documents.add(document);
+            slotsByKey.put(document.key, slot);
+            liveDocuments++;
+            totalLength += document.length;
+            for (int i = 0; i < document.terms.length; i++) {
+                postings.computeIfAbsent(document.terms[i], t -> new PostingList()).add(slot, document.positions[i]);
+            }
+        }
+
+        void remove(long key) {
+            Integer slot = slotsByKey.remove(key);
+            if (slot == null) {
+                return;
+            }
+            Document old = documents.set(slot, null);
+            liveDocuments--;
+            totalLength -= old.length;
+            for (String term : old.terms) {
+                PostingList list = postings.get(term);
+                list.live--;
+                if (list.live == 0) {
+                    postings.remove(term);
+                } else if (list.size > 2 * list.live + 8) {
+                    list.compact(documents);
+                }
+            }
+        }
+
+        void removeQuestion(int questionId) {
+            List<Long> keys = new ArrayList<>();
+            for (Document document : documents) {
+                if (document != null && document.questionId == questionId) {
+                    keys.add(document.key);
+                }
+            }
+            for (long key : keys) {
+                remove(key);
+            }
+        }
+
+        // Slots of the documents matching every clause of an AND group, ascending
+        IntList matchAll(List<String[]> clauses) {
+            List<String[]> ordered = new ArrayList<>(clauses);
+            // Start from the rarest clause so the candidate set shrinks as fast as possible
+            ordered.sort(Comparator.comparingInt(this::estimate));
+            IntList candidates = null;
+            for (String[] clause : ordered) {
+                candidates = match(clause, candidates);
+                if (candidates.size == 0) {
+                    break;
+                }
+            }
+            return candidates == null ? new IntList() : candidates;
+        }
+
+        private int estimate(String[] clause) {
+            int smallest = Integer.MAX_VALUE;
+            for (String term : clause) {
+                PostingList list = postings.get(term);
+                smallest = Math.min(smallest, list == null ? 0 : list.live);
+            }
+            return smallest;
+        }
+
+        // Slots among the candidates (all documents when null) containing the term or phrase
+        private IntList match(String[] clause, IntList candidates) {
+            PostingList[] lists = new PostingList[clause.length];
+            for (int i = 0; i < clause.length; i++) {
+                lists[i] = postings.get(clause[i]);
+                if (lists[i] == null) {
+                    return new IntList();
+                }
+            }
+            PostingList first = lists[0];
+            IntList matched = new IntList();
+            if (candidates != null && candidates.size * 8 < first.size) {
+                // Few candidates left: look each one up instead of walking the whole list
+                for (int c = 0; c < candidates.size; c++) {
+                    int slot = candidates.values[c];
+                    int[] starts = first.positionsOf(slot);
+                    if (starts != null && (clause.length == 1 || containsPhrase(lists, slot, starts))) {
+                        matched.add(slot);
+                    }
+                }
+                return matched;
+            }
+            int c = 0;
+            for (int j = 0; j < first.size; j++) {
+                int slot = first.slots[j];
+                if (candidates != null) {
+                    while (c < candidates.size && candidates.values[c] < slot) {
+                        c++;
+                    }
+                    if (c == candidates.size) {
+                        break;
+                    }
+                    if (candidates.values[c] != slot) {
+                        continue;
+                    }
+                }
+                if (documents.get(slot) != null && (clause.length == 1 || containsPhrase(lists, slot, first.positions[j]))) {
+                    matched.add(slot);
+                }
+            }
+            return matched;
+        }
+
+        private static boolean containsPhrase(PostingList[] lists, int slot, int[] starts) {
+            int[][] following = new int[lists.length][];
+            for (int i = 1; i < lists.length; i++) {
+                following[i] = lists[i].positionsOf(slot);
+                if (following[i] == null) {
+                    return false;
+                }
+            }
+            for (int start : starts) {
+                boolean all = true;
+                for (int i = 1; i < lists.length && all; i++) {
+                    all = Arrays.binarySearch(following[i], start + i) >= 0;
+                }
+                if (all) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The documents a term occurs in, by ascending slot, with the term's
+     * positions in each. Entries of removed documents stay until the list is
+     * compacted; {@code live} counts the others.
+     */
+    private static final class PostingList {
+        int[] slots = new int[2];
+        int[][] positions = new int[2][];
+        int size = 0;
+        int live = 0;
+
+        void add(int slot, int[] termPositions) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            slots[size] = slot;
+            positions[size] = termPositions;
+            size++;
+            live++;
+        }
+
+        int[] positionsOf(int slot) {
+            int i = Arrays.binarySearch(slots, 0, size, slot);
+            return i >= 0 ? positions[i] : null;
+        }
+
+        void compact(List<Document> documents) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (documents.get(slots[i]) != null) {
+                    slots[kept] = slots[i];
+                    positions[kept] = positions[i];
+                    kept++;
+                }
+            }
+            Arrays.fill(positions, kept, size, null);
+            size = kept;
+        }
+    }
+
+    /**
+     * A growable list of ints, used for positions and for sorted slot lists.
+     */
+    private static final class IntList {
+        int[] values = new int[8];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        // Merges two ascending lists, dropping duplicates
+        static IntList union(IntList a, IntList b) {
+            if (a.size == 0) {
+                return b;
+            }
+            if (b.size == 0) {
+                return a;
+            }
+            IntList merged = new IntList();
+            int i = 0;
+            int j = 0;
+            while (i < a.size || j < b.size) {
+                if (j == b.size || (i < a.size && a.values[i] < b.values[j])) {
+                    merged.add(a.values[i++]);
+                } else if (i == a.size || b.values[j] < a.values[i]) {
+                    merged.add(b.values[j++]);
+                } else {
+                    merged.add(a.values[i++]);
+                    j++;
+                }
+            }
+            return merged;
+        }
+    }
+
+    private static final class ScoredDocument {
+        // Best score first; ties go by type and then ID so results are stable
+        static final Comparator<ScoredDocument> ORDER = (a, b) -> {
+            int byScore = Double.compare(b.score, a.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byType = a.document.type.compareTo(b.document.type);
+            return byType != 0 ? byType : Integer.compare(a.document.id, b.document.id);
+        };
+
+        final Document document;
+        final double score;
+
+        ScoredDocument(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A query split into OR groups of AND clauses. A clause with more than one
+     * term is a phrase.
+     */
+    private static final class ParsedQuery {
+        final List<List<String[]>> groups = new ArrayList<>();
+        final Set<String> terms = new LinkedHashSet<>();
+
+        static ParsedQuery parse(String query) {
+            ParsedQuery parsed = new ParsedQuery();
+            List<String[]> group = new ArrayList<>();
+            String text = query == null ? "" : query;
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '"') {
+                    int close = text.indexOf('"', i + 1);
+                    int end = close < 0 ? text.length() : close;
+                    parsed.addClause(group, text.substring(i + 1, end));
+                    i = end + 1;
+                } else {
+                    int end = i;
+                    while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '"') {
+                        end++;
+                    }
+                    String word = text.substring(i, end);
+                    if (word.equals("OR")) {
+                        if (!group.isEmpty()) {
+                            parsed.groups.add(group);
+                            group = new ArrayList<>();
+                        }
+                    } else if (!word.equals("AND")) {
+                        // A word such as "follow-up" splits into several terms and is matched as a phrase
+                        parsed.addClause(group, word);
+                    }
+                    i = end;
+                }
+            }
+            if (!group.isEmpty()) {
+                parsed.groups.add(group);
+            }
+            return parsed;
+        }
+
+        private void addClause(List<String[]> group, String text) {
+            List<String> clause = SearchTokenizer.terms(text);
+            if (!clause.isEmpty()) {
+                group.add(clause.toArray(new String[0]));
+                terms.addAll(clause);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package databasePart1;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchTokenizer splits text into the terms stored in the {@link SearchIndex}.
+ *
+ * <p> A term is a run of letters and digits. Terms are lower-cased and their
+ * accents are removed, and apostrophes inside a word are dropped so "don't"
+ * and "dont" are the same term. Every token remembers where it came from in
+ * the original text so matches can be highlighted. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+final class SearchTokenizer {
+
+    /**
+     * A term together with its position in the original text.
+     */
+    static final class Token {
+        final String term;
+        final int start;
+        final int end;
+
+        Token(String term, int start, int end) {
+            this.term = term;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Splits the text into tokens.
+     *
+     * @param text The text to split, may be null
+     * @return The tokens in the order they appear
+     */
+    static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i >= length) {
+                break;
+            }
+            int start = i;
+            // Most words are already lower-case ASCII and can be used as they are
+            boolean plain = true;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    if (c > 0x7F || (c >= 'A' && c <= 'Z')) {
+                        plain = false;
+                    }
+                } else if (isApostrophe(c) && i + 1 < length && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                    plain = false;
+                } else {
+                    break;
+                }
+                i++;
+            }
+            String word = text.substring(start, i);
+            tokens.add(new Token(plain ? word : normalize(word), start, i));
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits the text into normalized terms, dropping the positions.
+     *
+     * @param text The text to split, may be null
+     * @return The terms in the order they appear
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (Token token : tokenize(text)) {
+            terms.add(token.term);
+        }
+        return terms;
+    }
+
+    private static boolean isApostrophe(char c) {
+        return c == '\'' || c == '’';
+    }
+
+    // Lower-cases the word, drops apostrophes and strips accents, so "Café" is found by "cafe"
+    private static String normalize(String word) {
+        StringBuilder lower = new StringBuilder(word.length());
+        boolean ascii = true;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (!isApostrophe(c)) {
+                lower.append(Character.toLowerCase(c));
+                ascii &= c <= 0x7F;
+            }
+        }
+        if (ascii) {
+            return lower.toString();
+        }
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder stripped = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                stripped.append(c);
+            }
+        }
+        return stripped.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import main.SessionPrincipal;
+
+/**
+ * SessionContext holds the principal of the logged-in user and is handed from
+ * page to page, so pages ask it who the user is instead of querying the
+ * database again.
+ *
+ * <p> When an admin, instructor or staff member changes a user's roles, bans
+ * or unbans them, or deletes them, the helper making the change calls
+ * {@link #invalidate(String)} once it is committed. Every session of that user
+ * then loads a fresh principal the next time it is asked for one; sessions of
+ * other users are not affected. Changes made by other clients of a shared
+ * database invalidate nothing here, so while the database is shared a
+ * principal older than {@code shared.refreshMillis} is loaded again too. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class SessionContext {
+    // Bumped for a user whenever their principal changes in the database
+    private static final ConcurrentHashMap<String, Long> GENERATIONS = new ConcurrentHashMap<>();
+
+    private final String userName;
+    private final DatabaseHelper databaseHelper = new DatabaseHelper();
+
+    // Guarded by this
+    private SessionPrincipal principal;
+    private long generation;
+    private long loadedAt = System.nanoTime();
+
+    private SessionContext(String userName, SessionPrincipal principal, long generation) {
+        this.userName = userName;
+        this.principal = principal;
+        this.generation = generation;
+    }
+
+    /**
+     * Checks a user's credentials and opens a session for them with one query.
+     *
+     * @param userName The username
+     * @param password The password
+     * @return The session, or null if the username or password is wrong
+     * @throws SQLException if a database access error occurs
+     */
+    public static SessionContext login(String userName, String password) throws SQLException {
+        long current = generationOf(userName);
+        SessionPrincipal principal = new DatabaseHelper().authenticate(userName, password);
+        return principal == null ? null : new SessionContext(userName, principal, current);
+    }
+
+    /**
+     * Opens a session for a user whose principal is loaded when first asked
+     * for, for pages that are only given a username.
+     *
+     * @param userName The username
+     * @return The session
+     */
+    public static SessionContext forUser(String userName) {
+        return new SessionContext(userName, null, 0);
+    }
+
+    /**
+     * Marks every session of a user as out of date.
+     *
+     * @param userName The user whose roles, ban state or account changed
+     */
+    public static void invalidate(String userName) {
+        GENERATIONS.merge(userName, 1L, Long::sum);
+    }
+
+    private static long generationOf(String userName) {
+        return GENERATIONS.getOrDefault(userName, 0L);
+    }
+
+    /**
+     * Gets the username of the session's user; unlike the principal it never changes.
+     *
+     * @return The username
+     */
+    public String getUserName() {
+        return userName;
+    }
+
+    /**
+     * Gets the session's principal, loading a fresh one first if the user has
+     * changed since it was loaded.
+     *
+     * @return The principal
+     * @throws SQLException if the principal has to be loaded and cannot be,
+     *         including when the user no longer exists
+     */
+    public synchronized SessionPrincipal getPrincipal() throws SQLException {
+        if (!isCurrent()) {
+            reload();
+        }
+        return principal;
+    }
+
+    /**
+     * Loads a fresh principal if the loaded one is out of date, telling a
+     * user who no longer exists apart from a database failure.
+     *
+     * @return false if the user has been deleted
+     * @throws SQLException if the principal has to be loaded and cannot be
+     */
+    public synchronized boolean ensureLoaded() throws SQLException {
+        return isCurrent() || tryReload();
+    }
+
+    /**
+     * Loads a fresh principal even if nothing invalidated the old one, for
+     * example to pick up a new unread message count.
+     *
+     * @return The fresh principal
+     * @throws SQLException if the principal cannot be loaded
+     */
+    public synchronized SessionPrincipal refresh() throws SQLException {
+        reload();
+        return principal;
+    }
+
+    /**
+     * Checks whether the loaded principal is still up to date.
+     *
+     * @return false if no principal is loaded yet, the user changed since, or
+     *         the database is shared and the principal is older than its refresh interval
+     */
+    public synchronized boolean isCurrent() {
+        return principal != null && generation == generationOf(userName) && !isExpired();
+    }
+
+    // Another client may have changed the user without invalidating anything here
+    private boolean isExpired() {
+        DatabaseConfig config = DatabaseConfig.get();
+        return config.isShared()
+                && System.nanoTime() - loadedAt > TimeUnit.MILLISECONDS.toNanos(config.getSharedRefreshMillis());
+    }
+
+    private void reload() throws SQLException {
+        if (!tryReload()) {
+            throw new SQLException("User no longer exists: " + userName);
+        }
+    }
+
+    private boolean tryReload() throws SQLException {
+        // Read before loading, so a change committed during the load forces another one
+        long current = generationOf(userName);
+        SessionPrincipal fresh = databaseHelper.loadPrincipal(userName);
+        if (fresh == null) {
+            return false;
+        }
+        principal = fresh;
+        generation = current;
+        loadedAt = System.nanoTime();
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+/**
+ * SharedDatabaseWatcher keeps the in-memory state of this process in step
+ * with the writes other clients make to a shared database.
+ *
+ * <p> The {@link BanRegistry}, the {@link SearchIndex}, the sessions of
+ * {@link SessionContext} and the {@link EventBus} are updated by the helpers of
+ * this process once their writes commit, which tells them nothing about the
+ * writes of another client of the same H2 TCP server. While the database is
+ * shared ({@link DatabaseConfig#isShared()}) the watcher checks it every
+ * {@code shared.refreshMillis}: it reloads the bans, and for each student
+ * banned or unbanned elsewhere it invalidates their sessions and publishes a
+ * {@link ChangeEvent.UserBanned}, so an open student page is rebuilt with the
+ * right actions; and once the row version has moved it rebuilds the search
+ * index. Role changes made elsewhere are picked up by {@link SessionContext},
+ * which reloads a principal older than the same interval. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class SharedDatabaseWatcher implements AutoCloseable {
+    /** How often a shared database is checked unless configured otherwise. */
+    public static final long DEFAULT_REFRESH_MILLIS = 5_000;
+
+    private final DataSource dataSource;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by this: the row version the search index was last brought up to
+    private long indexedVersion;
+
+    private SharedDatabaseWatcher(DataSource dataSource, long indexedVersion) {
+        this.dataSource = dataSource;
+        this.indexedVersion = indexedVersion;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "shared-database-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts checking the database of the shared connection pool at the
+     * configured interval. Call it once the search index has been built.
+     *
+     * @param config The configuration naming the interval
+     * @return The running watcher
+     * @throws SQLException if the current row version cannot be read
+     */
+    public static SharedDatabaseWatcher start(DatabaseConfig config) throws SQLException {
+        return start(ConnectionPool.getInstance(), config.getSharedRefreshMillis());
+    }
+
+    /**
+     * Starts checking a database at a given interval.
+     *
+     * @param dataSource   The database to check
+     * @param periodMillis The time between the end of one check and the start of the next
+     * @return The running watcher
+     * @throws SQLException if the current row version cannot be read
+     */
+    public static SharedDatabaseWatcher start(DataSource dataSource, long periodMillis) throws SQLException {
+        SharedDatabaseWatcher watcher = new SharedDatabaseWatcher(dataSource, latestVersion(dataSource));
+        watcher.timer.scheduleWithFixedDelay(watcher::checkInBackground, periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+        return watcher;
+    }
+
+    /**
+     * Checks the database once, as the watcher does at every interval.
+     *
+     * @throws SQLException if the database cannot be read
+     */
+    public synchronized void check() throws SQLException {
+        BanRegistry registry = BanRegistry.getInstance();
+        for (String studentUsername : registry.reload(dataSource)) {
+            SessionContext.invalidate(studentUsername);
+            EventBus.getInstance().publish(new ChangeEvent.UserBanned(studentUsername,
+                    registry.isBanned(studentUsername)));
+        }
+
+        // Any write, here or elsewhere, takes a version; read it first so a write during the rebuild is caught next time
+        long version = latestVersion(dataSource);
+        if (version != indexedVersion) {
+            SearchIndex.getInstance().rebuild(dataSource);
+            indexedVersion = version;
+        }
+    }
+
+    /**
+     * Stops checking the database.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void checkInBackground() {
+        try {
+            check();
+        } catch (SQLException | RuntimeException e) {
+            // Try again at the next interval
+            System.err.println("Could not check the shared database: " + e.getMessage());
+        }
+    }
+
+    private static long latestVersion(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return RowVersions.latest(connection);
+        }
+    }
+}
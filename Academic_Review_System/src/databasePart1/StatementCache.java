@@ -0,0 +1,215 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StatementCache keeps the prepared statements of one pooled connection open
+ * between calls so the same SQL is parsed only once per connection.
+ *
+ * <p> Statements are keyed by their SQL text and evicted least recently used
+ * first once the cache is full. A statement handed out by {@link #prepare} is
+ * removed from the cache while it is in use; closing it clears its parameters
+ * and puts it back instead of closing the underlying statement. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public class StatementCache {
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a cache for the given physical connection.
+     *
+     * @param physical The connection the statements are prepared on
+     * @param maxSize  Maximum number of idle statements kept open (0 disables caching)
+     */
+    public StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        // Access order makes iteration run from least to most recently used
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a prepared statement for the SQL, reusing a cached one when possible.
+     *
+     * @param sql   The SQL text
+     * @param owner The connection the caller sees; returned by getConnection() on the statement
+     * @return A statement whose close() returns it to this cache
+     * @throws SQLException if the statement could not be prepared
+     */
+    public synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        PreparedStatement statement = statements.remove(sql);
+        if (statement != null) {
+            hits++;
+        } else {
+            misses++;
+            statement = physical.prepareStatement(sql);
+        }
+        CachedStatement handler = new CachedStatement(sql, statement, owner);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, handler);
+    }
+
+    // Puts a statement back after its borrower closed it
+    private void giveBack(String sql, PreparedStatement statement) {
+        List<PreparedStatement> toClose = new ArrayList<>();
+        synchronized (this) {
+            if (closed || maxSize <= 0 || statements.containsKey(sql)) {
+                toClose.add(statement);
+            } else {
+                statements.put(sql, statement);
+                Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+                while (statements.size() > maxSize && it.hasNext()) {
+                    toClose.add(it.next().getValue());
+                    it.remove();
+                    evictions++;
+                }
+            }
+        }
+        for (PreparedStatement stale : toClose) {
+            closeQuietly(stale);
+        }
+    }
+
+    /**
+     * Closes every cached statement. Statements still in use are closed when
+     * their borrowers close them.
+     */
+    public void close() {
+        List<PreparedStatement> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (PreparedStatement statement : toClose) {
+            closeQuietly(statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // --- Cache statistics ---
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * One use of a cached statement. close() resets the statement and hands it
+     * back to the cache; any other call after that fails like a closed statement.
+     */
+    private class CachedStatement implements InvocationHandler {
+        private final String sql;
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private boolean returned = false;
+
+        CachedStatement(String sql, PreparedStatement statement, Connection owner) {
+            this.sql = sql;
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        if (reset()) {
+                            giveBack(sql, statement);
+                        } else {
+                            closeQuietly(statement);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + statement;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Statement has already been closed.");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Clears what the borrower left behind so the next use starts fresh
+        private boolean reset() {
+            try {
+                if (statement.isClosed()) {
+                    return false;
+                }
+                ResultSet open = statement.getResultSet();
+                if (open != null) {
+                    open.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}
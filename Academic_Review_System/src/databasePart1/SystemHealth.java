@@ -0,0 +1,243 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SystemHealth is one reading of how the application and its database are
+ * doing: statement rates and latencies from {@link QueryStats}, connection
+ * pool use, cache hit ratios, table sizes, the size of the H2 file, and the
+ * slowest recent {@link UiAction}s.
+ *
+ * <p> Rates are computed against the previous reading, so a dashboard takes
+ * one reading per refresh and passes the last one in. Taking a reading runs
+ * two queries against H2's information schema and should be done off the
+ * JavaFX Application Thread. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class SystemHealth {
+    /** Slowest actions and N+1 warnings kept in a reading. */
+    public static final int TOP_ACTIONS = 10;
+
+    private final long takenAtNanos = System.nanoTime();
+    private final long takenAtMillis = System.currentTimeMillis();
+    private final List<StatementRate> statements = new ArrayList<>();
+    private final Map<String, Long> executionsByShape = new HashMap<>();
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int maxConnections;
+    private final long leakCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final Map<String, Long> tableRows = new LinkedHashMap<>();
+    private long fileSizeBytes = -1;
+    private double h2CacheHitRatio = -1;
+    private final List<UiAction> slowestActions = new ArrayList<>();
+    private final List<QueryStats.NPlusOne> nPlusOneWarnings;
+
+    /**
+     * The rate and latency of one statement shape.
+     */
+    public static final class StatementRate {
+        private final String shape;
+        private final long executions;
+        private final double perSecond;
+        private final long errors;
+        private final long p50Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        StatementRate(QueryStats.ShapeStats stats, double perSecond) {
+            this.shape = stats.getShape();
+            this.executions = stats.getExecutions();
+            this.perSecond = perSecond;
+            this.errors = stats.getErrors();
+            this.p50Micros = stats.getLatency().getPercentileMicros(50);
+            this.p99Micros = stats.getLatency().getPercentileMicros(99);
+            this.maxMicros = stats.getLatency().getMaxMicros();
+        }
+
+        public String getShape() { return shape; }
+        public long getExecutions() { return executions; }
+        public double getPerSecond() { return perSecond; }
+        public long getErrors() { return errors; }
+        public long getP50Micros() { return p50Micros; }
+        public long getP99Micros() { return p99Micros; }
+        public long getMaxMicros() { return maxMicros; }
+    }
+
+    private SystemHealth(ConnectionPool pool, QueryStats stats, SystemHealth previous) {
+        double seconds = previous != null ? (takenAtNanos - previous.takenAtNanos) / 1e9 : 0;
+        for (QueryStats.ShapeStats shape : stats.getShapes()) {
+            long executions = shape.getExecutions();
+            executionsByShape.put(shape.getShape(), executions);
+            double perSecond = 0;
+            if (seconds > 0) {
+                long before = previous.executionsByShape.getOrDefault(shape.getShape(), 0L);
+                perSecond = Math.max(0, executions - before) / seconds;
+            }
+            statements.add(new StatementRate(shape, perSecond));
+        }
+
+        activeConnections = pool.getActiveCount();
+        idleConnections = pool.getIdleCount();
+        maxConnections = pool.getMaxSize();
+        leakCount = pool.getLeakCount();
+        statementCacheHits = pool.getStatementCacheHits();
+        statementCacheMisses = pool.getStatementCacheMisses();
+
+        List<UiAction> recent = new ArrayList<>(stats.getRecentActions());
+        recent.sort(Comparator.comparingLong(UiAction::getDurationNanos).reversed());
+        slowestActions.addAll(recent.subList(0, Math.min(TOP_ACTIONS, recent.size())));
+        List<QueryStats.NPlusOne> warnings = stats.getNPlusOneWarnings();
+        nPlusOneWarnings = warnings.subList(0, Math.min(TOP_ACTIONS, warnings.size()));
+    }
+
+    /**
+     * Takes a reading of the shared pool, the shared query statistics and the
+     * database.
+     *
+     * @param pool     The pool whose use and statement cache are reported, and whose database is read
+     * @param previous The previous reading, to compute rates against, or null for the first
+     * @return The reading
+     * @throws SQLException if the database cannot be read
+     */
+    public static SystemHealth take(ConnectionPool pool, SystemHealth previous) throws SQLException {
+        SystemHealth health = new SystemHealth(pool, QueryStats.getInstance(), previous);
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT TABLE_NAME, ROW_COUNT_ESTIMATE "
+                    + "FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' "
+                    + "ORDER BY TABLE_NAME")) {
+                while (rs.next()) {
+                    health.tableRows.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+            // H2 reports its file and page cache through the settings table, also over TCP
+            try (ResultSet rs = statement.executeQuery("SELECT SETTING_NAME, SETTING_VALUE "
+                    + "FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME IN ('info.FILE_SIZE', 'info.CACHE_HIT_RATIO')")) {
+                while (rs.next()) {
+                    try {
+                        if (rs.getString(1).equals("info.FILE_SIZE")) {
+                            health.fileSizeBytes = Long.parseLong(rs.getString(2).trim());
+                        } else {
+                            health.h2CacheHitRatio = Double.parseDouble(rs.getString(2).trim()) / 100;
+                        }
+                    } catch (NumberFormatException e) {
+                        // Left unknown
+                    }
+                }
+            }
+        }
+        return health;
+    }
+
+    public long getTakenAtMillis() {
+        return takenAtMillis;
+    }
+
+    /**
+     * Gets the statement shapes seen so far.
+     *
+     * @return The shapes, the one with the most total execution time first
+     */
+    public List<StatementRate> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Gets the statements executed per second over all shapes since the previous reading.
+     *
+     * @return The rate, 0 for a first reading
+     */
+    public double getStatementsPerSecond() {
+        double total = 0;
+        for (StatementRate rate : statements) {
+            total += rate.getPerSecond();
+        }
+        return total;
+    }
+
+    public int getActiveConnections() { return activeConnections; }
+    public int getIdleConnections() { return idleConnections; }
+    public int getMaxConnections() { return maxConnections; }
+    public long getLeakCount() { return leakCount; }
+
+    /**
+     * Gets the share of the pool's maximum size that is leased out.
+     *
+     * @return A ratio from 0 to 1
+     */
+    public double getPoolUtilization() {
+        return maxConnections == 0 ? 0 : (double) activeConnections / maxConnections;
+    }
+
+    /**
+     * Gets the share of prepareStatement calls served by the statement caches.
+     *
+     * @return A ratio from 0 to 1, or -1 before any statement was prepared
+     */
+    public double getStatementCacheHitRatio() {
+        long total = statementCacheHits + statementCacheMisses;
+        return total == 0 ? -1 : (double) statementCacheHits / total;
+    }
+
+    /**
+     * Gets the share of page reads H2 served from its page cache.
+     *
+     * @return A ratio from 0 to 1, or -1 if the database does not report it
+     */
+    public double getH2CacheHitRatio() {
+        return h2CacheHitRatio;
+    }
+
+    /**
+     * Gets the estimated number of rows of each application table.
+     *
+     * @return Rows by table name, in name order
+     */
+    public Map<String, Long> getTableRows() {
+        return Collections.unmodifiableMap(tableRows);
+    }
+
+    /**
+     * Gets the size of the H2 database file.
+     *
+     * @return The size in bytes, or -1 for an in-memory database
+     */
+    public long getFileSizeBytes() {
+        return fileSizeBytes;
+    }
+
+    /**
+     * Gets the slowest of the recently finished UI actions.
+     *
+     * @return Up to {@value #TOP_ACTIONS} actions, the slowest first
+     */
+    public List<UiAction> getSlowestActions() {
+        return Collections.unmodifiableList(slowestActions);
+    }
+
+    /**
+     * Gets the most recent N+1 warnings.
+     *
+     * @return Up to {@value #TOP_ACTIONS} warnings, newest first
+     */
+    public List<QueryStats.NPlusOne> getNPlusOneWarnings() {
+        return Collections.unmodifiableList(nPlusOneWarnings);
+    }
+}
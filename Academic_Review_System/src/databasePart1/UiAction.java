@@ -0,0 +1,285 @@
+package databasePart1;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * UiAction names one thing the user did, such as opening the inbox or running
+ * a search, so the database calls it causes can be counted together.
+ *
+ * <p> An action is open on the thread that began it until it is closed, and
+ * {@link QueryStats} counts every statement run on that thread meanwhile
+ * against it and the actions it is nested in. Calls handed to
+ * {@link AsyncDatabase} while an action is open count towards it too; the
+ * action finishes when it has been closed and the last of those calls has
+ * returned, so its duration covers loading the data the user waits for, and
+ * its scope time is how long the thread that began it was busy. </p>
+ *
+ * <p> A page that opens a dialog with {@code showAndWait()} keeps running in
+ * a nested event loop until the dialog closes. {@link #detachAll()} ends the
+ * open actions of the thread early for that case, so the clicks made inside
+ * the dialog are not counted as part of the click that opened it. </p>
+ *
+ * <p> Each action is recorded as {@link FlightRecording} events when Java
+ * Flight Recorder is running. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class UiAction implements AutoCloseable {
+    private static final ThreadLocal<UiAction> CURRENT = new ThreadLocal<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id = NEXT_ID.incrementAndGet();
+    private final String name;
+    private final UiAction parent;
+    private final Thread thread = Thread.currentThread();
+    private final long startedAt = System.nanoTime();
+    private final long startedAtMillis = System.currentTimeMillis();
+    // The open scope plus every async call still running on its behalf
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final Map<String, Integer> statements = new HashMap<>();
+    private int statementCount = 0;
+    private long statementNanos = 0;
+    private volatile long scopeNanos = -1;
+    private volatile long durationNanos = -1;
+    private boolean scoped = true;
+    private final FlightRecording.Action event = FlightRecording.beginAction();
+    private final FlightRecording.ActionScope scopeEvent = FlightRecording.beginActionScope();
+
+    private UiAction(String name, UiAction parent) {
+        this.name = name;
+        this.parent = parent;
+        if (parent != null) {
+            parent.retain();
+        }
+    }
+
+    /**
+     * Begins an action on the current thread, nested in the action already
+     * open there, if any. Close it when the work it names is done.
+     *
+     * @param name What the user did, for example "Open inbox"
+     * @return The open action
+     */
+    public static UiAction begin(String name) {
+        UiAction action = new UiAction(name, CURRENT.get());
+        CURRENT.set(action);
+        return action;
+    }
+
+    /**
+     * Runs some work as one action.
+     *
+     * @param name What the user did
+     * @param work The work, typically the body of an event handler
+     */
+    public static void run(String name, Runnable work) {
+        call(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs some work that returns a result as one action.
+     *
+     * @param <T>  The type of the result
+     * @param name What the user did
+     * @param work The work
+     * @return The result of the work
+     */
+    @SuppressWarnings("try") // The action only needs to be open while the work runs
+    public static <T> T call(String name, Supplier<T> work) {
+        try (UiAction action = begin(name)) {
+            return work.get();
+        }
+    }
+
+    /**
+     * Gets the innermost action open on the current thread.
+     *
+     * @return The action, or null if none is open
+     */
+    public static UiAction current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps work so it runs inside the current action on whatever thread runs
+     * it, and keeps the action from finishing until it has run. Without an
+     * open action the work is returned as it is.
+     *
+     * @param work Work to hand to another thread
+     * @return The work bound to the current action
+     */
+    public static Runnable propagate(Runnable work) {
+        UiAction action = CURRENT.get();
+        if (action == null) {
+            return work;
+        }
+        action.retain();
+        return () -> {
+            UiAction previous = CURRENT.get();
+            CURRENT.set(action);
+            try {
+                work.run();
+            } finally {
+                CURRENT.set(previous);
+                action.release();
+            }
+        };
+    }
+
+    /**
+     * Ends every action open on the current thread without waiting for the
+     * work that began them to return, as when that work is about to wait in
+     * a nested event loop. Closing them later does nothing more.
+     */
+    public static void detachAll() {
+        UiAction action = CURRENT.get();
+        while (action != null && action.thread == Thread.currentThread() && action.scoped) {
+            action.endScope();
+            action = CURRENT.get();
+        }
+    }
+
+    /**
+     * Ends the action's scope on the thread that began it. The action
+     * finishes once the calls it handed to other threads have returned.
+     */
+    @Override
+    public void close() {
+        endScope();
+    }
+
+    private void endScope() {
+        if (Thread.currentThread() != thread || !scoped) {
+            return;
+        }
+        scoped = false;
+        scopeNanos = System.nanoTime() - startedAt;
+        FlightRecording.commitActionScope(scopeEvent, this);
+        if (CURRENT.get() == this) {
+            CURRENT.set(parent);
+        }
+        release();
+    }
+
+    private void retain() {
+        pending.incrementAndGet();
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() == 0) {
+            durationNanos = System.nanoTime() - startedAt;
+            FlightRecording.commitAction(event, this, thread);
+            QueryStats.getInstance().finished(this);
+            if (parent != null) {
+                parent.release();
+            }
+        }
+    }
+
+    // Counts one statement against this action and the actions it is nested in
+    void countStatement(String shape, long nanos) {
+        for (UiAction action = this; action != null; action = action.parent) {
+            synchronized (action) {
+                action.statements.merge(shape, 1, Integer::sum);
+                action.statementCount++;
+                action.statementNanos += nanos;
+            }
+        }
+    }
+
+    /**
+     * Gets a number that identifies the action within this run of the application.
+     *
+     * @return The action's ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the action this one was begun inside of.
+     *
+     * @return The enclosing action, or null for a top-level action
+     */
+    public UiAction getParent() {
+        return parent;
+    }
+
+    /**
+     * Gets the name of the thread that began the action, normally the JavaFX
+     * Application Thread.
+     *
+     * @return The thread name
+     */
+    public String getThreadName() {
+        return thread.getName();
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    /**
+     * Gets how long the thread that began the action spent inside it.
+     *
+     * @return The time in nanoseconds, or -1 while the scope is open
+     */
+    public long getScopeNanos() {
+        return scopeNanos;
+    }
+
+    /**
+     * Gets how long the action took, including the calls it handed to other threads.
+     *
+     * @return The time in nanoseconds, or -1 until the action has finished
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isFinished() {
+        return durationNanos >= 0;
+    }
+
+    public synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Gets the time spent executing statements, on any thread, for the action.
+     *
+     * @return The total in nanoseconds
+     */
+    public synchronized long getStatementNanos() {
+        return statementNanos;
+    }
+
+    /**
+     * Gets how often each statement shape ran for the action.
+     *
+     * @return Executions by shape
+     */
+    public synchronized Map<String, Integer> getStatementCounts() {
+        return Collections.unmodifiableMap(new HashMap<>(statements));
+    }
+
+    @Override
+    public String toString() {
+        return name + " #" + id;
+    }
+}
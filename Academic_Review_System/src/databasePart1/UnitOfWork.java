@@ -0,0 +1,441 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import databasePart1.AsyncDatabase.SqlAction;
+import databasePart1.AsyncDatabase.SqlCall;
+
+/**
+ * UnitOfWork runs several database calls as one transaction with a single
+ * commit, even when the calls go through different helpers.
+ *
+ * <p> While a unit runs, every helper call made on the same thread borrows the
+ * unit's connection instead of a fresh one from the {@link ConnectionPool}.
+ * That connection ignores the helpers' own {@code setAutoCommit},
+ * {@code commit} and {@code close} calls, so a helper that manages its own
+ * transaction simply joins the unit; a helper that calls {@code rollback()}
+ * marks the whole unit for rollback. Units started inside a unit join the
+ * outer one, and only the outermost unit commits. </p>
+ *
+ * <p> A unit that fails on a lock timeout, deadlock or concurrent update is
+ * rolled back and run again from the start, a few times with a short
+ * randomized back-off, so the work must not have side effects outside the
+ * database. </p>
+ *
+ * <p> {@link #submit(SqlAction)} queues small independent writes instead of
+ * running them at once. A single writer drains the queue and commits every
+ * write that arrived while the previous commit was in progress together, so a
+ * burst of writes pays for one durable commit rather than one each. Each write
+ * runs under its own savepoint, so a failing write does not undo the others
+ * in its group. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class UnitOfWork {
+    /** Times a unit is run before a conflict is reported to the caller. */
+    public static final int MAX_ATTEMPTS = 4;
+    /** Most queued writes committed together by {@link #submit(SqlAction)}. */
+    public static final int MAX_GROUP_SIZE = 256;
+    private static final long BACKOFF_MILLIS = 10;
+
+    // H2 error codes that mean "try again": lock timeout, deadlock, concurrent update
+    private static final int LOCK_TIMEOUT = 50200;
+    private static final int DEADLOCK = 40001;
+    private static final int CONCURRENT_UPDATE = 90131;
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final ConcurrentLinkedQueue<QueuedWrite> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean FLUSHING = new AtomicBoolean();
+
+    private static final AtomicLong COMMITS = new AtomicLong();
+    private static final AtomicLong ROLLBACKS = new AtomicLong();
+    private static final AtomicLong RETRIES = new AtomicLong();
+    private static final AtomicLong GROUPED_WRITES = new AtomicLong();
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Runs the work as one transaction and returns its result. Joins the unit
+     * already running on this thread, if any.
+     *
+     * @param <T>  The type of the result
+     * @param work The database calls to run together
+     * @return The result of the work
+     * @throws SQLException if the work fails, in which case nothing it wrote is kept
+     */
+    public static <T> T call(SqlCall<T> work) throws SQLException {
+        if (CURRENT.get() != null) {
+            return work.call();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(work);
+            } catch (SQLException e) {
+                if (attempt >= MAX_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                RETRIES.incrementAndGet();
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Runs the work as one transaction. Joins the unit already running on this
+     * thread, if any.
+     *
+     * @param work The database calls to run together
+     * @throws SQLException if the work fails, in which case nothing it wrote is kept
+     */
+    public static void run(SqlAction work) throws SQLException {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues a small write to be committed together with the other writes
+     * queued around the same time. The write runs on a background thread.
+     *
+     * @param write The write, which must not depend on the thread it runs on
+     * @return A future completed once the write is durable, or exceptionally
+     *         if it failed and was undone
+     */
+    public static CompletableFuture<Void> submit(SqlAction write) {
+        QueuedWrite queued = new QueuedWrite(write);
+        QUEUE.add(queued);
+        scheduleFlush();
+        return queued.future;
+    }
+
+    /**
+     * Checks whether a unit is running on the calling thread.
+     *
+     * @return true if helper calls made now join a unit of work
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Runs an action once the work done so far is committed, for example to
+     * update an in-memory cache only when the change it mirrors is durable.
+     * Inside a unit the action waits for the outermost commit and is dropped if
+     * the unit rolls back; outside a unit the change has already been committed,
+     * so the action runs at once.
+     *
+     * @param action The action to run after the commit
+     */
+    public static void afterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs an action once the unit running on this thread has ended, whether
+     * it committed or rolled back, for example to release a hold that must
+     * last exactly as long as the transaction. Outside a unit the action runs
+     * at once.
+     *
+     * @param action The action to run when the unit ends
+     */
+    static void whenDone(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.whenDone.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Borrows the connection for one helper call: the running unit's
+     * connection if there is one, otherwise a pooled connection. Closing it
+     * gives it back either way.
+     *
+     * @return A connection for the call
+     * @throws SQLException if no connection could be borrowed
+     */
+    static Connection connection() throws SQLException {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.shared : ConnectionPool.getInstance().getConnection();
+    }
+
+    /**
+     * Decides whether a failure is a conflict with another transaction that
+     * may succeed when the work is run again.
+     *
+     * @param e The failure
+     * @return true for lock timeouts, deadlocks, serialization failures and concurrent updates
+     */
+    public static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                for (SQLException next = sql; next != null; next = next.getNextException()) {
+                    if (next instanceof SQLTransactionRollbackException
+                            || "40001".equals(next.getSQLState())
+                            || "HYT00".equals(next.getSQLState())
+                            || next.getErrorCode() == LOCK_TIMEOUT
+                            || next.getErrorCode() == DEADLOCK
+                            || next.getErrorCode() == CONCURRENT_UPDATE) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // --- Statistics ---
+
+    public static long getCommitCount() {
+        return COMMITS.get();
+    }
+
+    public static long getRollbackCount() {
+        return ROLLBACKS.get();
+    }
+
+    public static long getRetryCount() {
+        return RETRIES.get();
+    }
+
+    /**
+     * Counts writes queued with {@link #submit(SqlAction)} that have been committed.
+     *
+     * @return Number of committed queued writes
+     */
+    public static long getGroupedWriteCount() {
+        return GROUPED_WRITES.get();
+    }
+
+    private static <T> T attempt(SqlCall<T> work) throws SQLException {
+        try (Connection connection = ConnectionPool.getInstance().getConnection()) {
+            connection.setAutoCommit(false);
+            Scope scope = new Scope(connection);
+            CURRENT.set(scope);
+            try {
+                T result = work.call();
+                if (scope.rollbackOnly) {
+                    throw new SQLException("Unit of work was rolled back by one of its calls.");
+                }
+                connection.commit();
+                COMMITS.incrementAndGet();
+                CURRENT.remove();
+                scope.runAfterCommit();
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                rollback(connection, e);
+                throw e;
+            } finally {
+                CURRENT.remove();
+                scope.runWhenDone();
+            }
+        }
+    }
+
+    private static void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+            ROLLBACKS.incrementAndGet();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void backOff(int attempt) throws SQLException {
+        long millis = BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting to retry a unit of work.", e);
+        }
+    }
+
+    // --- Group commit ---
+
+    private static void scheduleFlush() {
+        if (FLUSHING.compareAndSet(false, true)) {
+            AsyncDatabase.executor().execute(UnitOfWork::flush);
+        }
+    }
+
+    // Commits queued writes group by group until the queue is empty
+    private static void flush() {
+        try {
+            List<QueuedWrite> group = new ArrayList<>();
+            QueuedWrite next;
+            while ((next = QUEUE.poll()) != null) {
+                group.add(next);
+                if (group.size() == MAX_GROUP_SIZE || QUEUE.isEmpty()) {
+                    commitGroup(group);
+                    group = new ArrayList<>();
+                }
+            }
+        } finally {
+            FLUSHING.set(false);
+        }
+        // A write queued after the last poll but before FLUSHING was cleared
+        if (!QUEUE.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private static void commitGroup(List<QueuedWrite> group) {
+        try {
+            run(() -> {
+                Scope scope = CURRENT.get();
+                for (QueuedWrite write : group) {
+                    write.failure = null;
+                    int actions = scope.afterCommit.size();
+                    Savepoint savepoint = scope.physical.setSavepoint();
+                    try {
+                        write.action.run();
+                        if (scope.rollbackOnly) {
+                            write.failure = new SQLException("Write was rolled back by the helper that made it.");
+                        }
+                    } catch (SQLException e) {
+                        if (isRetryable(e)) {
+                            throw e; // Run the whole group again
+                        }
+                        write.failure = e;
+                    } catch (RuntimeException e) {
+                        write.failure = e;
+                    }
+                    if (write.failure != null) {
+                        scope.physical.rollback(savepoint);
+                        scope.rollbackOnly = false;
+                        // What the undone write registered to run after the commit no longer applies
+                        scope.afterCommit.subList(actions, scope.afterCommit.size()).clear();
+                    } else {
+                        scope.physical.releaseSavepoint(savepoint);
+                    }
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            for (QueuedWrite write : group) {
+                write.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (QueuedWrite write : group) {
+            if (write.failure == null) {
+                GROUPED_WRITES.incrementAndGet();
+                write.future.complete(null);
+            } else {
+                write.future.completeExceptionally(write.failure);
+            }
+        }
+    }
+
+    /**
+     * A write waiting in the group commit queue.
+     */
+    private static class QueuedWrite {
+        private final SqlAction action;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private Exception failure;
+
+        QueuedWrite(SqlAction action) {
+            this.action = action;
+        }
+    }
+
+    /**
+     * The transaction of the unit running on a thread. Helpers see the shared
+     * proxy, which keeps them from committing, rolling back or returning the
+     * connection on their own.
+     */
+    private static class Scope implements InvocationHandler {
+        private final Connection physical;
+        private final Connection shared;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private final List<Runnable> whenDone = new ArrayList<>();
+        private boolean rollbackOnly = false;
+
+        Scope(Connection physical) {
+            this.physical = physical;
+            this.shared = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+        }
+
+        // The work is already committed, so a failing action must not fail the unit
+        void runAfterCommit() {
+            for (Runnable action : afterCommit) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        // Runs whatever the outcome, so one failing action must not skip the others
+        void runWhenDone() {
+            for (Runnable action : whenDone) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null; // The unit decides when the transaction ends
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork" + physical;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
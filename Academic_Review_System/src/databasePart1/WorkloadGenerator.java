@@ -0,0 +1,992 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+/**
+ * WorkloadGenerator fills a database with a forum-sized, realistic-looking
+ * data set: users with a mix of roles, questions with reference chains,
+ * answers and accepted answers, reviews, trusted-reviewer edges with a
+ * weightage, message conversations, reports, bans and admin requests.
+ *
+ * <p> Activity is skewed the way a real forum's is. Authors, reviewers and
+ * message senders are drawn from a Zipf distribution over the users, so a few
+ * users write most of the content, and answers and reviews are drawn from a
+ * Zipf distribution over the questions, so a few questions are hot. Both
+ * exponents can be set; 0 gives a uniform distribution. </p>
+ *
+ * <p> Rows are generated one at a time and sent in batched inserts, committing
+ * every batch, so a million questions never become one transaction. The
+ * conversation summaries the helpers maintain per message are computed along
+ * the way and inserted in bulk. The same seed always produces the same data.
+ * The {@link BanRegistry} and {@link SearchIndex} are not updated; reload them
+ * if they were already loaded. </p>
+ *
+ * <p> Every username starts with the generator's prefix, which must not be in
+ * use yet, so the data can live next to other data and be removed again with
+ * {@link #clear(DataSource)}. A WorkloadGenerator is immutable; every method
+ * that sets an option returns a new generator. </p>
+ *
+ * <p> Usage from the command line: {@code WorkloadGenerator <questions>
+ * [name=value ...]} seeds the configured database, where the names are
+ * users, reviewers, instructors, staff, answersPerQuestion,
+ * reviewsPerQuestion, messagesPerQuestion, authorSkew, questionSkew, seed and
+ * prefix. {@code WorkloadGenerator --clear [prefix=...]} removes the data
+ * again. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @author Team 60
+ * @version 1.0
+ * @since 2025-04-01
+ */
+public final class WorkloadGenerator {
+    /**
+     * The password of every generated user.
+     */
+    public static final String PASSWORD = "Passw0rd!";
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String DEFAULT_PREFIX = "gen_";
+    private static final long START_MILLIS = Timestamp.valueOf("2025-01-01 00:00:00").getTime();
+    // One question a minute; answers, reviews and messages fall in the same window
+    private static final long QUESTION_SPACING_MILLIS = 60_000;
+    private static final double REFERENCE_SHARE = 0.1;
+    private static final int REFERENCE_WINDOW = 50;
+    private static final double ACCEPTED_SHARE = 0.4;
+    private static final int TRUSTED_PER_STUDENT = 3;
+    private static final int PARTNERS_PER_USER = 8;
+    private static final double UNREAD_SHARE = 0.1;
+    private static final double REPORT_SHARE = 0.005;
+    private static final double BAN_SHARE = 0.02;
+    private static final double REQUESTS_PER_QUESTION = 0.05;
+    private static final double OPEN_REQUEST_SHARE = 0.2;
+
+    private static final String[] WORDS = {
+        "how", "do", "i", "the", "a", "in", "java", "code", "error", "when", "with", "my", "to", "is", "this",
+        "class", "method", "why", "does", "not", "work", "for", "loop", "array", "list", "test", "and", "of",
+        "recursion", "inheritance", "polymorphism", "interface", "exception", "thread", "stream", "lambda",
+        "hashmap", "iterator", "generics", "constructor", "database", "query", "index", "junit", "javafx",
+        "scene", "button", "layout", "binding", "sorting", "algorithm", "complexity", "pointer", "memory"
+    };
+
+    private int questions;
+    private int users;
+    private double reviewerShare = 0.1;
+    private double instructorShare = 0.02;
+    private double staffShare = 0.02;
+    private double answersPerQuestion = 2.0;
+    private double reviewsPerQuestion = 0.5;
+    private double messagesPerQuestion = 1.0;
+    private double authorSkew = 1.1;
+    private double questionSkew = 1.0;
+    private long seed = 42;
+    private String prefix = DEFAULT_PREFIX;
+
+    private WorkloadGenerator() {
+    }
+
+    private WorkloadGenerator copy() {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.questions = questions;
+        generator.users = users;
+        generator.reviewerShare = reviewerShare;
+        generator.instructorShare = instructorShare;
+        generator.staffShare = staffShare;
+        generator.answersPerQuestion = answersPerQuestion;
+        generator.reviewsPerQuestion = reviewsPerQuestion;
+        generator.messagesPerQuestion = messagesPerQuestion;
+        generator.authorSkew = authorSkew;
+        generator.questionSkew = questionSkew;
+        generator.seed = seed;
+        generator.prefix = prefix;
+        return generator;
+    }
+
+    /**
+     * Gets a generator for a number of questions, with one user per twenty
+     * questions (at least twenty) and the default shares and skews.
+     *
+     * @param questions The number of questions to generate
+     * @return The generator
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public static WorkloadGenerator forQuestions(int questions) {
+        if (questions <= 0) {
+            throw new IllegalArgumentException("The number of questions must be positive");
+        }
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.questions = questions;
+        generator.users = Math.max(20, questions / 20);
+        return generator;
+    }
+
+    /**
+     * Sets the number of users. The first is an admin.
+     *
+     * @param users The number of users, at least two
+     * @return The new generator
+     */
+    public WorkloadGenerator users(int users) {
+        if (users < 2) {
+            throw new IllegalArgumentException("At least two users are needed");
+        }
+        WorkloadGenerator generator = copy();
+        generator.users = users;
+        return generator;
+    }
+
+    /**
+     * Sets the role mix. Reviewers are students who also review; the users
+     * left over are plain students.
+     *
+     * @param reviewers   Share of users who are students and reviewers
+     * @param instructors Share of users who are instructors
+     * @param staff       Share of users who are staff
+     * @return The new generator
+     */
+    public WorkloadGenerator roles(double reviewers, double instructors, double staff) {
+        if (reviewers < 0 || instructors < 0 || staff < 0 || reviewers + instructors + staff > 1) {
+            throw new IllegalArgumentException("Role shares must be between 0 and 1 and add up to at most 1");
+        }
+        WorkloadGenerator generator = copy();
+        generator.reviewerShare = reviewers;
+        generator.instructorShare = instructors;
+        generator.staffShare = staff;
+        return generator;
+    }
+
+    /**
+     * Sets the average number of answers per question.
+     *
+     * @param answers Answers per question
+     * @return The new generator
+     */
+    public WorkloadGenerator answersPerQuestion(double answers) {
+        WorkloadGenerator generator = copy();
+        generator.answersPerQuestion = nonNegative(answers);
+        return generator;
+    }
+
+    /**
+     * Sets the average number of reviews per question, half of them on one of its answers.
+     *
+     * @param reviews Reviews per question
+     * @return The new generator
+     */
+    public WorkloadGenerator reviewsPerQuestion(double reviews) {
+        WorkloadGenerator generator = copy();
+        generator.reviewsPerQuestion = nonNegative(reviews);
+        return generator;
+    }
+
+    /**
+     * Sets the number of messages per question.
+     *
+     * @param messages Messages per question
+     * @return The new generator
+     */
+    public WorkloadGenerator messagesPerQuestion(double messages) {
+        WorkloadGenerator generator = copy();
+        generator.messagesPerQuestion = nonNegative(messages);
+        return generator;
+    }
+
+    /**
+     * Sets the Zipf exponent of the users who write questions, answers, reviews
+     * and messages.
+     *
+     * @param skew The exponent; 0 is uniform, around 1 is a typical power law
+     * @return The new generator
+     */
+    public WorkloadGenerator authorSkew(double skew) {
+        WorkloadGenerator generator = copy();
+        generator.authorSkew = nonNegative(skew);
+        return generator;
+    }
+
+    /**
+     * Sets the Zipf exponent of the questions that receive answers and reviews.
+     *
+     * @param skew The exponent; 0 is uniform, higher makes a few questions hotter
+     * @return The new generator
+     */
+    public WorkloadGenerator questionSkew(double skew) {
+        WorkloadGenerator generator = copy();
+        generator.questionSkew = nonNegative(skew);
+        return generator;
+    }
+
+    /**
+     * Sets the random seed.
+     *
+     * @param seed The seed
+     * @return The new generator
+     */
+    public WorkloadGenerator seed(long seed) {
+        WorkloadGenerator generator = copy();
+        generator.seed = seed;
+        return generator;
+    }
+
+    /**
+     * Sets the prefix of every generated username.
+     *
+     * @param prefix The prefix, for example {@code "p5gen_"}
+     * @return The new generator
+     */
+    public WorkloadGenerator prefix(String prefix) {
+        if (prefix == null || prefix.isEmpty() || !prefix.matches("[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("The prefix must be letters, digits and underscores");
+        }
+        WorkloadGenerator generator = copy();
+        generator.prefix = prefix;
+        return generator;
+    }
+
+    /**
+     * Gets the number of questions to generate.
+     * @return The number of questions
+     */
+    public int getQuestions() {
+        return questions;
+    }
+
+    /**
+     * Gets the number of users to generate.
+     * @return The number of users
+     */
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Gets the prefix of every generated username.
+     * @return The prefix
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gets the name of a generated user. User 0 is the admin, and the most
+     * active users have the lowest numbers.
+     *
+     * @param user The user's number, from 0 to {@link #getUsers()} - 1
+     * @return The username
+     */
+    public String userName(int user) {
+        return prefix + user;
+    }
+
+    /**
+     * Gets the roles of a generated user.
+     *
+     * @param user The user's number
+     * @return The comma-separated roles, as stored in cse360users
+     */
+    public String rolesOf(int user) {
+        if (user == 0) {
+            return "admin";
+        }
+        // Spread each role evenly over the activity ranks
+        double position = (user * 0.6180339887) % 1.0;
+        if (position < reviewerShare) {
+            return "student,reviewer";
+        } else if (position < reviewerShare + instructorShare) {
+            return "instructor";
+        } else if (position < reviewerShare + instructorShare + staffShare) {
+            return "staff";
+        }
+        return "student";
+    }
+
+    /**
+     * What one run generated.
+     */
+    public static final class Result {
+        private final int users;
+        private final int questions;
+        private final int answers;
+        private final int acceptedAnswers;
+        private final int reviews;
+        private final int trustedReviewers;
+        private final int messages;
+        private final int reports;
+        private final int bans;
+        private final int requests;
+
+        private Result(int[] counts) {
+            users = counts[0];
+            questions = counts[1];
+            answers = counts[2];
+            acceptedAnswers = counts[3];
+            reviews = counts[4];
+            trustedReviewers = counts[5];
+            messages = counts[6];
+            reports = counts[7];
+            bans = counts[8];
+            requests = counts[9];
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public int getQuestions() {
+            return questions;
+        }
+
+        public int getAnswers() {
+            return answers;
+        }
+
+        public int getAcceptedAnswers() {
+            return acceptedAnswers;
+        }
+
+        public int getReviews() {
+            return reviews;
+        }
+
+        public int getTrustedReviewers() {
+            return trustedReviewers;
+        }
+
+        public int getMessages() {
+            return messages;
+        }
+
+        public int getReports() {
+            return reports;
+        }
+
+        public int getBans() {
+            return bans;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        /**
+         * Gets the total number of rows inserted into the main tables.
+         * @return The row count
+         */
+        public long getTotalRows() {
+            return (long) users + questions + answers + reviews + trustedReviewers + messages + reports + bans + requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d users, %,d questions, %,d answers (%,d accepted), %,d reviews, "
+                    + "%,d trusted reviewers, %,d messages, %,d reports, %,d bans, %,d admin requests",
+                    users, questions, answers, acceptedAnswers, reviews, trustedReviewers, messages, reports, bans, requests);
+        }
+    }
+
+    /**
+     * Generates the data set into a database whose schema is current.
+     *
+     * @param dataSource Where to write
+     * @return What was generated
+     * @throws SQLException if an insert fails; the batches committed so far remain
+     */
+    public Result generate(DataSource dataSource) throws SQLException {
+        Random random = new Random(seed);
+        Zipf activeUsers = new Zipf(users, authorSkew);
+        Zipf hotQuestions = new Zipf(questions, questionSkew);
+        // Hot questions are spread over the timeline instead of being the oldest ones
+        int[] questionByRank = shuffledRange(questions, random);
+        int[] counts = new int[10];
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                counts[0] = insertUsers(connection);
+
+                // Answers are drawn first so each question knows whether it has an accepted answer
+                int answerCount = (int) Math.round(questions * answersPerQuestion);
+                int[] answerQuestion = new int[answerCount];
+                int[] acceptedAnswer = new int[questions];
+                Arrays.fill(acceptedAnswer, -1);
+                boolean[] decided = new boolean[questions];
+                for (int a = 0; a < answerCount; a++) {
+                    int q = questionByRank[hotQuestions.sample(random)];
+                    answerQuestion[a] = q;
+                    if (!decided[q]) {
+                        decided[q] = true;
+                        if (random.nextDouble() < ACCEPTED_SHARE) {
+                            acceptedAnswer[q] = a;
+                            counts[3]++;
+                        }
+                    }
+                }
+
+                int[] questionIds = insertQuestions(connection, random, activeUsers, acceptedAnswer);
+                counts[1] = questionIds.length;
+                int[] answerIds = insertAnswers(connection, random, activeUsers, questionIds, answerQuestion, acceptedAnswer);
+                counts[2] = answerIds.length;
+                counts[4] = insertReviews(connection, random, hotQuestions, questionByRank, questionIds, answerIds, answerQuestion);
+                counts[5] = insertTrustedReviewers(connection, random);
+                counts[6] = insertMessages(connection, random, activeUsers);
+                counts[7] = insertReports(connection, random, questionIds, answerIds);
+                counts[8] = insertBans(connection, random);
+                counts[9] = insertRequests(connection, random, activeUsers);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return new Result(counts);
+    }
+
+    /**
+     * Removes everything generated under this generator's prefix.
+     *
+     * @param dataSource Where the data was generated
+     * @throws SQLException if a delete fails
+     */
+    public void clear(DataSource dataSource) throws SQLException {
+        String like = "'" + prefix.replace("_", "\\_") + "%'";
+        String questionIds = "SELECT questionId FROM Questions WHERE author LIKE " + like;
+        String answerIds = "SELECT answerId FROM Answers WHERE questionId IN (" + questionIds + ")";
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM reported_content WHERE reporter_username LIKE " + like);
+            statement.execute("DELETE FROM reviews WHERE reviewer LIKE " + like
+                    + " OR question_id IN (" + questionIds + ") OR answer_id IN (" + answerIds + ")");
+            statement.execute("DELETE FROM ReadStatus WHERE answerId IN (" + answerIds + ")");
+            statement.execute("UPDATE Answers SET referenceAnswerId = NULL WHERE referenceAnswerId IN (" + answerIds + ")");
+            statement.execute("DELETE FROM Answers WHERE questionId IN (" + questionIds + ")");
+            statement.execute("UPDATE Questions SET referenceQuestionId = NULL WHERE referenceQuestionId IN (" + questionIds + ")");
+            statement.execute("DELETE FROM Questions WHERE author LIKE " + like);
+            statement.execute("DELETE FROM TrustedReviewers WHERE studentUsername LIKE " + like);
+            statement.execute("DELETE FROM Feedback WHERE sender LIKE " + like);
+            statement.execute("DELETE FROM conversation_summary WHERE owner LIKE " + like);
+            statement.execute("DELETE FROM moderation_ledger WHERE student LIKE " + like);
+            statement.execute("DELETE FROM banned_students WHERE student_username LIKE " + like);
+            statement.execute("DELETE FROM AdminRequests WHERE requester_username LIKE " + like);
+            statement.execute("DELETE FROM cse360users WHERE userName LIKE " + like);
+        }
+    }
+
+    private int insertUsers(Connection connection) throws SQLException {
+        String sql = "INSERT INTO cse360users (userName, password, fullName, email, roles) VALUES (?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, false)) {
+            for (int u = 0; u < users; u++) {
+                batch.statement.setString(1, userName(u));
+                batch.statement.setString(2, PASSWORD);
+                batch.statement.setString(3, "Generated User " + u);
+                batch.statement.setString(4, userName(u) + "@example.com");
+                batch.statement.setString(5, rolesOf(u));
+                batch.add();
+            }
+            batch.finish();
+        }
+        return users;
+    }
+
+    private int[] insertQuestions(Connection connection, Random random, Zipf activeUsers, int[] acceptedAnswer)
+            throws SQLException {
+        String sql = "INSERT INTO Questions (content, author, timestamp, answered, referenceQuestionId) VALUES (?, ?, ?, ?, ?)";
+        int[] questionIds;
+        try (Batch batch = new Batch(connection, sql, true)) {
+            for (int q = 0; q < questions; q++) {
+                batch.statement.setString(1, sentence(random, 6 + random.nextInt(20)) + "?");
+                batch.statement.setString(2, userName(activeUsers.sample(random)));
+                batch.statement.setTimestamp(3, questionTime(q));
+                batch.statement.setBoolean(4, acceptedAnswer[q] >= 0);
+                batch.statement.setNull(5, Types.INTEGER);
+                batch.add();
+            }
+            batch.finish();
+            questionIds = batch.keys();
+        }
+
+        // A follow-up refers to a recent question, which may itself be a follow-up
+        String referenceSql = "UPDATE Questions SET referenceQuestionId = ? WHERE questionId = ?";
+        try (Batch batch = new Batch(connection, referenceSql, false)) {
+            for (int q = 1; q < questions; q++) {
+                if (random.nextDouble() < REFERENCE_SHARE) {
+                    int referenced = q - 1 - random.nextInt(Math.min(q, REFERENCE_WINDOW));
+                    batch.statement.setInt(1, questionIds[referenced]);
+                    batch.statement.setInt(2, questionIds[q]);
+                    batch.add();
+                }
+            }
+            batch.finish();
+        }
+        return questionIds;
+    }
+
+    private int[] insertAnswers(Connection connection, Random random, Zipf activeUsers, int[] questionIds,
+            int[] answerQuestion, int[] acceptedAnswer) throws SQLException {
+        String sql = "INSERT INTO Answers (questionId, content, author, timestamp, accepted) VALUES (?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, true)) {
+            for (int a = 0; a < answerQuestion.length; a++) {
+                int q = answerQuestion[a];
+                batch.statement.setInt(1, questionIds[q]);
+                batch.statement.setString(2, sentence(random, 10 + random.nextInt(40)) + ".");
+                batch.statement.setString(3, userName(activeUsers.sample(random)));
+                batch.statement.setTimestamp(4, laterTime(questionTime(q), random));
+                batch.statement.setBoolean(5, acceptedAnswer[q] == a);
+                batch.add();
+            }
+            batch.finish();
+            return batch.keys();
+        }
+    }
+
+    private int insertReviews(Connection connection, Random random, Zipf hotQuestions, int[] questionByRank,
+            int[] questionIds, int[] answerIds, int[] answerQuestion) throws SQLException {
+        int[] reviewers = usersWithRole("reviewer");
+        if (reviewers.length == 0) {
+            return 0;
+        }
+        Zipf activeReviewers = new Zipf(reviewers.length, authorSkew);
+        int reviewCount = (int) Math.round(questions * reviewsPerQuestion);
+        String sql = "INSERT INTO reviews (reviewer, content, timestamp, question_id, answer_id) VALUES (?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, false)) {
+            for (int r = 0; r < reviewCount; r++) {
+                batch.statement.setString(1, userName(reviewers[activeReviewers.sample(random)]));
+                batch.statement.setString(2, sentence(random, 8 + random.nextInt(25)) + ".");
+                if (answerIds.length > 0 && random.nextBoolean()) {
+                    // Answers already cluster on the hot questions
+                    int a = random.nextInt(answerIds.length);
+                    batch.statement.setTimestamp(3, laterTime(questionTime(answerQuestion[a]), random));
+                    batch.statement.setInt(4, questionIds[answerQuestion[a]]);
+                    batch.statement.setInt(5, answerIds[a]);
+                } else {
+                    int q = questionByRank[hotQuestions.sample(random)];
+                    batch.statement.setTimestamp(3, laterTime(questionTime(q), random));
+                    batch.statement.setInt(4, questionIds[q]);
+                    batch.statement.setNull(5, Types.INTEGER);
+                }
+                batch.add();
+            }
+            batch.finish();
+            return reviewCount;
+        }
+    }
+
+    private int insertTrustedReviewers(Connection connection, Random random) throws SQLException {
+        int[] reviewers = usersWithRole("reviewer");
+        if (reviewers.length == 0) {
+            return 0;
+        }
+        // Popular reviewers are trusted by many students
+        Zipf popularReviewers = new Zipf(reviewers.length, authorSkew);
+        // A student who reviews cannot trust themselves
+        int perStudent = Math.min(TRUSTED_PER_STUDENT, reviewers.length - 1);
+        int edges = 0;
+        String sql = "INSERT INTO TrustedReviewers (studentUsername, reviewerUsername, timestamp, weightage) VALUES (?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, false)) {
+            for (int u = 1; u < users; u++) {
+                if (!rolesOf(u).startsWith("student")) {
+                    continue;
+                }
+                Set<Integer> trusted = new HashSet<>();
+                while (trusted.size() < perStudent) {
+                    int reviewer = reviewers[popularReviewers.sample(random)];
+                    if (reviewer != u && trusted.add(reviewer)) {
+                        batch.statement.setString(1, userName(u));
+                        batch.statement.setString(2, userName(reviewer));
+                        batch.statement.setTimestamp(3, questionTime(random.nextInt(questions)));
+                        batch.statement.setInt(4, 1 + random.nextInt(5));
+                        batch.add();
+                        edges++;
+                    }
+                }
+            }
+            batch.finish();
+        }
+        return edges;
+    }
+
+    /**
+     * Inserts conversations between each user and a few regular partners,
+     * and the conversation summary rows the helpers would maintain for them.
+     */
+    private int insertMessages(Connection connection, Random random, Zipf activeUsers) throws SQLException {
+        int messageCount = (int) Math.round(questions * messagesPerQuestion);
+        long window = questions * QUESTION_SPACING_MILLIS;
+        long firstUnread = Math.round(messageCount * (1 - UNREAD_SHARE));
+        int[][] partners = new int[users][];
+        // Per owner and partner: last time, last snippet, unread count
+        Map<String, Object[]> summaries = new HashMap<>();
+        String sql = "INSERT INTO Feedback (sender, receiver, content, timestamp, isRead) VALUES (?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, false)) {
+            for (int m = 0; m < messageCount; m++) {
+                int user = activeUsers.sample(random);
+                if (partners[user] == null) {
+                    partners[user] = new int[PARTNERS_PER_USER];
+                    for (int k = 0; k < PARTNERS_PER_USER; k++) {
+                        int partner = activeUsers.sample(random);
+                        partners[user][k] = partner != user ? partner : (user + 1) % users;
+                    }
+                }
+                int partner = partners[user][random.nextInt(PARTNERS_PER_USER)];
+                // Either side of the conversation may write next
+                String sender = userName(random.nextBoolean() ? user : partner);
+                String receiver = sender.equals(userName(user)) ? userName(partner) : userName(user);
+                String content = sentence(random, 4 + random.nextInt(16)) + ".";
+                Timestamp timestamp = new Timestamp(START_MILLIS + window * m / Math.max(1, messageCount));
+                boolean read = m < firstUnread;
+                batch.statement.setString(1, sender);
+                batch.statement.setString(2, receiver);
+                batch.statement.setString(3, content);
+                batch.statement.setTimestamp(4, timestamp);
+                batch.statement.setBoolean(5, read);
+                batch.add();
+                summarize(summaries, sender, receiver, timestamp, content, 0);
+                summarize(summaries, receiver, sender, timestamp, content, read ? 0 : 1);
+            }
+            batch.finish();
+        }
+
+        String summarySql = "INSERT INTO conversation_summary (owner, partner, last_message_time, last_message_snippet, unread_count) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, summarySql, false)) {
+            for (Map.Entry<String, Object[]> entry : summaries.entrySet()) {
+                String[] pair = entry.getKey().split("\u0000");
+                Object[] summary = entry.getValue();
+                batch.statement.setString(1, pair[0]);
+                batch.statement.setString(2, pair[1]);
+                batch.statement.setTimestamp(3, (Timestamp) summary[0]);
+                batch.statement.setString(4, (String) summary[1]);
+                batch.statement.setInt(5, (Integer) summary[2]);
+                batch.add();
+            }
+            batch.finish();
+        }
+        return messageCount;
+    }
+
+    // Messages are generated in time order, so the latest one always replaces the snippet
+    private static void summarize(Map<String, Object[]> summaries, String owner, String partner,
+            Timestamp timestamp, String content, int unread) {
+        String key = owner + "\u0000" + partner;
+        Object[] previous = summaries.get(key);
+        int count = previous == null ? unread : (Integer) previous[2] + unread;
+        String snippet = content.length() > SchemaMigrations.CONVERSATION_SNIPPET_LENGTH
+                ? content.substring(0, SchemaMigrations.CONVERSATION_SNIPPET_LENGTH) : content;
+        summaries.put(key, new Object[] {timestamp, snippet, count});
+    }
+
+    private int insertReports(Connection connection, Random random, int[] questionIds, int[] answerIds) throws SQLException {
+        int[] staff = usersWithRole("staff");
+        if (staff.length == 0) {
+            staff = new int[] {0};
+        }
+        int reports = 0;
+        String sql = "INSERT INTO reported_content (reporter_username, content_type, content_id, reason, timestamp, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, false)) {
+            for (int i = 0; i < questionIds.length + answerIds.length; i++) {
+                if (random.nextDouble() >= REPORT_SHARE) {
+                    continue;
+                }
+                boolean question = i < questionIds.length;
+                batch.statement.setString(1, userName(staff[random.nextInt(staff.length)]));
+                batch.statement.setString(2, question ? "question" : "answer");
+                batch.statement.setInt(3, question ? questionIds[i] : answerIds[i - questionIds.length]);
+                batch.statement.setString(4, "Generated report: " + sentence(random, 5));
+                batch.statement.setTimestamp(5, questionTime(random.nextInt(questions)));
+                int status = random.nextInt(10);
+                batch.statement.setString(6, status < 7 ? "pending" : status < 9 ? "reviewed" : "dismissed");
+                batch.add();
+                reports++;
+            }
+            batch.finish();
+        }
+        return reports;
+    }
+
+    private int insertBans(Connection connection, Random random) throws SQLException {
+        int bans = 0;
+        String banSql = "INSERT INTO banned_students (student_username, banned_by, ban_reason, ban_date) VALUES (?, ?, ?, ?)";
+        String ledgerSql = "INSERT INTO moderation_ledger (student, action, issued_by, reason, created_at) VALUES (?, ?, ?, ?, ?)";
+        try (Batch banBatch = new Batch(connection, banSql, false);
+             Batch ledgerBatch = new Batch(connection, ledgerSql, false)) {
+            for (int u = 1; u < users; u++) {
+                if (!rolesOf(u).startsWith("student") || random.nextDouble() >= BAN_SHARE) {
+                    continue;
+                }
+                Timestamp when = questionTime(random.nextInt(questions));
+                banBatch.statement.setString(1, userName(u));
+                banBatch.statement.setString(2, userName(0));
+                banBatch.statement.setString(3, "Generated ban");
+                banBatch.statement.setTimestamp(4, when);
+                banBatch.add();
+                ledgerBatch.statement.setString(1, userName(u));
+                ledgerBatch.statement.setString(2, ModerationService.BAN);
+                ledgerBatch.statement.setString(3, userName(0));
+                ledgerBatch.statement.setString(4, "Generated ban");
+                ledgerBatch.statement.setTimestamp(5, when);
+                ledgerBatch.add();
+                bans++;
+            }
+            banBatch.finish();
+            ledgerBatch.finish();
+        }
+        return bans;
+    }
+
+    private int insertRequests(Connection connection, Random random, Zipf activeUsers) throws SQLException {
+        int requestCount = (int) Math.round(questions * REQUESTS_PER_QUESTION);
+        String sql = "INSERT INTO AdminRequests (requester_username, title, description, status, creation_timestamp, "
+                + "last_update_timestamp, closed_timestamp, closed_by_username) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Batch batch = new Batch(connection, sql, false)) {
+            for (int r = 0; r < requestCount; r++) {
+                Timestamp created = questionTime(random.nextInt(questions));
+                boolean open = random.nextDouble() < OPEN_REQUEST_SHARE;
+                Timestamp updated = open ? created : laterTime(created, random);
+                batch.statement.setString(1, userName(activeUsers.sample(random)));
+                batch.statement.setString(2, sentence(random, 3 + random.nextInt(5)));
+                batch.statement.setString(3, sentence(random, 10 + random.nextInt(30)) + ".");
+                batch.statement.setString(4, open ? "open" : "closed");
+                batch.statement.setTimestamp(5, created);
+                batch.statement.setTimestamp(6, updated);
+                batch.statement.setTimestamp(7, open ? null : updated);
+                batch.statement.setString(8, open ? null : userName(0));
+                batch.add();
+            }
+            batch.finish();
+        }
+        return requestCount;
+    }
+
+    private int[] usersWithRole(String role) {
+        int[] found = new int[users];
+        int count = 0;
+        for (int u = 0; u < users; u++) {
+            if (("," + rolesOf(u) + ",").contains("," + role + ",")) {
+                found[count++] = u;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private static Timestamp questionTime(int q) {
+        return new Timestamp(START_MILLIS + q * QUESTION_SPACING_MILLIS);
+    }
+
+    // Somewhere in the two days after a time
+    private static Timestamp laterTime(Timestamp after, Random random) {
+        return new Timestamp(after.getTime() + 1_000 + (long) (random.nextDouble() * 2 * 24 * 3_600_000));
+    }
+
+    private static int[] shuffledRange(int n, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            text.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+        }
+        return text.toString();
+    }
+
+    private static double nonNegative(double value) {
+        if (value < 0 || Double.isNaN(value)) {
+            throw new IllegalArgumentException("The value must not be negative");
+        }
+        return value;
+    }
+
+    /**
+     * Draws ranks 0 to n - 1 with probability proportional to 1 / (rank + 1)^s.
+     */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int rank = 0; rank < n; rank++) {
+                total += 1.0 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= total;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+
+    /**
+     * A prepared statement that sends every {@value #BATCH_SIZE} rows and
+     * commits them, optionally collecting the generated keys. {@link #finish()}
+     * sends the rest; closing only releases the statement, so rows added
+     * before a failure are not sent.
+     */
+    private static final class Batch implements AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final boolean collectKeys;
+        private int[] keys = new int[0];
+        private int keyCount;
+        private int pending;
+
+        Batch(Connection connection, String sql, boolean collectKeys) throws SQLException {
+            this.connection = connection;
+            this.statement = collectKeys
+                    ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : connection.prepareStatement(sql);
+            this.collectKeys = collectKeys;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending == 0) {
+                return;
+            }
+            statement.executeBatch();
+            if (collectKeys) {
+                try (ResultSet generated = statement.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        if (keyCount == keys.length) {
+                            keys = Arrays.copyOf(keys, Math.max(BATCH_SIZE, keys.length * 2));
+                        }
+                        keys[keyCount++] = generated.getInt(1);
+                    }
+                }
+            }
+            connection.commit();
+            pending = 0;
+        }
+
+        /**
+         * Sends and commits the rows added since the last full batch.
+         */
+        void finish() throws SQLException {
+            flush();
+        }
+
+        int[] keys() {
+            return Arrays.copyOf(keys, keyCount);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            statement.close();
+        }
+    }
+
+    /**
+     * Seeds the configured database, or removes the generated data again.
+     *
+     * @param args {@code <questions> [name=value ...]} or {@code --clear [prefix=...]}
+     * @throws SQLException if the database cannot be reached or an insert fails
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length == 0) {
+            System.err.println("Usage: WorkloadGenerator <questions> [name=value ...] | --clear [prefix=...]");
+            System.exit(2);
+        }
+        boolean clear = args[0].equals("--clear");
+        WorkloadGenerator generator = forQuestions(clear ? 1 : Integer.parseInt(args[0].replace("_", "")));
+        for (int i = 1; i < args.length; i++) {
+            generator = generator.with(args[i]);
+        }
+        // A bulk load holds its connection far longer than the leak threshold
+        DatabaseConfig config = DatabaseConfig.get();
+        ConnectionPool.configure(config.getMinPoolSize(), config.getMaxPoolSize(), config.getLeaseTimeoutMillis(),
+                config.getIdleTimeoutMillis(), 0);
+        // Nor is every slow batch worth a line in the slow statement log
+        QueryStats.getInstance().setSlowQueryMillis(0);
+        try {
+            SchemaMigrations.ensureCurrent();
+            if (clear) {
+                generator.clear(ConnectionPool.getInstance());
+                System.out.println("Removed the data generated under " + generator.prefix);
+                return;
+            }
+            long start = System.nanoTime();
+            Result result = generator.generate(ConnectionPool.getInstance());
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            System.out.println("Generated " + result);
+            System.out.printf("%,d rows in %,d ms (%,d rows/s)%n", result.getTotalRows(), millis,
+                    result.getTotalRows() * 1000 / millis);
+        } finally {
+            ConnectionPool.shutdown();
+        }
+    }
+
+    // Applies one name=value option from the command line
+    private WorkloadGenerator with(String setting) {
+        int equals = setting.indexOf('=');
+        if (equals < 0) {
+            throw new IllegalArgumentException("Expected name=value but got " + setting);
+        }
+        String name = setting.substring(0, equals);
+        String value = setting.substring(equals + 1);
+        switch (name) {
+            case "users":
+                return users(Integer.parseInt(value));
+            case "reviewers":
+                return roles(Double.parseDouble(value), instructorShare, staffShare);
+            case "instructors":
+                return roles(reviewerShare, Double.parseDouble(value), staffShare);
+            case "staff":
+                return roles(reviewerShare, instructorShare, Double.parseDouble(value));
+            case "answersPerQuestion":
+                return answersPerQuestion(Double.parseDouble(value));
+            case "reviewsPerQuestion":
+                return reviewsPerQuestion(Double.parseDouble(value));
+            case "messagesPerQuestion":
+                return messagesPerQuestion(Double.parseDouble(value));
+            case "authorSkew":
+                return authorSkew(Double.parseDouble(value));
+            case "questionSkew":
+                return questionSkew(Double.parseDouble(value));
+            case "seed":
+                return seed(Long.parseLong(value));
+            case "prefix":
+                return prefix(value);
+            default:
+                throw new IllegalArgumentException("Unknown option " + name);
+        }
+    }
+}
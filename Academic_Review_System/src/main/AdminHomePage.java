@@ -20,12 +20,18 @@ public class AdminHomePage {
     private final DatabaseHelper databaseHelper;
     private final DatabaseHelper4 databaseHelper4;
     private final String currentAdminUserName;
+    private final SessionContext session;
     private AdminRequestsPage adminRequestsPage;
     private TableView<User> userTable; // Make table a class field for access in action handlers
 
     public AdminHomePage(DatabaseHelper databaseHelper, String currentAdminUserName) {
+        this(databaseHelper, SessionContext.forUser(currentAdminUserName));
+    }
+
+    public AdminHomePage(DatabaseHelper databaseHelper, SessionContext session) {
         this.databaseHelper = databaseHelper;
-        this.currentAdminUserName = currentAdminUserName;
+        this.session = session;
+        this.currentAdminUserName = session.getUserName();
         this.databaseHelper4 = new DatabaseHelper4();
         try {
             this.databaseHelper4.connectToDatabase();
@@ -133,17 +139,22 @@ public class AdminHomePage {
         styleButton(viewAdminRequestsButton, "#FFD700", "#DAA520"); // Gold/Yellow style
         viewAdminRequestsButton.setOnAction(e -> {
              if (adminRequestsPage == null) {
-                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, currentAdminUserName, primaryStage, primaryStage.getScene());
+                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, session, primaryStage, primaryStage.getScene());
             }
             adminRequestsPage.show(); // Show the full request management page
         });
         
+        // System health: query rates and latency, pool and cache use, table sizes, slow UI actions
+        Button operationsButton = new Button("Operations");
+        styleButton(operationsButton, "#FFD700", "#DAA520");
+        operationsButton.setOnAction(e -> new OperationsPage(primaryStage, primaryStage.getScene()).show());
+        
         // Logout button with Red Styling
         Button logoutButton = LogoutHelper.createLogoutButton(primaryStage, databaseHelper);
         styleButton(logoutButton, "#FF6B6B", "#CD5C5C", false); // Red color with black text
         
         // Add navigation buttons to the row
-        navigationButtonsRow.getChildren().addAll(viewAdminRequestsButton, logoutButton);
+        navigationButtonsRow.getChildren().addAll(viewAdminRequestsButton, operationsButton, logoutButton);
 
         // Add all components to the layout
         layout.getChildren().addAll(adminLabel, userTable, actionButtonsRow, navigationButtonsRow);
@@ -157,7 +168,7 @@ public class AdminHomePage {
         Button backButton = new Button("Back");
         styleButton(backButton, "#E0E0E0", "#C0C0C0", false); // Light gray with black text
         backButton.setOnAction(e -> {
-            new WelcomeLoginPage(databaseHelper).show(primaryStage, new User(currentAdminUserName, "", "", "", new String[]{"admin"}));
+            new WelcomeLoginPage(databaseHelper, session).show(primaryStage, new User(currentAdminUserName, "", "", "", new String[]{"admin"}));
         });
         
         // Add back button to its container
@@ -29,6 +29,7 @@ public class AdminRequestsPage {
     private final DatabaseHelper4 databaseHelper4;
     private final DatabaseHelper databaseHelper; // For user role checking
     private final String currentUsername;
+    private final SessionContext session;
     private final String currentUserRole; // "instructor", "staff", "admin"
     private Stage primaryStage;
     private Scene previousScene;
@@ -39,10 +40,11 @@ public class AdminRequestsPage {
 
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MMM dd, yyyy HH:mm:ss");
 
-    public AdminRequestsPage(DatabaseHelper4 databaseHelper4, DatabaseHelper databaseHelper, String currentUsername, Stage primaryStage, Scene previousScene) {
+    public AdminRequestsPage(DatabaseHelper4 databaseHelper4, DatabaseHelper databaseHelper, SessionContext session, Stage primaryStage, Scene previousScene) {
         this.databaseHelper4 = databaseHelper4;
         this.databaseHelper = databaseHelper;
-        this.currentUsername = currentUsername;
+        this.session = session;
+        this.currentUsername = session.getUserName();
         this.primaryStage = primaryStage;
         this.previousScene = previousScene;
         this.currentUserRole = getCurrentUserRole(); // Determine role for permissions
@@ -60,22 +62,13 @@ public class AdminRequestsPage {
 
     private String getCurrentUserRole() {
         try {
-            // Fetch all users and find the current one
-            List<User> allUsers = databaseHelper.getAllUsers(); 
-            User currentUser = null;
-            for (User user : allUsers) {
-                if (user.getUserName().equals(currentUsername)) {
-                    currentUser = user;
-                    break;
-                }
-            }
+            // The session already knows the user's roles
+            SessionPrincipal currentUser = session.getPrincipal();
 
-            if (currentUser != null && currentUser.getRoles().length > 0) {
-                 // Prioritize roles: Admin > Staff > Instructor
-                if (currentUser.hasRole("admin")) return "admin";
-                if (currentUser.hasRole("staff")) return "staff";
-                if (currentUser.hasRole("instructor")) return "instructor";
-            }
+            // Prioritize roles: Admin > Staff > Instructor
+            if (currentUser.hasRole("admin")) return "admin";
+            if (currentUser.hasRole("staff")) return "staff";
+            if (currentUser.hasRole("instructor")) return "instructor";
         } catch (SQLException e) {
             System.err.println("Error fetching user role: " + e.getMessage());
         } catch (NullPointerException e) {
@@ -20,6 +20,8 @@ public class Answer {
     private Date timestamp;
     private boolean accepted;
     private Integer referenceAnswerId; // New field to store reference to another answer
+    private String referencedContent; // Content and author of the referenced answer, loaded with the page
+    private String referencedAuthor;
 
     /**
      * Creates a new Answer with specified properties.
@@ -133,6 +135,32 @@ public class Answer {
         this.referenceAnswerId = referenceAnswerId;
     }
     
+    /**
+     * Sets the content and author of the referenced answer, as loaded together with this answer.
+     * @param content The referenced answer's content
+     * @param author Username of the referenced answer's author
+     */
+    public void setReferencedAnswer(String content, String author) {
+        this.referencedContent = content;
+        this.referencedAuthor = author;
+    }
+
+    /**
+     * Gets the content of the referenced answer, if it was loaded with this answer.
+     * @return The content, or null if there is no reference or it was not loaded
+     */
+    public String getReferencedContent() {
+        return referencedContent;
+    }
+
+    /**
+     * Gets the author of the referenced answer, if it was loaded with this answer.
+     * @return The username, or null if there is no reference or it was not loaded
+     */
+    public String getReferencedAuthor() {
+        return referencedAuthor;
+    }
+
     /**
      * Checks if this answer references another answer.
      * @return true if this answer references another answer, false otherwise
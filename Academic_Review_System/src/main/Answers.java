@@ -1,8 +1,9 @@
 package main;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import databasePart1.DatabaseConfig;
 import databasePart1.DatabaseHelper2;
 
 /**
@@ -15,16 +16,15 @@ import databasePart1.DatabaseHelper2;
  * @version 1.00    2025-04-01    Answers class implementation
  */
 public class Answers {
-    private List<Answer> answers;
     private DatabaseHelper2 dbHelper;
 
     /**
-     * Creates a new Answers manager with database connection.
+     * Creates a new Answers manager with database connection. No answers are
+     * loaded up front; they are fetched per question when needed.
      * @param dbHelper Database helper instance for database operations
      * @throws SQLException if database connection fails
      */
     public Answers(DatabaseHelper2 dbHelper) throws SQLException {
-        this.answers = dbHelper.getAllAnswers();
         this.dbHelper = dbHelper;
     }
 
@@ -35,7 +35,6 @@ public class Answers {
      */
     public void addAnswer(Answer a) throws SQLException {
         dbHelper.addAnswer(a);
-        answers.add(a);
     }
 
     /**
@@ -45,7 +44,6 @@ public class Answers {
      */
     public void removeAnswer(int answerId) throws SQLException {
         dbHelper.deleteAnswer(answerId);
-        answers.removeIf(a -> a.getAnswerId() == answerId);
     }
 
     /**
@@ -55,12 +53,6 @@ public class Answers {
      */
     public void updateAnswer(Answer a) throws SQLException {
         dbHelper.updateAnswer(a);
-        for (int i = 0; i < answers.size(); i++) {
-            if (answers.get(i).getAnswerId() == a.getAnswerId()) {
-                answers.set(i, a);
-                break;
-            }
-        }
     }
 
     /**
@@ -91,4 +83,96 @@ public class Answers {
     public List<Answer> getAnswersForQuestion(int questionId) throws SQLException {
         return dbHelper.getAnswersForQuestion(questionId);
     }
+
+    /**
+     * Retrieves all answers written by one user, oldest first.
+     * @param author Username of the answers' author
+     * @return List of the user's answers
+     * @throws SQLException if database operation fails
+     */
+    public List<Answer> getAnswersByAuthor(String author) throws SQLException {
+        return dbHelper.getAnswersByAuthor(author);
+    }
+
+    /**
+     * Retrieves one page of the answers for a question, oldest first.
+     * @param questionId ID of the question to get answers for
+     * @param after The cursor of the previous page, or null for the first page
+     * @param limit Maximum number of answers in the page
+     * @return The page of answers
+     * @throws SQLException if database operation fails
+     */
+    public Page<Answer> getAnswerPage(int questionId, PageCursor after, int limit) throws SQLException {
+        return dbHelper.getAnswerPage(questionId, after, limit);
+    }
+
+    /**
+     * Counts the answers for a question.
+     * @param questionId ID of the question
+     * @return The number of answers
+     * @throws SQLException if database operation fails
+     */
+    public int countAnswersForQuestion(int questionId) throws SQLException {
+        return dbHelper.countAnswersForQuestion(questionId);
+    }
+
+    /**
+     * Gets the current row version to sync from later.
+     * @return The highest row version handed out so far
+     * @throws SQLException if database operation fails
+     */
+    public long getRowVersion() throws SQLException {
+        return dbHelper.getRowVersion();
+    }
+
+    /**
+     * Fetches only the answers to a question inserted, updated or deleted since the last sync.
+     * @param questionId ID of the question
+     * @param version The version returned by the previous sync
+     * @return The changed answers, the deleted answer IDs and the version to sync from next
+     * @throws SQLException if database operation fails
+     */
+    public ChangeSet<Answer> syncSince(int questionId, long version) throws SQLException {
+        return dbHelper.getAnswerChangesSince(questionId, version);
+    }
+
+    /**
+     * Creates the delta sync of an answer list paged by {@link #getAnswerPage}.
+     * @param questionId ID of the question
+     * @return The sync that keeps the list up to date, or null to reload the list instead
+     *         when other processes share the database
+     */
+    public TablePager.Sync<Answer> answerSync(int questionId) {
+        if (DatabaseConfig.get().isShared()) {
+            // Their uncommitted writes are not held back from syncs, so one could be synced past
+            return null;
+        }
+        Comparator<Answer> order = Comparator.comparing(Answer::getTimestamp).thenComparingInt(Answer::getAnswerId);
+        return new TablePager.Sync<>() {
+            @Override
+            public long version() throws SQLException {
+                return getRowVersion();
+            }
+
+            @Override
+            public ChangeSet<Answer> changesSince(long version) throws SQLException {
+                return syncSince(questionId, version);
+            }
+
+            @Override
+            public int idOf(Answer row) {
+                return row.getAnswerId();
+            }
+
+            @Override
+            public Comparator<? super Answer> order() {
+                return order;
+            }
+
+            @Override
+            public boolean includes(Answer row) {
+                return true;
+            }
+        };
+    }
 }
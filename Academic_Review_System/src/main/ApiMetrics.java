@@ -0,0 +1,123 @@
+package main;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import databasePart1.LatencyHistogram;
+
+/**
+ * ApiMetrics counts the requests the {@link ApiServer} handles: per route the
+ * number of requests, client and server errors, and a latency histogram, plus
+ * the number of requests in flight.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    ApiMetrics class implementation
+ */
+public class ApiMetrics {
+
+    /**
+     * The counters of one route.
+     */
+    public static final class RouteStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        public long getRequests() { return requests.sum(); }
+        public long getClientErrors() { return clientErrors.sum(); }
+        public long getServerErrors() { return serverErrors.sum(); }
+        public LatencyHistogram getLatency() { return latency; }
+    }
+
+    private final ConcurrentHashMap<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long startedAt = System.nanoTime();
+
+    /**
+     * Notes that a request has started.
+     */
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Records a finished request.
+     * @param route The route that handled it, for example "GET /api/questions/{id}"
+     * @param status The HTTP status sent
+     * @param nanos How long the request took
+     */
+    void finished(String route, int status, long nanos) {
+        inFlight.decrementAndGet();
+        RouteStats stats = routes.computeIfAbsent(route, r -> new RouteStats());
+        stats.requests.increment();
+        if (status >= 500) {
+            stats.serverErrors.increment();
+        } else if (status >= 400) {
+            stats.clientErrors.increment();
+        }
+        stats.latency.record(nanos);
+    }
+
+    /**
+     * Gets the counters of a route.
+     * @param route The route
+     * @return Its counters, or null if it has not handled a request
+     */
+    public RouteStats getRoute(String route) {
+        return routes.get(route);
+    }
+
+    /**
+     * Gets the total number of requests handled.
+     * @return The request count over all routes
+     */
+    public long getTotalRequests() {
+        long total = 0;
+        for (RouteStats stats : routes.values()) {
+            total += stats.getRequests();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of requests being handled right now.
+     * @return The requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Describes the metrics as a JSON-ready map.
+     * @return The uptime, totals and per-route counters with p50, p99 and maximum latency
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        double uptimeSeconds = (System.nanoTime() - startedAt) / 1e9;
+        long total = getTotalRequests();
+        result.put("uptimeSeconds", Math.round(uptimeSeconds));
+        result.put("requests", total);
+        result.put("requestsPerSecond", uptimeSeconds > 0 ? Math.round(total / uptimeSeconds) : 0);
+        result.put("inFlight", getInFlight());
+        Map<String, Object> perRoute = new TreeMap<>();
+        routes.forEach((route, stats) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", stats.getRequests());
+            entry.put("clientErrors", stats.getClientErrors());
+            entry.put("serverErrors", stats.getServerErrors());
+            entry.put("meanMicros", Math.round(stats.latency.getMeanMicros()));
+            entry.put("p50Micros", stats.latency.getPercentileMicros(50));
+            entry.put("p99Micros", stats.latency.getPercentileMicros(99));
+            entry.put("maxMicros", stats.latency.getMaxMicros());
+            perRoute.put(route, entry);
+        });
+        result.put("routes", perRoute);
+        return result;
+    }
+}
@@ -0,0 +1,765 @@
+package main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseConfig;
+import databasePart1.DatabaseHelper;
+import databasePart1.DatabaseHelper2;
+import databasePart1.DatabaseHelper3;
+import databasePart1.DatabaseHelper4;
+import databasePart1.QuestionQuery;
+import databasePart1.SessionContext;
+import databasePart1.SharedDatabaseWatcher;
+
+/**
+ * ApiServer is the headless mode of the application: it exposes questions,
+ * answers, reviews, trusted reviewers, messages and admin requests as JSON
+ * over HTTP, backed by the same database helpers as the pages.
+ *
+ * <p> It runs on the JDK's built-in HTTP server with one virtual thread per
+ * request, so a request blocked on the database costs no platform thread and
+ * a thousand concurrent clients need no tuning beyond the connection pool. </p>
+ *
+ * <p> Clients log in with {@code POST /api/login} and send the returned token
+ * as {@code Authorization: Bearer <token>}. Each token holds a
+ * {@link SessionContext}, so who the caller is, their roles and their ban state
+ * come from the session instead of a query per request. A token expires once
+ * it has not been used for the idle timeout, and is dropped as soon as its
+ * user is deleted. {@code GET /api/metrics}
+ * reports request counts, errors and latency percentiles per route. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    ApiServer class implementation
+ */
+public class ApiServer implements AutoCloseable {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 8080;
+    /** How long a token may go unused before it expires. */
+    public static final long DEFAULT_TOKEN_IDLE_MILLIS = 30 * 60_000;
+    /** Largest page a list endpoint returns. */
+    public static final int MAX_PAGE_SIZE = 100;
+    // Pending connections the listening socket queues; bursts of clients connect at once
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Handles one matched request and returns what to send back as JSON.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Call call) throws SQLException;
+    }
+
+    private static final class Route {
+        final String method;
+        final String name;
+        final Pattern pattern;
+        final boolean authenticated;
+        final int status;
+        final Handler handler;
+
+        Route(String method, String path, boolean authenticated, int status, Handler handler) {
+            this.method = method;
+            this.name = method + " " + path;
+            // {id} is a number, any other {name} one path segment
+            this.pattern = Pattern.compile(path.replace("{id}", "(\\d+)").replaceAll("\\{[a-z]+\\}", "([^/]+)"));
+            this.authenticated = authenticated;
+            this.status = status;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * A logged-in session and when its token was last used.
+     */
+    private static final class Token {
+        final SessionContext session;
+        volatile long lastUsedAt = System.currentTimeMillis();
+
+        Token(SessionContext session) {
+            this.session = session;
+        }
+    }
+
+    /**
+     * A request failure with the HTTP status to report.
+     */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * One request being handled: its path parameters, query, body and caller.
+     */
+    private static final class Call {
+        final Matcher path;
+        final Map<String, String> query;
+        final Map<String, Object> body;
+        final SessionContext session;
+
+        Call(Matcher path, Map<String, String> query, Map<String, Object> body, SessionContext session) {
+            this.path = path;
+            this.query = query;
+            this.body = body;
+            this.session = session;
+        }
+
+        String user() {
+            return session.getUserName();
+        }
+
+        SessionPrincipal principal() throws SQLException {
+            return session.getPrincipal();
+        }
+
+        int id() {
+            return Integer.parseInt(path.group(1));
+        }
+
+        String segment(int group) {
+            return URLDecoder.decode(path.group(group), StandardCharsets.UTF_8);
+        }
+
+        String text(String name) {
+            Object value = body.get(name);
+            if (!(value instanceof String) || ((String) value).isBlank()) {
+                throw new ApiException(400, "Missing " + name);
+            }
+            return (String) value;
+        }
+
+        String optionalText(String name) {
+            Object value = body.get(name);
+            return value instanceof String ? (String) value : null;
+        }
+
+        Integer optionalNumber(String name) {
+            Object value = body.get(name);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof Long)) {
+                throw new ApiException(400, name + " must be a whole number");
+            }
+            return Math.toIntExact((Long) value);
+        }
+
+        int limit() {
+            String value = query.get("limit");
+            int limit = value == null ? DEFAULT_PAGE_SIZE : Integer.parseInt(value);
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new ApiException(400, "limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            return limit;
+        }
+
+        PageCursor after() {
+            String value = query.get("after");
+            return value == null ? null : parseCursor(value);
+        }
+
+        Boolean flag(String name) {
+            String value = query.get(name);
+            return value == null ? null : Boolean.valueOf(value);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ApiMetrics metrics = new ApiMetrics();
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+    private final long tokenIdleMillis;
+    // Guarded by tokens: when expired tokens are next swept out
+    private long nextSweepAt;
+    private final List<Route> routes = new ArrayList<>();
+
+    private final DatabaseHelper databaseHelper = new DatabaseHelper();
+    private final DatabaseHelper2 databaseHelper2 = new DatabaseHelper2();
+    private final DatabaseHelper3 databaseHelper3 = new DatabaseHelper3();
+    private final DatabaseHelper4 databaseHelper4 = new DatabaseHelper4();
+
+    private ApiServer(HttpServer server, ExecutorService executor, long tokenIdleMillis) {
+        this.server = server;
+        this.executor = executor;
+        this.tokenIdleMillis = tokenIdleMillis;
+        this.nextSweepAt = System.currentTimeMillis() + tokenIdleMillis;
+        addRoutes();
+    }
+
+    /**
+     * Makes sure the database is current and starts serving.
+     * @param port The port to listen on, or 0 for any free port
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     * @throws SQLException if the database cannot be opened
+     */
+    public static ApiServer start(int port) throws IOException, SQLException {
+        return start(port, DEFAULT_TOKEN_IDLE_MILLIS);
+    }
+
+    /**
+     * Makes sure the database is current and starts serving, expiring tokens
+     * after a given idle time.
+     * @param port            The port to listen on, or 0 for any free port
+     * @param tokenIdleMillis How long a token may go unused before it expires
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     * @throws SQLException if the database cannot be opened
+     */
+    public static ApiServer start(int port, long tokenIdleMillis) throws IOException, SQLException {
+        new DatabaseHelper().connectToDatabase();
+        new DatabaseHelper4().connectToDatabase();
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        ApiServer api = new ApiServer(httpServer, executor, tokenIdleMillis);
+        httpServer.createContext("/api/", api::handle);
+        httpServer.start();
+        return api;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return The bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the request metrics of this server.
+     * @return The metrics
+     */
+    public ApiMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the number of tokens currently held.
+     * @return The number of tokens
+     */
+    public int getTokenCount() {
+        return tokens.size();
+    }
+
+    /**
+     * Stops accepting requests and waits briefly for those in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    private void addRoutes() {
+        // Sessions
+        route("POST", "/api/login", false, 200, this::login);
+        route("POST", "/api/logout", true, 200, call -> {
+            tokens.values().removeIf(token -> token.session == call.session);
+            return ok();
+        });
+        route("GET", "/api/metrics", false, 200, call -> metrics.toMap());
+
+        // Questions and answers
+        route("GET", "/api/questions", true, 200, this::listQuestions);
+        route("POST", "/api/questions", true, 201, this::addQuestion);
+        route("GET", "/api/questions/{id}", true, 200, this::getQuestion);
+        route("GET", "/api/questions/{id}/answers", true, 200, call -> {
+            Page<Answer> page = databaseHelper2.getAnswerPage(call.id(), call.after(), call.limit());
+            return page(page.getItems(), ApiServer::answer, page.getNextCursor());
+        });
+        route("POST", "/api/questions/{id}/answers", true, 201, this::addAnswer);
+
+        // Reviews, ranked by the caller's trusted reviewers
+        route("GET", "/api/questions/{id}/reviews", true, 200, call ->
+                map(databaseHelper3.getRankedReviewsForQuestion(call.id(), call.user()), ApiServer::review));
+        route("GET", "/api/answers/{id}/reviews", true, 200, call ->
+                map(databaseHelper3.getRankedReviewsForAnswer(call.id(), call.user()), ApiServer::review));
+        route("POST", "/api/reviews", true, 201, this::addReview);
+
+        // Trusted reviewers of the caller
+        route("GET", "/api/trusted-reviewers", true, 200, call -> databaseHelper2.getReviewerWeightages(call.user()));
+        route("PUT", "/api/trusted-reviewers/{name}", true, 200, this::trustReviewer);
+        route("DELETE", "/api/trusted-reviewers/{name}", true, 200, call -> {
+            databaseHelper2.removeTrustedReviewer(call.user(), call.segment(1));
+            return ok();
+        });
+
+        // Messages of the caller
+        route("GET", "/api/messages", true, 200, call ->
+                map(databaseHelper2.getConversationSummaries(call.user()), ApiServer::summary));
+        route("POST", "/api/messages", true, 201, this::sendMessage);
+        route("GET", "/api/messages/{name}", true, 200, call ->
+                map(databaseHelper2.getConversation(call.user(), call.segment(1)), ApiServer::message));
+        route("POST", "/api/messages/{name}/read", true, 200, call -> {
+            databaseHelper2.markConversationAsRead(call.user(), call.segment(1));
+            return ok();
+        });
+
+        // Admin requests
+        route("GET", "/api/admin-requests", true, 200, this::listAdminRequests);
+        route("POST", "/api/admin-requests", true, 201, call -> {
+            requireRole(call, "instructor", "staff", "admin");
+            return request(databaseHelper4.createRequest(call.user(), call.text("title"), call.text("description")));
+        });
+        route("POST", "/api/admin-requests/{id}/close", true, 200, call -> {
+            requireRole(call, "admin");
+            if (!databaseHelper4.closeRequest(call.id(), call.user(), call.optionalText("notes"))) {
+                throw new ApiException(409, "Request " + call.id() + " is not open");
+            }
+            return request(databaseHelper4.getRequestById(call.id()));
+        });
+        route("POST", "/api/admin-requests/{id}/reopen", true, 201, this::reopenAdminRequest);
+    }
+
+    private void route(String method, String path, boolean authenticated, int status, Handler handler) {
+        routes.add(new Route(method, path, authenticated, status, handler));
+    }
+
+    // Runs on a virtual thread of its own for every request
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        metrics.started();
+        String routeName = "unmatched";
+        int status;
+        Object response;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            Route route = null;
+            Matcher matcher = null;
+            boolean pathKnown = false;
+            for (Route candidate : routes) {
+                Matcher m = candidate.pattern.matcher(path);
+                if (m.matches()) {
+                    pathKnown = true;
+                    if (candidate.method.equals(exchange.getRequestMethod())) {
+                        route = candidate;
+                        matcher = m;
+                        break;
+                    }
+                }
+            }
+            if (route == null) {
+                throw new ApiException(pathKnown ? 405 : 404, "No route for " + exchange.getRequestMethod() + " " + path);
+            }
+            routeName = route.name;
+            SessionContext session = route.authenticated ? authenticate(exchange) : null;
+            Call call = new Call(matcher, parseQuery(exchange.getRequestURI().getRawQuery()),
+                    Json.parseObject(readBody(exchange)), session);
+            response = route.handler.handle(call);
+            status = route.status;
+        } catch (ApiException e) {
+            status = e.status;
+            response = error(e.getMessage());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Malformed JSON, numbers, cursors and page limits
+            status = 400;
+            response = error(e.getMessage());
+        } catch (SQLException | RuntimeException e) {
+            // The details name tables and SQL; they go to the log, not the client
+            System.err.println("ApiServer: " + routeName + " failed: " + e);
+            status = 500;
+            response = error("Internal server error");
+        }
+        try {
+            send(exchange, status, response);
+        } finally {
+            metrics.finished(routeName, status, System.nanoTime() - start);
+        }
+    }
+
+    private SessionContext authenticate(HttpExchange exchange) throws SQLException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new ApiException(401, "Log in first and send the token as Authorization: Bearer <token>");
+        }
+        String key = header.substring("Bearer ".length()).trim();
+        Token token = tokens.get(key);
+        long now = System.currentTimeMillis();
+        if (token == null || now - token.lastUsedAt >= tokenIdleMillis) {
+            if (token != null) {
+                tokens.remove(key, token);
+            }
+            throw new ApiException(401, "Unknown or expired token");
+        }
+        if (!token.session.ensureLoaded()) {
+            tokens.remove(key, token);
+            throw new ApiException(401, "User no longer exists");
+        }
+        token.lastUsedAt = now;
+        return token.session;
+    }
+
+    // Logins are the only way tokens are added, so sweeping from there keeps the map bounded
+    private void sweepExpiredTokens() {
+        long now = System.currentTimeMillis();
+        synchronized (tokens) {
+            if (now < nextSweepAt) {
+                return;
+            }
+            nextSweepAt = now + tokenIdleMillis;
+        }
+        tokens.values().removeIf(token -> now - token.lastUsedAt >= tokenIdleMillis);
+    }
+
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object response) throws IOException {
+        byte[] bytes = Json.write(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void requireRole(Call call, String... roles) throws SQLException {
+        SessionPrincipal principal = call.principal();
+        for (String role : roles) {
+            if (principal.hasRole(role)) {
+                return;
+            }
+        }
+        throw new ApiException(403, "Requires one of the roles " + String.join(", ", roles));
+    }
+
+    private static void requireNotBanned(Call call) throws SQLException {
+        if (call.principal().isBanned()) {
+            throw new ApiException(403, "Banned students cannot post");
+        }
+    }
+
+    // ---- Handlers ----
+
+    private Object login(Call call) throws SQLException {
+        SessionContext session = SessionContext.login(call.text("userName"), call.text("password"));
+        if (session == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        sweepExpiredTokens();
+        String token = UUID.randomUUID().toString();
+        tokens.put(token, new Token(session));
+        SessionPrincipal principal = session.getPrincipal();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("token", token);
+        result.put("userName", principal.getUserName());
+        result.put("roles", principal.getRoles());
+        result.put("banned", principal.isBanned());
+        result.put("unreadMessages", principal.getUnreadMessageCount());
+        return result;
+    }
+
+    private Object listQuestions(Call call) throws SQLException {
+        Boolean newestFirst = call.flag("newestFirst");
+        QuestionQuery query = QuestionQuery.all()
+                .answered(call.flag("answered"))
+                .author(call.query.get("author"))
+                .keyword(call.query.get("keyword"))
+                .newestFirst(newestFirst == null || newestFirst)
+                .limit(call.limit());
+        Page<QuestionRow> page = databaseHelper2.getQuestionRowPage(call.user(), query, call.after());
+        return page(page.getItems(), ApiServer::questionRow, page.getNextCursor());
+    }
+
+    private Object getQuestion(Call call) throws SQLException {
+        Question question = databaseHelper2.getQuestionById(call.id());
+        QuestionRow row = question == null ? null : databaseHelper2.getQuestionRow(call.user(), call.id());
+        if (row == null) {
+            throw new ApiException(404, "No question " + call.id());
+        }
+        Map<String, Object> result = question(question);
+        result.put("answerCount", row.getAnswerCount());
+        result.put("unreadCount", row.getUnreadCount());
+        result.put("reviewCount", row.getReviewCount());
+        return result;
+    }
+
+    private Object addQuestion(Call call) throws SQLException {
+        requireNotBanned(call);
+        Question question = new Question(0, call.text("content"), call.user(), new Date(),
+                call.optionalNumber("referenceQuestionId"));
+        databaseHelper2.addQuestion(question);
+        return question(question);
+    }
+
+    private Object addAnswer(Call call) throws SQLException {
+        requireNotBanned(call);
+        if (databaseHelper2.getQuestionById(call.id()) == null) {
+            throw new ApiException(404, "No question " + call.id());
+        }
+        Answer answer = new Answer(0, call.id(), call.text("content"), call.user(), new Date(),
+                call.optionalNumber("referenceAnswerId"));
+        databaseHelper2.addAnswer(answer);
+        return answer(answer);
+    }
+
+    private Object addReview(Call call) throws SQLException {
+        requireRole(call, "reviewer");
+        requireNotBanned(call);
+        Integer questionId = call.optionalNumber("questionId");
+        if (questionId == null) {
+            throw new ApiException(400, "Missing questionId");
+        }
+        Review review = new Review(0, call.user(), call.text("content"), new Date(), questionId,
+                call.optionalNumber("answerId"));
+        databaseHelper3.addReview(review);
+        return review(review);
+    }
+
+    private Object trustReviewer(Call call) throws SQLException {
+        String reviewer = call.segment(1);
+        Integer weightage = call.optionalNumber("weightage");
+        int weight = weightage == null ? 1 : weightage;
+        if (databaseHelper2.isTrustedReviewer(call.user(), reviewer)) {
+            databaseHelper2.updateReviewerWeightage(call.user(), reviewer, weight);
+        } else {
+            databaseHelper2.addTrustedReviewer(call.user(), reviewer, weight);
+        }
+        return databaseHelper2.getReviewerWeightages(call.user());
+    }
+
+    private Object sendMessage(Call call) throws SQLException {
+        Integer questionId = call.optionalNumber("questionId");
+        Feedback message = new Feedback(0, call.user(), call.text("receiver"), call.text("content"), new Date(),
+                questionId == null ? 0 : questionId, call.optionalNumber("answerId"),
+                call.optionalNumber("reviewId"), call.optionalNumber("parentMessageId"));
+        databaseHelper2.addFeedback(message);
+        return message(message);
+    }
+
+    private Object listAdminRequests(Call call) throws SQLException {
+        requireRole(call, "instructor", "staff", "admin");
+        String status = call.query.getOrDefault("status", "open");
+        List<Request> requests;
+        if (status.equals("open")) {
+            requests = databaseHelper4.getAllOpenRequests();
+        } else if (status.equals("closed")) {
+            requests = databaseHelper4.getAllClosedRequests();
+        } else {
+            throw new ApiException(400, "status must be open or closed");
+        }
+        return map(requests, ApiServer::request);
+    }
+
+    private Object reopenAdminRequest(Call call) throws SQLException {
+        requireRole(call, "instructor", "staff", "admin");
+        Request original = databaseHelper4.getRequestById(call.id());
+        if (original == null) {
+            throw new ApiException(404, "No request " + call.id());
+        }
+        if (original.isOpen() || original.hasBeenReopened()) {
+            throw new ApiException(409, "Request " + call.id() + " cannot be reopened");
+        }
+        return request(databaseHelper4.reopenRequest(call.id(), call.user(), call.text("description")));
+    }
+
+    // ---- JSON shapes ----
+
+    @FunctionalInterface
+    private interface Mapper<T> {
+        Map<String, Object> apply(T item);
+    }
+
+    private static <T> List<Map<String, Object>> map(List<? extends T> items, Mapper<T> mapper) {
+        List<Map<String, Object>> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            result.add(mapper.apply(item));
+        }
+        return result;
+    }
+
+    private static <T> Map<String, Object> page(List<T> items, Mapper<T> mapper, PageCursor next) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", map(items, mapper));
+        result.put("next", next == null ? null : next.getTimestamp().getTime() + ":" + next.getId());
+        return result;
+    }
+
+    private static PageCursor parseCursor(String value) {
+        int colon = value.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid cursor " + value);
+        }
+        return new PageCursor(new Date(Long.parseLong(value.substring(0, colon))),
+                Integer.parseInt(value.substring(colon + 1)));
+    }
+
+    private static Map<String, Object> ok() {
+        return Map.of("ok", true);
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message == null ? "Unknown error" : message);
+    }
+
+    private static Map<String, Object> question(Question question) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("questionId", question.getQuestionId());
+        result.put("author", question.getAuthor());
+        result.put("content", question.getContent());
+        result.put("timestamp", question.getTimestamp());
+        result.put("answered", question.isAnswered());
+        result.put("referenceQuestionId", question.getReferenceQuestionId());
+        return result;
+    }
+
+    private static Map<String, Object> questionRow(QuestionRow row) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("questionId", row.getQuestionId());
+        result.put("author", row.getAuthor());
+        result.put("contentPreview", row.getContentPreview());
+        result.put("timestamp", row.getTimestamp());
+        result.put("answered", row.isAnswered());
+        result.put("referenceQuestionId", row.getReferenceQuestionId());
+        result.put("answerCount", row.getAnswerCount());
+        result.put("unreadCount", row.getUnreadCount());
+        result.put("reviewCount", row.getReviewCount());
+        return result;
+    }
+
+    private static Map<String, Object> answer(Answer answer) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("answerId", answer.getAnswerId());
+        result.put("questionId", answer.getQuestionId());
+        result.put("author", answer.getAuthor());
+        result.put("content", answer.getContent());
+        result.put("timestamp", answer.getTimestamp());
+        result.put("accepted", answer.isAccepted());
+        result.put("referenceAnswerId", answer.getReferenceAnswerId());
+        return result;
+    }
+
+    private static Map<String, Object> review(Review review) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("reviewId", review.getReviewId());
+        result.put("reviewer", review.getReviewer());
+        result.put("content", review.getContent());
+        result.put("timestamp", review.getTimestamp());
+        result.put("questionId", review.getQuestionId());
+        result.put("answerId", review.getAnswerId());
+        if (review instanceof RankedReview) {
+            RankedReview ranked = (RankedReview) review;
+            result.put("trusted", ranked.isTrusted());
+            result.put("trustWeight", ranked.getTrustWeight());
+            result.put("effectiveWeight", ranked.getEffectiveWeight());
+        }
+        return result;
+    }
+
+    private static Map<String, Object> message(Feedback message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("feedbackId", message.getFeedbackId());
+        result.put("sender", message.getSender());
+        result.put("receiver", message.getReceiver());
+        result.put("content", message.getContent());
+        result.put("timestamp", message.getTimestamp());
+        result.put("questionId", message.getQuestionId());
+        result.put("answerId", message.getAnswerId());
+        result.put("reviewId", message.getReviewId());
+        result.put("parentMessageId", message.getParentMessageId());
+        return result;
+    }
+
+    private static Map<String, Object> summary(ConversationSummary summary) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("partner", summary.getPartner());
+        result.put("lastMessageTime", summary.getLastMessageTime());
+        result.put("lastMessageSnippet", summary.getLastMessageSnippet());
+        result.put("unreadCount", summary.getUnreadCount());
+        return result;
+    }
+
+    private static Map<String, Object> request(Request request) {
+        if (request == null) {
+            throw new ApiException(500, "The request could not be read back");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requestId", request.getRequestId());
+        result.put("requester", request.getRequesterUsername());
+        result.put("title", request.getTitle());
+        result.put("description", request.getDescription());
+        result.put("status", request.getStatus());
+        result.put("created", request.getCreationTimestamp());
+        result.put("closed", request.getClosedTimestamp());
+        result.put("closedBy", request.getClosedByUsername());
+        result.put("adminNotes", request.getAdminNotes());
+        result.put("reopenedFromId", request.getReopenedFromId());
+        result.put("hasBeenReopened", request.hasBeenReopened());
+        return result;
+    }
+
+    /**
+     * Runs the API without the user interface until the process is stopped.
+     * @param args Optional port, 8080 by default
+     * @throws Exception if the server cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ApiServer api = start(port);
+        // Another client of a shared database changes bans and posts without telling this process
+        SharedDatabaseWatcher watcher = DatabaseConfig.get().isShared()
+                ? SharedDatabaseWatcher.start(DatabaseConfig.get()) : null;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (watcher != null) {
+                watcher.close();
+            }
+            api.close();
+            ConnectionPool.shutdown();
+        }));
+        System.out.println("Academic Review System API listening on port " + api.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,302 @@
+package main;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import databasePart1.AsyncDatabase;
+import databasePart1.AsyncDatabase.SqlCall;
+import databasePart1.UiAction;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableBooleanValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Service;
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.geometry.Pos;
+
+/**
+ * Utility class that connects the pages to {@link AsyncDatabase}: database
+ * calls run on virtual threads and their results are handed back on the
+ * JavaFX Application Thread, so button handlers never block the UI.
+ *
+ * <p> Tables, lists and panes show a loading placeholder while their content
+ * is being fetched. Starting a new load of the same table, list or pane
+ * cancels the previous one, so an older, slower query can never overwrite
+ * newer results, and loads tied to a dialog are cancelled when the dialog
+ * closes. </p>
+ *
+ * <p> A load started inside a {@link UiAction} belongs to it until its result
+ * has been handed back, so the action's duration is the time until the user
+ * sees the data. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    AsyncHelper class implementation
+ */
+public final class AsyncHelper {
+    // Keys under which a table or list remembers its load in progress and its own placeholder
+    private static final String PENDING_LOAD = "AsyncHelper.pendingLoad";
+    private static final String PLACEHOLDER = "AsyncHelper.placeholder";
+
+    private AsyncHelper() {
+    }
+
+    /**
+     * Runs a database call off the UI thread and hands the result back on it.
+     * Nothing is handed back if the returned future is cancelled first.
+     *
+     * @param <T>       The type of the result
+     * @param call      The database call
+     * @param onSuccess Receives the result on the JavaFX Application Thread
+     * @param onError   Receives the failure on the JavaFX Application Thread
+     * @return The pending call, which can be cancelled
+     */
+    public static <T> CompletableFuture<T> load(SqlCall<T> call, Consumer<? super T> onSuccess,
+                                                Consumer<? super Throwable> onError) {
+        return deliver(AsyncDatabase.supply(call), onSuccess, onError);
+    }
+
+    /**
+     * Hands the outcome of database work that is already running, such as a
+     * write queued for group commit, back on the JavaFX Application Thread.
+     * Nothing is handed back if the future is cancelled first.
+     *
+     * @param <T>       The type of the result
+     * @param future    The pending work
+     * @param onSuccess Receives the result on the JavaFX Application Thread
+     * @param onError   Receives the failure on the JavaFX Application Thread
+     * @return The given future
+     */
+    public static <T> CompletableFuture<T> deliver(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                                   Consumer<? super Throwable> onError) {
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                return;
+            }
+            // Showing the result is still part of the action that asked for it
+            Platform.runLater(UiAction.propagate(() -> {
+                // The load may have been cancelled while this was queued
+                if (future.isCancelled()) {
+                    return;
+                }
+                if (error == null) {
+                    onSuccess.accept(result);
+                } else {
+                    onError.accept(unwrap(error));
+                }
+            }));
+        });
+        return future;
+    }
+
+    /**
+     * Loads the rows of a table off the UI thread, showing a loading placeholder
+     * in the meantime and cancelling any earlier load of the same table.
+     *
+     * @param <T>     The row type
+     * @param table   The table to fill
+     * @param call    The database call returning the rows
+     * @param onError Receives the failure on the JavaFX Application Thread
+     * @return The pending load, which can be cancelled
+     */
+    public static <T> CompletableFuture<List<T>> loadTable(TableView<T> table, SqlCall<List<T>> call,
+                                                           Consumer<? super Throwable> onError) {
+        return loadTable(table, call, rows -> rows, rows -> { }, onError);
+    }
+
+    /**
+     * Loads the rows of a table from a call whose result wraps them, such as a
+     * {@link Page}, and hands the whole result on once the rows are shown.
+     *
+     * @param <T>      The row type
+     * @param <R>      The type of the call's result
+     * @param table    The table to fill
+     * @param call     The database call
+     * @param rowsOf   Extracts the rows from the result
+     * @param onLoaded Receives the result on the JavaFX Application Thread after the rows are shown
+     * @param onError  Receives the failure on the JavaFX Application Thread
+     * @return The pending load, which can be cancelled
+     */
+    static <T, R> CompletableFuture<R> loadTable(TableView<T> table, SqlCall<R> call, Function<R, List<T>> rowsOf,
+                                                 Consumer<? super R> onLoaded, Consumer<? super Throwable> onError) {
+        return loadInto(table, table::getPlaceholder, table::setPlaceholder, table::setItems, call, rowsOf, onLoaded, onError);
+    }
+
+    /**
+     * Loads the items of a list off the UI thread, showing a loading placeholder
+     * in the meantime and cancelling any earlier load of the same list.
+     *
+     * @param <T>     The item type
+     * @param list    The list to fill
+     * @param call    The database call returning the items
+     * @param onError Receives the failure on the JavaFX Application Thread
+     * @return The pending load, which can be cancelled
+     */
+    public static <T> CompletableFuture<List<T>> loadList(ListView<T> list, SqlCall<List<T>> call,
+                                                          Consumer<? super Throwable> onError) {
+        return loadInto(list, list::getPlaceholder, list::setPlaceholder, list::setItems, call, rows -> rows, rows -> { }, onError);
+    }
+
+    /**
+     * Loads the content of a pane off the UI thread, showing a loading placeholder
+     * in it in the meantime and cancelling any earlier load into the same pane.
+     *
+     * @param <T>     The type of the result
+     * @param pane    The pane to fill
+     * @param call    The database call
+     * @param show    Fills the emptied pane with the result on the JavaFX Application Thread
+     * @param onError Receives the failure on the JavaFX Application Thread, with the pane emptied
+     * @return The pending load, which can be cancelled
+     */
+    public static <T> CompletableFuture<T> loadPane(Pane pane, SqlCall<T> call, Consumer<? super T> show,
+                                                    Consumer<? super Throwable> onError) {
+        Object pending = pane.getProperties().remove(PENDING_LOAD);
+        if (pending instanceof Future<?> future) {
+            future.cancel(false);
+        }
+        pane.getChildren().setAll(loadingPlaceholder());
+
+        CompletableFuture<T> future = load(call, result -> {
+            pane.getProperties().remove(PENDING_LOAD);
+            pane.getChildren().clear();
+            show.accept(result);
+        }, error -> {
+            pane.getProperties().remove(PENDING_LOAD);
+            pane.getChildren().clear();
+            onError.accept(error);
+        });
+        pane.getProperties().put(PENDING_LOAD, future);
+        return future;
+    }
+
+    private static <T, R> CompletableFuture<R> loadInto(Control control, Supplier<Node> placeholder,
+                                                        Consumer<Node> setPlaceholder,
+                                                        Consumer<ObservableList<T>> setItems,
+                                                        SqlCall<R> call, Function<R, List<T>> rowsOf,
+                                                        Consumer<? super R> onLoaded, Consumer<? super Throwable> onError) {
+        Object pending = control.getProperties().remove(PENDING_LOAD);
+        if (pending instanceof Future<?> future) {
+            future.cancel(false);
+        } else {
+            // Only remember the placeholder when it is not the loading one of an earlier load
+            control.getProperties().put(PLACEHOLDER, placeholder.get() == null ? new Label("") : placeholder.get());
+        }
+        Node original = (Node) control.getProperties().get(PLACEHOLDER);
+        setPlaceholder.accept(loadingPlaceholder());
+        setItems.accept(FXCollections.observableArrayList());
+
+        CompletableFuture<R> future = load(call, result -> {
+            control.getProperties().remove(PENDING_LOAD);
+            setPlaceholder.accept(original);
+            setItems.accept(FXCollections.observableArrayList(rowsOf.apply(result)));
+            onLoaded.accept(result);
+        }, error -> {
+            control.getProperties().remove(PENDING_LOAD);
+            setPlaceholder.accept(original);
+            onError.accept(error);
+        });
+        control.getProperties().put(PENDING_LOAD, future);
+        return future;
+    }
+
+    /**
+     * Cancels a load when the window or dialog it belongs to closes.
+     *
+     * @param showing The showing property of the Stage or Dialog
+     * @param load    The load to cancel
+     */
+    public static void cancelOnClose(ObservableBooleanValue showing, Future<?> load) {
+        showing.addListener((obs, wasShowing, isShowing) -> {
+            if (!isShowing) {
+                load.cancel(false);
+            }
+        });
+    }
+
+    /**
+     * Creates a JavaFX task for a database call. Its value, state and handlers
+     * are updated on the JavaFX Application Thread as usual.
+     *
+     * @param <T>  The type of the result
+     * @param call The database call
+     * @return A task that has not been started yet
+     */
+    public static <T> Task<T> task(SqlCall<T> call) {
+        return new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return call.call();
+            }
+        };
+    }
+
+    /**
+     * Starts a task created by {@link #task} on a virtual thread.
+     *
+     * @param <T>  The type of the result
+     * @param task The task to start
+     * @return The same task
+     */
+    public static <T> Task<T> start(Task<T> task) {
+        AsyncDatabase.executor().execute(UiAction.propagate(task));
+        return task;
+    }
+
+    /**
+     * Creates a restartable JavaFX service that runs a fresh database call each
+     * time it is started, on a virtual thread.
+     *
+     * @param <T>   The type of the result
+     * @param calls Supplies the call to run for each start, so it can read the current UI state
+     * @return A service in the READY state
+     */
+    public static <T> Service<T> service(Supplier<SqlCall<T>> calls) {
+        Service<T> service = new Service<T>() {
+            @Override
+            protected Task<T> createTask() {
+                return task(calls.get());
+            }
+        };
+        service.setExecutor(command -> AsyncDatabase.executor().execute(UiAction.propagate(command)));
+        return service;
+    }
+
+    /**
+     * Gets a readable message for a failed load.
+     *
+     * @param error The failure passed to an error handler
+     * @return The message of the underlying exception
+     */
+    public static String message(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.toString();
+    }
+
+    private static Node loadingPlaceholder() {
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setPrefSize(24, 24);
+        HBox box = new HBox(8, spinner, new Label("Loading..."));
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
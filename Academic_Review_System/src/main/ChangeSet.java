@@ -0,0 +1,65 @@
+package main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ChangeSet holds the rows inserted, updated or deleted since a given row
+ * version, as returned by the delta sync queries. Passing {@link #getVersion()}
+ * to the next sync fetches only what changed after this one.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @param <T> The row type
+ *
+ * @version 1.00    2025-04-01    ChangeSet class implementation
+ */
+public class ChangeSet<T> {
+    private final List<T> changed;
+    private final List<Integer> deletedIds;
+    private final long version;
+
+    /**
+     * Creates a new ChangeSet.
+     * @param changed Rows inserted or updated since the requested version, in their current state
+     * @param deletedIds IDs of the rows deleted since the requested version
+     * @param version The version to sync from next time
+     */
+    public ChangeSet(List<T> changed, List<Integer> deletedIds, long version) {
+        this.changed = Collections.unmodifiableList(changed);
+        this.deletedIds = Collections.unmodifiableList(deletedIds);
+        this.version = version;
+    }
+
+    /**
+     * Gets the rows inserted or updated since the requested version.
+     * @return The changed rows in their current state
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the IDs of the rows deleted since the requested version.
+     * @return The deleted row IDs
+     */
+    public List<Integer> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Gets the version this change set is complete up to.
+     * @return The version to pass to the next sync
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether nothing changed.
+     * @return true if no rows were changed or deleted
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
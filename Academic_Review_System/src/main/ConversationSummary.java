@@ -0,0 +1,110 @@
+package main;
+
+import java.util.Date;
+
+/**
+ * Represents one entry in a user's inbox: the conversation partner and their
+ * roles, when the last message was exchanged, a preview of that message and
+ * how many messages from the partner are still unread.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    ConversationSummary class implementation
+ */
+public class ConversationSummary {
+    private String partner;
+    private Date lastMessageTime;
+    private String lastMessageSnippet;
+    private int unreadCount;
+    private int partnerRoleMask;
+
+    /**
+     * Constructs a new ConversationSummary with the specified properties.
+     *
+     * @param partner The username of the other user in the conversation
+     * @param lastMessageTime The timestamp of the most recent message
+     * @param lastMessageSnippet The beginning of the most recent message
+     * @param unreadCount The number of unread messages from the partner
+     */
+    public ConversationSummary(String partner, Date lastMessageTime, String lastMessageSnippet, int unreadCount) {
+        this(partner, lastMessageTime, lastMessageSnippet, unreadCount, 0);
+    }
+
+    /**
+     * Constructs a new ConversationSummary that also knows the partner's roles.
+     *
+     * @param partner The username of the other user in the conversation
+     * @param lastMessageTime The timestamp of the most recent message
+     * @param lastMessageSnippet The beginning of the most recent message
+     * @param unreadCount The number of unread messages from the partner
+     * @param partnerRoleMask The partner's roles as a {@link User#roleMask} mask, 0 if unknown
+     */
+    public ConversationSummary(String partner, Date lastMessageTime, String lastMessageSnippet, int unreadCount,
+                               int partnerRoleMask) {
+        this.partner = partner;
+        this.lastMessageTime = lastMessageTime;
+        this.lastMessageSnippet = lastMessageSnippet;
+        this.unreadCount = unreadCount;
+        this.partnerRoleMask = partnerRoleMask;
+    }
+
+    /**
+     * Gets the username of the other user in the conversation.
+     * 
+     * @return The username of the conversation partner
+     */
+    public String getPartner() {
+        return partner;
+    }
+
+    /**
+     * Gets the timestamp of the most recent message.
+     * 
+     * @return The timestamp of the last message
+     */
+    public Date getLastMessageTime() {
+        return lastMessageTime;
+    }
+
+    /**
+     * Gets the beginning of the most recent message.
+     * 
+     * @return The last message preview
+     */
+    public String getLastMessageSnippet() {
+        return lastMessageSnippet;
+    }
+
+    /**
+     * Gets the number of unread messages from the partner.
+     * 
+     * @return The unread message count
+     */
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    /**
+     * Gets the partner's roles as a role mask.
+     * 
+     * @return The mask, 0 if the partner is not a registered user
+     */
+    public int getPartnerRoleMask() {
+        return partnerRoleMask;
+    }
+
+    /**
+     * Checks if the partner has a role.
+     * 
+     * @param role The role name
+     * @return true if the partner has the role
+     */
+    public boolean partnerHasRole(String role) {
+        return (partnerRoleMask & User.roleBit(role)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return partner;
+    }
+}
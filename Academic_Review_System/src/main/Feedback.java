@@ -24,6 +24,11 @@ public class Feedback {
     private Integer reviewId;      // Reference to a review (nullable)
     private Integer parentMessageId; // For threaded conversations (nullable)
 
+    // What the references point at, loaded with the conversation so it can be shown without further queries
+    private boolean referencedQuestionFound;
+    private String referencedAnswerAuthor;
+    private String referencedReviewer;
+
     /**
      * Constructs a new Feedback object with the specified properties.
      * 
@@ -226,4 +231,44 @@ public class Feedback {
     public void setParentMessageId(Integer parentMessageId) {
         this.parentMessageId = parentMessageId;
     }
+
+    /**
+     * Sets what the message's references point at, as loaded together with the message.
+     * 
+     * @param questionFound true if the referenced question exists
+     * @param answerAuthor The author of the referenced answer, or null if there is none
+     * @param reviewer The reviewer of the referenced review, or null if there is none
+     */
+    public void setReferences(boolean questionFound, String answerAuthor, String reviewer) {
+        this.referencedQuestionFound = questionFound;
+        this.referencedAnswerAuthor = answerAuthor;
+        this.referencedReviewer = reviewer;
+    }
+
+    /**
+     * Checks if the referenced question exists, as loaded with the conversation.
+     * 
+     * @return true if the message references a question that exists
+     */
+    public boolean isReferencedQuestionFound() {
+        return referencedQuestionFound;
+    }
+
+    /**
+     * Gets the author of the referenced answer, as loaded with the conversation.
+     * 
+     * @return The username, or null if the message references no answer that exists
+     */
+    public String getReferencedAnswerAuthor() {
+        return referencedAnswerAuthor;
+    }
+
+    /**
+     * Gets the reviewer of the referenced review, as loaded with the conversation.
+     * 
+     * @return The username, or null if the message references no review that exists
+     */
+    public String getReferencedReviewer() {
+        return referencedReviewer;
+    }
 } 
\ No newline at end of file
@@ -6,13 +6,21 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import databasePart1.ChangeEvent;
 import databasePart1.DatabaseHelper;
 import databasePart1.DatabaseHelper2;
 import databasePart1.DatabaseHelper3;
+import databasePart1.QuestionQuery;
+import databasePart1.ModerationService;
+import databasePart1.BanRegistry;
+import databasePart1.SessionContext;
+import databasePart1.UiAction;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import javafx.collections.FXCollections;
 import javafx.scene.Node;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -29,25 +37,34 @@ public class InstructorHomePage {
     private final DatabaseHelper2 databaseHelper2;
     private final DatabaseHelper3 databaseHelper3;
     private final DatabaseHelper4 databaseHelper4;
+    private final ModerationService moderationService;
     private final String currentUsername;
+    private final SessionContext session;
     private Questions questionsManager;
     private static final java.text.SimpleDateFormat DATE_FORMAT = new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss");
 
     private AdminRequestsPage adminRequestsPage;
 
     public InstructorHomePage(DatabaseHelper databaseHelper, String currentUsername) {
+        this(databaseHelper, SessionContext.forUser(currentUsername));
+    }
+
+    public InstructorHomePage(DatabaseHelper databaseHelper, SessionContext session) {
         this.databaseHelper = databaseHelper;
-        this.currentUsername = currentUsername;
+        this.session = session;
+        this.currentUsername = session.getUserName();
         
         // Initialize DatabaseHelper2 and DatabaseHelper3
         this.databaseHelper2 = new DatabaseHelper2();
         this.databaseHelper3 = new DatabaseHelper3();
         this.databaseHelper4 = new DatabaseHelper4();
+        this.moderationService = new ModerationService();
         try {
             this.databaseHelper2.connectToDatabase();
             this.databaseHelper3.connectToDatabase();
             this.databaseHelper4.connectToDatabase();
-            this.questionsManager = new Questions(databaseHelper2, databaseHelper2.connection);
+            this.moderationService.connectToDatabase();
+            this.questionsManager = new Questions(databaseHelper2);
         } catch (SQLException e) {
             e.printStackTrace();
             showError("Fatal Error", "Could not connect to required databases. Please restart the application.");
@@ -83,7 +100,7 @@ public class InstructorHomePage {
         Button reviewerButton = new Button("Manage Reviewer Requests");
         styleButton(reviewerButton, "#1a4b78", "#4169E1");
         reviewerButton.setOnAction(e -> {
-            new ReviewerPermissionsPage(databaseHelper, currentUsername, true).show(primaryStage);
+            new ReviewerPermissionsPage(databaseHelper, session, true).show(primaryStage);
         });
 
         // --- Add New Admin Request Buttons --- 
@@ -92,7 +109,7 @@ public class InstructorHomePage {
         createAdminRequestButton.setStyle(createAdminRequestButton.getStyle() + "; -fx-text-fill: black;");
         createAdminRequestButton.setOnAction(e -> {
             if (adminRequestsPage == null) {
-                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, currentUsername, primaryStage, primaryStage.getScene());
+                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, session, primaryStage, primaryStage.getScene());
             }
             adminRequestsPage.showCreateRequestDialog(); 
         });
@@ -102,7 +119,7 @@ public class InstructorHomePage {
         viewAdminRequestsButton.setStyle(viewAdminRequestsButton.getStyle() + "; -fx-text-fill: black;");
         viewAdminRequestsButton.setOnAction(e -> {
              if (adminRequestsPage == null) {
-                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, currentUsername, primaryStage, primaryStage.getScene());
+                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, session, primaryStage, primaryStage.getScene());
             }
             adminRequestsPage.show(); // Show the full request management page
         });
@@ -124,15 +141,24 @@ public class InstructorHomePage {
         inboxButton.setStyle(inboxButton.getStyle() + "; -fx-text-fill: black;");
         inboxButton.setOnAction(e -> {
             if (databaseHelper2 != null) {
-                try {
-                    Answers answersManager = new Answers(databaseHelper2);
-                    MessageHelper.showInboxDialog(currentUsername, databaseHelper2, databaseHelper3, 
-                                                questionsManager, answersManager);
-                } catch (SQLException ex) {
-                    showError("Error", "Failed to open inbox: " + ex.getMessage());
-                }
+                UiAction.run("Open inbox", () -> {
+                    try {
+                        Answers answersManager = new Answers(databaseHelper2);
+                        MessageHelper.showInboxDialog(currentUsername, databaseHelper2, databaseHelper3, 
+                                                    questionsManager, answersManager);
+                    } catch (SQLException ex) {
+                        showError("Error", "Failed to open inbox: " + ex.getMessage());
+                    }
+                });
             }
         });
+        MessageHelper.showUnreadCount(inboxButton, currentUsername, databaseHelper2);
+
+        // Add Announcement button
+        Button announceButton = new Button("Announce to Students");
+        styleButton(announceButton, "#ADD8E6", "#4682B4");
+        announceButton.setStyle(announceButton.getStyle() + "; -fx-text-fill: black;");
+        announceButton.setOnAction(e -> showAnnouncementDialog());
 
         // Add Logout button
         Button logoutButton = LogoutHelper.createLogoutButton(primaryStage, databaseHelper);
@@ -148,6 +174,7 @@ public class InstructorHomePage {
             reportedContentButton, 
             bannedStudentsButton,
             inboxButton, 
+            announceButton,
             logoutButton
         );
         
@@ -214,6 +241,57 @@ public class InstructorHomePage {
         primaryStage.show();
     }
     
+    /**
+     * Shows a dialog for sending one message to every student. The message is
+     * stored once and delivered to each student's inbox as a broadcast.
+     */
+    private void showAnnouncementDialog() {
+        Dialog<String> dialog = new Dialog<>();
+        dialog.setTitle("Announce to Students");
+        dialog.setHeaderText("Send a message to all students");
+
+        VBox content = new VBox(10);
+        content.setPadding(new Insets(10));
+
+        Label messageLabel = new Label("Announcement:");
+        TextArea messageArea = new TextArea();
+        messageArea.setPromptText("Type your announcement here...");
+        messageArea.setPrefRowCount(5);
+
+        content.getChildren().addAll(messageLabel, messageArea);
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        dialog.setResultConverter(dialogButton -> {
+            if (dialogButton == ButtonType.OK) {
+                return messageArea.getText();
+            }
+            return null;
+        });
+
+        dialog.showAndWait().ifPresent(message -> {
+            if (message != null && !message.trim().isEmpty()) {
+                Feedback announcement = new Feedback(
+                    0,
+                    currentUsername,
+                    null,  // Each student is a recipient
+                    message,
+                    new Date(),
+                    0,     // Not about a question
+                    null,  // No answer reference
+                    null,  // No review reference
+                    null   // Not a reply
+                );
+                AsyncHelper.load(() -> databaseHelper2.announceToRole(announcement, "student"),
+                        delivered -> showSuccess("Announcement Sent",
+                                "Your announcement has been sent to " + delivered + " student(s)."),
+                        ex -> showError("Error", "Failed to send announcement: " + AsyncHelper.message(ex)));
+            } else {
+                showError("Error", "Announcement cannot be empty");
+            }
+        });
+    }
+
     /**
      * Shows a dialog displaying reported content that needs review
      */
@@ -814,6 +892,10 @@ public class InstructorHomePage {
 
         // Initial load of questions
         refreshDashboardQuestions();
+
+        // Questions, answers and reviews posted in any window are patched into the table
+        LiveUpdates.subscribe(dashboardQuestionTable, ChangeEvent.QuestionEvent.class,
+                event -> dashboardQuestionPager.refreshIfActive());
     }
     
     private VBox createDashboardSearchSection() {
@@ -831,18 +913,8 @@ public class InstructorHomePage {
         Button searchButton = new Button("Search");
         styleButton(searchButton, "#1a4b78", "#1a4b78");
         searchButton.setOnAction(e -> {
-            try {
-                String keyword = searchField.getText();
-                if (!keyword.isEmpty()) {
-                    dashboardQuestionTable.setItems(FXCollections.observableArrayList(
-                        questionsManager.searchQuestions(keyword)
-                    ));
-                } else {
-                    refreshDashboardQuestions();
-                }
-            } catch (SQLException ex) {
-                showError("Search Error", ex.getMessage());
-            }
+            // Combines with the status filter and order; an empty search clears the keyword
+            UiAction.run("Search questions", () -> loadDashboardQuestionPages(dashboardQuestionQuery.keyword(searchField.getText())));
         });
 
         // Add Manage Reviewers button
@@ -856,7 +928,10 @@ public class InstructorHomePage {
     }
     
     // Add instance variable at the class level
-    private TableView<Question> dashboardQuestionTable;
+    private TableView<QuestionRow> dashboardQuestionTable;
+    private TablePager<QuestionRow> dashboardQuestionPager;
+    // The filters, search and order the dashboard question table currently shows
+    private QuestionQuery dashboardQuestionQuery = QuestionQuery.all();
     
     private VBox createDashboardQuestionsSection() {
         VBox section = new VBox(10);
@@ -867,6 +942,12 @@ public class InstructorHomePage {
 
         dashboardQuestionTable = new TableView<>();
         setupDashboardQuestionTable();
+        dashboardQuestionPager = new TablePager<>(dashboardQuestionTable, DatabaseHelper2.DEFAULT_PAGE_SIZE,
+                e -> showError("Error", "Failed to load questions: " + AsyncHelper.message(e)));
+
+        Label pageStatusLabel = new Label();
+        pageStatusLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: white;");
+        pageStatusLabel.textProperty().bind(dashboardQuestionPager.statusProperty());
 
         // Create action buttons row
         HBox actionButtonsRow = new HBox(10);
@@ -877,12 +958,7 @@ public class InstructorHomePage {
         styleButton(viewAnswersBtn, "#90EE90", "#228B22");
         viewAnswersBtn.setStyle(viewAnswersBtn.getStyle() + "; -fx-text-fill: black;");
         viewAnswersBtn.setOnAction(e -> {
-            Question selectedQuestion = dashboardQuestionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to view answers.");
-                return;
-            }
-            showAnswersDialog(selectedQuestion);
+            withSelectedQuestion("Please select a question to view answers.", this::showAnswersDialog);
         });
         
         // View Reviews button
@@ -890,12 +966,7 @@ public class InstructorHomePage {
         styleButton(viewReviewsBtn, "#87CEEB", "#4169E1");
         viewReviewsBtn.setStyle(viewReviewsBtn.getStyle() + "; -fx-text-fill: black;");
         viewReviewsBtn.setOnAction(e -> {
-            Question selectedQuestion = dashboardQuestionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to view reviews.");
-                return;
-            }
-            showQuestionReviewsDialog(selectedQuestion);
+            withSelectedQuestion("Please select a question to view reviews.", this::showQuestionReviewsDialog);
         });
         
         // Message Author button
@@ -903,14 +974,11 @@ public class InstructorHomePage {
         styleButton(messageBtn, "#ADD8E6", "#4682B4");
         messageBtn.setStyle(messageBtn.getStyle() + "; -fx-text-fill: black;");
         messageBtn.setOnAction(e -> {
-            Question selectedQuestion = dashboardQuestionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to message its author.");
-                return;
-            }
-            if (!selectedQuestion.getAuthor().equals(currentUsername)) {
-                showMessageForQuestion(selectedQuestion.getAuthor(), selectedQuestion.getQuestionId());
-            }
+            withSelectedQuestion("Please select a question to message its author.", selectedQuestion -> {
+                if (!selectedQuestion.getAuthor().equals(currentUsername)) {
+                    showMessageForQuestion(selectedQuestion.getAuthor(), selectedQuestion.getQuestionId());
+                }
+            });
         });
         
         // Send Warning button
@@ -918,39 +986,34 @@ public class InstructorHomePage {
         styleButton(warningBtn, "#FFB6C1", "#FF0000");
         warningBtn.setStyle(warningBtn.getStyle() + "; -fx-text-fill: black;");
         warningBtn.setOnAction(e -> {
-            Question selectedQuestion = dashboardQuestionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to send a warning.");
-                return;
-            }
-            showQuestionWarningDialog(selectedQuestion);
+            withSelectedQuestion("Please select a question to send a warning.", this::showQuestionWarningDialog);
         });
         
         actionButtonsRow.getChildren().addAll(viewAnswersBtn, viewReviewsBtn, messageBtn, warningBtn);
 
-        section.getChildren().addAll(titleLabel, dashboardQuestionTable, actionButtonsRow);
+        section.getChildren().addAll(titleLabel, dashboardQuestionTable, pageStatusLabel, actionButtonsRow);
         return section;
     }
     
     private void setupDashboardQuestionTable() {
         // Content Column
-        TableColumn<Question, String> contentCol = new TableColumn<>("Question");
+        TableColumn<QuestionRow, String> contentCol = new TableColumn<>("Question");
         contentCol.setCellValueFactory(cellData -> 
-            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getContent()));
+            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getContentPreview()));
         contentCol.setPrefWidth(500);
 
         // ID Column
-        TableColumn<Question, Integer> idCol = new TableColumn<>("ID");
+        TableColumn<QuestionRow, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("questionId"));
         idCol.setPrefWidth(60);
 
         // Author Column
-        TableColumn<Question, String> authorCol = new TableColumn<>("Asked By");
+        TableColumn<QuestionRow, String> authorCol = new TableColumn<>("Asked By");
         authorCol.setCellValueFactory(new PropertyValueFactory<>("author"));
         authorCol.setPrefWidth(120);
 
         // Date Column
-        TableColumn<Question, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<QuestionRow, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -966,7 +1029,7 @@ public class InstructorHomePage {
         dateCol.setPrefWidth(170);
 
         // Status Column
-        TableColumn<Question, Boolean> statusCol = new TableColumn<>("Status");
+        TableColumn<QuestionRow, Boolean> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new PropertyValueFactory<>("answered"));
         statusCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -981,220 +1044,232 @@ public class InstructorHomePage {
         });
         statusCol.setPrefWidth(100);
 
-        dashboardQuestionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol);
+        // Answer and Review Count Columns
+        TableColumn<QuestionRow, Integer> answersCol = new TableColumn<>("Answers");
+        answersCol.setCellValueFactory(new PropertyValueFactory<>("answerCount"));
+        answersCol.setPrefWidth(80);
+        answersCol.setStyle("-fx-alignment: CENTER;");
+
+        TableColumn<QuestionRow, Integer> reviewsCol = new TableColumn<>("Reviews");
+        reviewsCol.setCellValueFactory(new PropertyValueFactory<>("reviewCount"));
+        reviewsCol.setPrefWidth(80);
+        reviewsCol.setStyle("-fx-alignment: CENTER;");
+
+        dashboardQuestionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol, answersCol, reviewsCol);
         
         // Set row selection behavior
         dashboardQuestionTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
     }
     
     private void refreshDashboardQuestions() {
-        try {
-            dashboardQuestionTable.setItems(FXCollections.observableArrayList(
-                questionsManager.getAllQuestions()
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load questions: " + e.getMessage());
+        if (!dashboardQuestionPager.refresh()) {
+            loadDashboardQuestionPages(dashboardQuestionQuery);
+        }
+    }
+
+    // Fills the question table with the rows of the query a page at a time; later pages load as the user scrolls
+    private void loadDashboardQuestionPages(QuestionQuery query) {
+        dashboardQuestionQuery = query;
+        dashboardQuestionPager.start(
+                (after, limit) -> questionsManager.getQuestionRowPage(currentUsername, query.limit(limit), after),
+                () -> questionsManager.countQuestionRows(query),
+                questionsManager.rowSync(currentUsername, query));
+    }
+    
+    // Loads the full question behind the selected row off the UI thread and hands it to open,
+    // or asks for a selection first when no row is selected
+    private void withSelectedQuestion(String selectionMessage, Consumer<Question> open) {
+        QuestionRow selectedRow = dashboardQuestionTable.getSelectionModel().getSelectedItem();
+        if (selectedRow == null) {
+            showError("Selection Error", selectionMessage);
+            return;
         }
+        AsyncHelper.load(() -> questionsManager.getQuestionById(selectedRow.getQuestionId()),
+                question -> {
+                    if (question != null) {
+                        open.accept(question);
+                    } else {
+                        showError("Error", "The selected question no longer exists.");
+                    }
+                },
+                error -> showError("Error", "Failed to load question: " + AsyncHelper.message(error)));
     }
     
     // Filter questions by status (resolved/unresolved)
     private void filterDashboardByStatus(boolean isResolved) {
-        try {
-            List<Question> filteredQuestions = questionsManager.getAllQuestions();
-            filteredQuestions.removeIf(q -> q.isAnswered() != isResolved);
-            dashboardQuestionTable.setItems(FXCollections.observableArrayList(filteredQuestions));
-        } catch (SQLException e) {
-            showError("Filter Error", e.getMessage());
-        }
+        loadDashboardQuestionPages(dashboardQuestionQuery.answered(isResolved));
     }
 
     // Filter questions by recency (most recent first)
     private void filterDashboardByRecent() {
-        try {
-            List<Question> recentQuestions = questionsManager.getAllQuestions();
-            recentQuestions.sort((q1, q2) -> q2.getTimestamp().compareTo(q1.getTimestamp()));
-            dashboardQuestionTable.setItems(FXCollections.observableArrayList(recentQuestions));
-        } catch (SQLException e) {
-            showError("Filter Error", e.getMessage());
-        }
+        loadDashboardQuestionPages(dashboardQuestionQuery.newestFirst(true));
     }
     
     private void showAnswersDialog(Question question) {
-        try {
-            Dialog<Void> dialog = new Dialog<>();
-            dialog.setTitle("Question Answers");
-            dialog.setHeaderText("Answers for Question #" + question.getQuestionId());
-            dialog.getDialogPane().setPrefSize(900, 600);
-
-            VBox content = new VBox(10);
-            content.setPadding(new Insets(10));
-
-            // Question content display
-            Label questionLabel = new Label("Question: " + question.getContent());
-            questionLabel.setWrapText(true);
-            questionLabel.setStyle("-fx-font-weight: bold;");
-            
-            // Author and date information
-            Label infoLabel = new Label("Asked by: " + question.getAuthor() + " on " + 
-                                       DATE_FORMAT.format(question.getTimestamp()));
-            
-            TableView<Answer> answersTable = new TableView<>();
-            
-            // Answer Content Column
-            TableColumn<Answer, String> contentCol = new TableColumn<>("Answer");
-            contentCol.setCellValueFactory(cellData -> {
-                Answer answer = cellData.getValue();
-                String answerContent = answer.getContent();
-                
-                // Handle referenced answers
-                if (answer.hasReference()) {
-                    try {
-                        Answer referencedAnswer = databaseHelper2.getAnswerById(answer.getReferenceAnswerId());
-                        if (referencedAnswer != null) {
-                            String referenceDisplay = String.format(
-                                "↪ Re: \"%s\" (by %s)\n%s",
-                                truncateString(referencedAnswer.getContent(), 50),
-                                referencedAnswer.getAuthor(),
-                                answerContent
-                            );
-                            return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    }
-                }
-                
-                return new javafx.beans.property.SimpleStringProperty(answerContent);
-            });
-            contentCol.setPrefWidth(400);
-
-            // Answered By Column
-            TableColumn<Answer, String> authorCol = new TableColumn<>("Answered By");
-            authorCol.setCellValueFactory(new PropertyValueFactory<>("author"));
-            authorCol.setPrefWidth(120);
-
-            // Date Column
-            TableColumn<Answer, Date> dateCol = new TableColumn<>("Date");
-            dateCol.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
-            dateCol.setCellFactory(col -> new TableCell<>() {
-                @Override
-                protected void updateItem(Date item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty) {
-                        setText(null);
-                    } else {
-                        setText(DATE_FORMAT.format(item));
-                    }
-                }
-            });
-            dateCol.setPrefWidth(150);
-
-            // Accepted Answer Column
-            TableColumn<Answer, Boolean> acceptedCol = new TableColumn<>("Accepted");
-            acceptedCol.setCellValueFactory(new PropertyValueFactory<>("accepted"));
-            acceptedCol.setCellFactory(col -> new TableCell<>() {
-                @Override
-                protected void updateItem(Boolean item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty) {
-                        setText(null);
-                    } else {
-                        Answer answer = getTableView().getItems().get(getIndex());
-                        setText(answer.isAccepted() ? "Yes" : "No");
-                    }
-                }
-            });
-            acceptedCol.setPrefWidth(80);
-            acceptedCol.setStyle("-fx-alignment: CENTER;");
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Question Answers");
+        dialog.setHeaderText("Answers for Question #" + question.getQuestionId());
+        dialog.getDialogPane().setPrefSize(900, 600);
 
-            // Set the columns (without action column)
-            answersTable.getColumns().setAll(contentCol, authorCol, dateCol, acceptedCol);
-            answersTable.setPrefHeight(300);
-            
-            // Set row selection behavior
-            answersTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+        VBox content = new VBox(10);
+        content.setPadding(new Insets(10));
 
-            // Load existing answers for this question
-            Answers answersManager = new Answers(databaseHelper2);
-            answersTable.setItems(FXCollections.observableArrayList(
-                answersManager.getAnswersForQuestion(question.getQuestionId())
-            ));
-            
-            // Create action buttons section below the table
-            Label selectionLabel = new Label("Select an answer and choose an action:");
-            selectionLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
+        // Question content display
+        Label questionLabel = new Label("Question: " + question.getContent());
+        questionLabel.setWrapText(true);
+        questionLabel.setStyle("-fx-font-weight: bold;");
+        
+        // Author and date information
+        Label infoLabel = new Label("Asked by: " + question.getAuthor() + " on " + 
+                                   DATE_FORMAT.format(question.getTimestamp()));
+        
+        TableView<Answer> answersTable = new TableView<>();
+        
+        // Answer Content Column
+        TableColumn<Answer, String> contentCol = new TableColumn<>("Answer");
+        contentCol.setCellValueFactory(cellData -> {
+            Answer answer = cellData.getValue();
+            String answerContent = answer.getContent();
             
-            HBox actionButtonsBox = new HBox(10);
-            actionButtonsBox.setAlignment(Pos.CENTER);
+            // Handle referenced answers, loaded with the page so cells never query
+            if (answer.hasReference() && answer.getReferencedAuthor() != null) {
+                String referenceDisplay = String.format(
+                    "↪ Re: \"%s\" (by %s)\n%s",
+                    truncateString(answer.getReferencedContent(), 50),
+                    answer.getReferencedAuthor(),
+                    answerContent
+                );
+                return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
+            }
             
-            // View Reviews button
-            Button viewReviewsBtn = new Button("View Reviews");
-            styleButton(viewReviewsBtn, "#87CEEB", "#4169E1");
-            viewReviewsBtn.setStyle(viewReviewsBtn.getStyle() + "; -fx-text-fill: black;");
-            viewReviewsBtn.setOnAction(e -> {
-                Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
-                if (selectedAnswer != null) {
-                    showAnswerReviewsDialog(selectedAnswer, question);
+            return new javafx.beans.property.SimpleStringProperty(answerContent);
+        });
+        contentCol.setPrefWidth(400);
+
+        // Answered By Column
+        TableColumn<Answer, String> authorCol = new TableColumn<>("Answered By");
+        authorCol.setCellValueFactory(new PropertyValueFactory<>("author"));
+        authorCol.setPrefWidth(120);
+
+        // Date Column
+        TableColumn<Answer, Date> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
+        dateCol.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Date item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    setText(null);
                 } else {
-                    showError("Selection Error", "Please select an answer first.");
+                    setText(DATE_FORMAT.format(item));
                 }
-            });
-            
-            // Message Author button
-            Button messageBtn = new Button("Message Author");
-            styleButton(messageBtn, "#ADD8E6", "#4682B4");
-            messageBtn.setStyle(messageBtn.getStyle() + "; -fx-text-fill: black;");
-            messageBtn.setOnAction(e -> {
-                Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
-                if (selectedAnswer != null) {
-                    if (!selectedAnswer.getAuthor().equals(currentUsername)) {
-                        try {
-                            MessageHelper.showMessageForAnswer(
-                                currentUsername, 
-                                selectedAnswer.getAuthor(), 
-                                question.getQuestionId(), 
-                                selectedAnswer.getAnswerId(),
-                                databaseHelper2, 
-                                questionsManager, 
-                                new Answers(databaseHelper2)
-                            );
-                        } catch (Exception ex) {
-                            showError("Message Error", "Failed to send message: " + ex.getMessage());
-                        }
-                    } else {
-                        showError("Message Error", "You cannot message yourself.");
-                    }
+            }
+        });
+        dateCol.setPrefWidth(150);
+
+        // Accepted Answer Column
+        TableColumn<Answer, Boolean> acceptedCol = new TableColumn<>("Accepted");
+        acceptedCol.setCellValueFactory(new PropertyValueFactory<>("accepted"));
+        acceptedCol.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Boolean item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    setText(null);
                 } else {
-                    showError("Selection Error", "Please select an answer first.");
+                    Answer answer = getTableView().getItems().get(getIndex());
+                    setText(answer.isAccepted() ? "Yes" : "No");
                 }
-            });
-            
-            // Warning button for answers
-            Button warningBtn = new Button("Send Warning");
-            styleButton(warningBtn, "#FFA500", "#FF8C00"); // Orange color for warning
-            warningBtn.setStyle(warningBtn.getStyle() + "; -fx-text-fill: black;");
-            warningBtn.setOnAction(e -> {
-                Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
-                if (selectedAnswer != null) {
-                    showAnswerWarningDialog(selectedAnswer, question);
+            }
+        });
+        acceptedCol.setPrefWidth(80);
+        acceptedCol.setStyle("-fx-alignment: CENTER;");
+
+        // Set the columns (without action column)
+        answersTable.getColumns().setAll(contentCol, authorCol, dateCol, acceptedCol);
+        answersTable.setPrefHeight(300);
+        
+        // Set row selection behavior
+        answersTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+
+        // Load existing answers for this question; closing the dialog cancels the load
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), TablePager.of(answersTable,
+                DatabaseHelper2.DEFAULT_PAGE_SIZE, e -> showError("Error", "Failed to load answers: " + AsyncHelper.message(e)))
+                .start((after, limit) -> databaseHelper2.getAnswerPage(question.getQuestionId(), after, limit),
+                        () -> databaseHelper2.countAnswersForQuestion(question.getQuestionId())));
+        
+        // Create action buttons section below the table
+        Label selectionLabel = new Label("Select an answer and choose an action:");
+        selectionLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
+        
+        HBox actionButtonsBox = new HBox(10);
+        actionButtonsBox.setAlignment(Pos.CENTER);
+        
+        // View Reviews button
+        Button viewReviewsBtn = new Button("View Reviews");
+        styleButton(viewReviewsBtn, "#87CEEB", "#4169E1");
+        viewReviewsBtn.setStyle(viewReviewsBtn.getStyle() + "; -fx-text-fill: black;");
+        viewReviewsBtn.setOnAction(e -> {
+            Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
+            if (selectedAnswer != null) {
+                showAnswerReviewsDialog(selectedAnswer, question);
+            } else {
+                showError("Selection Error", "Please select an answer first.");
+            }
+        });
+        
+        // Message Author button
+        Button messageBtn = new Button("Message Author");
+        styleButton(messageBtn, "#ADD8E6", "#4682B4");
+        messageBtn.setStyle(messageBtn.getStyle() + "; -fx-text-fill: black;");
+        messageBtn.setOnAction(e -> {
+            Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
+            if (selectedAnswer != null) {
+                if (!selectedAnswer.getAuthor().equals(currentUsername)) {
+                    try {
+                        MessageHelper.showMessageForAnswer(
+                            currentUsername, 
+                            selectedAnswer.getAuthor(), 
+                            question.getQuestionId(), 
+                            selectedAnswer.getAnswerId(),
+                            databaseHelper2, 
+                            questionsManager, 
+                            new Answers(databaseHelper2)
+                        );
+                    } catch (Exception ex) {
+                        showError("Message Error", "Failed to send message: " + ex.getMessage());
+                    }
                 } else {
-                    showError("Selection Error", "Please select an answer first.");
+                    showError("Message Error", "You cannot message yourself.");
                 }
-            });
-            
-            actionButtonsBox.getChildren().addAll(viewReviewsBtn, messageBtn, warningBtn);
-            
-            VBox actionSection = new VBox(5);
-            actionSection.setAlignment(Pos.CENTER);
-            actionSection.getChildren().addAll(selectionLabel, actionButtonsBox);
-
-            content.getChildren().addAll(questionLabel, infoLabel, answersTable, actionSection);
-            dialog.getDialogPane().setContent(content);
-            dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
-            dialog.showAndWait();
-        } catch (SQLException e) {
-            showError("Error", "Failed to load answers: " + e.getMessage());
-        }
+            } else {
+                showError("Selection Error", "Please select an answer first.");
+            }
+        });
+        
+        // Warning button for answers
+        Button warningBtn = new Button("Send Warning");
+        styleButton(warningBtn, "#FFA500", "#FF8C00"); // Orange color for warning
+        warningBtn.setStyle(warningBtn.getStyle() + "; -fx-text-fill: black;");
+        warningBtn.setOnAction(e -> {
+            Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
+            if (selectedAnswer != null) {
+                showAnswerWarningDialog(selectedAnswer, question);
+            } else {
+                showError("Selection Error", "Please select an answer first.");
+            }
+        });
+        
+        actionButtonsBox.getChildren().addAll(viewReviewsBtn, messageBtn, warningBtn);
+        
+        VBox actionSection = new VBox(5);
+        actionSection.setAlignment(Pos.CENTER);
+        actionSection.getChildren().addAll(selectionLabel, actionButtonsBox);
+
+        content.getChildren().addAll(questionLabel, infoLabel, answersTable, actionSection);
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.showAndWait();
     }
     
     private void showQuestionReviewsDialog(Question question) {
@@ -1210,20 +1285,20 @@ public class InstructorHomePage {
         questionLabel.setWrapText(true);
         questionLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -1279,12 +1354,7 @@ public class InstructorHomePage {
 
         actionButtonsRow.getChildren().add(messageBtn);
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForQuestion(question.getQuestionId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), loadReviews(reviewsTable, question.getQuestionId(), null));
 
         content.getChildren().addAll(questionLabel, reviewsTable, actionButtonsRow);
         dialog.getDialogPane().setContent(content);
@@ -1292,6 +1362,16 @@ public class InstructorHomePage {
         dialog.showAndWait();
     }
     
+    // Loads a question's or an answer's reviews off the UI thread
+    private CompletableFuture<List<RankedReview>> loadReviews(TableView<RankedReview> reviewsTable, int questionId,
+                                                              Integer answerId) {
+        return AsyncHelper.loadTable(reviewsTable,
+                () -> answerId != null
+                        ? databaseHelper3.getRankedReviewsForAnswer(answerId, currentUsername)
+                        : databaseHelper3.getRankedReviewsForQuestion(questionId, currentUsername),
+                e -> showError("Error", "Failed to load reviews: " + AsyncHelper.message(e)));
+    }
+
     private void showAnswerReviewsDialog(Answer answer, Question question) {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Answer Reviews");
@@ -1305,20 +1385,20 @@ public class InstructorHomePage {
         answerLabel.setWrapText(true);
         answerLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -1334,7 +1414,7 @@ public class InstructorHomePage {
         dateCol.setPrefWidth(150);
 
         // Action Column for messaging
-        TableColumn<Review, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<RankedReview, Void> actionCol = new TableColumn<>("Action");
         actionCol.setCellFactory(col -> new TableCell<>() {
             @Override
             protected void updateItem(Void item, boolean empty) {
@@ -1378,12 +1458,8 @@ public class InstructorHomePage {
 
         reviewsTable.getColumns().addAll(reviewerCol, reviewCol, dateCol, actionCol);
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForAnswer(answer.getAnswerId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(),
+                loadReviews(reviewsTable, answer.getQuestionId(), answer.getAnswerId()));
 
         content.getChildren().addAll(answerLabel, reviewsTable);
         dialog.getDialogPane().setContent(content);
@@ -1484,54 +1560,12 @@ public class InstructorHomePage {
             question.getContent()
         );
         
-        // Create a feedback/message to the student
-        Feedback warning = new Feedback(
-            0,
-            "SYSTEM WARNING", // Special sender name to highlight importance
-            question.getAuthor(), // Receiver is the question author
-            warningMessage,
-            new Date(),
-            question.getQuestionId(),
-            null,  // No answer reference
-            null,  // No review reference
-            null   // Not a reply
-        );
-        
-        // Add the warning to the database
-        databaseHelper2.addFeedback(warning);
-        
-        // Check if student has received 4 or more warnings
-        int warningCount = databaseHelper2.getSystemWarningCount(question.getAuthor());
-        if (warningCount >= 4) {
-            // Auto-ban after 4 warnings
-            String banReason = "Automatic ban after receiving 4 system warnings for violating community guidelines.";
-            databaseHelper3.banStudent(question.getAuthor(), currentUsername, banReason);
-            
-            // Notify the student about the ban
-            String banMessage = String.format(
-                "ACCOUNT BANNED\n\n" +
-                "Your account has been automatically banned after receiving %d warnings for violating community guidelines.\n\n" +
-                "You can still access the system to view content and messages, but most interactive features have been disabled.\n\n" +
-                "If you believe this action was taken in error, please contact the administration.",
-                warningCount
-            );
-            
-            Feedback banNotification = new Feedback(
-                0,
-                "SYSTEM NOTIFICATION", 
-                question.getAuthor(),
-                banMessage,
-                new Date(),
-                0,  // No specific question reference
-                null,  // No answer reference
-                null,  // No review reference
-                null   // Not a reply
-            );
-            
-            databaseHelper2.addFeedback(banNotification);
-            
+        // Record the warning; the escalation rules may ban the student in the same transaction
+        ModerationResult result = moderationService.warn(question.getAuthor(), currentUsername, warningMessage,
+                question.getQuestionId(), null);
+        if (result.isBanned()) {
             // Show success message to instructor
-            showSuccess("Student Banned", question.getAuthor() + " has been automatically banned after receiving " + warningCount + " warnings.");
+            showSuccess("Student Banned", question.getAuthor() + " has been automatically banned after receiving " + result.getWarningCount() + " warnings.");
         }
     }
     
@@ -1557,54 +1591,12 @@ public class InstructorHomePage {
             answer.getContent()
         );
         
-        // Create a feedback/message to the student
-        Feedback warning = new Feedback(
-            0,
-            "SYSTEM WARNING", // Special sender name to highlight importance
-            answer.getAuthor(), // Receiver is the answer author
-            warningMessage,
-            new Date(),
-            question.getQuestionId(),
-            answer.getAnswerId(),  // Reference to the answer
-            null,  // No review reference
-            null   // Not a reply
-        );
-        
-        // Add the warning to the database
-        databaseHelper2.addFeedback(warning);
-        
-        // Check if student has received 4 or more warnings
-        int warningCount = databaseHelper2.getSystemWarningCount(answer.getAuthor());
-        if (warningCount >= 4) {
-            // Auto-ban after 4 warnings
-            String banReason = "Automatic ban after receiving 4 system warnings for violating community guidelines.";
-            databaseHelper3.banStudent(answer.getAuthor(), currentUsername, banReason);
-            
-            // Notify the student about the ban
-            String banMessage = String.format(
-                "ACCOUNT BANNED\n\n" +
-                "Your account has been automatically banned after receiving %d warnings for violating community guidelines.\n\n" +
-                "You can still access the system to view content and messages, but most interactive features have been disabled.\n\n" +
-                "If you believe this action was taken in error, please contact the administration.",
-                warningCount
-            );
-            
-            Feedback banNotification = new Feedback(
-                0,
-                "SYSTEM NOTIFICATION", 
-                answer.getAuthor(),
-                banMessage,
-                new Date(),
-                0,  // No specific question reference
-                null,  // No answer reference
-                null,  // No review reference
-                null   // Not a reply
-            );
-            
-            databaseHelper2.addFeedback(banNotification);
-            
+        // Record the warning; the escalation rules may ban the student in the same transaction
+        ModerationResult result = moderationService.warn(answer.getAuthor(), currentUsername, warningMessage,
+                question.getQuestionId(), answer.getAnswerId());
+        if (result.isBanned()) {
             // Show success message to instructor
-            showSuccess("Student Banned", answer.getAuthor() + " has been automatically banned after receiving " + warningCount + " warnings.");
+            showSuccess("Student Banned", answer.getAuthor() + " has been automatically banned after receiving " + result.getWarningCount() + " warnings.");
         }
     }
 
@@ -1625,31 +1617,31 @@ public class InstructorHomePage {
         allStudentsLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
         
         // Table for displaying students
-        TableView<User> studentTable = new TableView<>();
+        TableView<StudentBanStatus> studentTable = new TableView<>();
         
         // Username column
-        TableColumn<User, String> usernameCol = new TableColumn<>("Username");
+        TableColumn<StudentBanStatus, String> usernameCol = new TableColumn<>("Username");
         usernameCol.setCellValueFactory(new PropertyValueFactory<>("userName"));
         usernameCol.setPrefWidth(150);
         
         // Full name column
-        TableColumn<User, String> nameCol = new TableColumn<>("Full Name");
+        TableColumn<StudentBanStatus, String> nameCol = new TableColumn<>("Full Name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("fullName"));
         nameCol.setPrefWidth(200);
         
         // Email column
-        TableColumn<User, String> emailCol = new TableColumn<>("Email");
+        TableColumn<StudentBanStatus, String> emailCol = new TableColumn<>("Email");
         emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
         emailCol.setPrefWidth(220);
         
         // Ban status column with checkboxes
-        TableColumn<User, Boolean> banStatusCol = new TableColumn<>("Banned");
-        banStatusCol.setCellFactory(col -> new TableCell<User, Boolean>() {
+        TableColumn<StudentBanStatus, Boolean> banStatusCol = new TableColumn<>("Banned");
+        banStatusCol.setCellFactory(col -> new TableCell<StudentBanStatus, Boolean>() {
             private final CheckBox checkBox = new CheckBox();
             
             {
                 checkBox.setOnAction(event -> {
-                    User student = getTableView().getItems().get(getIndex());
+                    User student = getTableView().getItems().get(getIndex()).getStudent();
                     if (checkBox.isSelected()) {
                         // Show confirmation dialog for banning
                         showBanConfirmationDialog(student);
@@ -1666,9 +1658,10 @@ public class InstructorHomePage {
                 if (empty) {
                     setGraphic(null);
                 } else {
-                    User student = getTableView().getItems().get(getIndex());
+                    StudentBanStatus student = getTableView().getItems().get(getIndex());
                     try {
-                        boolean isBanned = databaseHelper3.isStudentBanned(student.getUserName());
+                        // Answered from memory; the registry follows every ban and unban
+                        boolean isBanned = BanRegistry.getInstance().isBanned(student.getUserName());
                         checkBox.setSelected(isBanned);
                         setGraphic(checkBox);
                     } catch (SQLException e) {
@@ -1682,13 +1675,11 @@ public class InstructorHomePage {
         
         studentTable.getColumns().addAll(usernameCol, nameCol, emailCol, banStatusCol);
         
-        // Load students
-        try {
-            List<User> students = databaseHelper.getUsersByRole("student");
-            studentTable.setItems(FXCollections.observableArrayList(students));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load students: " + e.getMessage());
-        }
+        // Load the students and their ban status with one query, off the UI thread
+        AsyncHelper.loadTable(studentTable, () -> {
+            BanRegistry.getInstance().ensureLoaded();
+            return databaseHelper3.getStudentsWithBanStatus();
+        }, error -> showError("Error", "Failed to load students: " + AsyncHelper.message(error)));
         
         // Add tab view to show currently banned students in a separate tab
         TabPane tabPane = new TabPane();
@@ -1856,8 +1847,6 @@ public class InstructorHomePage {
         dialog.showAndWait().ifPresent(reason -> {
             if (reason != null && !reason.trim().isEmpty()) {
                 try {
-                    databaseHelper3.banStudent(student.getUserName(), currentUsername, reason);
-                    
                     // Send notification to student
                     String banMessage = String.format(
                         "ACCOUNT BANNED\n\n" +
@@ -1869,19 +1858,8 @@ public class InstructorHomePage {
                         reason
                     );
                     
-                    Feedback banNotification = new Feedback(
-                        0,
-                        "SYSTEM NOTIFICATION", 
-                        student.getUserName(),
-                        banMessage,
-                        new Date(),
-                        0,  // No specific question reference
-                        null,  // No answer reference
-                        null,  // No review reference
-                        null   // Not a reply
-                    );
-                    
-                    databaseHelper2.addFeedback(banNotification);
+                    // The ban, its notification and its ledger entry commit together
+                    moderationService.ban(student.getUserName(), currentUsername, reason, banMessage);
                     
                     showSuccess("Student Banned", student.getUserName() + " has been banned and notified via inbox.");
                 } catch (SQLException e) {
@@ -2097,11 +2075,9 @@ public class InstructorHomePage {
         addButton.setOnAction(e -> showEditScorecardDialog(null, scorecardTable));
 
         // Load existing scorecards
-        try {
-            scorecardTable.setItems(FXCollections.observableArrayList(databaseHelper3.getAllReviewerScorecards()));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviewer scorecards: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(scorecardTable,
+                databaseHelper3::getAllReviewerScorecards,
+                e -> showError("Error", "Failed to load reviewer scorecards: " + AsyncHelper.message(e))));
 
         content.getChildren().addAll(scorecardTable, addButton);
         dialog.getDialogPane().setContent(content);
@@ -2121,15 +2097,12 @@ public class InstructorHomePage {
         reviewerComboBox.setPromptText("Select Reviewer");
         reviewerComboBox.setPrefWidth(200);
 
-        try {
-            List<User> reviewers = databaseHelper.getUsersByRole("reviewer");
-            List<String> reviewerUsernames = reviewers.stream()
-                                                    .map(User::getUserName)
-                                                    .collect(java.util.stream.Collectors.toList());
-            reviewerComboBox.setItems(FXCollections.observableArrayList(reviewerUsernames));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviewers: " + e.getMessage());
-            // Optionally disable the dialog or show an error message within it
+        if (existingScorecard == null) {
+            AsyncHelper.load(() -> databaseHelper.getUsersByRole("reviewer").stream()
+                            .map(User::getUserName)
+                            .collect(java.util.stream.Collectors.toList()),
+                    reviewerUsernames -> reviewerComboBox.setItems(FXCollections.observableArrayList(reviewerUsernames)),
+                    e -> showError("Error", "Failed to load reviewers: " + AsyncHelper.message(e)));
         }
 
         if (existingScorecard != null) {
@@ -2187,7 +2160,8 @@ public class InstructorHomePage {
                 );
                 showSuccess("Success", "Scorecard " + (existingScorecard == null ? "added" : "updated") + " successfully!");
                 // Refresh the table after add/update
-                scorecardTable.setItems(FXCollections.observableArrayList(databaseHelper3.getAllReviewerScorecards()));
+                AsyncHelper.loadTable(scorecardTable, databaseHelper3::getAllReviewerScorecards,
+                        e -> showError("Error", "Failed to load reviewer scorecards: " + AsyncHelper.message(e)));
             } catch (SQLException e) {
                 showError("Error", "Failed to save scorecard: " + e.getMessage());
             }
@@ -0,0 +1,73 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import databasePart1.ChangeEvent;
+import databasePart1.EventBus;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+/**
+ * Utility class that connects the pages to the {@link EventBus}: a page
+ * subscribes a node to a kind of change, and the listener runs on the JavaFX
+ * Application Thread whenever such a change is committed, from this window or
+ * any other.
+ *
+ * <p> The subscription is tied to the node's window. It is open while the node
+ * is in a window that is showing, and closed when the window is hidden or the
+ * stage moves on to another page's scene, so pages and dialogs never have to
+ * unsubscribe themselves. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    LiveUpdates class implementation
+ */
+public final class LiveUpdates {
+    // Key under which a node keeps its shown-state bindings alive
+    private static final String SHOWN = "LiveUpdates.shown";
+
+    private LiveUpdates() {
+    }
+
+    /**
+     * Runs a listener on the JavaFX Application Thread for each committed change
+     * of a kind while the node is showing.
+     *
+     * @param <E>      The event type
+     * @param owner    The node whose window decides how long the subscription lasts
+     * @param type     The event class; its subclasses are delivered too
+     * @param listener Receives the events on the JavaFX Application Thread
+     */
+    public static <E extends ChangeEvent> void subscribe(Node owner, Class<E> type, Consumer<? super E> listener) {
+        ObservableValue<Boolean> shown = owner.sceneProperty()
+                .flatMap(Scene::windowProperty)
+                .flatMap(Window::showingProperty)
+                .orElse(false);
+        EventBus.Subscription[] subscription = new EventBus.Subscription[1];
+        Runnable update = () -> {
+            if (shown.getValue() && subscription[0] == null) {
+                subscription[0] = EventBus.getInstance().subscribe(type, event -> Platform.runLater(() -> {
+                    // The window may have closed while the event was queued
+                    if (subscription[0] != null) {
+                        listener.accept(event);
+                    }
+                }));
+            } else if (!shown.getValue() && subscription[0] != null) {
+                subscription[0].close();
+                subscription[0] = null;
+            }
+        };
+        shown.addListener((obs, wasShown, isShown) -> update.run());
+        update.run();
+        // The node holds the binding so it lives exactly as long as the node
+        @SuppressWarnings("unchecked")
+        List<ObservableValue<Boolean>> kept = (List<ObservableValue<Boolean>>)
+                owner.getProperties().computeIfAbsent(SHOWN, key -> new ArrayList<ObservableValue<Boolean>>());
+        kept.add(shown);
+    }
+}
@@ -4,12 +4,14 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import databasePart1.AsyncDatabase.SqlCall;
+import databasePart1.ChangeEvent;
 import databasePart1.DatabaseHelper2;
 import databasePart1.DatabaseHelper3;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class to centralize messaging functionality
@@ -267,51 +269,57 @@ public class MessageHelper {
         Label conversationsLabel = new Label("Conversations");
         conversationsLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
         
-        ListView<String> conversationsList = new ListView<>();
+        ListView<ConversationSummary> conversationsList = new ListView<>();
         
-        try {
-            List<String> conversations = databaseHelper2.getUserConversations(currentUsername);
-            Map<String, Integer> unreadCounts = databaseHelper2.getUnreadMessageCountsByConversation(currentUsername);
-            
-            // Setup cell factory to show unread message indicators
-            conversationsList.setCellFactory(lv -> new ListCell<String>() {
-                @Override
-                protected void updateItem(String item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                        setGraphic(null);
-                    } else {
-                        HBox cell = new HBox(10);
-                        cell.setAlignment(Pos.CENTER_LEFT);
-                        
-                        Label nameLabel = new Label(item);
-                        nameLabel.setMaxWidth(Double.MAX_VALUE);
-                        HBox.setHgrow(nameLabel, Priority.ALWAYS);
-                        
-                        cell.getChildren().add(nameLabel);
-                        
-                        // Add unread indicator if there are unread messages
-                        if (unreadCounts.containsKey(item) && unreadCounts.get(item) > 0) {
-                            Label unreadLabel = new Label(unreadCounts.get(item).toString());
-                            unreadLabel.setStyle(
-                                "-fx-background-color: #ff6b6b; " +
-                                "-fx-text-fill: white; " +
-                                "-fx-padding: 2 6; " +
-                                "-fx-background-radius: 10;"
-                            );
-                            cell.getChildren().add(unreadLabel);
-                        }
-                        
-                        setGraphic(cell);
+        // Setup cell factory to show the last message and unread message indicators
+        conversationsList.setCellFactory(lv -> new ListCell<ConversationSummary>() {
+            @Override
+            protected void updateItem(ConversationSummary item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setGraphic(null);
+                } else {
+                    HBox cell = new HBox(10);
+                    cell.setAlignment(Pos.CENTER_LEFT);
+                    
+                    VBox details = new VBox(2);
+                    details.setMaxWidth(Double.MAX_VALUE);
+                    HBox.setHgrow(details, Priority.ALWAYS);
+                    
+                    Label nameLabel = new Label(item.getPartner());
+                    details.getChildren().add(nameLabel);
+                    
+                    if (item.getLastMessageSnippet() != null) {
+                        Label snippetLabel = new Label(truncateIfNeeded(item.getLastMessageSnippet(), 40));
+                        snippetLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #666;");
+                        details.getChildren().add(snippetLabel);
                     }
+                    
+                    cell.getChildren().add(details);
+                    
+                    // Add unread indicator if there are unread messages
+                    if (item.getUnreadCount() > 0) {
+                        Label unreadLabel = new Label(String.valueOf(item.getUnreadCount()));
+                        unreadLabel.setStyle(
+                            "-fx-background-color: #ff6b6b; " +
+                            "-fx-text-fill: white; " +
+                            "-fx-padding: 2 6; " +
+                            "-fx-background-radius: 10;"
+                        );
+                        cell.getChildren().add(unreadLabel);
+                    }
+                    
+                    setGraphic(cell);
                 }
-            });
-            
-            conversationsList.getItems().addAll(conversations);
-        } catch (SQLException e) {
-            showError("Error", "Failed to load conversations: " + e.getMessage());
-        }
+            }
+        });
+        
+        // One query returns partner, last message and unread count for every conversation
+        SqlCall<List<ConversationSummary>> conversations = () -> databaseHelper2.getConversationSummaries(currentUsername);
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadList(conversationsList, conversations,
+                e -> showError("Error", "Failed to load conversations: " + AsyncHelper.message(e))));
+        keepConversationsCurrent(conversationsList, currentUsername, conversations);
         
         // Right pane: Messages view
         VBox messagesPane = new VBox(10);
@@ -325,8 +333,8 @@ public class MessageHelper {
         // Handle conversation selection
         conversationsList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                showConversation(newVal, messagesPane, currentUsername, databaseHelper2, 
-                                questionsManager, answersManager, databaseHelper3);
+                AsyncHelper.cancelOnClose(dialog.showingProperty(),
+                        showConversation(newVal.getPartner(), messagesPane, currentUsername, databaseHelper2));
             }
         });
         
@@ -342,151 +350,126 @@ public class MessageHelper {
     }
 
     /**
-     * Displays conversation between users
+     * Displays conversation between users, loading it in the background
      */
-    private static void showConversation(String otherUser, VBox messagesPane, String currentUsername,
-                                       DatabaseHelper2 databaseHelper2, Questions questionsManager,
-                                       Answers answersManager, DatabaseHelper3 databaseHelper3) {
-        messagesPane.getChildren().clear();
+    private static CompletableFuture<List<Feedback>> showConversation(String otherUser, VBox messagesPane,
+                                                                      String currentUsername,
+                                                                      DatabaseHelper2 databaseHelper2) {
+        return AsyncHelper.loadPane(messagesPane, () -> databaseHelper2.getConversation(currentUsername, otherUser),
+                messages -> renderConversation(messages, otherUser, messagesPane, currentUsername, databaseHelper2),
+                e -> showError("Error", "Failed to load conversation: " + AsyncHelper.message(e)));
+    }
+
+    // The messages arrive with what their references point at, so rendering them never queries
+    private static void renderConversation(List<Feedback> messages, String otherUser, VBox messagesPane,
+                                           String currentUsername, DatabaseHelper2 databaseHelper2) {
+        // Conversation header
+        Label headerLabel = new Label("Conversation with " + otherUser);
+        headerLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
         
-        try {
-            // Get conversation messages
-            List<Feedback> messages = databaseHelper2.getConversation(currentUsername, otherUser);
+        // Scrollable message area
+        ScrollPane scrollPane = new ScrollPane();
+        scrollPane.setFitToWidth(true);
+        scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
+        
+        VBox messagesBox = new VBox(10);
+        messagesBox.setPadding(new Insets(10));
+        
+        // Render messages
+        for (Feedback message : messages) {
+            HBox messageBox = new HBox(10);
             
-            // Conversation header
-            Label headerLabel = new Label("Conversation with " + otherUser);
-            headerLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+            // Position messages based on sender
+            boolean isFromCurrentUser = message.getSender().equals(currentUsername);
+            messageBox.setAlignment(isFromCurrentUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
             
-            // Scrollable message area
-            ScrollPane scrollPane = new ScrollPane();
-            scrollPane.setFitToWidth(true);
-            scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
+            VBox messageContent = new VBox(5);
+            messageContent.setMaxWidth(400);
+            messageContent.setStyle(
+                "-fx-background-color: " + (isFromCurrentUser ? "#ddecf8" : "#f1f1f1") + "; " +
+                "-fx-padding: 10; " +
+                "-fx-background-radius: 10;"
+            );
             
-            VBox messagesBox = new VBox(10);
-            messagesBox.setPadding(new Insets(10));
+            // Add reference information
+            if (message.isReferencedQuestionFound()) {
+                Label refLabel = new Label("Re: Question #" + message.getQuestionId());
+                refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
+                messageContent.getChildren().add(refLabel);
+            }
             
-            // Render messages
-            for (Feedback message : messages) {
-                HBox messageBox = new HBox(10);
-                
-                // Position messages based on sender
-                boolean isFromCurrentUser = message.getSender().equals(currentUsername);
-                messageBox.setAlignment(isFromCurrentUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
-                
-                VBox messageContent = new VBox(5);
-                messageContent.setMaxWidth(400);
-                messageContent.setStyle(
-                    "-fx-background-color: " + (isFromCurrentUser ? "#ddecf8" : "#f1f1f1") + "; " +
-                    "-fx-padding: 10; " +
-                    "-fx-background-radius: 10;"
-                );
-                
-                // Add reference information
-                if (message.getQuestionId() > 0) {
-                    try {
-                        Question question = questionsManager.getQuestionById(message.getQuestionId());
-                        if (question != null) {
-                            Label refLabel = new Label("Re: Question #" + question.getQuestionId());
-                            refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
-                            messageContent.getChildren().add(refLabel);
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    }
-                }
-                
-                if (message.getAnswerId() != null) {
-                    try {
-                        Answer answer = answersManager.getAnswerById(message.getAnswerId());
-                        if (answer != null) {
-                            Label refLabel = new Label("Re: Answer by " + answer.getAuthor());
-                            refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
-                            messageContent.getChildren().add(refLabel);
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    }
-                }
-                
-                if (message.getReviewId() != null) {
-                    try {
-                        Review review = databaseHelper3.getReviewById(message.getReviewId());
-                        if (review != null) {
-                            Label refLabel = new Label("Re: Review by " + review.getReviewer());
-                            refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
-                            messageContent.getChildren().add(refLabel);
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                    }
-                }
-                
-                // Message text and timestamp
-                Label contentLabel = new Label(message.getContent());
-                contentLabel.setWrapText(true);
-                
-                Label timeLabel = new Label(new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss").format(message.getTimestamp()));
-                timeLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
-                
-                messageContent.getChildren().addAll(contentLabel, timeLabel);
-                messageBox.getChildren().add(messageContent);
-                
-                messagesBox.getChildren().add(messageBox);
+            if (message.getReferencedAnswerAuthor() != null) {
+                Label refLabel = new Label("Re: Answer by " + message.getReferencedAnswerAuthor());
+                refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
+                messageContent.getChildren().add(refLabel);
             }
             
-            scrollPane.setContent(messagesBox);
+            if (message.getReferencedReviewer() != null) {
+                Label refLabel = new Label("Re: Review by " + message.getReferencedReviewer());
+                refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
+                messageContent.getChildren().add(refLabel);
+            }
             
-            // Reply box
-            HBox replyBox = new HBox(10);
-            replyBox.setAlignment(Pos.CENTER);
+            // Message text and timestamp
+            Label contentLabel = new Label(message.getContent());
+            contentLabel.setWrapText(true);
             
-            TextField replyField = new TextField();
-            replyField.setPromptText("Type a message...");
-            replyField.setPrefWidth(400);
-            HBox.setHgrow(replyField, Priority.ALWAYS);
+            Label timeLabel = new Label(new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss").format(message.getTimestamp()));
+            timeLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
             
-            Button sendButton = new Button("Send");
-            styleButton(sendButton, "#90EE90", "#228B22");
+            messageContent.getChildren().addAll(contentLabel, timeLabel);
+            messageBox.getChildren().add(messageContent);
             
-            sendButton.setOnAction(e -> {
-                String content = replyField.getText().trim();
-                if (!content.isEmpty()) {
-                    try {
-                        // Create and send reply
-                        Feedback reply = new Feedback(
-                            0,
-                            currentUsername,
-                            otherUser,
-                            content,
-                            new Date(),
-                            0, // No specific question reference for direct replies
-                            null,
-                            null,
-                            null
-                        );
-                        databaseHelper2.addFeedback(reply);
-                        
-                        // Refresh conversation
-                        showConversation(otherUser, messagesPane, currentUsername, databaseHelper2, 
-                                        questionsManager, answersManager, databaseHelper3);
-                        
-                        // Clear reply field
-                        replyField.clear();
-                    } catch (SQLException ex) {
-                        showError("Error", "Failed to send message: " + ex.getMessage());
-                    }
-                }
-            });
-            
-            replyBox.getChildren().addAll(replyField, sendButton);
-            
-            messagesPane.getChildren().addAll(headerLabel, scrollPane, replyBox);
-            
-            // Auto-scroll to bottom of conversation
-            scrollPane.setVvalue(1.0);
-        } catch (SQLException e) {
-            showError("Error", "Failed to load conversation: " + e.getMessage());
+            messagesBox.getChildren().add(messageBox);
         }
+        
+        scrollPane.setContent(messagesBox);
+        
+        // Reply box
+        HBox replyBox = new HBox(10);
+        replyBox.setAlignment(Pos.CENTER);
+        
+        TextField replyField = new TextField();
+        replyField.setPromptText("Type a message...");
+        replyField.setPrefWidth(400);
+        HBox.setHgrow(replyField, Priority.ALWAYS);
+        
+        Button sendButton = new Button("Send");
+        styleButton(sendButton, "#90EE90", "#228B22");
+        
+        sendButton.setOnAction(e -> {
+            String content = replyField.getText().trim();
+            if (!content.isEmpty()) {
+                try {
+                    // Create and send reply
+                    Feedback reply = new Feedback(
+                        0,
+                        currentUsername,
+                        otherUser,
+                        content,
+                        new Date(),
+                        0, // No specific question reference for direct replies
+                        null,
+                        null,
+                        null
+                    );
+                    // The inbox shows the reply once it is committed
+                    databaseHelper2.addFeedback(reply);
+                    
+                    // Clear reply field
+                    replyField.clear();
+                } catch (SQLException ex) {
+                    showError("Error", "Failed to send message: " + ex.getMessage());
+                }
+            }
+        });
+        
+        replyBox.getChildren().addAll(replyField, sendButton);
+        
+        messagesPane.getChildren().addAll(headerLabel, scrollPane, replyBox);
+        
+        // Auto-scroll to bottom of conversation
+        scrollPane.setVvalue(1.0);
     }
 
     // Helper methods
@@ -501,6 +484,55 @@ public class MessageHelper {
                 + "-fx-background-radius: 12px;");
     }
 
+    /**
+     * Shows the user's unread message count on an inbox button, as "Inbox (3)",
+     * and keeps it current as messages arrive or are read in any window.
+     */
+    public static void showUnreadCount(Button inboxButton, String currentUsername, DatabaseHelper2 databaseHelper2) {
+        String label = inboxButton.getText();
+        Runnable recount = () -> AsyncHelper.load(() -> databaseHelper2.getUnreadMessageCount(currentUsername),
+                unread -> inboxButton.setText(unread > 0 ? label + " (" + unread + ")" : label),
+                e -> inboxButton.setText(label));
+        LiveUpdates.subscribe(inboxButton, ChangeEvent.MessageSent.class, event -> {
+            if (event.getReceivers().contains(currentUsername)) {
+                recount.run();
+            }
+        });
+        LiveUpdates.subscribe(inboxButton, ChangeEvent.MessagesRead.class, event -> {
+            if (event.getReader().equals(currentUsername)) {
+                recount.run();
+            }
+        });
+        recount.run();
+    }
+
+    /**
+     * Keeps an open inbox current: when the user sends, receives or reads
+     * messages in any window, the conversation summaries are loaded again and
+     * the selected conversation is selected again, which shows its new messages.
+     */
+    static void keepConversationsCurrent(ListView<ConversationSummary> conversationsList, String currentUsername,
+                                         SqlCall<List<ConversationSummary>> conversations) {
+        Runnable reload = () -> AsyncHelper.load(conversations, summaries -> {
+            ConversationSummary selected = conversationsList.getSelectionModel().getSelectedItem();
+            conversationsList.getItems().setAll(summaries);
+            if (selected != null) {
+                summaries.stream().filter(summary -> summary.getPartner().equals(selected.getPartner())).findFirst()
+                        .ifPresent(summary -> conversationsList.getSelectionModel().select(summary));
+            }
+        }, e -> showError("Error", "Failed to load conversations: " + AsyncHelper.message(e)));
+        LiveUpdates.subscribe(conversationsList, ChangeEvent.MessageSent.class, event -> {
+            if (event.involves(currentUsername)) {
+                reload.run();
+            }
+        });
+        LiveUpdates.subscribe(conversationsList, ChangeEvent.MessagesRead.class, event -> {
+            if (event.getReader().equals(currentUsername)) {
+                reload.run();
+            }
+        });
+    }
+
     private static void showError(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -0,0 +1,51 @@
+package main;
+
+/**
+ * ModerationResult reports what a warning led to: the student's warning count
+ * afterwards and whether the escalation rules banned them.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    ModerationResult class implementation
+ */
+public class ModerationResult {
+    private final int warningCount;
+    private final boolean banned;
+    private final int notifications;
+
+    /**
+     * Creates a new ModerationResult.
+     * @param warningCount The student's warnings including this one
+     * @param banned Whether this warning got the student banned
+     * @param notifications Number of escalation notices sent besides the warning and any ban notice
+     */
+    public ModerationResult(int warningCount, boolean banned, int notifications) {
+        this.warningCount = warningCount;
+        this.banned = banned;
+        this.notifications = notifications;
+    }
+
+    /**
+     * Gets the student's warning count after the warning.
+     * @return The number of warnings the student has received
+     */
+    public int getWarningCount() {
+        return warningCount;
+    }
+
+    /**
+     * Checks whether the warning got the student banned.
+     * @return true if an escalation rule banned the student
+     */
+    public boolean isBanned() {
+        return banned;
+    }
+
+    /**
+     * Gets the number of escalation notices sent with the warning.
+     * @return The number of notices, not counting the warning or a ban notice
+     */
+    public int getNotifications() {
+        return notifications;
+    }
+}
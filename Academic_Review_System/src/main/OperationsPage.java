@@ -0,0 +1,291 @@
+package main;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import databasePart1.ConnectionPool;
+import databasePart1.QueryStats;
+import databasePart1.SystemHealth;
+import databasePart1.UiAction;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+/**
+ * OperationsPage shows administrators how the system is doing: statement
+ * rates and p50/p99 latency per statement shape, connection pool use, cache
+ * hit ratios, table sizes and the size of the H2 file, and the slowest recent
+ * UI actions with any possible N+1 queries.
+ *
+ * <p> The page takes a {@link SystemHealth} reading every two seconds while it
+ * is shown. Readings are taken off the JavaFX Application Thread, and a tick
+ * is skipped while the previous reading is still being taken. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    OperationsPage class implementation
+ */
+public class OperationsPage {
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm:ss");
+
+    private final Stage primaryStage;
+    private final Scene previousScene;
+
+    private final TableView<SystemHealth.StatementRate> statementTable = new TableView<>();
+    private final TableView<Map.Entry<String, Long>> tableSizesTable = new TableView<>();
+    private final TableView<UiAction> actionsTable = new TableView<>();
+    private final ListView<String> warningsList = new ListView<>();
+    private final Label rateLabel = new Label();
+    private final Label poolLabel = new Label();
+    private final Label cacheLabel = new Label();
+    private final Label fileLabel = new Label();
+    private final Label updatedLabel = new Label("Loading...");
+
+    private SystemHealth last;
+    private CompletableFuture<SystemHealth> pending;
+
+    public OperationsPage(Stage primaryStage, Scene previousScene) {
+        this.primaryStage = primaryStage;
+        this.previousScene = previousScene;
+    }
+
+    public void show() {
+        VBox layout = new VBox(15);
+        layout.setPadding(new Insets(20));
+        layout.setAlignment(Pos.CENTER);
+        layout.setStyle("-fx-background-color: linear-gradient(to bottom, #4169E1, #87CEEB);");
+
+        Label titleLabel = new Label("Operations");
+        titleLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: white;");
+        updatedLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: white;");
+
+        TabPane tabPane = new TabPane();
+        tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+
+        // --- Statements Tab ---
+        setupStatementTable();
+        VBox statementsLayout = new VBox(10, rateLabel, statementTable);
+        statementsLayout.setPadding(new Insets(10));
+        VBox.setVgrow(statementTable, Priority.ALWAYS);
+        Tab statementsTab = new Tab("Statements", statementsLayout);
+
+        // --- Database Tab ---
+        setupTableSizesTable();
+        VBox databaseLayout = new VBox(10, poolLabel, cacheLabel, fileLabel, tableSizesTable);
+        databaseLayout.setPadding(new Insets(10));
+        VBox.setVgrow(tableSizesTable, Priority.ALWAYS);
+        Tab databaseTab = new Tab("Database", databaseLayout);
+
+        // --- UI Actions Tab ---
+        setupActionsTable();
+        warningsList.setPrefHeight(120);
+        warningsList.setPlaceholder(new Label("No possible N+1 queries"));
+        VBox actionsLayout = new VBox(10, new Label("Slowest recent actions:"), actionsTable,
+                new Label("Possible N+1 queries:"), warningsList);
+        actionsLayout.setPadding(new Insets(10));
+        VBox.setVgrow(actionsTable, Priority.ALWAYS);
+        Tab actionsTab = new Tab("UI Actions", actionsLayout);
+
+        tabPane.getTabs().addAll(statementsTab, databaseTab, actionsTab);
+        VBox.setVgrow(tabPane, Priority.ALWAYS);
+
+        Button backButton = new Button("Back");
+        styleButton(backButton, "#FFB6C1", "#FF0000");
+        backButton.setOnAction(e -> primaryStage.setScene(previousScene));
+
+        layout.getChildren().addAll(titleLabel, updatedLabel, tabPane, backButton);
+
+        Scene operationsScene = new Scene(layout, 900, 650);
+
+        // Refresh while the page is shown; leaving it stops the timer
+        Timeline timer = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        timer.setCycleCount(Timeline.INDEFINITE);
+        operationsScene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow == null) {
+                timer.stop();
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+            }
+        });
+
+        primaryStage.setScene(operationsScene);
+        primaryStage.setTitle("Operations");
+        primaryStage.show();
+        refresh();
+        timer.play();
+    }
+
+    // Takes a reading off the UI thread unless the previous one is still running
+    private void refresh() {
+        if (pending != null && !pending.isDone()) {
+            return;
+        }
+        pending = AsyncHelper.load(() -> SystemHealth.take(ConnectionPool.getInstance(), last), this::apply,
+                e -> updatedLabel.setText("Could not read the database: " + AsyncHelper.message(e)));
+    }
+
+    private void apply(SystemHealth health) {
+        last = health;
+        updatedLabel.setText("Updated " + TIME_FORMAT.format(new Date(health.getTakenAtMillis()))
+                + ", every " + (int) REFRESH_INTERVAL.toSeconds() + " s");
+
+        rateLabel.setText(String.format("%.1f statements/s over %d statement shapes",
+                health.getStatementsPerSecond(), health.getStatements().size()));
+        statementTable.getItems().setAll(health.getStatements());
+        statementTable.sort();
+
+        poolLabel.setText(String.format("Connection pool: %d of %d in use (%.0f%%), %d idle, %d possible leaks",
+                health.getActiveConnections(), health.getMaxConnections(), health.getPoolUtilization() * 100,
+                health.getIdleConnections(), health.getLeakCount()));
+        cacheLabel.setText("Cache hit ratios: statement cache " + formatRatio(health.getStatementCacheHitRatio())
+                + ", H2 page cache " + formatRatio(health.getH2CacheHitRatio()));
+        fileLabel.setText("Database file: " + (health.getFileSizeBytes() < 0 ? "in memory" : formatBytes(health.getFileSizeBytes())));
+        tableSizesTable.getItems().setAll(new ArrayList<>(health.getTableRows().entrySet()));
+        tableSizesTable.sort();
+
+        actionsTable.getItems().setAll(health.getSlowestActions());
+        actionsTable.sort();
+        List<String> warnings = new ArrayList<>();
+        for (QueryStats.NPlusOne warning : health.getNPlusOneWarnings()) {
+            warnings.add(TIME_FORMAT.format(new Date(warning.getAtMillis())) + "  " + warning);
+        }
+        warningsList.getItems().setAll(warnings);
+    }
+
+    private void setupStatementTable() {
+        statementTable.setPlaceholder(new Label("No statements yet"));
+
+        TableColumn<SystemHealth.StatementRate, String> shapeCol = new TableColumn<>("Statement");
+        shapeCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getShape()));
+        shapeCol.setPrefWidth(420);
+
+        TableColumn<SystemHealth.StatementRate, Double> rateCol = new TableColumn<>("Per Second");
+        rateCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getPerSecond()));
+        rateCol.setCellFactory(column -> formattedCell(rate -> String.format("%.1f", rate)));
+        rateCol.setPrefWidth(80);
+
+        TableColumn<SystemHealth.StatementRate, Long> countCol = new TableColumn<>("Total");
+        countCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getExecutions()));
+        countCol.setPrefWidth(70);
+
+        TableColumn<SystemHealth.StatementRate, Long> p50Col = new TableColumn<>("p50");
+        p50Col.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getP50Micros()));
+        p50Col.setCellFactory(column -> formattedCell(OperationsPage::formatMicros));
+        p50Col.setPrefWidth(80);
+
+        TableColumn<SystemHealth.StatementRate, Long> p99Col = new TableColumn<>("p99");
+        p99Col.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getP99Micros()));
+        p99Col.setCellFactory(column -> formattedCell(OperationsPage::formatMicros));
+        p99Col.setPrefWidth(80);
+
+        TableColumn<SystemHealth.StatementRate, Long> errorsCol = new TableColumn<>("Errors");
+        errorsCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getErrors()));
+        errorsCol.setPrefWidth(60);
+
+        statementTable.getColumns().addAll(List.of(shapeCol, rateCol, countCol, p50Col, p99Col, errorsCol));
+    }
+
+    private void setupTableSizesTable() {
+        TableColumn<Map.Entry<String, Long>, String> nameCol = new TableColumn<>("Table");
+        nameCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getKey()));
+        nameCol.setPrefWidth(300);
+
+        TableColumn<Map.Entry<String, Long>, Long> rowsCol = new TableColumn<>("Rows (estimated)");
+        rowsCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getValue()));
+        rowsCol.setCellFactory(column -> formattedCell(rows -> String.format("%,d", rows)));
+        rowsCol.setPrefWidth(150);
+
+        tableSizesTable.getColumns().addAll(List.of(nameCol, rowsCol));
+    }
+
+    private void setupActionsTable() {
+        actionsTable.setPlaceholder(new Label("No finished actions yet"));
+
+        TableColumn<UiAction, String> timeCol = new TableColumn<>("Time");
+        timeCol.setCellValueFactory(data -> new SimpleStringProperty(
+                TIME_FORMAT.format(new Date(data.getValue().getStartedAtMillis()))));
+        timeCol.setPrefWidth(80);
+
+        TableColumn<UiAction, String> nameCol = new TableColumn<>("Action");
+        nameCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getParent() == null
+                ? data.getValue().getName()
+                : data.getValue().getParent().getName() + " > " + data.getValue().getName()));
+        nameCol.setPrefWidth(260);
+
+        TableColumn<UiAction, Long> durationCol = new TableColumn<>("Duration");
+        durationCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getDurationNanos() / 1_000));
+        durationCol.setCellFactory(column -> formattedCell(OperationsPage::formatMicros));
+        durationCol.setPrefWidth(90);
+
+        TableColumn<UiAction, Long> blockedCol = new TableColumn<>("UI Blocked");
+        blockedCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getScopeNanos() / 1_000));
+        blockedCol.setCellFactory(column -> formattedCell(OperationsPage::formatMicros));
+        blockedCol.setPrefWidth(90);
+
+        TableColumn<UiAction, Integer> statementsCol = new TableColumn<>("Statements");
+        statementsCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().getStatementCount()));
+        statementsCol.setPrefWidth(90);
+
+        actionsTable.getColumns().addAll(List.of(timeCol, nameCol, durationCol, blockedCol, statementsCol));
+    }
+
+    // A cell that shows its value through a formatter but sorts by the value itself
+    private static <S, T> TableCell<S, T> formattedCell(java.util.function.Function<T, String> format) {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : format.apply(item));
+            }
+        };
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros >= 1_000_000) {
+            return String.format("%.2f s", micros / 1e6);
+        }
+        if (micros >= 1_000) {
+            return String.format("%.1f ms", micros / 1e3);
+        }
+        return micros + " \u00b5s";
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1L << 30) {
+            return String.format("%.2f GB", bytes / (double) (1L << 30));
+        }
+        if (bytes >= 1L << 20) {
+            return String.format("%.1f MB", bytes / (double) (1L << 20));
+        }
+        return String.format("%.1f KB", bytes / 1024.0);
+    }
+
+    private static String formatRatio(double ratio) {
+        return ratio < 0 ? "n/a" : String.format("%.1f%%", ratio * 100);
+    }
+
+    private void styleButton(Button button, String bgColor, String borderColor) {
+        button.setStyle("-fx-font-size: 12px; " +
+                "-fx-text-fill: black; " +
+                "-fx-background-color: " + bgColor + "; " +
+                "-fx-padding: 5px 10px; " +
+                "-fx-border-color: " + borderColor + "; " +
+                "-fx-border-width: 1px; " +
+                "-fx-border-radius: 8px; " +
+                "-fx-background-radius: 8px;");
+    }
+}
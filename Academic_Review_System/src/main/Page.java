@@ -0,0 +1,53 @@
+package main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page holds one page of rows from a keyset-paginated query, together with the
+ * cursor that fetches the page after it.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @param <T> The row type
+ *
+ * @version 1.00    2025-04-01    Page class implementation
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final PageCursor nextCursor;
+
+    /**
+     * Creates a new Page.
+     * @param items The rows of the page, in list order
+     * @param nextCursor Cursor for the following page, or null if this is the last page
+     */
+    public Page(List<T> items, PageCursor nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the rows of the page.
+     * @return The rows, in list order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the cursor to pass when fetching the following page.
+     * @return The cursor, or null if this is the last page
+     */
+    public PageCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Checks whether there are more rows after this page.
+     * @return true if another page can be fetched
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,67 @@
+package main;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * PageCursor marks where a page of a list ended: the timestamp and ID of its
+ * last row. The next page starts right after that position in the list's sort
+ * order, so rows added or deleted in the meantime never shift a page or make
+ * rows appear twice.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    PageCursor class implementation
+ */
+public final class PageCursor {
+    private final Date timestamp;
+    private final int id;
+
+    /**
+     * Creates a cursor positioned at the given row.
+     * @param timestamp Timestamp of the last row of the page
+     * @param id ID of the last row of the page
+     */
+    public PageCursor(Date timestamp, int id) {
+        this.timestamp = new Date(timestamp.getTime());
+        this.id = id;
+    }
+
+    /**
+     * Gets the timestamp of the row the cursor is positioned at.
+     * @return The timestamp of the last row of the page
+     */
+    public Date getTimestamp() {
+        return new Date(timestamp.getTime());
+    }
+
+    /**
+     * Gets the ID of the row the cursor is positioned at.
+     * @return The ID of the last row of the page
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PageCursor)) {
+            return false;
+        }
+        PageCursor cursor = (PageCursor) other;
+        return id == cursor.id && timestamp.equals(cursor.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id);
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor[" + timestamp.getTime() + ", " + id + "]";
+    }
+}
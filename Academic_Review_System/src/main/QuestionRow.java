@@ -0,0 +1,156 @@
+package main;
+
+import java.util.Date;
+
+/**
+ * QuestionRow is the read-only projection of a question shown in the question
+ * tables of the dashboards. Everything a row displays, including the referenced
+ * question and the answer, unread and review counts, is loaded by a single query
+ * so table cells never have to touch the database.
+ *
+ * <p> The content is a preview; use {@link Questions#getQuestionById(int)} to load
+ * the full question when the user acts on a row. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    QuestionRow class implementation
+ */
+public class QuestionRow {
+    private final int questionId;
+    private final String author;
+    private final Date timestamp;
+    private final String contentPreview;
+    private final boolean answered;
+    private final Integer referenceQuestionId;
+    private final String referencePreview;
+    private final String referenceAuthor;
+    private final int answerCount;
+    private final int unreadCount;
+    private final int reviewCount;
+
+    /**
+     * Creates a new QuestionRow with all properties.
+     * @param questionId Unique identifier for the question
+     * @param author Username of the question author
+     * @param timestamp Time when the question was created
+     * @param contentPreview The beginning of the question text
+     * @param answered Whether the question has been marked as resolved
+     * @param referenceQuestionId ID of the referenced question, or null
+     * @param referencePreview The beginning of the referenced question's text, or null
+     * @param referenceAuthor Author of the referenced question, or null
+     * @param answerCount Number of answers to the question
+     * @param unreadCount Number of answers the viewing user has not read
+     * @param reviewCount Number of reviews on the question
+     */
+    public QuestionRow(int questionId, String author, Date timestamp, String contentPreview, boolean answered,
+                       Integer referenceQuestionId, String referencePreview, String referenceAuthor,
+                       int answerCount, int unreadCount, int reviewCount) {
+        this.questionId = questionId;
+        this.author = author;
+        this.timestamp = timestamp;
+        this.contentPreview = contentPreview;
+        this.answered = answered;
+        this.referenceQuestionId = referenceQuestionId;
+        this.referencePreview = referencePreview;
+        this.referenceAuthor = referenceAuthor;
+        this.answerCount = answerCount;
+        this.unreadCount = unreadCount;
+        this.reviewCount = reviewCount;
+    }
+
+    /**
+     * Gets the ID of the question.
+     * @return The ID of the question
+     */
+    public int getQuestionId() {
+        return questionId;
+    }
+
+    /**
+     * Gets the author of the question.
+     * @return The username of the author
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Gets the timestamp of the question.
+     * @return The time the question was created
+     */
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the beginning of the question text.
+     * @return The content preview
+     */
+    public String getContentPreview() {
+        return contentPreview;
+    }
+
+    /**
+     * Checks if the question has been marked as resolved.
+     * @return true if the question is resolved
+     */
+    public boolean isAnswered() {
+        return answered;
+    }
+
+    /**
+     * Gets the ID of the referenced question.
+     * @return The referenced question ID, or null if there is none
+     */
+    public Integer getReferenceQuestionId() {
+        return referenceQuestionId;
+    }
+
+    /**
+     * Gets the beginning of the referenced question's text.
+     * @return The reference preview, or null if there is no (existing) reference
+     */
+    public String getReferencePreview() {
+        return referencePreview;
+    }
+
+    /**
+     * Gets the author of the referenced question.
+     * @return The referenced question's author, or null if there is no (existing) reference
+     */
+    public String getReferenceAuthor() {
+        return referenceAuthor;
+    }
+
+    /**
+     * Checks if this question references another question that still exists.
+     * @return true if a reference preview is available
+     */
+    public boolean hasReference() {
+        return referencePreview != null;
+    }
+
+    /**
+     * Gets the number of answers to the question.
+     * @return The answer count
+     */
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    /**
+     * Gets the number of answers the viewing user has not read yet.
+     * @return The unread answer count
+     */
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    /**
+     * Gets the number of reviews on the question.
+     * @return The review count
+     */
+    public int getReviewCount() {
+        return reviewCount;
+    }
+}
@@ -1,12 +1,11 @@
 package main;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import databasePart1.DatabaseConfig;
 import databasePart1.DatabaseHelper2;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.Connection;
+import databasePart1.QuestionQuery;
 
 /**
  * Questions class manages all question-related operations in the Question and Answer system.
@@ -18,20 +17,16 @@ import java.sql.Connection;
  * @version 1.00    2025-04-01    Questions class implementation
  */
 public class Questions {
-    private List<Question> questionList;
     private DatabaseHelper2 dbHelper;
-    private Connection connection;
 
     /**
-     * Creates a new Questions manager with database connection.
+     * Creates a new Questions manager with database connection. No questions are
+     * loaded up front; the dashboards fetch them a page at a time.
      * @param dbHelper Database helper instance for database operations
-     * @param connection Database connection for direct queries
      * @throws SQLException if database connection fails
      */
-    public Questions(DatabaseHelper2 dbHelper, Connection connection) throws SQLException {
-        this.questionList = dbHelper.getAllQuestions();
+    public Questions(DatabaseHelper2 dbHelper) throws SQLException {
         this.dbHelper = dbHelper;
-        this.connection = connection;
     }
 
     /**
@@ -41,7 +36,6 @@ public class Questions {
      */
     public void addQuestion(Question q) throws SQLException {
         dbHelper.addQuestion(q);
-        questionList.add(q);
     }
 
     /**
@@ -51,7 +45,6 @@ public class Questions {
      */
     public void removeQuestion(int questionId) throws SQLException {
         dbHelper.deleteQuestion(questionId);
-        questionList.removeIf(q -> q.getQuestionId() == questionId);
     }
 
     /**
@@ -61,12 +54,6 @@ public class Questions {
      */
     public void updateQuestion(Question q) throws SQLException {
         dbHelper.updateQuestion(q);
-        for (int i = 0; i < questionList.size(); i++) {
-            if (questionList.get(i).getQuestionId() == q.getQuestionId()) {
-                questionList.set(i, q);
-                break;
-            }
-        }
     }
 
     /**
@@ -76,21 +63,7 @@ public class Questions {
      * @throws SQLException if database operation fails
      */
     public Question getQuestionById(int questionId) throws SQLException {
-        String query = "SELECT questionId, content, author, timestamp, answered FROM Questions WHERE questionId = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, questionId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new Question(
-                    rs.getInt("questionId"),
-                    rs.getString("content"),
-                    rs.getString("author"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getBoolean("answered")
-                );
-            }
-        }
-        return null;
+        return dbHelper.getQuestionById(questionId);
     }
 
     /**
@@ -109,28 +82,7 @@ public class Questions {
      * @throws SQLException if database operation fails
      */
     public List<Question> searchQuestions(String keyword) throws SQLException {
-        String query = "SELECT questionId, content, author, timestamp, answered FROM Questions WHERE LOWER(content) LIKE LOWER(?) OR LOWER(author) LIKE LOWER(?)";
-        List<Question> results = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            String searchPattern = "%" + keyword + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Question question = new Question(
-                    rs.getInt("questionId"),
-                    rs.getString("content"),
-                    rs.getString("author"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getBoolean("answered")
-                );
-                results.add(question);
-            }
-        }
-        
-        return results;
+        return dbHelper.searchQuestionsByContentOrAuthor(keyword);
     }
 
     /**
@@ -140,33 +92,192 @@ public class Questions {
      * @throws SQLException if database operation fails
      */
     public List<Question> searchQuestionsByUser(String username) throws SQLException {
-        String query = "SELECT questionId, content, author, timestamp, answered, referenceQuestionId FROM Questions WHERE LOWER(author) LIKE LOWER(?)";
-        List<Question> results = new ArrayList<>();
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            String searchPattern = "%" + username + "%";
-            pstmt.setString(1, searchPattern);
-            
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Question question = new Question(
-                    rs.getInt("questionId"),
-                    rs.getString("content"),
-                    rs.getString("author"),
-                    rs.getTimestamp("timestamp"),
-                    rs.getBoolean("answered")
-                );
-                
-                // Get the reference question ID if it exists
-                int refQuestionId = rs.getInt("referenceQuestionId");
-                if (!rs.wasNull()) {
-                    question.setReferenceQuestionId(refQuestionId);
-                }
-                
-                results.add(question);
-            }
+        return dbHelper.searchQuestionsByUser(username);
+    }
+
+    /**
+     * Retrieves all questions as table rows with their answer, unread and review counts.
+     * @param viewer The user whose unread answers are counted
+     * @return List of question rows
+     * @throws SQLException if database operation fails
+     */
+    public List<QuestionRow> getQuestionRows(String viewer) throws SQLException {
+        return dbHelper.getQuestionRows(viewer);
+    }
+
+    /**
+     * Retrieves one question as a table row.
+     * @param viewer The user whose unread answers are counted
+     * @param questionId The ID of the question
+     * @return The question row, or null if not found
+     * @throws SQLException if database operation fails
+     */
+    public QuestionRow getQuestionRow(String viewer, int questionId) throws SQLException {
+        return dbHelper.getQuestionRow(viewer, questionId);
+    }
+
+    /**
+     * Retrieves one page of question rows in (timestamp, ID) order.
+     * @param viewer The user whose unread answers are counted
+     * @param answered true or false to only list resolved or unresolved questions, null for all
+     * @param newestFirst true to list the newest questions first
+     * @param after The cursor of the previous page, or null for the first page
+     * @param limit Maximum number of rows in the page
+     * @return The page of question rows
+     * @throws SQLException if database operation fails
+     */
+    public Page<QuestionRow> getQuestionRowPage(String viewer, Boolean answered, boolean newestFirst,
+                                                PageCursor after, int limit) throws SQLException {
+        return dbHelper.getQuestionRowPage(viewer, answered, newestFirst, after, limit);
+    }
+
+    /**
+     * Counts the questions, optionally only the resolved or unresolved ones.
+     * @param answered true or false to only count resolved or unresolved questions, null for all
+     * @return The number of questions
+     * @throws SQLException if database operation fails
+     */
+    public int countQuestions(Boolean answered) throws SQLException {
+        return dbHelper.countQuestions(answered);
+    }
+
+    /**
+     * Retrieves one page of the question rows that satisfy a query.
+     * @param viewer The user whose unread answers are counted
+     * @param query The filters, order and page size
+     * @param after The cursor of the previous page, or null for the first page
+     * @return The page of question rows
+     * @throws SQLException if database operation fails
+     */
+    public Page<QuestionRow> getQuestionRowPage(String viewer, QuestionQuery query, PageCursor after) throws SQLException {
+        return dbHelper.getQuestionRowPage(viewer, query, after);
+    }
+
+    /**
+     * Counts the questions that satisfy a query.
+     * @param query The filters
+     * @return The number of matching questions
+     * @throws SQLException if database operation fails
+     */
+    public int countQuestionRows(QuestionQuery query) throws SQLException {
+        return dbHelper.countQuestionRows(query);
+    }
+
+    /**
+     * Gets the current row version to sync from later.
+     * @return The highest row version handed out so far
+     * @throws SQLException if database operation fails
+     */
+    public long getRowVersion() throws SQLException {
+        return dbHelper.getRowVersion();
+    }
+
+    /**
+     * Fetches only the question rows inserted, updated or deleted since the last sync.
+     * @param viewer The user whose unread answers are counted
+     * @param version The version returned by the previous sync
+     * @return The changed rows, the deleted question IDs and the version to sync from next
+     * @throws SQLException if database operation fails
+     */
+    public ChangeSet<QuestionRow> syncSince(String viewer, long version) throws SQLException {
+        return dbHelper.getQuestionRowChangesSince(viewer, version);
+    }
+
+    /**
+     * Creates the delta sync of a question row list paged by {@link #getQuestionRowPage}.
+     * @param viewer The user whose unread answers are counted
+     * @param answered true for resolved questions, false for unresolved ones, null for all
+     * @param newestFirst true if the list shows the newest questions first
+     * @return The sync that keeps the list up to date, or null to reload the list instead
+     */
+    public TablePager.Sync<QuestionRow> rowSync(String viewer, Boolean answered, boolean newestFirst) {
+        return rowSync(viewer, QuestionQuery.all().answered(answered).newestFirst(newestFirst));
+    }
+
+    /**
+     * Creates the delta sync of a question row list that shows the rows of a query.
+     * @param viewer The user whose unread answers are counted
+     * @param query The query the list was loaded with
+     * @return The sync that keeps the list up to date, or null to reload the list instead
+     *         when other processes share the database
+     */
+    public TablePager.Sync<QuestionRow> rowSync(String viewer, QuestionQuery query) {
+        if (DatabaseConfig.get().isShared()) {
+            // Their uncommitted writes are not held back from syncs, so one could be synced past
+            return null;
         }
-        
-        return results;
+        Comparator<QuestionRow> oldestFirst = Comparator.comparing(QuestionRow::getTimestamp)
+                .thenComparingInt(QuestionRow::getQuestionId);
+        Comparator<QuestionRow> order = query.isNewestFirst() ? oldestFirst.reversed() : oldestFirst;
+        return new TablePager.Sync<>() {
+            @Override
+            public long version() throws SQLException {
+                return getRowVersion();
+            }
+
+            @Override
+            public ChangeSet<QuestionRow> changesSince(long version) throws SQLException {
+                return syncSince(viewer, version);
+            }
+
+            @Override
+            public int idOf(QuestionRow row) {
+                return row.getQuestionId();
+            }
+
+            @Override
+            public Comparator<? super QuestionRow> order() {
+                return order;
+            }
+
+            @Override
+            public boolean includes(QuestionRow row) {
+                return query.matches(row);
+            }
+        };
+    }
+
+    /**
+     * Searches the question rows with the full-text index, most relevant first.
+     * @param viewer The user whose unread answers are counted
+     * @param keyword The search query; words are all required unless separated by OR, quotes match a phrase
+     * @return List of matching question rows
+     * @throws SQLException if database operation fails
+     */
+    public List<QuestionRow> searchQuestionRows(String viewer, String keyword) throws SQLException {
+        return dbHelper.searchQuestionRows(viewer, keyword);
+    }
+
+    /**
+     * Searches questions, answers and reviews with the full-text index.
+     * @param query The search query
+     * @param limit Maximum number of hits to return
+     * @return List of hits with highlighted snippets, most relevant first
+     * @throws SQLException if database operation fails
+     */
+    public List<SearchHit> searchContent(String query, int limit) throws SQLException {
+        return dbHelper.searchContent(query, limit);
+    }
+
+    /**
+     * Searches for question rows by a specific username.
+     * @param viewer The user whose unread answers are counted
+     * @param username The username to search for
+     * @return List of question rows by the specified user
+     * @throws SQLException if database operation fails
+     */
+    public List<QuestionRow> searchQuestionRowsByUser(String viewer, String username) throws SQLException {
+        return dbHelper.getQuestionRowsByAuthor(viewer, username);
+    }
+
+    /**
+     * Retrieves the resolved or unresolved question rows.
+     * @param viewer The user whose unread answers are counted
+     * @param answered true for resolved questions, false for unresolved ones
+     * @return List of matching question rows
+     * @throws SQLException if database operation fails
+     */
+    public List<QuestionRow> getQuestionRowsByStatus(String viewer, boolean answered) throws SQLException {
+        return dbHelper.getQuestionRowsByStatus(viewer, answered);
     }
 }
@@ -0,0 +1,71 @@
+package main;
+
+import java.util.Date;
+
+/**
+ * RankedReview is a review as seen by one student: it carries the weight the
+ * student gave the reviewer, the reviewer's scorecard rating and the effective
+ * weight the review list is ordered by.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    RankedReview class implementation
+ */
+public class RankedReview extends Review {
+    private int trustWeight;
+    private double reviewerScore;
+    private double effectiveWeight;
+
+    /**
+     * Creates a new RankedReview with specified properties.
+     *
+     * @param reviewId Unique identifier for the review
+     * @param reviewer Username of the review author
+     * @param content The review text content
+     * @param timestamp Time when the review was created
+     * @param questionId ID of the question this review belongs to
+     * @param answerId ID of the answer this review belongs to, or null if it's for a question
+     * @param trustWeight The student's weightage for the reviewer, or 0 if the reviewer is not trusted
+     * @param reviewerScore The reviewer's overall scorecard rating, or 0 if there is no scorecard
+     * @param effectiveWeight The weight the reviews are ranked by
+     */
+    public RankedReview(int reviewId, String reviewer, String content, Date timestamp, int questionId, Integer answerId,
+                        int trustWeight, double reviewerScore, double effectiveWeight) {
+        super(reviewId, reviewer, content, timestamp, questionId, answerId);
+        this.trustWeight = trustWeight;
+        this.reviewerScore = reviewerScore;
+        this.effectiveWeight = effectiveWeight;
+    }
+
+    /**
+     * Gets the weightage the student gave this reviewer.
+     * @return The trust weightage, or 0 if the reviewer is not trusted
+     */
+    public int getTrustWeight() {
+        return trustWeight;
+    }
+
+    /**
+     * Checks if the student trusts this reviewer.
+     * @return true if the reviewer is one of the student's trusted reviewers
+     */
+    public boolean isTrusted() {
+        return trustWeight > 0;
+    }
+
+    /**
+     * Gets the reviewer's overall scorecard rating.
+     * @return The overall score, or 0 if the reviewer has no scorecard
+     */
+    public double getReviewerScore() {
+        return reviewerScore;
+    }
+
+    /**
+     * Gets the weight this review is ranked by.
+     * @return The effective weight
+     */
+    public double getEffectiveWeight() {
+        return effectiveWeight;
+    }
+}
@@ -6,18 +6,23 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import databasePart1.ChangeEvent;
 import databasePart1.DatabaseHelper;
 import databasePart1.DatabaseHelper2;
 import databasePart1.DatabaseHelper3;
+import databasePart1.SessionContext;
+import databasePart1.UiAction;
 import java.sql.SQLException;
 import java.util.Date;
 import javafx.collections.FXCollections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ReviewerHomePage class represents the home page for users with the reviewer role.
@@ -28,14 +33,21 @@ public class ReviewerHomePage {
     private final DatabaseHelper2 databaseHelper2;
     private final DatabaseHelper3 databaseHelper3;
     private final String currentUsername;
+    private final SessionContext session;
     private Questions questionsManager;
     private Answers answersManager;
-    private TableView<Question> questionTable;
+    private TableView<QuestionRow> questionTable;
+    private TablePager<QuestionRow> questionPager;
     private static final java.text.SimpleDateFormat DATE_FORMAT = new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss");
 
     public ReviewerHomePage(DatabaseHelper databaseHelper, String username) {
+        this(databaseHelper, SessionContext.forUser(username));
+    }
+
+    public ReviewerHomePage(DatabaseHelper databaseHelper, SessionContext session) {
         this.databaseHelper = databaseHelper;
-        this.currentUsername = username;
+        this.session = session;
+        this.currentUsername = session.getUserName();
         
         // Initialize DatabaseHelper2 and DatabaseHelper3
         this.databaseHelper2 = new DatabaseHelper2();
@@ -43,7 +55,7 @@ public class ReviewerHomePage {
         try {
             this.databaseHelper2.connectToDatabase();
             this.databaseHelper3.connectToDatabase();
-            this.questionsManager = new Questions(databaseHelper2, databaseHelper2.connection);
+            this.questionsManager = new Questions(databaseHelper2);
             this.answersManager = new Answers(databaseHelper2);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -79,7 +91,8 @@ public class ReviewerHomePage {
         // Inbox Button
         Button inboxButton = new Button("Inbox");
         styleButton(inboxButton, "#ADD8E6", "#4682B4");
-        inboxButton.setOnAction(e -> showInboxDialog());
+        inboxButton.setOnAction(e -> UiAction.run("Open inbox", this::showInboxDialog));
+        MessageHelper.showUnreadCount(inboxButton, currentUsername, databaseHelper2);
 
         // Logout Button
         Button logoutButton = LogoutHelper.createLogoutButton(primaryStage, databaseHelper);
@@ -103,7 +116,7 @@ public class ReviewerHomePage {
         Button backButton = new Button("Back");
         styleButton(backButton, "#E0E0E0", "#C0C0C0"); // Light gray with black text
         backButton.setOnAction(e -> {
-            new WelcomeLoginPage(databaseHelper).show(primaryStage, new User(currentUsername, "", "", "", new String[]{"reviewer"}));
+            new WelcomeLoginPage(databaseHelper, session).show(primaryStage, new User(currentUsername, "", "", "", new String[]{"reviewer"}));
         });
         
         // Add back button to its container
@@ -150,6 +163,9 @@ public class ReviewerHomePage {
 
         // Initial load of questions
         refreshQuestions();
+
+        // Questions, answers and reviews posted in any window are patched into the table
+        LiveUpdates.subscribe(questionTable, ChangeEvent.QuestionEvent.class, event -> questionPager.refreshIfActive());
     }
 
     private void closeDatabaseConnections() {
@@ -183,20 +199,15 @@ public class ReviewerHomePage {
                 + "-fx-border-radius: 12px; "
                 + "-fx-background-radius: 12px;");
         
-        searchButton.setOnAction(e -> {
-            try {
-                String keyword = searchField.getText();
-                if (!keyword.isEmpty()) {
-                    questionTable.setItems(FXCollections.observableArrayList(
-                        questionsManager.searchQuestions(keyword)
-                    ));
-                } else {
-                    refreshQuestions();
-                }
-            } catch (SQLException ex) {
-                showError("Search Error", ex.getMessage());
+        searchButton.setOnAction(e -> UiAction.run("Search questions", () -> {
+            String keyword = searchField.getText();
+            if (!keyword.isEmpty()) {
+                AsyncHelper.loadTable(questionTable, () -> questionsManager.searchQuestionRows(currentUsername, keyword),
+                        ex -> showError("Search Error", AsyncHelper.message(ex)));
+            } else {
+                refreshQuestions();
             }
-        });
+        }));
         
         searchRow.getChildren().addAll(searchField, searchButton);
         searchSection.getChildren().add(searchRow);
@@ -212,6 +223,12 @@ public class ReviewerHomePage {
 
         questionTable = new TableView<>();
         setupQuestionTable();
+        questionPager = new TablePager<>(questionTable, DatabaseHelper2.DEFAULT_PAGE_SIZE,
+                e -> showError("Error", "Failed to load questions: " + AsyncHelper.message(e)));
+
+        Label pageStatusLabel = new Label();
+        pageStatusLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: white;");
+        pageStatusLabel.textProperty().bind(questionPager.statusProperty());
 
         // Create action buttons row
         HBox actionButtonsRow = new HBox(10);
@@ -221,77 +238,61 @@ public class ReviewerHomePage {
         Button answerBtn = new Button("View Answers");
         styleButton(answerBtn, "#90EE90", "#228B22");
         answerBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to answer.");
-                return;
-            }
-            showAnswerManagementDialog(selectedQuestion);
+            withSelectedQuestion("Please select a question to answer.",
+                    selectedQuestion -> UiAction.run("Open answers", () -> showAnswerManagementDialog(selectedQuestion)));
         });
         
         // Add Review button
         Button addReviewBtn = new Button("Add Review");
         styleButton(addReviewBtn, "#FFD700", "#DAA520");
         addReviewBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to review.");
-                return;
-            }
-            showReviewDialog(selectedQuestion);
+            withSelectedQuestion("Please select a question to review.", this::showReviewDialog);
         });
         
         // View Reviews button
         Button viewReviewsBtn = new Button("View Reviews");
         styleButton(viewReviewsBtn, "#87CEEB", "#4169E1");
         viewReviewsBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to view reviews.");
-                return;
-            }
-            showReviewsDialog(selectedQuestion);
+            withSelectedQuestion("Please select a question to view reviews.",
+                    selectedQuestion -> UiAction.run("Open reviews", () -> showReviewsDialog(selectedQuestion)));
         });
         
         // Message Author button
         Button messageBtn = new Button("Message Author");
         styleButton(messageBtn, "#ADD8E6", "#4682B4");
         messageBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion == null) {
-                showError("Selection Error", "Please select a question to message its author.");
-                return;
-            }
-            if (!selectedQuestion.getAuthor().equals(currentUsername)) { // Don't message yourself
-                showMessageForQuestion(selectedQuestion.getAuthor(), selectedQuestion.getQuestionId());
-            }
+            withSelectedQuestion("Please select a question to message its author.", selectedQuestion -> {
+                if (!selectedQuestion.getAuthor().equals(currentUsername)) { // Don't message yourself
+                    showMessageForQuestion(selectedQuestion.getAuthor(), selectedQuestion.getQuestionId());
+                }
+            });
         });
         
         actionButtonsRow.getChildren().addAll(answerBtn, addReviewBtn, viewReviewsBtn, messageBtn);
 
-        section.getChildren().addAll(titleLabel, questionTable, actionButtonsRow);
+        section.getChildren().addAll(titleLabel, questionTable, pageStatusLabel, actionButtonsRow);
         return section;
     }
 
     private void setupQuestionTable() {
         // Content Column
-        TableColumn<Question, String> contentCol = new TableColumn<>("Question");
+        TableColumn<QuestionRow, String> contentCol = new TableColumn<>("Question");
         contentCol.setCellValueFactory(cellData -> 
-            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getContent()));
+            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getContentPreview()));
         contentCol.setPrefWidth(400);
 
         // ID Column
-        TableColumn<Question, Integer> idCol = new TableColumn<>("ID");
+        TableColumn<QuestionRow, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("questionId"));
         idCol.setPrefWidth(60);
 
         // Author Column
-        TableColumn<Question, String> authorCol = new TableColumn<>("Asked By");
+        TableColumn<QuestionRow, String> authorCol = new TableColumn<>("Asked By");
         authorCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("author"));
         authorCol.setPrefWidth(120);
 
         // Date Column
-        TableColumn<Question, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<QuestionRow, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -307,7 +308,7 @@ public class ReviewerHomePage {
         dateCol.setPrefWidth(170);
 
         // Status Column
-        TableColumn<Question, Boolean> statusCol = new TableColumn<>("Status");
+        TableColumn<QuestionRow, Boolean> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("answered"));
         statusCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -322,7 +323,18 @@ public class ReviewerHomePage {
         });
         statusCol.setPrefWidth(100);
 
-        questionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol);
+        // Answer and Review Count Columns
+        TableColumn<QuestionRow, Integer> answersCol = new TableColumn<>("Answers");
+        answersCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("answerCount"));
+        answersCol.setPrefWidth(80);
+        answersCol.setStyle("-fx-alignment: CENTER;");
+
+        TableColumn<QuestionRow, Integer> reviewsCol = new TableColumn<>("Reviews");
+        reviewsCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewCount"));
+        reviewsCol.setPrefWidth(80);
+        reviewsCol.setStyle("-fx-alignment: CENTER;");
+
+        questionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol, answersCol, reviewsCol);
     }
 
     private void showAnswerManagementDialog(Question question) {
@@ -347,22 +359,15 @@ public class ReviewerHomePage {
             Answer answer = cellData.getValue();
             String answerContent = answer.getContent();
             
-            // If this answer references another answer, show the reference
-            if (answer.hasReference()) {
-                try {
-                    Answer referencedAnswer = databaseHelper2.getAnswerById(answer.getReferenceAnswerId());
-                    if (referencedAnswer != null) {
-                        String referenceDisplay = String.format(
-                            "↪ Re: \"%s\" (by %s)\n%s",
-                            truncateIfNeeded(referencedAnswer.getContent(), 50),
-                            referencedAnswer.getAuthor(),
-                            answerContent
-                        );
-                        return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
-                    }
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+            // Show the answer this one references, loaded with the page so cells never query
+            if (answer.hasReference() && answer.getReferencedAuthor() != null) {
+                String referenceDisplay = String.format(
+                    "↪ Re: \"%s\" (by %s)\n%s",
+                    truncateIfNeeded(answer.getReferencedContent(), 50),
+                    answer.getReferencedAuthor(),
+                    answerContent
+                );
+                return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
             }
             
             return new javafx.beans.property.SimpleStringProperty(answerContent);
@@ -450,14 +455,11 @@ public class ReviewerHomePage {
 
         actionButtonsRow.getChildren().addAll(addReviewBtn, viewReviewsBtn, messageBtn);
 
-        // Load existing answers for this question
-        try {
-            answersTable.setItems(FXCollections.observableArrayList(
-                answersManager.getAnswersForQuestion(question.getQuestionId())
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load answers: " + e.getMessage());
-        }
+        // Load existing answers for this question; closing the dialog cancels the load
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), TablePager.of(answersTable,
+                DatabaseHelper2.DEFAULT_PAGE_SIZE, e -> showError("Error", "Failed to load answers: " + AsyncHelper.message(e)))
+                .start((after, limit) -> answersManager.getAnswerPage(question.getQuestionId(), after, limit),
+                        () -> answersManager.countAnswersForQuestion(question.getQuestionId())));
 
         contentPane.getChildren().addAll(existingAnswersLabel, answersTable, actionButtonsRow);
         dialog.getDialogPane().setContent(contentPane);
@@ -478,20 +480,20 @@ public class ReviewerHomePage {
         questionLabel.setWrapText(true);
         questionLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -507,20 +509,10 @@ public class ReviewerHomePage {
         dateCol.setPrefWidth(150);
         
         // Add Reviewer Rating Column
-        TableColumn<Review, Double> ratingCol = new TableColumn<>("Reviewer Rating");
-        ratingCol.setCellValueFactory(data -> {
-            try {
-                String reviewer = data.getValue().getReviewer();
-                Map<String, Object> scorecard = databaseHelper3.getReviewerScorecard(reviewer);
-                if (scorecard != null && scorecard.get("overall_score") != null) {
-                    return new javafx.beans.property.SimpleDoubleProperty((Double)scorecard.get("overall_score")).asObject();
-                }
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            } catch (SQLException e) {
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            }
-        });
-        ratingCol.setCellFactory(col -> new TableCell<Review, Double>() {
+        TableColumn<RankedReview, Double> ratingCol = new TableColumn<>("Reviewer Rating");
+        ratingCol.setCellValueFactory(data ->
+            new javafx.beans.property.SimpleDoubleProperty(data.getValue().getReviewerScore()).asObject());
+        ratingCol.setCellFactory(col -> new TableCell<RankedReview, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
@@ -585,12 +577,7 @@ public class ReviewerHomePage {
 
         actionButtonsRow.getChildren().addAll(updateBtn, deleteBtn, messageBtn, viewProfileBtn);
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForQuestion(question.getQuestionId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), loadReviews(reviewsTable, question.getQuestionId(), null));
 
         content.getChildren().addAll(questionLabel, reviewsTable, actionButtonsRow);
         dialog.getDialogPane().setContent(content);
@@ -612,20 +599,20 @@ public class ReviewerHomePage {
         answerLabel.setWrapText(true);
         answerLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -641,20 +628,10 @@ public class ReviewerHomePage {
         dateCol.setPrefWidth(150);
         
         // Add Reviewer Rating Column
-        TableColumn<Review, Double> ratingCol = new TableColumn<>("Reviewer Rating");
-        ratingCol.setCellValueFactory(data -> {
-            try {
-                String reviewer = data.getValue().getReviewer();
-                Map<String, Object> scorecard = databaseHelper3.getReviewerScorecard(reviewer);
-                if (scorecard != null && scorecard.get("overall_score") != null) {
-                    return new javafx.beans.property.SimpleDoubleProperty((Double)scorecard.get("overall_score")).asObject();
-                }
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            } catch (SQLException e) {
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            }
-        });
-        ratingCol.setCellFactory(col -> new TableCell<Review, Double>() {
+        TableColumn<RankedReview, Double> ratingCol = new TableColumn<>("Reviewer Rating");
+        ratingCol.setCellValueFactory(data ->
+            new javafx.beans.property.SimpleDoubleProperty(data.getValue().getReviewerScore()).asObject());
+        ratingCol.setCellFactory(col -> new TableCell<RankedReview, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
@@ -668,7 +645,7 @@ public class ReviewerHomePage {
         ratingCol.setPrefWidth(120);
 
         // Action Column for Update/Delete
-        TableColumn<Review, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<RankedReview, Void> actionCol = new TableColumn<>("Action");
         actionCol.setCellFactory(col -> new TableCell<>() {
             @Override
             protected void updateItem(Void item, boolean empty) {
@@ -709,12 +686,8 @@ public class ReviewerHomePage {
 
         reviewsTable.getColumns().setAll(reviewerCol, reviewCol, dateCol, ratingCol, actionCol);
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForAnswer(answer.getAnswerId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(),
+                loadReviews(reviewsTable, answer.getQuestionId(), answer.getAnswerId()));
 
         content.getChildren().addAll(answerLabel, reviewsTable);
         dialog.getDialogPane().setContent(content);
@@ -722,7 +695,7 @@ public class ReviewerHomePage {
         dialog.showAndWait();
     }
 
-    private void showUpdateReviewDialog(Review review, TableView<Review> reviewsTable) {
+    private void showUpdateReviewDialog(Review review, TableView<RankedReview> reviewsTable) {
         Dialog<String> dialog = new Dialog<>();
         dialog.setTitle("Update Review");
         dialog.setHeaderText("Update your review");
@@ -772,23 +745,7 @@ public class ReviewerHomePage {
                 databaseHelper3.addReview(updatedReview);
                 
                 // Refresh the reviews table
-                if (review.getAnswerId() != null) {
-                    // For answer reviews
-                    try {
-                        List<Review> reviews = databaseHelper3.getReviewsForAnswer(review.getAnswerId());
-                        reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-                    } catch (SQLException ex) {
-                        showError("Error", "Failed to refresh reviews: " + ex.getMessage());
-                    }
-                } else {
-                    // For question reviews
-                    try {
-                        List<Review> reviews = databaseHelper3.getReviewsForQuestion(review.getQuestionId());
-                        reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-                    } catch (SQLException ex) {
-                        showError("Error", "Failed to refresh reviews: " + ex.getMessage());
-                    }
-                }
+                loadReviews(reviewsTable, review.getQuestionId(), review.getAnswerId());
                 
                 showSuccess("Success", "Review updated successfully!");
             } catch (SQLException ex) {
@@ -797,7 +754,7 @@ public class ReviewerHomePage {
         });
     }
 
-    private void handleReviewDeletion(Review review, TableView<Review> reviewsTable) {
+    private void handleReviewDeletion(Review review, TableView<RankedReview> reviewsTable) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Review");
         alert.setHeaderText("Delete Review");
@@ -816,6 +773,16 @@ public class ReviewerHomePage {
         });
     }
 
+    // Loads a question's or an answer's reviews off the UI thread, each with its reviewer's rating
+    private CompletableFuture<List<RankedReview>> loadReviews(TableView<RankedReview> reviewsTable, int questionId,
+                                                              Integer answerId) {
+        return AsyncHelper.loadTable(reviewsTable,
+                () -> answerId != null
+                        ? databaseHelper3.getRankedReviewsForAnswer(answerId, currentUsername)
+                        : databaseHelper3.getRankedReviewsForQuestion(questionId, currentUsername),
+                e -> showError("Error", "Failed to load reviews: " + AsyncHelper.message(e)));
+    }
+
     private void showReviewDialog(Question question) {
         Dialog<String> dialog = new Dialog<>();
         dialog.setTitle("Add Review");
@@ -907,14 +874,34 @@ public class ReviewerHomePage {
                                     questionsManager, answersManager);
     }
 
+    // Fills the question table a page at a time; later pages load as the user scrolls, and
+    // refreshing again fetches only the rows that changed
     private void refreshQuestions() {
-        try {
-            questionTable.setItems(FXCollections.observableArrayList(
-                questionsManager.getAllQuestions()
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load questions: " + e.getMessage());
+        if (!questionPager.refresh()) {
+            questionPager.start(
+                    (after, limit) -> questionsManager.getQuestionRowPage(currentUsername, null, false, after, limit),
+                    () -> questionsManager.countQuestions(null),
+                    questionsManager.rowSync(currentUsername, null, false));
+        }
+    }
+
+    // Loads the full question behind the selected row off the UI thread and hands it to open,
+    // or asks for a selection first when no row is selected
+    private void withSelectedQuestion(String selectionMessage, Consumer<Question> open) {
+        QuestionRow selectedRow = questionTable.getSelectionModel().getSelectedItem();
+        if (selectedRow == null) {
+            showError("Selection Error", selectionMessage);
+            return;
         }
+        AsyncHelper.load(() -> questionsManager.getQuestionById(selectedRow.getQuestionId()),
+                question -> {
+                    if (question != null) {
+                        open.accept(question);
+                    } else {
+                        showError("Error", "The selected question no longer exists.");
+                    }
+                },
+                error -> showError("Error", "Failed to load question: " + AsyncHelper.message(error)));
     }
 
     private void styleButton(Button button, String bgColor, String borderColor) {
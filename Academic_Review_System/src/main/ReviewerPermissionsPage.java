@@ -10,6 +10,7 @@ import java.sql.SQLException;
 import java.util.Map;
 import java.util.List;
 import databasePart1.DatabaseHelper;
+import databasePart1.SessionContext;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.util.Pair;
@@ -29,14 +30,20 @@ import databasePart1.DatabaseHelper3;
 public class ReviewerPermissionsPage {
     private final DatabaseHelper databaseHelper;
     private final String currentUsername;
+    private final SessionContext session;
     private final boolean isInstructor;
     private final DatabaseHelper2 databaseHelper2;
     private final DatabaseHelper3 databaseHelper3;
     private TableView<Map<String, Object>> requestsTable;
 
     public ReviewerPermissionsPage(DatabaseHelper databaseHelper, String currentUsername, boolean isInstructor) {
+        this(databaseHelper, SessionContext.forUser(currentUsername), isInstructor);
+    }
+
+    public ReviewerPermissionsPage(DatabaseHelper databaseHelper, SessionContext session, boolean isInstructor) {
         this.databaseHelper = databaseHelper;
-        this.currentUsername = currentUsername;
+        this.session = session;
+        this.currentUsername = session.getUserName();
         this.isInstructor = isInstructor;
         
         // Initialize DatabaseHelper2 for access to questions and answers
@@ -224,9 +231,9 @@ public class ReviewerPermissionsPage {
                 + "-fx-border-radius: 12px; -fx-background-radius: 12px;");
         backButton.setOnAction(e -> {
             if (isInstructor) {
-                new InstructorHomePage(databaseHelper, currentUsername).show(primaryStage);
+                new InstructorHomePage(databaseHelper, session).show(primaryStage);
             } else {
-                new StudentHomePage(databaseHelper, currentUsername).show(primaryStage);
+                new StudentHomePage(databaseHelper, session).show(primaryStage);
             }
         });
 
@@ -283,16 +290,16 @@ public class ReviewerPermissionsPage {
         questionsBox.setPadding(new Insets(10));
         
         // Table for questions
-        TableView<Question> questionsTable = new TableView<>();
+        TableView<QuestionRow> questionsTable = new TableView<>();
         
         // Question content column
-        TableColumn<Question, String> contentCol = new TableColumn<>("Content");
+        TableColumn<QuestionRow, String> contentCol = new TableColumn<>("Content");
         contentCol.setCellValueFactory(cellData -> 
-            new SimpleStringProperty(cellData.getValue().getContent()));
+            new SimpleStringProperty(cellData.getValue().getContentPreview()));
         contentCol.setPrefWidth(350);
         
         // Date column
-        TableColumn<Question, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<QuestionRow, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy HH:mm:ss");
@@ -310,7 +317,7 @@ public class ReviewerPermissionsPage {
         dateCol.setPrefWidth(150);
         
         // Status column
-        TableColumn<Question, Boolean> statusCol = new TableColumn<>("Status");
+        TableColumn<QuestionRow, Boolean> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new PropertyValueFactory<>("answered"));
         statusCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -327,21 +334,15 @@ public class ReviewerPermissionsPage {
         
         questionsTable.getColumns().addAll(contentCol, dateCol, statusCol);
         
-        try {
-            // Load questions by this student
-            Questions questionsManager = new Questions(databaseHelper2, databaseHelper2.connection);
-            List<Question> studentQuestions = new ArrayList<>();
+        // Load questions by this student
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(questionsTable, () -> {
+            Questions questionsManager = new Questions(databaseHelper2);
+            List<QuestionRow> studentQuestions = questionsManager.searchQuestionRowsByUser(currentUsername, studentUsername);
             
-            for (Question q : questionsManager.getAllQuestions()) {
-                if (q.getAuthor().equals(studentUsername)) {
-                    studentQuestions.add(q);
-                }
-            }
-            
-            questionsTable.setItems(FXCollections.observableArrayList(studentQuestions));
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load student questions: " + e.getMessage());
-        }
+            // The search matches partial names; keep only this student's questions
+            studentQuestions.removeIf(q -> !q.getAuthor().equals(studentUsername));
+            return studentQuestions;
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", "Failed to load student questions: " + AsyncHelper.message(e))));
         
         questionsBox.getChildren().add(questionsTable);
         questionsTab.setContent(questionsBox);
@@ -402,21 +403,11 @@ public class ReviewerPermissionsPage {
         
         answersTable.getColumns().addAll(answerContentCol, questionIdCol, answerDateCol, acceptedCol);
         
-        try {
-            // Load answers by this student
-            Answers answersManager = new Answers(databaseHelper2);
-            List<Answer> studentAnswers = new ArrayList<>();
-            
-            for (Answer a : answersManager.getAllAnswers()) {
-                if (a.getAuthor().equals(studentUsername)) {
-                    studentAnswers.add(a);
-                }
-            }
-            
-            answersTable.setItems(FXCollections.observableArrayList(studentAnswers));
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load student answers: " + e.getMessage());
-        }
+        // Load answers by this student
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(answersTable,
+                () -> new Answers(databaseHelper2).getAnswersByAuthor(studentUsername),
+                e -> showAlert(Alert.AlertType.ERROR, "Error",
+                        "Failed to load student answers: " + AsyncHelper.message(e))));
         
         // Add buttons for approving/rejecting based on history review
         Button approveBtn = new Button("Approve Request");
@@ -4,21 +4,27 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import java.sql.SQLException;
 import databasePart1.DatabaseHelper;
+import databasePart1.SessionContext;
 
 /**
  * The RoleSelectionPage class allows users with multiple roles to select which role they want to play.
  * After selection, users are directed to the appropriate role-specific home page.
  */
 public class RoleSelectionPage {
-    private final User user;
+    private final SessionContext session;
     private final DatabaseHelper databaseHelper;
 
-    public RoleSelectionPage(User user, DatabaseHelper databaseHelper) {
-        this.user = user;
+    public RoleSelectionPage(SessionContext session, DatabaseHelper databaseHelper) {
+        this.session = session;
         this.databaseHelper = databaseHelper;
     }
 
+    public RoleSelectionPage(User user, DatabaseHelper databaseHelper) {
+        this(SessionContext.forUser(user.getUserName()), databaseHelper);
+    }
+
     public void show(Stage primaryStage) {
         // Background Pane with True Red to Orange-Yellow Gradient
         Pane backgroundPane = new Pane();
@@ -36,7 +42,11 @@ public class RoleSelectionPage {
 
         // Role selection ComboBox
         ComboBox<String> roleComboBox = new ComboBox<>();
-        roleComboBox.getItems().addAll(user.getRoles());
+        try {
+            roleComboBox.getItems().addAll(session.getPrincipal().getRoles());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
         roleComboBox.setPromptText("Select a role");
         roleComboBox.setMaxWidth(250);
         roleComboBox.setStyle("-fx-font-family: 'Helvetica'; -fx-background-color: white; -fx-border-color: #696969;");
@@ -94,19 +104,19 @@ public class RoleSelectionPage {
     public void navigateToRolePage(Stage primaryStage, String role) {
         switch (role.toLowerCase()) {
             case "admin":
-                new AdminHomePage(databaseHelper, user.getUserName()).show(primaryStage);
+                new AdminHomePage(databaseHelper, session).show(primaryStage);
                 break;
             case "student":
-                new StudentHomePage(databaseHelper, user.getUserName()).show(primaryStage);
+                new StudentHomePage(databaseHelper, session).show(primaryStage);
                 break;
             case "instructor":
-                new InstructorHomePage(databaseHelper, user.getUserName()).show(primaryStage);
+                new InstructorHomePage(databaseHelper, session).show(primaryStage);
                 break;
             case "staff":
-                new StaffHomePage(databaseHelper).show(primaryStage);
+                new StaffHomePage(databaseHelper, session).show(primaryStage);
                 break;
             case "reviewer":
-                new ReviewerHomePage(databaseHelper, user.getUserName()).show(primaryStage);
+                new ReviewerHomePage(databaseHelper, session).show(primaryStage);
                 break;
         }
     }
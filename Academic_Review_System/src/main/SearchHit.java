@@ -0,0 +1,133 @@
+package main;
+
+/**
+ * SearchHit is one result of a full-text search: the question, answer or
+ * review that matched, its relevance score and a short snippet of its text
+ * around the matched words.
+ *
+ * <p> The matched words are reported as character ranges into the snippet so
+ * the caller decides how to show them; {@link #getHighlightedSnippet(String, String)}
+ * wraps them in the given markers. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    SearchHit class implementation
+ */
+public class SearchHit {
+
+    /**
+     * The kinds of content covered by the search index.
+     */
+    public enum Type {
+        QUESTION, ANSWER, REVIEW
+    }
+
+    private final Type type;
+    private final int id;
+    private final int questionId;
+    private final String author;
+    private final double score;
+    private final String snippet;
+    private final int[] highlights;
+
+    /**
+     * Creates a new SearchHit.
+     *
+     * @param type The kind of content that matched
+     * @param id The ID of the question, answer or review
+     * @param questionId The ID of the question the content belongs to (the question itself for questions)
+     * @param author Username of the author or reviewer
+     * @param score The relevance score the results are ordered by
+     * @param snippet The part of the content around the matched words
+     * @param highlights Start and end offsets of the matched words in the snippet, in pairs
+     */
+    public SearchHit(Type type, int id, int questionId, String author, double score, String snippet, int[] highlights) {
+        this.type = type;
+        this.id = id;
+        this.questionId = questionId;
+        this.author = author;
+        this.score = score;
+        this.snippet = snippet;
+        this.highlights = highlights.clone();
+    }
+
+    /**
+     * Gets the kind of content that matched.
+     * @return The content type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the ID of the question, answer or review that matched.
+     * @return The ID of the matched content
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the question the matched content belongs to.
+     * @return The question ID
+     */
+    public int getQuestionId() {
+        return questionId;
+    }
+
+    /**
+     * Gets the author of the matched content.
+     * @return The username of the author or reviewer
+     */
+    public String getAuthor() {
+        return author;
+    }
+
+    /**
+     * Gets the relevance score of the hit.
+     * @return The BM25 score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the snippet of the content around the matched words.
+     * @return The snippet text
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /**
+     * Gets the positions of the matched words in the snippet.
+     * @return Start (inclusive) and end (exclusive) offsets, in pairs
+     */
+    public int[] getHighlights() {
+        return highlights.clone();
+    }
+
+    /**
+     * Gets the snippet with every matched word wrapped in the given markers.
+     * @param open The text inserted before a matched word
+     * @param close The text inserted after a matched word
+     * @return The marked-up snippet
+     */
+    public String getHighlightedSnippet(String open, String close) {
+        StringBuilder marked = new StringBuilder(snippet.length() + highlights.length * 4);
+        int last = 0;
+        for (int i = 0; i < highlights.length; i += 2) {
+            marked.append(snippet, last, highlights[i])
+                  .append(open)
+                  .append(snippet, highlights[i], highlights[i + 1])
+                  .append(close);
+            last = highlights[i + 1];
+        }
+        return marked.append(snippet.substring(last)).toString();
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + id + " by " + author + ": " + snippet;
+    }
+}
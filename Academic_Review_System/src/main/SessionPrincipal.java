@@ -0,0 +1,60 @@
+package main;
+
+/**
+ * SessionPrincipal is who the logged-in user is: their name, roles, contact
+ * details, ban state and unread message count, all loaded by one query at
+ * login. It never changes; when any of it changes in the database the session
+ * loads a new one.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    SessionPrincipal class implementation
+ */
+public final class SessionPrincipal {
+    private final String userName;
+    private final String fullName;
+    private final String email;
+    private final String[] roles;
+    private final int roleMask;
+    private final boolean banned;
+    private final int unreadMessageCount;
+
+    /**
+     * Creates a new SessionPrincipal.
+     * @param userName The user's username
+     * @param fullName The user's full name, or null
+     * @param email The user's email, or null
+     * @param roles The user's roles
+     * @param banned Whether the user is a banned student
+     * @param unreadMessageCount The user's unread messages, broadcasts included
+     */
+    public SessionPrincipal(String userName, String fullName, String email, String[] roles,
+                            boolean banned, int unreadMessageCount) {
+        this.userName = userName;
+        this.fullName = fullName;
+        this.email = email;
+        this.roles = roles.clone();
+        this.roleMask = User.roleMask(roles);
+        this.banned = banned;
+        this.unreadMessageCount = unreadMessageCount;
+    }
+
+    public String getUserName() { return userName; }
+    public String getFullName() { return fullName; }
+    public String getEmail() { return email; }
+    public String[] getRoles() { return roles.clone(); }
+    public int getRoleMask() { return roleMask; }
+    public boolean hasRole(String role) {
+        return (roleMask & User.roleBit(role)) != 0;
+    }
+    public boolean isBanned() { return banned; }
+    public int getUnreadMessageCount() { return unreadMessageCount; }
+
+    /**
+     * Creates a User with the principal's details, for pages that take one.
+     * @return A new User without a password
+     */
+    public User toUser() {
+        return new User(userName, "", fullName, email, getRoles());
+    }
+}
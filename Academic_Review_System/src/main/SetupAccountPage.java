@@ -99,21 +99,27 @@ public class SetupAccountPage {
                     if (!errMessage.trim().isEmpty()) {
                         errorLabel.setText(errMessage);
                     } else {
-                        // Validate the invitation code.
-                        if (databaseHelper.validateInvitationCode(code)) {
-                            String[] availableRoles = databaseHelper.getInvitationRoles(code);
-                            if (availableRoles.length > 0) {
-                                // Create a new user and register them in the database.
-                                User user = new User(userName, password, fullName, email, availableRoles);
-                                databaseHelper.register(user);
-
-                                // Navigate to the Welcome Login Page.
-                                new WelcomeLoginPage(databaseHelper).show(primaryStage, user);
-                            } else {
-                                errorLabel.setText("Invalid invitation code: No roles available");
+                        // Redeem the invitation code and register the user in one transaction,
+                        // so the code stays unused if the registration fails.
+                        String[] availableRoles = UnitOfWork.call(() -> {
+                            if (!databaseHelper.validateInvitationCode(code)) {
+                                return null;
                             }
-                        } else {
+                            String[] roles = databaseHelper.getInvitationRoles(code);
+                            if (roles.length > 0) {
+                                databaseHelper.register(new User(userName, password, fullName, email, roles));
+                            }
+                            return roles;
+                        });
+                        if (availableRoles == null) {
                             errorLabel.setText("Please enter a valid invitation code");
+                        } else if (availableRoles.length > 0) {
+                            User user = new User(userName, password, fullName, email, availableRoles);
+
+                            // Navigate to the Welcome Login Page.
+                            new WelcomeLoginPage(databaseHelper).show(primaryStage, user);
+                        } else {
+                            errorLabel.setText("Invalid invitation code: No roles available");
                         }
                     }
                 } else {
@@ -12,6 +12,8 @@ import java.util.Date;
 import javafx.collections.FXCollections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -26,27 +28,37 @@ public class StaffHomePage {
     private final DatabaseHelper2 databaseHelper2;
     private final DatabaseHelper3 databaseHelper3;
     private final DatabaseHelper4 databaseHelper4;
+    private final ModerationService moderationService;
     private final String currentUsername;
+    private final SessionContext session;
     private Questions questionsManager;
     private Answers answersManager;
-    private TableView<Question> questionTable;
+    private TableView<QuestionRow> questionTable;
+    private TablePager<QuestionRow> questionPager;
     private static final java.text.SimpleDateFormat DATE_FORMAT = new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss");
 
     private AdminRequestsPage adminRequestsPage;
 
     public StaffHomePage(DatabaseHelper databaseHelper) {
+        this(databaseHelper, SessionContext.forUser("Staff")); // Default username for staff
+    }
+
+    public StaffHomePage(DatabaseHelper databaseHelper, SessionContext session) {
         this.databaseHelper = databaseHelper;
-        this.currentUsername = "Staff"; // Default username for staff
+        this.session = session;
+        this.currentUsername = session.getUserName();
         
         // Initialize DatabaseHelper2 and DatabaseHelper3
         this.databaseHelper2 = new DatabaseHelper2();
         this.databaseHelper3 = new DatabaseHelper3();
         this.databaseHelper4 = new DatabaseHelper4();
+        this.moderationService = new ModerationService();
         try {
             this.databaseHelper2.connectToDatabase();
             this.databaseHelper3.connectToDatabase();
             this.databaseHelper4.connectToDatabase();
-            this.questionsManager = new Questions(databaseHelper2, databaseHelper2.connection);
+            this.moderationService.connectToDatabase();
+            this.questionsManager = new Questions(databaseHelper2);
             this.answersManager = new Answers(databaseHelper2);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -71,7 +83,8 @@ public class StaffHomePage {
         // Inbox Button
         Button inboxButton = new Button("Inbox");
         styleButton(inboxButton, "#ADD8E6", "#4682B4");
-        inboxButton.setOnAction(e -> showInboxDialog());
+        inboxButton.setOnAction(e -> UiAction.run("Open inbox", this::showInboxDialog));
+        MessageHelper.showUnreadCount(inboxButton, currentUsername, databaseHelper2);
 
         // Banned Students Button
         Button bannedStudentsButton = new Button("Banned Students");
@@ -84,7 +97,7 @@ public class StaffHomePage {
         styleButton(viewAdminRequestsButton, "#FFD700", "#DAA520"); // Gold/Yellow style
         viewAdminRequestsButton.setOnAction(e -> {
             if (adminRequestsPage == null) {
-                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, currentUsername, primaryStage, primaryStage.getScene());
+                adminRequestsPage = new AdminRequestsPage(databaseHelper4, databaseHelper, session, primaryStage, primaryStage.getScene());
             }
             adminRequestsPage.show();
         });
@@ -116,6 +129,9 @@ public class StaffHomePage {
 
         // Initial load of questions
         refreshQuestions();
+
+        // Questions, answers and reviews posted in any window are patched into the table
+        LiveUpdates.subscribe(questionTable, ChangeEvent.QuestionEvent.class, event -> questionPager.refreshIfActive());
     }
 
     private void closeDatabaseConnections() {
@@ -152,20 +168,15 @@ public class StaffHomePage {
                 + "-fx-border-radius: 12px; "
                 + "-fx-background-radius: 12px;");
 
-        searchButton.setOnAction(e -> {
-            try {
-                String keyword = searchField.getText();
-                if (!keyword.isEmpty()) {
-                    questionTable.setItems(FXCollections.observableArrayList(
-                        questionsManager.searchQuestions(keyword)
-                    ));
-                } else {
-                    refreshQuestions();
-                }
-            } catch (SQLException ex) {
-                showError("Search Error", ex.getMessage());
+        searchButton.setOnAction(e -> UiAction.run("Search questions", () -> {
+            String keyword = searchField.getText();
+            if (!keyword.isEmpty()) {
+                AsyncHelper.loadTable(questionTable, () -> questionsManager.searchQuestionRows(currentUsername, keyword),
+                        ex -> showError("Search Error", AsyncHelper.message(ex)));
+            } else {
+                refreshQuestions();
             }
-        });
+        }));
         
         searchRow.getChildren().addAll(searchField, searchButton);
         searchSection.getChildren().add(searchRow);
@@ -181,6 +192,12 @@ public class StaffHomePage {
 
         questionTable = new TableView<>();
         setupQuestionTable();
+        questionPager = new TablePager<>(questionTable, DatabaseHelper2.DEFAULT_PAGE_SIZE,
+                e -> showError("Error", "Failed to load questions: " + AsyncHelper.message(e)));
+
+        Label pageStatusLabel = new Label();
+        pageStatusLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: white;");
+        pageStatusLabel.textProperty().bind(questionPager.statusProperty());
 
         // Create action buttons
         HBox actionButtons = new HBox(10);
@@ -196,56 +213,41 @@ public class StaffHomePage {
 
         // Add action handlers
         viewBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
-                showQuestionDetails(selectedQuestion);
-            } else {
-                showError("Selection Required", "Please select a question first.");
-            }
+            withSelectedQuestion("Please select a question first.", this::showQuestionDetails);
         });
 
         reportBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
-                showReportDialog(selectedQuestion);
-            } else {
-                showError("Selection Required", "Please select a question to report.");
-            }
+            withSelectedQuestion("Please select a question to report.", this::showReportDialog);
         });
         
         warningBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
-                showWarningConfirmationDialog(selectedQuestion);
-            } else {
-                showError("Selection Required", "Please select a question to issue a warning for.");
-            }
+            withSelectedQuestion("Please select a question to issue a warning for.", this::showWarningConfirmationDialog);
         });
 
         actionButtons.getChildren().addAll(viewBtn, reportBtn, warningBtn);
-        section.getChildren().addAll(titleLabel, questionTable, actionButtons);
+        section.getChildren().addAll(titleLabel, questionTable, pageStatusLabel, actionButtons);
         return section;
     }
 
     private void setupQuestionTable() {
         // Content Column
-        TableColumn<Question, String> contentCol = new TableColumn<>("Question");
+        TableColumn<QuestionRow, String> contentCol = new TableColumn<>("Question");
         contentCol.setCellValueFactory(cellData -> 
-            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getContent()));
+            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getContentPreview()));
         contentCol.setPrefWidth(400);
 
         // ID Column
-        TableColumn<Question, Integer> idCol = new TableColumn<>("ID");
+        TableColumn<QuestionRow, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("questionId"));
         idCol.setPrefWidth(60);
 
         // Author Column
-        TableColumn<Question, String> authorCol = new TableColumn<>("Asked By");
+        TableColumn<QuestionRow, String> authorCol = new TableColumn<>("Asked By");
         authorCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("author"));
         authorCol.setPrefWidth(120);
 
         // Date Column
-        TableColumn<Question, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<QuestionRow, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -261,7 +263,7 @@ public class StaffHomePage {
         dateCol.setPrefWidth(170);
 
         // Status Column
-        TableColumn<Question, Boolean> statusCol = new TableColumn<>("Status");
+        TableColumn<QuestionRow, Boolean> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("answered"));
         statusCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -276,7 +278,18 @@ public class StaffHomePage {
         });
         statusCol.setPrefWidth(100);
 
-        questionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol);
+        // Answer and Review Count Columns
+        TableColumn<QuestionRow, Integer> answersCol = new TableColumn<>("Answers");
+        answersCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("answerCount"));
+        answersCol.setPrefWidth(80);
+        answersCol.setStyle("-fx-alignment: CENTER;");
+
+        TableColumn<QuestionRow, Integer> reviewsCol = new TableColumn<>("Reviews");
+        reviewsCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewCount"));
+        reviewsCol.setPrefWidth(80);
+        reviewsCol.setStyle("-fx-alignment: CENTER;");
+
+        questionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol, answersCol, reviewsCol);
         
         // Enable row selection
         questionTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
@@ -308,7 +321,7 @@ public class StaffHomePage {
         
         Button viewReviewsBtn = new Button("View Reviews");
         styleButton(viewReviewsBtn, "#87CEEB", "#4169E1");
-        viewReviewsBtn.setOnAction(e -> showReviewsDialog(question));
+        viewReviewsBtn.setOnAction(e -> UiAction.run("Open reviews", () -> showReviewsDialog(question)));
         
         actionButtons.getChildren().addAll(viewAnswersBtn, viewReviewsBtn);
         
@@ -337,20 +350,20 @@ public class StaffHomePage {
         questionLabel.setWrapText(true);
         questionLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -422,12 +435,7 @@ public class StaffHomePage {
 
         actionButtonsRow.getChildren().addAll(updateBtn, deleteBtn, messageBtn, viewProfileBtn);
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForQuestion(question.getQuestionId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), loadReviews(reviewsTable, question.getQuestionId(), null));
 
         content.getChildren().addAll(questionLabel, reviewsTable, actionButtonsRow);
         dialog.getDialogPane().setContent(content);
@@ -539,14 +547,11 @@ public class StaffHomePage {
 
         actionButtonsRow.getChildren().addAll(reviewsBtn, reportBtn);
 
-        // Load existing answers for this question
-        try {
-            answersTable.setItems(FXCollections.observableArrayList(
-                answersManager.getAnswersForQuestion(question.getQuestionId())
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load answers: " + e.getMessage());
-        }
+        // Load existing answers for this question; closing the dialog cancels the load
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), TablePager.of(answersTable,
+                DatabaseHelper2.DEFAULT_PAGE_SIZE, e -> showError("Error", "Failed to load answers: " + AsyncHelper.message(e)))
+                .start((after, limit) -> answersManager.getAnswerPage(question.getQuestionId(), after, limit),
+                        () -> answersManager.countAnswersForQuestion(question.getQuestionId())));
 
         content.getChildren().addAll(questionLabel, infoLabel, answersTable, actionButtonsRow);
         dialog.getDialogPane().setContent(content);
@@ -573,20 +578,20 @@ public class StaffHomePage {
         answerLabel.setWrapText(true);
         answerLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -602,20 +607,10 @@ public class StaffHomePage {
         dateCol.setPrefWidth(150);
         
         // Add Reviewer Rating Column (Overall Score only)
-        TableColumn<Review, Double> ratingCol = new TableColumn<>("Reviewer Rating");
-        ratingCol.setCellValueFactory(data -> {
-            try {
-                String reviewer = data.getValue().getReviewer();
-                Map<String, Object> scorecard = databaseHelper3.getReviewerScorecard(reviewer);
-                if (scorecard != null && scorecard.get("overall_score") != null) {
-                    return new javafx.beans.property.SimpleDoubleProperty((Double)scorecard.get("overall_score")).asObject();
-                }
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            } catch (SQLException e) {
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            }
-        });
-        ratingCol.setCellFactory(col -> new TableCell<Review, Double>() {
+        TableColumn<RankedReview, Double> ratingCol = new TableColumn<>("Reviewer Rating");
+        ratingCol.setCellValueFactory(data ->
+            new javafx.beans.property.SimpleDoubleProperty(data.getValue().getReviewerScore()).asObject());
+        ratingCol.setCellFactory(col -> new TableCell<RankedReview, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
@@ -629,7 +624,7 @@ public class StaffHomePage {
         ratingCol.setPrefWidth(120);
 
         // Add action column for messaging reviewers
-        TableColumn<Review, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<RankedReview, Void> actionCol = new TableColumn<>("Action");
         actionCol.setCellFactory(col -> new TableCell<>() {
             @Override
             protected void updateItem(Void item, boolean empty) {
@@ -652,12 +647,8 @@ public class StaffHomePage {
 
         reviewsTable.getColumns().setAll(reviewerCol, reviewCol, dateCol, ratingCol, actionCol);
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForAnswer(answer.getAnswerId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(),
+                loadReviews(reviewsTable, answer.getQuestionId(), answer.getAnswerId()));
 
         content.getChildren().addAll(answerLabel, reviewsTable);
         dialog.getDialogPane().setContent(content);
@@ -738,9 +729,6 @@ public class StaffHomePage {
      * @param reason The reason for reporting
      */
     private void sendAnswerReportNotifications(Answer answer, Question question, String reason) throws SQLException {
-        // Get all instructors
-        List<User> instructors = databaseHelper.getUsersByRole("instructor");
-        
         // Prepare report message
         String message = String.format(
             "CONTENT REPORTED: Answer #%d by %s has been reported by staff member %s.\n\n" +
@@ -756,24 +744,19 @@ public class StaffHomePage {
             reason
         );
         
-        // Send message to each instructor
-        for (User instructor : instructors) {
-            // Create a feedback/message for each instructor
-            Feedback feedback = new Feedback(
-                0,
-                currentUsername,  // sender
-                instructor.getUserName(),  // receiver
-                message,
-                new Date(),
-                question.getQuestionId(),
-                answer.getAnswerId(),  // Answer reference
-                null,  // No review reference
-                null   // Not a reply
-            );
-            
-            // Add the feedback to the database
-            databaseHelper2.addFeedback(feedback);
-        }
+        // One broadcast reaches every instructor; the text is stored once
+        Feedback feedback = new Feedback(
+            0,
+            currentUsername,  // sender
+            null,  // Each instructor is a recipient
+            message,
+            new Date(),
+            question.getQuestionId(),
+            answer.getAnswerId(),  // Answer reference
+            null,  // No review reference
+            null   // Not a reply
+        );
+        databaseHelper2.announceToRole(feedback, "instructor");
     }
     
     /**
@@ -886,9 +869,6 @@ public class StaffHomePage {
      * @param reason The reason for reporting
      */
     private void sendReportNotifications(Question question, String reason) throws SQLException {
-        // Get all instructors
-        List<User> instructors = databaseHelper.getUsersByRole("instructor");
-        
         // Prepare report message
         String message = String.format(
             "CONTENT REPORTED: Question #%d by %s has been reported by staff member %s.\n\nReported Question: %s\n\nReason: %s",
@@ -899,34 +879,49 @@ public class StaffHomePage {
             reason
         );
         
-        // Send message to each instructor
-        for (User instructor : instructors) {
-            // Create a feedback/message for each instructor
-            Feedback feedback = new Feedback(
-                0,
-                currentUsername,  // sender
-                instructor.getUserName(),  // receiver
-                message,
-                new Date(),
-                question.getQuestionId(),
-                null,  // No answer reference
-                null,  // No review reference
-                null   // Not a reply
-            );
-            
-            // Add the feedback to the database
-            databaseHelper2.addFeedback(feedback);
-        }
+        // One broadcast reaches every instructor; the text is stored once
+        Feedback feedback = new Feedback(
+            0,
+            currentUsername,  // sender
+            null,  // Each instructor is a recipient
+            message,
+            new Date(),
+            question.getQuestionId(),
+            null,  // No answer reference
+            null,  // No review reference
+            null   // Not a reply
+        );
+        databaseHelper2.announceToRole(feedback, "instructor");
     }
 
+    // Fills the question table a page at a time; later pages load as the user scrolls, and
+    // refreshing again fetches only the rows that changed
     private void refreshQuestions() {
-        try {
-            questionTable.setItems(FXCollections.observableArrayList(
-                questionsManager.getAllQuestions()
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load questions: " + e.getMessage());
+        if (!questionPager.refresh()) {
+            questionPager.start(
+                    (after, limit) -> questionsManager.getQuestionRowPage(currentUsername, null, false, after, limit),
+                    () -> questionsManager.countQuestions(null),
+                    questionsManager.rowSync(currentUsername, null, false));
+        }
+    }
+
+    // Loads the full question behind the selected row off the UI thread and hands it to open,
+    // or asks for a selection first when no row is selected
+    private void withSelectedQuestion(String selectionMessage, Consumer<Question> open) {
+        QuestionRow selectedRow = questionTable.getSelectionModel().getSelectedItem();
+        if (selectedRow == null) {
+            showError("Selection Required", selectionMessage);
+            return;
         }
+        AsyncHelper.load(() -> questionsManager.getQuestionById(selectedRow.getQuestionId()),
+                question -> {
+                    if (question != null) {
+                        open.accept(question);
+                    } else {
+                        showError("Error", "The selected question no longer exists.");
+                    }
+                },
+                error -> showError("Error", "Failed to load question: " + AsyncHelper.message(error)));
     }
 
     private void styleButton(Button button, String bgColor, String borderColor) {
@@ -1006,54 +1001,12 @@ public class StaffHomePage {
             question.getContent()
         );
         
-        // Create a feedback/message to the student
-        Feedback warning = new Feedback(
-            0,
-            "SYSTEM WARNING", // Special sender name to highlight importance
-            question.getAuthor(), // Receiver is the question author
-            warningMessage,
-            new Date(),
-            question.getQuestionId(),
-            null,  // No answer reference
-            null,  // No review reference
-            null   // Not a reply
-        );
-        
-        // Add the warning to the database
-        databaseHelper2.addFeedback(warning);
-        
-        // Check if student has received 4 or more warnings
-        int warningCount = databaseHelper2.getSystemWarningCount(question.getAuthor());
-        if (warningCount >= 4) {
-            // Auto-ban after 4 warnings
-            String banReason = "Automatic ban after receiving 4 system warnings for violating community guidelines.";
-            databaseHelper3.banStudent(question.getAuthor(), currentUsername, banReason);
-            
-            // Notify the student about the ban
-            String banMessage = String.format(
-                "ACCOUNT BANNED\n\n" +
-                "Your account has been automatically banned after receiving %d warnings for violating community guidelines.\n\n" +
-                "You can still access the system to view content and messages, but most interactive features have been disabled.\n\n" +
-                "If you believe this action was taken in error, please contact the administration.",
-                warningCount
-            );
-            
-            Feedback banNotification = new Feedback(
-                0,
-                "SYSTEM NOTIFICATION", 
-                question.getAuthor(),
-                banMessage,
-                new Date(),
-                0,  // No specific question reference
-                null,  // No answer reference
-                null,  // No review reference
-                null   // Not a reply
-            );
-            
-            databaseHelper2.addFeedback(banNotification);
-            
+        // Record the warning; the escalation rules may ban the student in the same transaction
+        ModerationResult result = moderationService.warn(question.getAuthor(), currentUsername, warningMessage,
+                question.getQuestionId(), null);
+        if (result.isBanned()) {
             // Show success message to staff
-            showSuccess("Student Banned", question.getAuthor() + " has been automatically banned after receiving " + warningCount + " warnings.");
+            showSuccess("Student Banned", question.getAuthor() + " has been automatically banned after receiving " + result.getWarningCount() + " warnings.");
         }
     }
 
@@ -1074,31 +1027,31 @@ public class StaffHomePage {
         allStudentsLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
         
         // Table for displaying students
-        TableView<User> studentTable = new TableView<>();
+        TableView<StudentBanStatus> studentTable = new TableView<>();
         
         // Username column
-        TableColumn<User, String> usernameCol = new TableColumn<>("Username");
+        TableColumn<StudentBanStatus, String> usernameCol = new TableColumn<>("Username");
         usernameCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("userName"));
         usernameCol.setPrefWidth(150);
         
         // Full name column
-        TableColumn<User, String> nameCol = new TableColumn<>("Full Name");
+        TableColumn<StudentBanStatus, String> nameCol = new TableColumn<>("Full Name");
         nameCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("fullName"));
         nameCol.setPrefWidth(200);
         
         // Email column
-        TableColumn<User, String> emailCol = new TableColumn<>("Email");
+        TableColumn<StudentBanStatus, String> emailCol = new TableColumn<>("Email");
         emailCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("email"));
         emailCol.setPrefWidth(220);
         
         // Ban status column with checkboxes
-        TableColumn<User, Boolean> banStatusCol = new TableColumn<>("Banned");
-        banStatusCol.setCellFactory(col -> new TableCell<User, Boolean>() {
+        TableColumn<StudentBanStatus, Boolean> banStatusCol = new TableColumn<>("Banned");
+        banStatusCol.setCellFactory(col -> new TableCell<StudentBanStatus, Boolean>() {
             private final CheckBox checkBox = new CheckBox();
             
             {
                 checkBox.setOnAction(event -> {
-                    User student = getTableView().getItems().get(getIndex());
+                    User student = getTableView().getItems().get(getIndex()).getStudent();
                     if (checkBox.isSelected()) {
                         // Show confirmation dialog for banning
                         showBanConfirmationDialog(student);
@@ -1115,9 +1068,10 @@ public class StaffHomePage {
                 if (empty) {
                     setGraphic(null);
                 } else {
-                    User student = getTableView().getItems().get(getIndex());
+                    StudentBanStatus student = getTableView().getItems().get(getIndex());
                     try {
-                        boolean isBanned = databaseHelper3.isStudentBanned(student.getUserName());
+                        // Answered from memory; the registry follows every ban and unban
+                        boolean isBanned = BanRegistry.getInstance().isBanned(student.getUserName());
                         checkBox.setSelected(isBanned);
                         setGraphic(checkBox);
                     } catch (SQLException e) {
@@ -1131,13 +1085,11 @@ public class StaffHomePage {
         
         studentTable.getColumns().addAll(usernameCol, nameCol, emailCol, banStatusCol);
         
-        // Load students
-        try {
-            List<User> students = databaseHelper.getUsersByRole("student");
-            studentTable.setItems(FXCollections.observableArrayList(students));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load students: " + e.getMessage());
-        }
+        // Load the students and their ban status with one query, off the UI thread
+        AsyncHelper.loadTable(studentTable, () -> {
+            BanRegistry.getInstance().ensureLoaded();
+            return databaseHelper3.getStudentsWithBanStatus();
+        }, error -> showError("Error", "Failed to load students: " + AsyncHelper.message(error)));
         
         // Add tab view to show currently banned students in a separate tab
         TabPane tabPane = new TabPane();
@@ -1305,8 +1257,6 @@ public class StaffHomePage {
         dialog.showAndWait().ifPresent(reason -> {
             if (reason != null && !reason.trim().isEmpty()) {
                 try {
-                    databaseHelper3.banStudent(student.getUserName(), currentUsername, reason);
-                    
                     // Send notification to student
                     String banMessage = String.format(
                         "ACCOUNT BANNED\n\n" +
@@ -1318,19 +1268,8 @@ public class StaffHomePage {
                         reason
                     );
                     
-                    Feedback banNotification = new Feedback(
-                        0,
-                        "SYSTEM NOTIFICATION", 
-                        student.getUserName(),
-                        banMessage,
-                        new Date(),
-                        0,  // No specific question reference
-                        null,  // No answer reference
-                        null,  // No review reference
-                        null   // Not a reply
-                    );
-                    
-                    databaseHelper2.addFeedback(banNotification);
+                    // The ban, its notification and its ledger entry commit together
+                    moderationService.ban(student.getUserName(), currentUsername, reason, banMessage);
                     
                     showSuccess("Student Banned", student.getUserName() + " has been banned and notified via inbox.");
                 } catch (SQLException e) {
@@ -1417,7 +1356,7 @@ public class StaffHomePage {
         }
     }
 
-    private void showUpdateReviewDialog(Review review, TableView<Review> reviewsTable) {
+    private void showUpdateReviewDialog(Review review, TableView<RankedReview> reviewsTable) {
         Dialog<String> dialog = new Dialog<>();
         dialog.setTitle("Update Review");
         dialog.setHeaderText("Update your review");
@@ -1467,23 +1406,7 @@ public class StaffHomePage {
                 databaseHelper3.addReview(updatedReview);
                 
                 // Refresh the reviews table
-                if (review.getAnswerId() != null) {
-                    // For answer reviews
-                    try {
-                        List<Review> reviews = databaseHelper3.getReviewsForAnswer(review.getAnswerId());
-                        reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-                    } catch (SQLException ex) {
-                        showError("Error", "Failed to refresh reviews: " + ex.getMessage());
-                    }
-                } else {
-                    // For question reviews
-                    try {
-                        List<Review> reviews = databaseHelper3.getReviewsForQuestion(review.getQuestionId());
-                        reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-                    } catch (SQLException ex) {
-                        showError("Error", "Failed to refresh reviews: " + ex.getMessage());
-                    }
-                }
+                loadReviews(reviewsTable, review.getQuestionId(), review.getAnswerId());
                 
                 showSuccess("Success", "Review updated successfully!");
             } catch (SQLException ex) {
@@ -1492,7 +1415,17 @@ public class StaffHomePage {
         });
     }
 
-    private void handleReviewDeletion(Review review, TableView<Review> reviewsTable) {
+    // Loads a question's or an answer's reviews off the UI thread, each with its reviewer's rating
+    private CompletableFuture<List<RankedReview>> loadReviews(TableView<RankedReview> reviewsTable, int questionId,
+                                                              Integer answerId) {
+        return AsyncHelper.loadTable(reviewsTable,
+                () -> answerId != null
+                        ? databaseHelper3.getRankedReviewsForAnswer(answerId, currentUsername)
+                        : databaseHelper3.getRankedReviewsForQuestion(questionId, currentUsername),
+                e -> showError("Error", "Failed to load reviews: " + AsyncHelper.message(e)));
+    }
+
+    private void handleReviewDeletion(Review review, TableView<RankedReview> reviewsTable) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Review");
         alert.setHeaderText("Delete Review");
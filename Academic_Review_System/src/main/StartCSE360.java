@@ -1,12 +1,21 @@
 package main;
 
 import javafx.application.Application;
+import javafx.collections.ListChangeListener;
 import javafx.stage.Stage;
+import javafx.stage.Window;
 import java.sql.SQLException;
 
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseConfig;
 import databasePart1.DatabaseHelper;
 import databasePart1.DatabaseHelper2;
 import databasePart1.DatabaseHelper3;
+import databasePart1.FlightRecording;
+import databasePart1.H2ServerLauncher;
+import databasePart1.SearchIndex;
+import databasePart1.SharedDatabaseWatcher;
+import databasePart1.UiAction;
 
 /**
  * StartCSE360 class is the main entry point for the CSE360 application.
@@ -16,9 +25,30 @@ public class StartCSE360 extends Application {
 	private static final DatabaseHelper databaseHelper = new DatabaseHelper();
     private static final DatabaseHelper2 databaseHelper2 = new DatabaseHelper2();
     private static final DatabaseHelper3 databaseHelper3 = new DatabaseHelper3();
+    // Shares the database with other clients when server.enabled is set
+    private H2ServerLauncher databaseServer;
+    // Picks up the bans and posts of the other clients of a shared database
+    private SharedDatabaseWatcher sharedWatcher;
 	
-	public static void main( String[] args )
+	public static void main( String[] args ) throws Exception
 	{
+		// --record[=file] writes a flight recording of the UI actions and database calls; it can precede the other options
+		if (args.length > 0 && (args[0].equals("--record") || args[0].startsWith("--record="))) {
+			String file = args[0].contains("=") ? args[0].substring(args[0].indexOf('=') + 1) : FlightRecording.DEFAULT_FILE;
+			FlightRecording.start(java.nio.file.Paths.get(file));
+			System.out.println("Recording UI actions and database calls to " + file);
+			args = java.util.Arrays.copyOfRange(args, 1, args.length);
+		}
+		// --headless [port] serves the JSON API instead of opening the window
+		if (args.length > 0 && args[0].equals("--headless")) {
+			ApiServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		// --generate <questions> [name=value ...] seeds the database with a synthetic workload
+		if (args.length > 0 && args[0].equals("--generate")) {
+			databasePart1.WorkloadGenerator.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		 launch(args);
 	}
 	
@@ -28,6 +58,25 @@ public class StartCSE360 extends Application {
             databaseHelper.connectToDatabase(); // Connect to the database
             databaseHelper2.connectToDatabase();
             databaseHelper3.connectToDatabase();
+            DatabaseConfig config = DatabaseConfig.get();
+            if (config.isServerEnabled()) {
+                databaseServer = H2ServerLauncher.start(config);
+                System.out.println("Sharing the database at " + databaseServer.getClientUrl("localhost"));
+            }
+            // A dialog opened with showAndWait() ends the click that opened it, so clicks
+            // inside the dialog are not counted as part of that click
+            Window.getWindows().addListener((ListChangeListener<Window>) change -> {
+                while (change.next()) {
+                    if (change.wasAdded()) {
+                        UiAction.detachAll();
+                    }
+                }
+            });
+            // Load the questions, answers and reviews into the full-text search index
+            SearchIndex.getInstance().rebuild(ConnectionPool.getInstance());
+            if (config.isShared()) {
+                sharedWatcher = SharedDatabaseWatcher.start(config);
+            }
             if (databaseHelper.isDatabaseEmpty()) {            	
             	new FirstPage(databaseHelper).show(primaryStage);
             } else {
@@ -38,6 +87,19 @@ public class StartCSE360 extends Application {
         	System.out.println(e.getMessage());
         }
     }
+
+	@Override
+	public void stop() {
+		// Stop sharing the database, close the pooled connections and write any flight recording when the application exits
+		if (sharedWatcher != null) {
+			sharedWatcher.close();
+		}
+		if (databaseServer != null) {
+			databaseServer.close();
+		}
+		ConnectionPool.shutdown();
+		FlightRecording.stop();
+	}
 	
 
 }
@@ -0,0 +1,44 @@
+package main;
+
+import java.util.Date;
+
+/**
+ * StudentBanStatus is one row of the banned-students dialogs: a student and,
+ * if they are banned, who banned them, why and when.
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 1.00    2025-04-01    StudentBanStatus class implementation
+ */
+public class StudentBanStatus {
+    private final User student;
+    private final boolean banned;
+    private final String bannedBy;
+    private final String banReason;
+    private final Date banDate;
+
+    /**
+     * Creates a new StudentBanStatus.
+     * @param student The student
+     * @param banned Whether the student was banned when the row was loaded
+     * @param bannedBy Who banned the student, or null
+     * @param banReason Why the student was banned, or null
+     * @param banDate When the student was banned, or null
+     */
+    public StudentBanStatus(User student, boolean banned, String bannedBy, String banReason, Date banDate) {
+        this.student = student;
+        this.banned = banned;
+        this.bannedBy = bannedBy;
+        this.banReason = banReason;
+        this.banDate = banDate;
+    }
+
+    public User getStudent() { return student; }
+    public String getUserName() { return student.getUserName(); }
+    public String getFullName() { return student.getFullName(); }
+    public String getEmail() { return student.getEmail(); }
+    public boolean isBanned() { return banned; }
+    public String getBannedBy() { return bannedBy; }
+    public String getBanReason() { return banReason; }
+    public Date getBanDate() { return banDate; }
+}
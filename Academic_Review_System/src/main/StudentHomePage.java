@@ -6,15 +6,26 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import databasePart1.ChangeEvent;
+import databasePart1.AsyncDatabase;
 import databasePart1.DatabaseHelper;
 import databasePart1.DatabaseHelper2;
 import databasePart1.DatabaseHelper3;
+import databasePart1.QuestionQuery;
+import databasePart1.SessionContext;
+import databasePart1.UnitOfWork;
+import databasePart1.UiAction;
 import java.sql.SQLException;
 import java.util.Date;
 import javafx.collections.FXCollections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.Node;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
 
 /**
  * StudentHomePage class represents the home page for users with the student role.
@@ -25,15 +36,24 @@ public class StudentHomePage {
     private final DatabaseHelper2 databaseHelper2;
     private final DatabaseHelper3 databaseHelper3;
     private final String currentUsername;
+    private final SessionContext session;
     private Questions questionsManager;
     private Answers answersManager;
-    private TableView<Question> questionTable;
+    private TableView<QuestionRow> questionTable;
+    private TablePager<QuestionRow> questionPager;
+    // The filters, search and order the question table currently shows
+    private QuestionQuery questionQuery = QuestionQuery.all();
     private TableView<Answer> answersTable; // Table for managing answers
     private static final java.text.SimpleDateFormat DATE_FORMAT = new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss");
 
     public StudentHomePage(DatabaseHelper databaseHelper, String username) {
+        this(databaseHelper, SessionContext.forUser(username));
+    }
+
+    public StudentHomePage(DatabaseHelper databaseHelper, SessionContext session) {
         this.databaseHelper = databaseHelper;
-        this.currentUsername = username;
+        this.session = session;
+        this.currentUsername = session.getUserName();
         
         // Initialize DatabaseHelper2 and DatabaseHelper3
         this.databaseHelper2 = new DatabaseHelper2();
@@ -41,7 +61,7 @@ public class StudentHomePage {
         try {
             this.databaseHelper2.connectToDatabase();
             this.databaseHelper3.connectToDatabase();
-            this.questionsManager = new Questions(databaseHelper2, databaseHelper2.connection);
+            this.questionsManager = new Questions(databaseHelper2);
             this.answersManager = new Answers(databaseHelper2);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -72,7 +92,7 @@ public class StudentHomePage {
         Button reviewerPermissionsButton = new Button("See Permission Status");
         styleButton(reviewerPermissionsButton, "#00CED1", "#008B8B"); // Turquoise to Dark Turquoise gradient
         reviewerPermissionsButton.setOnAction(e -> {
-            new ReviewerPermissionsPage(databaseHelper, currentUsername, false).show(primaryStage);
+            new ReviewerPermissionsPage(databaseHelper, session, false).show(primaryStage);
         });
 
         // Inbox Button
@@ -81,12 +101,13 @@ public class StudentHomePage {
         inboxButton.setOnAction(e -> {
             if (databaseHelper2 != null) {
                 try {
-                    showInboxDialog();
+                    UiAction.run("Open inbox", this::showInboxDialog);
                 } catch (Exception ex) {
                     showError("Error", "Failed to open inbox: " + ex.getMessage());
                 }
             }
         });
+        MessageHelper.showUnreadCount(inboxButton, currentUsername, databaseHelper2);
 
         // Logout Button
         Button logoutButton = LogoutHelper.createLogoutButton(primaryStage, databaseHelper);
@@ -102,10 +123,10 @@ public class StudentHomePage {
             logoutButton
         );
 
-        // Check if student is banned
+        // Check if student is banned; the session reloads its principal after a ban or unban
         boolean isUserBanned = false;
         try {
-            isUserBanned = databaseHelper3.isStudentBanned(currentUsername);
+            isUserBanned = session.getPrincipal().isBanned();
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -140,7 +161,16 @@ public class StudentHomePage {
         primaryStage.show();
 
         // Initial load of questions
-        refreshQuestions();
+        loadQuestionPages(QuestionQuery.all());
+
+        // Questions, answers and reviews posted in any window are patched into the table
+        LiveUpdates.subscribe(questionTable, ChangeEvent.QuestionEvent.class, event -> questionPager.refreshIfActive());
+        // A ban or lifted ban changes which actions are allowed, so the page is built again
+        LiveUpdates.subscribe(layout, ChangeEvent.UserBanned.class, event -> {
+            if (event.getUserName().equals(currentUsername)) {
+                show(primaryStage);
+            }
+        });
     }
 
     private VBox createSearchSection() {
@@ -166,17 +196,16 @@ public class StudentHomePage {
                 + "-fx-background-radius: 12px;");
         
         searchButton.setOnAction(e -> {
-            try {
-                String keyword = searchField.getText();
-                if (!keyword.isEmpty()) {
-                    questionTable.setItems(FXCollections.observableArrayList(
-                        questionsManager.searchQuestions(keyword)
-                    ));
-                } else {
-                    refreshQuestions();
-                }
-            } catch (SQLException ex) {
-                showError("Search Error", ex.getMessage());
+            // Combines with the status filter, user search and order; an empty search clears the keyword
+            UiAction.run("Search questions", () -> loadQuestionPages(questionQuery.keyword(searchField.getText())));
+        });
+        
+        Button searchAllButton = new Button("Search All");
+        searchAllButton.setStyle(searchButton.getStyle());
+        searchAllButton.setOnAction(e -> {
+            String query = searchField.getText();
+            if (!query.trim().isEmpty()) {
+                UiAction.run("Search all content", () -> showContentSearchDialog(query));
             }
         });
         
@@ -196,21 +225,10 @@ public class StudentHomePage {
                 + "-fx-background-radius: 12px;");
         
         userSearchButton.setOnAction(e -> {
-            try {
-                String username = userSearchField.getText();
-                if (!username.isEmpty()) {
-                    questionTable.setItems(FXCollections.observableArrayList(
-                        questionsManager.searchQuestionsByUser(username)
-                    ));
-                } else {
-                    refreshQuestions();
-                }
-            } catch (SQLException ex) {
-                showError("User Search Error", ex.getMessage());
-            }
+            UiAction.run("Search by user", () -> loadQuestionPages(questionQuery.author(userSearchField.getText())));
         });
         
-        searchRow.getChildren().addAll(searchField, searchButton, userSearchField, userSearchButton);
+        searchRow.getChildren().addAll(searchField, searchButton, searchAllButton, userSearchField, userSearchButton);
         
         // Filter row
         HBox filterRow = new HBox(10);
@@ -259,7 +277,7 @@ public class StudentHomePage {
                 + "-fx-border-radius: 12px; "
                 + "-fx-background-radius: 12px;");
         
-        allButton.setOnAction(e -> refreshQuestions());
+        allButton.setOnAction(e -> loadQuestionPages(QuestionQuery.all()));
         unresolvedButton.setOnAction(e -> filterByStatus(false));
         resolvedButton.setOnAction(e -> filterByStatus(true));
         recentButton.setOnAction(e -> filterByRecent());
@@ -278,24 +296,21 @@ public class StudentHomePage {
 
     // Filter questions by status (resolved/unresolved)
     private void filterByStatus(boolean isResolved) {
-        try {
-            List<Question> filteredQuestions = questionsManager.getAllQuestions();
-            filteredQuestions.removeIf(q -> q.isAnswered() != isResolved);
-            questionTable.setItems(FXCollections.observableArrayList(filteredQuestions));
-        } catch (SQLException e) {
-            showError("Filter Error", e.getMessage());
-        }
+        loadQuestionPages(questionQuery.answered(isResolved));
     }
 
     // Filter questions by recency (most recent first)
     private void filterByRecent() {
-        try {
-            List<Question> recentQuestions = questionsManager.getAllQuestions();
-            recentQuestions.sort((q1, q2) -> q2.getTimestamp().compareTo(q1.getTimestamp()));
-            questionTable.setItems(FXCollections.observableArrayList(recentQuestions));
-        } catch (SQLException e) {
-            showError("Filter Error", e.getMessage());
-        }
+        loadQuestionPages(questionQuery.newestFirst(true));
+    }
+
+    // Fills the question table with the rows of the query a page at a time; later pages load as the user scrolls
+    private void loadQuestionPages(QuestionQuery query) {
+        questionQuery = query;
+        questionPager.start(
+                (after, limit) -> questionsManager.getQuestionRowPage(currentUsername, query.limit(limit), after),
+                () -> questionsManager.countQuestionRows(query),
+                questionsManager.rowSync(currentUsername, query));
     }
 
     private VBox createQuestionsSection() {
@@ -307,6 +322,12 @@ public class StudentHomePage {
 
         questionTable = new TableView<>();
         setupQuestionTable();
+        questionPager = new TablePager<>(questionTable, DatabaseHelper2.DEFAULT_PAGE_SIZE,
+                e -> showError("Error", "Failed to load questions: " + AsyncHelper.message(e)));
+
+        Label pageStatusLabel = new Label();
+        pageStatusLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: white;");
+        pageStatusLabel.textProperty().bind(questionPager.statusProperty());
 
         // Create action buttons
         HBox actionButtons = new HBox(10);
@@ -330,57 +351,38 @@ public class StudentHomePage {
 
         // Add action handlers
         answerBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
-                showAnswerManagementDialog(selectedQuestion);
-            } else {
-                showError("Selection Required", "Please select a question first.");
-            }
+            withSelectedQuestion("Please select a question first.",
+                    selectedQuestion -> UiAction.run("Open answers", () -> showAnswerManagementDialog(selectedQuestion)));
         });
 
         referenceBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
-                showReferenceQuestionDialog(selectedQuestion);
-            } else {
-                showError("Selection Required", "Please select a question first.");
-            }
+            withSelectedQuestion("Please select a question first.", this::showReferenceQuestionDialog);
         });
 
         readReviewsBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
-                showReviewsDialog(selectedQuestion);
-            } else {
-                showError("Selection Required", "Please select a question first.");
-            }
+            withSelectedQuestion("Please select a question first.",
+                    selectedQuestion -> UiAction.run("Open reviews", () -> showReviewsDialog(selectedQuestion)));
         });
 
         messageBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
+            withSelectedQuestion("Please select a question first.", selectedQuestion -> {
                 if (!selectedQuestion.getAuthor().equals(currentUsername)) {
                     MessageHelper.showMessageForQuestion(currentUsername, selectedQuestion.getAuthor(), 
                                                        selectedQuestion.getQuestionId(), databaseHelper2, questionsManager);
                 } else {
                     showError("Invalid Action", "You cannot message yourself.");
                 }
-            } else {
-                showError("Selection Required", "Please select a question first.");
-            }
+            });
         });
 
         deleteBtn.setOnAction(e -> {
-            Question selectedQuestion = questionTable.getSelectionModel().getSelectedItem();
-            if (selectedQuestion != null) {
+            withSelectedQuestion("Please select a question first.", selectedQuestion -> {
                 if (selectedQuestion.getAuthor().equals(currentUsername)) {
                     handleQuestionDeletion(selectedQuestion);
                 } else {
                     showError("Permission Denied", "You can only delete your own questions.");
                 }
-            } else {
-                showError("Selection Required", "Please select a question first.");
-            }
+            });
         });
 
         trustedReviewersButton.setOnAction(e -> showTrustedReviewersDialog());
@@ -395,34 +397,27 @@ public class StudentHomePage {
             deleteBtn
         );
 
-        section.getChildren().addAll(titleLabel, questionTable, actionButtons);
+        section.getChildren().addAll(titleLabel, questionTable, pageStatusLabel, actionButtons);
         return section;
     }
 
     private void setupQuestionTable() {
         // Content Column
-        TableColumn<Question, String> contentCol = new TableColumn<>("Question");
+        TableColumn<QuestionRow, String> contentCol = new TableColumn<>("Question");
         contentCol.setCellValueFactory(cellData -> {
-            Question question = cellData.getValue();
-            String content = question.getContent();
+            QuestionRow question = cellData.getValue();
+            String content = question.getContentPreview();
             
             // If this question references another question, show the reference
             if (question.hasReference()) {
-                try {
-                    Question referencedQuestion = databaseHelper2.getQuestionById(question.getReferenceQuestionId());
-                    if (referencedQuestion != null) {
-                        // Format: Show referenced question in italics above the actual question
-                        String referenceDisplay = String.format(
-                            "↪ Re: \"%s\" (by %s)\n%s",
-                            truncateIfNeeded(referencedQuestion.getContent(), 50),
-                            referencedQuestion.getAuthor(),
-                            content
-                        );
-                        return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
-                    }
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+                // Format: Show referenced question in italics above the actual question
+                String referenceDisplay = String.format(
+                    "↪ Re: \"%s\" (by %s)\n%s",
+                    truncateIfNeeded(question.getReferencePreview(), 50),
+                    question.getReferenceAuthor(),
+                    content
+                );
+                return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
             }
             
             return new javafx.beans.property.SimpleStringProperty(content);
@@ -430,17 +425,17 @@ public class StudentHomePage {
         contentCol.setPrefWidth(400);
 
         // ID Column
-        TableColumn<Question, Integer> idCol = new TableColumn<>("ID");
+        TableColumn<QuestionRow, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("questionId"));
         idCol.setPrefWidth(60);
 
         // Author Column
-        TableColumn<Question, String> authorCol = new TableColumn<>("Asked By");
+        TableColumn<QuestionRow, String> authorCol = new TableColumn<>("Asked By");
         authorCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("author"));
         authorCol.setPrefWidth(120);
 
         // Date Column
-        TableColumn<Question, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<QuestionRow, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -456,7 +451,7 @@ public class StudentHomePage {
         dateCol.setPrefWidth(170);
 
         // Status Column
-        TableColumn<Question, Boolean> statusCol = new TableColumn<>("Status");
+        TableColumn<QuestionRow, Boolean> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("answered"));
         statusCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -471,22 +466,24 @@ public class StudentHomePage {
         });
         statusCol.setPrefWidth(100);
 
+        // Answer and Review Count Columns
+        TableColumn<QuestionRow, Integer> answersCol = new TableColumn<>("Answers");
+        answersCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("answerCount"));
+        answersCol.setPrefWidth(80);
+        answersCol.setStyle("-fx-alignment: CENTER;");
+
+        TableColumn<QuestionRow, Integer> reviewsCol = new TableColumn<>("Reviews");
+        reviewsCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewCount"));
+        reviewsCol.setPrefWidth(80);
+        reviewsCol.setStyle("-fx-alignment: CENTER;");
+
         // Unread Answers Count Column
-        TableColumn<Question, Integer> unreadCol = new TableColumn<>("Unread Answers");
-        unreadCol.setCellValueFactory(cellData -> {
-            Question question = cellData.getValue();
-            try {
-                int unreadCount = getUnreadAnswersCount(question.getQuestionId());
-                return new javafx.beans.property.SimpleIntegerProperty(unreadCount).asObject();
-            } catch (SQLException e) {
-                e.printStackTrace();
-                return new javafx.beans.property.SimpleIntegerProperty(0).asObject();
-            }
-        });
+        TableColumn<QuestionRow, Integer> unreadCol = new TableColumn<>("Unread Answers");
+        unreadCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("unreadCount"));
         unreadCol.setPrefWidth(120);
         unreadCol.setStyle("-fx-alignment: CENTER;");
 
-        questionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol, unreadCol);
+        questionTable.getColumns().setAll(contentCol, idCol, authorCol, dateCol, statusCol, answersCol, reviewsCol, unreadCol);
         questionTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         // Enable row selection
@@ -511,7 +508,6 @@ public class StudentHomePage {
                 try {
                     Question newQuestion = new Question(0, questionContent, currentUsername, new Date());
                     questionsManager.addQuestion(newQuestion);
-                    refreshQuestions();
                 } catch (SQLException ex) {
                     showError("Error", "Failed to add question: " + ex.getMessage());
                 }
@@ -554,6 +550,12 @@ public class StudentHomePage {
         Label existingAnswersLabel = new Label("Existing Answers:");
         answersTable = new TableView<>();
         setupAnswersTable();
+        TableView<Answer> shownAnswers = answersTable;
+        LiveUpdates.subscribe(shownAnswers, ChangeEvent.AnswerEvent.class, event -> {
+            if (event.getQuestionId() == question.getQuestionId()) {
+                answersPager(shownAnswers).refreshIfActive();
+            }
+        });
 
         // Create action buttons for answers
         HBox actionButtons = new HBox(10);
@@ -622,7 +624,7 @@ public class StudentHomePage {
             Answer selectedAnswer = answersTable.getSelectionModel().getSelectedItem();
             if (selectedAnswer != null) {
                 if (selectedAnswer.getAuthor().equals(currentUsername)) {
-                    handleAnswerDeletion(selectedAnswer, answersTable, question);
+                    handleAnswerDeletion(selectedAnswer);
                 } else {
                     showError("Permission Denied", "You can only delete your own answers.");
                 }
@@ -658,24 +660,14 @@ public class StudentHomePage {
             try {
                 Answer newAnswer = new Answer(0, question.getQuestionId(), answerContent, currentUsername, new Date());
                 answersManager.addAnswer(newAnswer);
-                answersTable.setItems(FXCollections.observableArrayList(
-                    answersManager.getAnswersForQuestion(question.getQuestionId())
-                ));
                 answerArea.clear();
-                refreshQuestions();
             } catch (SQLException ex) {
                 showError("Error", "Failed to add answer: " + ex.getMessage());
             }
         });
 
-        // Load existing answers
-        try {
-            answersTable.setItems(FXCollections.observableArrayList(
-                answersManager.getAnswersForQuestion(question.getQuestionId())
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load answers: " + e.getMessage());
-        }
+        // Load existing answers without blocking the dialog; closing it cancels the load
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), loadAnswers(answersTable, question));
 
         // Feedback Section
         Button sendFeedbackButton = new Button("Send Feedback");
@@ -705,22 +697,15 @@ public class StudentHomePage {
             Answer answer = cellData.getValue();
             String answerContent = answer.getContent();
             
-            // If this answer references another answer, show the reference
-            if (answer.hasReference()) {
-                try {
-                    Answer referencedAnswer = databaseHelper2.getAnswerById(answer.getReferenceAnswerId());
-                    if (referencedAnswer != null) {
-                        String referenceDisplay = String.format(
-                            "↪ Re: \"%s\" (by %s)\n%s",
-                            truncateIfNeeded(referencedAnswer.getContent(), 50),
-                            referencedAnswer.getAuthor(),
-                            answerContent
-                        );
-                        return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
-                    }
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+            // Show the answer this one references, loaded with the page so cells never query
+            if (answer.hasReference() && answer.getReferencedAuthor() != null) {
+                String referenceDisplay = String.format(
+                    "↪ Re: \"%s\" (by %s)\n%s",
+                    truncateIfNeeded(answer.getReferencedContent(), 50),
+                    answer.getReferencedAuthor(),
+                    answerContent
+                );
+                return new javafx.beans.property.SimpleStringProperty(referenceDisplay);
             }
             
             return new javafx.beans.property.SimpleStringProperty(answerContent);
@@ -801,9 +786,6 @@ public class StudentHomePage {
                 try {
                     answer.setContent(newContent);
                     answersManager.updateAnswer(answer);
-                    answersTable.setItems(FXCollections.observableArrayList(
-                        answersManager.getAnswersForQuestion(question.getQuestionId())
-                    ));
                 } catch (SQLException e) {
                     showError("Error", "Failed to update answer: " + e.getMessage());
                 }
@@ -811,7 +793,7 @@ public class StudentHomePage {
         });
     }
 
-    private void handleAnswerDeletion(Answer answer, TableView<Answer> answersTable, Question question) {
+    private void handleAnswerDeletion(Answer answer) {
         // Only allow deletion if the current user is the answer author
         if (!answer.getAuthor().equals(currentUsername)) {
             showError("Error", "You can only delete your own answers.");
@@ -825,21 +807,10 @@ public class StudentHomePage {
 
         alert.showAndWait().ifPresent(result -> {
             if (result == ButtonType.OK) {
-                try {
-                    answersManager.removeAnswer(answer.getAnswerId());
-                    answersTable.setItems(FXCollections.observableArrayList(
-                        answersManager.getAnswersForQuestion(question.getQuestionId())
-                    ));
-                    // If no answers remain, update the question status to unresolved
-                    List<Answer> remainingAnswers = answersManager.getAnswersForQuestion(question.getQuestionId());
-                    if (remainingAnswers.isEmpty()) {
-                        question.setAnswered(false);
-                        questionsManager.updateQuestion(question);
-                        refreshQuestions();
-                    }
-                } catch (SQLException e) {
-                    showError("Error", "Failed to delete answer: " + e.getMessage());
-                }
+                // The delete also unresolves the question when its last answer goes
+                AsyncHelper.deliver(UnitOfWork.submit(() -> answersManager.removeAnswer(answer.getAnswerId())),
+                        ignored -> { },
+                        error -> showError("Error", "Failed to delete answer: " + AsyncHelper.message(error)));
             }
         });
     }
@@ -860,7 +831,6 @@ public class StudentHomePage {
             if (result == ButtonType.OK) {
                 try {
                     questionsManager.removeQuestion(question.getQuestionId());
-                    refreshQuestions();
                 } catch (SQLException e) {
                     showError("Error", "Failed to delete question: " + e.getMessage());
                 }
@@ -868,16 +838,26 @@ public class StudentHomePage {
         });
     }
 
+    // Fetches only the question rows that changed since the table was loaded
     private void refreshQuestions() {
-        try {
-            questionTable.setItems(FXCollections.observableArrayList(
-                questionsManager.getAllQuestions()
-            ));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load questions: " + e.getMessage());
+        if (!questionPager.refresh()) {
+            loadQuestionPages(questionQuery);
         }
     }
 
+    // Loads the answers of a question in the background, a page at a time
+    private CompletableFuture<Page<Answer>> loadAnswers(TableView<Answer> table, Question question) {
+        return answersPager(table).start(
+                (after, limit) -> answersManager.getAnswerPage(question.getQuestionId(), after, limit),
+                () -> answersManager.countAnswersForQuestion(question.getQuestionId()),
+                answersManager.answerSync(question.getQuestionId()));
+    }
+
+    private TablePager<Answer> answersPager(TableView<Answer> table) {
+        return TablePager.of(table, DatabaseHelper2.DEFAULT_PAGE_SIZE,
+                e -> showError("Error", "Failed to load answers: " + AsyncHelper.message(e)));
+    }
+
     private void styleButton(Button button, String bgColor, String borderColor) {
         button.setStyle("-fx-font-size: 13px; "
                 + "-fx-text-fill: black; "
@@ -896,19 +876,31 @@ public class StudentHomePage {
         alert.showAndWait();
     }
 
-    // Mark answers as read in the database
+    // Mark answers as read in the database. Read receipts are queued for group
+    // commit, so opening several questions in a row costs one commit, not one each.
     private void markAnswersAsRead(int questionId) {
-        try {
-            databaseHelper2.markAnswersAsRead(questionId, currentUsername);
-            refreshQuestions();
-        } catch (SQLException e) {
-            showError("Error", "Failed to mark answers as read: " + e.getMessage());
-        }
+        AsyncHelper.deliver(UnitOfWork.submit(() -> databaseHelper2.markAnswersAsRead(questionId, currentUsername)),
+                ignored -> refreshQuestions(),
+                error -> showError("Error", "Failed to mark answers as read: " + AsyncHelper.message(error)));
     }
 
-    // Get the unread answers count from the database
-    private int getUnreadAnswersCount(int questionId) throws SQLException {
-        return databaseHelper2.getUnreadAnswersCount(questionId, currentUsername);
+    // Loads the full question behind the selected row off the UI thread and hands it to open,
+    // or asks for a selection first when no row is selected
+    private void withSelectedQuestion(String selectionMessage, Consumer<Question> open) {
+        QuestionRow selectedRow = questionTable.getSelectionModel().getSelectedItem();
+        if (selectedRow == null) {
+            showError("Selection Required", selectionMessage);
+            return;
+        }
+        AsyncHelper.load(() -> questionsManager.getQuestionById(selectedRow.getQuestionId()),
+                question -> {
+                    if (question != null) {
+                        open.accept(question);
+                    } else {
+                        showError("Error", "The selected question no longer exists.");
+                    }
+                },
+                error -> showError("Error", "Failed to load question: " + AsyncHelper.message(error)));
     }
 
     // When the Accept button is clicked, update the answer's accepted status
@@ -924,17 +916,87 @@ public class StudentHomePage {
                 questionsManager.updateQuestion(question);
             }
             
-            // Refresh both questions and answers views
-            refreshQuestions();
-            answersTable.setItems(FXCollections.observableArrayList(
-                answersManager.getAnswersForQuestion(question.getQuestionId())
-            ));
-            answersTable.refresh();
+            // The question and answer tables pick up both changes from the events they publish
         } catch (SQLException e) {
             showError("Error", "Failed to accept answer: " + e.getMessage());
         }
     }
 
+    /**
+     * Shows the questions, answers and reviews matching a query, with the matched
+     * words of each snippet in bold. Double-clicking a hit selects its question.
+     */
+    private void showContentSearchDialog(String query) {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Search Results");
+        dialog.setHeaderText("Questions, answers and reviews matching: " + query);
+        dialog.getDialogPane().setPrefSize(700, 500);
+        
+        ListView<SearchHit> resultsList = new ListView<>();
+        resultsList.setCellFactory(lv -> new ListCell<SearchHit>() {
+            @Override
+            protected void updateItem(SearchHit hit, boolean empty) {
+                super.updateItem(hit, empty);
+                if (empty || hit == null) {
+                    setGraphic(null);
+                    return;
+                }
+                Label heading = new Label(hit.getType() + " #" + hit.getId() + " by " + hit.getAuthor());
+                heading.setStyle("-fx-font-size: 11px; -fx-text-fill: #666;");
+                
+                // Split the snippet into plain and highlighted runs
+                TextFlow snippet = new TextFlow();
+                String text = hit.getSnippet();
+                int[] highlights = hit.getHighlights();
+                int last = 0;
+                for (int i = 0; i < highlights.length; i += 2) {
+                    snippet.getChildren().add(new Text(text.substring(last, highlights[i])));
+                    Text match = new Text(text.substring(highlights[i], highlights[i + 1]));
+                    match.setStyle("-fx-font-weight: bold;");
+                    snippet.getChildren().add(match);
+                    last = highlights[i + 1];
+                }
+                snippet.getChildren().add(new Text(text.substring(last)));
+                snippet.setPrefWidth(lv.getWidth() - 40);
+                
+                setGraphic(new VBox(2, heading, snippet));
+            }
+        });
+        
+        resultsList.setPlaceholder(new Label("No matches found."));
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadList(resultsList,
+                () -> questionsManager.searchContent(query, 100),
+                ex -> showError("Search Error", AsyncHelper.message(ex))));
+        
+        resultsList.setOnMouseClicked(event -> {
+            SearchHit hit = resultsList.getSelectionModel().getSelectedItem();
+            if (event.getClickCount() == 2 && hit != null) {
+                showQuestionRow(hit.getQuestionId());
+                dialog.close();
+            }
+        });
+        
+        dialog.getDialogPane().setContent(resultsList);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.showAndWait();
+    }
+
+    // Selects a question in the table, loading just that row if its page has not been fetched
+    private void showQuestionRow(int questionId) {
+        for (QuestionRow row : questionTable.getItems()) {
+            if (row.getQuestionId() == questionId) {
+                questionTable.getSelectionModel().select(row);
+                questionTable.scrollTo(row);
+                return;
+            }
+        }
+        AsyncHelper.loadTable(questionTable, () -> {
+            QuestionRow row = questionsManager.getQuestionRow(currentUsername, questionId);
+            return row == null ? List.<QuestionRow>of() : List.of(row);
+        }, rows -> rows, rows -> questionTable.getSelectionModel().selectFirst(),
+                e -> showError("Error", "Failed to load question: " + AsyncHelper.message(e)));
+    }
+
     /**
      * Shows a dialog to create a new question that references an existing question
      */
@@ -990,7 +1052,6 @@ public class StudentHomePage {
                 );
                 
                 questionsManager.addQuestion(newQuestion);
-                refreshQuestions();
             } catch (SQLException ex) {
                 showError("Error", "Failed to add question: " + ex.getMessage());
             }
@@ -1052,9 +1113,6 @@ public class StudentHomePage {
                 );
                 
                 answersManager.addAnswer(newAnswer);
-                answersTable.setItems(FXCollections.observableArrayList(
-                    answersManager.getAnswersForQuestion(question.getQuestionId())
-                ));
             } catch (SQLException ex) {
                 showError("Error", "Failed to add reply: " + ex.getMessage());
             }
@@ -1074,20 +1132,23 @@ public class StudentHomePage {
         questionLabel.setWrapText(true);
         questionLabel.setStyle("-fx-font-weight: bold;");
 
-        TableView<Review> reviewsTable = new TableView<>();
+        // The student's trust in each reviewer, filled in from the ranked reviews as they load
+        Map<String, Integer> trustWeights = new HashMap<>();
+
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -1103,20 +1164,10 @@ public class StudentHomePage {
         dateCol.setPrefWidth(150);
 
         // Rating Column
-        TableColumn<Review, Double> ratingCol = new TableColumn<>("Rating");
-        ratingCol.setCellValueFactory(data -> {
-            try {
-                String reviewer = data.getValue().getReviewer();
-                Map<String, Object> scorecard = databaseHelper3.getReviewerScorecard(reviewer);
-                if (scorecard != null && scorecard.get("overall_score") != null) {
-                    return new javafx.beans.property.SimpleDoubleProperty((Double)scorecard.get("overall_score")).asObject();
-                }
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            } catch (SQLException e) {
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            }
-        });
-        ratingCol.setCellFactory(col -> new TableCell<Review, Double>() {
+        TableColumn<RankedReview, Double> ratingCol = new TableColumn<>("Rating");
+        ratingCol.setCellValueFactory(data -> 
+            new javafx.beans.property.SimpleDoubleProperty(data.getValue().getReviewerScore()).asObject());
+        ratingCol.setCellFactory(col -> new TableCell<RankedReview, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
@@ -1171,18 +1222,15 @@ public class StudentHomePage {
                 viewProfileButton.setDisable(false);
 
                 // Check if reviewer is already trusted
-                try {
-                    boolean isTrusted = databaseHelper2.isTrustedReviewer(currentUsername, reviewer);
-                    trustButton.setDisable(isTrusted);
-                    removeTrustButton.setDisable(!isTrusted);
-                } catch (SQLException e) {
-                    showError("Error", "Failed to check trust status: " + e.getMessage());
-                }
+                boolean isTrusted = trustWeights.containsKey(reviewer);
+                trustButton.setDisable(isTrusted);
+                removeTrustButton.setDisable(!isTrusted);
 
                 // Set up button actions
                 trustButton.setOnAction(e -> {
                     try {
                         databaseHelper2.addTrustedReviewer(currentUsername, reviewer, 1);
+                        trustWeights.put(reviewer, 1);
                         trustButton.setDisable(true);
                         removeTrustButton.setDisable(false);
                         showSuccess("Success", "Reviewer trusted successfully!");
@@ -1194,6 +1242,7 @@ public class StudentHomePage {
                 removeTrustButton.setOnAction(e -> {
                     try {
                         databaseHelper2.removeTrustedReviewer(currentUsername, reviewer);
+                        trustWeights.remove(reviewer);
                         trustButton.setDisable(false);
                         removeTrustButton.setDisable(true);
                         showSuccess("Success", "Reviewer trust removed successfully!");
@@ -1213,12 +1262,11 @@ public class StudentHomePage {
             }
         });
 
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsForQuestion(question.getQuestionId());
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        // Reviews arrive ranked by trust weightage and reviewer rating
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(reviewsTable,
+                () -> databaseHelper3.getRankedReviewsForQuestion(question.getQuestionId(), currentUsername),
+                reviews -> rememberTrust(reviews, trustWeights), reviews -> { },
+                e -> showError("Error", "Failed to load reviews: " + AsyncHelper.message(e))));
 
         content.getChildren().addAll(questionLabel, reviewsTable, actionButtonsRow);
         dialog.getDialogPane().setContent(content);
@@ -1250,20 +1298,23 @@ public class StudentHomePage {
         
         searchBox.getChildren().addAll(searchLabel, trustedOnlyCheck);
 
-        TableView<Review> reviewsTable = new TableView<>();
+        // The student's trust in each reviewer, filled in from the ranked reviews as they load
+        Map<String, Integer> trustWeights = new HashMap<>();
+
+        TableView<RankedReview> reviewsTable = new TableView<>();
 
         // Reviewer Column
-        TableColumn<Review, String> reviewerCol = new TableColumn<>("Reviewed By");
+        TableColumn<RankedReview, String> reviewerCol = new TableColumn<>("Reviewed By");
         reviewerCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("reviewer"));
         reviewerCol.setPrefWidth(150);
 
         // Review Content Column
-        TableColumn<Review, String> reviewCol = new TableColumn<>("Review");
+        TableColumn<RankedReview, String> reviewCol = new TableColumn<>("Review");
         reviewCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("content"));
         reviewCol.setPrefWidth(300);
 
         // Date Column
-        TableColumn<Review, Date> dateCol = new TableColumn<>("Date");
+        TableColumn<RankedReview, Date> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("timestamp"));
         dateCol.setCellFactory(col -> new TableCell<>() {
             @Override
@@ -1279,19 +1330,10 @@ public class StudentHomePage {
         dateCol.setPrefWidth(150);
         
         // Add Reviewer Rating Column (Overall Score only)
-        TableColumn<Review, Double> ratingCol = new TableColumn<>("Reviewer Rating");
-        ratingCol.setCellValueFactory(data -> {
-            try {
-                Map<String, Object> scorecard = databaseHelper3.getReviewerScorecard(data.getValue().getReviewer());
-                if (scorecard != null && scorecard.get("overall_score") != null) {
-                    return new javafx.beans.property.SimpleDoubleProperty((Double)scorecard.get("overall_score")).asObject();
-                }
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            } catch (SQLException e) {
-                return new javafx.beans.property.SimpleDoubleProperty(0.0).asObject();
-            }
-        });
-        ratingCol.setCellFactory(col -> new TableCell<Review, Double>() {
+        TableColumn<RankedReview, Double> ratingCol = new TableColumn<>("Reviewer Rating");
+        ratingCol.setCellValueFactory(data -> 
+            new javafx.beans.property.SimpleDoubleProperty(data.getValue().getReviewerScore()).asObject());
+        ratingCol.setCellFactory(col -> new TableCell<RankedReview, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
@@ -1305,7 +1347,7 @@ public class StudentHomePage {
         ratingCol.setPrefWidth(120);
 
         // NEW: Add action column for Trust button and messaging
-        TableColumn<Review, Void> actionCol = new TableColumn<>("Action");
+        TableColumn<RankedReview, Void> actionCol = new TableColumn<>("Action");
         actionCol.setCellFactory(col -> new TableCell<>() {
             private final Button trustButton = new Button("Trust Reviewer");
             private final Button removeTrustButton = new Button("Remove Trust");
@@ -1333,6 +1375,7 @@ public class StudentHomePage {
                     
                     try {
                         databaseHelper2.addTrustedReviewer(currentUsername, reviewer, 1);
+                        trustWeights.put(reviewer, 1);
                         getTableView().refresh();
                         showSuccess("Success", reviewer + " added to your trusted reviewers!");
                     } catch (SQLException ex) {
@@ -1346,6 +1389,7 @@ public class StudentHomePage {
                     
                     try {
                         databaseHelper2.removeTrustedReviewer(currentUsername, reviewer);
+                        trustWeights.remove(reviewer);
                         getTableView().refresh();
                         showSuccess("Success", reviewer + " removed from your trusted reviewers!");
                     } catch (SQLException ex) {
@@ -1377,15 +1421,10 @@ public class StudentHomePage {
                     }
                     
                     // Add trust/remove trust buttons based on current trust status
-                    try {
-                        boolean isTrusted = databaseHelper2.isTrustedReviewer(currentUsername, reviewer);
-                        if (isTrusted) {
-                            box.getChildren().add(removeTrustButton);
-                        } else {
-                            box.getChildren().add(trustButton);
-                        }
-                    } catch (SQLException ex) {
-                        // Handle exception silently
+                    if (trustWeights.containsKey(reviewer)) {
+                        box.getChildren().add(removeTrustButton);
+                    } else {
+                        box.getChildren().add(trustButton);
                     }
                     
                     // Add view profile button for all reviewers
@@ -1405,54 +1444,26 @@ public class StudentHomePage {
             actionCol
         );
 
-        // Load all reviews initially
-        try {
-            List<Review> allReviews = databaseHelper3.getReviewsForAnswer(answer.getAnswerId());
-            reviewsTable.setItems(FXCollections.observableArrayList(allReviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        // Load all reviews initially, ranked by trust weightage and reviewer rating
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(reviewsTable,
+                () -> databaseHelper3.getRankedReviewsForAnswer(answer.getAnswerId(), currentUsername),
+                allReviews -> rememberTrust(allReviews, trustWeights), allReviews -> { },
+                e -> showError("Error", "Failed to load reviews: " + AsyncHelper.message(e))));
 
         // Add listener to checkbox to filter reviews
         trustedOnlyCheck.selectedProperty().addListener((obs, oldVal, newVal) -> {
-            try {
-                List<Review> allReviews = databaseHelper3.getReviewsForAnswer(answer.getAnswerId());
-                
-                // Sort the reviews based on trusted reviewer weightage
-                allReviews.sort((r1, r2) -> {
-                    try {
-                        // Get weightage for each reviewer
-                        int w1 = databaseHelper2.getReviewerWeightage(currentUsername, r1.getReviewer());
-                        int w2 = databaseHelper2.getReviewerWeightage(currentUsername, r2.getReviewer());
-                        
-                        // Sort in descending order of weightage (higher weightage first)
-                        return Integer.compare(w2, w1);
-                    } catch (SQLException e) {
-                        e.printStackTrace();
-                        return 0;
-                    }
-                });
-                
-                if (newVal) {
-                    // Filter to show only trusted reviewers
-                    List<Review> trustedReviews = allReviews.stream()
-                        .filter(review -> {
-                            try {
-                                return databaseHelper2.isTrustedReviewer(currentUsername, review.getReviewer());
-                            } catch (SQLException e) {
-                                e.printStackTrace();
-                                return false;
-                            }
-                        })
-                        .collect(java.util.stream.Collectors.toList());
-                    reviewsTable.setItems(FXCollections.observableArrayList(trustedReviews));
-                } else {
-                    // Show all reviews, but still sorted by weightage for trusted ones
-                    reviewsTable.setItems(FXCollections.observableArrayList(allReviews));
-                }
-            } catch (SQLException e) {
-                showError("Error", "Failed to filter reviews: " + e.getMessage());
-            }
+            // Rank again since trust may have changed while the dialog was open
+            AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(reviewsTable,
+                    () -> databaseHelper3.getRankedReviewsForAnswer(answer.getAnswerId(), currentUsername),
+                    allReviews -> newVal
+                            // Filter to show only trusted reviewers
+                            ? rememberTrust(allReviews, trustWeights).stream()
+                                    .filter(RankedReview::isTrusted)
+                                    .collect(java.util.stream.Collectors.toList())
+                            // Show all reviews, but still sorted by weightage for trusted ones
+                            : rememberTrust(allReviews, trustWeights),
+                    allReviews -> { },
+                    e -> showError("Error", "Failed to filter reviews: " + AsyncHelper.message(e))));
         });
 
         content.getChildren().addAll(answerLabel, searchBox, reviewsTable);
@@ -1461,6 +1472,21 @@ public class StudentHomePage {
         dialog.showAndWait();
     }
 
+    /**
+     * Brings a dialog's trusted reviewers in line with freshly ranked reviews,
+     * before the reviews are shown so their cells render with it
+     */
+    private static List<RankedReview> rememberTrust(List<RankedReview> reviews, Map<String, Integer> trustWeights) {
+        for (RankedReview review : reviews) {
+            if (review.isTrusted()) {
+                trustWeights.put(review.getReviewer(), review.getTrustWeight());
+            } else {
+                trustWeights.remove(review.getReviewer());
+            }
+        }
+        return reviews;
+    }
+
     private void showTrustedReviewersDialog() {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Trusted Reviewers");
@@ -1469,6 +1495,9 @@ public class StudentHomePage {
         VBox content = new VBox(10);
         content.setPadding(new Insets(10));
 
+        // The student's trusted reviewers, loaded with the reviewers; the cells read and update this map
+        Map<String, Integer> trustWeights = new HashMap<>();
+
         // Create the table with columns for reviewer username and trusted status
         TableView<String> reviewersTable = new TableView<>();
         
@@ -1479,43 +1508,30 @@ public class StudentHomePage {
 
         // Trusted status column with checkboxes
         TableColumn<String, Boolean> trustedCol = new TableColumn<>("Trusted");
-        trustedCol.setCellFactory(col -> new TrustedStatusCell());
-        trustedCol.setCellValueFactory(data -> {
-            String reviewer = data.getValue();
-            try {
-                return new javafx.beans.property.SimpleBooleanProperty(
-                    databaseHelper2.isTrustedReviewer(currentUsername, reviewer));
-            } catch (SQLException e) {
-                e.printStackTrace();
-                return new javafx.beans.property.SimpleBooleanProperty(false);
-            }
-        });
+        trustedCol.setCellFactory(col -> new TrustedStatusCell(trustWeights));
+        trustedCol.setCellValueFactory(data -> 
+            new javafx.beans.property.SimpleBooleanProperty(trustWeights.containsKey(data.getValue())));
         trustedCol.setPrefWidth(100);
         
         // Add weightage column with spinners
         TableColumn<String, Integer> weightageCol = new TableColumn<>("Weightage");
-        weightageCol.setCellFactory(col -> new WeightageCell());
-        weightageCol.setCellValueFactory(data -> {
-            String reviewer = data.getValue();
-            try {
-                int weightage = databaseHelper2.getReviewerWeightage(currentUsername, reviewer);
-                return new javafx.beans.property.SimpleIntegerProperty(weightage).asObject();
-            } catch (SQLException e) {
-                e.printStackTrace();
-                return new javafx.beans.property.SimpleIntegerProperty(1).asObject();
-            }
-        });
+        weightageCol.setCellFactory(col -> new WeightageCell(trustWeights));
+        weightageCol.setCellValueFactory(data -> 
+            new javafx.beans.property.SimpleIntegerProperty(trustWeights.getOrDefault(data.getValue(), 0)).asObject());
         weightageCol.setPrefWidth(100);
         
         reviewersTable.getColumns().addAll(usernameCol, trustedCol, weightageCol);
         
-        // Load all reviewers
-        try {
-            List<String> reviewers = databaseHelper2.getAllReviewers();
-            reviewersTable.setItems(FXCollections.observableArrayList(reviewers));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviewers: " + e.getMessage());
-        }
+        // Load all reviewers together with the weights the cells show for them
+        record Reviewers(List<String> all, Map<String, Integer> weights) { }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(reviewersTable,
+                () -> new Reviewers(databaseHelper2.getAllReviewers(), databaseHelper2.getReviewerWeightages(currentUsername)),
+                reviewers -> {
+                    // Fill the weights before the rows so the cells render with them
+                    trustWeights.putAll(reviewers.weights());
+                    return reviewers.all();
+                }, reviewers -> { },
+                e -> showError("Error", "Failed to load reviewers: " + AsyncHelper.message(e))));
 
         content.getChildren().add(reviewersTable);
         dialog.getDialogPane().setContent(content);
@@ -1536,7 +1552,7 @@ public class StudentHomePage {
     private class TrustedStatusCell extends TableCell<String, Boolean> {
             private final CheckBox checkBox = new CheckBox();
         
-        public TrustedStatusCell() {
+        public TrustedStatusCell(Map<String, Integer> trustWeights) {
             checkBox.selectedProperty().addListener((obs, oldVal, newVal) -> {
                 if (isEditing()) {
                     commitEdit(newVal);
@@ -1549,9 +1565,11 @@ public class StudentHomePage {
                         if (checkBox.isSelected()) {
                         // Add as trusted reviewer with default weightage of 1
                         databaseHelper2.addTrustedReviewer(currentUsername, reviewer, 1);
+                        trustWeights.put(reviewer, 1);
                         } else {
                         // Remove from trusted reviewers
                             databaseHelper2.removeTrustedReviewer(currentUsername, reviewer);
+                            trustWeights.remove(reviewer);
                         }
                     getTableView().refresh();
                 } catch (SQLException e) {
@@ -1578,8 +1596,10 @@ public class StudentHomePage {
      */
     private class WeightageCell extends TableCell<String, Integer> {
         private final Spinner<Integer> spinner = new Spinner<>(1, 10, 1);
+        private final Map<String, Integer> trustWeights;
         
-        public WeightageCell() {
+        public WeightageCell(Map<String, Integer> trustWeights) {
+            this.trustWeights = trustWeights;
             spinner.setEditable(true);
             spinner.valueProperty().addListener((obs, oldVal, newVal) -> {
                 if (isEditing()) {
@@ -1588,8 +1608,11 @@ public class StudentHomePage {
                 
                 String reviewer = getTableView().getItems().get(getIndex());
                 try {
-                    if (databaseHelper2.isTrustedReviewer(currentUsername, reviewer)) {
+                    // Only write when a trusted reviewer's weightage actually changed
+                    Integer current = trustWeights.get(reviewer);
+                    if (current != null && !current.equals(newVal)) {
                         databaseHelper2.updateReviewerWeightage(currentUsername, reviewer, newVal);
+                        trustWeights.put(reviewer, newVal);
                     }
         } catch (SQLException e) {
                     e.printStackTrace();
@@ -1607,15 +1630,10 @@ public class StudentHomePage {
                 setGraphic(null);
             } else {
                 String reviewer = getTableView().getItems().get(getIndex());
-                try {
-                    if (databaseHelper2.isTrustedReviewer(currentUsername, reviewer)) {
-                        spinner.getValueFactory().setValue(item);
-                        setGraphic(spinner);
-                    } else {
-                        setGraphic(null);
-                    }
-                } catch (SQLException e) {
-                    e.printStackTrace();
+                if (trustWeights.containsKey(reviewer)) {
+                    spinner.getValueFactory().setValue(trustWeights.get(reviewer));
+                    setGraphic(spinner);
+                } else {
                     setGraphic(null);
                 }
             }
@@ -1641,70 +1659,57 @@ public class StudentHomePage {
         Label conversationsLabel = new Label("Conversations");
         conversationsLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
         
-        ListView<String> conversationsList = new ListView<>();
+        ListView<ConversationSummary> conversationsList = new ListView<>();
         
-        try {
-            List<String> conversations = databaseHelper2.getUserConversations(currentUsername);
-            Map<String, Integer> unreadCounts = databaseHelper2.getUnreadMessageCountsByConversation(currentUsername);
-            
-            // Setup cell factory to show unread message indicators and instructor labels
-            conversationsList.setCellFactory(lv -> new ListCell<String>() {
-                @Override
-                protected void updateItem(String item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                        setGraphic(null);
-                    } else {
-                        HBox cell = new HBox(10);
-                        cell.setAlignment(Pos.CENTER_LEFT);
-                        
-                        // Check if the user is an instructor
-                        boolean isInstructor = false;
-                        try {
-                            String[] roles = databaseHelper.getUserRoles(item);
-                            for (String role : roles) {
-                                if (role.equals("instructor")) {
-                                    isInstructor = true;
-                                    break;
-                                }
-                            }
-                        } catch (Exception e) {
-                            // If we can't check roles, just proceed without the label
-                        }
-                        
-                        // Create the label with instructor tag if needed
-                        String displayName = item + (isInstructor ? " (Instructor)" : "");
-                        Label nameLabel = new Label(displayName);
-                        if (isInstructor) {
-                            nameLabel.setStyle("-fx-font-weight: bold;");
-                        }
-                        nameLabel.setMaxWidth(Double.MAX_VALUE);
-                        HBox.setHgrow(nameLabel, Priority.ALWAYS);
-                        
-                        cell.getChildren().add(nameLabel);
-                        
-                        // Add unread indicator if there are unread messages
-                        if (unreadCounts.containsKey(item) && unreadCounts.get(item) > 0) {
-                            Label unreadLabel = new Label(unreadCounts.get(item).toString());
-                            unreadLabel.setStyle(
-                                "-fx-background-color: #ff6b6b; " +
-                                "-fx-text-fill: white; " +
-                                "-fx-padding: 2 6; " +
-                                "-fx-background-radius: 10;"
-                            );
-                            cell.getChildren().add(unreadLabel);
-                        }
-                        
-                        setGraphic(cell);
+        // Setup cell factory to show unread message indicators and instructor labels
+        conversationsList.setCellFactory(lv -> new ListCell<ConversationSummary>() {
+            @Override
+            protected void updateItem(ConversationSummary item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                    setGraphic(null);
+                } else {
+                    HBox cell = new HBox(10);
+                    cell.setAlignment(Pos.CENTER_LEFT);
+                    
+                    // The summary carries the partner's roles, so cells never query
+                    boolean isInstructor = item.partnerHasRole("instructor");
+                    
+                    // Create the label with instructor tag if needed
+                    String displayName = item.getPartner() + (isInstructor ? " (Instructor)" : "");
+                    Label nameLabel = new Label(displayName);
+                    if (isInstructor) {
+                        nameLabel.setStyle("-fx-font-weight: bold;");
+                    }
+                    nameLabel.setMaxWidth(Double.MAX_VALUE);
+                    HBox.setHgrow(nameLabel, Priority.ALWAYS);
+                    
+                    cell.getChildren().add(nameLabel);
+                    
+                    // Add unread indicator if there are unread messages
+                    if (item.getUnreadCount() > 0) {
+                        Label unreadLabel = new Label(String.valueOf(item.getUnreadCount()));
+                        unreadLabel.setStyle(
+                            "-fx-background-color: #ff6b6b; " +
+                            "-fx-text-fill: white; " +
+                            "-fx-padding: 2 6; " +
+                            "-fx-background-radius: 10;"
+                        );
+                        cell.getChildren().add(unreadLabel);
                     }
+                    
+                    setGraphic(cell);
                 }
-            });
-            
-            conversationsList.getItems().addAll(conversations);
-        } catch (SQLException e) {
-            showError("Error", "Failed to load conversations: " + e.getMessage());
-        }
+            }
+        });
+        
+        // One query returns partner, partner roles, last message and unread count for every conversation
+        AsyncDatabase.SqlCall<List<ConversationSummary>> loadConversations =
+                () -> databaseHelper2.getConversationSummaries(currentUsername);
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadList(conversationsList, loadConversations,
+                e -> showError("Error", "Failed to load conversations: " + AsyncHelper.message(e))));
+        MessageHelper.keepConversationsCurrent(conversationsList, currentUsername, loadConversations);
         
         // Right pane: Messages view
         VBox messagesPane = new VBox(10);
@@ -1716,169 +1721,12 @@ public class StudentHomePage {
         messagesPane.getChildren().add(selectConversationLabel);
         
         // Handle conversation selection
-        conversationsList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null) {
-                try {
-                    // Get conversation messages
-                    List<Feedback> messages = databaseHelper2.getConversation(currentUsername, newVal);
-                    
-                    // Check if other user is an instructor
-                    boolean isInstructor = false;
-                    try {
-                        String[] roles = databaseHelper.getUserRoles(newVal);
-                        for (String role : roles) {
-                            if (role.equals("instructor")) {
-                                isInstructor = true;
-                                break;
-                            }
-                        }
-                    } catch (Exception e) {
-                        // If we can't check roles, just proceed without the label
-                    }
-                    
-                    // Conversation header with instructor tag if needed
-                    String headerText = "Conversation with " + newVal + (isInstructor ? " (Instructor)" : "");
-                    
-                    messagesPane.getChildren().clear();
-                    
-                    Label headerLabel = new Label(headerText);
-                    headerLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-                    
-                    // Rest of the conversation display (same as MessageHelper)
-                    ScrollPane scrollPane = new ScrollPane();
-                    scrollPane.setFitToWidth(true);
-                    scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
-                    
-                    VBox messagesBox = new VBox(10);
-                    messagesBox.setPadding(new Insets(10));
-                    
-                    // Render messages
-                    for (Feedback message : messages) {
-                        HBox messageBox = new HBox(10);
-                        
-                        // Position messages based on sender
-                        boolean isFromCurrentUser = message.getSender().equals(currentUsername);
-                        messageBox.setAlignment(isFromCurrentUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
-                        
-                        VBox messageContent = new VBox(5);
-                        messageContent.setMaxWidth(400);
-                        messageContent.setStyle(
-                            "-fx-background-color: " + (isFromCurrentUser ? "#ddecf8" : "#f1f1f1") + "; " +
-                            "-fx-padding: 10; " +
-                            "-fx-background-radius: 10;"
-                        );
-                        
-                        // Add reference information
-                        if (message.getQuestionId() > 0) {
-                            try {
-                                Question question = questionsManager.getQuestionById(message.getQuestionId());
-                                if (question != null) {
-                                    Label refLabel = new Label("Re: Question #" + question.getQuestionId());
-                                    refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
-                                    messageContent.getChildren().add(refLabel);
-                                }
-                            } catch (SQLException e) {
-                                e.printStackTrace();
-                            }
-                        }
-                        
-                        if (message.getAnswerId() != null) {
-                            try {
-                                Answer answer = answersManager.getAnswerById(message.getAnswerId());
-                                if (answer != null) {
-                                    Label refLabel = new Label("Re: Answer by " + answer.getAuthor());
-                                    refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
-                                    messageContent.getChildren().add(refLabel);
-                                }
-                            } catch (SQLException e) {
-                                e.printStackTrace();
-                            }
-                        }
-                        
-                        if (message.getReviewId() != null) {
-                            try {
-                                Review review = databaseHelper3.getReviewById(message.getReviewId());
-                                if (review != null) {
-                                    Label refLabel = new Label("Re: Review by " + review.getReviewer());
-                                    refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
-                                    messageContent.getChildren().add(refLabel);
-                                }
-                            } catch (SQLException e) {
-                                e.printStackTrace();
-                            }
-                        }
-                        
-                        // Message text and timestamp
-                        Label contentLabel = new Label(message.getContent());
-                        contentLabel.setWrapText(true);
-                        
-                        Label timeLabel = new Label(new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss").format(message.getTimestamp()));
-                        timeLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
-                        
-                        messageContent.getChildren().addAll(contentLabel, timeLabel);
-                        messageBox.getChildren().add(messageContent);
-                        messagesBox.getChildren().add(messageBox);
-                        
-                    }
-                    
-                    scrollPane.setContent(messagesBox);
-                    
-                    // Reply box
-                    HBox replyBox = new HBox(10);
-                    replyBox.setAlignment(Pos.CENTER);
-                    
-                    TextField replyField = new TextField();
-                    replyField.setPromptText("Type a message...");
-                    replyField.setPrefWidth(400);
-                    HBox.setHgrow(replyField, Priority.ALWAYS);
-                    
-                    Button sendButton = new Button("Send");
-                    sendButton.setStyle("-fx-font-size: 13px; " +
-                                     "-fx-text-fill: white; " +
-                                     "-fx-background-color: #90EE90; " +
-                                     "-fx-padding: 6px 12px; " +
-                                     "-fx-border-color: #228B22; " +
-                                     "-fx-border-width: 2px; " +
-                                     "-fx-border-radius: 12px; " +
-                                     "-fx-background-radius: 12px;");
-                    
-                    sendButton.setOnAction(e -> {
-                        String content = replyField.getText().trim();
-                        if (!content.isEmpty()) {
-                            try {
-                                // Create and send reply
-                                Feedback reply = new Feedback(
-                                    0,
-                                    currentUsername,
-                                    newVal,
-                                    content,
-                                    new Date(),
-                                    0, // No specific question reference for direct replies
-                                    null,
-                                    null,
-                                    null
-                                );
-                                databaseHelper2.addFeedback(reply);
-                                
-                                // Refresh conversation - call this method again with the same other user
-                                conversationsList.getSelectionModel().select(newVal);
-                                
-                                // Clear reply field
-                                replyField.clear();
-                            } catch (SQLException ex) {
-                                showError("Error", "Failed to send message: " + ex.getMessage());
-                            }
-                        }
-                    });
-                    
-                    replyBox.getChildren().addAll(replyField, sendButton);
-                    
-                    // Add all components to the messages pane
-                    messagesPane.getChildren().addAll(headerLabel, scrollPane, replyBox);
-                    
-                } catch (SQLException e) {
-                    showError("Error", "Failed to load conversation: " + e.getMessage());
-                }
+        conversationsList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, selected) -> {
+            if (selected != null) {
+                AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadPane(messagesPane,
+                        () -> databaseHelper2.getConversation(currentUsername, selected.getPartner()),
+                        messages -> renderConversation(selected, messages, messagesPane),
+                        e -> showError("Error", "Failed to load conversation: " + AsyncHelper.message(e))));
             }
         });
         
@@ -1893,6 +1741,131 @@ public class StudentHomePage {
         dialog.showAndWait();
     }
 
+    /**
+     * Renders a loaded inbox conversation; the messages carry what their references point at
+     */
+    private void renderConversation(ConversationSummary selected, List<Feedback> messages, VBox messagesPane) {
+        String newVal = selected.getPartner();
+        
+        // Check if other user is an instructor
+        boolean isInstructor = selected.partnerHasRole("instructor");
+        
+        // Conversation header with instructor tag if needed
+        String headerText = "Conversation with " + newVal + (isInstructor ? " (Instructor)" : "");
+        
+        Label headerLabel = new Label(headerText);
+        headerLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+        
+        // Rest of the conversation display (same as MessageHelper)
+        ScrollPane scrollPane = new ScrollPane();
+        scrollPane.setFitToWidth(true);
+        scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.ALWAYS);
+        
+        VBox messagesBox = new VBox(10);
+        messagesBox.setPadding(new Insets(10));
+        
+        // Render messages
+        for (Feedback message : messages) {
+            HBox messageBox = new HBox(10);
+            
+            // Position messages based on sender
+            boolean isFromCurrentUser = message.getSender().equals(currentUsername);
+            messageBox.setAlignment(isFromCurrentUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
+            
+            VBox messageContent = new VBox(5);
+            messageContent.setMaxWidth(400);
+            messageContent.setStyle(
+                "-fx-background-color: " + (isFromCurrentUser ? "#ddecf8" : "#f1f1f1") + "; " +
+                "-fx-padding: 10; " +
+                "-fx-background-radius: 10;"
+            );
+            
+            // Add reference information
+            if (message.isReferencedQuestionFound()) {
+                Label refLabel = new Label("Re: Question #" + message.getQuestionId());
+                refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
+                messageContent.getChildren().add(refLabel);
+            }
+            
+            if (message.getReferencedAnswerAuthor() != null) {
+                Label refLabel = new Label("Re: Answer by " + message.getReferencedAnswerAuthor());
+                refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
+                messageContent.getChildren().add(refLabel);
+            }
+            
+            if (message.getReferencedReviewer() != null) {
+                Label refLabel = new Label("Re: Review by " + message.getReferencedReviewer());
+                refLabel.setStyle("-fx-font-style: italic; -fx-font-size: 11px;");
+                messageContent.getChildren().add(refLabel);
+            }
+            
+            // Message text and timestamp
+            Label contentLabel = new Label(message.getContent());
+            contentLabel.setWrapText(true);
+            
+            Label timeLabel = new Label(new java.text.SimpleDateFormat("MMM dd, yyyy HH:mm:ss").format(message.getTimestamp()));
+            timeLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #666;");
+            
+            messageContent.getChildren().addAll(contentLabel, timeLabel);
+            messageBox.getChildren().add(messageContent);
+            messagesBox.getChildren().add(messageBox);
+            
+        }
+        
+        scrollPane.setContent(messagesBox);
+        
+        // Reply box
+        HBox replyBox = new HBox(10);
+        replyBox.setAlignment(Pos.CENTER);
+        
+        TextField replyField = new TextField();
+        replyField.setPromptText("Type a message...");
+        replyField.setPrefWidth(400);
+        HBox.setHgrow(replyField, Priority.ALWAYS);
+        
+        Button sendButton = new Button("Send");
+        sendButton.setStyle("-fx-font-size: 13px; " +
+                         "-fx-text-fill: white; " +
+                         "-fx-background-color: #90EE90; " +
+                         "-fx-padding: 6px 12px; " +
+                         "-fx-border-color: #228B22; " +
+                         "-fx-border-width: 2px; " +
+                         "-fx-border-radius: 12px; " +
+                         "-fx-background-radius: 12px;");
+        
+        sendButton.setOnAction(e -> {
+            String content = replyField.getText().trim();
+            if (!content.isEmpty()) {
+                try {
+                    // Create and send reply
+                    Feedback reply = new Feedback(
+                        0,
+                        currentUsername,
+                        newVal,
+                        content,
+                        new Date(),
+                        0, // No specific question reference for direct replies
+                        null,
+                        null,
+                        null
+                    );
+                    // The inbox shows the reply once it is committed
+                    databaseHelper2.addFeedback(reply);
+                    
+                    // Clear reply field
+                    replyField.clear();
+                } catch (SQLException ex) {
+                    showError("Error", "Failed to send message: " + ex.getMessage());
+                }
+            }
+        });
+        
+        replyBox.getChildren().addAll(replyField, sendButton);
+        
+        // Add all components to the messages pane
+        messagesPane.getChildren().addAll(headerLabel, scrollPane, replyBox);
+    }
+
     /**
      * Helper method to truncate long strings for display
      */
@@ -1946,22 +1919,22 @@ public class StudentHomePage {
     }
 
     private void handleReviewerRequest() {
-        try {
+        // Look up the pending request and the user's roles off the UI thread
+        record RequestStatus(boolean pending, boolean reviewer) { }
+        AsyncHelper.load(() -> new RequestStatus(databaseHelper3.hasPendingReviewerRequest(currentUsername),
+                session.getPrincipal().hasRole("reviewer")), status -> {
             // Check if user already has a pending request
-            if (databaseHelper3.hasPendingReviewerRequest(currentUsername)) {
+            if (status.pending()) {
                 showAlert(Alert.AlertType.INFORMATION, "Request Pending", 
                         "You already have a pending request for reviewer permission. Please wait for an instructor to review it.");
                 return;
             }
             
             // Check if user is already a reviewer
-            String[] roles = databaseHelper.getUserRoles(currentUsername);
-            for (String role : roles) {
-                if (role.equals("reviewer")) {
-                    showAlert(Alert.AlertType.INFORMATION, "Already a Reviewer", 
-                            "You already have reviewer permissions.");
-                    return;
-                }
+            if (status.reviewer()) {
+                showAlert(Alert.AlertType.INFORMATION, "Already a Reviewer", 
+                        "You already have reviewer permissions.");
+                return;
             }
             
             // Confirm request
@@ -1983,10 +1956,8 @@ public class StudentHomePage {
                 }
             });
             
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Error", 
-                    "Failed to check request status: " + e.getMessage());
-        }
+        }, e -> showAlert(Alert.AlertType.ERROR, "Error", 
+                "Failed to check request status: " + AsyncHelper.message(e)));
     }
 
     private void showAlert(Alert.AlertType type, String title, String content) {
@@ -2042,20 +2013,20 @@ public class StudentHomePage {
         specialtiesArea.setWrapText(true);
 
         // Load profile data
-        try {
-            Map<String, Object> profile = databaseHelper3.getReviewerProfile(reviewerUsername);
-            if (profile != null) {
-                aboutArea.setText((String) profile.get("about"));
-                experienceArea.setText((String) profile.get("experience"));
-                specialtiesArea.setText((String) profile.get("specialties"));
-            } else {
-                aboutArea.setText("No information available");
-                experienceArea.setText("No information available");
-                specialtiesArea.setText("No information available");
-            }
-        } catch (SQLException e) {
-            showError("Error", "Failed to load profile: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.load(
+                () -> databaseHelper3.getReviewerProfile(reviewerUsername),
+                profile -> {
+                    if (profile != null) {
+                        aboutArea.setText((String) profile.get("about"));
+                        experienceArea.setText((String) profile.get("experience"));
+                        specialtiesArea.setText((String) profile.get("specialties"));
+                    } else {
+                        aboutArea.setText("No information available");
+                        experienceArea.setText("No information available");
+                        specialtiesArea.setText("No information available");
+                    }
+                },
+                e -> showError("Error", "Failed to load profile: " + AsyncHelper.message(e))));
 
         // Add labels and text areas to profile section
         profileSection.getChildren().addAll(
@@ -2104,12 +2075,9 @@ public class StudentHomePage {
         reviewsTable.getColumns().addAll(reviewerCol, reviewCol, dateCol);
 
         // Load reviews
-        try {
-            List<Review> reviews = databaseHelper3.getReviewsByReviewer(reviewerUsername);
-            reviewsTable.setItems(FXCollections.observableArrayList(reviews));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load reviews: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(reviewsTable,
+                () -> databaseHelper3.getReviewsByReviewer(reviewerUsername),
+                e -> showError("Error", "Failed to load reviews: " + AsyncHelper.message(e))));
 
         reviewsSection.getChildren().addAll(reviewsLabel, reviewsTable);
 
@@ -2154,12 +2122,9 @@ public class StudentHomePage {
         feedbackTable.getColumns().addAll(studentCol, contentCol, ratingCol, feedbackDateCol);
 
         // Load feedback
-        try {
-            List<Map<String, Object>> feedback = databaseHelper3.getReviewerFeedback(reviewerUsername);
-            feedbackTable.setItems(FXCollections.observableArrayList(feedback));
-        } catch (SQLException e) {
-            showError("Error", "Failed to load feedback: " + e.getMessage());
-        }
+        AsyncHelper.cancelOnClose(dialog.showingProperty(), AsyncHelper.loadTable(feedbackTable,
+                () -> databaseHelper3.getReviewerFeedback(reviewerUsername),
+                e -> showError("Error", "Failed to load feedback: " + AsyncHelper.message(e))));
 
         feedbackSection.getChildren().addAll(feedbackLabel, feedbackTable);
 
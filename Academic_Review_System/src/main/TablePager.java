@@ -0,0 +1,442 @@
+package main;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import databasePart1.AsyncDatabase.SqlCall;
+import databasePart1.UiAction;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ObservableList;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * TablePager fills a table one page at a time. The first page is loaded like
+ * any other {@link AsyncHelper} load; the next page is fetched in the
+ * background as soon as the user scrolls to within a few rows of the end, and
+ * appended to the rows already shown.
+ *
+ * <p> The total is fetched with a separate count query and shown through
+ * {@link #statusProperty()} as "Showing X of N". When something else replaces
+ * the table's rows, for example a search, the pager stops until it is started
+ * or refreshed again. </p>
+ *
+ * <p> A pager started with a {@link Sync} refreshes by fetching only the rows
+ * changed since it last loaded or refreshed, and patches them into the rows
+ * already shown, so a refresh costs time in proportion to what changed rather
+ * than to how many rows are loaded. </p>
+ *
+ * <p> Loading, refreshing and fetching the next page are each a
+ * {@link UiAction}, nested in the action that asked for them if any. </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @param <T> The row type
+ *
+ * @version 1.00    2025-04-01    TablePager class implementation
+ */
+public final class TablePager<T> {
+
+    /**
+     * Fetches one page of rows.
+     *
+     * @param <T> The row type
+     */
+    @FunctionalInterface
+    public interface PageCall<T> {
+        /**
+         * Fetches the page after the cursor.
+         *
+         * @param after The cursor of the previous page, or null for the first page
+         * @param limit Maximum number of rows in the page
+         * @return The page
+         * @throws SQLException if a database access error occurs
+         */
+        Page<T> load(PageCursor after, int limit) throws SQLException;
+    }
+
+    /**
+     * Tells a pager what changed since it loaded its rows, and where changed
+     * rows belong in the list.
+     *
+     * @param <T> The row type
+     */
+    public interface Sync<T> {
+        /**
+         * Gets the current row version, read before the first page is loaded.
+         *
+         * @return The version to sync from
+         * @throws SQLException if a database access error occurs
+         */
+        long version() throws SQLException;
+
+        /**
+         * Fetches the rows changed or deleted since a version.
+         *
+         * @param version The version of the previous load or sync
+         * @return The changes
+         * @throws SQLException if a database access error occurs
+         */
+        ChangeSet<T> changesSince(long version) throws SQLException;
+
+        /**
+         * Gets the ID that deletions refer to a row by.
+         *
+         * @param row The row
+         * @return The row's ID
+         */
+        int idOf(T row);
+
+        /**
+         * Gets the order the pages list the rows in.
+         *
+         * @return The comparator of the list order
+         */
+        Comparator<? super T> order();
+
+        /**
+         * Checks whether a changed row still belongs in the list, for example
+         * whether it still matches the status filter.
+         *
+         * @param row The changed row
+         * @return true if the list should show the row
+         */
+        boolean includes(T row);
+    }
+
+    // Key under which a table remembers its pager
+    private static final String PAGER = "TablePager.pager";
+    // How close to the last loaded row the user may scroll before the next page is fetched
+    private static final int PREFETCH_ROWS = 10;
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final Consumer<? super Throwable> onError;
+    private final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("");
+
+    private PageCall<T> pages;
+    private SqlCall<Integer> count;
+    private Sync<T> sync;
+    // The row list this pager filled; null while the first page loads or after the pager stopped
+    private ObservableList<T> items;
+    private PageCursor nextCursor;
+    // The last row fetched so far: changed rows after it are left to the pages still to come
+    private T boundary;
+    private long version;
+    private int total = -1;
+    private int generation;
+    private boolean syncAgain;
+    private CompletableFuture<?> pendingPage;
+    private CompletableFuture<?> pendingCount;
+    private CompletableFuture<?> pendingSync;
+    private VirtualFlow<?> flow;
+
+    /**
+     * Creates a pager for the table.
+     *
+     * @param table    The table to fill
+     * @param pageSize Number of rows fetched per page
+     * @param onError  Receives load failures on the JavaFX Application Thread
+     */
+    public TablePager(TableView<T> table, int pageSize, Consumer<? super Throwable> onError) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.onError = onError;
+        table.itemsProperty().addListener((obs, oldItems, newItems) -> {
+            if (items != null && newItems != items) {
+                stop();
+            }
+        });
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachToFlow());
+        attachToFlow();
+    }
+
+    /**
+     * Gets the pager of a table, creating it on first use. Dialogs that reload
+     * the same table from several places share one pager this way.
+     *
+     * @param <T>      The row type
+     * @param table    The table to fill
+     * @param pageSize Number of rows fetched per page, used when the pager is created
+     * @param onError  Receives load failures, used when the pager is created
+     * @return The table's pager
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TablePager<T> of(TableView<T> table, int pageSize, Consumer<? super Throwable> onError) {
+        return (TablePager<T>) table.getProperties().computeIfAbsent(PAGER,
+                key -> new TablePager<>(table, pageSize, onError));
+    }
+
+    /**
+     * Clears the table and starts loading it again from the first page.
+     * Refreshing loads it from the first page again as well.
+     *
+     * @param pages Fetches each page
+     * @param count Counts all rows the pages will return
+     * @return The pending load of the first page, which can be cancelled
+     */
+    public CompletableFuture<Page<T>> start(PageCall<T> pages, SqlCall<Integer> count) {
+        return start(pages, count, null);
+    }
+
+    /**
+     * Clears the table and starts loading it again from the first page.
+     * Refreshing fetches only the rows that changed.
+     *
+     * @param pages Fetches each page
+     * @param count Counts all rows the pages will return
+     * @param sync  Fetches the changes when the table is refreshed, or null to reload instead
+     * @return The pending load of the first page, which can be cancelled
+     */
+    public CompletableFuture<Page<T>> start(PageCall<T> pages, SqlCall<Integer> count, Sync<T> sync) {
+        return UiAction.call("Load table", () -> {
+            stop();
+            int started = generation;
+            this.pages = pages;
+            this.count = count;
+            this.sync = sync;
+            long[] loadedVersion = new long[1];
+            CompletableFuture<Page<T>> first = AsyncHelper.loadTable(table, () -> {
+                // Read the version first so changes made while the page loads are not missed
+                loadedVersion[0] = sync != null ? sync.version() : 0;
+                return pages.load(null, pageSize);
+            }, Page::getItems, page -> {
+                if (started != generation) {
+                    return;
+                }
+                items = table.getItems();
+                version = loadedVersion[0];
+                pageLoaded(page);
+            }, onError);
+            pendingPage = first;
+            recount();
+            return first;
+        });
+    }
+
+    /**
+     * Brings the table up to date. With a {@link Sync} only the changed rows
+     * are fetched; otherwise, or when a search has replaced the rows since, the
+     * table is loaded again from the first page.
+     *
+     * @return false if the pager was never started, so there is nothing to refresh
+     */
+    public boolean refresh() {
+        if (pages == null) {
+            return false;
+        }
+        return UiAction.call("Refresh table", () -> {
+            if (sync == null || items == null) {
+                start(pages, count, sync);
+                return true;
+            }
+            if (pendingSync != null && !pendingSync.isDone()) {
+                // Changes made after the running sync read the version are fetched once it is done
+                syncAgain = true;
+                return true;
+            }
+            int started = generation;
+            long since = version;
+            pendingSync = AsyncHelper.load(() -> sync.changesSince(since), changes -> {
+                if (started != generation) {
+                    return;
+                }
+                apply(changes);
+                if (syncAgain) {
+                    syncAgain = false;
+                    refresh();
+                }
+            }, onError);
+            return true;
+        });
+    }
+
+    /**
+     * Brings the table up to date if the pager is still filling it. Unlike
+     * {@link #refresh()} it leaves the table alone while a search or another
+     * load has replaced its rows, so a change made elsewhere never overwrites
+     * what the user is looking at.
+     *
+     * @return true if a refresh was started
+     */
+    public boolean refreshIfActive() {
+        return items != null && refresh();
+    }
+
+    /**
+     * Fetches the next page unless one is already being fetched or the last
+     * page has been shown.
+     */
+    public void loadNextPage() {
+        if (items == null || nextCursor == null || (pendingPage != null && !pendingPage.isDone())) {
+            return;
+        }
+        UiAction.run("Load next page", () -> {
+            int started = generation;
+            PageCursor after = nextCursor;
+            pendingPage = AsyncHelper.load(() -> pages.load(after, pageSize), page -> {
+                if (started != generation) {
+                    return;
+                }
+                if (sync != null) {
+                    // A refresh may already have added some of these rows
+                    Set<Integer> shown = new HashSet<>();
+                    items.forEach(row -> shown.add(sync.idOf(row)));
+                    page.getItems().stream().filter(row -> !shown.contains(sync.idOf(row))).forEach(items::add);
+                } else {
+                    items.addAll(page.getItems());
+                }
+                pageLoaded(page);
+            }, onError);
+        });
+    }
+
+    /**
+     * Checks whether there are rows that have not been fetched yet.
+     *
+     * @return true if another page can be fetched
+     */
+    public boolean hasMore() {
+        return items != null && nextCursor != null;
+    }
+
+    /**
+     * Gets the "Showing X of N" text for the rows loaded so far. It is empty
+     * while the pager is not filling the table.
+     *
+     * @return The status text property
+     */
+    public ReadOnlyStringProperty statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    private void pageLoaded(Page<T> page) {
+        nextCursor = page.getNextCursor();
+        if (!page.getItems().isEmpty()) {
+            boundary = page.getItems().get(page.getItems().size() - 1);
+        }
+        updateStatus();
+        fillViewport();
+    }
+
+    // Patches the changes into the loaded rows, keeping them in list order and the selection in place
+    private void apply(ChangeSet<T> changes) {
+        version = Math.max(version, changes.getVersion());
+        if (changes.isEmpty()) {
+            return;
+        }
+        T selected = table.getSelectionModel().getSelectedItem();
+        Integer selectedId = selected != null ? sync.idOf(selected) : null;
+
+        Set<Integer> replaced = new HashSet<>(changes.getDeletedIds());
+        changes.getChanged().forEach(row -> replaced.add(sync.idOf(row)));
+        items.removeIf(row -> replaced.contains(sync.idOf(row)));
+        Comparator<? super T> order = sync.order();
+        for (T row : changes.getChanged()) {
+            if (!sync.includes(row)) {
+                continue;
+            }
+            // Rows past the last fetched page arrive with the pages still to come
+            if (nextCursor != null && (boundary == null || order.compare(row, boundary) > 0)) {
+                continue;
+            }
+            int index = Collections.binarySearch(items, row, order);
+            items.add(index < 0 ? -index - 1 : index, row);
+        }
+
+        if (selectedId != null) {
+            items.stream().filter(row -> sync.idOf(row) == selectedId).findFirst()
+                    .ifPresent(row -> table.getSelectionModel().select(row));
+        }
+        recount();
+        updateStatus();
+    }
+
+    // Fetches the total in the background; without a count the status just leaves it out
+    private void recount() {
+        int started = generation;
+        if (pendingCount != null) {
+            pendingCount.cancel(false);
+        }
+        pendingCount = AsyncHelper.load(count, counted -> {
+            if (started == generation) {
+                total = counted;
+                updateStatus();
+            }
+        }, error -> { });
+    }
+
+    // Drops the current pages and ignores any results still on their way
+    private void stop() {
+        generation++;
+        items = null;
+        nextCursor = null;
+        boundary = null;
+        total = -1;
+        syncAgain = false;
+        if (pendingPage != null) {
+            pendingPage.cancel(false);
+        }
+        if (pendingCount != null) {
+            pendingCount.cancel(false);
+        }
+        if (pendingSync != null) {
+            pendingSync.cancel(false);
+        }
+        status.set("");
+    }
+
+    private void updateStatus() {
+        if (items == null) {
+            return;
+        }
+        int shown = items.size();
+        if (total >= 0) {
+            // Rows added since the count make the loaded rows outnumber it
+            status.set(String.format("Showing %,d of %,d", shown, Math.max(shown, total)));
+        } else {
+            status.set(String.format("Showing %,d", shown));
+        }
+    }
+
+    // The skin creates the VirtualFlow that scrolls the rows; watching its position tells when the end is near
+    private void attachToFlow() {
+        if (table.getSkin() == null) {
+            return;
+        }
+        if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> found && found != flow) {
+            flow = found;
+            flow.positionProperty().addListener((obs, oldPosition, newPosition) -> {
+                if (isNearEnd()) {
+                    loadNextPage();
+                }
+            });
+        }
+    }
+
+    private boolean isNearEnd() {
+        if (items == null || flow == null) {
+            return false;
+        }
+        // No visible cell means the table is not laid out, for example while its tab is hidden
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        return last != null && last.getIndex() >= items.size() - PREFETCH_ROWS;
+    }
+
+    // Keeps fetching while the loaded rows do not fill the table, since there is nothing to scroll yet
+    private void fillViewport() {
+        Platform.runLater(() -> {
+            if (isNearEnd()) {
+                loadNextPage();
+            }
+        });
+    }
+}
@@ -10,9 +10,16 @@ package main;
  * @version 1.00    2025-04-01    User class implementation
  */
 public class User {
+    /**
+     * Every valid role, in bit order: the role at index i is bit {@code 1 << i}
+     * of a role mask. The access_mask column of cse360users uses the same bits.
+     */
+    public static final String[] ALL_ROLES = {"admin", "student", "instructor", "staff", "reviewer"};
+
     private String userName;
     private String password;
     private String[] roles;
+    private int roleMask;
     private String fullName;
     private String email;
 
@@ -23,12 +30,43 @@ public class User {
         this.fullName = fullName;
         this.email = email;
         this.roles = roles;
+        this.roleMask = roleMask(roles);
+    }
+
+    /**
+     * Gets the bit of a role in a role mask.
+     * @param role The role name
+     * @return The role's bit, or 0 if the role is not valid
+     */
+    public static int roleBit(String role) {
+        for (int i = 0; i < ALL_ROLES.length; i++) {
+            if (ALL_ROLES[i].equals(role)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Combines roles into a role mask; names that are not valid roles are ignored.
+     * @param roles The role names, may be null
+     * @return The mask with the bit of every given role set
+     */
+    public static int roleMask(String[] roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (String role : roles) {
+                mask |= roleBit(role);
+            }
+        }
+        return mask;
     }
 
     // Sets the roles of the user
     public void setRoles(String[] roles) {
         if (areValidRoles(roles)) {
             this.roles = roles;
+            this.roleMask = roleMask(roles);
         } else {
             throw new IllegalArgumentException("Invalid role(s). Must be one of: admin, student, instructor, staff, reviewer");
         }
@@ -45,21 +83,15 @@ public class User {
     }
 
     private boolean isValidRole(String role) {
-        return role.equals("admin") || 
-               role.equals("student") || 
-               role.equals("instructor") || 
-               role.equals("staff") || 
-               role.equals("reviewer");
+        return roleBit(role) != 0;
     }
 
     public String getUserName() { return userName; }
     public String getPassword() { return password; }
     public String[] getRoles() { return roles; }
+    public int getRoleMask() { return roleMask; }
     public boolean hasRole(String role) {
-        for (String userRole : roles) {
-            if (userRole.equals(role)) return true;
-        }
-        return false;
+        return (roleMask & roleBit(role)) != 0;
     }
 
     // Add getters for new fields
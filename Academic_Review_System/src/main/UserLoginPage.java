@@ -75,37 +75,39 @@ public class UserLoginPage {
                 errorLabel.setText("Password too short");
             }
             else {
-                try {                    
-                    if (databaseHelper.doesUserExist(userName)) {
-                        String[] roles = databaseHelper.getUserRoles(userName);
+                try {
+                    // One query checks the password and loads everything the pages need about the user
+                    SessionContext session = SessionContext.login(userName, password);
+                    if (session == null) {
+                        if (databaseHelper.doesUserExist(userName)) {
+                            errorLabel.setText("Error logging in, make sure your username/password is correct");
+                        } else {
+                            // Display an error if the account does not exist
+                            errorLabel.setText("User account doesn't exist");
+                        }
+                    } else {
+                        SessionPrincipal principal = session.getPrincipal();
+                        String[] roles = principal.getRoles();
 
                         if (roles.length > 0) {
-                            User user = new User(userName, password, "", "", roles);
-                            if (databaseHelper.login(user)) {
-                                // User is admin
-                                if (user.hasRole("admin")) {
-                                    new WelcomeLoginPage(databaseHelper).show(primaryStage, user);
-                                } 
-                                // User has multiple roles
-                                else if (roles.length > 1) {
-                                    new RoleSelectionPage(user, databaseHelper).show(primaryStage);
-                                } 
-                                // User has single role
-                                else {
-                                    new RoleSelectionPage(user, databaseHelper).navigateToRolePage(primaryStage, roles[0]);
-                                }
-                            } else {
-                                errorLabel.setText("Error logging in, make sure your username/password is correct");
+                            // User is admin
+                            if (principal.hasRole("admin")) {
+                                new WelcomeLoginPage(databaseHelper, session).show(primaryStage, principal.toUser());
+                            } 
+                            // User has multiple roles
+                            else if (roles.length > 1) {
+                                new RoleSelectionPage(session, databaseHelper).show(primaryStage);
+                            } 
+                            // User has single role
+                            else {
+                                new RoleSelectionPage(session, databaseHelper).navigateToRolePage(primaryStage, roles[0]);
                             }
                         }
                         else {
                             // Display an error if the account has no roles
                             errorLabel.setText("A user must have at least one role");
                         }
-                    } else {
-                        // Display an error if the account does not exist
-                        errorLabel.setText("User account doesn't exist");
-                    }                
+                    }
                 } catch (SQLException e) {
                     System.err.println("Database error: " + e.getMessage());
                     e.printStackTrace();
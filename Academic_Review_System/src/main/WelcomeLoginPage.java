@@ -15,9 +15,16 @@ import databasePart1.*;
 public class WelcomeLoginPage {
 
 	private final DatabaseHelper databaseHelper;
+	// The logged-in user's session, or null to open one for the user being shown
+	private final SessionContext session;
 
 	public WelcomeLoginPage(DatabaseHelper databaseHelper) {
+		this(databaseHelper, null);
+	}
+
+	public WelcomeLoginPage(DatabaseHelper databaseHelper, SessionContext session) {
 		this.databaseHelper = databaseHelper;
+		this.session = session;
 	}
 
 	public void show(Stage primaryStage, User user) {
@@ -63,12 +70,15 @@ public class WelcomeLoginPage {
                 + "-fx-background-radius: 12px;");
         continueButton.setOnAction(a -> {
             String[] roles = user.getRoles();
+            RoleSelectionPage roleSelectionPage = session != null
+                    ? new RoleSelectionPage(session, databaseHelper)
+                    : new RoleSelectionPage(user, databaseHelper);
             if (roles.length == 1) {
                 // If user has only one role, go directly to that role's page
-                new RoleSelectionPage(user, databaseHelper).navigateToRolePage(primaryStage, roles[0]);
+                roleSelectionPage.navigateToRolePage(primaryStage, roles[0]);
             } else {
                 // If user has multiple roles, show role selection page
-                new RoleSelectionPage(user, databaseHelper).show(primaryStage);
+                roleSelectionPage.show(primaryStage);
             }
         });
 
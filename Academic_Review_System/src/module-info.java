@@ -1,6 +1,8 @@
 module FoundationCode {
 	requires javafx.controls;
 	requires java.sql;
+	requires jdk.httpserver;
+	requires jdk.jfr;
 	requires org.junit.jupiter.api;
 	
 	opens main to javafx.graphics, javafx.fxml, javafx.base;
@@ -6,6 +6,7 @@ import databasePart1.*;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Date;
@@ -27,13 +28,16 @@ public class Phase2AutomatedTests {
 
     private DatabaseHelper2 dbHelper;
     private Questions questions;
+    private Connection connection;
     private Answers answers;
 
     @BeforeEach
     public void setUp() throws SQLException {
         dbHelper = new DatabaseHelper2();
         dbHelper.connectToDatabase();
-        questions = new Questions(dbHelper, dbHelper.connection);
+        // Borrow a connection from the shared pool for direct checks in the tests
+        connection = ConnectionPool.getInstance().getConnection();
+        questions = new Questions(dbHelper);
         answers = new Answers(dbHelper);
     }
 
@@ -335,8 +339,9 @@ public class Phase2AutomatedTests {
         
         @Test
         @DisplayName("Database connection should be established")
-        public void testDatabaseConnection() {
-            assertNotNull(dbHelper.connection);
+        public void testDatabaseConnection() throws SQLException {
+            assertNotNull(connection);
+            assertFalse(connection.isClosed());
         }
 
         @Test
@@ -558,8 +563,9 @@ public class Phase2AutomatedTests {
     
     @AfterEach
     public void tearDown() throws SQLException {
-        if (dbHelper != null && dbHelper.connection != null) {
-            dbHelper.connection.close();
+        // Return the borrowed connection to the pool
+        if (connection != null) {
+            connection.close();
         }
     }
 }
\ No newline at end of file
@@ -6,7 +6,9 @@ import databasePart1.*;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.List;
@@ -40,6 +42,8 @@ public class Phase3AutomatedTests {
     private DatabaseHelper3 dbHelper;
     private DatabaseHelper2 dbHelper2;
     private Questions questions;
+    private Connection connection;
+    private Statement statement;
     private Answers answers;
     private int testQuestionId;
     private int testAnswerId;
@@ -57,9 +61,12 @@ public class Phase3AutomatedTests {
         dbHelper.connectToDatabase();
         dbHelper2 = new DatabaseHelper2();
         dbHelper2.connectToDatabase();
+        // Borrow a connection from the shared pool for direct SQL in the tests
+        connection = ConnectionPool.getInstance().getConnection();
+        statement = connection.createStatement();
         
         // Initialize managers
-        questions = new Questions(dbHelper2, dbHelper2.connection);
+        questions = new Questions(dbHelper2);
         answers = new Answers(dbHelper2);
         
         // Set up test data
@@ -176,7 +183,7 @@ public class Phase3AutomatedTests {
         @BeforeEach
         public void cleanupReviews() throws SQLException {
             // Clean up any existing reviews before each test
-            dbHelper.statement.execute("DELETE FROM reviews");
+            statement.execute("DELETE FROM reviews");
         }
 
         /**
@@ -400,7 +407,8 @@ public class Phase3AutomatedTests {
         @BeforeEach
         public void cleanupMessages() throws SQLException {
             // Clean up existing messages before each test
-            dbHelper2.statement.execute("DELETE FROM Feedback");
+            statement.execute("DELETE FROM Feedback");
+            statement.execute("DELETE FROM conversation_summary");
         }
 
         /**
@@ -725,7 +733,7 @@ public class Phase3AutomatedTests {
         @BeforeEach
         public void cleanupReviewerRequests() throws SQLException {
             // Clean up existing reviewer requests
-            dbHelper.statement.execute("DELETE FROM reviewer_requests");
+            statement.execute("DELETE FROM reviewer_requests");
         }
 
         /**
@@ -864,7 +872,7 @@ public class Phase3AutomatedTests {
         @DisplayName("Can retrieve multiple pending requests")
         public void testGetMultiplePendingRequests() throws SQLException {
             // Clean up any existing requests first
-            dbHelper.statement.execute("DELETE FROM reviewer_requests");
+            statement.execute("DELETE FROM reviewer_requests");
 
             // Create test student usernames
             String[] testStudents = {"student1", "student2", "student3"};
@@ -925,7 +933,7 @@ public class Phase3AutomatedTests {
         @AfterEach
         public void cleanup() throws SQLException {
             // Clean up all test data
-            dbHelper.statement.execute("DELETE FROM reviewer_requests");
+            statement.execute("DELETE FROM reviewer_requests");
         }
     }
     
@@ -940,10 +948,11 @@ public class Phase3AutomatedTests {
         @BeforeEach
         public void setupAdditionalData() throws SQLException {
             // Clean up existing data in reverse order of dependencies
-            dbHelper2.statement.execute("DELETE FROM Feedback");
-            dbHelper.statement.execute("DELETE FROM reviews");
-            dbHelper2.statement.execute("DELETE FROM TrustedReviewers");
-            dbHelper2.statement.execute("DELETE FROM ReadStatus");
+            statement.execute("DELETE FROM Feedback");
+            statement.execute("DELETE FROM conversation_summary");
+            statement.execute("DELETE FROM reviews");
+            statement.execute("DELETE FROM TrustedReviewers");
+            statement.execute("DELETE FROM ReadStatus");
         }
 
         /**
@@ -1179,10 +1188,11 @@ public class Phase3AutomatedTests {
         @AfterEach
         public void cleanupAdditionalData() throws SQLException {
             // Clean up all test data in reverse order of dependencies
-            dbHelper2.statement.execute("DELETE FROM Feedback");
-            dbHelper.statement.execute("DELETE FROM reviews");
-            dbHelper2.statement.execute("DELETE FROM TrustedReviewers");
-            dbHelper2.statement.execute("DELETE FROM ReadStatus");
+            statement.execute("DELETE FROM Feedback");
+            statement.execute("DELETE FROM conversation_summary");
+            statement.execute("DELETE FROM reviews");
+            statement.execute("DELETE FROM TrustedReviewers");
+            statement.execute("DELETE FROM ReadStatus");
             
             // Clean up questions and answers
             List<Answer> allAnswers = answers.getAllAnswers();
@@ -1216,15 +1226,16 @@ public class Phase3AutomatedTests {
     public void tearDown() throws SQLException {
         try {
             // Clean up messages first because of potential foreign key constraints
-            dbHelper2.statement.execute("DELETE FROM Feedback");
+            statement.execute("DELETE FROM Feedback");
+            statement.execute("DELETE FROM conversation_summary");
             // Clean up reviews
-            dbHelper.statement.execute("DELETE FROM reviews");
+            statement.execute("DELETE FROM reviews");
             // Clean up read status
-             dbHelper2.statement.execute("DELETE FROM ReadStatus");
+             statement.execute("DELETE FROM ReadStatus");
             // Clean up trusted reviewers
-            dbHelper2.statement.execute("DELETE FROM TrustedReviewers");
+            statement.execute("DELETE FROM TrustedReviewers");
             // Clean up reviewer requests
-            dbHelper.statement.execute("DELETE FROM reviewer_requests");
+            statement.execute("DELETE FROM reviewer_requests");
             // Clean up answers (use manager to handle potential related data)
             List<Answer> allAnswers = answers.getAllAnswers();
              for (Answer answer : allAnswers) {
@@ -1246,12 +1257,12 @@ public class Phase3AutomatedTests {
                  }
              }
         } finally {
-            // Close database connections
-            if (dbHelper != null && dbHelper.connection != null) {
-                dbHelper.connection.close();
+            // Return the borrowed connection to the pool
+            if (statement != null) {
+                statement.close();
             }
-            if (dbHelper2 != null && dbHelper2.connection != null) {
-                dbHelper2.connection.close();
+            if (connection != null) {
+                connection.close();
             }
         }
     }
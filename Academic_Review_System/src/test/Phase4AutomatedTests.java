@@ -1,6 +1,7 @@
 package test;
 
 import main.*;
+import databasePart1.ConnectionPool;
 import databasePart1.DatabaseHelper;
 import databasePart1.DatabaseHelper2;
 import databasePart1.DatabaseHelper3;
@@ -9,6 +10,7 @@ import databasePart1.DatabaseHelper4;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -45,6 +47,8 @@ public class Phase4AutomatedTests {
     private DatabaseHelper2 dbHelper2;
     private DatabaseHelper4 dbHelper4;
     private Questions questions;
+    private Connection connection;
+    private Statement statement;
     private Answers answers;
     private int testQuestionId;
     private int testAnswerId;
@@ -68,9 +72,12 @@ public class Phase4AutomatedTests {
         dbHelper2.connectToDatabase();
         dbHelper4 = new DatabaseHelper4();
         dbHelper4.connectToDatabase();
+        // Borrow a connection from the shared pool for direct SQL in the tests
+        connection = ConnectionPool.getInstance().getConnection();
+        statement = connection.createStatement();
         
         // Initialize managers
-        questions = new Questions(dbHelper2, dbHelper2.connection);
+        questions = new Questions(dbHelper2);
         answers = new Answers(dbHelper2);
         
         // Set up test data
@@ -91,7 +98,7 @@ public class Phase4AutomatedTests {
             boolean columnsFound = false;
             String roleColumnName = null;
             
-            try (Statement stmt = dbHelper2.connection.createStatement();
+            try (Statement stmt = connection.createStatement();
                  ResultSet rs = stmt.executeQuery(showColumnsSQL)) {
                 while (rs.next()) {
                     columnsFound = true;
@@ -110,7 +117,7 @@ public class Phase4AutomatedTests {
             
             if (!columnsFound) {
                 // Try to create the table
-                try (Statement stmt = dbHelper2.connection.createStatement()) {
+                try (Statement stmt = connection.createStatement()) {
                     stmt.execute("CREATE TABLE IF NOT EXISTS cse360users (userName VARCHAR(255) PRIMARY KEY, password VARCHAR(255), userRole VARCHAR(50))");
                     roleColumnName = "userRole";
                 } catch (SQLException e) {
@@ -125,7 +132,7 @@ public class Phase4AutomatedTests {
             
             // Check if test users already exist
             String checkUserSQL = "SELECT COUNT(*) FROM cse360users WHERE userName = ?";
-            try (PreparedStatement pstmt = dbHelper2.connection.prepareStatement(checkUserSQL)) {
+            try (PreparedStatement pstmt = connection.prepareStatement(checkUserSQL)) {
                 
                 // Create testInstructor if it doesn't exist
                 pstmt.setString(1, testInstructorUsername);
@@ -133,7 +140,7 @@ public class Phase4AutomatedTests {
                     if (rs.next() && rs.getInt(1) == 0) {
                         // User doesn't exist, create it
                         String insertUserSQL = "INSERT INTO cse360users (userName, password, " + roleColumnName + ") VALUES (?, ?, ?)";
-                        try (PreparedStatement insertStmt = dbHelper2.connection.prepareStatement(insertUserSQL)) {
+                        try (PreparedStatement insertStmt = connection.prepareStatement(insertUserSQL)) {
                             insertStmt.setString(1, testInstructorUsername);
                             insertStmt.setString(2, "password");
                             insertStmt.setString(3, "instructor");
@@ -148,7 +155,7 @@ public class Phase4AutomatedTests {
                     if (rs.next() && rs.getInt(1) == 0) {
                         // User doesn't exist, create it
                         String insertUserSQL = "INSERT INTO cse360users (userName, password, " + roleColumnName + ") VALUES (?, ?, ?)";
-                        try (PreparedStatement insertStmt = dbHelper2.connection.prepareStatement(insertUserSQL)) {
+                        try (PreparedStatement insertStmt = connection.prepareStatement(insertUserSQL)) {
                             insertStmt.setString(1, testAdminUsername);
                             insertStmt.setString(2, "password");
                             insertStmt.setString(3, "admin");
@@ -163,7 +170,7 @@ public class Phase4AutomatedTests {
                     if (rs.next() && rs.getInt(1) == 0) {
                         // User doesn't exist, create it
                         String insertUserSQL = "INSERT INTO cse360users (userName, password, " + roleColumnName + ") VALUES (?, ?, ?)";
-                        try (PreparedStatement insertStmt = dbHelper2.connection.prepareStatement(insertUserSQL)) {
+                        try (PreparedStatement insertStmt = connection.prepareStatement(insertUserSQL)) {
                             insertStmt.setString(1, testReviewerUsername);
                             insertStmt.setString(2, "password");
                             insertStmt.setString(3, "reviewer");
@@ -178,7 +185,7 @@ public class Phase4AutomatedTests {
                     if (rs.next() && rs.getInt(1) == 0) {
                         // User doesn't exist, create it
                         String insertUserSQL = "INSERT INTO cse360users (userName, password, " + roleColumnName + ") VALUES (?, ?, ?)";
-                        try (PreparedStatement insertStmt = dbHelper2.connection.prepareStatement(insertUserSQL)) {
+                        try (PreparedStatement insertStmt = connection.prepareStatement(insertUserSQL)) {
                             insertStmt.setString(1, testStudentUsername);
                             insertStmt.setString(2, "password");
                             insertStmt.setString(3, "student");
@@ -974,7 +981,7 @@ public class Phase4AutomatedTests {
                 assertFalse(dbHelper.isStudentBanned(testStudentUsername));
                 
                 // Clear any existing warnings
-                try (PreparedStatement stmt = dbHelper2.connection.prepareStatement(
+                try (PreparedStatement stmt = connection.prepareStatement(
                         "DELETE FROM Feedback WHERE receiver = ? AND sender = 'SYSTEM WARNING'")) {
                     stmt.setString(1, testStudentUsername);
                     stmt.executeUpdate();
@@ -1004,7 +1011,7 @@ public class Phase4AutomatedTests {
                 dbHelper.unbanStudent(testStudentUsername);
                 
                 // Remove the test warnings
-                try (PreparedStatement stmt = dbHelper2.connection.prepareStatement(
+                try (PreparedStatement stmt = connection.prepareStatement(
                         "DELETE FROM Feedback WHERE receiver = ? AND sender = 'SYSTEM WARNING'")) {
                     stmt.setString(1, testStudentUsername);
                     stmt.executeUpdate();
@@ -1047,7 +1054,7 @@ public class Phase4AutomatedTests {
             // Verify the notification was sent
             String sql = "SELECT COUNT(*) FROM Feedback WHERE receiver = ? AND sender = 'SYSTEM NOTIFICATION' " +
                          "AND content LIKE '%ACCOUNT BANNED%'";
-            PreparedStatement pstmt = dbHelper2.connection.prepareStatement(sql);
+            PreparedStatement pstmt = connection.prepareStatement(sql);
             pstmt.setString(1, testStudentUsername);
             ResultSet rs = pstmt.executeQuery();
             
@@ -1076,23 +1083,23 @@ public class Phase4AutomatedTests {
     public void tearDown() throws SQLException {
         try {
             // Clean up admin requests
-            try (PreparedStatement pstmt = dbHelper4.connection.prepareStatement("DELETE FROM AdminRequests")) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM AdminRequests")) {
                 pstmt.executeUpdate();
             } catch (SQLException e) {
                 System.err.println("Error cleaning up admin requests during teardown: " + e.getMessage());
             }
             
             // Clean up reviewer scorecards
-            try (PreparedStatement pstmt = dbHelper.connection.prepareStatement("DELETE FROM reviewer_scorecard")) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM reviewer_scorecard")) {
                 pstmt.executeUpdate();
             } catch (SQLException e) {
                 System.err.println("Error cleaning up reviewer scorecards during teardown: " + e.getMessage());
             }
             
             // Clean up reviews
-            dbHelper.statement.execute("DELETE FROM reviews");
+            statement.execute("DELETE FROM reviews");
             // Clean up reviewer profiles
-            dbHelper.statement.execute("DELETE FROM reviewer_profile");
+            statement.execute("DELETE FROM reviewer_profile");
             // Clean up answers
             List<Answer> allAnswers = answers.getAllAnswers();
             for (Answer answer : allAnswers) {
@@ -1114,15 +1121,12 @@ public class Phase4AutomatedTests {
                 }
             }
         } finally {
-            // Close database connections
-            if (dbHelper != null && dbHelper.connection != null) {
-                dbHelper.connection.close();
+            // Return the borrowed connection to the pool
+            if (statement != null) {
+                statement.close();
             }
-            if (dbHelper2 != null && dbHelper2.connection != null) {
-                dbHelper2.connection.close();
-            }
-            if (dbHelper4 != null && dbHelper4.connection != null) {
-                dbHelper4.connection.close();
+            if (connection != null) {
+                connection.close();
             }
         }
     }
@@ -0,0 +1,3706 @@
+package test;
+
+import databasePart1.*;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import main.Answer;
+import main.Answers;
+import main.ApiServer;
+import main.ChangeSet;
+import main.ConversationSummary;
+import main.Feedback;
+import main.Json;
+import main.Page;
+import main.PageCursor;
+import main.Question;
+import main.QuestionRow;
+import main.Questions;
+import main.RankedReview;
+import main.Review;
+import main.SearchHit;
+
+/**
+ * <p> Title: Phase5 Automated Tests. </p>
+ *
+ * <p> Description: A test suite for validating the performance infrastructure
+ * of the database layer including:
+ *   - Shared connection pool
+ *   - Per-connection prepared statement cache
+ *   - Versioned schema migrations
+ *   - Incrementally maintained conversation summaries
+ *   - Question table rows loaded in one aggregate query
+ *   - Trust-weighted review ranking
+ *   - Full-text search index
+ *   - Asynchronous database calls on virtual threads
+ *   - Keyset-paginated question and answer lists
+ *   - Row versions and tombstones for delta sync
+ *   - Composable question queries
+ *   - Broadcast messages with a recipient fan-out
+ *   - Unit-of-work transactions and group commit
+ *   - Moderation ledger, warning counters and escalation rules
+ *   - Bulk ban status, the in-memory ban registry and the shared database watcher
+ *   - Indexed role bitmask and bulk role changes
+ *   - Session principal loaded at login and invalidated on changes
+ *   - Storage configuration and the shared H2 TCP server
+ *   - Headless HTTP/JSON API
+ *   - Change events published after commit
+ *   - Synthetic workload generator
+ *   - JDBC instrumentation and N+1 detection
+ *   - Flight recorder events for UI actions and database calls
+ *   - Operations dashboard readings
+ * </p>
+ *
+ * <p> Copyright: Team 60 CSE 360 </p>
+ *
+ * @version 0.00        2025-04-01    Initial test suite implementation
+ */
+public class Phase5AutomatedTests {
+
+    // Private in-memory database so the pool tests never touch the application data
+    private static final String TEST_DB_URL = "jdbc:h2:mem:phase5pool;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Test suite for the ConnectionPool.
+     */
+    @Nested
+    @DisplayName("Connection Pool Tests")
+    public class ConnectionPoolTests {
+
+        private ConnectionPool pool;
+
+        @AfterEach
+        public void tearDown() {
+            if (pool != null) {
+                pool.close();
+            }
+        }
+
+        @Test
+        @DisplayName("Returned connections should be reused")
+        public void testConnectionReuse() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 2, 1_000, 60_000, 0);
+            String first;
+            try (Connection connection = pool.getConnection()) {
+                first = connection.unwrap(Connection.class).toString();
+                assertEquals(1, pool.getActiveCount());
+            }
+            assertEquals(0, pool.getActiveCount());
+            assertEquals(1, pool.getIdleCount());
+
+            try (Connection connection = pool.getConnection()) {
+                assertEquals(first, connection.unwrap(Connection.class).toString());
+            }
+            assertEquals(1, pool.getTotalCount());
+        }
+
+        @Test
+        @DisplayName("Closed lease should reject further use")
+        public void testClosedLeaseRejected() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 1, 1_000, 60_000, 0);
+            Connection connection = pool.getConnection();
+            connection.close();
+            assertTrue(connection.isClosed());
+            assertThrows(SQLException.class, () -> connection.createStatement());
+        }
+
+        @Test
+        @DisplayName("Borrowing from an exhausted pool should time out")
+        public void testLeaseTimeout() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 1, 100, 60_000, 0);
+            try (Connection held = pool.getConnection()) {
+                assertFalse(held.isClosed());
+                long start = System.currentTimeMillis();
+                assertThrows(SQLException.class, () -> pool.getConnection());
+                assertTrue(System.currentTimeMillis() - start >= 100);
+            }
+            // The pool recovers once the connection comes back
+            try (Connection connection = pool.getConnection()) {
+                assertNotNull(connection);
+            }
+        }
+
+        @Test
+        @DisplayName("Idle connections above the minimum should be evicted")
+        public void testIdleEviction() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 1, 3, 1_000, 0, 0);
+            Connection a = pool.getConnection();
+            Connection b = pool.getConnection();
+            Connection c = pool.getConnection();
+            a.close();
+            b.close();
+            c.close();
+            assertEquals(3, pool.getTotalCount());
+
+            pool.runMaintenance();
+            assertEquals(1, pool.getTotalCount());
+            assertEquals(1, pool.getIdleCount());
+        }
+
+        @Test
+        @DisplayName("Long-held leases should be reported as leaks")
+        public void testLeakDetection() throws SQLException, InterruptedException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 2, 1_000, 60_000, 10);
+            try (Connection connection = pool.getConnection()) {
+                Thread.sleep(20);
+                pool.runMaintenance();
+                assertEquals(1, pool.getLeakCount());
+                assertFalse(connection.isClosed());
+
+                // A lease is only reported once
+                pool.runMaintenance();
+                assertEquals(1, pool.getLeakCount());
+            }
+        }
+
+        @Test
+        @DisplayName("A leak report should only carry the borrower's stack while leak tracing is on")
+        public void testLeakTrace() throws SQLException, InterruptedException {
+            java.io.PrintStream err = System.err;
+            java.io.ByteArrayOutputStream captured = new java.io.ByteArrayOutputStream();
+            System.setErr(new java.io.PrintStream(captured, true));
+            try {
+                pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 2, 1_000, 60_000, 10, 8);
+                try (Connection connection = pool.getConnection()) {
+                    Thread.sleep(20);
+                    pool.runMaintenance();
+                    assertFalse(connection.isClosed());
+                }
+                String untraced = captured.toString();
+                assertTrue(untraced.contains("by thread " + Thread.currentThread().getName()));
+                assertFalse(untraced.contains("testLeakTrace"));
+                pool.close();
+
+                captured.reset();
+                pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 2, 1_000, 60_000, 10, true, 8);
+                try (Connection connection = pool.getConnection()) {
+                    Thread.sleep(20);
+                    pool.runMaintenance();
+                    assertFalse(connection.isClosed());
+                }
+                assertTrue(captured.toString().contains("testLeakTrace"));
+            } finally {
+                System.setErr(err);
+            }
+        }
+    }
+
+    /**
+     * Test suite for the per-connection StatementCache.
+     */
+    @Nested
+    @DisplayName("Statement Cache Tests")
+    public class StatementCacheTests {
+
+        private ConnectionPool pool;
+
+        @AfterEach
+        public void tearDown() {
+            if (pool != null) {
+                pool.close();
+            }
+        }
+
+        private int selectOne(Connection connection, String sql) throws SQLException {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Repeated SQL should be served from the cache")
+        public void testCacheHits() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 1, 1_000, 60_000, 0, 8);
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = pool.getConnection()) {
+                    assertEquals(1, selectOne(connection, "SELECT 1"));
+                }
+            }
+            assertEquals(1, pool.getStatementCacheMisses());
+            assertEquals(2, pool.getStatementCacheHits());
+        }
+
+        @Test
+        @DisplayName("Least recently used statements should be evicted when full")
+        public void testLruEviction() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 1, 1_000, 60_000, 0, 2);
+            try (Connection connection = pool.getConnection()) {
+                selectOne(connection, "SELECT 1");
+                selectOne(connection, "SELECT 2");
+                selectOne(connection, "SELECT 1"); // SELECT 2 is now least recently used
+                selectOne(connection, "SELECT 3"); // Evicts SELECT 2
+                selectOne(connection, "SELECT 1");
+                selectOne(connection, "SELECT 2");
+            }
+            // Misses: SELECT 1, 2, 3 and the evicted SELECT 2
+            assertEquals(4, pool.getStatementCacheMisses());
+            assertEquals(2, pool.getStatementCacheHits());
+        }
+
+        @Test
+        @DisplayName("Cached statements should start with cleared parameters")
+        public void testParametersCleared() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 1, 1_000, 60_000, 0, 8);
+            String sql = "SELECT CAST(? AS INT)";
+            try (Connection connection = pool.getConnection()) {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, 7);
+                    pstmt.executeQuery().close();
+                }
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    assertThrows(SQLException.class, () -> pstmt.executeQuery());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("The same SQL may be open twice on one connection")
+        public void testNestedSameSql() throws SQLException {
+            pool = new ConnectionPool(TEST_DB_URL, "sa", "", 0, 1, 1_000, 60_000, 0, 8);
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement outer = connection.prepareStatement("SELECT 5");
+                 PreparedStatement inner = connection.prepareStatement("SELECT 5")) {
+                assertNotSame(outer, inner);
+                assertSame(connection, outer.getConnection());
+                try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                    assertTrue(a.next());
+                    assertTrue(b.next());
+                    assertEquals(a.getInt(1), b.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test suite for SchemaMigrations.
+     */
+    @Nested
+    @DisplayName("Schema Migration Tests")
+    public class SchemaMigrationTests {
+
+        private ConnectionPool pool;
+
+        @BeforeEach
+        public void setUp() {
+            // Each test gets its own empty database
+            pool = new ConnectionPool("jdbc:h2:mem:phase5migrations", "sa", "", 1, 2, 1_000, 60_000, 0);
+        }
+
+        @AfterEach
+        public void tearDown() {
+            pool.close();
+        }
+
+        private int count(String sql) throws SQLException {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        @Test
+        @DisplayName("A fresh database should be migrated to the latest version")
+        public void testFreshDatabase() throws SQLException {
+            int applied = SchemaMigrations.migrate(pool);
+            assertEquals(SchemaMigrations.getLatestVersion(), applied);
+            assertEquals(SchemaMigrations.getLatestVersion(), SchemaMigrations.getCurrentVersion(pool));
+            assertEquals(1, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_FEEDBACK_RECEIVER_READ'"));
+            assertEquals(1, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_ADMIN_REQUESTS_STATUS'"));
+        }
+
+        @Test
+        @DisplayName("A current schema should not be migrated again")
+        public void testCurrentSchemaSkipped() throws SQLException {
+            SchemaMigrations.migrate(pool);
+            assertEquals(0, SchemaMigrations.migrate(pool));
+        }
+
+        @Test
+        @DisplayName("A database created before versioning should be adopted")
+        public void testLegacyDatabase() throws SQLException {
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE Feedback (feedbackId INT AUTO_INCREMENT PRIMARY KEY, "
+                        + "sender VARCHAR(255), receiver VARCHAR(255), content TEXT, timestamp TIMESTAMP, "
+                        + "questionId INT, answerId INT, reviewId INT, parentMessageId INT, isRead BOOLEAN DEFAULT FALSE)");
+                statement.execute("INSERT INTO Feedback (sender, receiver, content) VALUES ('a', 'b', 'kept')");
+            }
+            SchemaMigrations.migrate(pool);
+            assertEquals(1, count("SELECT COUNT(*) FROM Feedback WHERE content = 'kept'"));
+        }
+
+        @Test
+        @DisplayName("An applied migration that was changed should be rejected")
+        public void testChecksumMismatch() throws SQLException {
+            SchemaMigrations.migrate(pool);
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE schema_version SET checksum = checksum + 1 WHERE version = 1");
+            }
+            assertThrows(SQLException.class, () -> SchemaMigrations.migrate(pool));
+        }
+
+        @Test
+        @DisplayName("A migration rewritten to be rerunnable should accept its earlier checksum")
+        public void testEarlierChecksumAccepted() throws SQLException {
+            SchemaMigrations.migrate(pool);
+            int current = count("SELECT checksum FROM schema_version WHERE version = 3");
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE schema_version SET checksum = 1758002664 WHERE version = 3");
+            }
+            assertEquals(0, SchemaMigrations.migrate(pool));
+            assertEquals(current, count("SELECT checksum FROM schema_version WHERE version = 3"));
+        }
+
+        @Test
+        @DisplayName("Backfills should not duplicate rows when their migration runs again")
+        public void testBackfillsRerunnable() throws SQLException {
+            SchemaMigrations.migrate(pool);
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO Feedback (sender, receiver, content, timestamp, questionId) "
+                        + "VALUES ('SYSTEM WARNING', 'p5mig_amy', 'p5 warning', CURRENT_TIMESTAMP, 0)");
+            }
+            for (int run = 0; run < 2; run++) {
+                // As if the migrations had failed after their backfills
+                try (Connection connection = pool.getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DELETE FROM schema_version WHERE version IN (3, 7)");
+                }
+                assertEquals(2, SchemaMigrations.migrate(pool));
+            }
+            assertEquals(1, count("SELECT COUNT(*) FROM moderation_ledger WHERE student = 'p5mig_amy'"));
+            assertEquals(1, count("SELECT warnings FROM moderation_counters WHERE student = 'p5mig_amy'"));
+            assertEquals(2, count("SELECT COUNT(*) FROM conversation_summary WHERE owner = 'p5mig_amy' "
+                    + "OR partner = 'p5mig_amy'"));
+        }
+
+        @Test
+        @DisplayName("Clients migrating the same database at once should apply each migration once")
+        public void testConcurrentMigrations() throws Exception {
+            // Keeps the in-memory database open while the clients come and go
+            try (Connection keepAlive = pool.getConnection()) {
+                List<ConnectionPool> clients = new ArrayList<>();
+                List<java.util.concurrent.Future<Integer>> results = new ArrayList<>();
+                java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(3);
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        ConnectionPool client = new ConnectionPool("jdbc:h2:mem:phase5migrations", "sa", "",
+                                0, 2, 10_000, 60_000, 0);
+                        clients.add(client);
+                        results.add(executor.submit(() -> SchemaMigrations.migrate(client)));
+                    }
+                    int applied = 0;
+                    for (java.util.concurrent.Future<Integer> result : results) {
+                        applied += result.get();
+                    }
+                    assertEquals(SchemaMigrations.getLatestVersion(), applied);
+                    assertEquals(SchemaMigrations.getLatestVersion(), SchemaMigrations.getCurrentVersion(pool));
+                    assertFalse(keepAlive.isClosed());
+                } finally {
+                    executor.shutdownNow();
+                    clients.forEach(ConnectionPool::close);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test suite for the conversation_summary table behind the inbox.
+     */
+    @Nested
+    @DisplayName("Conversation Summary Tests")
+    public class ConversationSummaryTests {
+
+        private DatabaseHelper2 dbHelper2;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            clearMessages();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearMessages();
+        }
+
+        private void clearMessages() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM Feedback WHERE sender LIKE 'p5%' OR receiver LIKE 'p5%'");
+                statement.execute("DELETE FROM conversation_summary WHERE owner LIKE 'p5%' OR partner LIKE 'p5%'");
+            }
+        }
+
+        private void send(String sender, String receiver, String content, long time) throws SQLException {
+            dbHelper2.addFeedback(new Feedback(0, sender, receiver, content, new Date(time), 0));
+        }
+
+        @Test
+        @DisplayName("Summaries should carry the latest message and unread count, newest first")
+        public void testSummaryContents() throws SQLException {
+            send("p5bob", "p5alice", "hello alice", 1_000);
+            send("p5carol", "p5alice", "first", 2_000);
+            send("p5carol", "p5alice", "second", 3_000);
+            send("p5alice", "p5bob", "reply to bob", 4_000);
+
+            List<ConversationSummary> inbox = dbHelper2.getConversationSummaries("p5alice");
+            assertEquals(2, inbox.size());
+            assertEquals("p5bob", inbox.get(0).getPartner());
+            assertEquals("reply to bob", inbox.get(0).getLastMessageSnippet());
+            assertEquals(1, inbox.get(0).getUnreadCount());
+            assertEquals("p5carol", inbox.get(1).getPartner());
+            assertEquals("second", inbox.get(1).getLastMessageSnippet());
+            assertEquals(2, inbox.get(1).getUnreadCount());
+
+            // The sender's own side never counts as unread
+            List<ConversationSummary> carolInbox = dbHelper2.getConversationSummaries("p5carol");
+            assertEquals(1, carolInbox.size());
+            assertEquals(0, carolInbox.get(0).getUnreadCount());
+        }
+
+        @Test
+        @DisplayName("Reading a conversation should reset only its unread count")
+        public void testMarkAsRead() throws SQLException {
+            send("p5bob", "p5alice", "one", 1_000);
+            send("p5carol", "p5alice", "two", 2_000);
+
+            dbHelper2.markConversationAsRead("p5alice", "p5bob");
+            List<ConversationSummary> inbox = dbHelper2.getConversationSummaries("p5alice");
+            assertEquals(1, inbox.get(0).getUnreadCount()); // p5carol
+            assertEquals(0, inbox.get(1).getUnreadCount()); // p5bob
+            assertEquals(dbHelper2.getUnreadMessageCount("p5alice"),
+                    inbox.get(0).getUnreadCount() + inbox.get(1).getUnreadCount());
+        }
+
+        @Test
+        @DisplayName("Older messages stored late should not replace the preview")
+        public void testOutOfOrderMessage() throws SQLException {
+            send("p5bob", "p5alice", "newer", 5_000);
+            send("p5bob", "p5alice", "older", 1_000);
+
+            ConversationSummary summary = dbHelper2.getConversationSummaries("p5alice").get(0);
+            assertEquals("newer", summary.getLastMessageSnippet());
+            assertEquals(5_000, summary.getLastMessageTime().getTime());
+            assertEquals(2, summary.getUnreadCount());
+        }
+
+        @Test
+        @DisplayName("Deleting a message should rebuild the pair's summary")
+        public void testDeleteRebuildsSummary() throws SQLException {
+            send("p5bob", "p5alice", "keep", 1_000);
+            send("p5bob", "p5alice", "remove", 2_000);
+            int latestId = dbHelper2.getConversation("p5bob", "p5alice").get(1).getFeedbackId();
+
+            dbHelper2.deleteFeedback(latestId);
+            ConversationSummary summary = dbHelper2.getConversationSummaries("p5alice").get(0);
+            assertEquals("keep", summary.getLastMessageSnippet());
+            assertEquals(1, summary.getUnreadCount());
+
+            int remainingId = dbHelper2.getConversation("p5bob", "p5alice").get(0).getFeedbackId();
+            dbHelper2.deleteFeedback(remainingId);
+            assertTrue(dbHelper2.getConversationSummaries("p5alice").isEmpty());
+            assertTrue(dbHelper2.getConversationSummaries("p5bob").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Conversations should carry what their messages reference")
+        public void testConversationReferences() throws SQLException {
+            dbHelper2.addQuestion(new Question(0, "p5 conversation question", "p5bob", new Date(), false));
+            int questionId;
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT MAX(questionId) FROM Questions WHERE author = 'p5bob'")) {
+                rs.next();
+                questionId = rs.getInt(1);
+            }
+            try {
+                dbHelper2.addAnswer(new Answer(0, questionId, "p5 conversation answer", "p5carol", new Date()));
+                int answerId = dbHelper2.getAnswerPage(questionId, null, 1).getItems().get(0).getAnswerId();
+                dbHelper2.addFeedback(new Feedback(0, "p5bob", "p5alice", "about the answer", new Date(1_000),
+                        questionId, answerId, null, null));
+                dbHelper2.addFeedback(new Feedback(0, "p5bob", "p5alice", "about a lost question", new Date(2_000),
+                        Integer.MAX_VALUE, null, null, null));
+
+                List<Feedback> conversation = dbHelper2.getConversation("p5alice", "p5bob");
+                assertTrue(conversation.get(0).isReferencedQuestionFound());
+                assertEquals("p5carol", conversation.get(0).getReferencedAnswerAuthor());
+                assertNull(conversation.get(0).getReferencedReviewer());
+                assertFalse(conversation.get(1).isReferencedQuestionFound());
+                assertNull(conversation.get(1).getReferencedAnswerAuthor());
+            } finally {
+                try (Connection connection = ConnectionPool.getInstance().getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DELETE FROM Answers WHERE questionId = " + questionId);
+                    statement.execute("DELETE FROM Questions WHERE questionId = " + questionId);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Summaries should carry the partner's roles")
+        public void testPartnerRoles() throws SQLException {
+            DatabaseHelper dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            try {
+                dbHelper.register(new main.User("p5csinstructor", "Passw0rd!", "P5 Instructor",
+                        "p5csinstructor@example.com", new String[] { "instructor", "reviewer" }));
+                send("p5csinstructor", "p5alice", "office hours", 1_000);
+                send("p5bob", "p5alice", "hi", 2_000);
+
+                List<ConversationSummary> inbox = dbHelper2.getConversationSummaries("p5alice");
+                assertEquals("p5bob", inbox.get(0).getPartner());
+                assertEquals(0, inbox.get(0).getPartnerRoleMask());
+                assertFalse(inbox.get(0).partnerHasRole("instructor"));
+                assertEquals("p5csinstructor", inbox.get(1).getPartner());
+                assertTrue(inbox.get(1).partnerHasRole("instructor"));
+                assertTrue(inbox.get(1).partnerHasRole("reviewer"));
+                assertFalse(inbox.get(1).partnerHasRole("student"));
+            } finally {
+                try (Connection connection = ConnectionPool.getInstance().getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DELETE FROM cse360users WHERE userName = 'p5csinstructor'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Test suite for the QuestionRow projection used by the question tables.
+     */
+    @Nested
+    @DisplayName("Question Row Tests")
+    public class QuestionRowTests {
+
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            dbHelper3 = new DatabaseHelper3();
+            dbHelper3.connectToDatabase();
+            clearQuestions();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearQuestions();
+        }
+
+        private void clearQuestions() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                String questions = "SELECT questionId FROM Questions WHERE author = 'p5author'";
+                statement.execute("DELETE FROM reviews WHERE question_id IN (" + questions + ")");
+                statement.execute("DELETE FROM ReadStatus WHERE answerId IN "
+                        + "(SELECT answerId FROM Answers WHERE questionId IN (" + questions + "))");
+                statement.execute("DELETE FROM Answers WHERE questionId IN (" + questions + ")");
+                statement.execute("UPDATE Questions SET referenceQuestionId = NULL WHERE author = 'p5author'");
+                statement.execute("DELETE FROM Questions WHERE author = 'p5author'");
+            }
+        }
+
+        private QuestionRow onlyRow(String viewer, String keyword) throws SQLException {
+            List<QuestionRow> rows = dbHelper2.searchQuestionRows(viewer, keyword);
+            assertEquals(1, rows.size());
+            return rows.get(0);
+        }
+
+        @Test
+        @DisplayName("Rows should carry the reference preview and all counts")
+        public void testRowContents() throws SQLException {
+            dbHelper2.addQuestion(new Question(0, "p5 base question", "p5author", new Date()));
+            int baseId = onlyRow("p5viewer", "p5 base").getQuestionId();
+
+            String longContent = "p5 follow-up " + "x".repeat(300);
+            dbHelper2.addQuestion(new Question(0, longContent, "p5author", new Date(), Integer.valueOf(baseId)));
+            int followUpId = onlyRow("p5viewer", "p5 follow-up").getQuestionId();
+
+            dbHelper2.addAnswer(new Answer(0, followUpId, "first answer", "p5helper", new Date()));
+            dbHelper2.addAnswer(new Answer(0, followUpId, "second answer", "p5helper", new Date()));
+            int answerId = dbHelper2.getAnswersForQuestion(followUpId).get(0).getAnswerId();
+            dbHelper3.addReview(new Review(0, "p5reviewer", "question review", new Date(), followUpId, null));
+            // Reviews of an answer are not counted for the question
+            dbHelper3.addReview(new Review(0, "p5reviewer", "answer review", new Date(), followUpId, answerId));
+            dbHelper2.markAnswersAsRead(followUpId, "p5viewer");
+
+            QuestionRow row = onlyRow("p5viewer", "p5 follow-up");
+            assertTrue(row.hasReference());
+            assertEquals(Integer.valueOf(baseId), row.getReferenceQuestionId());
+            assertEquals("p5 base question", row.getReferencePreview());
+            assertEquals("p5author", row.getReferenceAuthor());
+            assertTrue(row.getContentPreview().endsWith("..."));
+            assertTrue(row.getContentPreview().length() < longContent.length());
+            assertEquals(2, row.getAnswerCount());
+            assertEquals(0, row.getUnreadCount());
+            assertEquals(1, row.getReviewCount());
+
+            // Unread counts are per viewer
+            assertEquals(2, onlyRow("p5other", "p5 follow-up").getUnreadCount());
+            assertEquals(dbHelper2.getUnreadAnswersCount(followUpId, "p5other"),
+                    onlyRow("p5other", "p5 follow-up").getUnreadCount());
+
+            QuestionRow base = onlyRow("p5viewer", "p5 base");
+            assertFalse(base.hasReference());
+            assertEquals(0, base.getAnswerCount());
+            assertEquals(0, base.getReviewCount());
+        }
+
+        @Test
+        @DisplayName("Author and status filters should match the question lists")
+        public void testFilters() throws SQLException {
+            dbHelper2.addQuestion(new Question(0, "p5 open question", "p5author", new Date(), false));
+            dbHelper2.addQuestion(new Question(0, "p5 resolved question", "p5author", new Date(), true));
+
+            assertEquals(2, dbHelper2.getQuestionRowsByAuthor("p5viewer", "P5AUTH").size());
+            assertTrue(dbHelper2.getQuestionRowsByStatus("p5viewer", true).stream()
+                    .anyMatch(r -> r.getContentPreview().equals("p5 resolved question")));
+            assertTrue(dbHelper2.getQuestionRowsByStatus("p5viewer", false).stream()
+                    .noneMatch(r -> r.getContentPreview().equals("p5 resolved question")));
+            assertEquals(dbHelper2.getAllQuestions().size(), dbHelper2.getQuestionRows("p5viewer").size());
+        }
+    }
+
+    /**
+     * Test suite for the review ranking query.
+     */
+    @Nested
+    @DisplayName("Review Ranking Tests")
+    public class ReviewRankingTests {
+
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+        private int questionId;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            dbHelper3 = new DatabaseHelper3();
+            dbHelper3.connectToDatabase();
+            clearRankingData();
+
+            dbHelper2.addQuestion(new Question(0, "p5 ranked question", "p5ranker", new Date()));
+            questionId = dbHelper2.getQuestionRowsByAuthor("p5student", "p5ranker").get(0).getQuestionId();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearRankingData();
+        }
+
+        private void clearRankingData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM reviews WHERE reviewer LIKE 'p5rev%'");
+                statement.execute("DELETE FROM TrustedReviewers WHERE studentUsername = 'p5student'");
+                statement.execute("DELETE FROM reviewer_scorecard WHERE reviewer_username LIKE 'p5rev%'");
+                statement.execute("DELETE FROM Questions WHERE author = 'p5ranker'");
+            }
+        }
+
+        private void review(String reviewer, long time) throws SQLException {
+            dbHelper3.addReview(new Review(0, reviewer, "review by " + reviewer, new Date(time), questionId, null));
+        }
+
+        @Test
+        @DisplayName("Trust weightage should rank first, scorecards should break ties")
+        public void testRankingOrder() throws SQLException {
+            review("p5revA", 1_000); // untrusted, low score
+            review("p5revB", 2_000); // untrusted, high score
+            review("p5revC", 3_000); // trusted with weightage 1
+            review("p5revD", 4_000); // trusted with weightage 3
+            dbHelper3.updateReviewerScorecard("p5revA", 1, 1, 1, 1);
+            dbHelper3.updateReviewerScorecard("p5revB", 5, 5, 5, 5);
+            dbHelper2.addTrustedReviewer("p5student", "p5revC", 1);
+            dbHelper2.addTrustedReviewer("p5student", "p5revD", 3);
+
+            List<RankedReview> ranked = dbHelper3.getRankedReviewsForQuestion(questionId, "p5student");
+            assertEquals(4, ranked.size());
+            assertEquals("p5revD", ranked.get(0).getReviewer());
+            assertEquals("p5revC", ranked.get(1).getReviewer());
+            assertEquals("p5revB", ranked.get(2).getReviewer());
+            assertEquals("p5revA", ranked.get(3).getReviewer());
+
+            assertEquals(3, ranked.get(0).getTrustWeight());
+            assertTrue(ranked.get(0).isTrusted());
+            assertFalse(ranked.get(2).isTrusted());
+            assertEquals(5.0, ranked.get(2).getReviewerScore(), 0.001);
+            assertEquals(0.5, ranked.get(2).getEffectiveWeight(), 0.001);
+            for (int i = 1; i < ranked.size(); i++) {
+                assertTrue(ranked.get(i - 1).getEffectiveWeight() >= ranked.get(i).getEffectiveWeight());
+            }
+
+            // Another student without trusted reviewers only sees the scorecard order
+            List<RankedReview> other = dbHelper3.getRankedReviewsForQuestion(questionId, "p5nobody");
+            assertEquals("p5revB", other.get(0).getReviewer());
+            assertFalse(other.stream().anyMatch(RankedReview::isTrusted));
+        }
+
+        @Test
+        @DisplayName("Weightages should load in one map")
+        public void testWeightageMap() throws SQLException {
+            dbHelper2.addTrustedReviewer("p5student", "p5revC", 2);
+            dbHelper2.addTrustedReviewer("p5student", "p5revD", 4);
+
+            Map<String, Integer> weights = dbHelper2.getReviewerWeightages("p5student");
+            assertEquals(2, weights.size());
+            assertEquals(Integer.valueOf(2), weights.get("p5revC"));
+            assertEquals(dbHelper2.getReviewerWeightage("p5student", "p5revD"), weights.get("p5revD").intValue());
+        }
+    }
+
+    /**
+     * Test suite for the full-text SearchIndex.
+     */
+    @Nested
+    @DisplayName("Search Index Tests")
+    public class SearchIndexTests {
+
+        private SearchIndex index;
+
+        @BeforeEach
+        public void setUp() {
+            index = new SearchIndex();
+        }
+
+        private List<Integer> ids(String query) {
+            return index.searchIds(query, SearchHit.Type.QUESTION, 0);
+        }
+
+        @Test
+        @DisplayName("Terms should match regardless of case, accents and apostrophes")
+        public void testNormalization() {
+            index.index(SearchHit.Type.QUESTION, 1, 1, "p5alice", "Why DON'T my Café orders sort?");
+
+            assertEquals(List.of(1), ids("cafe"));
+            assertEquals(List.of(1), ids("dont"));
+            assertEquals(List.of(1), ids("WHY"));
+            assertEquals(List.of(1), ids("p5alice"));
+            assertTrue(ids("caf").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Words should be ANDed unless separated by OR, quotes should match phrases")
+        public void testQuerySyntax() {
+            index.index(SearchHit.Type.QUESTION, 1, 1, "p5a", "java stream api basics");
+            index.index(SearchHit.Type.QUESTION, 2, 2, "p5a", "the api of java streams");
+            index.index(SearchHit.Type.QUESTION, 3, 3, "p5a", "lambda expressions");
+
+            assertEquals(2, ids("java api").size());
+            assertEquals(2, ids("java AND api").size());
+            assertEquals(List.of(1), ids("\"stream api\""));
+            assertEquals(List.of(1), ids("java \"stream api\""));
+            assertEquals(3, ids("java OR lambda").size());
+            List<Integer> either = ids("\"stream api\" OR lambda");
+            assertEquals(2, either.size());
+            assertTrue(either.containsAll(List.of(1, 3)));
+            assertTrue(ids("java lambda").isEmpty());
+            // A hyphenated word is matched as a phrase
+            index.index(SearchHit.Type.QUESTION, 4, 4, "p5a", "a follow-up question");
+            assertEquals(List.of(4), ids("follow-up"));
+            // A phrase never spans the content and the author
+            assertTrue(ids("\"basics p5a\"").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Results should be ranked by BM25")
+        public void testRanking() {
+            index.index(SearchHit.Type.QUESTION, 1, 1, "p5a", "index once in a long question about many other unrelated things");
+            index.index(SearchHit.Type.QUESTION, 2, 2, "p5a", "index index index");
+            index.index(SearchHit.Type.QUESTION, 3, 3, "p5a", "index question");
+            index.index(SearchHit.Type.QUESTION, 4, 4, "p5a", "nothing relevant here");
+
+            assertEquals(List.of(2, 3, 1), ids("index"));
+            assertEquals(List.of(2, 3), index.searchIds("index", SearchHit.Type.QUESTION, 2));
+            List<SearchHit> hits = index.search("index", 0);
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+            }
+        }
+
+        @Test
+        @DisplayName("Hits should carry highlighted snippets around the first match")
+        public void testSnippets() {
+            String filler = "lorem ipsum ".repeat(30);
+            index.index(SearchHit.Type.ANSWER, 7, 3, "p5a", filler + "use a Java stream here " + filler);
+
+            SearchHit hit = index.search("java stream", 10).get(0);
+            assertEquals(SearchHit.Type.ANSWER, hit.getType());
+            assertEquals(7, hit.getId());
+            assertEquals(3, hit.getQuestionId());
+            assertTrue(hit.getSnippet().startsWith("..."));
+            assertTrue(hit.getSnippet().endsWith("..."));
+            assertTrue(hit.getSnippet().length() <= SearchIndex.SNIPPET_LENGTH + 6);
+            assertTrue(hit.getHighlightedSnippet("[", "]").contains("use a [Java] [stream] here"));
+            assertEquals(4, hit.getHighlights().length);
+        }
+
+        @Test
+        @DisplayName("Updates and removals should be reflected immediately")
+        public void testIncrementalUpdates() {
+            index.index(SearchHit.Type.QUESTION, 1, 1, "p5a", "original wording");
+            index.index(SearchHit.Type.REVIEW, 1, 1, "p5r", "original review");
+            assertEquals(2, index.getDocumentCount());
+
+            index.index(SearchHit.Type.QUESTION, 1, 1, "p5a", "changed wording");
+            assertTrue(ids("original").isEmpty());
+            assertEquals(List.of(1), ids("changed"));
+            assertEquals(1, index.searchIds("original", SearchHit.Type.REVIEW, 0).size());
+
+            index.remove(SearchHit.Type.QUESTION, 1);
+            index.remove(SearchHit.Type.QUESTION, 99);
+            assertTrue(ids("changed").isEmpty());
+            assertEquals(1, index.getDocumentCount());
+            assertEquals(1, index.search("original", EnumSet.of(SearchHit.Type.REVIEW), 0).size());
+            assertTrue(index.search("original", EnumSet.of(SearchHit.Type.ANSWER), 0).isEmpty());
+        }
+    }
+
+    /**
+     * Test suite for keeping the shared search index in step with the database helpers.
+     */
+    @Nested
+    @DisplayName("Search Maintenance Tests")
+    public class SearchMaintenanceTests {
+
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            dbHelper3 = new DatabaseHelper3();
+            dbHelper3.connectToDatabase();
+            clearSearchData();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearSearchData();
+        }
+
+        private void clearSearchData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                String questions = "SELECT questionId FROM Questions WHERE author = 'p5searcher'";
+                statement.execute("DELETE FROM reviews WHERE question_id IN (" + questions + ")");
+                statement.execute("DELETE FROM Answers WHERE questionId IN (" + questions + ")");
+                statement.execute("DELETE FROM Questions WHERE author = 'p5searcher'");
+            }
+        }
+
+        @Test
+        @DisplayName("Question, answer and review writes should update the index")
+        public void testHelpersMaintainIndex() throws SQLException {
+            dbHelper2.addQuestion(new Question(0, "p5zebra migration patterns", "p5searcher", new Date()));
+            List<QuestionRow> rows = dbHelper2.searchQuestionRows("p5viewer", "p5zebra");
+            assertEquals(1, rows.size());
+            int questionId = rows.get(0).getQuestionId();
+
+            Question question = dbHelper2.getQuestionById(questionId);
+            question.setContent("p5okapi migration patterns");
+            dbHelper2.updateQuestion(question);
+            assertTrue(dbHelper2.searchQuestionRows("p5viewer", "p5zebra").isEmpty());
+            assertEquals(1, dbHelper2.searchQuestionRows("p5viewer", "p5okapi migration").size());
+
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5okapi answer text", "p5searcher", new Date()));
+            dbHelper3.addReview(new Review(0, "p5searcher", "p5okapi review text", new Date(), questionId, null));
+            List<SearchHit> hits = dbHelper2.searchContent("p5okapi", 10);
+            assertEquals(3, hits.size());
+            assertTrue(hits.stream().allMatch(h -> h.getQuestionId() == questionId));
+            assertTrue(hits.stream().anyMatch(h -> h.getType() == SearchHit.Type.ANSWER));
+
+            SearchHit review = hits.stream().filter(h -> h.getType() == SearchHit.Type.REVIEW).findFirst().get();
+            dbHelper3.deleteReview(review.getId());
+            int answerId = dbHelper2.getAnswersForQuestion(questionId).get(0).getAnswerId();
+            dbHelper2.deleteAnswer(answerId);
+            dbHelper2.deleteQuestion(questionId);
+            assertTrue(dbHelper2.searchContent("p5okapi", 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Writes inside a unit of work should reach the index only once it commits")
+        public void testIndexFollowsCommit() throws SQLException {
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                dbHelper2.addQuestion(new Question(0, "p5dugong rolled back", "p5searcher", new Date()));
+                throw new SQLException("p5 abort");
+            }));
+            assertTrue(dbHelper2.searchContent("p5dugong", 10).isEmpty());
+
+            UnitOfWork.run(() -> {
+                dbHelper2.addQuestion(new Question(0, "p5dugong committed", "p5searcher", new Date()));
+                assertTrue(SearchIndex.getInstance().search("p5dugong", 10).isEmpty());
+            });
+            assertEquals(1, dbHelper2.searchContent("p5dugong", 10).size());
+        }
+
+        @Test
+        @DisplayName("Deleting a question should drop its answers and reviews, and a failed delete nothing")
+        public void testDeletesOnlyWhatWasDeleted() throws SQLException {
+            dbHelper2.addQuestion(new Question(0, "p5tapir question", "p5searcher", new Date()));
+            int questionId = dbHelper2.searchQuestionRows("p5viewer", "p5tapir").get(0).getQuestionId();
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5tapir answer", "p5searcher", new Date()));
+            dbHelper3.addReview(new Review(0, "p5searcher", "p5tapir review", new Date(), questionId, null));
+            assertEquals(3, dbHelper2.searchContent("p5tapir", 10).size());
+
+            // Deleting rows that do not exist leaves the index alone
+            int missing = Integer.MAX_VALUE - 5;
+            SearchIndex.getInstance().index(SearchHit.Type.REVIEW, missing, questionId, "p5searcher", "p5tapir stray");
+            dbHelper3.deleteReview(missing);
+            dbHelper2.deleteAnswer(missing);
+            assertEquals(4, dbHelper2.searchContent("p5tapir", 10).size());
+            SearchIndex.getInstance().remove(SearchHit.Type.REVIEW, missing);
+
+            // Rows removed with plain SQL stay indexed until their question is deleted
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM reviews WHERE question_id = " + questionId);
+                statement.execute("DELETE FROM Answers WHERE questionId = " + questionId);
+            }
+            assertEquals(3, SearchIndex.getInstance().search("p5tapir", 10).size());
+            dbHelper2.deleteQuestion(questionId);
+            assertTrue(SearchIndex.getInstance().search("p5tapir", 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Question search should rank the best match first and skip deleted rows")
+        public void testQuestionRowSearch() throws SQLException {
+            dbHelper2.addQuestion(new Question(0, "p5quokka mentioned once among many other words here", "p5searcher", new Date()));
+            dbHelper2.addQuestion(new Question(0, "p5quokka p5quokka", "p5searcher", new Date()));
+
+            List<QuestionRow> rows = dbHelper2.searchQuestionRows("p5viewer", "p5quokka");
+            assertEquals(2, rows.size());
+            assertEquals("p5quokka p5quokka", rows.get(0).getContentPreview());
+
+            // Rows deleted with plain SQL are still indexed but must not be returned
+            clearSearchData();
+            assertTrue(dbHelper2.searchQuestionRows("p5viewer", "p5quokka").isEmpty());
+        }
+    }
+
+    /**
+     * Test suite for the keyset-paginated question and answer queries.
+     */
+    @Nested
+    @DisplayName("Pagination Tests")
+    public class PaginationTests {
+
+        // The test questions are dated long before any real data so they come first in oldest-first order
+        private static final long BASE_TIME = Timestamp.valueOf("1900-01-01 00:00:00").getTime();
+
+        private DatabaseHelper2 dbHelper2;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            clearPagerData();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearPagerData();
+        }
+
+        private void clearPagerData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                String questions = "SELECT questionId FROM Questions WHERE author = 'p5pager'";
+                // Answers can reference each other, so drop the references before the answers
+                statement.execute("UPDATE Answers SET referenceAnswerId = NULL WHERE questionId IN (" + questions + ")");
+                statement.execute("DELETE FROM Answers WHERE questionId IN (" + questions + ")");
+                statement.execute("DELETE FROM Questions WHERE author = 'p5pager'");
+            }
+        }
+
+        // Adds a test question at BASE_TIME plus the given seconds and returns its ID
+        private int addQuestion(String content, int seconds, boolean answered) throws SQLException {
+            dbHelper2.addQuestion(new Question(0, content, "p5pager", new Date(BASE_TIME + seconds * 1000L), answered));
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(
+                         "SELECT MAX(questionId) FROM Questions WHERE author = 'p5pager'")) {
+                ResultSet rs = pstmt.executeQuery();
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        // Walks every page and returns the IDs in the order they were listed
+        private List<Integer> walk(Boolean answered, boolean newestFirst, PageCursor start, int limit) throws SQLException {
+            List<Integer> ids = new ArrayList<>();
+            PageCursor cursor = start;
+            do {
+                Page<QuestionRow> page = dbHelper2.getQuestionRowPage("p5viewer", answered, newestFirst, cursor, limit);
+                assertTrue(page.getItems().size() <= limit);
+                page.getItems().forEach(row -> ids.add(row.getQuestionId()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            return ids;
+        }
+
+        @Test
+        @DisplayName("Pages should list every question once in (timestamp, id) order")
+        public void testOldestFirstPages() throws SQLException {
+            int first = addQuestion("p5 page one", 1, false);
+            // Equal timestamps are ordered by ID
+            int tieA = addQuestion("p5 page two", 2, false);
+            int tieB = addQuestion("p5 page three", 2, true);
+            int last = addQuestion("p5 page four", 3, false);
+
+            List<Integer> ids = walk(null, false, null, 3);
+            assertEquals(List.of(first, tieA, tieB, last), ids.subList(0, 4));
+            assertEquals(ids.size(), new HashSet<>(ids).size());
+            assertEquals(dbHelper2.countQuestions(null), ids.size());
+        }
+
+        @Test
+        @DisplayName("Newest-first pages should continue below the cursor")
+        public void testNewestFirstPages() throws SQLException {
+            int first = addQuestion("p5 old", 1, false);
+            int second = addQuestion("p5 middle", 2, false);
+            int third = addQuestion("p5 new", 3, false);
+
+            PageCursor belowTests = new PageCursor(new Date(BASE_TIME + 10_000), Integer.MAX_VALUE);
+            assertEquals(List.of(third, second, first), walk(null, true, belowTests, 2));
+        }
+
+        @Test
+        @DisplayName("Status filter and count should agree with the question lists")
+        public void testStatusFilter() throws SQLException {
+            addQuestion("p5 open", 1, false);
+            int resolved = addQuestion("p5 resolved", 2, true);
+
+            List<Integer> resolvedIds = walk(true, false, null, 2);
+            assertTrue(resolvedIds.contains(resolved));
+            assertEquals(dbHelper2.getQuestionRowsByStatus("p5viewer", true).size(), resolvedIds.size());
+            assertEquals(resolvedIds.size(), dbHelper2.countQuestions(true));
+            assertEquals(walk(false, true, null, 5).size(), dbHelper2.countQuestions(false));
+        }
+
+        @Test
+        @DisplayName("Rows added or deleted between pages should not shift the next page")
+        public void testStableCursor() throws SQLException {
+            int first = addQuestion("p5 stable one", 1, false);
+            int second = addQuestion("p5 stable two", 2, false);
+            int third = addQuestion("p5 stable three", 3, false);
+
+            Page<QuestionRow> page = dbHelper2.getQuestionRowPage("p5viewer", null, false, null, 2);
+            assertEquals(List.of(first, second), List.of(page.getItems().get(0).getQuestionId(),
+                    page.getItems().get(1).getQuestionId()));
+            assertTrue(page.hasMore());
+
+            dbHelper2.deleteQuestion(first);
+            addQuestion("p5 stable earlier", 0, false);
+            Page<QuestionRow> next = dbHelper2.getQuestionRowPage("p5viewer", null, false, page.getNextCursor(), 2);
+            assertEquals(third, next.getItems().get(0).getQuestionId());
+        }
+
+        @Test
+        @DisplayName("Page rows should carry the same counts as the aggregate rows")
+        public void testPageRowCounts() throws SQLException {
+            int questionId = addQuestion("p5 counted", 1, false);
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 answer", "p5pager", new Date()));
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 answer", "p5pager", new Date()));
+
+            QuestionRow paged = dbHelper2.getQuestionRow("p5viewer", questionId);
+            QuestionRow aggregate = dbHelper2.getQuestionRows("p5viewer").stream()
+                    .filter(r -> r.getQuestionId() == questionId).findFirst().orElseThrow();
+            assertEquals(2, paged.getAnswerCount());
+            assertEquals(aggregate.getAnswerCount(), paged.getAnswerCount());
+            assertEquals(aggregate.getUnreadCount(), paged.getUnreadCount());
+            assertEquals(aggregate.getReviewCount(), paged.getReviewCount());
+            assertEquals(aggregate.getContentPreview(), paged.getContentPreview());
+            assertNull(dbHelper2.getQuestionRow("p5viewer", -1));
+        }
+
+        @Test
+        @DisplayName("Answers should page oldest first with a matching count")
+        public void testAnswerPages() throws SQLException {
+            int questionId = addQuestion("p5 answered", 1, false);
+            for (int i = 0; i < 5; i++) {
+                dbHelper2.addAnswer(new Answer(0, questionId, "p5 answer " + i, "p5pager", new Date(BASE_TIME + i * 1000L)));
+            }
+
+            List<String> contents = new ArrayList<>();
+            PageCursor cursor = null;
+            int pages = 0;
+            do {
+                Page<Answer> page = dbHelper2.getAnswerPage(questionId, cursor, 2);
+                page.getItems().forEach(a -> contents.add(a.getContent()));
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+            assertEquals(3, pages);
+            assertEquals(List.of("p5 answer 0", "p5 answer 1", "p5 answer 2", "p5 answer 3", "p5 answer 4"), contents);
+            assertEquals(5, dbHelper2.countAnswersForQuestion(questionId));
+            assertFalse(dbHelper2.getAnswerPage(questionId, null, 5).hasMore());
+        }
+
+        @Test
+        @DisplayName("Answer pages should carry the answer each one references")
+        public void testAnswerReferences() throws SQLException {
+            int questionId = addQuestion("p5 referenced", 1, false);
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 original", "p5pager", new Date(BASE_TIME)));
+            int originalId = dbHelper2.getAnswerPage(questionId, null, 1).getItems().get(0).getAnswerId();
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 reply", "p5pager", new Date(BASE_TIME + 1000L), originalId));
+
+            List<Answer> answers = dbHelper2.getAnswerPage(questionId, null, 5).getItems();
+            assertNull(answers.get(0).getReferencedContent());
+            assertTrue(answers.get(1).hasReference());
+            assertEquals("p5 original", answers.get(1).getReferencedContent());
+            assertEquals("p5pager", answers.get(1).getReferencedAuthor());
+        }
+
+        @Test
+        @DisplayName("Answers by author should only list that author's answers, oldest first")
+        public void testAnswersByAuthor() throws SQLException {
+            int questionId = addQuestion("p5 authored", 1, false);
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 second", "p5pager", new Date(BASE_TIME + 1000L)));
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 other", "p5pager2", new Date(BASE_TIME)));
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 first", "p5pager", new Date(BASE_TIME)));
+
+            List<Answer> answers = dbHelper2.getAnswersByAuthor("p5pager");
+            assertEquals(List.of("p5 first", "p5 second"), answers.stream().map(Answer::getContent).toList());
+        }
+
+        @Test
+        @DisplayName("A page limit below one should be rejected")
+        public void testInvalidLimit() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> dbHelper2.getQuestionRowPage("p5viewer", null, false, null, 0));
+            assertThrows(IllegalArgumentException.class, () -> dbHelper2.getAnswerPage(1, null, 0));
+        }
+    }
+
+    /**
+     * Test suite for the row versions and tombstones behind delta sync.
+     */
+    @Nested
+    @DisplayName("Delta Sync Tests")
+    public class DeltaSyncTests {
+
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            dbHelper3 = new DatabaseHelper3();
+            dbHelper3.connectToDatabase();
+            clearSyncData();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearSyncData();
+        }
+
+        private void clearSyncData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                String questions = "SELECT questionId FROM Questions WHERE author = 'p5sync'";
+                statement.execute("DELETE FROM reviews WHERE question_id IN (" + questions + ")");
+                statement.execute("DELETE FROM ReadStatus WHERE answerId IN "
+                        + "(SELECT answerId FROM Answers WHERE questionId IN (" + questions + "))");
+                statement.execute("DELETE FROM Answers WHERE questionId IN (" + questions + ")");
+                statement.execute("DELETE FROM Questions WHERE author = 'p5sync'");
+            }
+        }
+
+        private int addQuestion(String content) throws SQLException {
+            dbHelper2.addQuestion(new Question(0, content, "p5sync", new Date()));
+            return dbHelper2.getQuestionRowsByAuthor("p5viewer", "p5sync").stream()
+                    .mapToInt(QuestionRow::getQuestionId).max().getAsInt();
+        }
+
+        private List<Integer> changedIds(ChangeSet<QuestionRow> changes) {
+            List<Integer> ids = new ArrayList<>();
+            changes.getChanged().forEach(row -> ids.add(row.getQuestionId()));
+            return ids;
+        }
+
+        @Test
+        @DisplayName("A sync should return only the rows changed since the previous one")
+        public void testSyncReturnsOnlyChanges() throws SQLException {
+            int older = addQuestion("p5 sync older");
+            long version = dbHelper2.getRowVersion();
+            int newer = addQuestion("p5 sync newer");
+
+            ChangeSet<QuestionRow> changes = dbHelper2.getQuestionRowChangesSince("p5viewer", version);
+            assertEquals(List.of(newer), changedIds(changes));
+            assertTrue(changes.getDeletedIds().isEmpty());
+            assertTrue(changes.getVersion() > version);
+
+            // Nothing changed since, so the next sync is empty
+            assertTrue(dbHelper2.getQuestionRowChangesSince("p5viewer", changes.getVersion()).isEmpty());
+
+            Question question = dbHelper2.getQuestionById(older);
+            question.setContent("p5 sync older, edited");
+            dbHelper2.updateQuestion(question);
+            ChangeSet<QuestionRow> edits = dbHelper2.getQuestionRowChangesSince("p5viewer", changes.getVersion());
+            assertEquals(List.of(older), changedIds(edits));
+            assertEquals("p5 sync older, edited", edits.getChanged().get(0).getContentPreview());
+        }
+
+        @Test
+        @DisplayName("A write that commits after another session synced should reach the next sync")
+        public void testLateCommitReachesNextSync() throws Exception {
+            int questionId = addQuestion("p5 sync slow");
+            long version = dbHelper2.getRowVersion();
+            CountDownLatch written = new CountDownLatch(1);
+            CountDownLatch synced = new CountDownLatch(1);
+            CompletableFuture<Void> slowWrite = AsyncDatabase.run(() -> UnitOfWork.run(() -> {
+                Question question = dbHelper2.getQuestionById(questionId);
+                question.setContent("p5 sync slow, edited");
+                dbHelper2.updateQuestion(question);
+                // The edit has its version but is not committed until the other session has synced
+                written.countDown();
+                try {
+                    synced.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+            int faster = addQuestion("p5 sync fast");
+            ChangeSet<QuestionRow> before = dbHelper2.getQuestionRowChangesSince("p5viewer", version);
+            assertEquals(List.of(faster), changedIds(before));
+            synced.countDown();
+            slowWrite.get(10, TimeUnit.SECONDS);
+
+            ChangeSet<QuestionRow> after = dbHelper2.getQuestionRowChangesSince("p5viewer", before.getVersion());
+            assertTrue(changedIds(after).contains(questionId));
+            assertEquals("p5 sync slow, edited", after.getChanged().stream()
+                    .filter(row -> row.getQuestionId() == questionId).findFirst().orElseThrow().getContentPreview());
+            assertTrue(dbHelper2.getQuestionRowChangesSince("p5viewer", after.getVersion()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("A deleted question should come back as a tombstone")
+        public void testDeletedQuestionTombstone() throws SQLException {
+            int questionId = addQuestion("p5 sync doomed");
+            long version = dbHelper2.getRowVersion();
+            dbHelper2.deleteQuestion(questionId);
+
+            ChangeSet<QuestionRow> changes = dbHelper2.getQuestionRowChangesSince("p5viewer", version);
+            assertTrue(changes.getChanged().isEmpty());
+            assertEquals(List.of(questionId), changes.getDeletedIds());
+            assertTrue(dbHelper2.getQuestionRowChangesSince("p5viewer", changes.getVersion()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Answers, reads and reviews should touch the question row they are counted in")
+        public void testCountChangesTouchQuestion() throws SQLException {
+            int questionId = addQuestion("p5 sync counted");
+
+            long version = dbHelper2.getRowVersion();
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 sync answer", "p5helper", new Date()));
+            ChangeSet<QuestionRow> answered = dbHelper2.getQuestionRowChangesSince("p5viewer", version);
+            assertEquals(List.of(questionId), changedIds(answered));
+            assertEquals(1, answered.getChanged().get(0).getAnswerCount());
+            assertEquals(1, answered.getChanged().get(0).getUnreadCount());
+
+            version = answered.getVersion();
+            dbHelper2.markAnswersAsRead(questionId, "p5viewer");
+            ChangeSet<QuestionRow> read = dbHelper2.getQuestionRowChangesSince("p5viewer", version);
+            assertEquals(List.of(questionId), changedIds(read));
+            assertEquals(0, read.getChanged().get(0).getUnreadCount());
+
+            version = read.getVersion();
+            dbHelper3.addReview(new Review(0, "p5helper", "p5 sync review", new Date(), questionId, null));
+            ChangeSet<QuestionRow> reviewed = dbHelper2.getQuestionRowChangesSince("p5viewer", version);
+            assertEquals(List.of(questionId), changedIds(reviewed));
+            assertEquals(1, reviewed.getChanged().get(0).getReviewCount());
+        }
+
+        @Test
+        @DisplayName("Answer syncs should cover inserts, updates and deletes of one question's answers")
+        public void testAnswerChanges() throws SQLException {
+            int questionId = addQuestion("p5 sync answers");
+            int otherId = addQuestion("p5 sync other answers");
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 sync first", "p5helper", new Date()));
+            long version = dbHelper2.getRowVersion();
+
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5 sync second", "p5helper", new Date()));
+            dbHelper2.addAnswer(new Answer(0, otherId, "p5 sync elsewhere", "p5helper", new Date()));
+            ChangeSet<Answer> added = dbHelper2.getAnswerChangesSince(questionId, version);
+            assertEquals(1, added.getChanged().size());
+            assertEquals("p5 sync second", added.getChanged().get(0).getContent());
+
+            Answer first = dbHelper2.getAnswersForQuestion(questionId).get(0);
+            version = added.getVersion();
+            dbHelper2.deleteAnswer(first.getAnswerId());
+            ChangeSet<Answer> deleted = dbHelper2.getAnswerChangesSince(questionId, version);
+            assertTrue(deleted.getChanged().isEmpty());
+            assertEquals(List.of(first.getAnswerId()), deleted.getDeletedIds());
+            assertTrue(dbHelper2.getAnswerChangesSince(otherId, version).isEmpty());
+            assertEquals(List.of(questionId), changedIds(dbHelper2.getQuestionRowChangesSince("p5viewer", version)));
+        }
+    }
+
+    /**
+     * Test suite for the QuestionQuery criteria API.
+     */
+    @Nested
+    @DisplayName("Question Query Tests")
+    public class QuestionQueryTests {
+
+        private static final long BASE_TIME = Timestamp.valueOf("1900-01-01 00:00:00").getTime();
+
+        private DatabaseHelper2 dbHelper2;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            clearQueryData();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearQueryData();
+        }
+
+        private void clearQueryData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE Questions SET referenceQuestionId = NULL WHERE author LIKE 'p5query%'");
+                statement.execute("DELETE FROM Questions WHERE author LIKE 'p5query%'");
+            }
+        }
+
+        // Adds a test question at BASE_TIME plus the given days and returns its ID
+        private int addQuestion(String content, String author, int days, boolean answered, Integer reference)
+                throws SQLException {
+            Question question = new Question(0, content, author, new Date(BASE_TIME + days * 86_400_000L), reference);
+            question.setAnswered(answered);
+            dbHelper2.addQuestion(question);
+            return dbHelper2.getQuestionRowsByAuthor("p5viewer", author).stream()
+                    .mapToInt(QuestionRow::getQuestionId).max().getAsInt();
+        }
+
+        private List<Integer> ids(QuestionQuery query) throws SQLException {
+            List<Integer> ids = new ArrayList<>();
+            dbHelper2.getQuestionRowPage("p5viewer", query, null).getItems().forEach(row -> ids.add(row.getQuestionId()));
+            return ids;
+        }
+
+        @Test
+        @DisplayName("Criteria should combine into one query")
+        public void testCombinedCriteria() throws SQLException {
+            int base = addQuestion("p5quokka base question", "p5query_amy", 1, true, null);
+            int followUp = addQuestion("p5quokka follow-up", "p5query_amy", 2, false, base);
+            int other = addQuestion("p5quokka by someone else", "p5query_bob", 3, false, null);
+            int late = addQuestion("p5quokka asked later", "p5query_amy", 40, false, null);
+            addQuestion("p5 unrelated question", "p5query_amy", 4, false, null);
+
+            QuestionQuery keyword = QuestionQuery.all().keyword("p5quokka");
+            assertEquals(List.of(base, followUp, other, late), ids(keyword));
+            assertEquals(List.of(followUp, other, late), ids(keyword.answered(false)));
+            assertEquals(List.of(followUp, late), ids(keyword.answered(false).author("P5QUERY_A")));
+            assertEquals(List.of(followUp), ids(keyword.answered(false).author("p5query_a").hasReference(true)));
+
+            QuestionQuery january = keyword.postedBetween(new Date(BASE_TIME), new Date(BASE_TIME + 31 * 86_400_000L));
+            assertEquals(List.of(other, followUp, base), ids(january.newestFirst(true)));
+            assertEquals(3, dbHelper2.countQuestionRows(january));
+            assertEquals(List.of(late), ids(keyword.hasReference(false).author("amy").postedBetween(
+                    new Date(BASE_TIME + 31 * 86_400_000L), null)));
+        }
+
+        @Test
+        @DisplayName("Query pages should continue after the cursor with the query's limit")
+        public void testQueryPages() throws SQLException {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                expected.add(addQuestion("p5quagga paged " + i, "p5query_amy", i, false, null));
+            }
+            QuestionQuery query = QuestionQuery.all().author("p5query").limit(2);
+            List<Integer> listed = new ArrayList<>();
+            PageCursor cursor = null;
+            int pages = 0;
+            do {
+                Page<QuestionRow> page = dbHelper2.getQuestionRowPage("p5viewer", query, cursor);
+                assertTrue(page.getItems().size() <= 2);
+                page.getItems().forEach(row -> listed.add(row.getQuestionId()));
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+            assertEquals(3, pages);
+            assertEquals(expected, listed);
+        }
+
+        @Test
+        @DisplayName("A keyword without matches should return no rows")
+        public void testKeywordWithoutMatches() throws SQLException {
+            addQuestion("p5quetzal question", "p5query_amy", 1, false, null);
+            QuestionQuery query = QuestionQuery.all().keyword("p5nosuchword");
+            assertTrue(ids(query).isEmpty());
+            assertEquals(0, dbHelper2.countQuestionRows(query));
+        }
+
+        @Test
+        @DisplayName("matches should agree with the rows the query returns")
+        public void testMatchesAgreesWithQuery() throws SQLException {
+            int base = addQuestion("p5quince base", "p5query_amy", 1, true, null);
+            addQuestion("p5quince follow-up", "p5query_bob", 2, false, base);
+            addQuestion("p5quince late", "p5query_amy", 50, false, null);
+
+            List<QuestionQuery> queries = List.of(
+                    QuestionQuery.all().author("p5query").answered(true),
+                    QuestionQuery.all().author("p5query_bob"),
+                    QuestionQuery.all().keyword("p5quince late"),
+                    QuestionQuery.all().author("p5query").hasReference(false)
+                            .postedBetween(null, new Date(BASE_TIME + 10 * 86_400_000L)));
+            List<QuestionRow> rows = dbHelper2.getQuestionRowsByAuthor("p5viewer", "p5query");
+            for (QuestionQuery query : queries) {
+                List<Integer> matched = new ArrayList<>();
+                rows.stream().filter(query::matches).forEach(row -> matched.add(row.getQuestionId()));
+                assertEquals(ids(query), matched, query.toString());
+            }
+        }
+
+        @Test
+        @DisplayName("A keyword query should keep its matches only until the index changes")
+        public void testKeywordMatchesFollowIndex() throws SQLException {
+            int first = addQuestion("p5quoll first", "p5query_amy", 1, false, null);
+            QuestionQuery query = QuestionQuery.all().keyword("p5quoll");
+            assertEquals(List.of(first), ids(query));
+            long generation = SearchIndex.getInstance().getGeneration();
+            assertEquals(List.of(first), ids(query));
+            assertEquals(generation, SearchIndex.getInstance().getGeneration());
+
+            // The same query instance sees a question posted after it searched
+            int second = addQuestion("p5quoll second", "p5query_bob", 2, false, null);
+            assertTrue(SearchIndex.getInstance().getGeneration() > generation);
+            assertEquals(List.of(first, second), ids(query));
+            QuestionRow row = dbHelper2.getQuestionRowsByAuthor("p5viewer", "p5query_bob").get(0);
+            assertTrue(query.matches(row));
+        }
+
+        @Test
+        @DisplayName("Setting a criterion should leave the original query unchanged")
+        public void testImmutable() {
+            QuestionQuery all = QuestionQuery.all();
+            QuestionQuery filtered = all.answered(true).keyword("p5 words").newestFirst(true);
+            assertNull(all.getAnswered());
+            assertNull(all.getKeyword());
+            assertFalse(all.isNewestFirst());
+            assertEquals(Boolean.TRUE, filtered.getAnswered());
+            assertNull(filtered.keyword("  ").getKeyword());
+            assertThrows(IllegalArgumentException.class, () -> all.limit(0));
+        }
+    }
+
+    /**
+     * Test suite for broadcast messages.
+     */
+    @Nested
+    @DisplayName("Broadcast Message Tests")
+    public class BroadcastMessageTests {
+
+        private DatabaseHelper2 dbHelper2;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            clearBroadcasts();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearBroadcasts();
+        }
+
+        private void clearBroadcasts() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                // Recipient rows go with their broadcast through the cascade
+                statement.execute("DELETE FROM Feedback WHERE sender LIKE 'p5bc%' OR receiver LIKE 'p5bc%'");
+                statement.execute("DELETE FROM conversation_summary WHERE owner LIKE 'p5bc%' OR partner LIKE 'p5bc%'");
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5bc%'");
+            }
+        }
+
+        private Feedback message(String sender, String content, long time) {
+            return new Feedback(0, sender, null, content, new Date(time), 0);
+        }
+
+        private int count(String sql) throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                ResultSet rs = statement.executeQuery(sql);
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        private ConversationSummary summary(String owner, String partner) throws SQLException {
+            return dbHelper2.getConversationSummaries(owner).stream()
+                    .filter(s -> s.getPartner().equals(partner)).findFirst().orElse(null);
+        }
+
+        @Test
+        @DisplayName("A broadcast should store its text once and reach every recipient's inbox")
+        public void testBroadcastFanOut() throws SQLException {
+            int delivered = dbHelper2.broadcastFeedback(message("p5bc_staff", "p5 broadcast text", 1_000),
+                    List.of("p5bc_amy", "p5bc_ben", "p5bc_amy", "p5bc_staff"));
+
+            // Duplicates and the sender are skipped
+            assertEquals(2, delivered);
+            assertEquals(1, count("SELECT COUNT(*) FROM Feedback WHERE sender = 'p5bc_staff'"));
+            assertEquals(2, count("SELECT COUNT(*) FROM feedback_recipients r JOIN Feedback f "
+                    + "ON f.feedbackId = r.feedbackId WHERE f.sender = 'p5bc_staff'"));
+
+            for (String recipient : List.of("p5bc_amy", "p5bc_ben")) {
+                assertEquals(1, dbHelper2.getUnreadMessageCount(recipient));
+                assertEquals(Map.of("p5bc_staff", 1), dbHelper2.getUnreadMessageCountsByConversation(recipient));
+                assertEquals(1, summary(recipient, "p5bc_staff").getUnreadCount());
+                List<Feedback> received = dbHelper2.getFeedbackForUser(recipient);
+                assertEquals(1, received.size());
+                assertEquals(recipient, received.get(0).getReceiver());
+                assertEquals("p5 broadcast text", received.get(0).getContent());
+            }
+            assertEquals("p5 broadcast text", summary("p5bc_staff", "p5bc_amy").getLastMessageSnippet());
+        }
+
+        @Test
+        @DisplayName("Reading a broadcast should only mark the reader's copy")
+        public void testReadIsPerRecipient() throws SQLException {
+            dbHelper2.broadcastFeedback(message("p5bc_staff", "p5 read me", 1_000), List.of("p5bc_amy", "p5bc_ben"));
+            dbHelper2.addFeedback(new Feedback(0, "p5bc_staff", "p5bc_amy", "p5 direct", new Date(2_000), 0));
+
+            List<Feedback> conversation = dbHelper2.getConversation("p5bc_amy", "p5bc_staff");
+            assertEquals(List.of("p5 read me", "p5 direct"),
+                    conversation.stream().map(Feedback::getContent).toList());
+
+            assertEquals(0, dbHelper2.getUnreadMessageCount("p5bc_amy"));
+            assertEquals(0, summary("p5bc_amy", "p5bc_staff").getUnreadCount());
+            assertEquals(1, dbHelper2.getUnreadMessageCount("p5bc_ben"));
+        }
+
+        @Test
+        @DisplayName("Announcing to a role should reach exactly the users with that role")
+        public void testAnnounceToRole() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO cse360users (userName, password, fullName, email, roles) VALUES "
+                        + "('p5bc_one', 'x', 'One', 'one@example.com', 'student,p5announce'), "
+                        + "('p5bc_two', 'x', 'Two', 'two@example.com', 'p5announce'), "
+                        + "('p5bc_three', 'x', 'Three', 'three@example.com', 'p5announcer'), "
+                        + "('p5bc_teacher', 'x', 'Teacher', 'teacher@example.com', 'instructor,p5announce')");
+            }
+            int delivered = dbHelper2.announceToRole(message("p5bc_teacher", "p5 announcement", 1_000), "p5announce");
+
+            assertEquals(2, delivered);
+            assertEquals(1, dbHelper2.getUnreadMessageCount("p5bc_one"));
+            assertEquals(1, dbHelper2.getUnreadMessageCount("p5bc_two"));
+            assertEquals(0, dbHelper2.getUnreadMessageCount("p5bc_three"));
+            assertEquals(0, dbHelper2.getUnreadMessageCount("p5bc_teacher"));
+            assertEquals(0, dbHelper2.announceToRole(message("p5bc_teacher", "p5 nobody", 2_000), "p5nosuchrole"));
+        }
+
+        @Test
+        @DisplayName("Rebuilt summaries should account for broadcasts")
+        public void testSummaryRebuild() throws SQLException {
+            dbHelper2.broadcastFeedback(message("p5bc_staff", "p5 broadcast", 1_000), List.of("p5bc_amy", "p5bc_ben"));
+            dbHelper2.addFeedback(new Feedback(0, "p5bc_staff", "p5bc_amy", "p5 later direct", new Date(2_000), 0));
+
+            // Deleting the direct message rebuilds the pair from what remains, which is the broadcast
+            int directId = dbHelper2.getFeedbackForUser("p5bc_amy").stream()
+                    .filter(f -> f.getContent().equals("p5 later direct")).findFirst().get().getFeedbackId();
+            dbHelper2.deleteFeedback(directId);
+            ConversationSummary rebuilt = summary("p5bc_amy", "p5bc_staff");
+            assertEquals("p5 broadcast", rebuilt.getLastMessageSnippet());
+            assertEquals(1, rebuilt.getUnreadCount());
+
+            // Deleting the broadcast removes it from every recipient
+            int broadcastId = dbHelper2.getFeedbackForUser("p5bc_ben").get(0).getFeedbackId();
+            dbHelper2.deleteFeedback(broadcastId);
+            assertEquals(0, count("SELECT COUNT(*) FROM feedback_recipients WHERE feedbackId = " + broadcastId));
+            assertNull(summary("p5bc_amy", "p5bc_staff"));
+            assertNull(summary("p5bc_ben", "p5bc_staff"));
+            assertEquals(0, dbHelper2.getUnreadMessageCount("p5bc_ben"));
+        }
+    }
+
+    /**
+     * Test suite for the AsyncDatabase facade.
+     */
+    @Nested
+    @DisplayName("Async Database Tests")
+    public class AsyncDatabaseTests {
+
+        @Test
+        @DisplayName("Calls should run on virtual threads and return their results")
+        public void testSupplyOnVirtualThread() throws Exception {
+            Thread caller = Thread.currentThread();
+            CompletableFuture<Thread> worker = AsyncDatabase.supply(Thread::currentThread);
+            Thread thread = worker.get(5, TimeUnit.SECONDS);
+            assertNotSame(caller, thread);
+            assertTrue(thread.isVirtual());
+
+            AtomicBoolean ran = new AtomicBoolean();
+            AsyncDatabase.run(() -> ran.set(true)).get(5, TimeUnit.SECONDS);
+            assertTrue(ran.get());
+        }
+
+        @Test
+        @DisplayName("SQL exceptions should complete the future exceptionally")
+        public void testFailurePropagates() {
+            CompletableFuture<Object> future = AsyncDatabase.supply(() -> {
+                throw new SQLException("p5 failure");
+            });
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(SQLException.class, failure.getCause());
+            assertEquals("p5 failure", failure.getCause().getMessage());
+        }
+
+        @Test
+        @DisplayName("More concurrent calls than pooled connections should all complete")
+        public void testManyConcurrentCalls() throws Exception {
+            DatabaseHelper2 dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            int expected = dbHelper2.getQuestionRows("p5viewer").size();
+
+            List<CompletableFuture<List<QuestionRow>>> calls = new ArrayList<>();
+            for (int i = 0; i < ConnectionPool.DEFAULT_MAX_SIZE * 5; i++) {
+                calls.add(AsyncDatabase.supply(() -> dbHelper2.getQuestionRows("p5viewer")));
+            }
+            for (CompletableFuture<List<QuestionRow>> call : calls) {
+                assertEquals(expected, call.get(30, TimeUnit.SECONDS).size());
+            }
+        }
+
+        @Test
+        @DisplayName("A cancelled call should not deliver its result")
+        public void testCancelDiscardsResult() throws Exception {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> future = AsyncDatabase.supply(() -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "late result";
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(future.cancel(false));
+            release.countDown();
+
+            assertThrows(CancellationException.class, future::join);
+            assertTrue(future.isCancelled());
+        }
+    }
+
+    /**
+     * Test suite for UnitOfWork transactions and group commit.
+     */
+    @Nested
+    @DisplayName("Unit Of Work Tests")
+    public class UnitOfWorkTests {
+
+        private DatabaseHelper dbHelper;
+        private DatabaseHelper4 dbHelper4;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            dbHelper4 = new DatabaseHelper4();
+            dbHelper4.connectToDatabase();
+            clearUnits();
+            // AdminRequests reference their requester and closer
+            for (String name : List.of("p5uow_instructor", "p5uow_admin", "p5uow_first", "p5uow_queued",
+                    "p5uow_good", "p5uow_bad")) {
+                dbHelper.register(user(name));
+            }
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearUnits();
+        }
+
+        private void clearUnits() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                // Reopened requests reference their original, so they go first
+                statement.execute("DELETE FROM AdminRequests WHERE requester_username LIKE 'p5uow%' "
+                        + "AND reopened_from_id IS NOT NULL");
+                statement.execute("DELETE FROM AdminRequests WHERE requester_username LIKE 'p5uow%'");
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5uow%'");
+            }
+        }
+
+        private int count(String sql) throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                ResultSet rs = statement.executeQuery(sql);
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        private int requests() throws SQLException {
+            return count("SELECT COUNT(*) FROM AdminRequests WHERE requester_username LIKE 'p5uow%'");
+        }
+
+        private main.User user(String name) {
+            return new main.User(name, "Passw0rd!", "P5 Unit", name + "@example.com", new String[] { "student" });
+        }
+
+        @Test
+        @DisplayName("Calls through different helpers should share one transaction and one commit")
+        public void testSpansHelpersWithOneCommit() throws SQLException {
+            long commits = UnitOfWork.getCommitCount();
+            assertFalse(UnitOfWork.isActive());
+
+            UnitOfWork.run(() -> {
+                assertTrue(UnitOfWork.isActive());
+                dbHelper4.createRequest("p5uow_instructor", "p5 request", "p5 description");
+                dbHelper.register(user("p5uow_amy"));
+                // Reads inside the unit see its own uncommitted writes
+                assertTrue(dbHelper.doesUserExist("p5uow_amy"));
+            });
+
+            assertEquals(commits + 1, UnitOfWork.getCommitCount());
+            assertEquals(1, requests());
+            assertTrue(dbHelper.doesUserExist("p5uow_amy"));
+        }
+
+        @Test
+        @DisplayName("A failure should undo the writes of every helper in the unit")
+        public void testFailureRollsBackEveryHelper() throws SQLException {
+            SQLException failure = assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                dbHelper4.createRequest("p5uow_instructor", "p5 request", "p5 description");
+                // A nested unit joins the outer one instead of committing on its own
+                UnitOfWork.run(() -> dbHelper.register(user("p5uow_ben")));
+                throw new SQLException("p5 abort");
+            }));
+
+            assertEquals("p5 abort", failure.getMessage());
+            assertEquals(0, requests());
+            assertFalse(dbHelper.doesUserExist("p5uow_ben"));
+            assertFalse(UnitOfWork.isActive());
+        }
+
+        @Test
+        @DisplayName("Reopening a request should create and mark in one step, and only once")
+        public void testReopenIsAtomic() throws SQLException {
+            int original = dbHelper4.createRequest("p5uow_instructor", "p5 request", "p5 description").getRequestId();
+            assertTrue(dbHelper4.closeRequest(original, "p5uow_admin", "done"));
+
+            main.Request reopened = dbHelper4.reopenRequest(original, "p5uow_instructor", "p5 again");
+            assertNotNull(reopened);
+            assertEquals(Integer.valueOf(original), reopened.getReopenedFromId());
+            assertTrue(dbHelper4.getRequestById(original).hasBeenReopened());
+
+            assertThrows(SQLException.class, () -> dbHelper4.reopenRequest(original, "p5uow_instructor", "p5 twice"));
+            assertEquals(2, requests());
+        }
+
+        @Test
+        @DisplayName("An invitation code should be redeemed once, and stay unused if the signup fails")
+        public void testInvitationCodeRedeemedOnce() throws SQLException {
+            String code = dbHelper.generateInvitationCode(new String[] { "student" },
+                    new Timestamp(System.currentTimeMillis() + 86_400_000));
+
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                assertTrue(dbHelper.validateInvitationCode(code));
+                throw new SQLException("p5 signup failed");
+            }));
+
+            assertTrue(dbHelper.validateInvitationCode(code));
+            assertFalse(dbHelper.validateInvitationCode(code));
+        }
+
+        @Test
+        @DisplayName("Conflicts should be retried and other failures reported at once")
+        public void testRetryOnConflict() throws SQLException {
+            long retries = UnitOfWork.getRetryCount();
+            int[] attempts = { 0 };
+            String result = UnitOfWork.call(() -> {
+                if (++attempts[0] == 1) {
+                    throw new SQLException("p5 deadlock", "40001", 40001);
+                }
+                return "done";
+            });
+            assertEquals("done", result);
+            assertEquals(2, attempts[0]);
+            assertEquals(retries + 1, UnitOfWork.getRetryCount());
+
+            attempts[0] = 0;
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                attempts[0]++;
+                throw new SQLException("p5 duplicate", "23505", 23505);
+            }));
+            assertEquals(1, attempts[0]);
+
+            attempts[0] = 0;
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                attempts[0]++;
+                throw new SQLException("p5 lock timeout", "HYT00", 50200);
+            }));
+            assertEquals(UnitOfWork.MAX_ATTEMPTS, attempts[0]);
+        }
+
+        @Test
+        @DisplayName("Writes queued during a commit should be committed together")
+        public void testGroupCommit() throws Exception {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            long commits = UnitOfWork.getCommitCount();
+            long grouped = UnitOfWork.getGroupedWriteCount();
+
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            writes.add(UnitOfWork.submit(() -> {
+                dbHelper4.createRequest("p5uow_first", "p5 first", "p5 description");
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 20; i++) {
+                String title = "p5 queued " + i;
+                writes.add(UnitOfWork.submit(() -> dbHelper4.createRequest("p5uow_queued", title, "p5 description")));
+            }
+            release.countDown();
+            for (CompletableFuture<Void> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(21, requests());
+            assertEquals(grouped + 21, UnitOfWork.getGroupedWriteCount());
+            // One commit for the blocked write and one for everything queued behind it
+            assertTrue(UnitOfWork.getCommitCount() - commits <= 2,
+                    "commits: " + (UnitOfWork.getCommitCount() - commits));
+        }
+
+        @Test
+        @DisplayName("A failing queued write should not undo the others in its group")
+        public void testGroupCommitIsolatesFailures() throws Exception {
+            CompletableFuture<Void> good = UnitOfWork.submit(
+                    () -> dbHelper4.createRequest("p5uow_good", "p5 good", "p5 description"));
+            CompletableFuture<Void> bad = UnitOfWork.submit(() -> {
+                dbHelper4.createRequest("p5uow_bad", "p5 bad", "p5 description");
+                throw new SQLException("p5 bad write");
+            });
+            CompletableFuture<Void> alsoGood = UnitOfWork.submit(
+                    () -> dbHelper4.createRequest("p5uow_good", "p5 also good", "p5 description"));
+
+            good.get(10, TimeUnit.SECONDS);
+            alsoGood.get(10, TimeUnit.SECONDS);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(10, TimeUnit.SECONDS));
+            assertEquals("p5 bad write", failure.getCause().getMessage());
+
+            assertEquals(2, count("SELECT COUNT(*) FROM AdminRequests WHERE requester_username = 'p5uow_good'"));
+            assertEquals(0, count("SELECT COUNT(*) FROM AdminRequests WHERE requester_username = 'p5uow_bad'"));
+        }
+    }
+
+    /**
+     * Test suite for the ModerationService and its ledger.
+     */
+    @Nested
+    @DisplayName("Moderation Ledger Tests")
+    public class ModerationLedgerTests {
+
+        private ModerationService moderation;
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            moderation = new ModerationService();
+            moderation.connectToDatabase();
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper3 = new DatabaseHelper3();
+            clearModeration();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearModeration();
+        }
+
+        private void clearModeration() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM moderation_ledger WHERE student LIKE 'p5mod%'");
+                statement.execute("DELETE FROM moderation_counters WHERE student LIKE 'p5mod%'");
+                statement.execute("DELETE FROM banned_students WHERE student_username LIKE 'p5mod%'");
+                statement.execute("DELETE FROM Feedback WHERE receiver LIKE 'p5mod%'");
+                statement.execute("DELETE FROM conversation_summary WHERE owner LIKE 'p5mod%' OR partner LIKE 'p5mod%'");
+            }
+        }
+
+        private long ledgerCount(String student, String action) throws SQLException {
+            return moderation.getLedger(student).stream().filter(e -> action.equals(e.get("action"))).count();
+        }
+
+        private long inboxCount(String student, String sender) throws SQLException {
+            return dbHelper2.getFeedbackForUser(student).stream().filter(f -> sender.equals(f.getSender())).count();
+        }
+
+        @Test
+        @DisplayName("A warning should reach the inbox, the ledger and the counter together")
+        public void testWarningRecorded() throws SQLException {
+            main.ModerationResult result = moderation.warn("p5mod_amy", "p5mod_staff", "p5 warning", 7, 11);
+
+            assertEquals(1, result.getWarningCount());
+            assertFalse(result.isBanned());
+            assertEquals(1, moderation.getWarningCount("p5mod_amy"));
+            assertEquals(0, moderation.getWarningCount("p5mod_nobody"));
+            assertEquals(1, inboxCount("p5mod_amy", ModerationService.WARNING_SENDER));
+
+            List<Map<String, Object>> ledger = moderation.getLedger("p5mod_amy");
+            assertEquals(1, ledger.size());
+            assertEquals("WARNING", ledger.get(0).get("action"));
+            assertEquals("p5mod_staff", ledger.get(0).get("issuedBy"));
+            assertEquals(7, ledger.get(0).get("questionId"));
+            assertEquals(11, ledger.get(0).get("answerId"));
+            assertNotNull(ledger.get(0).get("feedbackId"));
+        }
+
+        @Test
+        @DisplayName("The default rule should ban at the fourth warning, once")
+        public void testDefaultRuleBansAtFour() throws SQLException {
+            for (int i = 1; i <= 3; i++) {
+                assertFalse(moderation.warn("p5mod_ben", "p5mod_staff", "p5 warning " + i, 1, null).isBanned());
+            }
+            assertFalse(dbHelper3.isStudentBanned("p5mod_ben"));
+
+            main.ModerationResult fourth = moderation.warn("p5mod_ben", "p5mod_staff", "p5 warning 4", 1, null);
+            assertTrue(fourth.isBanned());
+            assertEquals(4, fourth.getWarningCount());
+            assertTrue(dbHelper3.isStudentBanned("p5mod_ben"));
+            assertEquals(1, inboxCount("p5mod_ben", ModerationService.NOTIFICATION_SENDER));
+            assertEquals(1, ledgerCount("p5mod_ben", "BAN"));
+
+            // Already banned: the fifth warning is recorded but does not ban again
+            main.ModerationResult fifth = moderation.warn("p5mod_ben", "p5mod_staff", "p5 warning 5", 1, null);
+            assertFalse(fifth.isBanned());
+            assertEquals(5, fifth.getWarningCount());
+            assertEquals(1, ledgerCount("p5mod_ben", "BAN"));
+
+            // Unbanned by hand, the next warning bans again
+            dbHelper3.unbanStudent("p5mod_ben");
+            assertTrue(moderation.warn("p5mod_ben", "p5mod_staff", "p5 warning 6", 1, null).isBanned());
+            assertEquals(2, ledgerCount("p5mod_ben", "BAN"));
+        }
+
+        @Test
+        @DisplayName("Custom rules should send notices and ban at their own thresholds")
+        public void testCustomRules() throws SQLException {
+            ModerationService strict = new ModerationService(List.of(
+                    EscalationRule.notifyAt(2, "p5 final notice"), EscalationRule.banAt(3)));
+
+            assertEquals(0, strict.warn("p5mod_cat", "p5mod_staff", "p5 warning", 1, null).getNotifications());
+            main.ModerationResult second = strict.warn("p5mod_cat", "p5mod_staff", "p5 warning", 1, null);
+            assertEquals(1, second.getNotifications());
+            assertFalse(second.isBanned());
+            main.ModerationResult third = strict.warn("p5mod_cat", "p5mod_staff", "p5 warning", 1, null);
+            assertEquals(0, third.getNotifications());
+            assertTrue(third.isBanned());
+
+            assertEquals(1, ledgerCount("p5mod_cat", "NOTIFY"));
+            assertEquals(3, ledgerCount("p5mod_cat", "WARNING"));
+            assertThrows(IllegalArgumentException.class, () -> EscalationRule.banAt(0));
+        }
+
+        @Test
+        @DisplayName("A warning rolled back with its unit should leave no trace")
+        public void testWarningRollsBack() throws SQLException {
+            moderation.warn("p5mod_dan", "p5mod_staff", "p5 kept", 1, null);
+
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                moderation.warn("p5mod_dan", "p5mod_staff", "p5 undone", 1, null);
+                throw new SQLException("p5 abort");
+            }));
+
+            assertEquals(1, moderation.getWarningCount("p5mod_dan"));
+            assertEquals(1, moderation.getLedger("p5mod_dan").size());
+            assertEquals(1, inboxCount("p5mod_dan", ModerationService.WARNING_SENDER));
+        }
+
+        @Test
+        @DisplayName("Concurrent warnings should all be counted")
+        public void testConcurrentWarnings() throws Exception {
+            List<CompletableFuture<main.ModerationResult>> warnings = new ArrayList<>();
+            ModerationService lenient = new ModerationService(List.of());
+            for (int i = 0; i < 20; i++) {
+                warnings.add(AsyncDatabase.supply(() -> lenient.warn("p5mod_eve", "p5mod_staff", "p5 warning", 1, null)));
+            }
+            HashSet<Integer> counts = new HashSet<>();
+            for (CompletableFuture<main.ModerationResult> warning : warnings) {
+                counts.add(warning.get(30, TimeUnit.SECONDS).getWarningCount());
+            }
+
+            // Every warning saw its own count, 1 through 20
+            assertEquals(20, counts.size());
+            assertEquals(20, moderation.getWarningCount("p5mod_eve"));
+            assertEquals(20, ledgerCount("p5mod_eve", "WARNING"));
+        }
+
+        @Test
+        @DisplayName("A manual ban should be recorded with its notice")
+        public void testManualBan() throws SQLException {
+            moderation.ban("p5mod_fay", "p5mod_staff", "p5 reason", "p5 you are banned");
+
+            assertTrue(dbHelper3.isStudentBanned("p5mod_fay"));
+            List<Map<String, Object>> ledger = moderation.getLedger("p5mod_fay");
+            assertEquals(1, ledger.size());
+            assertEquals("BAN", ledger.get(0).get("action"));
+            assertEquals("p5 reason", ledger.get(0).get("reason"));
+            assertEquals(0, moderation.getWarningCount("p5mod_fay"));
+            assertEquals(1, inboxCount("p5mod_fay", ModerationService.NOTIFICATION_SENDER));
+        }
+    }
+
+    /**
+     * Test suite for the bulk ban-status query, the BanRegistry and the SharedDatabaseWatcher.
+     */
+    @Nested
+    @DisplayName("Ban Registry Tests")
+    public class BanRegistryTests {
+
+        private DatabaseHelper dbHelper;
+        private DatabaseHelper3 dbHelper3;
+        private BanRegistry registry;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            dbHelper3 = new DatabaseHelper3();
+            clearBans();
+            registry = BanRegistry.getInstance();
+            registry.reload(ConnectionPool.getInstance());
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearBans();
+            // The raw deletes bypass the registry, so the next user starts from the database
+            registry.reload(ConnectionPool.getInstance());
+        }
+
+        private void clearBans() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM banned_students WHERE student_username LIKE 'p5ban%'");
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5ban%'");
+            }
+        }
+
+        private void register(String name, String... roles) throws SQLException {
+            dbHelper.register(new main.User(name, "Passw0rd!", "P5 " + name, name + "@example.com", roles));
+        }
+
+        @Test
+        @DisplayName("One query should return every student with their ban status")
+        public void testStudentsWithBanStatus() throws SQLException {
+            register("p5ban_amy", "student");
+            register("p5ban_ben", "reviewer", "student");
+            register("p5ban_cat", "instructor");
+            register("p5ban_dan", "students");
+            dbHelper3.banStudent("p5ban_ben", "p5ban_cat", "p5 reason");
+
+            List<main.StudentBanStatus> rows = new ArrayList<>();
+            for (main.StudentBanStatus row : dbHelper3.getStudentsWithBanStatus()) {
+                if (row.getUserName().startsWith("p5ban")) {
+                    rows.add(row);
+                }
+            }
+
+            // Only exact student roles, in username order
+            assertEquals(2, rows.size());
+            assertEquals("p5ban_amy", rows.get(0).getUserName());
+            assertFalse(rows.get(0).isBanned());
+            assertNull(rows.get(0).getBannedBy());
+            assertEquals("p5ban_ben", rows.get(1).getUserName());
+            assertTrue(rows.get(1).isBanned());
+            assertEquals("p5ban_cat", rows.get(1).getBannedBy());
+            assertEquals("p5 reason", rows.get(1).getBanReason());
+            assertNotNull(rows.get(1).getBanDate());
+            assertEquals("P5 p5ban_ben", rows.get(1).getFullName());
+        }
+
+        @Test
+        @DisplayName("The registry should follow bans and unbans")
+        public void testRegistryFollowsBans() throws SQLException {
+            assertTrue(registry.isLoaded());
+            assertFalse(registry.isBanned("p5ban_eve"));
+
+            dbHelper3.banStudent("p5ban_eve", "p5ban_staff", "p5 reason");
+            assertTrue(registry.isBanned("p5ban_eve"));
+            assertTrue(registry.getBannedUsernames().contains("p5ban_eve"));
+
+            dbHelper3.unbanStudent("p5ban_eve");
+            assertFalse(registry.isBanned("p5ban_eve"));
+        }
+
+        @Test
+        @DisplayName("A ban rolled back with its unit should not reach the registry")
+        public void testRolledBackBanIgnored() throws SQLException {
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                dbHelper3.banStudent("p5ban_fay", "p5ban_staff", "p5 reason");
+                // Not visible until the unit commits
+                assertFalse(registry.isBanned("p5ban_fay"));
+                throw new SQLException("p5 abort");
+            }));
+
+            assertFalse(registry.isBanned("p5ban_fay"));
+            assertFalse(dbHelper3.isStudentBanned("p5ban_fay"));
+
+            UnitOfWork.run(() -> dbHelper3.banStudent("p5ban_fay", "p5ban_staff", "p5 reason"));
+            assertTrue(registry.isBanned("p5ban_fay"));
+        }
+
+        @Test
+        @DisplayName("A reload should pick up bans written around the helpers")
+        public void testReloadPicksUpExternalChanges() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO banned_students (student_username, banned_by, ban_reason) "
+                        + "VALUES ('p5ban_gus', 'p5ban_staff', 'p5 reason')");
+            }
+            assertFalse(registry.isBanned("p5ban_gus"));
+
+            registry.reload(ConnectionPool.getInstance());
+            assertTrue(registry.isBanned("p5ban_gus"));
+        }
+
+        @Test
+        @DisplayName("The shared database watcher should pass on bans made by another client")
+        public void testWatcherPicksUpOtherClientsBans() throws SQLException {
+            register("p5ban_hal", "student");
+            SessionContext session = SessionContext.login("p5ban_hal", "Passw0rd!");
+            assertTrue(session.isCurrent());
+
+            // Another client bans the student; nothing in this process hears of it
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO banned_students (student_username, banned_by, ban_reason) "
+                        + "VALUES ('p5ban_hal', 'p5ban_staff', 'p5 reason')");
+            }
+            assertFalse(registry.isBanned("p5ban_hal"));
+
+            List<ChangeEvent.UserBanned> bans = new ArrayList<>();
+            EventBus.Subscription subscription = EventBus.getInstance().subscribe(ChangeEvent.UserBanned.class,
+                    bans::add);
+            try (SharedDatabaseWatcher watcher = SharedDatabaseWatcher.start(ConnectionPool.getInstance(), 60_000)) {
+                watcher.check();
+                assertTrue(registry.isBanned("p5ban_hal"));
+                assertEquals(1, bans.size());
+                assertEquals("p5ban_hal", bans.get(0).getUserName());
+                assertTrue(bans.get(0).isBanned());
+                assertFalse(session.isCurrent());
+
+                // Nothing changed since, so nothing is published again
+                watcher.check();
+                assertEquals(1, bans.size());
+            } finally {
+                subscription.close();
+            }
+        }
+
+        @Test
+        @DisplayName("A session on a shared database should reload once its refresh interval passes")
+        public void testSharedSessionExpires() throws Exception {
+            register("p5ban_ida", "student");
+            DatabaseConfig previous = DatabaseConfig.get();
+            Properties file = new Properties();
+            file.setProperty("server.enabled", "true");
+            file.setProperty("shared.refreshMillis", "1");
+            try {
+                SessionContext session = SessionContext.login("p5ban_ida", "Passw0rd!");
+                DatabaseConfig.set(DatabaseConfig.from(file, Map.of()));
+                Thread.sleep(5);
+                assertFalse(session.isCurrent());
+                session.getPrincipal();
+                DatabaseConfig.set(previous);
+                assertTrue(session.isCurrent());
+            } finally {
+                DatabaseConfig.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Test suite for the role bitmask, indexed role queries and bulk role changes.
+     */
+    @Nested
+    @DisplayName("Role Mask Tests")
+    public class RoleMaskTests {
+
+        private DatabaseHelper dbHelper;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            clearUsers();
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearUsers();
+        }
+
+        private void clearUsers() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5role%'");
+            }
+        }
+
+        private void register(String name, String... roles) throws SQLException {
+            dbHelper.register(new main.User(name, "Passw0rd!", "P5 " + name, name + "@example.com", roles));
+        }
+
+        private List<String> usersWithRole(String role) throws SQLException {
+            List<String> names = new ArrayList<>();
+            for (main.User user : dbHelper.getUsersByRole(role)) {
+                if (user.getUserName().startsWith("p5role")) {
+                    names.add(user.getUserName());
+                }
+            }
+            return names;
+        }
+
+        private String rolesOf(String userName) {
+            return String.join(",", dbHelper.getUserRoles(userName));
+        }
+
+        @Test
+        @DisplayName("hasRole should test the role's bit")
+        public void testUserRoleMask() {
+            main.User user = new main.User("p5role_x", "", "X", "x@example.com", new String[] {"student", "reviewer"});
+            assertEquals(main.User.roleBit("student") | main.User.roleBit("reviewer"), user.getRoleMask());
+            assertTrue(user.hasRole("reviewer"));
+            assertFalse(user.hasRole("admin"));
+            assertFalse(user.hasRole("review"));
+            user.setRoles(new String[] {"admin"});
+            assertTrue(user.hasRole("admin"));
+            assertFalse(user.hasRole("student"));
+        }
+
+        @Test
+        @DisplayName("Role queries should match whole roles through the access_mask index")
+        public void testRoleQueries() throws SQLException {
+            register("p5role_amy", "student");
+            register("p5role_ben", "reviewer", "student");
+            register("p5role_cat", "instructor");
+            // Written behind the helper's back; the mask is still derived from the roles column
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO cse360users (userName, password, roles) VALUES ('p5role_dan', 'x', 'students,reviewer')");
+            }
+
+            assertEquals(List.of("p5role_amy", "p5role_ben"), usersWithRole("student"));
+            assertEquals(List.of("p5role_ben", "p5role_dan"), usersWithRole("reviewer"));
+            assertTrue(usersWithRole("nobody").isEmpty());
+            assertEquals(List.of("p5role_dan"), usersWithRole("students"));
+            List<String> reviewers = new DatabaseHelper2().getAllReviewers();
+            assertTrue(reviewers.containsAll(List.of("p5role_ben", "p5role_dan")));
+            assertFalse(reviewers.contains("p5role_amy"));
+
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("EXPLAIN SELECT userName FROM cse360users WHERE "
+                         + "access_mask IN (2, 3, 6, 7)")) {
+                assertTrue(rs.next());
+                assertTrue(rs.getString(1).toUpperCase().contains("IDX_CSE360USERS_ACCESS_MASK"), rs.getString(1));
+            }
+        }
+
+        @Test
+        @DisplayName("Bulk role changes should add and remove a role for many users at once")
+        public void testBulkRoleChanges() throws SQLException {
+            register("p5role_amy", "student");
+            register("p5role_ben", "student", "reviewer");
+            register("p5role_cat", "instructor");
+
+            assertEquals(2, dbHelper.addRoleToUsers(List.of("p5role_amy", "p5role_ben", "p5role_cat"), "reviewer"));
+            assertEquals("student,reviewer", rolesOf("p5role_amy"));
+            assertEquals("student,reviewer", rolesOf("p5role_ben"));
+            assertEquals("instructor,reviewer", rolesOf("p5role_cat"));
+
+            assertEquals(2, dbHelper.removeRoleFromUsers(List.of("p5role_amy", "p5role_ben", "p5role_cat"),
+                    "student", "p5role_admin"));
+            assertEquals("reviewer", rolesOf("p5role_amy"));
+            assertEquals("reviewer", rolesOf("p5role_ben"));
+            assertEquals(List.of("p5role_amy", "p5role_ben", "p5role_cat"), usersWithRole("reviewer"));
+            assertTrue(usersWithRole("student").isEmpty());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> dbHelper.addRoleToUsers(List.of("p5role_amy"), "superuser"));
+        }
+
+        @Test
+        @DisplayName("Bulk role removal should never take away the last admin")
+        public void testBulkRemoveKeepsAnAdmin() throws SQLException {
+            register("p5role_root", "admin");
+            register("p5role_ops", "admin", "staff");
+            List<String> admins = new ArrayList<>();
+            for (main.User user : dbHelper.getUsersByRole("admin")) {
+                admins.add(user.getUserName());
+            }
+
+            // Removing every admin changes nobody, nor may an admin demote themselves
+            assertEquals(0, dbHelper.removeRoleFromUsers(admins, "admin", "p5role_nobody"));
+            assertEquals(0, dbHelper.removeRoleFromUsers(List.of("p5role_ops"), "admin", "p5role_ops"));
+            assertEquals("admin,staff", rolesOf("p5role_ops"));
+
+            assertEquals(1, dbHelper.removeRoleFromUsers(List.of("p5role_ops"), "admin", "p5role_root"));
+            assertEquals("staff", rolesOf("p5role_ops"));
+            Map<String, Integer> counts = dbHelper.countUsersByRole();
+            assertTrue(counts.get("admin") >= 1);
+            assertTrue(counts.get("staff") >= 1);
+        }
+    }
+
+    /**
+     * Test suite for the session principal and its invalidation.
+     */
+    @Nested
+    @DisplayName("Session Context Tests")
+    public class SessionContextTests {
+
+        private DatabaseHelper dbHelper;
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper3 = new DatabaseHelper3();
+            clearUsers();
+            dbHelper.register(new main.User("p5ses_amy", "Passw0rd!", "Amy Adams", "amy@example.com",
+                    new String[] {"student"}));
+            dbHelper.register(new main.User("p5ses_ben", "Passw0rd!", "Ben Brown", "ben@example.com",
+                    new String[] {"student", "reviewer"}));
+            // Role changes are refused if they would leave no admin
+            dbHelper.register(new main.User("p5ses_admin", "Passw0rd!", "Admin", "admin@example.com",
+                    new String[] {"admin"}));
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            clearUsers();
+            BanRegistry.getInstance().reload(ConnectionPool.getInstance());
+        }
+
+        private void clearUsers() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM banned_students WHERE student_username LIKE 'p5ses%'");
+                statement.execute("DELETE FROM Feedback WHERE receiver LIKE 'p5ses%' OR sender LIKE 'p5ses%'");
+                statement.execute("DELETE FROM conversation_summary WHERE owner LIKE 'p5ses%'");
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5ses%'");
+            }
+        }
+
+        @Test
+        @DisplayName("Logging in should load the whole principal with one query")
+        public void testLoginLoadsPrincipal() throws SQLException {
+            dbHelper2.addFeedback(new Feedback(0, "p5ses_ben", "p5ses_amy", "p5 hello", new Date(), 0));
+            dbHelper3.banStudent("p5ses_amy", "p5ses_ben", "p5 reason");
+
+            assertNull(SessionContext.login("p5ses_amy", "wrong password"));
+            assertNull(SessionContext.login("p5ses_nobody", "Passw0rd!"));
+
+            SessionContext session = SessionContext.login("p5ses_amy", "Passw0rd!");
+            assertNotNull(session);
+            assertTrue(session.isCurrent());
+            main.SessionPrincipal principal = session.getPrincipal();
+            assertEquals("p5ses_amy", principal.getUserName());
+            assertEquals("Amy Adams", principal.getFullName());
+            assertEquals("amy@example.com", principal.getEmail());
+            assertArrayEquals(new String[] {"student"}, principal.getRoles());
+            assertTrue(principal.hasRole("student"));
+            assertFalse(principal.hasRole("reviewer"));
+            assertTrue(principal.isBanned());
+            assertEquals(1, principal.getUnreadMessageCount());
+            // Asking again does not load a new principal
+            assertSame(principal, session.getPrincipal());
+        }
+
+        @Test
+        @DisplayName("Role and ban changes should invalidate only that user's sessions")
+        public void testInvalidation() throws SQLException {
+            SessionContext amy = SessionContext.login("p5ses_amy", "Passw0rd!");
+            SessionContext ben = SessionContext.login("p5ses_ben", "Passw0rd!");
+            main.SessionPrincipal before = amy.getPrincipal();
+
+            dbHelper.updateUserRoles("p5ses_amy", new String[] {"student", "reviewer"}, "p5ses_admin");
+            assertFalse(amy.isCurrent());
+            assertTrue(ben.isCurrent());
+            main.SessionPrincipal after = amy.getPrincipal();
+            assertNotSame(before, after);
+            assertTrue(after.hasRole("reviewer"));
+            assertFalse(before.hasRole("reviewer"));
+            assertTrue(amy.isCurrent());
+
+            dbHelper3.banStudent("p5ses_amy", "p5ses_ben", "p5 reason");
+            assertFalse(amy.isCurrent());
+            assertTrue(amy.getPrincipal().isBanned());
+            dbHelper3.unbanStudent("p5ses_amy");
+            assertFalse(amy.getPrincipal().isBanned());
+
+            dbHelper.removeRoleFromUsers(List.of("p5ses_ben"), "reviewer", "p5ses_admin");
+            assertFalse(ben.isCurrent());
+            assertFalse(ben.getPrincipal().hasRole("reviewer"));
+
+            // A session opened by username loads its principal when first asked
+            SessionContext lazy = SessionContext.forUser("p5ses_ben");
+            assertFalse(lazy.isCurrent());
+            assertEquals("Ben Brown", lazy.getPrincipal().getFullName());
+            assertThrows(SQLException.class, () -> SessionContext.forUser("p5ses_nobody").getPrincipal());
+        }
+
+        @Test
+        @DisplayName("A ban that is rolled back should not invalidate the session")
+        public void testRolledBackBanKeepsSession() throws SQLException {
+            SessionContext amy = SessionContext.login("p5ses_amy", "Passw0rd!");
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                dbHelper3.banStudent("p5ses_amy", "p5ses_ben", "p5 reason");
+                throw new SQLException("p5 abort");
+            }));
+            assertTrue(amy.isCurrent());
+            assertFalse(amy.getPrincipal().isBanned());
+        }
+    }
+
+    /**
+     * Test suite for DatabaseConfig and the H2ServerLauncher.
+     */
+    @Nested
+    @DisplayName("Database Config Tests")
+    public class DatabaseConfigTests {
+
+        @Test
+        @DisplayName("Defaults should open the embedded database as before")
+        public void testDefaults() {
+            DatabaseConfig config = DatabaseConfig.defaults();
+            assertEquals("jdbc:h2:~/FoundationDatabase", config.getJdbcUrl());
+            assertEquals("~/FoundationDatabase", config.getDatabaseName());
+            assertEquals(ConnectionPool.DEFAULT_MAX_SIZE, config.getMaxPoolSize());
+            assertFalse(config.isLeakTrace());
+            assertFalse(config.isServerEnabled());
+            assertEquals(9092, config.getServerPort());
+        }
+
+        @Test
+        @DisplayName("Environment variables should override the properties file")
+        public void testEnvironmentOverrides() {
+            Properties file = new Properties();
+            file.setProperty("db.url", "jdbc:h2:~/p5config;MODE=REGULAR");
+            file.setProperty("pool.maxSize", "4");
+            file.setProperty("h2.cacheSizeKb", "32768");
+            file.setProperty("h2.lockTimeoutMillis", "2000");
+
+            assertEquals("ARS_POOL_MAX_SIZE", DatabaseConfig.envName("pool.maxSize"));
+            assertEquals("ARS_DB_URL", DatabaseConfig.envName("db.url"));
+            DatabaseConfig config = DatabaseConfig.from(file,
+                    Map.of("ARS_POOL_MAX_SIZE", "16", "ARS_H2_LOCK_TIMEOUT_MILLIS", "500", "ARS_SERVER_ENABLED", "true"));
+
+            assertEquals(16, config.getMaxPoolSize());
+            assertTrue(config.isServerEnabled());
+            assertEquals("jdbc:h2:~/p5config;MODE=REGULAR;CACHE_SIZE=32768;LOCK_TIMEOUT=500", config.getJdbcUrl());
+            assertEquals("~/p5config", config.getDatabaseName());
+
+            // Settings already in the URL are left alone
+            file.setProperty("db.url", "jdbc:h2:~/p5config;cache_size=1024");
+            assertEquals("jdbc:h2:~/p5config;cache_size=1024;LOCK_TIMEOUT=2000",
+                    DatabaseConfig.from(file, Map.of()).getJdbcUrl());
+        }
+
+        @Test
+        @DisplayName("Lists should reload instead of syncing when other processes share the database")
+        public void testSharedDatabase() throws SQLException {
+            assertFalse(DatabaseConfig.defaults().isShared());
+            assertTrue(DatabaseConfig.from(new Properties(), Map.of("ARS_SERVER_ENABLED", "true")).isShared());
+            assertTrue(DatabaseConfig.from(new Properties(),
+                    Map.of("ARS_DB_URL", "jdbc:h2:tcp://localhost:9092/~/FoundationDatabase")).isShared());
+            assertTrue(DatabaseConfig.from(new Properties(),
+                    Map.of("ARS_DB_URL", "jdbc:h2:~/FoundationDatabase;auto_server=true")).isShared());
+
+            DatabaseConfig previous = DatabaseConfig.get();
+            DatabaseHelper2 dbHelper2 = new DatabaseHelper2();
+            dbHelper2.connectToDatabase();
+            try {
+                assertNotNull(new Questions(dbHelper2).rowSync("p5viewer", null, false));
+                DatabaseConfig.set(DatabaseConfig.from(new Properties(), Map.of("ARS_SERVER_ENABLED", "true")));
+                assertNull(new Questions(dbHelper2).rowSync("p5viewer", null, false));
+                assertNull(new Answers(dbHelper2).answerSync(1));
+            } finally {
+                DatabaseConfig.set(previous);
+            }
+        }
+
+        @Test
+        @DisplayName("Invalid settings should be reported by key")
+        public void testInvalidSettings() {
+            Properties file = new Properties();
+            file.setProperty("pool.maxSize", "many");
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> DatabaseConfig.from(file, Map.of()));
+            assertTrue(e.getMessage().contains("pool.maxSize"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> DatabaseConfig.from(new Properties(), Map.of("ARS_POOL_MIN_SIZE", "20")));
+            assertThrows(IllegalArgumentException.class,
+                    () -> DatabaseConfig.from(new Properties(), Map.of("ARS_SHARED_REFRESH_MILLIS", "0")));
+        }
+
+        @Test
+        @DisplayName("The TCP server should let another client share the database")
+        public void testSharedServer() throws Exception {
+            int port;
+            try (java.net.ServerSocket socket = new java.net.ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            Properties file = new Properties();
+            file.setProperty("db.url", "jdbc:h2:mem:p5shared;DB_CLOSE_DELAY=-1");
+            file.setProperty("server.port", String.valueOf(port));
+            DatabaseConfig config = DatabaseConfig.from(file, Map.of());
+
+            try (Connection local = java.sql.DriverManager.getConnection(config.getJdbcUrl(), "sa", "")) {
+                H2ServerLauncher stopped;
+                try (H2ServerLauncher server = H2ServerLauncher.start(config)) {
+                    assertTrue(server.isRunning());
+                    assertEquals(port, server.getPort());
+                    assertEquals("jdbc:h2:tcp://localhost:" + port + "/mem:p5shared", server.getClientUrl("localhost"));
+                    try (Statement statement = local.createStatement()) {
+                        statement.execute("CREATE TABLE p5shared (id INT PRIMARY KEY)");
+                        statement.execute("INSERT INTO p5shared VALUES (1)");
+                    }
+                    // A second client sees the first one's writes and the first sees the second's
+                    try (Connection remote = java.sql.DriverManager.getConnection(server.getClientUrl("localhost"), "sa", "");
+                         Statement statement = remote.createStatement()) {
+                        statement.execute("INSERT INTO p5shared VALUES (2)");
+                        ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM p5shared");
+                        assertTrue(rs.next());
+                        assertEquals(2, rs.getInt(1));
+                    }
+                    try (Statement statement = local.createStatement();
+                         ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM p5shared")) {
+                        assertTrue(rs.next());
+                        assertEquals(2, rs.getInt(1));
+                    }
+                    stopped = server;
+                }
+                // Closing the launcher stops the server
+                assertFalse(stopped.isRunning());
+                try (Statement statement = local.createStatement()) {
+                    statement.execute("DROP TABLE p5shared");
+                }
+            }
+        }
+    }
+
+    /**
+     * Test suite for the headless HTTP/JSON API.
+     */
+    @Nested
+    @DisplayName("Api Server Tests")
+    public class ApiServerTests {
+
+        private DatabaseHelper dbHelper;
+        private DatabaseHelper3 dbHelper3;
+        private ApiServer server;
+
+        @BeforeEach
+        public void setUp() throws Exception {
+            dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            dbHelper3 = new DatabaseHelper3();
+            clearApiData();
+            dbHelper.register(new main.User("p5api_amy", "Passw0rd!", "Amy Adams", "amy@example.com",
+                    new String[] {"student"}));
+            dbHelper.register(new main.User("p5api_ben", "Passw0rd!", "Ben Brown", "ben@example.com",
+                    new String[] {"student", "reviewer"}));
+            dbHelper.register(new main.User("p5api_ina", "Passw0rd!", "Ina Irwin", "ina@example.com",
+                    new String[] {"instructor"}));
+            dbHelper.register(new main.User("p5api_admin", "Passw0rd!", "Admin", "admin@example.com",
+                    new String[] {"admin"}));
+            server = ApiServer.start(0);
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            server.close();
+            clearApiData();
+            BanRegistry.getInstance().reload(ConnectionPool.getInstance());
+        }
+
+        private void clearApiData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                String questions = "SELECT questionId FROM Questions WHERE author LIKE 'p5api%'";
+                statement.execute("DELETE FROM reviews WHERE question_id IN (" + questions + ")");
+                statement.execute("DELETE FROM ReadStatus WHERE answerId IN "
+                        + "(SELECT answerId FROM Answers WHERE questionId IN (" + questions + "))");
+                statement.execute("DELETE FROM Answers WHERE questionId IN (" + questions + ")");
+                statement.execute("DELETE FROM Questions WHERE author LIKE 'p5api%'");
+                statement.execute("DELETE FROM TrustedReviewers WHERE studentUsername LIKE 'p5api%'");
+                statement.execute("DELETE FROM Feedback WHERE sender LIKE 'p5api%' OR receiver LIKE 'p5api%'");
+                statement.execute("DELETE FROM conversation_summary WHERE owner LIKE 'p5api%'");
+                statement.execute("DELETE FROM AdminRequests WHERE requester_username LIKE 'p5api%' "
+                        + "AND reopened_from_id IS NOT NULL");
+                statement.execute("DELETE FROM AdminRequests WHERE requester_username LIKE 'p5api%'");
+                statement.execute("DELETE FROM banned_students WHERE student_username LIKE 'p5api%'");
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5api%'");
+            }
+        }
+
+        private static final class Reply {
+            final int status;
+            final Object body;
+
+            Reply(int status, Object body) {
+                this.status = status;
+                this.body = body;
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> object() {
+                return (Map<String, Object>) body;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> list() {
+                return (List<Map<String, Object>>) body;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> items() {
+                return (List<Map<String, Object>>) object().get("items");
+            }
+        }
+
+        private Reply send(String method, String path, String token, String body) throws java.io.IOException {
+            java.net.HttpURLConnection connection = (java.net.HttpURLConnection)
+                    java.net.URI.create("http://localhost:" + server.getPort() + path).toURL().openConnection();
+            connection.setRequestMethod(method);
+            if (token != null) {
+                connection.setRequestProperty("Authorization", "Bearer " + token);
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                try (java.io.OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            java.io.InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            try (in) {
+                return new Reply(status, Json.parse(new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8)));
+            }
+        }
+
+        private String login(String userName) throws java.io.IOException {
+            Reply reply = send("POST", "/api/login", null,
+                    "{\"userName\":\"" + userName + "\",\"password\":\"Passw0rd!\"}");
+            assertEquals(200, reply.status);
+            return (String) reply.object().get("token");
+        }
+
+        @Test
+        @DisplayName("Requests should need a valid token and report errors as JSON")
+        public void testAuthenticationAndErrors() throws Exception {
+            assertEquals(401, send("GET", "/api/questions", null, null).status);
+            assertEquals(401, send("GET", "/api/questions", "not-a-token", null).status);
+            Reply badLogin = send("POST", "/api/login", null, "{\"userName\":\"p5api_amy\",\"password\":\"nope\"}");
+            assertEquals(401, badLogin.status);
+            assertNotNull(badLogin.object().get("error"));
+
+            String token = login("p5api_amy");
+            assertEquals(200, send("GET", "/api/questions", token, null).status);
+            assertEquals(404, send("GET", "/api/nothing-here", token, null).status);
+            assertEquals(405, send("DELETE", "/api/questions", token, null).status);
+            assertEquals(400, send("POST", "/api/questions", token, "{not json").status);
+            assertEquals(400, send("POST", "/api/questions", token, "{}").status);
+            assertEquals(400, send("GET", "/api/questions?limit=0", token, null).status);
+
+            assertEquals(200, send("POST", "/api/logout", token, null).status);
+            assertEquals(401, send("GET", "/api/questions", token, null).status);
+        }
+
+        @Test
+        @DisplayName("Tokens should expire when idle and be dropped with their user")
+        public void testTokenExpiry() throws Exception {
+            server.close();
+            server = ApiServer.start(0, 200);
+            String amy = login("p5api_amy");
+            assertEquals(200, send("GET", "/api/questions", amy, null).status);
+            Thread.sleep(300);
+            assertEquals(401, send("GET", "/api/questions", amy, null).status);
+            assertEquals(0, server.getTokenCount());
+
+            // Tokens nobody uses again are swept out at a later login
+            login("p5api_amy");
+            Thread.sleep(300);
+            String ben = login("p5api_ben");
+            assertEquals(1, server.getTokenCount());
+
+            // A deleted user's token is refused and forgotten instead of failing the request
+            assertTrue(dbHelper.deleteUser("p5api_ben", "p5api_admin"));
+            Reply deleted = send("GET", "/api/questions", ben, null);
+            assertEquals(401, deleted.status);
+            assertEquals(0, server.getTokenCount());
+        }
+
+        @Test
+        @DisplayName("Questions and answers should be posted and paged through the API")
+        public void testQuestionsAndAnswers() throws Exception {
+            String amy = login("p5api_amy");
+            String ben = login("p5api_ben");
+            long firstId = 0;
+            for (int i = 1; i <= 3; i++) {
+                Reply posted = send("POST", "/api/questions", amy, "{\"content\":\"p5api question " + i + "\"}");
+                assertEquals(201, posted.status);
+                assertEquals("p5api_amy", posted.object().get("author"));
+                long id = (Long) posted.object().get("questionId");
+                assertTrue(id > 0);
+                if (i == 1) {
+                    firstId = id;
+                }
+            }
+
+            Reply page = send("GET", "/api/questions?author=p5api_amy&limit=2", ben, null);
+            assertEquals(200, page.status);
+            assertEquals(2, page.items().size());
+            assertEquals("p5api question 3", page.items().get(0).get("contentPreview"));
+            String next = (String) page.object().get("next");
+            assertNotNull(next);
+            Reply rest = send("GET", "/api/questions?author=p5api_amy&limit=2&after=" + next, ben, null);
+            assertEquals(1, rest.items().size());
+            assertEquals(firstId, rest.items().get(0).get("questionId"));
+
+            assertEquals(201, send("POST", "/api/questions/" + firstId + "/answers", ben,
+                    "{\"content\":\"p5api answer\"}").status);
+            Reply question = send("GET", "/api/questions/" + firstId, amy, null);
+            assertEquals(200, question.status);
+            assertEquals(1L, question.object().get("answerCount"));
+            Reply answers = send("GET", "/api/questions/" + firstId + "/answers", amy, null);
+            assertEquals(1, answers.items().size());
+            assertEquals("p5api_ben", answers.items().get(0).get("author"));
+
+            assertEquals(404, send("GET", "/api/questions/999999999", amy, null).status);
+            assertEquals(404, send("POST", "/api/questions/999999999/answers", amy, "{\"content\":\"x\"}").status);
+
+            // A ban takes effect on the open session
+            dbHelper3.banStudent("p5api_amy", "p5api_ben", "p5 reason");
+            assertEquals(403, send("POST", "/api/questions", amy, "{\"content\":\"p5api banned\"}").status);
+        }
+
+        @Test
+        @DisplayName("Reviews, trusted reviewers and messages should follow the caller's roles")
+        public void testReviewsAndMessages() throws Exception {
+            String amy = login("p5api_amy");
+            String ben = login("p5api_ben");
+            long questionId = (Long) send("POST", "/api/questions", amy,
+                    "{\"content\":\"p5api reviewed question\"}").object().get("questionId");
+
+            String review = "{\"questionId\":" + questionId + ",\"content\":\"p5api review\"}";
+            assertEquals(403, send("POST", "/api/reviews", amy, review).status);
+            Reply posted = send("POST", "/api/reviews", ben, review);
+            assertEquals(201, posted.status);
+            assertTrue((Long) posted.object().get("reviewId") > 0);
+
+            Reply trusted = send("PUT", "/api/trusted-reviewers/p5api_ben", amy, "{\"weightage\":3}");
+            assertEquals(200, trusted.status);
+            assertEquals(3L, trusted.object().get("p5api_ben"));
+            Reply reviews = send("GET", "/api/questions/" + questionId + "/reviews", amy, null);
+            assertEquals(1, reviews.list().size());
+            assertEquals(true, reviews.list().get(0).get("trusted"));
+            assertEquals(200, send("DELETE", "/api/trusted-reviewers/p5api_ben", amy, null).status);
+            assertTrue(send("GET", "/api/trusted-reviewers", amy, null).object().isEmpty());
+
+            Reply sent = send("POST", "/api/messages", amy,
+                    "{\"receiver\":\"p5api_ben\",\"content\":\"p5api hello\",\"questionId\":" + questionId + "}");
+            assertEquals(201, sent.status);
+            assertTrue((Long) sent.object().get("feedbackId") > 0);
+            Reply inbox = send("GET", "/api/messages", ben, null);
+            assertEquals(1, inbox.list().size());
+            assertEquals("p5api_amy", inbox.list().get(0).get("partner"));
+            assertEquals(1L, inbox.list().get(0).get("unreadCount"));
+            Reply conversation = send("GET", "/api/messages/p5api_amy", ben, null);
+            assertEquals("p5api hello", conversation.list().get(0).get("content"));
+            assertEquals(200, send("POST", "/api/messages/p5api_amy/read", ben, null).status);
+            assertEquals(0L, send("GET", "/api/messages", ben, null).list().get(0).get("unreadCount"));
+        }
+
+        @Test
+        @DisplayName("Admin requests should be opened, closed and reopened by the right roles")
+        public void testAdminRequests() throws Exception {
+            String amy = login("p5api_amy");
+            String ina = login("p5api_ina");
+            String admin = login("p5api_admin");
+            String create = "{\"title\":\"p5api title\",\"description\":\"p5api needs\"}";
+            assertEquals(403, send("POST", "/api/admin-requests", amy, create).status);
+            assertEquals(403, send("GET", "/api/admin-requests", amy, null).status);
+
+            Reply created = send("POST", "/api/admin-requests", ina, create);
+            assertEquals(201, created.status);
+            long id = (Long) created.object().get("requestId");
+            assertEquals(403, send("POST", "/api/admin-requests/" + id + "/close", ina, "{}").status);
+            Reply closed = send("POST", "/api/admin-requests/" + id + "/close", admin, "{\"notes\":\"p5api done\"}");
+            assertEquals(200, closed.status);
+            assertEquals("p5api_admin", closed.object().get("closedBy"));
+            assertEquals(409, send("POST", "/api/admin-requests/" + id + "/close", admin, "{}").status);
+            assertTrue(send("GET", "/api/admin-requests?status=closed", admin, null).list().stream()
+                    .anyMatch(r -> r.get("requestId").equals(id)));
+
+            Reply reopened = send("POST", "/api/admin-requests/" + id + "/reopen", ina, "{\"description\":\"p5api again\"}");
+            assertEquals(201, reopened.status);
+            assertEquals(id, reopened.object().get("reopenedFromId"));
+            assertEquals(409, send("POST", "/api/admin-requests/" + id + "/reopen", ina, "{\"description\":\"x\"}").status);
+        }
+
+        @Test
+        @DisplayName("Concurrent clients should all be served and counted in the metrics")
+        public void testConcurrentClients() throws Exception {
+            String amy = login("p5api_amy");
+            send("POST", "/api/questions", amy, "{\"content\":\"p5api concurrent\"}");
+            int clients = 50;
+            List<CompletableFuture<Integer>> replies = new ArrayList<>();
+            try (java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    replies.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return send("GET", "/api/questions?author=p5api_amy", amy, null).status;
+                        } catch (java.io.IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+                    }, executor));
+                }
+                for (CompletableFuture<Integer> reply : replies) {
+                    assertEquals(200, reply.get(30, TimeUnit.SECONDS));
+                }
+            }
+
+            main.ApiMetrics.RouteStats stats = server.getMetrics().getRoute("GET /api/questions");
+            assertEquals(clients, stats.getRequests());
+            assertEquals(0, stats.getServerErrors());
+            assertTrue(stats.getLatency().getPercentileMicros(99) >= stats.getLatency().getPercentileMicros(50));
+
+            Reply metrics = send("GET", "/api/metrics", null, null);
+            assertEquals(200, metrics.status);
+            assertTrue((Long) metrics.object().get("requests") >= clients + 2);
+            assertNotNull(((Map<?, ?>) metrics.object().get("routes")).get("GET /api/questions"));
+        }
+    }
+
+    /**
+     * Test suite for the EventBus and the change events the helpers publish.
+     */
+    @Nested
+    @DisplayName("Event Bus Tests")
+    public class EventBusTests {
+
+        private DatabaseHelper dbHelper;
+        private DatabaseHelper2 dbHelper2;
+        private DatabaseHelper3 dbHelper3;
+        private final List<ChangeEvent> events = new java.util.concurrent.CopyOnWriteArrayList<>();
+        private EventBus.Subscription subscription;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            dbHelper = new DatabaseHelper();
+            dbHelper.connectToDatabase();
+            dbHelper2 = new DatabaseHelper2();
+            dbHelper3 = new DatabaseHelper3();
+            clearEventData();
+            dbHelper.register(new main.User("p5evt_amy", "Passw0rd!", "Amy Adams", "amy@example.com",
+                    new String[] {"student"}));
+            dbHelper.register(new main.User("p5evt_ben", "Passw0rd!", "Ben Brown", "ben@example.com",
+                    new String[] {"student", "reviewer"}));
+            subscription = EventBus.getInstance().subscribe(ChangeEvent.class, events::add);
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            subscription.close();
+            clearEventData();
+            BanRegistry.getInstance().reload(ConnectionPool.getInstance());
+        }
+
+        private void clearEventData() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                String questions = "SELECT questionId FROM Questions WHERE author LIKE 'p5evt%'";
+                statement.execute("DELETE FROM reviews WHERE question_id IN (" + questions + ")");
+                statement.execute("DELETE FROM ReadStatus WHERE answerId IN "
+                        + "(SELECT answerId FROM Answers WHERE questionId IN (" + questions + "))");
+                statement.execute("DELETE FROM Answers WHERE questionId IN (" + questions + ")");
+                statement.execute("DELETE FROM Questions WHERE author LIKE 'p5evt%'");
+                statement.execute("DELETE FROM feedback_recipients WHERE recipient LIKE 'p5evt%'");
+                statement.execute("DELETE FROM Feedback WHERE sender LIKE 'p5evt%' OR receiver LIKE 'p5evt%'");
+                statement.execute("DELETE FROM conversation_summary WHERE owner LIKE 'p5evt%'");
+                statement.execute("DELETE FROM banned_students WHERE student_username LIKE 'p5evt%'");
+                statement.execute("DELETE FROM cse360users WHERE userName LIKE 'p5evt%'");
+            }
+        }
+
+        private <E extends ChangeEvent> List<E> eventsOf(Class<E> type) {
+            List<E> found = new ArrayList<>();
+            for (ChangeEvent event : events) {
+                if (type.isInstance(event)) {
+                    found.add(type.cast(event));
+                }
+            }
+            return found;
+        }
+
+        @Test
+        @DisplayName("Subscribers should receive their event class and its subclasses until they unsubscribe")
+        public void testSubscriptions() {
+            List<ChangeEvent.QuestionEvent> questionEvents = new ArrayList<>();
+            List<ChangeEvent.AnswerAdded> answerEvents = new ArrayList<>();
+            EventBus.Subscription failing = EventBus.getInstance().subscribe(ChangeEvent.AnswerAdded.class,
+                    event -> { throw new IllegalStateException("p5 listener failure"); });
+            EventBus.Subscription questions = EventBus.getInstance().subscribe(ChangeEvent.QuestionEvent.class,
+                    questionEvents::add);
+            EventBus.Subscription answers = EventBus.getInstance().subscribe(ChangeEvent.AnswerAdded.class,
+                    answerEvents::add);
+            try {
+                assertTrue(EventBus.getInstance().getListenerCount(ChangeEvent.AnswerAdded.class) >= 2);
+                EventBus.getInstance().publish(new ChangeEvent.AnswerAdded(7, 3, "p5evt_amy"));
+                EventBus.getInstance().publish(new ChangeEvent.QuestionDeleted(3));
+                EventBus.getInstance().publish(new ChangeEvent.UserBanned("p5evt_amy", true));
+
+                // A failing listener does not keep the others from their events
+                assertEquals(2, questionEvents.size());
+                assertEquals(1, answerEvents.size());
+                assertEquals(7, answerEvents.get(0).getAnswerId());
+                assertEquals(3, questionEvents.get(1).getQuestionId());
+                assertEquals(3, events.size());
+
+                // Unsubscribing twice is harmless
+                answers.close();
+                answers.close();
+                EventBus.getInstance().publish(new ChangeEvent.AnswerAdded(8, 3, "p5evt_amy"));
+                assertEquals(1, answerEvents.size());
+                assertEquals(3, questionEvents.size());
+            } finally {
+                failing.close();
+                questions.close();
+                answers.close();
+            }
+        }
+
+        @Test
+        @DisplayName("Question, answer and review writes should publish what changed")
+        public void testQuestionEvents() throws SQLException {
+            Question question = new Question(0, "p5evt question", "p5evt_amy", new Date());
+            dbHelper2.addQuestion(question);
+            ChangeEvent.QuestionAdded added = eventsOf(ChangeEvent.QuestionAdded.class).get(0);
+            assertEquals(question.getQuestionId(), added.getQuestionId());
+            assertEquals("p5evt_amy", added.getAuthor());
+
+            dbHelper2.addAnswer(new Answer(0, question.getQuestionId(), "p5evt answer", "p5evt_ben", new Date()));
+            ChangeEvent.AnswerAdded answer = eventsOf(ChangeEvent.AnswerAdded.class).get(0);
+            assertEquals(question.getQuestionId(), answer.getQuestionId());
+            assertTrue(answer.getAnswerId() > 0);
+
+            Review review = new Review(0, "p5evt_ben", "p5evt review", new Date(), question.getQuestionId(),
+                    answer.getAnswerId());
+            dbHelper3.addReview(review);
+            ChangeEvent.ReviewAdded reviewed = eventsOf(ChangeEvent.ReviewAdded.class).get(0);
+            assertEquals(review.getReviewId(), reviewed.getReviewId());
+            assertEquals(Integer.valueOf(answer.getAnswerId()), reviewed.getAnswerId());
+
+            question.setAnswered(true);
+            dbHelper2.updateQuestion(question);
+            assertEquals(1, eventsOf(ChangeEvent.QuestionUpdated.class).size());
+            dbHelper3.deleteReview(review.getReviewId());
+            dbHelper2.deleteAnswer(answer.getAnswerId());
+            assertEquals(question.getQuestionId(), eventsOf(ChangeEvent.AnswerDeleted.class).get(0).getQuestionId());
+            dbHelper2.deleteQuestion(question.getQuestionId());
+            assertEquals(1, eventsOf(ChangeEvent.QuestionDeleted.class).size());
+
+            // Deleting what is already gone changes nothing, so nothing is published
+            int published = events.size();
+            dbHelper2.deleteQuestion(question.getQuestionId());
+            dbHelper2.deleteAnswer(answer.getAnswerId());
+            assertEquals(published, events.size());
+        }
+
+        @Test
+        @DisplayName("Deleting the last answer should unresolve its question")
+        public void testLastAnswerDeletionUnresolves() throws SQLException {
+            Question question = new Question(0, "p5evt resolved question", "p5evt_amy", new Date());
+            question.setAnswered(true);
+            dbHelper2.addQuestion(question);
+            int questionId = question.getQuestionId();
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5evt first", "p5evt_ben", new Date()));
+            dbHelper2.addAnswer(new Answer(0, questionId, "p5evt second", "p5evt_ben", new Date()));
+            List<ChangeEvent.AnswerAdded> added = eventsOf(ChangeEvent.AnswerAdded.class);
+            try {
+                dbHelper2.deleteAnswer(added.get(0).getAnswerId());
+                assertTrue(dbHelper2.getQuestionById(questionId).isAnswered());
+                assertTrue(eventsOf(ChangeEvent.QuestionUpdated.class).isEmpty());
+
+                dbHelper2.deleteAnswer(added.get(1).getAnswerId());
+                assertFalse(dbHelper2.getQuestionById(questionId).isAnswered());
+                assertEquals(questionId, eventsOf(ChangeEvent.QuestionUpdated.class).get(0).getQuestionId());
+            } finally {
+                dbHelper2.deleteQuestion(questionId);
+            }
+        }
+
+        @Test
+        @DisplayName("Messages, reads and bans should publish once committed")
+        public void testMessageAndBanEvents() throws SQLException {
+            dbHelper2.addFeedback(new Feedback(0, "p5evt_amy", "p5evt_ben", "p5evt hello", new Date(), 0));
+            ChangeEvent.MessageSent sent = eventsOf(ChangeEvent.MessageSent.class).get(0);
+            assertTrue(sent.getFeedbackId() > 0);
+            assertTrue(sent.involves("p5evt_ben"));
+            assertFalse(sent.involves("p5evt_nobody"));
+
+            assertEquals(1, dbHelper2.broadcastFeedback(
+                    new Feedback(0, "p5evt_ben", null, "p5evt all", new Date(), 0), List.of("p5evt_amy", "p5evt_ben")));
+            assertEquals(List.of("p5evt_amy"), eventsOf(ChangeEvent.MessageSent.class).get(1).getReceivers());
+
+            // Reading marks the unread messages once; reading again changes nothing
+            dbHelper2.getConversation("p5evt_ben", "p5evt_amy");
+            dbHelper2.getConversation("p5evt_ben", "p5evt_amy");
+            List<ChangeEvent.MessagesRead> reads = eventsOf(ChangeEvent.MessagesRead.class);
+            assertEquals(1, reads.size());
+            assertEquals("p5evt_ben", reads.get(0).getReader());
+            assertEquals("p5evt_amy", reads.get(0).getPartner());
+
+            // Listeners see the registry already updated
+            boolean[] bannedWhenDelivered = new boolean[1];
+            EventBus.Subscription banListener = EventBus.getInstance().subscribe(ChangeEvent.UserBanned.class,
+                    event -> {
+                        try {
+                            bannedWhenDelivered[0] = BanRegistry.getInstance().isBanned(event.getUserName());
+                        } catch (SQLException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+            try {
+                dbHelper3.banStudent("p5evt_amy", "p5evt_ben", "p5 reason");
+            } finally {
+                banListener.close();
+            }
+            assertTrue(bannedWhenDelivered[0]);
+            dbHelper3.unbanStudent("p5evt_amy");
+            List<ChangeEvent.UserBanned> bans = eventsOf(ChangeEvent.UserBanned.class);
+            assertEquals(2, bans.size());
+            assertTrue(bans.get(0).isBanned());
+            assertFalse(bans.get(1).isBanned());
+        }
+
+        @Test
+        @DisplayName("A unit of work should publish after it commits and not at all if it rolls back")
+        public void testEventsFollowTheUnitOfWork() throws SQLException {
+            assertThrows(SQLException.class, () -> UnitOfWork.run(() -> {
+                dbHelper2.addQuestion(new Question(0, "p5evt rolled back", "p5evt_amy", new Date()));
+                throw new SQLException("p5 abort");
+            }));
+            assertTrue(events.isEmpty());
+
+            int[] seenInside = new int[1];
+            UnitOfWork.run(() -> {
+                dbHelper2.addQuestion(new Question(0, "p5evt committed", "p5evt_amy", new Date()));
+                dbHelper2.addFeedback(new Feedback(0, "p5evt_amy", "p5evt_ben", "p5evt in unit", new Date(), 0));
+                seenInside[0] = events.size();
+            });
+            assertEquals(0, seenInside[0]);
+            assertEquals(1, eventsOf(ChangeEvent.QuestionAdded.class).size());
+            assertEquals(1, eventsOf(ChangeEvent.MessageSent.class).size());
+        }
+    }
+
+    /**
+     * Test suite for the WorkloadGenerator.
+     */
+    @Nested
+    @DisplayName("Workload Generator Tests")
+    public class WorkloadGeneratorTests {
+
+        private static final String PREFIX = "p5gen_";
+
+        private WorkloadGenerator generator;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            new DatabaseHelper().connectToDatabase();
+            generator = WorkloadGenerator.forQuestions(200).users(40).prefix(PREFIX).roles(0.2, 0.05, 0.05);
+            generator.clear(ConnectionPool.getInstance());
+        }
+
+        @AfterEach
+        public void tearDown() throws SQLException {
+            generator.clear(ConnectionPool.getInstance());
+            // The generated bans bypass the registry
+            BanRegistry.getInstance().reload(ConnectionPool.getInstance());
+        }
+
+        private int count(String sql) throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(sql)) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        private int maxAnswersPerQuestion() throws SQLException {
+            return count("SELECT MAX(c) FROM (SELECT COUNT(*) c FROM Answers a JOIN Questions q "
+                    + "ON q.questionId = a.questionId WHERE q.author LIKE 'p5gen%' GROUP BY a.questionId)");
+        }
+
+        @Test
+        @DisplayName("Generated rows match the reported counts")
+        public void testCountsMatchDatabase() throws SQLException {
+            WorkloadGenerator.Result result = generator.generate(ConnectionPool.getInstance());
+
+            assertEquals(40, result.getUsers());
+            assertEquals(200, result.getQuestions());
+            assertEquals(400, result.getAnswers());
+            assertEquals(40, count("SELECT COUNT(*) FROM cse360users WHERE userName LIKE 'p5gen%'"));
+            assertEquals(200, count("SELECT COUNT(*) FROM Questions WHERE author LIKE 'p5gen%'"));
+            assertEquals(400, count("SELECT COUNT(*) FROM Answers WHERE author LIKE 'p5gen%'"));
+            assertEquals(result.getReviews(), count("SELECT COUNT(*) FROM reviews WHERE reviewer LIKE 'p5gen%'"));
+            assertEquals(result.getMessages(), count("SELECT COUNT(*) FROM Feedback WHERE sender LIKE 'p5gen%'"));
+            assertEquals(result.getTrustedReviewers(),
+                    count("SELECT COUNT(*) FROM TrustedReviewers WHERE studentUsername LIKE 'p5gen%'"));
+            assertEquals(result.getRequests(),
+                    count("SELECT COUNT(*) FROM AdminRequests WHERE requester_username LIKE 'p5gen%'"));
+            assertTrue(result.getTrustedReviewers() > 0);
+            // Each question marked answered has exactly one accepted answer
+            assertEquals(result.getAcceptedAnswers(),
+                    count("SELECT COUNT(*) FROM Questions WHERE author LIKE 'p5gen%' AND answered = TRUE"));
+            assertEquals(result.getAcceptedAnswers(),
+                    count("SELECT COUNT(*) FROM Answers WHERE author LIKE 'p5gen%' AND accepted = TRUE"));
+            assertEquals(0, count("SELECT COUNT(*) FROM Questions q WHERE q.author LIKE 'p5gen%' AND q.answered = TRUE "
+                    + "AND NOT EXISTS (SELECT 1 FROM Answers a WHERE a.questionId = q.questionId AND a.accepted = TRUE)"));
+            assertEquals("admin", generator.rolesOf(0));
+        }
+
+        @Test
+        @DisplayName("Follow-up questions refer to earlier generated questions")
+        public void testReferenceChains() throws SQLException {
+            generator.generate(ConnectionPool.getInstance());
+
+            assertTrue(count("SELECT COUNT(*) FROM Questions WHERE author LIKE 'p5gen%' "
+                    + "AND referenceQuestionId IS NOT NULL") > 0);
+            assertEquals(0, count("SELECT COUNT(*) FROM Questions q JOIN Questions r "
+                    + "ON r.questionId = q.referenceQuestionId "
+                    + "WHERE q.author LIKE 'p5gen%' AND (r.author NOT LIKE 'p5gen%' OR r.timestamp >= q.timestamp)"));
+        }
+
+        @Test
+        @DisplayName("Question skew concentrates answers on a few hot questions")
+        public void testQuestionSkew() throws SQLException {
+            generator.questionSkew(1.2).generate(ConnectionPool.getInstance());
+            int skewed = maxAnswersPerQuestion();
+            generator.clear(ConnectionPool.getInstance());
+
+            generator.questionSkew(0).generate(ConnectionPool.getInstance());
+            int uniform = maxAnswersPerQuestion();
+
+            // 400 answers over 200 questions average 2 per question
+            assertTrue(skewed >= 20, "Hottest skewed question had " + skewed + " answers");
+            assertTrue(uniform < 20, "Hottest uniform question had " + uniform + " answers");
+        }
+
+        @Test
+        @DisplayName("Conversation summaries agree with the generated messages")
+        public void testConversationSummaries() throws SQLException {
+            generator.generate(ConnectionPool.getInstance());
+
+            // Every unread message is counted once for its receiver
+            assertEquals(count("SELECT COUNT(*) FROM Feedback WHERE sender LIKE 'p5gen%' AND isRead = FALSE"),
+                    count("SELECT SUM(unread_count) FROM conversation_summary WHERE owner LIKE 'p5gen%'"));
+            assertEquals(0, count("SELECT COUNT(*) FROM Feedback f WHERE f.sender LIKE 'p5gen%' AND NOT EXISTS "
+                    + "(SELECT 1 FROM conversation_summary s WHERE s.owner = f.receiver AND s.partner = f.sender "
+                    + "AND s.last_message_time >= f.timestamp)"));
+
+            String user = generator.userName(1);
+            DatabaseHelper2 dbHelper2 = new DatabaseHelper2();
+            List<ConversationSummary> summaries = dbHelper2.getConversationSummaries(user);
+            assertFalse(summaries.isEmpty());
+            List<Feedback> conversation = dbHelper2.getConversation(user, summaries.get(0).getPartner());
+            assertFalse(conversation.isEmpty());
+        }
+
+        @Test
+        @DisplayName("The same seed generates the same data and clear removes it")
+        public void testDeterministicAndClear() throws SQLException {
+            generator.generate(ConnectionPool.getInstance());
+            List<String> firstContents = new ArrayList<>();
+            for (Question question : new DatabaseHelper2().searchQuestions("")) {
+                if (question.getAuthor().startsWith(PREFIX)) {
+                    firstContents.add(question.getAuthor() + ":" + question.getContent());
+                }
+            }
+            int bans = count("SELECT COUNT(*) FROM banned_students WHERE student_username LIKE 'p5gen%'");
+            generator.clear(ConnectionPool.getInstance());
+            assertEquals(0, count("SELECT COUNT(*) FROM Questions WHERE author LIKE 'p5gen%'"));
+            assertEquals(0, count("SELECT COUNT(*) FROM cse360users WHERE userName LIKE 'p5gen%'"));
+            assertEquals(0, count("SELECT COUNT(*) FROM conversation_summary WHERE owner LIKE 'p5gen%'"));
+
+            WorkloadGenerator.Result again = generator.generate(ConnectionPool.getInstance());
+            List<String> secondContents = new ArrayList<>();
+            for (Question question : new DatabaseHelper2().searchQuestions("")) {
+                if (question.getAuthor().startsWith(PREFIX)) {
+                    secondContents.add(question.getAuthor() + ":" + question.getContent());
+                }
+            }
+            assertEquals(firstContents, secondContents);
+            assertEquals(bans, again.getBans());
+
+            BanRegistry.getInstance().reload(ConnectionPool.getInstance());
+            assertEquals(bans, (int) BanRegistry.getInstance().getBannedUsernames().stream()
+                    .filter(name -> name.startsWith(PREFIX)).count());
+        }
+    }
+
+    /**
+     * Test suite for QueryStats and UiAction.
+     */
+    @Nested
+    @DisplayName("Query Statistics Tests")
+    public class QueryStatsTests {
+
+        private static final String RANGE = "SELECT X FROM SYSTEM_RANGE(1, ?)";
+
+        private QueryStats stats;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            new DatabaseHelper().connectToDatabase();
+            stats = QueryStats.getInstance();
+            stats.reset();
+            stats.setNPlusOneThreshold(10);
+        }
+
+        @AfterEach
+        public void tearDown() {
+            stats.setSlowQueryMillis(DatabaseConfig.get().getSlowQueryMillis());
+            stats.setNPlusOneThreshold(DatabaseConfig.get().getNPlusOneThreshold());
+            stats.reset();
+        }
+
+        // Runs RANGE and reads every row
+        private int range(int rows) throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement statement = connection.prepareStatement(RANGE)) {
+                statement.setInt(1, rows);
+                int read = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                    }
+                }
+                return read;
+            }
+        }
+
+        private void awaitFinished(UiAction action) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!action.isFinished() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(action.isFinished(), "Action did not finish");
+        }
+
+        @Test
+        @DisplayName("Literals, whitespace and IN lists collapse into one shape")
+        public void testShapeOf() {
+            assertEquals("SELECT * FROM Questions WHERE questionId = ?",
+                    QueryStats.shapeOf("SELECT *\n  FROM Questions   WHERE questionId = 42"));
+            assertEquals("SELECT * FROM cse360users WHERE userName = ? AND roles = ?",
+                    QueryStats.shapeOf("SELECT * FROM cse360users WHERE userName = 'o''brien' AND roles = 'admin'"));
+            assertEquals(QueryStats.shapeOf("SELECT a FROM t WHERE id IN (1, 2, 3)"),
+                    QueryStats.shapeOf("SELECT a FROM t WHERE id IN (?,?)"));
+            assertEquals("SELECT a FROM t WHERE id IN (?...)", QueryStats.shapeOf("SELECT a FROM t WHERE id IN (7, 8)"));
+            // Digits inside identifiers are kept
+            assertEquals("SELECT col1 FROM table2 WHERE x = ?", QueryStats.shapeOf("SELECT col1 FROM table2 WHERE x = 0.5"));
+        }
+
+        @Test
+        @DisplayName("Executions and rows are counted per shape")
+        public void testCountsPerShape() throws SQLException {
+            assertEquals(25, range(25));
+            assertEquals(10, range(10));
+            // The same query built with literals counts towards the prepared shape
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT X FROM SYSTEM_RANGE(1, 5)")) {
+                rs.next();
+            }
+
+            QueryStats.ShapeStats shape = stats.getShape(RANGE);
+            assertNotNull(shape);
+            assertEquals(3, shape.getExecutions());
+            assertEquals(36, shape.getRows());
+            assertEquals(3, shape.getLatency().getCount());
+            assertEquals(0, shape.getErrors());
+        }
+
+        @Test
+        @DisplayName("Failed statements and updates are recorded")
+        public void testErrorsAndUpdates() throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement()) {
+                assertThrows(SQLException.class, () -> statement.executeQuery("SELECT * FROM p5_no_such_table"));
+                statement.execute("CREATE LOCAL TEMPORARY TABLE p5_stats (id INT)");
+                assertEquals(3, statement.executeUpdate("INSERT INTO p5_stats VALUES (1), (2), (3)"));
+            }
+            assertEquals(1, stats.getShape("SELECT * FROM p5_no_such_table").getErrors());
+            assertEquals(3, stats.getShape("INSERT INTO p5_stats VALUES (?), (?), (?)").getRows());
+        }
+
+        @Test
+        @DisplayName("Slow statements are logged with their bind values")
+        public void testSlowQueryLog() throws SQLException {
+            stats.setSlowQueryMillis(0);
+            range(1_000);
+            assertTrue(stats.getSlowQueries().isEmpty());
+
+            stats.setSlowQueryMillis(1);
+            UiAction.run("Sum a range", () -> assertDoesNotThrow(() -> {
+                try (Connection connection = ConnectionPool.getInstance().getConnection();
+                     PreparedStatement statement = connection.prepareStatement(
+                             "SELECT SUM(X) FROM SYSTEM_RANGE(1, ?) WHERE X > CHAR_LENGTH(CAST(? AS VARCHAR))")) {
+                    statement.setInt(1, 300_000);
+                    statement.setString(2, "skip");
+                    try (ResultSet rs = statement.executeQuery()) {
+                        rs.next();
+                    }
+                }
+            }));
+            List<QueryStats.SlowQuery> slow = stats.getSlowQueries();
+            assertFalse(slow.isEmpty());
+            assertEquals("[300000, 'skip']", slow.get(0).getBinds());
+            assertEquals("Sum a range", slow.get(0).getAction());
+        }
+
+        @Test
+        @DisplayName("One action running a shape more often than the threshold is reported")
+        public void testNPlusOneDetection() throws SQLException {
+            UiAction.run("Fill a table", () -> {
+                for (int i = 0; i < 12; i++) {
+                    assertDoesNotThrow(() -> range(1));
+                }
+            });
+            UiAction.run("Open a dialog", () -> {
+                for (int i = 0; i < 10; i++) {
+                    assertDoesNotThrow(() -> range(1));
+                }
+            });
+            // Outside an action nothing is checked
+            for (int i = 0; i < 20; i++) {
+                range(1);
+            }
+
+            List<QueryStats.NPlusOne> warnings = stats.getNPlusOneWarnings();
+            assertEquals(1, warnings.size());
+            assertEquals("Fill a table", warnings.get(0).getAction());
+            assertEquals(12, warnings.get(0).getExecutions());
+            assertEquals(QueryStats.shapeOf(RANGE), warnings.get(0).getShape());
+        }
+
+        @Test
+        @DisplayName("Nested actions count towards their parent and are checked once")
+        public void testNestedActions() throws SQLException {
+            UiAction outer = UiAction.begin("Open page");
+            UiAction inner = UiAction.begin("Load table");
+            assertSame(outer, inner.getParent());
+            for (int i = 0; i < 11; i++) {
+                range(1);
+            }
+            inner.close();
+            range(1);
+            outer.close();
+
+            assertNull(UiAction.current());
+            assertEquals(11, inner.getStatementCount());
+            assertEquals(12, outer.getStatementCount());
+            assertTrue(inner.isFinished() && outer.isFinished());
+            assertEquals(1, stats.getNPlusOneWarnings().size());
+            assertEquals("Open page", stats.getNPlusOneWarnings().get(0).getAction());
+            assertEquals(List.of(outer, inner), stats.getRecentActions());
+        }
+
+        @Test
+        @DisplayName("Asynchronous calls count towards the action that started them")
+        public void testAsyncPropagation() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            UiAction action;
+            CompletableFuture<Integer> load;
+            try (UiAction open = UiAction.begin("Open inbox")) {
+                action = open;
+                load = AsyncDatabase.supply(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return range(4);
+                });
+            }
+            // The scope has ended but the load is still running
+            assertNull(UiAction.current());
+            assertTrue(action.getScopeNanos() >= 0);
+            assertFalse(action.isFinished());
+
+            release.countDown();
+            assertEquals(4, load.get(5, TimeUnit.SECONDS));
+            awaitFinished(action);
+            assertEquals(1, action.getStatementCount());
+            assertTrue(action.getDurationNanos() >= action.getScopeNanos());
+        }
+
+        @Test
+        @DisplayName("Detaching ends every open action of the thread")
+        public void testDetachAll() throws SQLException {
+            UiAction outer = UiAction.begin("Open answers");
+            UiAction inner = UiAction.begin("Load table");
+            UiAction.detachAll();
+            assertNull(UiAction.current());
+            // Work done after the dialog opened belongs to no action
+            range(1);
+            inner.close();
+            outer.close();
+            assertEquals(0, outer.getStatementCount());
+            assertTrue(outer.isFinished());
+        }
+    }
+
+    /**
+     * Test suite for the FlightRecording events.
+     */
+    @Nested
+    @DisplayName("Flight Recording Tests")
+    public class FlightRecordingTests {
+
+        private Path file;
+
+        @BeforeEach
+        public void setUp() throws Exception {
+            new DatabaseHelper().connectToDatabase();
+            file = Files.createTempFile("p5-recording", ".jfr");
+        }
+
+        @AfterEach
+        public void tearDown() throws Exception {
+            FlightRecording.stop();
+            Files.deleteIfExists(file);
+        }
+
+        private List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String name) {
+            List<RecordedEvent> named = new ArrayList<>();
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals(name)) {
+                    named.add(event);
+                }
+            }
+            return named;
+        }
+
+        private void query(String sql) throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(sql)) {
+                while (rs.next()) {
+                    // Read every row
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Actions and the statements they caused are recorded with their nesting")
+        public void testRecordsNestedActionsAndCalls() throws Exception {
+            FlightRecording.start(file);
+            assertTrue(FlightRecording.isRecording());
+            UiAction outer = UiAction.begin("p5 Open reviews");
+            UiAction inner = UiAction.begin("p5 Load table");
+            CompletableFuture<Void> load = AsyncDatabase.run(() -> query("SELECT X FROM SYSTEM_RANGE(1, 7)"));
+            inner.close();
+            query("SELECT X FROM SYSTEM_RANGE(1, 3)");
+            outer.close();
+            load.get(5, TimeUnit.SECONDS);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!outer.isFinished() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(file, FlightRecording.stop());
+            assertFalse(FlightRecording.isRecording());
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> calls = eventsNamed(events, "ars.DatabaseCall");
+            RecordedEvent asyncCall = calls.stream().filter(e -> e.getInt("actionId") == inner.getId()).findFirst().orElseThrow();
+            assertEquals("SELECT X FROM SYSTEM_RANGE(?, ?)", asyncCall.getString("shape"));
+            assertEquals(7, asyncCall.getLong("rows"));
+            assertEquals("p5 Load table", asyncCall.getString("action"));
+            RecordedEvent directCall = calls.stream().filter(e -> e.getInt("actionId") == outer.getId()).findFirst().orElseThrow();
+            assertEquals(3, directCall.getLong("rows"));
+
+            List<RecordedEvent> actions = eventsNamed(events, "ars.UiAction");
+            RecordedEvent innerEvent = actions.stream().filter(e -> e.getInt("actionId") == inner.getId()).findFirst().orElseThrow();
+            RecordedEvent outerEvent = actions.stream().filter(e -> e.getInt("actionId") == outer.getId()).findFirst().orElseThrow();
+            assertEquals(outer.getId(), innerEvent.getInt("parentId"));
+            assertEquals(0, outerEvent.getInt("parentId"));
+            assertEquals(2, outerEvent.getInt("statements"));
+            assertEquals(Thread.currentThread().getName(), outerEvent.getThread("startThread").getJavaName());
+            assertEquals(outer.getScopeNanos(), outerEvent.getDuration("blocked").toNanos());
+
+            List<RecordedEvent> scopes = eventsNamed(events, "ars.UiActionScope");
+            RecordedEvent outerScope = scopes.stream().filter(e -> e.getInt("actionId") == outer.getId()).findFirst().orElseThrow();
+            assertEquals(Thread.currentThread().getName(), outerScope.getThread().getJavaName());
+            assertTrue(outerScope.getDuration().compareTo(outerEvent.getDuration()) <= 0);
+        }
+
+        @Test
+        @DisplayName("Only one recording can be started")
+        public void testSingleRecording() throws Exception {
+            assertNull(FlightRecording.stop());
+            FlightRecording.start(file);
+            assertThrows(java.io.IOException.class, () -> FlightRecording.start(file));
+            assertEquals(file, FlightRecording.stop());
+            assertTrue(Files.size(file) > 0);
+        }
+    }
+
+    /**
+     * Test suite for SystemHealth.
+     */
+    @Nested
+    @DisplayName("System Health Tests")
+    public class SystemHealthTests {
+
+        private static final String RANGE = "SELECT X FROM SYSTEM_RANGE(1, ?)";
+
+        private QueryStats stats;
+
+        @BeforeEach
+        public void setUp() throws SQLException {
+            new DatabaseHelper().connectToDatabase();
+            stats = QueryStats.getInstance();
+            stats.reset();
+        }
+
+        @AfterEach
+        public void tearDown() {
+            stats.reset();
+        }
+
+        private void range(int rows) throws SQLException {
+            try (Connection connection = ConnectionPool.getInstance().getConnection();
+                 PreparedStatement statement = connection.prepareStatement(RANGE)) {
+                statement.setInt(1, rows);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        // Read to the end so the execution is recorded
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("A reading reports the application tables, the pool and the database file")
+        public void testReadsTablesAndPool() throws SQLException {
+            ConnectionPool pool = ConnectionPool.getInstance();
+            SystemHealth health = SystemHealth.take(pool, null);
+            assertTrue(health.getTableRows().containsKey("QUESTIONS"));
+            assertEquals(pool.getMaxSize(), health.getMaxConnections());
+            assertTrue(health.getPoolUtilization() >= 0 && health.getPoolUtilization() <= 1);
+            assertTrue(health.getFileSizeBytes() > 0, "File size: " + health.getFileSizeBytes());
+            assertEquals(0, health.getStatementsPerSecond());
+        }
+
+        @Test
+        @DisplayName("Statement rates are computed against the previous reading")
+        public void testRatesAgainstPreviousReading() throws Exception {
+            ConnectionPool pool = ConnectionPool.getInstance();
+            range(1);
+            SystemHealth first = SystemHealth.take(pool, null);
+            for (int i = 0; i < 20; i++) {
+                range(5);
+            }
+            Thread.sleep(50);
+            SystemHealth second = SystemHealth.take(pool, first);
+
+            SystemHealth.StatementRate rate = second.getStatements().stream()
+                    .filter(r -> r.getShape().equals("SELECT X FROM SYSTEM_RANGE(?, ?)"))
+                    .findFirst().orElseThrow();
+            assertEquals(21, rate.getExecutions());
+            assertTrue(rate.getPerSecond() > 0);
+            assertTrue(rate.getMaxMicros() >= rate.getP50Micros());
+            assertTrue(second.getStatementsPerSecond() >= rate.getPerSecond());
+            assertTrue(second.getStatementCacheHitRatio() >= 0);
+        }
+
+        @Test
+        @DisplayName("The slowest recent actions come first")
+        public void testSlowestActionsFirst() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                long pause = 5 + i * 15;
+                UiAction.run("p5 Action " + i, () -> assertDoesNotThrow(() -> Thread.sleep(pause)));
+            }
+            List<UiAction> slowest = SystemHealth.take(ConnectionPool.getInstance(), null).getSlowestActions();
+            assertEquals(3, slowest.size());
+            assertEquals("p5 Action 2", slowest.get(0).getName());
+            for (int i = 1; i < slowest.size(); i++) {
+                assertTrue(slowest.get(i - 1).getDurationNanos() >= slowest.get(i).getDurationNanos());
+            }
+        }
+    }
+}